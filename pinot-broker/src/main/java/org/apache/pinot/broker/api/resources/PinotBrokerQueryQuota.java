@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.api.resources;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.queryquota.HelixExternalViewBasedQueryQuotaManager;
+import org.apache.pinot.broker.queryquota.QueryQuotaGossiper;
+import org.apache.pinot.spi.utils.JsonUtils;
+
+
+@Api(tags = "QueryQuota")
+@Path("/")
+public class PinotBrokerQueryQuota {
+
+  @Inject
+  HelixExternalViewBasedQueryQuotaManager _queryQuotaManager;
+
+  @Inject
+  AccessControlFactory _accessControlFactory;
+
+  @POST
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.TEXT_PLAIN)
+  @Path("/" + QueryQuotaGossiper.GOSSIP_PATH)
+  @ApiOperation(value = "Receive the query load from another broker", notes = "Used by the distributed query quota")
+  @ApiResponses(value = {
+      @ApiResponse(code = 200, message = "Success"), @ApiResponse(code = 400, message = "Bad request"),
+      @ApiResponse(code = 403, message = "Forbidden")
+  })
+  public String receiveGossip(String message, @Context org.glassfish.grizzly.http.server.Request requestContext) {
+    if (!_accessControlFactory.create().hasAccess(PinotClientRequest.makeHttpIdentity(requestContext))) {
+      throw new WebApplicationException("Permission denied", Response.Status.FORBIDDEN);
+    }
+    QueryQuotaGossiper.GossipMessage gossipMessage;
+    try {
+      gossipMessage = JsonUtils.stringToObject(message, QueryQuotaGossiper.GossipMessage.class);
+    } catch (Exception e) {
+      throw new WebApplicationException("Invalid query quota gossip message: " + e.getMessage(),
+          Response.Status.BAD_REQUEST);
+    }
+    _queryQuotaManager.receiveGossip(gossipMessage);
+    return "Success";
+  }
+}
@@ -27,6 +27,7 @@ import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.io.IOException;
 import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -47,6 +48,10 @@ import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.response.BrokerResponse;
 import org.apache.pinot.spi.utils.CommonConstants.Broker.Request;
 import org.apache.pinot.spi.utils.JsonUtils;
+import org.glassfish.grizzly.Closeable;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.GenericCloseListener;
+import org.glassfish.grizzly.ICloseType;
 import org.glassfish.jersey.server.ManagedAsync;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -91,7 +96,7 @@ public class PinotClientRequest {
       if (debugOptions != null) {
         requestJson.put(Request.DEBUG_OPTIONS, debugOptions);
       }
-      BrokerResponse brokerResponse = requestHandler.handleRequest(requestJson, makeHttpIdentity(requestContext), new RequestStatistics());
+      BrokerResponse brokerResponse = handleRequest(requestJson, requestContext);
       asyncResponse.resume(brokerResponse.toJsonString());
     } catch (Exception e) {
       LOGGER.error("Caught exception while processing GET request", e);
@@ -117,7 +122,7 @@ public class PinotClientRequest {
       @Context org.glassfish.grizzly.http.server.Request requestContext) {
     try {
       JsonNode requestJson = JsonUtils.stringToJsonNode(query);
-      BrokerResponse brokerResponse = requestHandler.handleRequest(requestJson, makeHttpIdentity(requestContext), new RequestStatistics());
+      BrokerResponse brokerResponse = handleRequest(requestJson, requestContext);
       asyncResponse.resume(brokerResponse);
     } catch (Exception e) {
       LOGGER.error("Caught exception while processing POST request", e);
@@ -147,7 +152,7 @@ public class PinotClientRequest {
       if (debugOptions != null) {
         requestJson.put(Request.DEBUG_OPTIONS, debugOptions);
       }
-      BrokerResponse brokerResponse = requestHandler.handleRequest(requestJson, makeHttpIdentity(requestContext), new RequestStatistics());
+      BrokerResponse brokerResponse = handleRequest(requestJson, requestContext);
       asyncResponse.resume(brokerResponse.toJsonString());
     } catch (Exception e) {
       LOGGER.error("Caught exception while processing GET request", e);
@@ -172,7 +177,7 @@ public class PinotClientRequest {
       String queryOptions = constructSqlQueryOptions();
       // the only query options as of now are sql related. do not allow any custom query options in sql endpoint
       ObjectNode sqlRequestJson = ((ObjectNode) requestJson).put(Request.QUERY_OPTIONS, queryOptions);
-      BrokerResponse brokerResponse = requestHandler.handleRequest(sqlRequestJson, makeHttpIdentity(requestContext), new RequestStatistics());
+      BrokerResponse brokerResponse = handleRequest(sqlRequestJson, requestContext);
       asyncResponse.resume(brokerResponse.toJsonString());
     } catch (Exception e) {
       LOGGER.error("Caught exception while processing POST request", e);
@@ -181,12 +186,41 @@ public class PinotClientRequest {
     }
   }
 
+  /**
+   * Handles the request, and cancels the query if the client disconnects before the response is sent so that the
+   * broker and the servers can stop working on it.
+   */
+  private BrokerResponse handleRequest(JsonNode requestJson, org.glassfish.grizzly.http.server.Request requestContext)
+      throws Exception {
+    RequestStatistics requestStatistics = new RequestStatistics();
+    Connection connection = requestContext.getContext() != null ? requestContext.getContext().getConnection() : null;
+    if (connection == null) {
+      return requestHandler.handleRequest(requestJson, makeHttpIdentity(requestContext), requestStatistics);
+    }
+    GenericCloseListener closeListener = new GenericCloseListener() {
+      @Override
+      public void onClosed(Closeable closeable, ICloseType type)
+          throws IOException {
+        if (requestHandler.cancelQuery(requestStatistics.getRequestId())) {
+          LOGGER.info("Client disconnected, cancelled query: {}", requestStatistics.getRequestId());
+          brokerMetrics.addMeteredGlobalValue(BrokerMeter.QUERIES_CANCELLED_BY_CLIENT_DISCONNECT, 1L);
+        }
+      }
+    };
+    connection.addCloseListener(closeListener);
+    try {
+      return requestHandler.handleRequest(requestJson, makeHttpIdentity(requestContext), requestStatistics);
+    } finally {
+      connection.removeCloseListener(closeListener);
+    }
+  }
+
   private String constructSqlQueryOptions() {
     return Request.QueryOptionKey.GROUP_BY_MODE + "=" + Request.SQL + ";" + Request.QueryOptionKey.RESPONSE_FORMAT + "="
         + Request.SQL;
   }
 
-  private static HttpRequesterIdentity makeHttpIdentity(org.glassfish.grizzly.http.server.Request context) {
+  static HttpRequesterIdentity makeHttpIdentity(org.glassfish.grizzly.http.server.Request context) {
     Multimap<String, String> headers = ArrayListMultimap.create();
     context.getHeaderNames().forEach(key -> context.getHeaders(key).forEach(value -> headers.put(key, value)));
 
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.List;
+import org.apache.pinot.broker.queryquota.HelixExternalViewBasedQueryQuotaManager;
 import org.apache.pinot.broker.requesthandler.BrokerRequestHandler;
 import org.apache.pinot.broker.routing.RoutingManager;
 import org.apache.pinot.common.metrics.BrokerMetrics;
@@ -46,6 +47,7 @@ public class BrokerAdminApiApplication extends ResourceConfig {
   private HttpServer _httpServer;
 
   public BrokerAdminApiApplication(RoutingManager routingManager, BrokerRequestHandler brokerRequestHandler,
+      HelixExternalViewBasedQueryQuotaManager queryQuotaManager, AccessControlFactory accessControlFactory,
       BrokerMetrics brokerMetrics, PinotConfiguration brokerConf) {
     packages(RESOURCE_PACKAGE);
     property(PINOT_CONFIGURATION, brokerConf);
@@ -55,6 +57,8 @@ public class BrokerAdminApiApplication extends ResourceConfig {
       protected void configure() {
         bind(routingManager).to(RoutingManager.class);
         bind(brokerRequestHandler).to(BrokerRequestHandler.class);
+        bind(queryQuotaManager).to(HelixExternalViewBasedQueryQuotaManager.class);
+        bind(accessControlFactory).to(AccessControlFactory.class);
         bind(brokerMetrics).to(BrokerMetrics.class);
       }
     });
@@ -94,6 +94,7 @@ public class HelixBrokerStarter implements ServiceStartable {
   private BrokerMetrics _brokerMetrics;
   private RoutingManager _routingManager;
   private AccessControlFactory _accessControlFactory;
+  private HelixExternalViewBasedQueryQuotaManager _queryQuotaManager;
   private BrokerRequestHandler _brokerRequestHandler;
   private BrokerAdminApiApplication _brokerAdminApplication;
   private ClusterChangeMediator _clusterChangeMediator;
@@ -252,12 +253,12 @@ public class HelixBrokerStarter implements ServiceStartable {
         _brokerConf.getProperty(Broker.CONFIG_OF_ALLOWED_TABLES_FOR_EMITTING_METRICS, Collections.emptyList()));
     _brokerMetrics.initializeGlobalMeters();
     // Set up request handling classes
-    _routingManager = new RoutingManager(_brokerMetrics);
+    _routingManager = new RoutingManager(_brokerMetrics,
+        _brokerConf.getProperty(Broker.CONFIG_OF_COMPILED_QUERY_CACHE_SIZE, Broker.DEFAULT_COMPILED_QUERY_CACHE_SIZE));
     _routingManager.init(_spectatorHelixManager);
     _accessControlFactory = AccessControlFactory.loadFactory(_brokerConf.subset(Broker.ACCESS_CONTROL_CONFIG_PREFIX));
-    HelixExternalViewBasedQueryQuotaManager queryQuotaManager =
-        new HelixExternalViewBasedQueryQuotaManager(_brokerMetrics, _brokerId);
-    queryQuotaManager.init(_spectatorHelixManager);
+    _queryQuotaManager = new HelixExternalViewBasedQueryQuotaManager(_brokerMetrics, _brokerId, _brokerConf);
+    _queryQuotaManager.init(_spectatorHelixManager);
     // Initialize FunctionRegistry before starting the broker request handler
     FunctionRegistry.init();
     TableCache tableCache = new TableCache(_propertyStore, caseInsensitive);
@@ -266,15 +267,16 @@ public class HelixBrokerStarter implements ServiceStartable {
 
     if (_brokerConf.getProperty(Broker.BROKER_NETTYTLS_ENABLED, false)) {
       _brokerRequestHandler = new SingleConnectionBrokerRequestHandler(_brokerConf, _routingManager,
-          _accessControlFactory, queryQuotaManager, tableCache, _brokerMetrics, tlsDefaults);
+          _accessControlFactory, _queryQuotaManager, tableCache, _brokerMetrics, tlsDefaults);
     } else {
       _brokerRequestHandler = new SingleConnectionBrokerRequestHandler(_brokerConf, _routingManager,
-          _accessControlFactory, queryQuotaManager, tableCache, _brokerMetrics, null);
+          _accessControlFactory, _queryQuotaManager, tableCache, _brokerMetrics, null);
     }
 
     LOGGER.info("Starting broker admin application on: {}", ListenerConfigUtil.toString(_listenerConfigs));
     _brokerAdminApplication =
-        new BrokerAdminApiApplication(_routingManager, _brokerRequestHandler, _brokerMetrics, _brokerConf);
+        new BrokerAdminApiApplication(_routingManager, _brokerRequestHandler, _queryQuotaManager,
+            _accessControlFactory, _brokerMetrics, _brokerConf);
     _brokerAdminApplication.start(_listenerConfigs);
 
     LOGGER.info("Initializing cluster change mediator");
@@ -282,12 +284,12 @@ public class HelixBrokerStarter implements ServiceStartable {
       externalViewChangeHandler.init(_spectatorHelixManager);
     }
     _externalViewChangeHandlers.add(_routingManager);
-    _externalViewChangeHandlers.add(queryQuotaManager);
+    _externalViewChangeHandlers.add(_queryQuotaManager);
     for (ClusterChangeHandler instanceConfigChangeHandler : _instanceConfigChangeHandlers) {
       instanceConfigChangeHandler.init(_spectatorHelixManager);
     }
     _instanceConfigChangeHandlers.add(_routingManager);
-    _instanceConfigChangeHandlers.add(queryQuotaManager);
+    _instanceConfigChangeHandlers.add(_queryQuotaManager);
     for (ClusterChangeHandler liveInstanceChangeHandler : _liveInstanceChangeHandlers) {
       liveInstanceChangeHandler.init(_spectatorHelixManager);
     }
@@ -312,11 +314,11 @@ public class HelixBrokerStarter implements ServiceStartable {
     _participantHelixManager.getStateMachineEngine()
         .registerStateModelFactory(BrokerResourceOnlineOfflineStateModelFactory.getStateModelDef(),
             new BrokerResourceOnlineOfflineStateModelFactory(_propertyStore, _helixDataAccessor, _routingManager,
-                queryQuotaManager));
+                _queryQuotaManager));
     // Register user-define message handler factory
     _participantHelixManager.getMessagingService()
         .registerMessageHandlerFactory(Message.MessageType.USER_DEFINE_MSG.toString(),
-            new BrokerUserDefinedMessageHandlerFactory(_routingManager, queryQuotaManager));
+            new BrokerUserDefinedMessageHandlerFactory(_routingManager, _queryQuotaManager));
     _participantHelixManager.connect();
     addInstanceTagIfNeeded();
     _brokerMetrics
@@ -397,6 +399,9 @@ public class HelixBrokerStarter implements ServiceStartable {
     _brokerRequestHandler.shutDown();
     _brokerAdminApplication.stop();
 
+    LOGGER.info("Stopping query quota manager");
+    _queryQuotaManager.stop();
+
     LOGGER.info("Disconnecting spectator Helix manager");
     _spectatorHelixManager.disconnect();
 
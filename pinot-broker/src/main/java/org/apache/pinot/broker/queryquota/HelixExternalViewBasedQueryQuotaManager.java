@@ -21,9 +21,15 @@ package org.apache.pinot.broker.queryquota;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.RateLimiter;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.I0Itec.zkclient.exception.ZkNoNodeException;
 import org.apache.helix.AccessOption;
@@ -37,9 +43,12 @@ import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metrics.BrokerGauge;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.utils.helix.HelixHelper;
+import org.apache.pinot.core.transport.ListenerConfig;
+import org.apache.pinot.core.util.ListenerConfigUtil;
 import org.apache.pinot.spi.config.table.QuotaConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.apache.zookeeper.data.Stat;
@@ -52,6 +61,18 @@ import org.slf4j.LoggerFactory;
  * It depends on the broker source change to update the dynamic rate limit,
  *  which means it only gets updated when a new table added or a broker restarted.
  * TODO: support adding new rate limiter for existing tables without restarting the broker.
+ * <p>Optional features (configured in the broker config):
+ * <ul>
+ *   <li>
+ *     Distributed quota: instead of splitting the table quota evenly, each broker periodically exchanges its observed
+ *     load with the other brokers via {@link QueryQuotaGossiper}, and the quota is split based on the load of each
+ *     broker, so that the overall quota can be fully used when the traffic is skewed among the brokers.
+ *   </li>
+ *   <li>
+ *     Burst tokens: the unused per-broker quota is saved as burst tokens (up to the configured seconds of quota), which
+ *     can be used to serve the queries beyond the quota in a short burst.
+ *   </li>
+ * </ul>
  */
 public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHandler, QueryQuotaManager {
   private static final Logger LOGGER = LoggerFactory.getLogger(HelixExternalViewBasedQueryQuotaManager.class);
@@ -62,14 +83,39 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
   private final String _instanceId;
   private final AtomicInteger _lastKnownBrokerResourceVersion = new AtomicInteger(-1);
   private final Map<String, QueryQuotaEntity> _rateLimiterMap = new ConcurrentHashMap<>();
+  // Map from table name with type to the other online brokers serving the table
+  private final Map<String, Set<String>> _otherOnlineBrokersMap = new ConcurrentHashMap<>();
+  private final boolean _distributedQuotaEnabled;
+  private final long _syncIntervalMs;
+  private final double _burstSeconds;
+  // Listener whose port is registered in the instance config, used to gossip with the other brokers
+  private final ListenerConfig _listenerConfig;
+  private final String _gossipAuthToken;
 
   private HelixManager _helixManager;
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private volatile boolean _queryRateLimitDisabled;
+  private QueryQuotaGossiper _gossiper;
+  private ScheduledExecutorService _syncExecutor;
 
   public HelixExternalViewBasedQueryQuotaManager(BrokerMetrics brokerMetrics, String instanceId) {
+    this(brokerMetrics, instanceId, new PinotConfiguration());
+  }
+
+  public HelixExternalViewBasedQueryQuotaManager(BrokerMetrics brokerMetrics, String instanceId,
+      PinotConfiguration brokerConf) {
     _brokerMetrics = brokerMetrics;
     _instanceId = instanceId;
+    _distributedQuotaEnabled = brokerConf.getProperty(CommonConstants.Broker.CONFIG_OF_QUERY_QUOTA_DISTRIBUTED_ENABLED,
+        CommonConstants.Broker.DEFAULT_QUERY_QUOTA_DISTRIBUTED_ENABLED);
+    _syncIntervalMs = brokerConf.getProperty(CommonConstants.Broker.CONFIG_OF_QUERY_QUOTA_SYNC_INTERVAL_MS,
+        CommonConstants.Broker.DEFAULT_QUERY_QUOTA_SYNC_INTERVAL_MS);
+    _burstSeconds = brokerConf.getProperty(CommonConstants.Broker.CONFIG_OF_QUERY_QUOTA_BURST_SECONDS,
+        CommonConstants.Broker.DEFAULT_QUERY_QUOTA_BURST_SECONDS);
+    _listenerConfig = ListenerConfigUtil.buildBrokerConfigs(brokerConf).get(0);
+    _gossipAuthToken = brokerConf.getProperty(CommonConstants.Broker.CONFIG_OF_QUERY_QUOTA_GOSSIP_AUTH_TOKEN);
+    Preconditions.checkArgument(_syncIntervalMs > 0, "Query quota sync interval must be positive, got: %s",
+        _syncIntervalMs);
   }
 
   @Override
@@ -78,6 +124,37 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     _helixManager = helixManager;
     _propertyStore = _helixManager.getHelixPropertyStore();
     getQueryQuotaEnabledFlagFromInstanceConfig();
+    if (_distributedQuotaEnabled) {
+      _gossiper = new QueryQuotaGossiper(_instanceId, helixManager, _syncIntervalMs, _listenerConfig, _gossipAuthToken);
+    }
+    if (_distributedQuotaEnabled || _burstSeconds > 0) {
+      LOGGER.info("Starting query quota sync with interval: {}ms, distributed quota enabled: {}, burst seconds: {}",
+          _syncIntervalMs, _distributedQuotaEnabled, _burstSeconds);
+      _syncExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "QueryQuotaSync");
+        thread.setDaemon(true);
+        return thread;
+      });
+      _syncExecutor.scheduleWithFixedDelay(() -> {
+        try {
+          syncQuotas();
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while syncing query quotas", e);
+        }
+      }, _syncIntervalMs, _syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops the periodic query quota sync.
+   */
+  public void stop() {
+    if (_syncExecutor != null) {
+      _syncExecutor.shutdownNow();
+    }
+    if (_gossiper != null) {
+      _gossiper.shutdown();
+    }
   }
 
   @Override
@@ -136,6 +213,10 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
    */
   private void removeRateLimiter(String tableNameWithType) {
     _rateLimiterMap.remove(tableNameWithType);
+    _otherOnlineBrokersMap.remove(tableNameWithType);
+    if (_gossiper != null) {
+      _gossiper.removeTable(tableNameWithType);
+    }
   }
 
   public boolean containsRateLimiterForTable(String tableNameWithType) {
@@ -173,20 +254,11 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
       return;
     }
 
-    Map<String, String> stateMap = brokerResource.getStateMap(tableNameWithType);
-    int otherOnlineBrokerCount = 0;
-
     // If stateMap is null, that means this broker is the first broker for this table.
-    if (stateMap != null) {
-      for (Map.Entry<String, String> state : stateMap.entrySet()) {
-        if (!_helixManager.getInstanceName().equals(state.getKey()) && state.getValue()
-            .equals(CommonConstants.Helix.StateModel.SegmentStateModel.ONLINE)) {
-          otherOnlineBrokerCount++;
-        }
-      }
-    }
+    Set<String> otherOnlineBrokers = getOtherOnlineBrokers(brokerResource.getStateMap(tableNameWithType));
+    _otherOnlineBrokersMap.put(tableNameWithType, otherOnlineBrokers);
 
-    int onlineCount = otherOnlineBrokerCount + 1;
+    int onlineCount = otherOnlineBrokers.size() + 1;
     LOGGER.info("The number of online brokers for table {} is {}", tableNameWithType, onlineCount);
 
     // Get the dynamic rate
@@ -274,6 +346,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     // Use hit counter to count the number of hits.
     queryQuotaEntity.getQpsTracker().hit();
     queryQuotaEntity.getMaxQpsTracker().hit();
+    queryQuotaEntity.recordHit();
 
     RateLimiter rateLimiter = queryQuotaEntity.getRateLimiter();
     double perBrokerRate = rateLimiter.getRate();
@@ -288,14 +361,133 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     }
 
     if (!rateLimiter.tryAcquire()) {
+      if (queryQuotaEntity.tryAcquireBurstToken()) {
+        LOGGER.debug("Quota is exceeded for table: {}, served with burst token", tableNameWithType);
+        return true;
+      }
       LOGGER.info("Quota is exceeded for table: {}. Per-broker rate: {}. Current qps: {}", tableNameWithType,
           perBrokerRate, numHits);
       return false;
     }
     // Token is successfully acquired.
+    queryQuotaEntity.recordAcquired();
     return true;
   }
 
+  /**
+   * Syncs the query quotas, invoked periodically:
+   * <ul>
+   *   <li>Saves the unused per-broker quota since the last sync as burst tokens</li>
+   *   <li>
+   *     If distributed quota is enabled, publishes the local load to the other brokers, and updates the per-broker rate
+   *     based on the loads of all the brokers
+   *   </li>
+   * </ul>
+   */
+  @VisibleForTesting
+  void syncQuotas() {
+    double intervalSeconds = _syncIntervalMs / 1000.0;
+    Map<String, Double> tableLoads = new HashMap<>();
+    for (Map.Entry<String, QueryQuotaEntity> entry : _rateLimiterMap.entrySet()) {
+      QueryQuotaEntity queryQuotaEntity = entry.getValue();
+      RateLimiter rateLimiter = queryQuotaEntity.getRateLimiter();
+      double perBrokerRate = rateLimiter.getRate();
+      int numHits = queryQuotaEntity.getAndResetNumHits();
+      int numAcquired = queryQuotaEntity.getAndResetNumAcquired();
+      if (_burstSeconds > 0) {
+        double numUnusedTokens = perBrokerRate * intervalSeconds - numAcquired;
+        if (numUnusedTokens > 0) {
+          queryQuotaEntity.addBurstTokens(numUnusedTokens, perBrokerRate * _burstSeconds);
+        }
+      }
+      if (_gossiper != null) {
+        tableLoads.put(entry.getKey(), numHits / intervalSeconds);
+      }
+    }
+    if (_gossiper == null) {
+      return;
+    }
+
+    Set<String> otherOnlineBrokers = new HashSet<>();
+    for (Set<String> brokers : _otherOnlineBrokersMap.values()) {
+      otherOnlineBrokers.addAll(brokers);
+    }
+    _gossiper.publish(otherOnlineBrokers, tableLoads);
+
+    for (Map.Entry<String, Double> entry : tableLoads.entrySet()) {
+      String tableNameWithType = entry.getKey();
+      QueryQuotaEntity queryQuotaEntity = _rateLimiterMap.get(tableNameWithType);
+      if (queryQuotaEntity == null) {
+        continue;
+      }
+      double allowedRate = QueryQuotaGossiper
+          .computeAllowedRate(queryQuotaEntity.getOverallRate(), queryQuotaEntity.getNumOnlineBrokers(),
+              entry.getValue(), _gossiper.getPeerLoads(tableNameWithType));
+      RateLimiter rateLimiter = queryQuotaEntity.getRateLimiter();
+      if (Math.abs(allowedRate - rateLimiter.getRate()) > 0.001) {
+        LOGGER.debug("Updating per-broker rate for table: {} from: {} to: {}", tableNameWithType,
+            rateLimiter.getRate(), allowedRate);
+        rateLimiter.setRate(allowedRate);
+      }
+    }
+  }
+
+  /**
+   * Receives the loads gossiped from another broker. No-op if distributed quota is not enabled.
+   * <p>Only the loads of the tables with quota for which the sender is an online broker are accepted, and each load is
+   * capped at the overall rate times the number of online brokers, so that a bogus message cannot starve the quota of
+   * this broker.
+   */
+  public void receiveGossip(QueryQuotaGossiper.GossipMessage message) {
+    if (_gossiper == null) {
+      return;
+    }
+    String brokerId = message.getBrokerId();
+    Map<String, Double> tableLoads = message.getTableLoads();
+    if (brokerId == null || tableLoads == null) {
+      return;
+    }
+    Map<String, Double> validTableLoads = new HashMap<>();
+    for (Map.Entry<String, Double> entry : tableLoads.entrySet()) {
+      String tableNameWithType = entry.getKey();
+      Double load = entry.getValue();
+      Set<String> otherOnlineBrokers = _otherOnlineBrokersMap.get(tableNameWithType);
+      QueryQuotaEntity queryQuotaEntity = _rateLimiterMap.get(tableNameWithType);
+      // NOTE: '!(load >= 0)' also filters out NaN
+      if (otherOnlineBrokers == null || !otherOnlineBrokers.contains(brokerId) || queryQuotaEntity == null
+          || load == null || !(load >= 0)) {
+        continue;
+      }
+      double maxLoad = queryQuotaEntity.getOverallRate() * queryQuotaEntity.getNumOnlineBrokers();
+      validTableLoads.put(tableNameWithType, Math.min(load, maxLoad));
+    }
+    if (validTableLoads.size() < tableLoads.size()) {
+      LOGGER.debug("Dropped {} invalid table loads gossiped from broker: {}",
+          tableLoads.size() - validTableLoads.size(), brokerId);
+    }
+    if (!validTableLoads.isEmpty()) {
+      _gossiper.receive(new QueryQuotaGossiper.GossipMessage(brokerId, validTableLoads));
+    }
+  }
+
+  @VisibleForTesting
+  QueryQuotaGossiper getGossiper() {
+    return _gossiper;
+  }
+
+  private Set<String> getOtherOnlineBrokers(Map<String, String> stateMap) {
+    Set<String> otherOnlineBrokers = new HashSet<>();
+    if (stateMap != null) {
+      for (Map.Entry<String, String> state : stateMap.entrySet()) {
+        if (!_helixManager.getInstanceName().equals(state.getKey()) && state.getValue()
+            .equals(CommonConstants.Helix.StateModel.SegmentStateModel.ONLINE)) {
+          otherOnlineBrokers.add(state.getKey());
+        }
+      }
+    }
+    return otherOnlineBrokers;
+  }
+
   @VisibleForTesting
   public int getRateLimiterMapSize() {
     return _rateLimiterMap.size();
@@ -334,16 +526,12 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
       if (stateMap == null) {
         LOGGER.info("No broker resource for Table {}. Removing its rate limit.", tableNameWithType);
         it.remove();
+        _otherOnlineBrokersMap.remove(tableNameWithType);
         continue;
       }
-      int otherOnlineBrokerCount = 0;
-      for (Map.Entry<String, String> state : stateMap.entrySet()) {
-        if (!_helixManager.getInstanceName().equals(state.getKey()) && state.getValue()
-            .equals(CommonConstants.Helix.StateModel.SegmentStateModel.ONLINE)) {
-          otherOnlineBrokerCount++;
-        }
-      }
-      int onlineBrokerCount = otherOnlineBrokerCount + 1;
+      Set<String> otherOnlineBrokers = getOtherOnlineBrokers(stateMap);
+      _otherOnlineBrokersMap.put(tableNameWithType, otherOnlineBrokers);
+      int onlineBrokerCount = otherOnlineBrokers.size() + 1;
 
       // Get stat from property store
       String tableConfigPath = constructTableConfigPath(tableNameWithType);
@@ -351,6 +539,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
       if (stat == null) {
         LOGGER.info("Table {} has been deleted from property store. Removing its rate limit.", tableNameWithType);
         it.remove();
+        _otherOnlineBrokersMap.remove(tableNameWithType);
         continue;
       }
 
@@ -368,6 +557,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
           LOGGER.info("No query quota config or the config is invalid for Table {}. Removing its rate limit.",
               tableNameWithType);
           it.remove();
+          _otherOnlineBrokersMap.remove(tableNameWithType);
           continue;
         }
         overallRate = quotaConfig.getMaxQPS();
@@ -19,6 +19,7 @@
 package org.apache.pinot.broker.queryquota;
 
 import com.google.common.util.concurrent.RateLimiter;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class QueryQuotaEntity {
@@ -30,6 +31,12 @@ public class QueryQuotaEntity {
   private double _overallRate;
   private int _tableConfigStatVersion;
 
+  // Stats since the last quota sync
+  private final AtomicInteger _numHits = new AtomicInteger();
+  private final AtomicInteger _numAcquired = new AtomicInteger();
+  // Tokens saved from the unused rate, which can be used to absorb bursts beyond the rate
+  private double _numBurstTokens;
+
   public QueryQuotaEntity(RateLimiter rateLimiter, HitCounter qpsTracker, MaxHitRateTracker maxQpsTracker,
       int numOnlineBrokers, double overallRate, int tableConfigStatVersion) {
     _rateLimiter = rateLimiter;
@@ -75,4 +82,41 @@ public class QueryQuotaEntity {
   public void setTableConfigStatVersion(int tableConfigStatVersion) {
     _tableConfigStatVersion = tableConfigStatVersion;
   }
+
+  public void recordHit() {
+    _numHits.getAndIncrement();
+  }
+
+  public void recordAcquired() {
+    _numAcquired.getAndIncrement();
+  }
+
+  /**
+   * Returns the number of hits (including the throttled ones) since the last call, and resets the counter.
+   */
+  public int getAndResetNumHits() {
+    return _numHits.getAndSet(0);
+  }
+
+  /**
+   * Returns the number of tokens acquired from the rate limiter since the last call, and resets the counter.
+   */
+  public int getAndResetNumAcquired() {
+    return _numAcquired.getAndSet(0);
+  }
+
+  /**
+   * Adds the given number of burst tokens, bounded by the max number of burst tokens.
+   */
+  public synchronized void addBurstTokens(double numTokens, double maxNumTokens) {
+    _numBurstTokens = Math.min(_numBurstTokens + numTokens, maxNumTokens);
+  }
+
+  public synchronized boolean tryAcquireBurstToken() {
+    if (_numBurstTokens >= 1) {
+      _numBurstTokens--;
+      return true;
+    }
+    return false;
+  }
 }
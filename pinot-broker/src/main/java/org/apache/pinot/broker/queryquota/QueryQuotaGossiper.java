@@ -0,0 +1,335 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.queryquota;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import org.apache.helix.HelixManager;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.pinot.core.transport.ListenerConfig;
+import org.apache.pinot.core.transport.TlsConfig;
+import org.apache.pinot.core.util.TlsUtils;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code QueryQuotaGossiper} exchanges the observed query load (QPS including the throttled queries) of each table
+ * between the brokers, so that the table QPS quota can be split among the brokers based on the actual load instead of
+ * evenly, which is unfair when the load balancer skews the traffic.
+ * <p>Each broker periodically pushes its local load to the other online brokers via the broker HTTP endpoint
+ * {@code POST /queryQuota/gossip}, and keeps the latest load received from each broker. Loads not refreshed within the
+ * stale time are ignored, and the brokers without fresh load are assumed to use their even share of the quota, so that
+ * the quota falls back to the even split when the gossip does not work.
+ * <p>The gossip is sent with the protocol (and TLS config for HTTPS) of the primary broker listener, which is the
+ * listener whose port is registered in the broker instance config. The gossip endpoint is protected by the broker
+ * access control, so the auth token (if configured) is sent as the authorization header. The gossip is sent to all the
+ * brokers in parallel, and the brokers not responding within the timeout are skipped for the round.
+ */
+public class QueryQuotaGossiper {
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryQuotaGossiper.class);
+
+  public static final String GOSSIP_PATH = "queryQuota/gossip";
+  // Min ratio of the even share each broker always gets, so that a broker without load can still serve new queries
+  @VisibleForTesting
+  static final double MIN_SHARE_RATIO = 0.1;
+
+  private final String _brokerId;
+  private final HelixManager _helixManager;
+  private final long _staleTimeMs;
+  private final int _timeoutMs;
+  private final String _protocol;
+  // Only set for HTTPS
+  private final SSLSocketFactory _sslSocketFactory;
+  private final String _authToken;
+  private final ExecutorService _sendExecutor;
+  // Map from table name with type to the loads from other brokers
+  private final Map<String, Map<String, PeerLoad>> _peerLoadsMap = new ConcurrentHashMap<>();
+  // Map from broker instance id to the gossip URL
+  private final Map<String, String> _gossipUrlMap = new ConcurrentHashMap<>();
+
+  public QueryQuotaGossiper(String brokerId, HelixManager helixManager, long syncIntervalMs,
+      ListenerConfig listenerConfig, @Nullable String authToken) {
+    _brokerId = brokerId;
+    _helixManager = helixManager;
+    // Tolerate missing 2 rounds of gossip before ignoring the load
+    _staleTimeMs = 3 * syncIntervalMs;
+    _timeoutMs = (int) Math.max(syncIntervalMs / 2, 100);
+    _protocol = listenerConfig.getProtocol();
+    if (CommonConstants.HTTPS_PROTOCOL.equals(_protocol)) {
+      _sslSocketFactory = createSSLSocketFactory(listenerConfig.getTlsConfig());
+    } else {
+      _sslSocketFactory = null;
+    }
+    _authToken = authToken;
+    _sendExecutor = Executors.newCachedThreadPool(r -> {
+      Thread thread = new Thread(r, "QueryQuotaGossip");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Stops sending the gossip.
+   */
+  public void shutdown() {
+    _sendExecutor.shutdownNow();
+  }
+
+  /**
+   * Pushes the local loads to the given brokers in parallel, and waits for at most the timeout for all of them to
+   * finish. Failures are logged and ignored.
+   */
+  public void publish(Set<String> brokerIds, Map<String, Double> tableLoads) {
+    if (brokerIds.isEmpty() || tableLoads.isEmpty()) {
+      return;
+    }
+    byte[] payload;
+    try {
+      payload = JsonUtils.objectToBytes(new GossipMessage(_brokerId, tableLoads));
+    } catch (Exception e) {
+      LOGGER.error("Caught exception while serializing query quota gossip message", e);
+      return;
+    }
+    List<Future<?>> futures = new ArrayList<>(brokerIds.size());
+    for (String brokerId : brokerIds) {
+      String gossipUrl = getGossipUrl(brokerId);
+      if (gossipUrl == null) {
+        continue;
+      }
+      futures.add(_sendExecutor.submit(() -> {
+        try {
+          send(gossipUrl, payload);
+        } catch (Exception e) {
+          LOGGER.debug("Caught exception while sending query quota gossip to broker: {}", brokerId, e);
+          // Re-resolve the URL next time in case the broker moved
+          _gossipUrlMap.remove(brokerId);
+        }
+      }));
+    }
+    long deadlineNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(_timeoutMs);
+    for (Future<?> future : futures) {
+      try {
+        future.get(Math.max(deadlineNs - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        future.cancel(true);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        // Should not happen because the exceptions are handled within the task
+        LOGGER.debug("Caught exception while sending query quota gossip", e);
+      }
+    }
+  }
+
+  /**
+   * Receives the loads from another broker.
+   */
+  public void receive(GossipMessage message) {
+    String brokerId = message.getBrokerId();
+    Map<String, Double> tableLoads = message.getTableLoads();
+    if (brokerId == null || brokerId.equals(_brokerId) || tableLoads == null) {
+      return;
+    }
+    long currentTimeMs = System.currentTimeMillis();
+    for (Map.Entry<String, Double> entry : tableLoads.entrySet()) {
+      _peerLoadsMap.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
+          .put(brokerId, new PeerLoad(entry.getValue(), currentTimeMs));
+    }
+  }
+
+  /**
+   * Returns the fresh loads of the given table from the other brokers.
+   */
+  public List<Double> getPeerLoads(String tableNameWithType) {
+    Map<String, PeerLoad> peerLoads = _peerLoadsMap.get(tableNameWithType);
+    if (peerLoads == null) {
+      return new ArrayList<>();
+    }
+    long minReceivedTimeMs = System.currentTimeMillis() - _staleTimeMs;
+    List<Double> loads = new ArrayList<>(peerLoads.size());
+    for (Map.Entry<String, PeerLoad> entry : peerLoads.entrySet()) {
+      PeerLoad peerLoad = entry.getValue();
+      if (peerLoad._receivedTimeMs >= minReceivedTimeMs) {
+        loads.add(peerLoad._load);
+      }
+    }
+    return loads;
+  }
+
+  /**
+   * Removes the loads of the table (e.g. quota removed).
+   */
+  public void removeTable(String tableNameWithType) {
+    _peerLoadsMap.remove(tableNameWithType);
+  }
+
+  /**
+   * Computes the rate allowed for the local broker based on the loads of all the brokers:
+   * <ul>
+   *   <li>
+   *     When the total load is within the overall rate, each broker gets its load plus an even share of the spare rate
+   *   </li>
+   *   <li>When the total load exceeds the overall rate, the overall rate is split proportionally to the loads</li>
+   * </ul>
+   * Brokers without fresh load are assumed to use their even share. The allowed rate is lower bounded by a fraction of
+   * the even share.
+   */
+  public static double computeAllowedRate(double overallRate, int numOnlineBrokers, double localLoad,
+      Collection<Double> peerLoads) {
+    double evenShare = overallRate / numOnlineBrokers;
+    int numBrokersWithoutLoad = Math.max(numOnlineBrokers - 1 - peerLoads.size(), 0);
+    double totalLoad = localLoad + numBrokersWithoutLoad * evenShare;
+    for (double peerLoad : peerLoads) {
+      totalLoad += peerLoad;
+    }
+    double allowedRate;
+    if (totalLoad <= overallRate) {
+      allowedRate = localLoad + (overallRate - totalLoad) / numOnlineBrokers;
+    } else {
+      allowedRate = overallRate * localLoad / totalLoad;
+    }
+    return Math.max(allowedRate, evenShare * MIN_SHARE_RATIO);
+  }
+
+  @VisibleForTesting
+  @Nullable
+  String getGossipUrl(String brokerId) {
+    return _gossipUrlMap.computeIfAbsent(brokerId, k -> {
+      try {
+        InstanceConfig instanceConfig =
+            _helixManager.getClusterManagmentTool().getInstanceConfig(_helixManager.getClusterName(), brokerId);
+        return String.format("%s://%s:%s/%s", _protocol, instanceConfig.getHostName(), instanceConfig.getPort(),
+            GOSSIP_PATH);
+      } catch (Exception e) {
+        LOGGER.warn("Failed to resolve the address of broker: {}", brokerId, e);
+        return null;
+      }
+    });
+  }
+
+  private void send(String gossipUrl, byte[] payload)
+      throws Exception {
+    HttpURLConnection connection = (HttpURLConnection) new URL(gossipUrl).openConnection();
+    if (_sslSocketFactory != null && connection instanceof HttpsURLConnection) {
+      ((HttpsURLConnection) connection).setSSLSocketFactory(_sslSocketFactory);
+    }
+    try {
+      connection.setConnectTimeout(_timeoutMs);
+      connection.setReadTimeout(_timeoutMs);
+      connection.setDoOutput(true);
+      connection.setRequestMethod("POST");
+      connection.setRequestProperty("Content-Type", "application/json");
+      if (_authToken != null) {
+        connection.setRequestProperty("Authorization", _authToken);
+      }
+      try (OutputStream outputStream = connection.getOutputStream()) {
+        outputStream.write(payload);
+      }
+      int responseCode = connection.getResponseCode();
+      if (responseCode != HttpURLConnection.HTTP_OK) {
+        throw new IllegalStateException("Got response code: " + responseCode + " from: " + gossipUrl);
+      }
+    } finally {
+      connection.disconnect();
+    }
+  }
+
+  private static SSLSocketFactory createSSLSocketFactory(TlsConfig tlsConfig) {
+    KeyManager[] keyManagers = null;
+    if (tlsConfig.getKeyStorePath() != null) {
+      keyManagers = TlsUtils.createKeyManagerFactory(tlsConfig).getKeyManagers();
+    }
+    TrustManager[] trustManagers = null;
+    if (tlsConfig.getTrustStorePath() != null) {
+      trustManagers = TlsUtils.createTrustManagerFactory(tlsConfig).getTrustManagers();
+    }
+    try {
+      SSLContext sslContext = SSLContext.getInstance("TLS");
+      sslContext.init(keyManagers, trustManagers, null);
+      return sslContext.getSocketFactory();
+    } catch (Exception e) {
+      throw new IllegalStateException("Failed to create SSL socket factory for query quota gossip", e);
+    }
+  }
+
+  private static class PeerLoad {
+    final double _load;
+    final long _receivedTimeMs;
+
+    PeerLoad(double load, long receivedTimeMs) {
+      _load = load;
+      _receivedTimeMs = receivedTimeMs;
+    }
+  }
+
+  /**
+   * Message exchanged between the brokers, which contains the load (QPS) of each table on the sender broker.
+   */
+  public static class GossipMessage {
+    private String _brokerId;
+    private Map<String, Double> _tableLoads;
+
+    public GossipMessage() {
+    }
+
+    public GossipMessage(String brokerId, Map<String, Double> tableLoads) {
+      _brokerId = brokerId;
+      _tableLoads = tableLoads;
+    }
+
+    public String getBrokerId() {
+      return _brokerId;
+    }
+
+    public void setBrokerId(String brokerId) {
+      _brokerId = brokerId;
+    }
+
+    public Map<String, Double> getTableLoads() {
+      return _tableLoads;
+    }
+
+    public void setTableLoads(Map<String, Double> tableLoads) {
+      _tableLoads = tableLoads;
+    }
+  }
+}
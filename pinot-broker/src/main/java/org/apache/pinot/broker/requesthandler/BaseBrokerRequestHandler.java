@@ -114,6 +114,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
   protected final AtomicLong _requestIdGenerator = new AtomicLong();
   protected final QueryOptimizer _queryOptimizer = new QueryOptimizer();
   protected final BrokerReduceService _brokerReduceService;
+  // Null when the compiled query cache is disabled
+  protected final CompiledQueryCache _compiledQueryCache;
 
   protected final String _brokerId;
   protected final long _brokerTimeoutMs;
@@ -157,6 +159,10 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     _numDroppedLogRateLimiter = RateLimiter.create(1.0);
 
     _brokerReduceService = new BrokerReduceService(_config);
+    int compiledQueryCacheSize =
+        config.getProperty(Broker.CONFIG_OF_COMPILED_QUERY_CACHE_SIZE, Broker.DEFAULT_COMPILED_QUERY_CACHE_SIZE);
+    _compiledQueryCache =
+        compiledQueryCacheSize > 0 ? new CompiledQueryCache(compiledQueryCacheSize, brokerMetrics) : null;
     LOGGER
         .info("Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, query log max rate: {}qps",
             _brokerId, _brokerTimeoutMs, _queryResponseLimit, _queryLogLength, _queryLogRateLimiter.getRate());
@@ -209,7 +215,8 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     long compilationStartTimeNs = System.nanoTime();
     BrokerRequest brokerRequest;
     try {
-      brokerRequest = PinotQueryParserFactory.parseSQLQuery(query);
+      brokerRequest = _compiledQueryCache != null ? _compiledQueryCache.compile(query)
+          : PinotQueryParserFactory.parseSQLQuery(query);
     } catch (Exception e) {
       LOGGER.info("Caught exception while compiling SQL request {}: {}, {}", requestId, query, e.getMessage());
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.REQUEST_COMPILATION_EXCEPTIONS, 1);
@@ -345,23 +352,23 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     if (offlineTableName != null && realtimeTableName != null) {
       // Hybrid
       offlineBrokerRequest = getOfflineBrokerRequest(brokerRequest);
-      _queryOptimizer.optimize(offlineBrokerRequest.getPinotQuery(), schema);
+      optimizeQuery(offlineBrokerRequest.getPinotQuery(), schema);
       realtimeBrokerRequest = getRealtimeBrokerRequest(brokerRequest);
-      _queryOptimizer.optimize(realtimeBrokerRequest.getPinotQuery(), schema);
+      optimizeQuery(realtimeBrokerRequest.getPinotQuery(), schema);
       requestStatistics.setFanoutType(RequestStatistics.FanoutType.HYBRID);
       requestStatistics.setOfflineServerTenant(getServerTenant(offlineTableName));
       requestStatistics.setRealtimeServerTenant(getServerTenant(realtimeTableName));
     } else if (offlineTableName != null) {
       // OFFLINE only
       setTableName(brokerRequest, offlineTableName);
-      _queryOptimizer.optimize(pinotQuery, schema);
+      optimizeQuery(pinotQuery, schema);
       offlineBrokerRequest = brokerRequest;
       requestStatistics.setFanoutType(RequestStatistics.FanoutType.OFFLINE);
       requestStatistics.setOfflineServerTenant(getServerTenant(offlineTableName));
     } else {
       // REALTIME only
       setTableName(brokerRequest, realtimeTableName);
-      _queryOptimizer.optimize(pinotQuery, schema);
+      optimizeQuery(pinotQuery, schema);
       realtimeBrokerRequest = brokerRequest;
       requestStatistics.setFanoutType(RequestStatistics.FanoutType.REALTIME);
       requestStatistics.setRealtimeServerTenant(getServerTenant(realtimeTableName));
@@ -484,6 +491,9 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     if (brokerResponse.isNumGroupsLimitReached()) {
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_NUM_GROUPS_LIMIT_REACHED, 1);
     }
+    if (brokerResponse.isPartialResult()) {
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PARTIAL_RESULTS, 1);
+    }
 
     // Set total query processing time
     long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(executionEndTimeNs - compilationStartTimeNs);
@@ -791,6 +801,9 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     if (brokerResponse.isNumGroupsLimitReached()) {
       _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_NUM_GROUPS_LIMIT_REACHED, 1);
     }
+    if (brokerResponse.isPartialResult()) {
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PARTIAL_RESULTS, 1);
+    }
 
     // Set total query processing time
     long totalTimeMs = TimeUnit.NANOSECONDS.toMillis(executionEndTimeNs - compilationStartTimeNs);
@@ -998,6 +1011,17 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     return tableName;
   }
 
+  /**
+   * Optimizes the given SQL query, reusing the cached optimized filter when the compiled query cache is enabled.
+   */
+  private void optimizeQuery(PinotQuery pinotQuery, @Nullable Schema schema) {
+    if (_compiledQueryCache != null) {
+      _compiledQueryCache.optimize(pinotQuery, schema);
+    } else {
+      _queryOptimizer.optimize(pinotQuery, schema);
+    }
+  }
+
   /**
    * Sets the table name in the given broker request (SQL and PQL)
    * NOTE: Set table name in broker request even for SQL query because it is used for access control, query routing etc.
@@ -36,4 +36,12 @@ public interface BrokerRequestHandler {
   BrokerResponse handleRequest(JsonNode request, @Nullable RequesterIdentity requesterIdentity,
       RequestStatistics requestStatistics)
       throws Exception;
+
+  /**
+   * Cancels the running query with the given request id (e.g. the client disconnected), returns {@code true} if the
+   * query is cancelled.
+   */
+  default boolean cancelQuery(long requestId) {
+    return false;
+  }
 }
@@ -0,0 +1,546 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.common.function.FunctionRegistry;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.Literal;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.core.query.optimizer.QueryOptimizer;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+
+
+/**
+ * The {@code CompiledQueryCache} caches the compiled SQL queries by their templates (query with the literals extracted)
+ * so that queries only differing in the literals (e.g. parameter-varying dashboard queries) are parsed only once.
+ * <p>The literals in the query are replaced with placeholder string literals to form the template, which is compiled
+ * into a {@link PinotQuery} template. For each query, the literals are bound into a copy of the template by replacing
+ * the placeholders. A template is cached only when binding the literals of the first query reproduces exactly the same
+ * {@link PinotQuery} as compiling the query directly, otherwise the template is marked as not cacheable. Queries with
+ * scalar functions that might be evaluated at compile time based on the literals (e.g. {@code now()},
+ * {@code ago('PT1H')}), comments or dynamic parameters are never cached.
+ * <p>The optimized filters are cached separately by the filter and the schema. The query optimizer rewrites the filter
+ * based on the literal values (e.g. numerical literal conversion, range merging), so the optimized filter cannot be
+ * shared by queries with different literals, but is reused by the repeated queries (e.g. dashboard refreshes).
+ */
+@ThreadSafe
+public class CompiledQueryCache {
+  // Same as the pattern used in the CalciteSqlParser to extract the OPTION statements, which are kept as is
+  private static final Pattern OPTIONS_PATTERN = Pattern.compile("option\\s*\\(([^\\)]+)\\)", Pattern.CASE_INSENSITIVE);
+  private static final String PLACEHOLDER_PREFIX = " __PinotParam_";
+  private static final String PLACEHOLDER_SUFFIX = "__ ";
+  private static final char STRING_LITERAL = 'S';
+  private static final char LONG_LITERAL = 'L';
+  private static final char DOUBLE_LITERAL = 'D';
+  // Keywords after which a '-' is a unary minus
+  private static final Set<String> UNARY_MINUS_PRECEDING_KEYWORDS = new HashSet<>(
+      Arrays.asList("SELECT", "WHERE", "HAVING", "AND", "OR", "NOT", "BETWEEN", "CASE", "WHEN", "THEN", "ELSE"));
+  // Marker for the templates that cannot be cached
+  private static final CompiledTemplate NOT_CACHEABLE = new CompiledTemplate(null, 0);
+
+  private final BrokerMetrics _brokerMetrics;
+  // LRU cache from the template key to the compiled template
+  // Guarded by itself
+  private final LinkedHashMap<String, CompiledTemplate> _templateMap;
+  private final QueryOptimizer _queryOptimizer = new QueryOptimizer();
+  // LRU cache from the filter before optimization to the optimized filter
+  // Guarded by itself
+  private final LinkedHashMap<Expression, OptimizedFilter> _optimizedFilterMap;
+
+  public CompiledQueryCache(int maxSize, BrokerMetrics brokerMetrics) {
+    Preconditions.checkArgument(maxSize > 0, "Max size must be positive, got: %s", maxSize);
+    _brokerMetrics = brokerMetrics;
+    _templateMap = new LinkedHashMap<String, CompiledTemplate>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CompiledTemplate> eldest) {
+        return size() > maxSize;
+      }
+    };
+    _optimizedFilterMap = new LinkedHashMap<Expression, OptimizedFilter>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Expression, OptimizedFilter> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Compiles the given SQL query into a broker request, reusing the compiled template when possible. Always returns a
+   * new broker request which can be modified by the caller.
+   */
+  public BrokerRequest compile(String sql) {
+    ParameterizedQuery parameterizedQuery = parameterize(sql);
+    if (parameterizedQuery == null) {
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.COMPILED_QUERY_CACHE_MISSES, 1);
+      return CalciteSqlCompiler.convertToBrokerRequest(CalciteSqlParser.compileToPinotQuery(sql));
+    }
+    CompiledTemplate compiledTemplate;
+    synchronized (_templateMap) {
+      compiledTemplate = _templateMap.get(parameterizedQuery._key);
+    }
+    if (compiledTemplate != null && compiledTemplate != NOT_CACHEABLE) {
+      PinotQuery pinotQuery = compiledTemplate.bind(parameterizedQuery._literals);
+      if (pinotQuery != null) {
+        _brokerMetrics.addMeteredGlobalValue(BrokerMeter.COMPILED_QUERY_CACHE_HITS, 1);
+        return CalciteSqlCompiler.convertToBrokerRequest(pinotQuery);
+      }
+    }
+    _brokerMetrics.addMeteredGlobalValue(BrokerMeter.COMPILED_QUERY_CACHE_MISSES, 1);
+    PinotQuery pinotQuery = CalciteSqlParser.compileToPinotQuery(sql);
+    if (compiledTemplate == null) {
+      compiledTemplate = compileTemplate(parameterizedQuery, pinotQuery);
+      synchronized (_templateMap) {
+        _templateMap.put(parameterizedQuery._key, compiledTemplate);
+      }
+    }
+    return CalciteSqlCompiler.convertToBrokerRequest(pinotQuery);
+  }
+
+  /**
+   * Optimizes the given SQL query with the {@link QueryOptimizer}, reusing the optimized filter of the previous query
+   * with the same filter and schema.
+   */
+  public void optimize(PinotQuery pinotQuery, @Nullable Schema schema) {
+    Expression filterExpression = pinotQuery.getFilterExpression();
+    if (filterExpression == null) {
+      return;
+    }
+    OptimizedFilter optimizedFilter;
+    synchronized (_optimizedFilterMap) {
+      optimizedFilter = _optimizedFilterMap.get(filterExpression);
+    }
+    // NOTE: Schema is compared by reference because the table cache replaces the schema object when it is changed
+    if (optimizedFilter != null && optimizedFilter._schema == schema) {
+      pinotQuery.setFilterExpression(new Expression(optimizedFilter._filterExpression));
+      return;
+    }
+    // NOTE: Make a copy of the filter as the key because the optimizer might modify the filter in place
+    Expression key = new Expression(filterExpression);
+    _queryOptimizer.optimize(pinotQuery, schema);
+    optimizedFilter = new OptimizedFilter(schema, new Expression(pinotQuery.getFilterExpression()));
+    synchronized (_optimizedFilterMap) {
+      _optimizedFilterMap.put(key, optimizedFilter);
+    }
+  }
+
+  @VisibleForTesting
+  boolean isCached(String sql) {
+    ParameterizedQuery parameterizedQuery = parameterize(sql);
+    if (parameterizedQuery == null) {
+      return false;
+    }
+    synchronized (_templateMap) {
+      CompiledTemplate compiledTemplate = _templateMap.get(parameterizedQuery._key);
+      return compiledTemplate != null && compiledTemplate != NOT_CACHEABLE;
+    }
+  }
+
+  /**
+   * Compiles the template of the query, and verifies that binding the literals of the query into the template gives
+   * the same result as the directly compiled query. Returns {@link #NOT_CACHEABLE} if the verification fails.
+   */
+  private static CompiledTemplate compileTemplate(ParameterizedQuery parameterizedQuery, PinotQuery expectedQuery) {
+    try {
+      CompiledTemplate compiledTemplate =
+          new CompiledTemplate(CalciteSqlParser.compileToPinotQuery(parameterizedQuery._templateSql),
+              parameterizedQuery._literals.size());
+      if (expectedQuery.equals(compiledTemplate.bind(parameterizedQuery._literals))) {
+        return compiledTemplate;
+      }
+    } catch (Exception e) {
+      // Template cannot be compiled (e.g. placeholder not allowed in the context)
+    }
+    return NOT_CACHEABLE;
+  }
+
+  /**
+   * Extracts the literals from the given SQL query, returns {@code null} if the query cannot be parameterized.
+   * <p>String literals with prefix (e.g. {@code X'AB'}), numeric literals in the LIMIT/OFFSET clause and the OPTION
+   * statements are kept in the template. A unary minus followed by a numeric literal is extracted as a negative literal
+   * because Calcite folds it into the literal.
+   */
+  @VisibleForTesting
+  @Nullable
+  static ParameterizedQuery parameterize(String sql) {
+    int length = sql.length();
+    StringBuilder templateBuilder = new StringBuilder(length + 64);
+    StringBuilder literalTypesBuilder = new StringBuilder();
+    List<Literal> literals = new ArrayList<>();
+
+    // OPTION statements are kept as is
+    List<int[]> optionRanges = new ArrayList<>();
+    Matcher matcher = OPTIONS_PATTERN.matcher(sql);
+    while (matcher.find()) {
+      optionRanges.add(new int[]{matcher.start(), matcher.end()});
+    }
+    int optionIndex = 0;
+
+    // Whether the numeric literals should be kept (in the LIMIT/OFFSET clause)
+    boolean keepNumericLiterals = false;
+    // Whether the next token is an operand, in which case a '-' is a unary minus instead of a binary minus
+    boolean expectOperand = true;
+    int i = 0;
+    while (i < length) {
+      if (optionIndex < optionRanges.size() && i == optionRanges.get(optionIndex)[0]) {
+        int end = optionRanges.get(optionIndex++)[1];
+        templateBuilder.append(sql, i, end);
+        i = end;
+        continue;
+      }
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        int end = findClosingQuote(sql, i, '\'');
+        if (end < 0) {
+          return null;
+        }
+        if (i > 0 && isIdentifierPart(sql.charAt(i - 1))) {
+          // String literal with prefix
+          templateBuilder.append(sql, i, end + 1);
+        } else {
+          // Same as RequestUtils.getLiteralExpression(SqlLiteral)
+          String value = StringUtils.replace(StringUtils.replace(sql.substring(i + 1, end), "''", "'"), "''", "'");
+          Literal literal = new Literal();
+          literal.setStringValue(value);
+          addLiteral(literal, STRING_LITERAL, templateBuilder, literalTypesBuilder, literals);
+        }
+        i = end + 1;
+        expectOperand = false;
+      } else if (c == '"' || c == '`') {
+        // Quoted identifier
+        int end = findClosingQuote(sql, i, c);
+        if (end < 0) {
+          return null;
+        }
+        templateBuilder.append(sql, i, end + 1);
+        i = end + 1;
+        keepNumericLiterals = false;
+        expectOperand = false;
+      } else if (isIdentifierStart(c)) {
+        int end = i + 1;
+        while (end < length && isIdentifierPart(sql.charAt(end))) {
+          end++;
+        }
+        String word = sql.substring(i, end);
+        int next = skipWhitespaces(sql, end);
+        if (next < length && sql.charAt(next) == '(' && mightBeEvaluatedAtCompileTime(sql, word, next)) {
+          return null;
+        }
+        templateBuilder.append(word);
+        keepNumericLiterals = word.equalsIgnoreCase("limit") || word.equalsIgnoreCase("offset");
+        expectOperand = UNARY_MINUS_PRECEDING_KEYWORDS.contains(word.toUpperCase());
+        i = end;
+      } else if (Character.isDigit(c) || (c == '-' && expectOperand && !keepNumericLiterals && isDigitAt(sql,
+          skipWhitespaces(sql, i + 1)))) {
+        boolean negative = c == '-';
+        int start = negative ? skipWhitespaces(sql, i + 1) : i;
+        int end = start + 1;
+        boolean isInteger = true;
+        while (end < length && Character.isDigit(sql.charAt(end))) {
+          end++;
+        }
+        if (end + 1 < length && sql.charAt(end) == '.' && Character.isDigit(sql.charAt(end + 1))) {
+          isInteger = false;
+          end++;
+          while (end < length && Character.isDigit(sql.charAt(end))) {
+            end++;
+          }
+        }
+        if (end < length && (sql.charAt(end) == 'e' || sql.charAt(end) == 'E')) {
+          int exponentEnd = end + 1;
+          if (exponentEnd < length && (sql.charAt(exponentEnd) == '+' || sql.charAt(exponentEnd) == '-')) {
+            exponentEnd++;
+          }
+          if (exponentEnd < length && Character.isDigit(sql.charAt(exponentEnd))) {
+            isInteger = false;
+            end = exponentEnd + 1;
+            while (end < length && Character.isDigit(sql.charAt(end))) {
+              end++;
+            }
+          }
+        }
+        if (end < length && isIdentifierPart(sql.charAt(end))) {
+          // Malformed numeric literal
+          return null;
+        }
+        if (keepNumericLiterals) {
+          templateBuilder.append(sql, i, end);
+        } else {
+          // Same as RequestUtils.getLiteralExpression(SqlLiteral), where the unary minus is folded into the literal
+          BigDecimal value = new BigDecimal(sql.substring(start, end));
+          if (negative) {
+            value = value.negate();
+          }
+          Literal literal = new Literal();
+          if (isInteger) {
+            literal.setLongValue(value.longValue());
+            addLiteral(literal, LONG_LITERAL, templateBuilder, literalTypesBuilder, literals);
+          } else {
+            literal.setDoubleValue(value.doubleValue());
+            addLiteral(literal, DOUBLE_LITERAL, templateBuilder, literalTypesBuilder, literals);
+          }
+        }
+        i = end;
+        expectOperand = false;
+      } else if (c == '?' || (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') || (c == '/' && i + 1 < length
+          && sql.charAt(i + 1) == '*')) {
+        // Dynamic parameter or comment
+        return null;
+      } else {
+        templateBuilder.append(c);
+        if (c != ',' && !Character.isWhitespace(c)) {
+          keepNumericLiterals = false;
+        }
+        if (!Character.isWhitespace(c)) {
+          expectOperand = c != ')' && c != '.';
+        }
+        i++;
+      }
+    }
+    if (literals.isEmpty()) {
+      return null;
+    }
+    String templateSql = templateBuilder.toString();
+    return new ParameterizedQuery(templateSql + '\0' + literalTypesBuilder, templateSql, literals);
+  }
+
+  /**
+   * Returns {@code true} if the function call might be evaluated at compile time based on the literals, i.e. it is a
+   * registered scalar function and there is no column (identifier) in the arguments.
+   */
+  private static boolean mightBeEvaluatedAtCompileTime(String sql, String functionName, int openParenthesisIndex) {
+    int length = sql.length();
+    int depth = 0;
+    int numCommas = 0;
+    boolean hasArgument = false;
+    boolean hasIdentifier = false;
+    int i = openParenthesisIndex;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (c == '(') {
+        depth++;
+        i++;
+        continue;
+      }
+      if (c == ')') {
+        if (--depth == 0) {
+          break;
+        }
+        i++;
+        continue;
+      }
+      if (!Character.isWhitespace(c)) {
+        hasArgument = true;
+      }
+      if (c == '\'' || c == '"' || c == '`') {
+        int end = findClosingQuote(sql, i, c);
+        if (end < 0) {
+          return true;
+        }
+        if (c != '\'') {
+          hasIdentifier = true;
+        }
+        i = end + 1;
+      } else if (isIdentifierStart(c)) {
+        int end = i + 1;
+        while (end < length && isIdentifierPart(sql.charAt(end))) {
+          end++;
+        }
+        String word = sql.substring(i, end);
+        int next = skipWhitespaces(sql, end);
+        if ((next >= length || sql.charAt(next) != '(') && !word.equalsIgnoreCase("true") && !word
+            .equalsIgnoreCase("false") && !word.equalsIgnoreCase("null")) {
+          hasIdentifier = true;
+        }
+        i = end;
+      } else if (Character.isDigit(c)) {
+        // Skip numeric literal (including the exponent)
+        while (i < length && (isIdentifierPart(sql.charAt(i)) || sql.charAt(i) == '.')) {
+          i++;
+        }
+      } else {
+        if (c == ',' && depth == 1) {
+          numCommas++;
+        }
+        i++;
+      }
+    }
+    if (depth != 0) {
+      return true;
+    }
+    int numArguments = hasArgument ? numCommas + 1 : 0;
+    return !hasIdentifier && FunctionRegistry.getFunctionInfo(functionName, numArguments) != null;
+  }
+
+  private static void addLiteral(Literal literal, char literalType, StringBuilder templateBuilder,
+      StringBuilder literalTypesBuilder, List<Literal> literals) {
+    templateBuilder.append('\'').append(getPlaceholder(literals.size())).append('\'');
+    literalTypesBuilder.append(literalType);
+    literals.add(literal);
+  }
+
+  private static String getPlaceholder(int index) {
+    return PLACEHOLDER_PREFIX + index + PLACEHOLDER_SUFFIX;
+  }
+
+  /**
+   * Returns the index of the closing quote (escaped by doubling the quote), or -1 if not found.
+   */
+  private static int findClosingQuote(String sql, int openingQuoteIndex, char quote) {
+    int index = openingQuoteIndex + 1;
+    while (true) {
+      int quoteIndex = sql.indexOf(quote, index);
+      if (quoteIndex < 0) {
+        return -1;
+      }
+      if (quoteIndex + 1 < sql.length() && sql.charAt(quoteIndex + 1) == quote) {
+        index = quoteIndex + 2;
+      } else {
+        return quoteIndex;
+      }
+    }
+  }
+
+  private static int skipWhitespaces(String sql, int index) {
+    while (index < sql.length() && Character.isWhitespace(sql.charAt(index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean isDigitAt(String sql, int index) {
+    return index < sql.length() && Character.isDigit(sql.charAt(index));
+  }
+
+  private static boolean isIdentifierStart(char c) {
+    return Character.isLetter(c) || c == '_' || c == '$';
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+  @VisibleForTesting
+  static class ParameterizedQuery {
+    // Template with the literal types
+    final String _key;
+    // Query with the literals replaced with the placeholders
+    final String _templateSql;
+    final List<Literal> _literals;
+
+    ParameterizedQuery(String key, String templateSql, List<Literal> literals) {
+      _key = key;
+      _templateSql = templateSql;
+      _literals = literals;
+    }
+  }
+
+  private static class OptimizedFilter {
+    final Schema _schema;
+    final Expression _filterExpression;
+
+    OptimizedFilter(@Nullable Schema schema, Expression filterExpression) {
+      _schema = schema;
+      _filterExpression = filterExpression;
+    }
+  }
+
+  private static class CompiledTemplate {
+    final PinotQuery _pinotQuery;
+    final Map<String, Integer> _placeholderToIndexMap;
+
+    CompiledTemplate(PinotQuery pinotQuery, int numLiterals) {
+      _pinotQuery = pinotQuery;
+      _placeholderToIndexMap = new HashMap<>();
+      for (int i = 0; i < numLiterals; i++) {
+        _placeholderToIndexMap.put(getPlaceholder(i), i);
+      }
+    }
+
+    /**
+     * Binds the literals into a copy of the template, returns {@code null} if any literal is not bound.
+     */
+    @Nullable
+    PinotQuery bind(List<Literal> literals) {
+      PinotQuery pinotQuery = new PinotQuery(_pinotQuery);
+      boolean[] bound = new boolean[literals.size()];
+      bind(pinotQuery.getSelectList(), literals, bound);
+      bind(pinotQuery.getFilterExpression(), literals, bound);
+      bind(pinotQuery.getGroupByList(), literals, bound);
+      bind(pinotQuery.getOrderByList(), literals, bound);
+      bind(pinotQuery.getHavingExpression(), literals, bound);
+      for (boolean literalBound : bound) {
+        if (!literalBound) {
+          return null;
+        }
+      }
+      return pinotQuery;
+    }
+
+    private void bind(@Nullable List<Expression> expressions, List<Literal> literals, boolean[] bound) {
+      if (expressions != null) {
+        for (Expression expression : expressions) {
+          bind(expression, literals, bound);
+        }
+      }
+    }
+
+    private void bind(@Nullable Expression expression, List<Literal> literals, boolean[] bound) {
+      if (expression == null) {
+        return;
+      }
+      Literal literal = expression.getLiteral();
+      if (literal != null) {
+        if (literal.isSetStringValue()) {
+          Integer index = _placeholderToIndexMap.get(literal.getStringValue());
+          if (index != null) {
+            expression.setLiteral(new Literal(literals.get(index)));
+            bound[index] = true;
+          }
+        }
+        return;
+      }
+      Function function = expression.getFunctionCall();
+      if (function != null) {
+        bind(function.getOperands(), literals, bound);
+      }
+    }
+  }
+}
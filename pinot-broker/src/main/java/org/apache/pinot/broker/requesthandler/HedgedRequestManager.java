@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import com.google.common.base.Preconditions;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.core.transport.LatencyPercentileTracker;
+
+
+/**
+ * The {@code HedgedRequestManager} decides when and how many hedged requests can be sent for the queries of each
+ * table.
+ * <ul>
+ *   <li>
+ *     Delay: the hedged requests are sent once the query has been waiting for the configured percentile of the recent
+ *     server latencies of the table (lower bounded by the min delay), so that only the straggling servers are hedged.
+ *     No hedged request is sent before enough latency samples are collected.
+ *   </li>
+ *   <li>
+ *     Budget: each table accumulates the budget ratio of token per server request (capped by the max burst), and each
+ *     hedged request consumes one token, so that the extra load from the hedged requests stays bounded by the budget
+ *     ratio of the server requests.
+ *   </li>
+ * </ul>
+ */
+@ThreadSafe
+public class HedgedRequestManager {
+  private final double _delayPercentile;
+  private final long _minDelayMs;
+  private final double _budgetRatio;
+  private final int _maxBurst;
+  private final Map<String, TableHedgingState> _tableHedgingStateMap = new ConcurrentHashMap<>();
+
+  public HedgedRequestManager(double delayPercentile, long minDelayMs, double budgetRatio, int maxBurst) {
+    Preconditions.checkArgument(delayPercentile > 0 && delayPercentile <= 100,
+        "Delay percentile must be in range (0, 100], got: %s", delayPercentile);
+    Preconditions.checkArgument(budgetRatio >= 0, "Budget ratio must be non-negative, got: %s", budgetRatio);
+    Preconditions.checkArgument(maxBurst > 0, "Max burst must be positive, got: %s", maxBurst);
+    _delayPercentile = delayPercentile;
+    _minDelayMs = minDelayMs;
+    _budgetRatio = budgetRatio;
+    _maxBurst = maxBurst;
+  }
+
+  /**
+   * Returns the delay in milliseconds after which the hedged requests should be sent for the given table, or -1 if
+   * there are not enough latency samples yet.
+   */
+  public long getDelayMs(String rawTableName) {
+    TableHedgingState tableHedgingState = _tableHedgingStateMap.get(rawTableName);
+    return tableHedgingState != null ? tableHedgingState.getDelayMs() : -1;
+  }
+
+  /**
+   * Records the latency of a server request for the given table.
+   */
+  public void recordServerLatency(String rawTableName, long latencyMs) {
+    getTableHedgingState(rawTableName).recordServerLatency(latencyMs);
+  }
+
+  /**
+   * Adds the budget for the given number of server requests for the given table.
+   */
+  public void addBudget(String rawTableName, int numServerRequests) {
+    getTableHedgingState(rawTableName).addBudget(numServerRequests * _budgetRatio);
+  }
+
+  /**
+   * Tries to acquire the budget for a hedged request for the given table, returns {@code true} if the hedged request
+   * can be sent.
+   */
+  public boolean tryAcquire(String rawTableName) {
+    return getTableHedgingState(rawTableName).tryAcquire();
+  }
+
+  private TableHedgingState getTableHedgingState(String rawTableName) {
+    return _tableHedgingStateMap.computeIfAbsent(rawTableName, k -> new TableHedgingState());
+  }
+
+  private class TableHedgingState {
+    private final LatencyPercentileTracker _latencyTracker = new LatencyPercentileTracker(_delayPercentile);
+    // Guarded by this
+    private double _budget;
+
+    long getDelayMs() {
+      long percentileLatencyMs = _latencyTracker.getPercentileLatencyMs();
+      return percentileLatencyMs >= 0 ? Math.max(percentileLatencyMs, _minDelayMs) : -1;
+    }
+
+    void recordServerLatency(long latencyMs) {
+      _latencyTracker.recordLatency(latencyMs);
+    }
+
+    synchronized void addBudget(double budget) {
+      _budget = Math.min(_budget + budget, _maxBurst);
+    }
+
+    synchronized boolean tryAcquire() {
+      if (_budget >= 1) {
+        _budget--;
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+}
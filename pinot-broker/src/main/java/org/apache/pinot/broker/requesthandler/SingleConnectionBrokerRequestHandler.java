@@ -38,6 +38,7 @@ import org.apache.pinot.common.response.broker.QueryProcessingException;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.common.utils.helix.TableCache;
+import org.apache.pinot.core.transport.AdaptiveServerTimeoutManager;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
 import org.apache.pinot.core.transport.QueryRouter;
 import org.apache.pinot.core.transport.ServerInstance;
@@ -45,6 +46,7 @@ import org.apache.pinot.core.transport.ServerResponse;
 import org.apache.pinot.core.transport.ServerRoutingInstance;
 import org.apache.pinot.core.transport.TlsConfig;
 import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants.Broker;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 
 
@@ -55,18 +57,52 @@ import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 @ThreadSafe
 public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandler {
   private final QueryRouter _queryRouter;
+  // Null if hedged request is not enabled
+  private final HedgedRequestManager _hedgedRequestManager;
 
   public SingleConnectionBrokerRequestHandler(PinotConfiguration config, RoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache,
       BrokerMetrics brokerMetrics, TlsConfig tlsConfig) {
     super(config, routingManager, accessControlFactory, queryQuotaManager, tableCache, brokerMetrics);
-    _queryRouter = new QueryRouter(_brokerId, brokerMetrics, tlsConfig);
+    boolean queryDeadlinePropagationEnabled = config.getProperty(Broker.CONFIG_OF_QUERY_DEADLINE_PROPAGATION_ENABLED,
+        Broker.DEFAULT_QUERY_DEADLINE_PROPAGATION_ENABLED);
+    AdaptiveServerTimeoutManager serverTimeoutManager = null;
+    if (queryDeadlinePropagationEnabled && config.getProperty(Broker.CONFIG_OF_ADAPTIVE_SERVER_TIMEOUT_ENABLED,
+        Broker.DEFAULT_ADAPTIVE_SERVER_TIMEOUT_ENABLED)) {
+      serverTimeoutManager = new AdaptiveServerTimeoutManager(
+          config.getProperty(Broker.CONFIG_OF_ADAPTIVE_SERVER_TIMEOUT_PERCENTILE,
+              Broker.DEFAULT_ADAPTIVE_SERVER_TIMEOUT_PERCENTILE),
+          config.getProperty(Broker.CONFIG_OF_ADAPTIVE_SERVER_TIMEOUT_MULTIPLIER,
+              Broker.DEFAULT_ADAPTIVE_SERVER_TIMEOUT_MULTIPLIER),
+          config.getProperty(Broker.CONFIG_OF_ADAPTIVE_SERVER_TIMEOUT_MIN_MS,
+              Broker.DEFAULT_ADAPTIVE_SERVER_TIMEOUT_MIN_MS));
+    }
+    _queryRouter = new QueryRouter(_brokerId, brokerMetrics, tlsConfig,
+        routingManager != null ? routingManager.getServerRoutingStatsManager() : null,
+        config.getProperty(Broker.CONFIG_OF_QUERY_CANCELLATION_ENABLED, Broker.DEFAULT_QUERY_CANCELLATION_ENABLED),
+        queryDeadlinePropagationEnabled, serverTimeoutManager,
+        config.getProperty(Broker.CONFIG_OF_QUERY_DEADLINE_MARGIN_MS, Broker.DEFAULT_QUERY_DEADLINE_MARGIN_MS));
+    if (config.getProperty(Broker.CONFIG_OF_HEDGED_REQUEST_ENABLED, Broker.DEFAULT_HEDGED_REQUEST_ENABLED)) {
+      _hedgedRequestManager = new HedgedRequestManager(
+          config.getProperty(Broker.CONFIG_OF_HEDGED_REQUEST_DELAY_PERCENTILE,
+              Broker.DEFAULT_HEDGED_REQUEST_DELAY_PERCENTILE),
+          config.getProperty(Broker.CONFIG_OF_HEDGED_REQUEST_MIN_DELAY_MS, Broker.DEFAULT_HEDGED_REQUEST_MIN_DELAY_MS),
+          config.getProperty(Broker.CONFIG_OF_HEDGED_REQUEST_BUDGET_RATIO, Broker.DEFAULT_HEDGED_REQUEST_BUDGET_RATIO),
+          config.getProperty(Broker.CONFIG_OF_HEDGED_REQUEST_MAX_BURST, Broker.DEFAULT_HEDGED_REQUEST_MAX_BURST));
+    } else {
+      _hedgedRequestManager = null;
+    }
   }
 
   @Override
   public void start() {
   }
 
+  @Override
+  public boolean cancelQuery(long requestId) {
+    return _queryRouter.cancelQuery(requestId);
+  }
+
   @Override
   public synchronized void shutDown() {
     _queryRouter.shutDown();
@@ -86,6 +122,9 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
     AsyncQueryResponse asyncQueryResponse = _queryRouter
         .submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
             realtimeRoutingTable, timeoutMs);
+    if (_hedgedRequestManager != null) {
+      sendHedgedRequests(rawTableName, asyncQueryResponse);
+    }
     Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER, System.nanoTime() - scatterGatherStartTimeNs);
@@ -101,6 +140,15 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
       if (dataTable != null) {
         dataTableMap.put(entry.getKey(), dataTable);
         totalResponseSize += serverResponse.getResponseSize();
+        if (_hedgedRequestManager != null) {
+          _hedgedRequestManager.recordServerLatency(rawTableName, serverResponse.getResponseDelayMs());
+        }
+      }
+    }
+    if (_hedgedRequestManager != null) {
+      int numHedgedRequestsWon = asyncQueryResponse.getNumHedgedRequestsWon();
+      if (numHedgedRequestsWon > 0) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS_WON, numHedgedRequestsWon);
       }
     }
     int numServersResponded = dataTableMap.size();
@@ -132,4 +180,36 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
 
     return brokerResponse;
   }
+
+  /**
+   * Waits for the hedging delay of the table, then sends the hedged requests for the straggling servers within the
+   * hedging budget of the table. The hedged request for a straggling server is sent to an alternate server hosting all
+   * the segments queried on the straggling server.
+   */
+  private void sendHedgedRequests(String rawTableName, AsyncQueryResponse asyncQueryResponse)
+      throws InterruptedException {
+    _hedgedRequestManager.addBudget(rawTableName, asyncQueryResponse.getNumServersQueried());
+    long delayMs = _hedgedRequestManager.getDelayMs(rawTableName);
+    if (delayMs < 0 || asyncQueryResponse.await(delayMs)) {
+      return;
+    }
+    for (ServerRoutingInstance stragglingServer : asyncQueryResponse.getStragglingServers()) {
+      String tableNameWithType =
+          TableNameBuilder.forType(stragglingServer.getTableType()).tableNameWithType(rawTableName);
+      ServerInstance alternateServer = _routingManager
+          .getAlternateServerInstance(tableNameWithType, asyncQueryResponse.getSegments(stragglingServer),
+              stragglingServer);
+      if (alternateServer == null) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS_NO_ALTERNATE_SERVER, 1);
+        continue;
+      }
+      if (!_hedgedRequestManager.tryAcquire(rawTableName)) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS_BUDGET_EXHAUSTED, 1);
+        break;
+      }
+      if (_queryRouter.submitHedgedRequest(rawTableName, asyncQueryResponse, stragglingServer, alternateServer)) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS_SENT, 1);
+      }
+    }
+  }
 }
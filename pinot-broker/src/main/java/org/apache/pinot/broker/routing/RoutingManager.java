@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,10 +54,15 @@ import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.PinotQuery;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.core.transport.ServerRoutingStatsManager;
 import org.apache.pinot.spi.config.table.QueryConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.CommonConstants.Helix.StateModel.SegmentStateModel;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
@@ -86,6 +92,8 @@ public class RoutingManager implements ClusterChangeHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(RoutingManager.class);
 
   private final BrokerMetrics _brokerMetrics;
+  private final ServerRoutingStatsManager _serverRoutingStatsManager;
+  private final int _prunedSegmentsCacheSize;
   private final Map<String, RoutingEntry> _routingEntryMap = new ConcurrentHashMap<>();
   private final Map<String, ServerInstance> _enabledServerInstanceMap = new ConcurrentHashMap<>();
 
@@ -96,7 +104,25 @@ public class RoutingManager implements ClusterChangeHandler {
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
 
   public RoutingManager(BrokerMetrics brokerMetrics) {
+    this(brokerMetrics, 0);
+  }
+
+  /**
+   * Constructs the routing manager which caches up to {@code prunedSegmentsCacheSize} pruned segment lists per table
+   * (0 to disable the cache). See {@link RoutingEntry#calculateRouting(BrokerRequest)} for details.
+   */
+  public RoutingManager(BrokerMetrics brokerMetrics, int prunedSegmentsCacheSize) {
     _brokerMetrics = brokerMetrics;
+    _serverRoutingStatsManager = new ServerRoutingStatsManager(brokerMetrics);
+    _prunedSegmentsCacheSize = prunedSegmentsCacheSize;
+  }
+
+  /**
+   * Returns the manager of the per server stats, which should be recorded by the query router and is used by the
+   * adaptive instance selector.
+   */
+  public ServerRoutingStatsManager getServerRoutingStatsManager() {
+    return _serverRoutingStatsManager;
   }
 
   @Override
@@ -319,7 +345,8 @@ public class RoutingManager implements ClusterChangeHandler {
     for (SegmentPruner segmentPruner : segmentPruners) {
       segmentPruner.init(externalView, idealState, preSelectedOnlineSegments);
     }
-    InstanceSelector instanceSelector = InstanceSelectorFactory.getInstanceSelector(tableConfig, _brokerMetrics);
+    InstanceSelector instanceSelector =
+        InstanceSelectorFactory.getInstanceSelector(tableConfig, _brokerMetrics, _serverRoutingStatsManager);
     instanceSelector.init(_enabledServerInstanceMap.keySet(), externalView, idealState, preSelectedOnlineSegments);
 
     // Add time boundary manager if both offline and real-time part exist for a hybrid table
@@ -371,7 +398,7 @@ public class RoutingManager implements ClusterChangeHandler {
 
     RoutingEntry routingEntry =
         new RoutingEntry(tableNameWithType, segmentPreSelector, segmentSelector, segmentPruners, instanceSelector,
-            externalViewVersion, timeBoundaryManager, queryTimeoutMs);
+            externalViewVersion, timeBoundaryManager, queryTimeoutMs, _prunedSegmentsCacheSize);
     if (_routingEntryMap.put(tableNameWithType, routingEntry) == null) {
       LOGGER.info("Built routing for table: {}", tableNameWithType);
     } else {
@@ -467,6 +494,56 @@ public class RoutingManager implements ClusterChangeHandler {
     return new RoutingTable(serverInstanceToSegmentsMap, selectionResult.getUnavailableSegments());
   }
 
+  /**
+   * Returns an enabled server instance other than the given server that hosts all the given segments of the table, or
+   * {@code null} if there is no such server instance. Used to pick the alternate server for the hedged request. When
+   * there are multiple candidates, the one with the best score tracked by the {@link ServerRoutingStatsManager} is
+   * picked.
+   * <p>NOTE: The segments are expected to be selected from the routing table of the same table.
+   */
+  @Nullable
+  public ServerInstance getAlternateServerInstance(String tableNameWithType, List<String> segments,
+      ServerRoutingInstance excludedServer) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    if (routingEntry == null || segments.isEmpty()) {
+      return null;
+    }
+    InstanceSelector instanceSelector = routingEntry.getInstanceSelector();
+    Set<String> candidateInstances = null;
+    for (String segment : segments) {
+      List<String> enabledInstances = instanceSelector.getEnabledInstances(segment);
+      if (enabledInstances == null) {
+        return null;
+      }
+      if (candidateInstances == null) {
+        candidateInstances = new HashSet<>(enabledInstances);
+      } else {
+        candidateInstances.retainAll(enabledInstances);
+      }
+      if (candidateInstances.isEmpty()) {
+        return null;
+      }
+    }
+    TableType tableType = excludedServer.getTableType();
+    boolean preferTls = excludedServer.isTlsEnabled();
+    long currentTimeMs = System.currentTimeMillis();
+    ServerInstance alternateServerInstance = null;
+    double minScore = Double.MAX_VALUE;
+    for (String instance : candidateInstances) {
+      ServerInstance serverInstance = _enabledServerInstanceMap.get(instance);
+      if (serverInstance == null || serverInstance.toServerRoutingInstance(tableType, preferTls)
+          .equals(excludedServer)) {
+        continue;
+      }
+      double score = _serverRoutingStatsManager.getScore(instance, currentTimeMs);
+      if (score < minScore) {
+        alternateServerInstance = serverInstance;
+        minScore = score;
+      }
+    }
+    return alternateServerInstance;
+  }
+
   /**
    * Returns the time boundary info for the given offline table, or {@code null} if the routing or time boundary does
    * not exist.
@@ -504,10 +581,17 @@ public class RoutingManager implements ClusterChangeHandler {
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    // Version of the routing, bumped after the segment pruners are updated so that the cached pruned segments are
+    // invalidated. Only updated within the synchronized methods of the RoutingManager.
+    volatile long _routingVersion;
+    // LRU cache from the filter expression to the pruned segments, null if the cache is disabled
+    // Guarded by itself
+    final LinkedHashMap<Expression, PrunedSegments> _prunedSegmentsCache;
 
     RoutingEntry(String tableNameWithType, SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector,
         List<SegmentPruner> segmentPruners, InstanceSelector instanceSelector, int lastUpdateExternalViewVersion,
-        @Nullable TimeBoundaryManager timeBoundaryManager, @Nullable Long queryTimeoutMs) {
+        @Nullable TimeBoundaryManager timeBoundaryManager, @Nullable Long queryTimeoutMs,
+        int prunedSegmentsCacheSize) {
       _tableNameWithType = tableNameWithType;
       _segmentPreSelector = segmentPreSelector;
       _segmentSelector = segmentSelector;
@@ -516,6 +600,16 @@ public class RoutingManager implements ClusterChangeHandler {
       _lastUpdateExternalViewVersion = lastUpdateExternalViewVersion;
       _timeBoundaryManager = timeBoundaryManager;
       _queryTimeoutMs = queryTimeoutMs;
+      if (prunedSegmentsCacheSize > 0 && !segmentPruners.isEmpty()) {
+        _prunedSegmentsCache = new LinkedHashMap<Expression, PrunedSegments>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Expression, PrunedSegments> eldest) {
+            return size() > prunedSegmentsCacheSize;
+          }
+        };
+      } else {
+        _prunedSegmentsCache = null;
+      }
     }
 
     String getTableNameWithType() {
@@ -539,6 +633,10 @@ public class RoutingManager implements ClusterChangeHandler {
       return _queryTimeoutMs;
     }
 
+    InstanceSelector getInstanceSelector() {
+      return _instanceSelector;
+    }
+
     // NOTE: The change gets applied in sequence, and before change applied to all components, there could be some
     // inconsistency between components, which is fine because the inconsistency only exists for the newly changed
     // segments and only lasts for a very short time.
@@ -554,6 +652,7 @@ public class RoutingManager implements ClusterChangeHandler {
         _timeBoundaryManager.onExternalViewChange(externalView, idealState, preSelectedOnlineSegments);
       }
       _lastUpdateExternalViewVersion = externalView.getStat().getVersion();
+      _routingVersion++;
     }
 
     void onInstancesChange(Set<String> enabledInstances, List<String> changedInstances) {
@@ -567,14 +666,20 @@ public class RoutingManager implements ClusterChangeHandler {
       if (_timeBoundaryManager != null) {
         _timeBoundaryManager.refreshSegment(segment);
       }
+      _routingVersion++;
     }
 
+    /**
+     * Calculates the routing for the given broker request.
+     * <p>When the pruned segments cache is enabled, the segments pruned for a SQL query are cached by the filter
+     * expression (the only part of the query read by the segment pruners), and reused by the following queries with
+     * the same filter as long as the segment selector returns the same segments and the routing version is unchanged.
+     * The instances are always selected per query to keep the load balanced across the replicas.
+     */
     InstanceSelector.SelectionResult calculateRouting(BrokerRequest brokerRequest) {
       Set<String> selectedSegments = _segmentSelector.select(brokerRequest);
       if (!selectedSegments.isEmpty()) {
-        for (SegmentPruner segmentPruner : _segmentPruners) {
-          selectedSegments = segmentPruner.prune(brokerRequest, selectedSegments);
-        }
+        selectedSegments = pruneSegments(brokerRequest, selectedSegments);
       }
       if (!selectedSegments.isEmpty()) {
         return _instanceSelector.select(brokerRequest, new ArrayList<>(selectedSegments));
@@ -582,5 +687,51 @@ public class RoutingManager implements ClusterChangeHandler {
         return new InstanceSelector.SelectionResult(Collections.emptyMap(), Collections.emptyList());
       }
     }
+
+    private Set<String> pruneSegments(BrokerRequest brokerRequest, Set<String> selectedSegments) {
+      PinotQuery pinotQuery = brokerRequest.getPinotQuery();
+      if (_prunedSegmentsCache == null || pinotQuery == null) {
+        return pruneSegmentsWithoutCache(brokerRequest, selectedSegments);
+      }
+      // Read the routing version before pruning so that the result is invalidated if the routing is changed during
+      // the pruning
+      long routingVersion = _routingVersion;
+      Expression filterExpression = pinotQuery.getFilterExpression();
+      PrunedSegments prunedSegments;
+      synchronized (_prunedSegmentsCache) {
+        prunedSegments = _prunedSegmentsCache.get(filterExpression);
+      }
+      if (prunedSegments != null && prunedSegments._routingVersion == routingVersion
+          && prunedSegments._selectedSegments == selectedSegments) {
+        return prunedSegments._prunedSegments;
+      }
+      Set<String> segments = pruneSegmentsWithoutCache(brokerRequest, selectedSegments);
+      // NOTE: Make a copy of the filter expression as the key because the query might be modified later
+      Expression key = filterExpression != null ? new Expression(filterExpression) : null;
+      synchronized (_prunedSegmentsCache) {
+        _prunedSegmentsCache.put(key, new PrunedSegments(routingVersion, selectedSegments, segments));
+      }
+      return segments;
+    }
+
+    private Set<String> pruneSegmentsWithoutCache(BrokerRequest brokerRequest, Set<String> selectedSegments) {
+      for (SegmentPruner segmentPruner : _segmentPruners) {
+        selectedSegments = segmentPruner.prune(brokerRequest, selectedSegments);
+      }
+      return selectedSegments;
+    }
+  }
+
+  private static class PrunedSegments {
+    final long _routingVersion;
+    // Segments returned by the segment selector, compared by reference
+    final Set<String> _selectedSegments;
+    final Set<String> _prunedSegments;
+
+    PrunedSegments(long routingVersion, Set<String> selectedSegments, Set<String> prunedSegments) {
+      _routingVersion = routingVersion;
+      _selectedSegments = selectedSegments;
+      _prunedSegments = prunedSegments;
+    }
   }
 }
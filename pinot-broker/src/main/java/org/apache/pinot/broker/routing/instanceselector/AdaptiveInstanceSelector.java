@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.instanceselector;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.core.transport.ServerRoutingStatsManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Instance selector that routes the segments away from the slow, busy or failing server instances based on the per
+ * server stats (latency, number of in-flight requests and error rate) tracked by the {@link ServerRoutingStatsManager}.
+ * <p>For each segment, the replica with the lowest projected cost is selected, where the cost of a replica is its score
+ * multiplied by the number of segments already assigned to it for the query (plus one). This way the segments are
+ * spread across the replicas in inverse proportion to their scores instead of all going to the best replica. Ties
+ * (e.g. when there is no stats yet) are broken in the round-robin order of the {@link BalancedInstanceSelector}.
+ */
+public class AdaptiveInstanceSelector extends BaseInstanceSelector {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveInstanceSelector.class);
+
+  private final String _tableNameWithType;
+  private final BrokerMetrics _brokerMetrics;
+  private final ServerRoutingStatsManager _serverRoutingStatsManager;
+
+  public AdaptiveInstanceSelector(String tableNameWithType, BrokerMetrics brokerMetrics,
+      ServerRoutingStatsManager serverRoutingStatsManager) {
+    super(tableNameWithType, brokerMetrics);
+    _tableNameWithType = tableNameWithType;
+    _brokerMetrics = brokerMetrics;
+    _serverRoutingStatsManager = serverRoutingStatsManager;
+  }
+
+  @Override
+  Map<String, String> select(List<String> segments, int requestId,
+      Map<String, List<String>> segmentToEnabledInstancesMap) {
+    long currentTimeMs = System.currentTimeMillis();
+    Map<String, String> segmentToSelectedInstanceMap = new HashMap<>(HashUtil.getHashMapCapacity(segments.size()));
+    // Cache the scores so that all the segments within the query are routed with the same scores
+    Map<String, Double> instanceToScoreMap = new HashMap<>();
+    Map<String, Integer> instanceToNumSegmentsMap = new HashMap<>();
+    int numReroutedSegments = 0;
+    for (String segment : segments) {
+      List<String> enabledInstances = segmentToEnabledInstancesMap.get(segment);
+      // NOTE: enabledInstances can be null when there is no enabled instances for the segment, or the instance selector
+      // has not been updated (we update all components for routing in sequence)
+      if (enabledInstances != null) {
+        int numEnabledInstances = enabledInstances.size();
+        int roundRobinIndex = requestId++ % numEnabledInstances;
+        String selectedInstance = null;
+        double minCost = Double.MAX_VALUE;
+        for (int i = 0; i < numEnabledInstances; i++) {
+          String instance = enabledInstances.get((roundRobinIndex + i) % numEnabledInstances);
+          double score = instanceToScoreMap
+              .computeIfAbsent(instance, k -> _serverRoutingStatsManager.getScore(k, currentTimeMs));
+          double cost = score * (instanceToNumSegmentsMap.getOrDefault(instance, 0) + 1);
+          if (cost < minCost) {
+            selectedInstance = instance;
+            minCost = cost;
+          }
+        }
+        if (selectedInstance != enabledInstances.get(roundRobinIndex)) {
+          numReroutedSegments++;
+        }
+        segmentToSelectedInstanceMap.put(segment, selectedInstance);
+        instanceToNumSegmentsMap.merge(selectedInstance, 1, Integer::sum);
+      }
+    }
+    if (numReroutedSegments > 0) {
+      _brokerMetrics.addMeteredTableValue(_tableNameWithType, BrokerMeter.ADAPTIVE_SELECTION_REROUTED_SEGMENTS,
+          numReroutedSegments);
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Rerouted {} out of {} segments for table: {} based on server scores: {}, segments per server: {}",
+            numReroutedSegments, segments.size(), _tableNameWithType, instanceToScoreMap, instanceToNumSegmentsMap);
+      }
+    }
+    return segmentToSelectedInstanceMap;
+  }
+}
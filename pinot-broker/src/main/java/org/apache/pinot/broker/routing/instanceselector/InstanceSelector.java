@@ -21,6 +21,7 @@ package org.apache.pinot.broker.routing.instanceselector;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.apache.helix.model.ExternalView;
 import org.apache.helix.model.IdealState;
 import org.apache.pinot.common.request.BrokerRequest;
@@ -57,6 +58,13 @@ public interface InstanceSelector {
    */
   SelectionResult select(BrokerRequest brokerRequest, List<String> segments);
 
+  /**
+   * Returns the enabled ONLINE/CONSUMING instances hosting the given segment (sorted in alphabetical order), or
+   * {@code null} if there is no enabled instance for the segment.
+   */
+  @Nullable
+  List<String> getEnabledInstances(String segment);
+
   class SelectionResult {
     private final Map<String, String> _segmentToInstanceMap;
     private final List<String> _unavailableSegments;
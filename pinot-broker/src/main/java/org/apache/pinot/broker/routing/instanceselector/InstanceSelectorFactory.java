@@ -18,7 +18,9 @@
  */
 package org.apache.pinot.broker.routing.instanceselector;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.core.transport.ServerRoutingStatsManager;
 import org.apache.pinot.spi.config.table.RoutingConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
@@ -36,6 +38,11 @@ public class InstanceSelectorFactory {
   public static final String LEGACY_REPLICA_GROUP_REALTIME_ROUTING = "PartitionAwareRealtime";
 
   public static InstanceSelector getInstanceSelector(TableConfig tableConfig, BrokerMetrics brokerMetrics) {
+    return getInstanceSelector(tableConfig, brokerMetrics, null);
+  }
+
+  public static InstanceSelector getInstanceSelector(TableConfig tableConfig, BrokerMetrics brokerMetrics,
+      @Nullable ServerRoutingStatsManager serverRoutingStatsManager) {
     String tableNameWithType = tableConfig.getTableName();
     RoutingConfig routingConfig = tableConfig.getRoutingConfig();
     if (routingConfig != null) {
@@ -52,6 +59,14 @@ public class InstanceSelectorFactory {
         LOGGER.info("Using StrictReplicaGroupInstanceSelector for table: {}", tableNameWithType);
         return new StrictReplicaGroupInstanceSelector(tableNameWithType, brokerMetrics);
       }
+      if (RoutingConfig.ADAPTIVE_INSTANCE_SELECTOR_TYPE.equalsIgnoreCase(routingConfig.getInstanceSelectorType())) {
+        if (serverRoutingStatsManager != null) {
+          LOGGER.info("Using AdaptiveInstanceSelector for table: {}", tableNameWithType);
+          return new AdaptiveInstanceSelector(tableNameWithType, brokerMetrics, serverRoutingStatsManager);
+        }
+        LOGGER.warn("Server routing stats are not available, falling back to BalancedInstanceSelector for table: {}",
+            tableNameWithType);
+      }
     }
     return new BalancedInstanceSelector(tableNameWithType, brokerMetrics);
   }
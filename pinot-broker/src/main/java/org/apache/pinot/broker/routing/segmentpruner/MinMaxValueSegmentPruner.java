@@ -0,0 +1,380 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.segmentpruner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.helix.AccessOption;
+import org.apache.helix.ZNRecord;
+import org.apache.helix.model.ExternalView;
+import org.apache.helix.model.IdealState;
+import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.Expression;
+import org.apache.pinot.common.request.Function;
+import org.apache.pinot.common.request.Identifier;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.utils.request.FilterQueryTree;
+import org.apache.pinot.common.utils.request.RequestUtils;
+import org.apache.pinot.pql.parsers.pql2.ast.FilterKind;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.utils.CommonConstants.Query.Range;
+import org.apache.pinot.spi.utils.CommonConstants.Segment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code MinMaxValueSegmentPruner} prunes segments based on the min/max values of the configured columns stored in
+ * the segment ZK metadata, so that the segments not matching the query are pruned before the query is sent to the
+ * servers. The pruner supports queries with filter (or nested filter) of EQUALITY, IN and RANGE predicates on numeric
+ * and string columns.
+ */
+public class MinMaxValueSegmentPruner implements SegmentPruner {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MinMaxValueSegmentPruner.class);
+  private static final Map<String, MinMaxValue> EMPTY_MIN_MAX_VALUES = Collections.emptyMap();
+
+  private final String _tableNameWithType;
+  // Map from column to the stored type, for the columns used for pruning
+  private final Map<String, DataType> _columnDataTypes;
+  private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
+  private final String _segmentZKMetadataPathPrefix;
+  private final Map<String, Map<String, MinMaxValue>> _minMaxValuesMap = new ConcurrentHashMap<>();
+
+  public MinMaxValueSegmentPruner(String tableNameWithType, Map<String, DataType> columnDataTypes,
+      ZkHelixPropertyStore<ZNRecord> propertyStore) {
+    _tableNameWithType = tableNameWithType;
+    _columnDataTypes = columnDataTypes;
+    _propertyStore = propertyStore;
+    _segmentZKMetadataPathPrefix = ZKMetadataProvider.constructPropertyStorePathForResource(tableNameWithType) + "/";
+  }
+
+  /**
+   * Returns the stored types of the given columns that can be used for pruning (numeric and string columns in the
+   * schema).
+   */
+  public static Map<String, DataType> getColumnDataTypes(Schema schema, List<String> columns) {
+    Map<String, DataType> columnDataTypes = new HashMap<>();
+    for (String column : columns) {
+      FieldSpec fieldSpec = schema.getFieldSpecFor(column);
+      if (fieldSpec != null) {
+        DataType storedType = fieldSpec.getDataType().getStoredType();
+        if (storedType.isNumeric() || storedType == DataType.STRING) {
+          columnDataTypes.put(column, storedType);
+        }
+      }
+    }
+    return columnDataTypes;
+  }
+
+  @Override
+  public void init(ExternalView externalView, IdealState idealState, Set<String> onlineSegments) {
+    // Bulk load min/max values for all online segments
+    int numSegments = onlineSegments.size();
+    List<String> segments = new ArrayList<>(numSegments);
+    List<String> segmentZKMetadataPaths = new ArrayList<>(numSegments);
+    for (String segment : onlineSegments) {
+      segments.add(segment);
+      segmentZKMetadataPaths.add(_segmentZKMetadataPathPrefix + segment);
+    }
+    List<ZNRecord> znRecords = _propertyStore.get(segmentZKMetadataPaths, null, AccessOption.PERSISTENT, false);
+    for (int i = 0; i < numSegments; i++) {
+      String segment = segments.get(i);
+      Map<String, MinMaxValue> minMaxValues =
+          extractMinMaxValuesFromSegmentZKMetadataZNRecord(segment, znRecords.get(i));
+      if (minMaxValues != null) {
+        _minMaxValuesMap.put(segment, minMaxValues);
+      }
+    }
+  }
+
+  /**
+   * NOTE: Returns {@code null} when the ZNRecord is missing (could be transient Helix issue). Returns
+   *       {@link #EMPTY_MIN_MAX_VALUES} when the segment does not have min/max values in its ZK metadata, in which case
+   *       we won't retry later.
+   */
+  @Nullable
+  private Map<String, MinMaxValue> extractMinMaxValuesFromSegmentZKMetadataZNRecord(String segment,
+      @Nullable ZNRecord znRecord) {
+    if (znRecord == null) {
+      LOGGER.warn("Failed to find segment ZK metadata for segment: {}, table: {}", segment, _tableNameWithType);
+      return null;
+    }
+
+    Map<String, String> minValues = znRecord.getMapField(Segment.COLUMN_MIN_VALUES);
+    Map<String, String> maxValues = znRecord.getMapField(Segment.COLUMN_MAX_VALUES);
+    if (minValues == null || maxValues == null) {
+      return EMPTY_MIN_MAX_VALUES;
+    }
+    Map<String, MinMaxValue> minMaxValues = new HashMap<>();
+    for (Map.Entry<String, DataType> entry : _columnDataTypes.entrySet()) {
+      String column = entry.getKey();
+      DataType dataType = entry.getValue();
+      Comparable minValue = convert(minValues.get(column), dataType);
+      Comparable maxValue = convert(maxValues.get(column), dataType);
+      if (minValue != null && maxValue != null) {
+        minMaxValues.put(column, new MinMaxValue(dataType, minValue, maxValue));
+      }
+    }
+    return minMaxValues.isEmpty() ? EMPTY_MIN_MAX_VALUES : minMaxValues;
+  }
+
+  @Override
+  public synchronized void onExternalViewChange(ExternalView externalView, IdealState idealState,
+      Set<String> onlineSegments) {
+    // NOTE: We don't update all the segment ZK metadata for every external view change, but only the new added/removed
+    //       ones. The refreshed segment ZK metadata change won't be picked up.
+    for (String segment : onlineSegments) {
+      _minMaxValuesMap.computeIfAbsent(segment, k -> extractMinMaxValuesFromSegmentZKMetadataZNRecord(k,
+          _propertyStore.get(_segmentZKMetadataPathPrefix + k, null, AccessOption.PERSISTENT)));
+    }
+    _minMaxValuesMap.keySet().retainAll(onlineSegments);
+  }
+
+  @Override
+  public synchronized void refreshSegment(String segment) {
+    Map<String, MinMaxValue> minMaxValues = extractMinMaxValuesFromSegmentZKMetadataZNRecord(segment,
+        _propertyStore.get(_segmentZKMetadataPathPrefix + segment, null, AccessOption.PERSISTENT));
+    if (minMaxValues != null) {
+      _minMaxValuesMap.put(segment, minMaxValues);
+    } else {
+      _minMaxValuesMap.remove(segment);
+    }
+  }
+
+  @Override
+  public Set<String> prune(BrokerRequest brokerRequest, Set<String> segments) {
+    PinotQuery pinotQuery = brokerRequest.getPinotQuery();
+    if (pinotQuery != null) {
+      // SQL
+
+      Expression filterExpression = pinotQuery.getFilterExpression();
+      if (filterExpression == null) {
+        return segments;
+      }
+      Set<String> selectedSegments = new HashSet<>();
+      for (String segment : segments) {
+        Map<String, MinMaxValue> minMaxValues = _minMaxValuesMap.get(segment);
+        if (minMaxValues == null || minMaxValues.isEmpty() || isMatch(filterExpression, minMaxValues)) {
+          selectedSegments.add(segment);
+        }
+      }
+      return selectedSegments;
+    } else {
+      // PQL
+      FilterQueryTree filterQueryTree = RequestUtils.generateFilterQueryTree(brokerRequest);
+      if (filterQueryTree == null) {
+        return segments;
+      }
+      Set<String> selectedSegments = new HashSet<>();
+      for (String segment : segments) {
+        Map<String, MinMaxValue> minMaxValues = _minMaxValuesMap.get(segment);
+        if (minMaxValues == null || minMaxValues.isEmpty() || isMatch(filterQueryTree, minMaxValues)) {
+          selectedSegments.add(segment);
+        }
+      }
+      return selectedSegments;
+    }
+  }
+
+  private boolean isMatch(Expression filterExpression, Map<String, MinMaxValue> minMaxValues) {
+    Function function = filterExpression.getFunctionCall();
+    FilterKind filterKind = FilterKind.valueOf(function.getOperator());
+    List<Expression> operands = function.getOperands();
+    switch (filterKind) {
+      case AND:
+        for (Expression child : operands) {
+          if (!isMatch(child, minMaxValues)) {
+            return false;
+          }
+        }
+        return true;
+      case OR:
+        for (Expression child : operands) {
+          if (isMatch(child, minMaxValues)) {
+            return true;
+          }
+        }
+        return false;
+      default:
+        break;
+    }
+
+    Identifier identifier = operands.get(0).getIdentifier();
+    if (identifier == null) {
+      return true;
+    }
+    MinMaxValue minMaxValue = minMaxValues.get(identifier.getName());
+    if (minMaxValue == null) {
+      return true;
+    }
+    switch (filterKind) {
+      case EQUALS:
+        return minMaxValue.isInRange(getLiteral(operands, 1), true, getLiteral(operands, 1), true);
+      case IN: {
+        int numOperands = operands.size();
+        for (int i = 1; i < numOperands; i++) {
+          String value = getLiteral(operands, i);
+          if (minMaxValue.isInRange(value, true, value, true)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      case GREATER_THAN:
+        return minMaxValue.isInRange(getLiteral(operands, 1), false, null, false);
+      case GREATER_THAN_OR_EQUAL:
+        return minMaxValue.isInRange(getLiteral(operands, 1), true, null, false);
+      case LESS_THAN:
+        return minMaxValue.isInRange(null, false, getLiteral(operands, 1), false);
+      case LESS_THAN_OR_EQUAL:
+        return minMaxValue.isInRange(null, false, getLiteral(operands, 1), true);
+      case BETWEEN:
+        return minMaxValue.isInRange(getLiteral(operands, 1), true, getLiteral(operands, 2), true);
+      case RANGE:
+        return isInRange(minMaxValue, getLiteral(operands, 1));
+      default:
+        return true;
+    }
+  }
+
+  @Deprecated
+  private boolean isMatch(FilterQueryTree filterQueryTree, Map<String, MinMaxValue> minMaxValues) {
+    switch (filterQueryTree.getOperator()) {
+      case AND:
+        for (FilterQueryTree child : filterQueryTree.getChildren()) {
+          if (!isMatch(child, minMaxValues)) {
+            return false;
+          }
+        }
+        return true;
+      case OR:
+        for (FilterQueryTree child : filterQueryTree.getChildren()) {
+          if (isMatch(child, minMaxValues)) {
+            return true;
+          }
+        }
+        return false;
+      case EQUALITY:
+      case IN: {
+        MinMaxValue minMaxValue = minMaxValues.get(filterQueryTree.getColumn());
+        if (minMaxValue == null) {
+          return true;
+        }
+        for (String value : filterQueryTree.getValue()) {
+          if (minMaxValue.isInRange(value, true, value, true)) {
+            return true;
+          }
+        }
+        return false;
+      }
+      case RANGE: {
+        MinMaxValue minMaxValue = minMaxValues.get(filterQueryTree.getColumn());
+        return minMaxValue == null || isInRange(minMaxValue, filterQueryTree.getValue().get(0));
+      }
+      default:
+        return true;
+    }
+  }
+
+  @Nullable
+  private static String getLiteral(List<Expression> operands, int index) {
+    Expression operand = operands.get(index);
+    return operand.getLiteral() != null ? operand.getLiteral().getFieldValue().toString() : null;
+  }
+
+  /**
+   * Parses the range string (e.g. "(10\0*)") and returns whether the values of the segment can be in the range.
+   */
+  private static boolean isInRange(MinMaxValue minMaxValue, @Nullable String rangeString) {
+    if (rangeString == null) {
+      return true;
+    }
+    int length = rangeString.length();
+    boolean lowerInclusive = rangeString.charAt(0) == Range.LOWER_INCLUSIVE;
+    boolean upperInclusive = rangeString.charAt(length - 1) == Range.UPPER_INCLUSIVE;
+    String[] split = StringUtils.split(rangeString.substring(1, length - 1), Range.DELIMITER);
+    String lowerBound = split[0].equals(Range.UNBOUNDED) ? null : split[0];
+    String upperBound = split[1].equals(Range.UNBOUNDED) ? null : split[1];
+    return minMaxValue.isInRange(lowerBound, lowerInclusive, upperBound, upperInclusive);
+  }
+
+  @Nullable
+  private static Comparable convert(@Nullable String value, DataType dataType) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return (Comparable) dataType.convert(value);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  private static class MinMaxValue {
+    final DataType _dataType;
+    final Comparable _minValue;
+    final Comparable _maxValue;
+
+    MinMaxValue(DataType dataType, Comparable minValue, Comparable maxValue) {
+      _dataType = dataType;
+      _minValue = minValue;
+      _maxValue = maxValue;
+    }
+
+    /**
+     * Returns whether the values of the segment can be in the given range, {@code null} for unbounded. Returns
+     * {@code true} if the bounds cannot be converted to the column data type.
+     */
+    @SuppressWarnings("unchecked")
+    boolean isInRange(@Nullable String lowerBound, boolean lowerInclusive, @Nullable String upperBound,
+        boolean upperInclusive) {
+      if (lowerBound != null) {
+        Comparable lowerValue = convert(lowerBound, _dataType);
+        if (lowerValue == null) {
+          return true;
+        }
+        int result = _maxValue.compareTo(lowerValue);
+        if (result < 0 || (result == 0 && !lowerInclusive)) {
+          return false;
+        }
+      }
+      if (upperBound != null) {
+        Comparable upperValue = convert(upperBound, _dataType);
+        if (upperValue == null) {
+          return true;
+        }
+        int result = _minValue.compareTo(upperValue);
+        return result < 0 || (result == 0 && upperInclusive);
+      }
+      return true;
+    }
+  }
+}
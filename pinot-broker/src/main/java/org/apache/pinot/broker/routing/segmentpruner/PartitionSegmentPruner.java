@@ -19,6 +19,7 @@
 package org.apache.pinot.broker.routing.segmentpruner;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -37,12 +38,16 @@ import org.apache.pinot.common.request.Expression;
 import org.apache.pinot.common.request.Function;
 import org.apache.pinot.common.request.Identifier;
 import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.common.utils.SegmentName;
 import org.apache.pinot.common.utils.request.FilterQueryTree;
 import org.apache.pinot.common.utils.request.RequestUtils;
 import org.apache.pinot.pql.parsers.pql2.ast.FilterKind;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.segment.spi.partition.PartitionFunctionFactory;
 import org.apache.pinot.segment.spi.partition.metadata.ColumnPartitionMetadata;
+import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
+import org.apache.pinot.spi.utils.CommonConstants.Helix.StateModel.SegmentStateModel;
 import org.apache.pinot.spi.utils.CommonConstants.Segment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +56,12 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@code PartitionSegmentPruner} prunes segments based on the their partition metadata stored in ZK. The pruner
  * supports queries with filter (or nested filter) of EQUALITY and IN predicates.
+ * <p>The controller already writes the partition metadata into the ZK metadata of new LLC consuming segments when the
+ * table has a partition config, so deriving the partition only helps the legacy consuming segments without partition
+ * metadata (e.g. created before the partition config is added to the table). For these segments, the partition is
+ * derived from the stream partition id encoded in the segment name and the partition function from the table config.
+ * This requires the stream to be partitioned with the same partition function on the partition column. The partition
+ * info of these segments is reloaded from ZK once they are committed.
  */
 public class PartitionSegmentPruner implements SegmentPruner {
   private static final Logger LOGGER = LoggerFactory.getLogger(PartitionSegmentPruner.class);
@@ -58,14 +69,21 @@ public class PartitionSegmentPruner implements SegmentPruner {
 
   private final String _tableNameWithType;
   private final String _partitionColumn;
+  private final ColumnPartitionConfig _columnPartitionConfig;
   private final ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private final String _segmentZKMetadataPathPrefix;
   private final Map<String, PartitionInfo> _partitionInfoMap = new ConcurrentHashMap<>();
 
   public PartitionSegmentPruner(String tableNameWithType, String partitionColumn,
       ZkHelixPropertyStore<ZNRecord> propertyStore) {
+    this(tableNameWithType, partitionColumn, null, propertyStore);
+  }
+
+  public PartitionSegmentPruner(String tableNameWithType, String partitionColumn,
+      @Nullable ColumnPartitionConfig columnPartitionConfig, ZkHelixPropertyStore<ZNRecord> propertyStore) {
     _tableNameWithType = tableNameWithType;
     _partitionColumn = partitionColumn;
+    _columnPartitionConfig = columnPartitionConfig;
     _propertyStore = propertyStore;
     _segmentZKMetadataPathPrefix = ZKMetadataProvider.constructPropertyStorePathForResource(tableNameWithType) + "/";
   }
@@ -104,6 +122,10 @@ public class PartitionSegmentPruner implements SegmentPruner {
 
     String partitionMetadataJson = znRecord.getSimpleField(Segment.PARTITION_METADATA);
     if (partitionMetadataJson == null) {
+      PartitionInfo consumingSegmentPartitionInfo = extractPartitionInfoForConsumingSegment(segment, znRecord);
+      if (consumingSegmentPartitionInfo != null) {
+        return consumingSegmentPartitionInfo;
+      }
       LOGGER.warn("Failed to find segment partition metadata for segment: {}, table: {}", segment, _tableNameWithType);
       return INVALID_PARTITION_INFO;
     }
@@ -130,18 +152,52 @@ public class PartitionSegmentPruner implements SegmentPruner {
         columnPartitionMetadata.getPartitions());
   }
 
+  /**
+   * Returns the partition info derived from the LLC segment name for the consuming segment, or {@code null} if the
+   * segment is not an LLC consuming segment or the partition cannot be derived.
+   */
+  @Nullable
+  private PartitionInfo extractPartitionInfoForConsumingSegment(String segment, ZNRecord znRecord) {
+    if (_columnPartitionConfig == null || !SegmentName.isLowLevelConsumerSegmentName(segment)
+        || !Segment.Realtime.Status.IN_PROGRESS.name().equals(znRecord.getSimpleField(Segment.Realtime.STATUS))) {
+      return null;
+    }
+    int partitionId = new LLCSegmentName(segment).getPartitionGroupId();
+    int numPartitions = _columnPartitionConfig.getNumPartitions();
+    if (partitionId >= numPartitions) {
+      LOGGER.warn("Stream partition: {} of consuming segment: {} exceeds the number of partitions: {}, table: {}",
+          partitionId, segment, numPartitions, _tableNameWithType);
+      return null;
+    }
+    return new PartitionInfo(
+        PartitionFunctionFactory.getPartitionFunction(_columnPartitionConfig.getFunctionName(), numPartitions),
+        Collections.singleton(partitionId), true);
+  }
+
   @Override
   public synchronized void onExternalViewChange(ExternalView externalView, IdealState idealState,
       Set<String> onlineSegments) {
     // NOTE: We don't update all the segment ZK metadata for every external view change, but only the new added/removed
     //       ones. The refreshed segment ZK metadata change won't be picked up.
     for (String segment : onlineSegments) {
-      _partitionInfoMap.computeIfAbsent(segment, k -> extractPartitionInfoFromSegmentZKMetadataZNRecord(k,
-          _propertyStore.get(_segmentZKMetadataPathPrefix + k, null, AccessOption.PERSISTENT)));
+      PartitionInfo partitionInfo = _partitionInfoMap.get(segment);
+      if (partitionInfo == null || (partitionInfo._fromConsumingSegmentName && !isConsuming(externalView, segment))) {
+        // Reload the partition info for the new segments and the committed consuming segments
+        partitionInfo = extractPartitionInfoFromSegmentZKMetadataZNRecord(segment,
+            _propertyStore.get(_segmentZKMetadataPathPrefix + segment, null, AccessOption.PERSISTENT));
+        if (partitionInfo != null) {
+          _partitionInfoMap.put(segment, partitionInfo);
+        }
+      }
     }
     _partitionInfoMap.keySet().retainAll(onlineSegments);
   }
 
+  private static boolean isConsuming(ExternalView externalView, String segment) {
+    Map<String, String> instanceStateMap = externalView.getStateMap(segment);
+    return instanceStateMap != null && instanceStateMap.containsValue(SegmentStateModel.CONSUMING);
+  }
+
   @Override
   public synchronized void refreshSegment(String segment) {
     PartitionInfo partitionInfo = extractPartitionInfoFromSegmentZKMetadataZNRecord(segment,
@@ -273,10 +329,17 @@ public class PartitionSegmentPruner implements SegmentPruner {
   private static class PartitionInfo {
     final PartitionFunction _partitionFunction;
     final Set<Integer> _partitions;
+    // Whether the partition info is derived from the consuming segment name instead of the segment ZK metadata
+    final boolean _fromConsumingSegmentName;
 
     PartitionInfo(PartitionFunction partitionFunction, Set<Integer> partitions) {
+      this(partitionFunction, partitions, false);
+    }
+
+    PartitionInfo(PartitionFunction partitionFunction, Set<Integer> partitions, boolean fromConsumingSegmentName) {
       _partitionFunction = partitionFunction;
       _partitions = partitions;
+      _fromConsumingSegmentName = fromConsumingSegmentName;
     }
   }
 }
@@ -24,12 +24,15 @@ import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.pinot.common.metadata.ZKMetadataProvider;
 import org.apache.pinot.spi.config.table.ColumnPartitionConfig;
 import org.apache.pinot.spi.config.table.RoutingConfig;
 import org.apache.pinot.spi.config.table.SegmentPartitionConfig;
 import org.apache.pinot.spi.config.table.SegmentsValidationAndRetentionConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +71,13 @@ public class SegmentPrunerFactory {
               configuredSegmentPruners.add(timeSegmentPruner);
             }
           }
+
+          if (RoutingConfig.MIN_MAX_VALUE_SEGMENT_PRUNER_TYPE.equalsIgnoreCase(segmentPrunerType)) {
+            MinMaxValueSegmentPruner minMaxValueSegmentPruner = getMinMaxValueSegmentPruner(tableConfig, propertyStore);
+            if (minMaxValueSegmentPruner != null) {
+              configuredSegmentPruners.add(minMaxValueSegmentPruner);
+            }
+          }
         }
         segmentPruners.addAll(sortSegmentPruners(configuredSegmentPruners));
       } else {
@@ -102,10 +112,11 @@ public class SegmentPrunerFactory {
           tableNameWithType);
       return null;
     } else {
-      String partitionColumn = columnPartitionMap.keySet().iterator().next();
+      Map.Entry<String, ColumnPartitionConfig> entry = columnPartitionMap.entrySet().iterator().next();
+      String partitionColumn = entry.getKey();
       LOGGER.info("Using PartitionSegmentPruner on partition column: {} for table: {}", partitionColumn,
           tableNameWithType);
-      return new PartitionSegmentPruner(tableNameWithType, partitionColumn, propertyStore);
+      return new PartitionSegmentPruner(tableNameWithType, partitionColumn, entry.getValue(), propertyStore);
     }
   }
 
@@ -131,6 +142,33 @@ public class SegmentPrunerFactory {
     return new TimeSegmentPruner(tableConfig, propertyStore);
   }
 
+  @Nullable
+  private static MinMaxValueSegmentPruner getMinMaxValueSegmentPruner(TableConfig tableConfig,
+      ZkHelixPropertyStore<ZNRecord> propertyStore) {
+    String tableNameWithType = tableConfig.getTableName();
+    List<String> columns = tableConfig.getIndexingConfig().getMinMaxValueSegmentPruningColumns();
+    if (columns == null || columns.isEmpty()) {
+      LOGGER.warn("Cannot enable min/max value pruning without min/max value segment pruning columns for table: {}",
+          tableNameWithType);
+      return null;
+    }
+    Schema schema = ZKMetadataProvider.getTableSchema(propertyStore, tableNameWithType);
+    if (schema == null) {
+      LOGGER.warn("Cannot enable min/max value pruning without schema for table: {}", tableNameWithType);
+      return null;
+    }
+    Map<String, DataType> columnDataTypes = MinMaxValueSegmentPruner.getColumnDataTypes(schema, columns);
+    if (columnDataTypes.isEmpty()) {
+      LOGGER.warn("Cannot enable min/max value pruning without numeric or string columns for table: {}",
+          tableNameWithType);
+      return null;
+    }
+
+    LOGGER.info("Using MinMaxValueSegmentPruner on columns: {} for table: {}", columnDataTypes.keySet(),
+        tableNameWithType);
+    return new MinMaxValueSegmentPruner(tableNameWithType, columnDataTypes, propertyStore);
+  }
+
   private static List<SegmentPruner> sortSegmentPruners(List<SegmentPruner> pruners) {
     // If there's multiple pruners, move time range pruners to the front。
     // Partition pruner run time is proportional to input # of segments while time range pruner is not,
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.broker.queryquota;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +44,7 @@ import org.apache.pinot.common.utils.config.TableConfigUtils;
 import org.apache.pinot.spi.config.table.QuotaConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
@@ -329,6 +331,55 @@ public class HelixExternalViewBasedQueryQuotaManagerTest {
     Assert.assertEquals(_queryQuotaManager.getRateLimiterMapSize(), 0);
   }
 
+  @Test
+  public void testReceiveGossip()
+      throws Exception {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(CommonConstants.Broker.CONFIG_OF_QUERY_QUOTA_DISTRIBUTED_ENABLED, true);
+    // Long sync interval so that the received loads do not become stale during the test
+    properties.put(CommonConstants.Broker.CONFIG_OF_QUERY_QUOTA_SYNC_INTERVAL_MS, 60_000L);
+    HelixExternalViewBasedQueryQuotaManager queryQuotaManager =
+        new HelixExternalViewBasedQueryQuotaManager(Mockito.mock(BrokerMetrics.class), BROKER_INSTANCE_ID,
+            new PinotConfiguration(properties));
+    queryQuotaManager.init(_helixManager);
+    try {
+      ExternalView brokerResource = generateBrokerResource(OFFLINE_TABLE_NAME);
+      brokerResource.setState(OFFLINE_TABLE_NAME, "broker_instance_3", "ONLINE");
+      TableConfig tableConfig = generateDefaultTableConfig(OFFLINE_TABLE_NAME);
+      ZKMetadataProvider
+          .setOfflineTableConfig(_testPropertyStore, OFFLINE_TABLE_NAME, TableConfigUtils.toZNRecord(tableConfig));
+      setQps(tableConfig);
+      queryQuotaManager.initOrUpdateTableQueryQuota(tableConfig, brokerResource);
+      QueryQuotaGossiper gossiper = queryQuotaManager.getGossiper();
+
+      // Loads from offline or unknown brokers, for tables without quota, or negative/NaN loads should be dropped
+      queryQuotaManager.receiveGossip(
+          new QueryQuotaGossiper.GossipMessage("broker_instance_2", Collections.singletonMap(OFFLINE_TABLE_NAME, 5.0)));
+      queryQuotaManager.receiveGossip(
+          new QueryQuotaGossiper.GossipMessage("unknown_broker", Collections.singletonMap(OFFLINE_TABLE_NAME, 5.0)));
+      queryQuotaManager.receiveGossip(new QueryQuotaGossiper.GossipMessage("broker_instance_3",
+          Collections.singletonMap(REALTIME_TABLE_NAME, 5.0)));
+      queryQuotaManager.receiveGossip(new QueryQuotaGossiper.GossipMessage("broker_instance_3",
+          Collections.singletonMap(OFFLINE_TABLE_NAME, -1.0)));
+      queryQuotaManager.receiveGossip(new QueryQuotaGossiper.GossipMessage("broker_instance_3",
+          Collections.singletonMap(OFFLINE_TABLE_NAME, Double.NaN)));
+      Assert.assertTrue(gossiper.getPeerLoads(OFFLINE_TABLE_NAME).isEmpty());
+      Assert.assertTrue(gossiper.getPeerLoads(REALTIME_TABLE_NAME).isEmpty());
+
+      // Valid load from an online broker should be accepted
+      queryQuotaManager.receiveGossip(new QueryQuotaGossiper.GossipMessage("broker_instance_3",
+          Collections.singletonMap(OFFLINE_TABLE_NAME, 5.0)));
+      Assert.assertEquals(gossiper.getPeerLoads(OFFLINE_TABLE_NAME), Collections.singletonList(5.0));
+
+      // Load should be capped at overall rate (100) times number of online brokers (2)
+      queryQuotaManager.receiveGossip(new QueryQuotaGossiper.GossipMessage("broker_instance_3",
+          Collections.singletonMap(OFFLINE_TABLE_NAME, 1e9)));
+      Assert.assertEquals(gossiper.getPeerLoads(OFFLINE_TABLE_NAME), Collections.singletonList(200.0));
+    } finally {
+      queryQuotaManager.stop();
+    }
+  }
+
   @Test
   public void testNoBrokerResource()
       throws Exception {
@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.queryquota;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.helix.HelixAdmin;
+import org.apache.helix.HelixManager;
+import org.apache.helix.model.InstanceConfig;
+import org.apache.pinot.core.transport.ListenerConfig;
+import org.apache.pinot.core.transport.TlsConfig;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class QueryQuotaGossiperTest {
+  private static final double DELTA = 1e-6;
+  private static final ListenerConfig HTTP_LISTENER_CONFIG =
+      new ListenerConfig(CommonConstants.HTTP_PROTOCOL, "0.0.0.0", 8099, CommonConstants.HTTP_PROTOCOL,
+          new TlsConfig());
+  private static final ListenerConfig HTTPS_LISTENER_CONFIG =
+      new ListenerConfig(CommonConstants.HTTPS_PROTOCOL, "0.0.0.0", 8443, CommonConstants.HTTPS_PROTOCOL,
+          new TlsConfig());
+
+  @Test
+  public void testComputeAllowedRate() {
+    // Single broker gets the overall rate
+    assertEquals(QueryQuotaGossiper.computeAllowedRate(100, 1, 10, Collections.emptyList()), 100, DELTA);
+    assertEquals(QueryQuotaGossiper.computeAllowedRate(100, 1, 200, Collections.emptyList()), 100, DELTA);
+
+    // No load from the peers, assume they use the even share: local load 10, total load 60, spare 40
+    assertEquals(QueryQuotaGossiper.computeAllowedRate(100, 2, 10, Collections.emptyList()), 30, DELTA);
+
+    // Under quota, spare rate split evenly: local load 10, total load 40, spare 60
+    assertEquals(QueryQuotaGossiper.computeAllowedRate(100, 2, 10, Collections.singletonList(30.0)), 40, DELTA);
+    // Skewed traffic: local load 90, total load 100, no spare
+    assertEquals(QueryQuotaGossiper.computeAllowedRate(100, 2, 90, Collections.singletonList(10.0)), 90, DELTA);
+
+    // Over quota, split proportionally: local load 150, total load 200
+    assertEquals(QueryQuotaGossiper.computeAllowedRate(100, 3, 150, Arrays.asList(25.0, 25.0)), 75, DELTA);
+
+    // Lower bounded by a fraction of the even share
+    assertEquals(QueryQuotaGossiper.computeAllowedRate(100, 2, 0, Collections.singletonList(1000.0)),
+        50 * QueryQuotaGossiper.MIN_SHARE_RATIO, DELTA);
+  }
+
+  @Test
+  public void testReceive()
+      throws Exception {
+    QueryQuotaGossiper gossiper =
+        new QueryQuotaGossiper("broker_0", Mockito.mock(HelixManager.class), 100, HTTP_LISTENER_CONFIG, null);
+    gossiper.receive(new QueryQuotaGossiper.GossipMessage("broker_1", Collections.singletonMap("t_OFFLINE", 5.0)));
+    gossiper.receive(new QueryQuotaGossiper.GossipMessage("broker_2", Collections.singletonMap("t_OFFLINE", 7.0)));
+    // Loads from the local broker should be ignored
+    gossiper.receive(new QueryQuotaGossiper.GossipMessage("broker_0", Collections.singletonMap("t_OFFLINE", 9.0)));
+    assertEquals(gossiper.getPeerLoads("t_OFFLINE").size(), 2);
+    assertTrue(gossiper.getPeerLoads("t_REALTIME").isEmpty());
+
+    // Newer load should replace the older one
+    gossiper.receive(new QueryQuotaGossiper.GossipMessage("broker_1", Collections.singletonMap("t_OFFLINE", 3.0)));
+    double totalLoad = 0;
+    for (double load : gossiper.getPeerLoads("t_OFFLINE")) {
+      totalLoad += load;
+    }
+    assertEquals(totalLoad, 10, DELTA);
+
+    // Stale loads should be ignored
+    Thread.sleep(400);
+    assertTrue(gossiper.getPeerLoads("t_OFFLINE").isEmpty());
+
+    gossiper.receive(new QueryQuotaGossiper.GossipMessage("broker_1", Collections.singletonMap("t_OFFLINE", 3.0)));
+    gossiper.removeTable("t_OFFLINE");
+    assertTrue(gossiper.getPeerLoads("t_OFFLINE").isEmpty());
+  }
+
+  @Test
+  public void testGetGossipUrl() {
+    HelixManager helixManager = Mockito.mock(HelixManager.class);
+    HelixAdmin helixAdmin = Mockito.mock(HelixAdmin.class);
+    Mockito.when(helixManager.getClusterName()).thenReturn("testCluster");
+    Mockito.when(helixManager.getClusterManagmentTool()).thenReturn(helixAdmin);
+    InstanceConfig instanceConfig = new InstanceConfig("Broker_host1_8443");
+    instanceConfig.setHostName("host1");
+    instanceConfig.setPort("8443");
+    Mockito.when(helixAdmin.getInstanceConfig("testCluster", "Broker_host1_8443")).thenReturn(instanceConfig);
+
+    QueryQuotaGossiper httpGossiper = new QueryQuotaGossiper("broker_0", helixManager, 100, HTTP_LISTENER_CONFIG, null);
+    assertEquals(httpGossiper.getGossipUrl("Broker_host1_8443"), "http://host1:8443/queryQuota/gossip");
+    QueryQuotaGossiper httpsGossiper =
+        new QueryQuotaGossiper("broker_0", helixManager, 100, HTTPS_LISTENER_CONFIG, null);
+    assertEquals(httpsGossiper.getGossipUrl("Broker_host1_8443"), "https://host1:8443/queryQuota/gossip");
+
+    // Unknown broker
+    assertNull(httpsGossiper.getGossipUrl("Broker_host2_8443"));
+  }
+
+  @Test
+  public void testPublish()
+      throws Exception {
+    List<String> authHeaders = new CopyOnWriteArrayList<>();
+    HttpServer fastServer = HttpServer.create(new InetSocketAddress(0), 0);
+    fastServer.createContext("/" + QueryQuotaGossiper.GOSSIP_PATH, exchange -> {
+      authHeaders.add(exchange.getRequestHeaders().getFirst("Authorization"));
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+    });
+    // The slow broker does not respond until the end of the test
+    CountDownLatch slowServerLatch = new CountDownLatch(1);
+    HttpServer slowServer = HttpServer.create(new InetSocketAddress(0), 0);
+    slowServer.createContext("/" + QueryQuotaGossiper.GOSSIP_PATH, exchange -> {
+      try {
+        slowServerLatch.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.sendResponseHeaders(200, -1);
+      exchange.close();
+    });
+    fastServer.start();
+    slowServer.start();
+
+    HelixManager helixManager = Mockito.mock(HelixManager.class);
+    HelixAdmin helixAdmin = Mockito.mock(HelixAdmin.class);
+    Mockito.when(helixManager.getClusterName()).thenReturn("testCluster");
+    Mockito.when(helixManager.getClusterManagmentTool()).thenReturn(helixAdmin);
+    String fastBroker = "Broker_localhost_" + fastServer.getAddress().getPort();
+    String slowBroker = "Broker_localhost_" + slowServer.getAddress().getPort();
+    for (String broker : Arrays.asList(fastBroker, slowBroker)) {
+      InstanceConfig instanceConfig = new InstanceConfig(broker);
+      instanceConfig.setHostName("localhost");
+      instanceConfig.setPort(broker.substring(broker.lastIndexOf('_') + 1));
+      Mockito.when(helixAdmin.getInstanceConfig("testCluster", broker)).thenReturn(instanceConfig);
+    }
+
+    // Timeout is half of the sync interval
+    QueryQuotaGossiper gossiper =
+        new QueryQuotaGossiper("broker_0", helixManager, 1000, HTTP_LISTENER_CONFIG, "Basic dG9rZW4=");
+    try {
+      long startTimeMs = System.currentTimeMillis();
+      gossiper.publish(new HashSet<>(Arrays.asList(fastBroker, slowBroker)),
+          Collections.singletonMap("t_OFFLINE", 5.0));
+      // Publish should not be blocked by the slow broker
+      assertTrue(System.currentTimeMillis() - startTimeMs < 5000);
+      assertEquals(authHeaders, Collections.singletonList("Basic dG9rZW4="));
+    } finally {
+      slowServerLatch.countDown();
+      gossiper.shutdown();
+      fastServer.stop(0);
+      slowServer.stop(0);
+    }
+  }
+
+  @Test
+  public void testBurstTokens() {
+    QueryQuotaEntity queryQuotaEntity = new QueryQuotaEntity(null, null, null, 1, 10, 0);
+    assertFalse(queryQuotaEntity.tryAcquireBurstToken());
+    queryQuotaEntity.addBurstTokens(1.5, 2);
+    assertTrue(queryQuotaEntity.tryAcquireBurstToken());
+    assertFalse(queryQuotaEntity.tryAcquireBurstToken());
+    // Bounded by the max number of tokens
+    queryQuotaEntity.addBurstTokens(10, 2);
+    assertTrue(queryQuotaEntity.tryAcquireBurstToken());
+    assertTrue(queryQuotaEntity.tryAcquireBurstToken());
+    assertFalse(queryQuotaEntity.tryAcquireBurstToken());
+  }
+}
@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.core.query.optimizer.QueryOptimizer;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class CompiledQueryCacheTest {
+  private static final CalciteSqlCompiler COMPILER = new CalciteSqlCompiler();
+
+  @Test
+  public void testCompile() {
+    CompiledQueryCache compiledQueryCache = new CompiledQueryCache(10, mock(BrokerMetrics.class));
+
+    // Queries only differing in the literals should share the same template
+    String[] queries = new String[]{
+        "SELECT col1, COUNT(*) FROM myTable WHERE col2 = 'foo' AND col3 > 10 GROUP BY col1 LIMIT 5",
+        "SELECT col1, COUNT(*) FROM myTable WHERE col2 = 'it''s' AND col3 > 123 GROUP BY col1 LIMIT 5",
+        "SELECT col1, COUNT(*) FROM myTable WHERE col2 = '' AND col3 > 0 GROUP BY col1 LIMIT 5"
+    };
+    assertFalse(compiledQueryCache.isCached(queries[0]));
+    for (String query : queries) {
+      assertEquals(compiledQueryCache.compile(query), COMPILER.compileToBrokerRequest(query));
+      assertTrue(compiledQueryCache.isCached(query));
+    }
+
+    // Different LIMIT should use a different template
+    String query = "SELECT col1, COUNT(*) FROM myTable WHERE col2 = 'foo' AND col3 > 10 GROUP BY col1 LIMIT 10";
+    assertFalse(compiledQueryCache.isCached(query));
+    BrokerRequest brokerRequest = compiledQueryCache.compile(query);
+    assertEquals(brokerRequest, COMPILER.compileToBrokerRequest(query));
+    assertEquals(brokerRequest.getPinotQuery().getLimit(), 10);
+
+    // Different literal types should use a different template
+    query = "SELECT col1, COUNT(*) FROM myTable WHERE col2 = 'foo' AND col3 > 1.5 GROUP BY col1 LIMIT 5";
+    assertFalse(compiledQueryCache.isCached(query));
+    assertEquals(compiledQueryCache.compile(query), COMPILER.compileToBrokerRequest(query));
+
+    // IN predicate, selection with ORDER BY and OPTION
+    queries = new String[]{
+        "SELECT * FROM myTable WHERE col1 IN ('a', 'b', 'c') AND col2 BETWEEN 1 AND 10 ORDER BY col3 DESC LIMIT 20 "
+            + "OPTION(timeoutMs=1000)",
+        "SELECT * FROM myTable WHERE col1 IN ('x', 'y', 'z') AND col2 BETWEEN 5 AND 6 ORDER BY col3 DESC LIMIT 20 "
+            + "OPTION(timeoutMs=1000)"
+    };
+    for (String sql : queries) {
+      brokerRequest = compiledQueryCache.compile(sql);
+      assertEquals(brokerRequest, COMPILER.compileToBrokerRequest(sql));
+      assertEquals(brokerRequest.getPinotQuery().getQueryOptions().get("timeoutMs"), "1000");
+    }
+    assertTrue(compiledQueryCache.isCached(queries[1]));
+
+    // Returned broker request should be a copy of the template
+    brokerRequest = compiledQueryCache.compile(queries[1]);
+    brokerRequest.getPinotQuery().setLimit(100);
+    assertEquals(compiledQueryCache.compile(queries[1]).getPinotQuery().getLimit(), 20);
+  }
+
+  @Test
+  public void testNegativeLiterals() {
+    CompiledQueryCache compiledQueryCache = new CompiledQueryCache(10, mock(BrokerMetrics.class));
+
+    // Unary minus should be extracted with the numeric literal
+    String[] queries = new String[]{
+        "SELECT * FROM myTable WHERE col1 > -5 AND col2 IN (-1, 2, - 3) AND col3 BETWEEN -10 AND -1",
+        "SELECT * FROM myTable WHERE col1 > 5 AND col2 IN (1, -2, 3) AND col3 BETWEEN 0 AND 10"
+    };
+    for (String query : queries) {
+      assertEquals(compiledQueryCache.compile(query), COMPILER.compileToBrokerRequest(query));
+      assertTrue(compiledQueryCache.isCached(query));
+    }
+    String query = "SELECT * FROM myTable WHERE col1 > -1.5";
+    assertEquals(compiledQueryCache.compile(query), COMPILER.compileToBrokerRequest(query));
+    assertTrue(compiledQueryCache.isCached(query));
+    query = "SELECT * FROM myTable WHERE col1 > 2.5";
+    assertTrue(compiledQueryCache.isCached(query));
+    assertEquals(compiledQueryCache.compile(query), COMPILER.compileToBrokerRequest(query));
+
+    // Binary minus should be kept in the template
+    query = "SELECT col1 -5, col2 - 3 FROM myTable WHERE col3 = 1";
+    assertEquals(compiledQueryCache.compile(query), COMPILER.compileToBrokerRequest(query));
+    assertTrue(compiledQueryCache.isCached(query));
+    query = "SELECT col1 -7, col2 - 8 FROM myTable WHERE col3 = 9";
+    assertTrue(compiledQueryCache.isCached(query));
+    assertEquals(compiledQueryCache.compile(query), COMPILER.compileToBrokerRequest(query));
+  }
+
+  @Test
+  public void testOptimize() {
+    CompiledQueryCache compiledQueryCache = new CompiledQueryCache(10, mock(BrokerMetrics.class));
+    QueryOptimizer queryOptimizer = new QueryOptimizer();
+    String query = "SELECT * FROM myTable WHERE (col1 = 1 OR col1 = 2) AND (col2 > 5 AND col2 < 10)";
+
+    PinotQuery expectedQuery = COMPILER.compileToBrokerRequest(query).getPinotQuery();
+    queryOptimizer.optimize(expectedQuery, null);
+    for (int i = 0; i < 2; i++) {
+      PinotQuery pinotQuery = compiledQueryCache.compile(query).getPinotQuery();
+      compiledQueryCache.optimize(pinotQuery, null);
+      assertEquals(pinotQuery, expectedQuery);
+      // Modifying the optimized filter should not affect the cached one
+      pinotQuery.getFilterExpression().getFunctionCall().getOperands().clear();
+    }
+
+    // Different schema should not reuse the cached optimized filter
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("myTable")
+        .addSingleValueDimension("col1", FieldSpec.DataType.INT)
+        .addSingleValueDimension("col2", FieldSpec.DataType.LONG).build();
+    expectedQuery = COMPILER.compileToBrokerRequest(query).getPinotQuery();
+    queryOptimizer.optimize(expectedQuery, schema);
+    PinotQuery pinotQuery = compiledQueryCache.compile(query).getPinotQuery();
+    compiledQueryCache.optimize(pinotQuery, schema);
+    assertEquals(pinotQuery, expectedQuery);
+  }
+
+  @Test
+  public void testNotCacheable() {
+    CompiledQueryCache compiledQueryCache = new CompiledQueryCache(10, mock(BrokerMetrics.class));
+
+    // Scalar functions on literals might be evaluated at compile time
+    assertNull(CompiledQueryCache.parameterize("SELECT * FROM myTable WHERE ts > now() - 1000"));
+    assertNull(CompiledQueryCache.parameterize("SELECT * FROM myTable WHERE ts > ago('PT1H')"));
+    // Aggregation and scalar functions on columns can be parameterized
+    assertNotNull(CompiledQueryCache.parameterize("SELECT MAX(col1) FROM myTable WHERE col2 > 5"));
+    assertNotNull(CompiledQueryCache.parameterize("SELECT * FROM myTable WHERE upper(col1) = 'FOO'"));
+
+    // Comments and dynamic parameters
+    assertNull(CompiledQueryCache.parameterize("SELECT * FROM myTable WHERE col1 = 5 -- comment"));
+    assertNull(CompiledQueryCache.parameterize("SELECT * FROM myTable WHERE col1 = 5 /* comment */"));
+    assertNull(CompiledQueryCache.parameterize("SELECT * FROM myTable WHERE col1 = ?"));
+
+    // Queries without literals
+    assertNull(CompiledQueryCache.parameterize("SELECT * FROM myTable LIMIT 10"));
+
+    String query = "SELECT * FROM myTable WHERE ts > now() - 1000";
+    assertEquals(compiledQueryCache.compile(query).getPinotQuery().getFilterExpression().getFunctionCall()
+        .getOperator(), COMPILER.compileToBrokerRequest(query).getPinotQuery().getFilterExpression()
+        .getFunctionCall().getOperator());
+    assertFalse(compiledQueryCache.isCached(query));
+  }
+
+  @Test
+  public void testEviction() {
+    CompiledQueryCache compiledQueryCache = new CompiledQueryCache(1, mock(BrokerMetrics.class));
+    String query1 = "SELECT * FROM myTable WHERE col1 = 1";
+    String query2 = "SELECT * FROM myTable WHERE col2 = 1";
+    compiledQueryCache.compile(query1);
+    assertTrue(compiledQueryCache.isCached(query1));
+    compiledQueryCache.compile(query2);
+    assertTrue(compiledQueryCache.isCached(query2));
+    assertFalse(compiledQueryCache.isCached(query1));
+  }
+}
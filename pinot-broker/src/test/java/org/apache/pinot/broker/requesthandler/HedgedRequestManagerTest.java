@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class HedgedRequestManagerTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+
+  @Test
+  public void testDelay() {
+    HedgedRequestManager hedgedRequestManager = new HedgedRequestManager(95, 10, 0.05, 10);
+    assertEquals(hedgedRequestManager.getDelayMs(RAW_TABLE_NAME), -1);
+
+    // Should not hedge before enough latency samples are collected
+    for (int i = 1; i < 100; i++) {
+      hedgedRequestManager.recordServerLatency(RAW_TABLE_NAME, i);
+    }
+    assertEquals(hedgedRequestManager.getDelayMs(RAW_TABLE_NAME), -1);
+    hedgedRequestManager.recordServerLatency(RAW_TABLE_NAME, 100);
+    assertEquals(hedgedRequestManager.getDelayMs(RAW_TABLE_NAME), 95);
+
+    // Delay should be lower bounded by the min delay
+    for (int i = 0; i < 1024; i++) {
+      hedgedRequestManager.recordServerLatency(RAW_TABLE_NAME, 1);
+    }
+    assertEquals(hedgedRequestManager.getDelayMs(RAW_TABLE_NAME), 10);
+
+    // Tables should be tracked separately
+    assertEquals(hedgedRequestManager.getDelayMs("otherTable"), -1);
+  }
+
+  @Test
+  public void testBudget() {
+    HedgedRequestManager hedgedRequestManager = new HedgedRequestManager(95, 10, 0.5, 2);
+    assertFalse(hedgedRequestManager.tryAcquire(RAW_TABLE_NAME));
+
+    // Each server request should accumulate 0.5 token
+    hedgedRequestManager.addBudget(RAW_TABLE_NAME, 1);
+    assertFalse(hedgedRequestManager.tryAcquire(RAW_TABLE_NAME));
+    hedgedRequestManager.addBudget(RAW_TABLE_NAME, 1);
+    assertTrue(hedgedRequestManager.tryAcquire(RAW_TABLE_NAME));
+    assertFalse(hedgedRequestManager.tryAcquire(RAW_TABLE_NAME));
+
+    // Budget should be capped by the max burst
+    hedgedRequestManager.addBudget(RAW_TABLE_NAME, 100);
+    assertTrue(hedgedRequestManager.tryAcquire(RAW_TABLE_NAME));
+    assertTrue(hedgedRequestManager.tryAcquire(RAW_TABLE_NAME));
+    assertFalse(hedgedRequestManager.tryAcquire(RAW_TABLE_NAME));
+    assertFalse(hedgedRequestManager.tryAcquire("otherTable"));
+  }
+}
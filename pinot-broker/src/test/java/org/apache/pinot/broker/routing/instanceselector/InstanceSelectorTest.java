@@ -30,6 +30,7 @@ import org.apache.helix.model.ExternalView;
 import org.apache.helix.model.IdealState;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.core.transport.ServerRoutingStatsManager;
 import org.apache.pinot.spi.config.table.RoutingConfig;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.config.table.TableType;
@@ -72,6 +73,14 @@ public class InstanceSelectorTest {
     assertTrue(InstanceSelectorFactory
         .getInstanceSelector(tableConfig, brokerMetrics) instanceof StrictReplicaGroupInstanceSelector);
 
+    // Adaptive instance selector should be returned when the server routing stats manager is available, and fall back
+    // to balanced instance selector otherwise
+    when(routingConfig.getInstanceSelectorType()).thenReturn(RoutingConfig.ADAPTIVE_INSTANCE_SELECTOR_TYPE);
+    assertTrue(InstanceSelectorFactory.getInstanceSelector(tableConfig, brokerMetrics,
+        new ServerRoutingStatsManager(brokerMetrics)) instanceof AdaptiveInstanceSelector);
+    assertTrue(
+        InstanceSelectorFactory.getInstanceSelector(tableConfig, brokerMetrics) instanceof BalancedInstanceSelector);
+
     // Should be backward-compatible with legacy config
     when(routingConfig.getInstanceSelectorType()).thenReturn(null);
     when(tableConfig.getTableType()).thenReturn(TableType.OFFLINE);
@@ -581,6 +590,83 @@ public class InstanceSelectorTest {
     assertTrue(selectionResult.getUnavailableSegments().isEmpty());
   }
 
+  @Test
+  public void testAdaptiveInstanceSelector() {
+    String offlineTableName = "testTable_OFFLINE";
+    BrokerMetrics brokerMetrics = mock(BrokerMetrics.class);
+    ServerRoutingStatsManager serverRoutingStatsManager = new ServerRoutingStatsManager(brokerMetrics);
+    AdaptiveInstanceSelector adaptiveInstanceSelector =
+        new AdaptiveInstanceSelector(offlineTableName, brokerMetrics, serverRoutingStatsManager);
+
+    Set<String> enabledInstances = new HashSet<>();
+    ExternalView externalView = new ExternalView(offlineTableName);
+    Map<String, Map<String, String>> externalViewSegmentAssignment = externalView.getRecord().getMapFields();
+    IdealState idealState = new IdealState(offlineTableName);
+    Map<String, Map<String, String>> idealStateSegmentAssignment = idealState.getRecord().getMapFields();
+    Set<String> onlineSegments = new HashSet<>();
+
+    // 'instance0' and 'instance1' serve all the segments
+    String instance0 = "instance0";
+    String instance1 = "instance1";
+    enabledInstances.add(instance0);
+    enabledInstances.add(instance1);
+    Map<String, String> instanceStateMap = new TreeMap<>();
+    instanceStateMap.put(instance0, ONLINE);
+    instanceStateMap.put(instance1, ONLINE);
+    List<String> segments = Arrays.asList("segment0", "segment1", "segment2", "segment3");
+    for (String segment : segments) {
+      externalViewSegmentAssignment.put(segment, instanceStateMap);
+      idealStateSegmentAssignment.put(segment, instanceStateMap);
+      onlineSegments.add(segment);
+    }
+    adaptiveInstanceSelector.init(enabledInstances, externalView, idealState, onlineSegments);
+    BrokerRequest brokerRequest = mock(BrokerRequest.class);
+
+    // Without stats, the segments should be selected in the round-robin order, same as the balanced instance selector
+    // RequestId 0: instance0, instance1, instance0, instance1
+    Map<String, String> expectedResult = new HashMap<>();
+    expectedResult.put("segment0", instance0);
+    expectedResult.put("segment1", instance1);
+    expectedResult.put("segment2", instance0);
+    expectedResult.put("segment3", instance1);
+    InstanceSelector.SelectionResult selectionResult = adaptiveInstanceSelector.select(brokerRequest, segments);
+    assertEquals(selectionResult.getSegmentToInstanceMap(), expectedResult);
+    assertTrue(selectionResult.getUnavailableSegments().isEmpty());
+
+    // 'instance0' is much slower than 'instance1' (score about 21 vs 3), all segments should go to 'instance1'
+    serverRoutingStatsManager.recordRequestSubmitted(instance0);
+    serverRoutingStatsManager.recordResponse(instance0, 100, false);
+    serverRoutingStatsManager.recordRequestSubmitted(instance1);
+    serverRoutingStatsManager.recordResponse(instance1, 10, false);
+    for (String segment : segments) {
+      expectedResult.put(segment, instance1);
+    }
+    selectionResult = adaptiveInstanceSelector.select(brokerRequest, segments);
+    assertEquals(selectionResult.getSegmentToInstanceMap(), expectedResult);
+    assertTrue(selectionResult.getUnavailableSegments().isEmpty());
+
+    // 'instance1' has an in-flight request (score about 21 vs 24), the segments should be spread across the instances
+    // RequestId 2: instance0, instance1, instance0, instance1
+    serverRoutingStatsManager.recordRequestSubmitted(instance1);
+    expectedResult.put("segment0", instance0);
+    expectedResult.put("segment2", instance0);
+    selectionResult = adaptiveInstanceSelector.select(brokerRequest, segments);
+    assertEquals(selectionResult.getSegmentToInstanceMap(), expectedResult);
+    assertTrue(selectionResult.getUnavailableSegments().isEmpty());
+
+    // 'instance1' keeps failing, all segments should go to 'instance0'
+    for (int i = 0; i < 10; i++) {
+      serverRoutingStatsManager.recordRequestSubmitted(instance1);
+      serverRoutingStatsManager.recordResponse(instance1, 10, true);
+    }
+    for (String segment : segments) {
+      expectedResult.put(segment, instance0);
+    }
+    selectionResult = adaptiveInstanceSelector.select(brokerRequest, segments);
+    assertEquals(selectionResult.getSegmentToInstanceMap(), expectedResult);
+    assertTrue(selectionResult.getUnavailableSegments().isEmpty());
+  }
+
   @Test
   public void testUnavailableSegments() {
     String offlineTableName = "testTable_OFFLINE";
@@ -34,10 +34,12 @@ import org.apache.helix.model.ExternalView;
 import org.apache.helix.model.IdealState;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metadata.segment.LLCRealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.OfflineSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.SegmentPartitionMetadata;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.utils.LLCSegmentName;
 import org.apache.pinot.common.utils.ZkStarter;
 import org.apache.pinot.parsers.QueryCompiler;
 import org.apache.pinot.pql.parsers.Pql2Compiler;
@@ -78,6 +80,7 @@ public class SegmentPrunerTest {
   private static final String QUERY_1 = "SELECT * FROM testTable";
   private static final String QUERY_2 = "SELECT * FROM testTable where memberId = 0";
   private static final String QUERY_3 = "SELECT * FROM testTable where memberId IN (1, 2)";
+  private static final String QUERY_4 = "SELECT * FROM testTable where memberId > 10 OR memberId = 0";
 
   private static final String QUERY_5 = "SELECT * FROM testTable where timeColumn = 40";
   private static final String QUERY_6 = "SELECT * FROM testTable where timeColumn BETWEEN 20 AND 30";
@@ -86,6 +89,7 @@ public class SegmentPrunerTest {
   private static final String QUERY_9 =
       "SELECT * FROM testTable where timeColumn < 15 OR (60 < timeColumn AND timeColumn < 70)";
   private static final String QUERY_10 = "SELECT * FROM testTable where timeColumn < 0 AND timeColumn > 0";
+  private static final String QUERY_11 = "SELECT * FROM testTable where memberId BETWEEN 5 AND 8";
 
   private static final String SDF_QUERY_1 = "SELECT * FROM testTable where timeColumn = 20200131";
   private static final String SDF_QUERY_2 = "SELECT * FROM testTable where timeColumn BETWEEN 20200101 AND 20200331";
@@ -309,6 +313,107 @@ public class SegmentPrunerTest {
         new HashSet<>(Arrays.asList(segment0, segment1)));
   }
 
+  @Test(dataProvider = "compilerProvider")
+  public void testMinMaxValueSegmentPruner(QueryCompiler compiler) {
+    BrokerRequest brokerRequest1 = compiler.compileToBrokerRequest(QUERY_1);
+    BrokerRequest brokerRequest2 = compiler.compileToBrokerRequest(QUERY_2);
+    BrokerRequest brokerRequest3 = compiler.compileToBrokerRequest(QUERY_3);
+    BrokerRequest brokerRequest4 = compiler.compileToBrokerRequest(QUERY_4);
+    BrokerRequest brokerRequest5 = compiler.compileToBrokerRequest(QUERY_11);
+    ExternalView externalView = Mockito.mock(ExternalView.class);
+    IdealState idealState = Mockito.mock(IdealState.class);
+
+    MinMaxValueSegmentPruner segmentPruner = new MinMaxValueSegmentPruner(OFFLINE_TABLE_NAME,
+        Collections.singletonMap(PARTITION_COLUMN, FieldSpec.DataType.INT), _propertyStore);
+    String segmentWithoutMinMaxValues = "segmentWithoutMinMaxValues";
+    OfflineSegmentZKMetadata segmentZKMetadataWithoutMinMaxValues = new OfflineSegmentZKMetadata();
+    segmentZKMetadataWithoutMinMaxValues.setSegmentName(segmentWithoutMinMaxValues);
+    ZKMetadataProvider
+        .setOfflineSegmentZKMetadata(_propertyStore, OFFLINE_TABLE_NAME, segmentZKMetadataWithoutMinMaxValues);
+    String segment0 = "segment0";
+    setSegmentZKMinMaxValues(segment0, 0, 4);
+    String segment1 = "segment1";
+    setSegmentZKMinMaxValues(segment1, 5, 9);
+    String segment2 = "segment2";
+    setSegmentZKMinMaxValues(segment2, 10, 20);
+    Set<String> onlineSegments =
+        new HashSet<>(Arrays.asList(segmentWithoutMinMaxValues, segment0, segment1, segment2));
+    segmentPruner.init(externalView, idealState, onlineSegments);
+
+    assertEquals(segmentPruner.prune(brokerRequest1, onlineSegments), onlineSegments);
+    assertEquals(segmentPruner.prune(brokerRequest2, onlineSegments),
+        new HashSet<>(Arrays.asList(segmentWithoutMinMaxValues, segment0)));
+    assertEquals(segmentPruner.prune(brokerRequest3, onlineSegments),
+        new HashSet<>(Arrays.asList(segmentWithoutMinMaxValues, segment0)));
+    assertEquals(segmentPruner.prune(brokerRequest4, onlineSegments),
+        new HashSet<>(Arrays.asList(segmentWithoutMinMaxValues, segment0, segment2)));
+    assertEquals(segmentPruner.prune(brokerRequest5, onlineSegments),
+        new HashSet<>(Arrays.asList(segmentWithoutMinMaxValues, segment1)));
+
+    // Refresh the changed segment should update the segment pruner
+    setSegmentZKMinMaxValues(segment1, 0, 9);
+    segmentPruner.refreshSegment(segment1);
+    assertEquals(segmentPruner.prune(brokerRequest2, onlineSegments),
+        new HashSet<>(Arrays.asList(segmentWithoutMinMaxValues, segment0, segment1)));
+  }
+
+  @Test(dataProvider = "compilerProvider")
+  public void testSegmentPrunersForConsumingSegments(QueryCompiler compiler) {
+    BrokerRequest brokerRequest1 = compiler.compileToBrokerRequest(QUERY_1);
+    BrokerRequest brokerRequest2 = compiler.compileToBrokerRequest(QUERY_2);
+    BrokerRequest brokerRequest3 = compiler.compileToBrokerRequest(QUERY_3);
+    BrokerRequest brokerRequest4 = compiler.compileToBrokerRequest(QUERY_5);
+    BrokerRequest brokerRequest5 = compiler.compileToBrokerRequest(QUERY_6);
+    ExternalView externalView = Mockito.mock(ExternalView.class);
+    IdealState idealState = Mockito.mock(IdealState.class);
+
+    // Consuming segments without partition metadata for stream partition 0 and 1
+    long currentTimeMs = System.currentTimeMillis();
+    String consumingSegment0 = new LLCSegmentName(RAW_TABLE_NAME, 0, 0, currentTimeMs).getSegmentName();
+    setConsumingSegmentZKMetadata(consumingSegment0, 40);
+    String consumingSegment1 = new LLCSegmentName(RAW_TABLE_NAME, 1, 0, currentTimeMs).getSegmentName();
+    setConsumingSegmentZKMetadata(consumingSegment1, -1);
+    Set<String> onlineSegments = new HashSet<>(Arrays.asList(consumingSegment0, consumingSegment1));
+
+    // Without partition config, consuming segments should not be pruned
+    PartitionSegmentPruner partitionSegmentPruner =
+        new PartitionSegmentPruner(REALTIME_TABLE_NAME, PARTITION_COLUMN, _propertyStore);
+    partitionSegmentPruner.init(externalView, idealState, onlineSegments);
+    assertEquals(partitionSegmentPruner.prune(brokerRequest2, onlineSegments), onlineSegments);
+    assertEquals(partitionSegmentPruner.prune(brokerRequest3, onlineSegments), onlineSegments);
+
+    // With partition config, partition should be derived from the segment name
+    partitionSegmentPruner = new PartitionSegmentPruner(REALTIME_TABLE_NAME, PARTITION_COLUMN,
+        new ColumnPartitionConfig("Modulo", 5), _propertyStore);
+    partitionSegmentPruner.init(externalView, idealState, onlineSegments);
+    assertEquals(partitionSegmentPruner.prune(brokerRequest1, onlineSegments), onlineSegments);
+    assertEquals(partitionSegmentPruner.prune(brokerRequest2, onlineSegments),
+        Collections.singleton(consumingSegment0));
+    assertEquals(partitionSegmentPruner.prune(brokerRequest3, onlineSegments),
+        Collections.singleton(consumingSegment1));
+
+    // Committed segment should be reloaded from the segment ZK metadata on external view change
+    LLCRealtimeSegmentZKMetadata committedSegmentZKMetadata = new LLCRealtimeSegmentZKMetadata();
+    committedSegmentZKMetadata.setSegmentName(consumingSegment0);
+    committedSegmentZKMetadata.setStatus(CommonConstants.Segment.Realtime.Status.DONE);
+    committedSegmentZKMetadata.setPartitionMetadata(new SegmentPartitionMetadata(Collections
+        .singletonMap(PARTITION_COLUMN, new ColumnPartitionMetadata("Modulo", 5, Collections.singleton(1)))));
+    ZKMetadataProvider.setRealtimeSegmentZKMetadata(_propertyStore, REALTIME_TABLE_NAME, committedSegmentZKMetadata);
+    partitionSegmentPruner.onExternalViewChange(externalView, idealState, onlineSegments);
+    assertEquals(partitionSegmentPruner.prune(brokerRequest2, onlineSegments), Collections.emptySet());
+    assertEquals(partitionSegmentPruner.prune(brokerRequest3, onlineSegments), onlineSegments);
+
+    // Consuming segments without end time should not be pruned by time even with start time
+    setSchemaDateTimeFieldSpec(RAW_TABLE_NAME, TimeUnit.DAYS);
+    setConsumingSegmentZKMetadata(consumingSegment0, 40);
+    TimeSegmentPruner timeSegmentPruner =
+        new TimeSegmentPruner(getTableConfig(RAW_TABLE_NAME, TableType.REALTIME), _propertyStore);
+    timeSegmentPruner.init(externalView, idealState, onlineSegments);
+    assertEquals(timeSegmentPruner.prune(brokerRequest1, onlineSegments), onlineSegments);
+    assertEquals(timeSegmentPruner.prune(brokerRequest4, onlineSegments), onlineSegments);
+    assertEquals(timeSegmentPruner.prune(brokerRequest5, onlineSegments), onlineSegments);
+  }
+
   @Test(dataProvider = "compilerProvider")
   public void testTimeSegmentPruner(QueryCompiler compiler) {
     BrokerRequest brokerRequest1 = compiler.compileToBrokerRequest(QUERY_1);
@@ -646,6 +751,24 @@ public class SegmentPrunerTest {
     ZKMetadataProvider.setRealtimeSegmentZKMetadata(_propertyStore, REALTIME_TABLE_NAME, realtimeSegmentZKMetadata);
   }
 
+  private void setSegmentZKMinMaxValues(String segment, int minValue, int maxValue) {
+    OfflineSegmentZKMetadata offlineSegmentZKMetadata = new OfflineSegmentZKMetadata();
+    offlineSegmentZKMetadata.setSegmentName(segment);
+    offlineSegmentZKMetadata.setColumnMinValues(Collections.singletonMap(PARTITION_COLUMN, Integer.toString(minValue)));
+    offlineSegmentZKMetadata.setColumnMaxValues(Collections.singletonMap(PARTITION_COLUMN, Integer.toString(maxValue)));
+    ZKMetadataProvider.setOfflineSegmentZKMetadata(_propertyStore, OFFLINE_TABLE_NAME, offlineSegmentZKMetadata);
+  }
+
+  private void setConsumingSegmentZKMetadata(String segment, long startTimeDays) {
+    LLCRealtimeSegmentZKMetadata segmentZKMetadata = new LLCRealtimeSegmentZKMetadata();
+    segmentZKMetadata.setSegmentName(segment);
+    segmentZKMetadata.setStatus(CommonConstants.Segment.Realtime.Status.IN_PROGRESS);
+    segmentZKMetadata.setStartTime(startTimeDays);
+    segmentZKMetadata.setTimeUnit(TimeUnit.DAYS);
+    segmentZKMetadata.setStartOffset("0");
+    ZKMetadataProvider.setRealtimeSegmentZKMetadata(_propertyStore, REALTIME_TABLE_NAME, segmentZKMetadata);
+  }
+
   private void setRealtimeSegmentZKTotalDocsMetadata(String segment, long totalDocs) {
     RealtimeSegmentZKMetadata realtimeSegmentZKMetadata = new RealtimeSegmentZKMetadata();
     realtimeSegmentZKMetadata.setSegmentName(segment);
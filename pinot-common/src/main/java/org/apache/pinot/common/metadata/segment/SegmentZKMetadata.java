@@ -51,6 +51,8 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
   private long _crc = -1;
   private long _creationTime = -1;
   private SegmentPartitionMetadata _partitionMetadata;
+  private Map<String, String> _columnMinValues;
+  private Map<String, String> _columnMaxValues;
   private long _segmentUploadStartTime = -1;
   private String _crypterName;
   private Map<String, String> _customMap;
@@ -84,6 +86,8 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
           "Exception caught while reading partition info from zk metadata for segment '{}', partition info dropped.",
           _segmentName, e);
     }
+    _columnMinValues = znRecord.getMapField(Segment.COLUMN_MIN_VALUES);
+    _columnMaxValues = znRecord.getMapField(Segment.COLUMN_MAX_VALUES);
     _segmentUploadStartTime = znRecord.getLongField(Segment.SEGMENT_UPLOAD_START_TIME, -1);
     _crypterName = znRecord.getSimpleField(Segment.CRYPTER_NAME);
     _customMap = znRecord.getMapField(Segment.CUSTOM_MAP);
@@ -176,6 +180,22 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
     return _partitionMetadata;
   }
 
+  public Map<String, String> getColumnMinValues() {
+    return _columnMinValues;
+  }
+
+  public void setColumnMinValues(Map<String, String> columnMinValues) {
+    _columnMinValues = columnMinValues;
+  }
+
+  public Map<String, String> getColumnMaxValues() {
+    return _columnMaxValues;
+  }
+
+  public void setColumnMaxValues(Map<String, String> columnMaxValues) {
+    _columnMaxValues = columnMaxValues;
+  }
+
   public long getSegmentUploadStartTime() {
     return _segmentUploadStartTime;
   }
@@ -253,6 +273,8 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
         && _segmentUploadStartTime == that._segmentUploadStartTime && Objects.equals(_segmentName, that._segmentName)
         && _segmentType == that._segmentType && _timeUnit == that._timeUnit && Objects
         .equals(_indexVersion, that._indexVersion) && Objects.equals(_partitionMetadata, that._partitionMetadata)
+        && Objects.equals(_columnMinValues, that._columnMinValues) && Objects
+        .equals(_columnMaxValues, that._columnMaxValues)
         && Objects.equals(_crypterName, that._crypterName) && Objects.equals(_customMap, that._customMap) && Objects
         .equals(_rawTableName, that._rawTableName);
   }
@@ -260,7 +282,8 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
   @Override
   public int hashCode() {
     return Objects.hash(_segmentName, _segmentType, _startTime, _endTime, _timeUnit, _indexVersion, _totalDocs, _crc,
-        _creationTime, _partitionMetadata, _segmentUploadStartTime, _crypterName, _customMap, _rawTableName);
+        _creationTime, _partitionMetadata, _columnMinValues, _columnMaxValues, _segmentUploadStartTime, _crypterName,
+        _customMap, _rawTableName);
   }
 
   @Override
@@ -287,6 +310,12 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
                 _segmentName, e);
       }
     }
+    if (_columnMinValues != null) {
+      znRecord.setMapField(Segment.COLUMN_MIN_VALUES, _columnMinValues);
+    }
+    if (_columnMaxValues != null) {
+      znRecord.setMapField(Segment.COLUMN_MAX_VALUES, _columnMaxValues);
+    }
     if (_segmentUploadStartTime > 0) {
       znRecord.setLongField(Segment.SEGMENT_UPLOAD_START_TIME, _segmentUploadStartTime);
     }
@@ -328,6 +357,14 @@ public abstract class SegmentZKMetadata implements ZKMetadata {
             _segmentName, e);
       }
     }
+    if (_columnMinValues != null && _columnMaxValues != null) {
+      try {
+        configMap.put(Segment.COLUMN_MIN_VALUES, JsonUtils.objectToString(_columnMinValues));
+        configMap.put(Segment.COLUMN_MAX_VALUES, JsonUtils.objectToString(_columnMaxValues));
+      } catch (JsonProcessingException e) {
+        throw new RuntimeException(e);
+      }
+    }
     if (_segmentUploadStartTime > 0) {
       configMap.put(Segment.SEGMENT_UPLOAD_START_TIME, Long.toString(_segmentUploadStartTime));
     }
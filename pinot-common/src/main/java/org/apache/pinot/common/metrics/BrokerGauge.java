@@ -31,7 +31,11 @@ public enum BrokerGauge implements AbstractMetrics.Gauge {
   QUERY_RATE_LIMIT_DISABLED("queryQuota", true),
   NETTY_CONNECTION_CONNECT_TIME_MS("nettyConnection", true),
   REQUEST_SIZE("requestSize", false),
-  RESIZE_TIME_MS("milliseconds", false);
+  RESIZE_TIME_MS("milliseconds", false),
+  // Per server stats used by the adaptive instance selector, with the server instance id as the suffix
+  SERVER_LATENCY_EWMA_MS("milliseconds", true),
+  SERVER_IN_FLIGHT_REQUESTS("requests", true),
+  SERVER_ERROR_RATE_PERCENT("percent", true);
 
   private final String brokerGaugeName;
   private final String unit;
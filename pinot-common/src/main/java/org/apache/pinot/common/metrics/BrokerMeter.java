@@ -58,6 +58,8 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   BROKER_RESPONSES_WITH_PARTIAL_SERVERS_RESPONDED("badResponses", false),
   // This metric track the number of broker responses with number of groups limit reached (potential bad responses).
   BROKER_RESPONSES_WITH_NUM_GROUPS_LIMIT_REACHED("badResponses", false),
+  // This metric track the number of broker responses with partial results from the servers timed out while merging.
+  BROKER_RESPONSES_WITH_PARTIAL_RESULTS("badResponses", false),
 
   // These metrics track the cost of the query.
   DOCUMENTS_SCANNED("documents", false),
@@ -96,6 +98,29 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // Track the case where selected server is missing in RoutingManager
   SERVER_MISSING_FOR_ROUTING("badResponses", false),
 
+  // Number of segments routed by the adaptive instance selector to a different server than the round-robin choice
+  ADAPTIVE_SELECTION_REROUTED_SEGMENTS("segments", false),
+
+  // Hedged request metrics
+  // Number of hedged requests sent to the alternate servers for the straggling servers
+  HEDGED_REQUESTS_SENT("requests", false),
+  // Number of hedged requests responded before the straggling servers (used in the query response)
+  HEDGED_REQUESTS_WON("requests", false),
+  // Number of hedged requests not sent because the hedging budget of the table is exhausted
+  HEDGED_REQUESTS_BUDGET_EXHAUSTED("requests", false),
+  // Number of hedged requests not sent because no alternate server hosts all the segments of the straggling server
+  HEDGED_REQUESTS_NO_ALTERNATE_SERVER("requests", false),
+
+  // Query cancellation metrics
+  // Number of cancel requests sent to the servers not responded before the query finished (e.g. timed out)
+  SERVER_CANCEL_REQUESTS_SENT("requests", true),
+  // Number of queries cancelled because the client disconnected before the response is sent
+  QUERIES_CANCELLED_BY_CLIENT_DISCONNECT("queries", true),
+
+  // Compiled query cache metrics
+  COMPILED_QUERY_CACHE_HITS("queries", true),
+  COMPILED_QUERY_CACHE_MISSES("queries", true),
+
   // Netty connection metrics
   NETTY_CONNECTION_REQUESTS_SENT("nettyConnection", true),
   NETTY_CONNECTION_BYTES_SENT("nettyConnection", true),
@@ -33,15 +33,24 @@ public enum ServerGauge implements AbstractMetrics.Gauge {
   // Introducing a new stream agnostic metric to replace HIGHEST_KAFKA_OFFSET_CONSUMED.
   // We can phase out HIGHEST_KAFKA_OFFSET_CONSUMED once we have collected sufficient metrics for the new one
   HIGHEST_STREAM_OFFSET_CONSUMED("messages", false),
+  // Estimated number of messages between the latest stream offset and the consumed offset of a partition
+  LLC_PARTITION_OFFSET_LAG("messages", false),
   LAST_REALTIME_SEGMENT_CREATION_DURATION_SECONDS("seconds", false),
   LAST_REALTIME_SEGMENT_CREATION_WAIT_TIME_SECONDS("seconds", false),
   LAST_REALTIME_SEGMENT_INITIAL_CONSUMPTION_DURATION_SECONDS("seconds", false),
   LAST_REALTIME_SEGMENT_CATCHUP_DURATION_SECONDS("seconds", false),
   LAST_REALTIME_SEGMENT_COMPLETION_DURATION_SECONDS("seconds", false),
   REALTIME_OFFHEAP_MEMORY_USED("bytes", false),
+  // Total memory used by all the consuming segments tracked by the adaptive flush controller
+  REALTIME_CONSUMING_MEMORY_USED("bytes", true),
   REALTIME_SEGMENT_NUM_PARTITIONS("realtimeSegmentNumPartitions", false),
   LLC_SIMULTANEOUS_SEGMENT_BUILDS("llcSimultaneousSegmentBuilds", true),
   RESIZE_TIME_MS("milliseconds", false),
+  // CPU budget available for the table (negative when the budget is overdrawn), only set when CPU budget is configured
+  CPU_BUDGET_AVAILABLE_MS("milliseconds", false),
+  // Segment loads queued and running in the parallel segment load executor
+  SEGMENT_LOADS_PENDING("segments", true),
+  SEGMENT_LOADS_IN_PROGRESS("segments", true),
   // Upsert metrics
   UPSERT_PRIMARY_KEYS_COUNT("upsertPrimaryKeysCount", false);
 
@@ -39,6 +39,7 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   REALTIME_OFFSET_COMMITS("commits", true),
   REALTIME_OFFSET_COMMIT_EXCEPTIONS("exceptions", false),
   REALTIME_PARTITION_MISMATCH("mismatch", false),
+  REALTIME_MEMORY_LIMIT_FLUSHES("segments", false),
   ROWS_WITH_ERRORS("rows", false),
   LLC_CONTROLLER_RESPONSE_NOT_SENT("messages", true),
   LLC_CONTROLLER_RESPONSE_COMMIT("messages", true),
@@ -64,6 +65,15 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   UNTAR_FAILURES("segments", false),
   SEGMENT_DOWNLOAD_FAILURES("segments", false),
   NUM_RESIZES("numResizes", false),
+  // Number of queries rejected because the table exhausted its CPU budget
+  QUERIES_REJECTED_BY_CPU_BUDGET("queries", false),
+  // Number of queries dropped by the scheduler because the deadline propagated from the broker already passed
+  QUERIES_DROPPED_PAST_DEADLINE("queries", false),
+  // Number of queries cancelled by the broker (e.g. broker timed out or client disconnected) before finishing
+  QUERIES_CANCELLED("queries", true),
+  // Estimated CPU time saved by cancelling the queries, extrapolated from the CPU time used by the processed segments
+  // (only available when thread CPU time measurement is enabled)
+  CANCELLED_QUERIES_ESTIMATED_CPU_TIME_SAVED_NS("nanoseconds", false),
 
   // Netty connection metrics
   NETTY_CONNECTION_BYTES_RECEIVED("nettyConnection", true),
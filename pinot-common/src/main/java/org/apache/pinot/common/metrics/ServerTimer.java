@@ -29,6 +29,23 @@ public enum ServerTimer implements AbstractMetrics.Timer {
   // metric tracking the freshness lag for consuming segments
   FRESHNESS_LAG_MS("freshnessLagMs", false),
 
+  // Realtime ingestion latency breakdown for consuming partitions
+  // Time between the message being produced upstream and it being fetched from the stream
+  STREAM_PRODUCE_TO_FETCH_LATENCY_MS("milliseconds", false),
+  // Time between a message batch being fetched and all of its rows being indexed
+  STREAM_FETCH_TO_INDEX_LATENCY_MS("milliseconds", false),
+  // Per-stage processing time of a fetched message batch
+  REALTIME_FETCH_TIME_MS("milliseconds", false),
+  REALTIME_DECODE_TIME_MS("milliseconds", false),
+  REALTIME_TRANSFORM_TIME_MS("milliseconds", false),
+  REALTIME_INDEX_TIME_MS("milliseconds", false),
+
+  // Realtime text index refresh
+  // Time spent refreshing the searcher of a consuming segment
+  REALTIME_TEXT_INDEX_REFRESH_TIME_MS("milliseconds", true),
+  // Time between the oldest unsearchable document being indexed and it becoming searchable
+  REALTIME_TEXT_INDEX_REFRESH_LAG_MS("milliseconds", true),
+
   // The latency of sending the response from server to broker
   NETTY_CONNECTION_SEND_RESPONSE_LATENCY("nettyConnection", false),
 
@@ -138,6 +138,7 @@ public class SegmentCompletionProtocol {
   public static final String REASON_ROW_LIMIT = "rowLimit";  // Stop reason sent by server as max num rows reached
   public static final String REASON_TIME_LIMIT = "timeLimit";  // Stop reason sent by server as max time reached
   public static final String REASON_END_OF_PARTITION_GROUP = "endOfPartitionGroup"; // Stop reason sent by server as end of partitionGroup reached
+  public static final String REASON_MEMORY_LIMIT = "memoryLimit";  // Stop reason sent by server as consuming memory budget reached
 
   // Canned responses
   public static final Response RESP_NOT_LEADER =
@@ -39,6 +39,8 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
   private static final org.apache.thrift.protocol.TField SEARCH_SEGMENTS_FIELD_DESC = new org.apache.thrift.protocol.TField("searchSegments", org.apache.thrift.protocol.TType.LIST, (short)3);
   private static final org.apache.thrift.protocol.TField ENABLE_TRACE_FIELD_DESC = new org.apache.thrift.protocol.TField("enableTrace", org.apache.thrift.protocol.TType.BOOL, (short)4);
   private static final org.apache.thrift.protocol.TField BROKER_ID_FIELD_DESC = new org.apache.thrift.protocol.TField("brokerId", org.apache.thrift.protocol.TType.STRING, (short)5);
+  private static final org.apache.thrift.protocol.TField CANCEL_FIELD_DESC = new org.apache.thrift.protocol.TField("cancel", org.apache.thrift.protocol.TType.BOOL, (short)6);
+  private static final org.apache.thrift.protocol.TField DEADLINE_MS_FIELD_DESC = new org.apache.thrift.protocol.TField("deadlineMs", org.apache.thrift.protocol.TType.I64, (short)7);
 
   private static final org.apache.thrift.scheme.SchemeFactory STANDARD_SCHEME_FACTORY = new InstanceRequestStandardSchemeFactory();
   private static final org.apache.thrift.scheme.SchemeFactory TUPLE_SCHEME_FACTORY = new InstanceRequestTupleSchemeFactory();
@@ -48,6 +50,8 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
   private @org.apache.thrift.annotation.Nullable java.util.List<java.lang.String> searchSegments; // optional
   private boolean enableTrace; // optional
   private @org.apache.thrift.annotation.Nullable java.lang.String brokerId; // optional
+  private boolean cancel; // optional
+  private long deadlineMs; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
@@ -55,7 +59,9 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     QUERY((short)2, "query"),
     SEARCH_SEGMENTS((short)3, "searchSegments"),
     ENABLE_TRACE((short)4, "enableTrace"),
-    BROKER_ID((short)5, "brokerId");
+    BROKER_ID((short)5, "brokerId"),
+    CANCEL((short)6, "cancel"),
+    DEADLINE_MS((short)7, "deadlineMs");
 
     private static final java.util.Map<java.lang.String, _Fields> byName = new java.util.HashMap<java.lang.String, _Fields>();
 
@@ -81,6 +87,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
           return ENABLE_TRACE;
         case 5: // BROKER_ID
           return BROKER_ID;
+        case 6: // CANCEL
+          return CANCEL;
+        case 7: // DEADLINE_MS
+          return DEADLINE_MS;
         default:
           return null;
       }
@@ -124,8 +134,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
   // isset id assignments
   private static final int __REQUESTID_ISSET_ID = 0;
   private static final int __ENABLETRACE_ISSET_ID = 1;
+  private static final int __CANCEL_ISSET_ID = 2;
+  private static final int __DEADLINEMS_ISSET_ID = 3;
   private byte __isset_bitfield = 0;
-  private static final _Fields optionals[] = {_Fields.SEARCH_SEGMENTS,_Fields.ENABLE_TRACE,_Fields.BROKER_ID};
+  private static final _Fields optionals[] = {_Fields.SEARCH_SEGMENTS,_Fields.ENABLE_TRACE,_Fields.BROKER_ID,_Fields.CANCEL,_Fields.DEADLINE_MS};
   public static final java.util.Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     java.util.Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new java.util.EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -140,6 +152,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.BOOL)));
     tmpMap.put(_Fields.BROKER_ID, new org.apache.thrift.meta_data.FieldMetaData("brokerId", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
+    tmpMap.put(_Fields.CANCEL, new org.apache.thrift.meta_data.FieldMetaData("cancel", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.BOOL)));
+    tmpMap.put(_Fields.DEADLINE_MS, new org.apache.thrift.meta_data.FieldMetaData("deadlineMs", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
     metaDataMap = java.util.Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(InstanceRequest.class, metaDataMap);
   }
@@ -174,6 +190,8 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     if (other.isSetBrokerId()) {
       this.brokerId = other.brokerId;
     }
+    this.cancel = other.cancel;
+    this.deadlineMs = other.deadlineMs;
   }
 
   public InstanceRequest deepCopy() {
@@ -189,6 +207,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     setEnableTraceIsSet(false);
     this.enableTrace = false;
     this.brokerId = null;
+    setCancelIsSet(false);
+    this.cancel = false;
+    setDeadlineMsIsSet(false);
+    this.deadlineMs = 0;
   }
 
   public long getRequestId() {
@@ -323,6 +345,50 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     }
   }
 
+  public boolean isCancel() {
+    return this.cancel;
+  }
+
+  public void setCancel(boolean cancel) {
+    this.cancel = cancel;
+    setCancelIsSet(true);
+  }
+
+  public void unsetCancel() {
+    __isset_bitfield = org.apache.thrift.EncodingUtils.clearBit(__isset_bitfield, __CANCEL_ISSET_ID);
+  }
+
+  /** Returns true if field cancel is set (has been assigned a value) and false otherwise */
+  public boolean isSetCancel() {
+    return org.apache.thrift.EncodingUtils.testBit(__isset_bitfield, __CANCEL_ISSET_ID);
+  }
+
+  public void setCancelIsSet(boolean value) {
+    __isset_bitfield = org.apache.thrift.EncodingUtils.setBit(__isset_bitfield, __CANCEL_ISSET_ID, value);
+  }
+
+  public long getDeadlineMs() {
+    return this.deadlineMs;
+  }
+
+  public void setDeadlineMs(long deadlineMs) {
+    this.deadlineMs = deadlineMs;
+    setDeadlineMsIsSet(true);
+  }
+
+  public void unsetDeadlineMs() {
+    __isset_bitfield = org.apache.thrift.EncodingUtils.clearBit(__isset_bitfield, __DEADLINEMS_ISSET_ID);
+  }
+
+  /** Returns true if field deadlineMs is set (has been assigned a value) and false otherwise */
+  public boolean isSetDeadlineMs() {
+    return org.apache.thrift.EncodingUtils.testBit(__isset_bitfield, __DEADLINEMS_ISSET_ID);
+  }
+
+  public void setDeadlineMsIsSet(boolean value) {
+    __isset_bitfield = org.apache.thrift.EncodingUtils.setBit(__isset_bitfield, __DEADLINEMS_ISSET_ID, value);
+  }
+
   public void setFieldValue(_Fields field, @org.apache.thrift.annotation.Nullable java.lang.Object value) {
     switch (field) {
     case REQUEST_ID:
@@ -365,6 +431,22 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       }
       break;
 
+    case CANCEL:
+      if (value == null) {
+        unsetCancel();
+      } else {
+        setCancel((java.lang.Boolean)value);
+      }
+      break;
+
+    case DEADLINE_MS:
+      if (value == null) {
+        unsetDeadlineMs();
+      } else {
+        setDeadlineMs((java.lang.Long)value);
+      }
+      break;
+
     }
   }
 
@@ -386,6 +468,12 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     case BROKER_ID:
       return getBrokerId();
 
+    case CANCEL:
+      return isCancel();
+
+    case DEADLINE_MS:
+      return getDeadlineMs();
+
     }
     throw new java.lang.IllegalStateException();
   }
@@ -407,6 +495,10 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       return isSetEnableTrace();
     case BROKER_ID:
       return isSetBrokerId();
+    case CANCEL:
+      return isSetCancel();
+    case DEADLINE_MS:
+      return isSetDeadlineMs();
     }
     throw new java.lang.IllegalStateException();
   }
@@ -471,6 +563,24 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
         return false;
     }
 
+    boolean this_present_cancel = true && this.isSetCancel();
+    boolean that_present_cancel = true && that.isSetCancel();
+    if (this_present_cancel || that_present_cancel) {
+      if (!(this_present_cancel && that_present_cancel))
+        return false;
+      if (this.cancel != that.cancel)
+        return false;
+    }
+
+    boolean this_present_deadlineMs = true && this.isSetDeadlineMs();
+    boolean that_present_deadlineMs = true && that.isSetDeadlineMs();
+    if (this_present_deadlineMs || that_present_deadlineMs) {
+      if (!(this_present_deadlineMs && that_present_deadlineMs))
+        return false;
+      if (this.deadlineMs != that.deadlineMs)
+        return false;
+    }
+
     return true;
   }
 
@@ -496,6 +606,14 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
     if (isSetBrokerId())
       hashCode = hashCode * 8191 + brokerId.hashCode();
 
+    hashCode = hashCode * 8191 + ((isSetCancel()) ? 131071 : 524287);
+    if (isSetCancel())
+      hashCode = hashCode * 8191 + ((cancel) ? 131071 : 524287);
+
+    hashCode = hashCode * 8191 + ((isSetDeadlineMs()) ? 131071 : 524287);
+    if (isSetDeadlineMs())
+      hashCode = hashCode * 8191 + org.apache.thrift.TBaseHelper.hashCode(deadlineMs);
+
     return hashCode;
   }
 
@@ -557,6 +675,26 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
         return lastComparison;
       }
     }
+    lastComparison = java.lang.Boolean.valueOf(isSetCancel()).compareTo(other.isSetCancel());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetCancel()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.cancel, other.cancel);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
+    lastComparison = java.lang.Boolean.valueOf(isSetDeadlineMs()).compareTo(other.isSetDeadlineMs());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetDeadlineMs()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.deadlineMs, other.deadlineMs);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -615,6 +753,18 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       }
       first = false;
     }
+    if (isSetCancel()) {
+      if (!first) sb.append(", ");
+      sb.append("cancel:");
+      sb.append(this.cancel);
+      first = false;
+    }
+    if (isSetDeadlineMs()) {
+      if (!first) sb.append(", ");
+      sb.append("deadlineMs:");
+      sb.append(this.deadlineMs);
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -722,6 +872,22 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 6: // CANCEL
+            if (schemeField.type == org.apache.thrift.protocol.TType.BOOL) {
+              struct.cancel = iprot.readBool();
+              struct.setCancelIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
+          case 7: // DEADLINE_MS
+            if (schemeField.type == org.apache.thrift.protocol.TType.I64) {
+              struct.deadlineMs = iprot.readI64();
+              struct.setDeadlineMsIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -769,6 +935,16 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
           oprot.writeFieldEnd();
         }
       }
+      if (struct.isSetCancel()) {
+        oprot.writeFieldBegin(CANCEL_FIELD_DESC);
+        oprot.writeBool(struct.cancel);
+        oprot.writeFieldEnd();
+      }
+      if (struct.isSetDeadlineMs()) {
+        oprot.writeFieldBegin(DEADLINE_MS_FIELD_DESC);
+        oprot.writeI64(struct.deadlineMs);
+        oprot.writeFieldEnd();
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -798,7 +974,13 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       if (struct.isSetBrokerId()) {
         optionals.set(2);
       }
-      oprot.writeBitSet(optionals, 3);
+      if (struct.isSetCancel()) {
+        optionals.set(3);
+      }
+      if (struct.isSetDeadlineMs()) {
+        optionals.set(4);
+      }
+      oprot.writeBitSet(optionals, 5);
       if (struct.isSetSearchSegments()) {
         {
           oprot.writeI32(struct.searchSegments.size());
@@ -814,6 +996,12 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       if (struct.isSetBrokerId()) {
         oprot.writeString(struct.brokerId);
       }
+      if (struct.isSetCancel()) {
+        oprot.writeBool(struct.cancel);
+      }
+      if (struct.isSetDeadlineMs()) {
+        oprot.writeI64(struct.deadlineMs);
+      }
     }
 
     @Override
@@ -824,7 +1012,7 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
       struct.query = new BrokerRequest();
       struct.query.read(iprot);
       struct.setQueryIsSet(true);
-      java.util.BitSet incoming = iprot.readBitSet(3);
+      java.util.BitSet incoming = iprot.readBitSet(5);
       if (incoming.get(0)) {
         {
           org.apache.thrift.protocol.TList _list143 = new org.apache.thrift.protocol.TList(org.apache.thrift.protocol.TType.STRING, iprot.readI32());
@@ -846,6 +1034,14 @@ public class InstanceRequest implements org.apache.thrift.TBase<InstanceRequest,
         struct.brokerId = iprot.readString();
         struct.setBrokerIdIsSet(true);
       }
+      if (incoming.get(3)) {
+        struct.cancel = iprot.readBool();
+        struct.setCancelIsSet(true);
+      }
+      if (incoming.get(4)) {
+        struct.deadlineMs = iprot.readI64();
+        struct.setDeadlineMsIsSet(true);
+      }
     }
   }
 
@@ -18,9 +18,12 @@
  */
 package org.apache.pinot.common.restlet.resources;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Collections;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 
 /**
@@ -32,15 +35,24 @@ public class SegmentConsumerInfo {
   private final String _consumerState;
   private final long _lastConsumedTimestamp;
   private final Map<String, String> _partitionToOffsetMap;
+  private final Map<String, String> _partitionToOffsetLagMap;
 
+  public SegmentConsumerInfo(String segmentName, String consumerState, long lastConsumedTimestamp,
+      Map<String, String> partitionToOffsetMap) {
+    this(segmentName, consumerState, lastConsumedTimestamp, partitionToOffsetMap, Collections.emptyMap());
+  }
+
+  @JsonCreator
   public SegmentConsumerInfo(@JsonProperty("segmentName") String segmentName,
       @JsonProperty("consumerState") String consumerState,
       @JsonProperty("lastConsumedTimestamp") long lastConsumedTimestamp,
-      @JsonProperty("partitionToOffsetMap") Map<String, String> partitionToOffsetMap) {
+      @JsonProperty("partitionToOffsetMap") Map<String, String> partitionToOffsetMap,
+      @JsonProperty("partitionToOffsetLagMap") @Nullable Map<String, String> partitionToOffsetLagMap) {
     _segmentName = segmentName;
     _consumerState = consumerState;
     _lastConsumedTimestamp = lastConsumedTimestamp;
     _partitionToOffsetMap = partitionToOffsetMap;
+    _partitionToOffsetLagMap = partitionToOffsetLagMap != null ? partitionToOffsetLagMap : Collections.emptyMap();
   }
 
   public String getSegmentName() {
@@ -58,4 +70,12 @@ public class SegmentConsumerInfo {
   public Map<String, String> getPartitionToOffsetMap() {
     return _partitionToOffsetMap;
   }
+
+  /**
+   * Returns the estimated number of messages between the latest stream offset and the consumed offset for each
+   * partition, -1 if the lag cannot be estimated.
+   */
+  public Map<String, String> getPartitionToOffsetLagMap() {
+    return _partitionToOffsetLagMap;
+  }
 }
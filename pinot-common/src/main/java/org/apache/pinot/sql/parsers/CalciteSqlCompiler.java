@@ -32,7 +32,13 @@ public class CalciteSqlCompiler implements QueryCompiler {
 
   @Override
   public BrokerRequest compileToBrokerRequest(String query) {
-    PinotQuery pinotQuery = CalciteSqlParser.compileToPinotQuery(query);
+    return convertToBrokerRequest(CalciteSqlParser.compileToPinotQuery(query));
+  }
+
+  /**
+   * Wraps the compiled {@link PinotQuery} into a {@link BrokerRequest}.
+   */
+  public static BrokerRequest convertToBrokerRequest(PinotQuery pinotQuery) {
     BrokerRequest brokerRequest = new BrokerRequest();
     brokerRequest.setPinotQuery(pinotQuery);
     // Set table name in broker request because it is used for access control, query routing etc.
@@ -177,4 +177,6 @@ struct InstanceRequest {
   3: optional list<string> searchSegments;
   4: optional bool enableTrace;
   5: optional string brokerId;
+  6: optional bool cancel;
+  7: optional i64 deadlineMs;
 }
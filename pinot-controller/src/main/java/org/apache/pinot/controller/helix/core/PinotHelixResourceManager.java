@@ -1649,7 +1649,8 @@ public class PinotHelixResourceManager {
       // Build the realtime segment zk metadata with necessary fields.
       LLCRealtimeSegmentZKMetadata segmentZKMetadata = new LLCRealtimeSegmentZKMetadata();
       ZKMetadataUtils
-          .updateSegmentMetadata(segmentZKMetadata, segmentMetadata, CommonConstants.Segment.SegmentType.REALTIME);
+          .updateSegmentMetadata(segmentZKMetadata, segmentMetadata, CommonConstants.Segment.SegmentType.REALTIME,
+              getMinMaxValueSegmentPruningColumns(tableNameWithType));
       segmentZKMetadata.setDownloadUrl(downloadUrl);
       segmentZKMetadata.setCrypterName(crypter);
       segmentZKMetadata.setStatus(CommonConstants.Segment.Realtime.Status.UPLOADED);
@@ -1659,7 +1660,8 @@ public class PinotHelixResourceManager {
       // Build the offline segment zk metadata with necessary fields.
       OfflineSegmentZKMetadata segmentZKMetadata = new OfflineSegmentZKMetadata();
       ZKMetadataUtils
-          .updateSegmentMetadata(segmentZKMetadata, segmentMetadata, CommonConstants.Segment.SegmentType.OFFLINE);
+          .updateSegmentMetadata(segmentZKMetadata, segmentMetadata, CommonConstants.Segment.SegmentType.OFFLINE,
+              getMinMaxValueSegmentPruningColumns(tableNameWithType));
       segmentZKMetadata.setDownloadUrl(downloadUrl);
       segmentZKMetadata.setCrypterName(crypter);
       segmentZKMetadata.setPushTime(System.currentTimeMillis());
@@ -1675,6 +1677,16 @@ public class PinotHelixResourceManager {
   }
 
 
+  /**
+   * Returns the columns whose min/max values should be stored in the segment ZK metadata for the broker to prune
+   * segments.
+   */
+  @Nullable
+  private List<String> getMinMaxValueSegmentPruningColumns(String tableNameWithType) {
+    TableConfig tableConfig = getTableConfig(tableNameWithType);
+    return tableConfig != null ? tableConfig.getIndexingConfig().getMinMaxValueSegmentPruningColumns() : null;
+  }
+
   private void assignTableSegment(String tableNameWithType, String segmentName, String segmentZKMetadataPath,
       InstancePartitionsType instancePartitionsType) {
     // Assign instances for the segment and add it into IdealState
@@ -1757,7 +1769,8 @@ public class PinotHelixResourceManager {
     // ZK metadata to refresh the segment (server will compare the segment ZK metadata with the local metadata to decide
     // whether to download the new segment; broker will update the the segment partition info & time boundary based on
     // the segment ZK metadata)
-    ZKMetadataUtils.updateSegmentMetadata(offlineSegmentZKMetadata, segmentMetadata, CommonConstants.Segment.SegmentType.OFFLINE);
+    ZKMetadataUtils.updateSegmentMetadata(offlineSegmentZKMetadata, segmentMetadata,
+        CommonConstants.Segment.SegmentType.OFFLINE, getMinMaxValueSegmentPruningColumns(offlineTableName));
     offlineSegmentZKMetadata.setRefreshTime(System.currentTimeMillis());
     offlineSegmentZKMetadata.setDownloadUrl(downloadUrl);
     offlineSegmentZKMetadata.setCrypterName(crypter);
@@ -19,7 +19,9 @@
 package org.apache.pinot.controller.helix.core.util;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.metadata.segment.SegmentPartitionMetadata;
 import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
 import org.apache.pinot.common.metadata.segment.SegmentZKMetadataCustomMapModifier;
@@ -28,6 +30,7 @@ import org.apache.pinot.segment.spi.index.metadata.ColumnMetadata;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.segment.spi.partition.metadata.ColumnPartitionMetadata;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.utils.CommonConstants.Segment.SegmentType;
 
 
@@ -35,8 +38,20 @@ public class ZKMetadataUtils {
   private ZKMetadataUtils() {
   }
 
+  // Skip the long values to keep the segment ZK metadata small
+  private static final int MAX_MIN_MAX_VALUE_LENGTH = 64;
+
   public static void updateSegmentMetadata(SegmentZKMetadata segmentZKMetadata, SegmentMetadata segmentMetadata,
       SegmentType segmentType) {
+    updateSegmentMetadata(segmentZKMetadata, segmentMetadata, segmentType, null);
+  }
+
+  /**
+   * Updates the segment ZK metadata based on the segment metadata. The min/max values of the given columns are also
+   * stored in the segment ZK metadata for the broker to prune segments.
+   */
+  public static void updateSegmentMetadata(SegmentZKMetadata segmentZKMetadata, SegmentMetadata segmentMetadata,
+      SegmentType segmentType, @Nullable List<String> minMaxValueColumns) {
     segmentZKMetadata.setSegmentName(segmentMetadata.getName());
     segmentZKMetadata.setTableName(segmentMetadata.getTableName());
     segmentZKMetadata.setIndexVersion(segmentMetadata.getVersion());
@@ -75,5 +90,43 @@ public class ZKMetadataUtils {
     if (!columnPartitionMap.isEmpty()) {
       segmentZKMetadata.setPartitionMetadata(new SegmentPartitionMetadata(columnPartitionMap));
     }
+
+    updateColumnMinMaxValues(segmentZKMetadata, segmentMetadata, minMaxValueColumns);
+  }
+
+  /**
+   * Sets the min/max values of the given columns (numeric and string columns only) from the segment metadata into the
+   * segment ZK metadata. The existing min/max values are removed if no column is configured.
+   */
+  public static void updateColumnMinMaxValues(SegmentZKMetadata segmentZKMetadata, SegmentMetadata segmentMetadata,
+      @Nullable List<String> minMaxValueColumns) {
+    Map<String, String> columnMinValues = new HashMap<>();
+    Map<String, String> columnMaxValues = new HashMap<>();
+    if (minMaxValueColumns != null && segmentMetadata instanceof SegmentMetadataImpl) {
+      SegmentMetadataImpl metadata = (SegmentMetadataImpl) segmentMetadata;
+      for (String column : minMaxValueColumns) {
+        ColumnMetadata columnMetadata = metadata.getColumnMetadataFor(column);
+        if (columnMetadata == null || columnMetadata.getMinValue() == null || columnMetadata.getMaxValue() == null) {
+          continue;
+        }
+        DataType storedType = columnMetadata.getDataType().getStoredType();
+        if (!storedType.isNumeric() && storedType != DataType.STRING) {
+          continue;
+        }
+        String minValue = columnMetadata.getMinValue().toString();
+        String maxValue = columnMetadata.getMaxValue().toString();
+        if (minValue.length() <= MAX_MIN_MAX_VALUE_LENGTH && maxValue.length() <= MAX_MIN_MAX_VALUE_LENGTH) {
+          columnMinValues.put(column, minValue);
+          columnMaxValues.put(column, maxValue);
+        }
+      }
+    }
+    if (!columnMinValues.isEmpty()) {
+      segmentZKMetadata.setColumnMinValues(columnMinValues);
+      segmentZKMetadata.setColumnMaxValues(columnMaxValues);
+    } else {
+      segmentZKMetadata.setColumnMinValues(null);
+      segmentZKMetadata.setColumnMaxValues(null);
+    }
   }
 }
@@ -20,6 +20,7 @@ package org.apache.pinot.core.common;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,18 +39,26 @@ import org.apache.pinot.spi.utils.BytesUtils;
  * readers (ForwardIndexReader and Dictionary) for the column, preventing redundant construction for these instances.
  * DataFetcher can be used by both selection, aggregation and group-by data fetching process, reducing duplicate codes
  * and garbage collection.
+ * <p>The DataFetcher should be closed once the data fetching is done to release the off-heap buffers held by the reader
+ * contexts (e.g. ChunkReaderContext).
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
-public class DataFetcher {
+public class DataFetcher implements Closeable {
   // Thread local (reusable) buffer for single-valued column dictionary Ids
   private static final ThreadLocal<int[]> THREAD_LOCAL_DICT_IDS =
       ThreadLocal.withInitial(() -> new int[DocIdSetPlanNode.MAX_DOC_PER_CALL]);
 
-  // TODO: Figure out a way to close the reader context within the ColumnValueReader
-  //       ChunkReaderContext should be closed explicitly to release the off-heap buffer
   private final Map<String, ColumnValueReader> _columnValueReaderMap;
+  private final int _maxNumValuesPerMVEntry;
   private final int[] _reusableMVDictIds;
 
+  // Reusable buffers for raw (non-dictionary-encoded) multi-valued columns, lazily allocated
+  private int[] _reusableMVIntValues;
+  private long[] _reusableMVLongValues;
+  private float[] _reusableMVFloatValues;
+  private double[] _reusableMVDoubleValues;
+  private String[] _reusableMVStringValues;
+
   /**
    * Constructor for DataFetcher.
    *
@@ -69,6 +78,7 @@ public class DataFetcher {
         maxNumValuesPerMVEntry = Math.max(maxNumValuesPerMVEntry, dataSourceMetadata.getMaxNumValuesPerMVEntry());
       }
     }
+    _maxNumValuesPerMVEntry = maxNumValuesPerMVEntry;
     _reusableMVDictIds = new int[maxNumValuesPerMVEntry];
   }
 
@@ -248,6 +258,17 @@ public class DataFetcher {
     _columnValueReaderMap.get(column).readNumValuesMV(inDocIds, length, outNumValues);
   }
 
+  /**
+   * Closes the reader contexts to release their buffers. The DataFetcher can still be used afterwards, and the reader
+   * contexts acquire the buffers again on demand.
+   */
+  @Override
+  public void close() {
+    for (ColumnValueReader columnValueReader : _columnValueReaderMap.values()) {
+      columnValueReader.close();
+    }
+  }
+
   /**
    * Helper class to read values for a column from forward index and dictionary. For raw (non-dictionary-encoded)
    * forward index, similar to Dictionary, type conversion among INT, LONG, FLOAT, DOUBLE, STRING is supported; type
@@ -287,9 +308,7 @@ public class DataFetcher {
       } else {
         switch (_reader.getValueType()) {
           case INT:
-            for (int i = 0; i < length; i++) {
-              valueBuffer[i] = _reader.getInt(docIds[i], readerContext);
-            }
+            _reader.readValuesSV(docIds, length, valueBuffer, readerContext);
             break;
           case LONG:
             for (int i = 0; i < length; i++) {
@@ -331,9 +350,7 @@ public class DataFetcher {
             }
             break;
           case LONG:
-            for (int i = 0; i < length; i++) {
-              valueBuffer[i] = _reader.getLong(docIds[i], readerContext);
-            }
+            _reader.readValuesSV(docIds, length, valueBuffer, readerContext);
             break;
           case FLOAT:
             for (int i = 0; i < length; i++) {
@@ -375,9 +392,7 @@ public class DataFetcher {
             }
             break;
           case FLOAT:
-            for (int i = 0; i < length; i++) {
-              valueBuffer[i] = _reader.getFloat(docIds[i], readerContext);
-            }
+            _reader.readValuesSV(docIds, length, valueBuffer, readerContext);
             break;
           case DOUBLE:
             for (int i = 0; i < length; i++) {
@@ -419,9 +434,7 @@ public class DataFetcher {
             }
             break;
           case DOUBLE:
-            for (int i = 0; i < length; i++) {
-              valueBuffer[i] = _reader.getDouble(docIds[i], readerContext);
-            }
+            _reader.readValuesSV(docIds, length, valueBuffer, readerContext);
             break;
           case STRING:
             for (int i = 0; i < length; i++) {
@@ -510,66 +523,120 @@ public class DataFetcher {
     }
 
     void readIntValuesMV(int[] docIds, int length, int[][] valuesBuffer) {
-      assert _dictionary != null;
-      for (int i = 0; i < length; i++) {
-        int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
-        int[] values = new int[numValues];
-        _dictionary.readIntValues(_reusableMVDictIds, numValues, values);
-        valuesBuffer[i] = values;
+      if (_dictionary != null) {
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
+          int[] values = new int[numValues];
+          _dictionary.readIntValues(_reusableMVDictIds, numValues, values);
+          valuesBuffer[i] = values;
+        }
+      } else {
+        if (_reusableMVIntValues == null) {
+          _reusableMVIntValues = new int[_maxNumValuesPerMVEntry];
+        }
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getIntMV(docIds[i], _reusableMVIntValues, getReaderContext());
+          valuesBuffer[i] = Arrays.copyOf(_reusableMVIntValues, numValues);
+        }
       }
     }
 
     void readLongValuesMV(int[] docIds, int length, long[][] valuesBuffer) {
-      assert _dictionary != null;
-      for (int i = 0; i < length; i++) {
-        int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
-        long[] values = new long[numValues];
-        _dictionary.readLongValues(_reusableMVDictIds, numValues, values);
-        valuesBuffer[i] = values;
+      if (_dictionary != null) {
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
+          long[] values = new long[numValues];
+          _dictionary.readLongValues(_reusableMVDictIds, numValues, values);
+          valuesBuffer[i] = values;
+        }
+      } else {
+        if (_reusableMVLongValues == null) {
+          _reusableMVLongValues = new long[_maxNumValuesPerMVEntry];
+        }
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getLongMV(docIds[i], _reusableMVLongValues, getReaderContext());
+          valuesBuffer[i] = Arrays.copyOf(_reusableMVLongValues, numValues);
+        }
       }
     }
 
     void readFloatValuesMV(int[] docIds, int length, float[][] valuesBuffer) {
-      assert _dictionary != null;
-      for (int i = 0; i < length; i++) {
-        int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
-        float[] values = new float[numValues];
-        _dictionary.readFloatValues(_reusableMVDictIds, numValues, values);
-        valuesBuffer[i] = values;
+      if (_dictionary != null) {
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
+          float[] values = new float[numValues];
+          _dictionary.readFloatValues(_reusableMVDictIds, numValues, values);
+          valuesBuffer[i] = values;
+        }
+      } else {
+        if (_reusableMVFloatValues == null) {
+          _reusableMVFloatValues = new float[_maxNumValuesPerMVEntry];
+        }
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getFloatMV(docIds[i], _reusableMVFloatValues, getReaderContext());
+          valuesBuffer[i] = Arrays.copyOf(_reusableMVFloatValues, numValues);
+        }
       }
     }
 
     void readDoubleValuesMV(int[] docIds, int length, double[][] valuesBuffer) {
-      assert _dictionary != null;
-      for (int i = 0; i < length; i++) {
-        int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
-        double[] values = new double[numValues];
-        _dictionary.readDoubleValues(_reusableMVDictIds, numValues, values);
-        valuesBuffer[i] = values;
+      if (_dictionary != null) {
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
+          double[] values = new double[numValues];
+          _dictionary.readDoubleValues(_reusableMVDictIds, numValues, values);
+          valuesBuffer[i] = values;
+        }
+      } else {
+        if (_reusableMVDoubleValues == null) {
+          _reusableMVDoubleValues = new double[_maxNumValuesPerMVEntry];
+        }
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getDoubleMV(docIds[i], _reusableMVDoubleValues, getReaderContext());
+          valuesBuffer[i] = Arrays.copyOf(_reusableMVDoubleValues, numValues);
+        }
       }
     }
 
     void readStringValuesMV(int[] docIds, int length, String[][] valuesBuffer) {
-      assert _dictionary != null;
-      for (int i = 0; i < length; i++) {
-        int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
-        String[] values = new String[numValues];
-        _dictionary.readStringValues(_reusableMVDictIds, numValues, values);
-        valuesBuffer[i] = values;
+      if (_dictionary != null) {
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
+          String[] values = new String[numValues];
+          _dictionary.readStringValues(_reusableMVDictIds, numValues, values);
+          valuesBuffer[i] = values;
+        }
+      } else {
+        if (_reusableMVStringValues == null) {
+          _reusableMVStringValues = new String[_maxNumValuesPerMVEntry];
+        }
+        for (int i = 0; i < length; i++) {
+          int numValues = _reader.getStringMV(docIds[i], _reusableMVStringValues, getReaderContext());
+          valuesBuffer[i] = Arrays.copyOf(_reusableMVStringValues, numValues);
+        }
       }
     }
 
     public void readNumValuesMV(int[] docIds, int length, int[] numValuesBuffer) {
-      for (int i = 0; i < length; i++) {
-        numValuesBuffer[i] = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
+      if (_dictionary != null) {
+        for (int i = 0; i < length; i++) {
+          numValuesBuffer[i] = _reader.getDictIdMV(docIds[i], _reusableMVDictIds, getReaderContext());
+        }
+      } else {
+        for (int i = 0; i < length; i++) {
+          numValuesBuffer[i] = _reader.getNumValuesMV(docIds[i], getReaderContext());
+        }
       }
     }
 
     @Override
-    public void close()
-        throws IOException {
+    public void close() {
       if (_readerContext != null) {
-        _readerContext.close();
+        try {
+          _readerContext.close();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
       }
     }
   }
@@ -140,6 +140,7 @@ public abstract class BaseTableDataManager implements TableDataManager {
       _logger.info("Added new immutable segment: {} to table: {}", segmentName, _tableNameWithType);
     } else {
       _logger.info("Replaced immutable segment: {} of table: {}", segmentName, _tableNameWithType);
+      oldSegmentManager.markRemoved();
       releaseSegment(oldSegmentManager);
     }
   }
@@ -167,6 +168,7 @@ public abstract class BaseTableDataManager implements TableDataManager {
     _logger.info("Removing segment: {} from table: {}", segmentName, _tableNameWithType);
     SegmentDataManager segmentDataManager = _segmentDataManagerMap.remove(segmentName);
     if (segmentDataManager != null) {
+      segmentDataManager.markRemoved();
       releaseSegment(segmentDataManager);
       _logger.info("Removed segment: {} from table: {}", segmentName, _tableNameWithType);
     } else {
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.data.manager.offline;
 
 import org.apache.pinot.segment.local.data.manager.SegmentDataManager;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
 import org.apache.pinot.segment.spi.ImmutableSegment;
 
 
@@ -43,6 +44,16 @@ public class ImmutableSegmentDataManager extends SegmentDataManager {
     return _immutableSegment;
   }
 
+  /**
+   * Evicts the idle column indexes (with lazy column loading) when no query is using the segment.
+   */
+  @Override
+  protected void onQuiescent() {
+    if (_immutableSegment instanceof ImmutableSegmentImpl) {
+      ((ImmutableSegmentImpl) _immutableSegment).evictIdleColumns();
+    }
+  }
+
   @Override
   public void destroy() {
     _immutableSegment.destroy();
@@ -20,11 +20,13 @@ package org.apache.pinot.core.data.manager.offline;
 
 import com.google.common.cache.LoadingCache;
 import java.util.concurrent.Semaphore;
+import javax.annotation.Nullable;
 import org.apache.helix.HelixManager;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.restlet.resources.SegmentErrorInfo;
+import org.apache.pinot.core.data.manager.realtime.AdaptiveFlushController;
 import org.apache.pinot.core.data.manager.realtime.RealtimeTableDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManagerConfig;
@@ -38,15 +40,25 @@ import org.apache.pinot.spi.utils.Pair;
  */
 public class TableDataManagerProvider {
   private static Semaphore _segmentBuildSemaphore;
+  private static AdaptiveFlushController _adaptiveFlushController;
 
   private TableDataManagerProvider() {
   }
 
   public static void init(InstanceDataManagerConfig instanceDataManagerConfig) {
+    init(instanceDataManagerConfig, null);
+  }
+
+  public static void init(InstanceDataManagerConfig instanceDataManagerConfig, @Nullable ServerMetrics serverMetrics) {
     int maxParallelBuilds = instanceDataManagerConfig.getMaxParallelSegmentBuilds();
     if (maxParallelBuilds > 0) {
       _segmentBuildSemaphore = new Semaphore(maxParallelBuilds, true);
     }
+    long consumingMemoryBudgetBytes = instanceDataManagerConfig.getRealtimeConsumingMemoryBudgetBytes();
+    if (consumingMemoryBudgetBytes > 0) {
+      _adaptiveFlushController = new AdaptiveFlushController(consumingMemoryBudgetBytes,
+          instanceDataManagerConfig.getRealtimeAdaptiveFlushMinRows(), serverMetrics);
+    }
   }
 
   public static TableDataManager getTableDataManager(TableDataManagerConfig tableDataManagerConfig, String instanceId,
@@ -62,7 +74,7 @@ public class TableDataManagerProvider {
         }
         break;
       case REALTIME:
-        tableDataManager = new RealtimeTableDataManager(_segmentBuildSemaphore);
+        tableDataManager = new RealtimeTableDataManager(_segmentBuildSemaphore, _adaptiveFlushController);
         break;
       default:
         throw new IllegalStateException();
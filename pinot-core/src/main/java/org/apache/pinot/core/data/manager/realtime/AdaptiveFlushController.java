@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.io.readerwriter.PinotDataBufferMemoryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Server-wide controller that picks the flush points of the consuming segments based on their live memory usage and
+ * ingestion rate, so that the total memory used by all the consuming segments on the server stays under a budget.
+ *
+ * <p>Each consuming segment registers itself with its {@link PinotDataBufferMemoryManager} and gets back a
+ * {@link ConsumingSegmentHandle}, through which it reads the row threshold at which it should flush. The thresholds
+ * are recomputed periodically (lazily by the consuming threads, no extra thread is required):
+ * <ul>
+ *   <li>
+ *     While the total memory used is under the budget, the remaining memory is split among the consuming segments
+ *     proportionally to their ingestion rate, and converted into a row threshold using the observed bytes per row of
+ *     each segment. This allows the segments to grow as large as possible, and the segments to reach the budget at
+ *     about the same time.
+ *   </li>
+ *   <li>
+ *     Once the total memory used exceeds the budget, the segments using the most memory are flushed first until enough
+ *     memory is released. The other segments keep consuming up to their previous thresholds (or with a small headroom
+ *     if already reached) so that they do not flush all at once.
+ *   </li>
+ * </ul>
+ * Segments with less than the configured minimum number of rows are never flushed by this controller to avoid
+ * creating tiny segments. The thresholds are upper bounded by the flush thresholds from the stream config.
+ */
+@ThreadSafe
+public class AdaptiveFlushController {
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveFlushController.class);
+  private static final long RECOMPUTE_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+  // Time of ingestion allowed for the segments not flushed while the memory used is over the budget
+  private static final long HEADROOM_MS = 2 * RECOMPUTE_INTERVAL_MS;
+  // Weight of the latest sample when smoothing the ingestion rate
+  private static final double INGESTION_RATE_SMOOTHING_FACTOR = 0.5;
+
+  private final long _memoryBudgetBytes;
+  private final int _minFlushRows;
+  private final ServerMetrics _serverMetrics;
+  private final Map<String, ConsumingSegmentHandle> _consumingSegments = new ConcurrentHashMap<>();
+
+  private volatile long _nextRecomputeTimeMs = 0;
+
+  public AdaptiveFlushController(long memoryBudgetBytes, int minFlushRows, @Nullable ServerMetrics serverMetrics) {
+    Preconditions.checkArgument(memoryBudgetBytes > 0, "Memory budget must be positive, got: %s", memoryBudgetBytes);
+    _memoryBudgetBytes = memoryBudgetBytes;
+    _minFlushRows = minFlushRows;
+    _serverMetrics = serverMetrics;
+    LOGGER.info("Initialized adaptive flush controller with memory budget: {} bytes, min flush rows: {}",
+        memoryBudgetBytes, minFlushRows);
+  }
+
+  /**
+   * Registers a consuming segment, and returns the handle to read its flush row threshold from.
+   */
+  public ConsumingSegmentHandle register(String segmentName, PinotDataBufferMemoryManager memoryManager,
+      IntSupplier numRowsIndexedSupplier) {
+    ConsumingSegmentHandle handle =
+        new ConsumingSegmentHandle(segmentName, memoryManager, numRowsIndexedSupplier, System.currentTimeMillis());
+    _consumingSegments.put(segmentName, handle);
+    // Recompute the thresholds on the next access to account for the new segment
+    _nextRecomputeTimeMs = 0;
+    return handle;
+  }
+
+  /**
+   * Unregisters a consuming segment, should be invoked once the segment stops consuming.
+   */
+  public void unregister(String segmentName) {
+    _consumingSegments.remove(segmentName);
+    _nextRecomputeTimeMs = 0;
+  }
+
+  public long getMemoryBudgetBytes() {
+    return _memoryBudgetBytes;
+  }
+
+  private void maybeRecompute() {
+    long now = System.currentTimeMillis();
+    if (now >= _nextRecomputeTimeMs) {
+      synchronized (this) {
+        if (now >= _nextRecomputeTimeMs) {
+          recompute(now);
+          _nextRecomputeTimeMs = now + RECOMPUTE_INTERVAL_MS;
+        }
+      }
+    }
+  }
+
+  /**
+   * Recomputes the flush row thresholds for all the consuming segments.
+   */
+  @VisibleForTesting
+  synchronized void recompute(long now) {
+    List<ConsumingSegmentHandle> handles = new ArrayList<>(_consumingSegments.values());
+    int numSegments = handles.size();
+    if (numSegments == 0) {
+      return;
+    }
+
+    long totalMemoryUsedBytes = 0;
+    double totalIngestionRate = 0;
+    for (ConsumingSegmentHandle handle : handles) {
+      handle.sample(now);
+      totalMemoryUsedBytes += handle._memoryUsedBytes;
+      totalIngestionRate += handle._ingestionRate;
+    }
+    if (_serverMetrics != null) {
+      _serverMetrics.setValueOfGlobalGauge(ServerGauge.REALTIME_CONSUMING_MEMORY_USED, totalMemoryUsedBytes);
+    }
+
+    if (totalMemoryUsedBytes < _memoryBudgetBytes) {
+      // Split the remaining memory among the segments proportionally to the ingestion rate. The share is floored at an
+      // even split so that a (nearly) idle segment is not flushed right away while the other segments are ingesting.
+      // The shares can over-commit the remaining memory, which is still bounded by flushing the largest segments once
+      // the total memory used exceeds the budget.
+      long remainingMemoryBytes = _memoryBudgetBytes - totalMemoryUsedBytes;
+      double evenShare = 1.0 / numSegments;
+      for (ConsumingSegmentHandle handle : handles) {
+        if (handle._numRowsIndexed < _minFlushRows || handle._memoryUsedBytes <= 0) {
+          handle._flushRowThreshold = Integer.MAX_VALUE;
+          continue;
+        }
+        double share =
+            totalIngestionRate > 0 ? Math.max(handle._ingestionRate / totalIngestionRate, evenShare) : evenShare;
+        double bytesPerRow = (double) handle._memoryUsedBytes / handle._numRowsIndexed;
+        double additionalRows = remainingMemoryBytes * share / bytesPerRow;
+        handle._flushRowThreshold =
+            (int) Math.min(Math.max(handle._numRowsIndexed + additionalRows, _minFlushRows), Integer.MAX_VALUE);
+      }
+    } else {
+      // Flush the segments using the most memory first until enough memory is released
+      handles.sort((h1, h2) -> Long.compare(h2._memoryUsedBytes, h1._memoryUsedBytes));
+      long memoryToReleaseBytes = totalMemoryUsedBytes - _memoryBudgetBytes;
+      for (ConsumingSegmentHandle handle : handles) {
+        if (memoryToReleaseBytes > 0 && handle._numRowsIndexed >= _minFlushRows) {
+          handle._flushRowThreshold = handle._numRowsIndexed;
+          memoryToReleaseBytes -= handle._memoryUsedBytes;
+          LOGGER.info("Memory used by consuming segments: {} exceeds the budget: {}, flushing segment: {} with {} rows",
+              totalMemoryUsedBytes, _memoryBudgetBytes, handle._segmentName, handle._numRowsIndexed);
+        } else if (handle._flushRowThreshold <= handle._numRowsIndexed) {
+          // Keep the other segments consuming with some headroom instead of flushing all of them at once, and
+          // recompute their thresholds once the memory is released
+          long headroomRows = Math.max((long) (handle._ingestionRate * HEADROOM_MS / 1000), 1);
+          handle._flushRowThreshold = (int) Math.min(handle._numRowsIndexed + headroomRows, Integer.MAX_VALUE);
+        }
+        // Otherwise keep the previous threshold of the other segments which is above their current rows
+      }
+    }
+  }
+
+  /**
+   * Handle for a consuming segment registered with the {@link AdaptiveFlushController}.
+   */
+  public class ConsumingSegmentHandle {
+    private final String _segmentName;
+    private final PinotDataBufferMemoryManager _memoryManager;
+    private final IntSupplier _numRowsIndexedSupplier;
+
+    // Stats sampled during the last recompute
+    private long _lastSampleTimeMs;
+    private long _memoryUsedBytes;
+    private int _numRowsIndexed;
+    private double _ingestionRate;
+
+    private volatile int _flushRowThreshold = Integer.MAX_VALUE;
+
+    private ConsumingSegmentHandle(String segmentName, PinotDataBufferMemoryManager memoryManager,
+        IntSupplier numRowsIndexedSupplier, long startTimeMs) {
+      _segmentName = segmentName;
+      _memoryManager = memoryManager;
+      _numRowsIndexedSupplier = numRowsIndexedSupplier;
+      _lastSampleTimeMs = startTimeMs;
+    }
+
+    private void sample(long now) {
+      _memoryUsedBytes = _memoryManager.getTotalAllocatedBytes();
+      int numRowsIndexed = _numRowsIndexedSupplier.getAsInt();
+      long elapsedMs = now - _lastSampleTimeMs;
+      if (elapsedMs > 0) {
+        double rate = (double) (numRowsIndexed - _numRowsIndexed) * 1000 / elapsedMs;
+        _ingestionRate = _ingestionRate == 0 ? rate
+            : INGESTION_RATE_SMOOTHING_FACTOR * rate + (1 - INGESTION_RATE_SMOOTHING_FACTOR) * _ingestionRate;
+      }
+      _numRowsIndexed = numRowsIndexed;
+      _lastSampleTimeMs = now;
+    }
+
+    /**
+     * Returns the number of rows at which the segment should be flushed to keep the memory used by all the consuming
+     * segments under the budget, {@code Integer.MAX_VALUE} if there is no constraint.
+     */
+    public int getFlushRowThreshold() {
+      maybeRecompute();
+      return _flushRowThreshold;
+    }
+
+    @VisibleForTesting
+    int getCurrentFlushRowThreshold() {
+      return _flushRowThreshold;
+    }
+  }
+}
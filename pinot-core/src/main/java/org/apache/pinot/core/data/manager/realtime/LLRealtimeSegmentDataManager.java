@@ -31,6 +31,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -44,6 +46,7 @@ import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMeter;
 import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.metrics.ServerTimer;
 import org.apache.pinot.common.protocols.SegmentCompletionProtocol;
 import org.apache.pinot.common.restlet.resources.SegmentErrorInfo;
 import org.apache.pinot.common.utils.LLCSegmentName;
@@ -72,7 +75,9 @@ import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.data.readers.GenericRow;
 import org.apache.pinot.spi.metrics.PinotMeter;
+import org.apache.pinot.spi.stream.LongMsgOffset;
 import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.OffsetCriteria;
 import org.apache.pinot.spi.stream.PartitionGroupConsumer;
 import org.apache.pinot.spi.stream.PartitionGroupConsumptionStatus;
 import org.apache.pinot.spi.stream.PartitionLevelStreamConfig;
@@ -207,6 +212,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private static final int MSG_COUNT_THRESHOLD_FOR_LOG = 100000;
   private static final int BUILD_TIME_LEASE_SECONDS = 30;
   private static final int MAX_CONSECUTIVE_ERROR_COUNT = 5;
+  private static final long OFFSET_LAG_UPDATE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+  private static final int OFFSET_LAG_FETCH_TIMEOUT_MS = 5000;
 
   private final LLCRealtimeSegmentZKMetadata _segmentZKMetadata;
   private final TableConfig _tableConfig;
@@ -260,7 +267,14 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private final RecordTransformer _recordTransformer;
   private final ComplexTypeTransformer _complexTypeTransformer;
   private PartitionGroupConsumer _partitionGroupConsumer = null;
+  // Guarded by _streamMetadataProviderLock, which is shared by the consumer thread and the offset lag fetch
   private StreamMetadataProvider _streamMetadataProvider = null;
+  private final Object _streamMetadataProviderLock = new Object();
+  // Whether the stream metadata provider is partition level, in which case it is also used to estimate the offset lag
+  private volatile boolean _partitionLevelMetadataProvider = false;
+  private final AtomicBoolean _offsetLagFetchInProgress = new AtomicBoolean();
+  private volatile long _offsetLag = -1;
+  private long _lastOffsetLagUpdateTimeMs = 0;
   private final File _resourceTmpDir;
   private final String _tableNameWithType;
   private final List<String> _invertedIndexColumns;
@@ -286,11 +300,15 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   private final boolean _isOffHeap;
   private final boolean _nullHandlingEnabled;
   private final SegmentCommitterFactory _segmentCommitterFactory;
+  private final AdaptiveFlushController _adaptiveFlushController;
+  private final AdaptiveFlushController.ConsumingSegmentHandle _adaptiveFlushHandle;
 
   // TODO each time this method is called, we print reason for stop. Good to print only once.
   private boolean endCriteriaReached() {
     Preconditions.checkState(_state.shouldConsume(), "Incorrect state %s", _state);
     long now = now();
+    int adaptiveFlushRowThreshold =
+        _adaptiveFlushHandle != null ? _adaptiveFlushHandle.getFlushRowThreshold() : Integer.MAX_VALUE;
     switch (_state) {
       case INITIAL_CONSUMING:
         // The segment has been created, and we have not posted a segmentConsumed() message on the controller yet.
@@ -312,6 +330,13 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
               _numRowsIndexed, _numRowsConsumed, _segmentMaxRowCount);
           _stopReason = SegmentCompletionProtocol.REASON_ROW_LIMIT;
           return true;
+        } else if (_numRowsIndexed >= adaptiveFlushRowThreshold) {
+          segmentLogger.info(
+              "Stopping consumption due to consuming memory limit flushRowThreshold={} numRowsIndexed={}, "
+                  + "numRowsConsumed={}", adaptiveFlushRowThreshold, _numRowsIndexed, _numRowsConsumed);
+          _stopReason = SegmentCompletionProtocol.REASON_MEMORY_LIMIT;
+          _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.REALTIME_MEMORY_LIMIT_FLUSHES, 1);
+          return true;
         } else if (_endOfPartitionGroup) {
           segmentLogger.info(
               "Stopping consumption due to end of partitionGroup reached nRows={} numRowsIndexed={}, numRowsConsumed={}",
@@ -393,6 +418,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       // Consume for the next readTime ms, or we get to final offset, whichever happens earlier,
       // Update _currentOffset upon return from this method
       MessageBatch messageBatch;
+      long fetchStartTimeMs = now();
       try {
         messageBatch = _partitionGroupConsumer
             .fetchMessages(_currentOffset, null, _partitionLevelStreamConfig.getFetchTimeoutMillis());
@@ -414,7 +440,14 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
         continue;
       }
 
-      processStreamEvents(messageBatch, idlePipeSleepTimeMillis);
+      long fetchEndTimeMs = now();
+      if (messageBatch.getMessageCount() > 0) {
+        _serverMetrics.addTimedTableValue(_metricKeyName, ServerTimer.REALTIME_FETCH_TIME_MS,
+            fetchEndTimeMs - fetchStartTimeMs, TimeUnit.MILLISECONDS);
+      }
+
+      processStreamEvents(messageBatch, idlePipeSleepTimeMillis, fetchEndTimeMs);
+      updateOffsetLag();
 
       if (_currentOffset.compareTo(lastUpdatedOffset) != 0) {
         consecutiveIdleCount = 0;
@@ -442,7 +475,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     return true;
   }
 
-  private void processStreamEvents(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis) {
+  private void processStreamEvents(MessageBatch messagesAndOffsets, long idlePipeSleepTimeMillis, long fetchTimeMs) {
     PinotMeter realtimeRowsConsumedMeter = null;
     PinotMeter realtimeRowsDroppedMeter = null;
 
@@ -450,6 +483,13 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     int streamMessageCount = 0;
     boolean canTakeMore = true;
 
+    // Per-stage processing time of the batch, accumulated over all the messages
+    long decodeTimeNs = 0;
+    long transformTimeNs = 0;
+    long indexTimeNs = 0;
+    // Ingestion time of the earliest produced message in the batch, used to track the produce-to-fetch latency
+    long minIngestionTimeMs = Long.MAX_VALUE;
+
     GenericRow reuse = new GenericRow();
     for (int index = 0; index < messagesAndOffsets.getMessageCount(); index++) {
       if (_shouldStop || endCriteriaReached()) {
@@ -481,25 +521,39 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       // retrieve metadata from the message batch if available
       // this can be overridden by the decoder if there is a better indicator in the message payload
       RowMetadata msgMetadata = messagesAndOffsets.getMetadataAtIndex(index);
+      if (msgMetadata != null) {
+        long ingestionTimeMs = msgMetadata.getIngestionTimeMs();
+        if (ingestionTimeMs != Long.MIN_VALUE && ingestionTimeMs < minIngestionTimeMs) {
+          minIngestionTimeMs = ingestionTimeMs;
+        }
+      }
 
+      long decodeStartTimeNs = System.nanoTime();
       GenericRow decodedRow = _messageDecoder
           .decode(messagesAndOffsets.getMessageAtIndex(index), messagesAndOffsets.getMessageOffsetAtIndex(index),
               messagesAndOffsets.getMessageLengthAtIndex(index), reuse);
+      long decodeEndTimeNs = System.nanoTime();
+      decodeTimeNs += decodeEndTimeNs - decodeStartTimeNs;
       if (decodedRow != null) {
         try {
           if (_complexTypeTransformer != null) {
             // TODO: consolidate complex type transformer into composite type transformer
             decodedRow = _complexTypeTransformer.transform(decodedRow);
+            transformTimeNs += System.nanoTime() - decodeEndTimeNs;
           }
           if (decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY) != null) {
             for (Object singleRow : (Collection) decodedRow.getValue(GenericRow.MULTIPLE_RECORDS_KEY)) {
+              long transformStartTimeNs = System.nanoTime();
               GenericRow transformedRow = _recordTransformer.transform((GenericRow) singleRow);
+              long transformEndTimeNs = System.nanoTime();
+              transformTimeNs += transformEndTimeNs - transformStartTimeNs;
               if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
                 realtimeRowsConsumedMeter = _serverMetrics
                     .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1,
                         realtimeRowsConsumedMeter);
                 indexedMessageCount++;
                 canTakeMore = _realtimeSegment.index(transformedRow, msgMetadata);
+                indexTimeNs += System.nanoTime() - transformEndTimeNs;
               } else {
                 realtimeRowsDroppedMeter = _serverMetrics
                     .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
@@ -507,13 +561,17 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
               }
             }
           } else {
+            long transformStartTimeNs = System.nanoTime();
             GenericRow transformedRow = _recordTransformer.transform(decodedRow);
+            long transformEndTimeNs = System.nanoTime();
+            transformTimeNs += transformEndTimeNs - transformStartTimeNs;
             if (transformedRow != null && IngestionUtils.shouldIngestRow(transformedRow)) {
               realtimeRowsConsumedMeter = _serverMetrics
                   .addMeteredTableValue(_metricKeyName, ServerMeter.REALTIME_ROWS_CONSUMED, 1,
                       realtimeRowsConsumedMeter);
               indexedMessageCount++;
               canTakeMore = _realtimeSegment.index(transformedRow, msgMetadata);
+              indexTimeNs += System.nanoTime() - transformEndTimeNs;
             } else {
               realtimeRowsDroppedMeter = _serverMetrics
                   .addMeteredTableValue(_metricKeyName, ServerMeter.INVALID_REALTIME_ROWS_DROPPED, 1,
@@ -538,8 +596,11 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       _numRowsConsumed++;
       streamMessageCount++;
     }
+    // Make the rows indexed in this batch visible to the queries
+    _realtimeSegment.publishSnapshot();
     updateCurrentDocumentCountMetrics();
     if (streamMessageCount != 0) {
+      updateIngestionLatencyMetrics(fetchTimeMs, minIngestionTimeMs, decodeTimeNs, transformTimeNs, indexTimeNs);
       segmentLogger.debug("Indexed {} messages ({} messages read from stream) current offset {}", indexedMessageCount,
           streamMessageCount, _currentOffset);
     } else {
@@ -926,7 +987,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
 
   private void closeStreamConsumers() {
     closePartitionGroupConsumer();
-    closeStreamMetadataProvider();
+    synchronized (_streamMetadataProviderLock) {
+      closeStreamMetadataProvider();
+    }
     if (_acquiredConsumerSemaphore.compareAndSet(true, false)) {
       _partitionGroupConsumerSemaphore.release();
     }
@@ -940,11 +1003,17 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
   }
 
+  /**
+   * Should be invoked with the stream metadata provider lock held.
+   */
   private void closeStreamMetadataProvider() {
-    try {
-      _streamMetadataProvider.close();
-    } catch (Exception e) {
-      segmentLogger.warn("Could not close stream metadata provider", e);
+    if (_streamMetadataProvider != null) {
+      try {
+        _streamMetadataProvider.close();
+      } catch (Exception e) {
+        segmentLogger.warn("Could not close stream metadata provider", e);
+      }
+      _streamMetadataProvider = null;
     }
   }
 
@@ -957,6 +1026,7 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
    */
   private void cleanupMetrics() {
     _serverMetrics.removeTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_CONSUMING);
+    _serverMetrics.removeTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_OFFSET_LAG);
   }
 
   protected void hold() {
@@ -1118,6 +1188,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       segmentLogger.error("Could not stop consumer thread");
     }
     _realtimeSegment.destroy();
+    if (_adaptiveFlushController != null) {
+      _adaptiveFlushController.unregister(_segmentNameStr);
+    }
     closeStreamConsumers();
     cleanupMetrics();
   }
@@ -1259,7 +1332,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
             .setStatsHistory(realtimeTableDataManager.getStatsHistory())
             .setAggregateMetrics(indexingConfig.isAggregateMetrics()).setNullHandlingEnabled(_nullHandlingEnabled)
             .setConsumerDir(consumerDir).setUpsertMode(tableConfig.getUpsertMode())
-            .setPartitionUpsertMetadataManager(partitionUpsertMetadataManager);
+            .setPartitionUpsertMetadataManager(partitionUpsertMetadataManager)
+            .setSnapshotBatchSize(indexingConfig.getConsumingSegmentSnapshotBatchSize());
 
     // Create message decoder
     Set<String> fieldsToRead = IngestionUtils.getFieldsForRecordExtractor(_tableConfig.getIngestionConfig(), _schema);
@@ -1282,7 +1356,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
       throw new RuntimeException(errorMsg + " for segment: " + _segmentNameStr);
     }
     makeStreamConsumer("Starting");
-    makeStreamMetadataProvider("Starting");
+    synchronized (_streamMetadataProviderLock) {
+      makeStreamMetadataProvider("Starting");
+    }
 
     SegmentPartitionConfig segmentPartitionConfig = indexingConfig.getSegmentPartitionConfig();
     if (segmentPartitionConfig != null) {
@@ -1304,6 +1380,8 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
           //  so that we get back accurate partitionGroups info
           //  However this is not an issue for Kafka, since partitionGroups never expire and every partitionGroup has a single partition
           //  Fix this before opening support for partitioning in Kinesis
+          // NOTE: The offset lag fetch has not started yet, so the stream metadata provider can be accessed without
+          //       the lock
           int numPartitionGroups = _streamMetadataProvider
               .computePartitionGroupMetadata(_clientId, _partitionLevelStreamConfig,
                   Collections.emptyList(), /*maxWaitTimeMs=*/5000).size();
@@ -1319,7 +1397,9 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
           segmentLogger.warn(
               "Failed to get number of stream partitions in 5s, using number of partitions in the partition config: {}",
               numPartitions, e);
-          makeStreamMetadataProvider("Timeout getting number of stream partitions");
+          synchronized (_streamMetadataProviderLock) {
+            makeStreamMetadataProvider("Timeout getting number of stream partitions");
+          }
         }
 
         realtimeSegmentConfigBuilder.setPartitionColumn(partitionColumn);
@@ -1332,6 +1412,13 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
 
     _realtimeSegment = new MutableSegmentImpl(realtimeSegmentConfigBuilder.build(), serverMetrics);
+    _adaptiveFlushController = realtimeTableDataManager.getAdaptiveFlushController();
+    if (_adaptiveFlushController != null) {
+      _adaptiveFlushHandle =
+          _adaptiveFlushController.register(_segmentNameStr, _memoryManager, _realtimeSegment::getNumDocsIndexed);
+    } else {
+      _adaptiveFlushHandle = null;
+    }
     _startOffset = _streamPartitionMsgOffsetFactory.create(_segmentZKMetadata.getStartOffset());
     _currentOffset = _streamPartitionMsgOffsetFactory.create(_startOffset);
     _resourceTmpDir = new File(resourceDataDir, "_tmp");
@@ -1381,14 +1468,20 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
   }
 
   /**
-   * Creates a new stream metadata provider
+   * Creates a new stream metadata provider. A partition level provider is preferred so that it can also be used to
+   * estimate the offset lag of the partition, and the stream level provider is used for streams that do not support
+   * partition level providers. Should be invoked with the stream metadata provider lock held.
    */
   private void makeStreamMetadataProvider(String reason) {
-    if (_streamMetadataProvider != null) {
-      closeStreamMetadataProvider();
-    }
+    closeStreamMetadataProvider();
     segmentLogger.info("Creating new stream metadata provider, reason: {}", reason);
-    _streamMetadataProvider = _streamConsumerFactory.createStreamMetadataProvider(_clientId);
+    try {
+      _streamMetadataProvider = _streamConsumerFactory.createPartitionMetadataProvider(_clientId, _partitionGroupId);
+      _partitionLevelMetadataProvider = true;
+    } catch (UnsupportedOperationException e) {
+      _streamMetadataProvider = _streamConsumerFactory.createStreamMetadataProvider(_clientId);
+      _partitionLevelMetadataProvider = false;
+    }
   }
 
   // This should be done during commit? We may not always commit when we build a segment....
@@ -1418,6 +1511,97 @@ public class LLRealtimeSegmentDataManager extends RealtimeSegmentDataManager {
     }
   }
 
+  /**
+   * Records the ingestion latency breakdown for a processed message batch.
+   *
+   * @param fetchTimeMs Time when the batch was fetched from the stream
+   * @param minIngestionTimeMs Earliest upstream ingestion time among the messages in the batch, Long.MAX_VALUE if not
+   *                           available
+   */
+  private void updateIngestionLatencyMetrics(long fetchTimeMs, long minIngestionTimeMs, long decodeTimeNs,
+      long transformTimeNs, long indexTimeNs) {
+    if (minIngestionTimeMs != Long.MAX_VALUE) {
+      _serverMetrics.addTimedTableValue(_metricKeyName, ServerTimer.STREAM_PRODUCE_TO_FETCH_LATENCY_MS,
+          Math.max(fetchTimeMs - minIngestionTimeMs, 0), TimeUnit.MILLISECONDS);
+    }
+    _serverMetrics.addTimedTableValue(_metricKeyName, ServerTimer.STREAM_FETCH_TO_INDEX_LATENCY_MS,
+        now() - fetchTimeMs, TimeUnit.MILLISECONDS);
+    _serverMetrics.addTimedTableValue(_metricKeyName, ServerTimer.REALTIME_DECODE_TIME_MS, decodeTimeNs,
+        TimeUnit.NANOSECONDS);
+    _serverMetrics.addTimedTableValue(_metricKeyName, ServerTimer.REALTIME_TRANSFORM_TIME_MS, transformTimeNs,
+        TimeUnit.NANOSECONDS);
+    _serverMetrics.addTimedTableValue(_metricKeyName, ServerTimer.REALTIME_INDEX_TIME_MS, indexTimeNs,
+        TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Periodically estimates the offset lag (latest stream offset minus the consumed offset) of the partition. The lag
+   * can only be computed for streams with numeric offsets and partition level metadata providers, and is set to -1
+   * otherwise. The latest offset is fetched asynchronously on the async executor of the table so that the consumer
+   * thread is never blocked on the stream, and at most one fetch is in flight for the partition.
+   * <p>This method should only be invoked from the consumer thread.
+   */
+  private void updateOffsetLag() {
+    long now = now();
+    if (now - _lastOffsetLagUpdateTimeMs < OFFSET_LAG_UPDATE_INTERVAL_MS) {
+      return;
+    }
+    _lastOffsetLagUpdateTimeMs = now;
+    ExecutorService executorService = _realtimeTableDataManager.getSegmentAsyncExecutorService();
+    if (!_partitionLevelMetadataProvider || executorService == null || !_offsetLagFetchInProgress
+        .compareAndSet(false, true)) {
+      return;
+    }
+    StreamPartitionMsgOffset currentOffset = _currentOffset;
+    try {
+      executorService.submit(() -> {
+        try {
+          fetchOffsetLag(currentOffset);
+        } finally {
+          _offsetLagFetchInProgress.set(false);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // The table data manager is shutting down
+      _offsetLagFetchInProgress.set(false);
+    }
+  }
+
+  private void fetchOffsetLag(StreamPartitionMsgOffset currentOffset) {
+    synchronized (_streamMetadataProviderLock) {
+      // The stream metadata provider is closed when the consumption stops
+      if (_streamMetadataProvider == null) {
+        return;
+      }
+      try {
+        StreamPartitionMsgOffset latestOffset = _streamMetadataProvider
+            .fetchStreamPartitionOffset(OffsetCriteria.LARGEST_OFFSET_CRITERIA, OFFSET_LAG_FETCH_TIMEOUT_MS);
+        _offsetLag = computeOffsetLag(latestOffset, currentOffset);
+        if (_offsetLag >= 0) {
+          _serverMetrics.setValueOfTableGauge(_metricKeyName, ServerGauge.LLC_PARTITION_OFFSET_LAG, _offsetLag);
+        }
+      } catch (Exception e) {
+        segmentLogger.warn("Caught exception while fetching the latest offset to compute the offset lag", e);
+        makeStreamMetadataProvider("Failed to fetch the latest offset");
+      }
+    }
+  }
+
+  @VisibleForTesting
+  static long computeOffsetLag(StreamPartitionMsgOffset latestOffset, StreamPartitionMsgOffset currentOffset) {
+    if (latestOffset instanceof LongMsgOffset && currentOffset instanceof LongMsgOffset) {
+      return Math.max(((LongMsgOffset) latestOffset).getOffset() - ((LongMsgOffset) currentOffset).getOffset(), 0);
+    }
+    return -1;
+  }
+
+  @Override
+  public Map<String, String> getPartitionToOffsetLag() {
+    Map<String, String> partitionToOffsetLag = new HashMap<>();
+    partitionToOffsetLag.put(String.valueOf(_partitionGroupId), Long.toString(_offsetLag));
+    return partitionToOffsetLag;
+  }
+
   @Override
   public MutableSegment getSegment() {
     return _realtimeSegment;
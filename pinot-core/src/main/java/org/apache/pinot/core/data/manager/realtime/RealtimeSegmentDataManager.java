@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.data.manager.realtime;
 
+import java.util.Collections;
 import java.util.Map;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.segment.local.data.manager.SegmentDataManager;
@@ -55,4 +56,12 @@ public abstract class RealtimeSegmentDataManager extends SegmentDataManager {
   public abstract ConsumerState getConsumerState();
 
   public abstract long getLastConsumedTimestamp();
+
+  /**
+   * Get the estimated offset lag (latest stream offset minus consumed offset) for all partitions of this consumer.
+   * The lag is -1 when it cannot be estimated.
+   */
+  public Map<String, String> getPartitionToOffsetLag() {
+    return Collections.emptyMap();
+  }
 }
@@ -33,6 +33,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.FileUtils;
@@ -85,6 +86,7 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   private SegmentBuildTimeLeaseExtender _leaseExtender;
   private RealtimeSegmentStatsHistory _statsHistory;
   private final Semaphore _segmentBuildSemaphore;
+  private final AdaptiveFlushController _adaptiveFlushController;
   // Maintains a map of partitionGroup
   // Ids to semaphores.
   // The semaphore ensures that exactly one PartitionConsumer instance consumes from any stream partition.
@@ -117,7 +119,13 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
   private String _timeColumnName;
 
   public RealtimeTableDataManager(Semaphore segmentBuildSemaphore) {
+    this(segmentBuildSemaphore, null);
+  }
+
+  public RealtimeTableDataManager(Semaphore segmentBuildSemaphore,
+      @Nullable AdaptiveFlushController adaptiveFlushController) {
     _segmentBuildSemaphore = segmentBuildSemaphore;
+    _adaptiveFlushController = adaptiveFlushController;
   }
 
   @Override
@@ -207,6 +215,23 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     return _segmentBuildSemaphore;
   }
 
+  /**
+   * Returns the single threaded executor for the asynchronous tasks of the segments in this table, such as fetching the
+   * latest stream offsets to estimate the offset lag of the consuming segments.
+   */
+  public ExecutorService getSegmentAsyncExecutorService() {
+    return _segmentAsyncExecutorService;
+  }
+
+  /**
+   * Returns the server-wide adaptive flush controller for the consuming segments, or {@code null} if adaptive flush is
+   * not enabled.
+   */
+  @Nullable
+  public AdaptiveFlushController getAdaptiveFlushController() {
+    return _adaptiveFlushController;
+  }
+
   public String getConsumerDir() {
     String consumerDirPath = _tableDataManagerConfig.getConsumerDir();
     File consumerDir;
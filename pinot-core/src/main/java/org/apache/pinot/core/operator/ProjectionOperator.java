@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator;
 
+import java.io.Closeable;
 import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.pinot.core.common.DataBlockCache;
@@ -27,18 +28,25 @@ import org.apache.pinot.core.operator.blocks.ProjectionBlock;
 import org.apache.pinot.segment.spi.datasource.DataSource;
 
 
-public class ProjectionOperator extends BaseOperator<ProjectionBlock> {
+/**
+ * Operator to fetch the column values for the documents from the underlying doc id set operator.
+ * <p>The buffers of the data fetcher are released when all the documents are fetched, and the caller should explicitly
+ * {@link #close()} the operator if it stops fetching before that.
+ */
+public class ProjectionOperator extends BaseOperator<ProjectionBlock> implements Closeable {
   private static final String OPERATOR_NAME = "ProjectionOperator";
 
   private final Map<String, DataSource> _dataSourceMap;
   private final BaseOperator<DocIdSetBlock> _docIdSetOperator;
+  private final DataFetcher _dataFetcher;
   private final DataBlockCache _dataBlockCache;
 
   public ProjectionOperator(Map<String, DataSource> dataSourceMap,
       @Nullable BaseOperator<DocIdSetBlock> docIdSetOperator) {
     _dataSourceMap = dataSourceMap;
     _docIdSetOperator = docIdSetOperator;
-    _dataBlockCache = new DataBlockCache(new DataFetcher(dataSourceMap));
+    _dataFetcher = new DataFetcher(dataSourceMap);
+    _dataBlockCache = new DataBlockCache(_dataFetcher);
   }
 
   /**
@@ -56,6 +64,7 @@ public class ProjectionOperator extends BaseOperator<ProjectionBlock> {
     assert _docIdSetOperator != null;
     DocIdSetBlock docIdSetBlock = _docIdSetOperator.nextBlock();
     if (docIdSetBlock == null) {
+      _dataFetcher.close();
       return null;
     } else {
       _dataBlockCache.initNewBlock(docIdSetBlock.getDocIdSet(), docIdSetBlock.getSearchableLength());
@@ -63,6 +72,14 @@ public class ProjectionOperator extends BaseOperator<ProjectionBlock> {
     }
   }
 
+  /**
+   * Releases the buffers held by the data fetcher. It is safe to close the operator multiple times.
+   */
+  @Override
+  public void close() {
+    _dataFetcher.close();
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -64,6 +64,7 @@ public class IntermediateResultsBlock implements Block {
   private int _numSegmentsProcessed;
   private int _numSegmentsMatched;
   private boolean _numGroupsLimitReached;
+  private boolean _partialResult;
   private int _numResizes;
   private long _resizeTimeMs;
   private long _executionThreadCpuTimeNs;
@@ -281,6 +282,17 @@ public class IntermediateResultsBlock implements Block {
     _numGroupsLimitReached = numGroupsLimitReached;
   }
 
+  /**
+   * Returns {@code true} if the results only contain the segments merged before the query timed out.
+   */
+  public boolean isPartialResult() {
+    return _partialResult;
+  }
+
+  public void setPartialResult(boolean partialResult) {
+    _partialResult = partialResult;
+  }
+
   public DataTable getDataTable()
       throws Exception {
 
@@ -449,6 +461,9 @@ public class IntermediateResultsBlock implements Block {
     if (_numGroupsLimitReached) {
       dataTable.getMetadata().put(MetadataKey.NUM_GROUPS_LIMIT_REACHED.getName(), "true");
     }
+    if (_partialResult) {
+      dataTable.getMetadata().put(MetadataKey.PARTIAL_RESULT.getName(), "true");
+    }
     if (_processingExceptions != null && _processingExceptions.size() > 0) {
       for (ProcessingException exception : _processingExceptions) {
         dataTable.addException(exception);
@@ -26,7 +26,9 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseOperator;
@@ -34,6 +36,7 @@ import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.ThreadTimer;
 import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
+import org.apache.pinot.core.util.QueryOptions;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.apache.pinot.spi.exception.EarlyTerminationException;
 import org.slf4j.Logger;
@@ -45,6 +48,10 @@ import org.slf4j.LoggerFactory;
  * <p>Combine operator uses multiple worker threads to process segments in parallel, and uses the main thread to merge
  * the results blocks from the processed segments. It can early-terminate the query to save the system resources if it
  * detects that the merged results can already satisfy the query, or the query is already errored out or timed out.
+ * <p>When the query is cancelled (the main thread is interrupted), the worker threads are interrupted as well, and the
+ * operators early-terminate on the next {@link BaseOperator#nextBlock()} call or within the document scan loops.
+ * <p>When the query times out and partial results are allowed in the query options, the results blocks merged so far
+ * are returned and flagged as partial result instead of the timeout exception.
  */
 @SuppressWarnings("rawtypes")
 public abstract class BaseCombineOperator extends BaseOperator<IntermediateResultsBlock> {
@@ -60,6 +67,8 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
   // Use a _blockingQueue to store the intermediate results blocks
   protected final BlockingQueue<IntermediateResultsBlock> _blockingQueue = new LinkedBlockingQueue<>();
   protected final AtomicLong totalWorkerThreadCpuTimeNs = new AtomicLong(0);
+  // Number of operators (segments) fully processed, used to report the progress of the cancelled queries
+  protected final AtomicInteger _numOperatorsProcessed = new AtomicInteger();
 
   protected BaseCombineOperator(List<Operator> operators, QueryContext queryContext, ExecutorService executorService,
       long endTimeMs, int numTasks) {
@@ -113,8 +122,15 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
     }
 
     IntermediateResultsBlock mergedBlock;
+    boolean cancelled = false;
     try {
       mergedBlock = mergeResults();
+    } catch (InterruptedException e) {
+      // Query is cancelled, the results won't be used
+      LOGGER.info("Query cancelled while merging results blocks (query: {})", _queryContext);
+      mergedBlock = new IntermediateResultsBlock(QueryException.getException(QueryException.QUERY_CANCELLATION_ERROR,
+          "Query cancelled after processing " + _numOperatorsProcessed.get() + " of " + _numOperators + " segments"));
+      cancelled = true;
     } catch (Exception e) {
       LOGGER.error("Caught exception while merging results blocks (query: {})", _queryContext, e);
       mergedBlock = new IntermediateResultsBlock(QueryException.getException(QueryException.INTERNAL_ERROR, e));
@@ -138,6 +154,9 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
     int numServerThreads = Math.min(_numTasks, ResourceManager.DEFAULT_QUERY_WORKER_THREADS);
     CombineOperatorUtils
         .setExecutionStatistics(mergedBlock, _operators, totalWorkerThreadCpuTimeNs.get(), numServerThreads);
+    if (cancelled || mergedBlock.isPartialResult()) {
+      mergedBlock.setNumSegmentsProcessed(_numOperatorsProcessed.get());
+    }
     return mergedBlock;
   }
 
@@ -148,6 +167,7 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
     for (int operatorIndex = taskIndex; operatorIndex < _numOperators; operatorIndex += _numTasks) {
       try {
         IntermediateResultsBlock resultsBlock = (IntermediateResultsBlock) _operators.get(operatorIndex).nextBlock();
+        _numOperatorsProcessed.incrementAndGet();
         if (isQuerySatisfied(resultsBlock)) {
           // Query is satisfied, skip processing the remaining segments
           _blockingQueue.offer(resultsBlock);
@@ -180,10 +200,7 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
           _blockingQueue.poll(_endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
       if (blockToMerge == null) {
         // Query times out, skip merging the remaining results blocks
-        LOGGER.error("Timed out while polling results block, numBlocksMerged: {} (query: {})", numBlocksMerged,
-            _queryContext);
-        return new IntermediateResultsBlock(QueryException.getException(QueryException.EXECUTION_TIMEOUT_ERROR,
-            new TimeoutException("Timed out while polling results block")));
+        return getTimeoutResultsBlock(mergedBlock, numBlocksMerged);
       }
       if (blockToMerge.getProcessingExceptions() != null) {
         // Caught exception while processing segment, skip merging the remaining results blocks and directly return the
@@ -204,6 +221,25 @@ public abstract class BaseCombineOperator extends BaseOperator<IntermediateResul
     return mergedBlock;
   }
 
+  /**
+   * Returns the results block for the query timed out while merging the results blocks. Returns the merged block
+   * flagged as partial result if partial results are allowed and at least one results block is merged, or a block with
+   * the timeout exception otherwise.
+   */
+  protected IntermediateResultsBlock getTimeoutResultsBlock(@Nullable IntermediateResultsBlock mergedBlock,
+      int numBlocksMerged) {
+    if (mergedBlock != null && QueryOptions.isAllowPartialResults(_queryContext.getQueryOptions())) {
+      LOGGER.warn("Timed out while polling results block, returning partial result, numBlocksMerged: {} (query: {})",
+          numBlocksMerged, _queryContext);
+      mergedBlock.setPartialResult(true);
+      return mergedBlock;
+    }
+    LOGGER.error("Timed out while polling results block, numBlocksMerged: {} (query: {})", numBlocksMerged,
+        _queryContext);
+    return new IntermediateResultsBlock(QueryException.getException(QueryException.EXECUTION_TIMEOUT_ERROR,
+        new TimeoutException("Timed out while polling results block")));
+  }
+
   /**
    * Can be overridden for early termination.
    */
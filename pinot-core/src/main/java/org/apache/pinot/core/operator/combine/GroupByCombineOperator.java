@@ -29,6 +29,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.core.common.Operator;
@@ -38,6 +40,7 @@ import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
 import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
 import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.QueryOptions;
 import org.apache.pinot.spi.exception.EarlyTerminationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,6 +73,11 @@ public class GroupByCombineOperator extends BaseCombineOperator {
   // We use a CountDownLatch to track if all Futures are finished by the query timeout, and cancel the unfinished
   // _futures (try to interrupt the execution if it already started).
   private final CountDownLatch _operatorLatch;
+  // Each segment is merged under the read lock, so that the main thread can stop the merging under the write lock when
+  // the query times out, and return the segments fully merged so far as partial result
+  private final ReadWriteLock _mergeLock = new ReentrantReadWriteLock();
+  // Guarded by _mergeLock
+  private boolean _mergeStopped;
 
   public GroupByCombineOperator(List<Operator> operators, QueryContext queryContext, ExecutorService executorService,
       long endTimeMs, int innerSegmentNumGroupsLimit) {
@@ -99,37 +107,47 @@ public class GroupByCombineOperator extends BaseCombineOperator {
       IntermediateResultsBlock intermediateResultsBlock =
           (IntermediateResultsBlock) _operators.get(threadIndex).nextBlock();
 
-      // Merge processing exceptions.
-      List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
-      if (processingExceptionsToMerge != null) {
-        _mergedProcessingExceptions.addAll(processingExceptionsToMerge);
-      }
+      _mergeLock.readLock().lock();
+      try {
+        if (_mergeStopped) {
+          return;
+        }
+
+        // Merge processing exceptions.
+        List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
+        if (processingExceptionsToMerge != null) {
+          _mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+        }
 
-      // Merge aggregation group-by result.
-      AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
-      if (aggregationGroupByResult != null) {
-        // Iterate over the group-by keys, for each key, update the group-by result in the _resultsMap.
-        Iterator<GroupKeyGenerator.StringGroupKey> groupKeyIterator =
-            aggregationGroupByResult.getStringGroupKeyIterator();
-        while (groupKeyIterator.hasNext()) {
-          GroupKeyGenerator.StringGroupKey groupKey = groupKeyIterator.next();
-          _resultsMap.compute(groupKey._stringKey, (key, value) -> {
-            if (value == null) {
-              if (_numGroups.getAndIncrement() < _interSegmentNumGroupsLimit) {
-                value = new Object[_numAggregationFunctions];
+        // Merge aggregation group-by result.
+        AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
+        if (aggregationGroupByResult != null) {
+          // Iterate over the group-by keys, for each key, update the group-by result in the _resultsMap.
+          Iterator<GroupKeyGenerator.StringGroupKey> groupKeyIterator =
+              aggregationGroupByResult.getStringGroupKeyIterator();
+          while (groupKeyIterator.hasNext()) {
+            GroupKeyGenerator.StringGroupKey groupKey = groupKeyIterator.next();
+            _resultsMap.compute(groupKey._stringKey, (key, value) -> {
+              if (value == null) {
+                if (_numGroups.getAndIncrement() < _interSegmentNumGroupsLimit) {
+                  value = new Object[_numAggregationFunctions];
+                  for (int i = 0; i < _numAggregationFunctions; i++) {
+                    value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+                  }
+                }
+              } else {
                 for (int i = 0; i < _numAggregationFunctions; i++) {
-                  value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
+                  value[i] =
+                      _aggregationFunctions[i].merge(value[i], aggregationGroupByResult.getResultForKey(groupKey, i));
                 }
               }
-            } else {
-              for (int i = 0; i < _numAggregationFunctions; i++) {
-                value[i] =
-                    _aggregationFunctions[i].merge(value[i], aggregationGroupByResult.getResultForKey(groupKey, i));
-              }
-            }
-            return value;
-          });
+              return value;
+            });
+          }
         }
+        _numOperatorsProcessed.incrementAndGet();
+      } finally {
+        _mergeLock.readLock().unlock();
       }
     } catch (EarlyTerminationException e) {
       // Early-terminated because query times out or is already satisfied
@@ -161,6 +179,8 @@ public class GroupByCombineOperator extends BaseCombineOperator {
    *     Set all exceptions encountered during execution into the merged result block
    *   </li>
    * </ul>
+   * <p>When the query times out and partial results are allowed in the query options, returns the segments fully
+   * merged so far flagged as partial result.
    */
   @Override
   protected IntermediateResultsBlock mergeResults()
@@ -168,13 +188,39 @@ public class GroupByCombineOperator extends BaseCombineOperator {
     long timeoutMs = _endTimeMs - System.currentTimeMillis();
     boolean opCompleted = _operatorLatch.await(timeoutMs, TimeUnit.MILLISECONDS);
     if (!opCompleted) {
+      if (QueryOptions.isAllowPartialResults(_queryContext.getQueryOptions())) {
+        int numSegmentsMerged = stopMerging();
+        if (numSegmentsMerged > 0) {
+          LOGGER.warn("Timed out while combining group-by results, returning partial result, numSegmentsMerged: {} "
+              + "(query: {})", numSegmentsMerged, _queryContext);
+          IntermediateResultsBlock mergedBlock = getMergedBlock();
+          mergedBlock.setPartialResult(true);
+          return mergedBlock;
+        }
+      }
       // If this happens, the broker side should already timed out, just log the error and return
       String errorMessage = String
           .format("Timed out while combining group-by results after %dms, queryContext = %s", timeoutMs, _queryContext);
       LOGGER.error(errorMessage);
       return new IntermediateResultsBlock(new TimeoutException(errorMessage));
     }
+    return getMergedBlock();
+  }
+
+  /**
+   * Stops merging the segments still being processed, and returns the number of segments fully merged.
+   */
+  private int stopMerging() {
+    _mergeLock.writeLock().lock();
+    try {
+      _mergeStopped = true;
+      return _numOperatorsProcessed.get();
+    } finally {
+      _mergeLock.writeLock().unlock();
+    }
+  }
 
+  private IntermediateResultsBlock getMergedBlock() {
     // Trim the results map.
     AggregationGroupByTrimmingService aggregationGroupByTrimmingService =
         new AggregationGroupByTrimmingService(_queryContext);
@@ -28,7 +28,9 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.ProcessingException;
 import org.apache.pinot.common.utils.DataSchema;
@@ -43,6 +45,7 @@ import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.core.util.QueryOptions;
 import org.apache.pinot.spi.exception.EarlyTerminationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,6 +71,11 @@ public class GroupByOrderByCombineOperator extends BaseCombineOperator {
   // We use a CountDownLatch to track if all Futures are finished by the query timeout, and cancel the unfinished
   // _futures (try to interrupt the execution if it already started).
   private final CountDownLatch _operatorLatch;
+  // Each segment is merged under the read lock, so that the main thread can stop the merging under the write lock when
+  // the query times out, and return the segments fully merged so far as partial result
+  private final ReadWriteLock _mergeLock = new ReentrantReadWriteLock();
+  // Guarded by _mergeLock
+  private boolean _mergeStopped;
   private DataSchema _dataSchema;
   private ConcurrentIndexedTable _indexedTable;
 
@@ -103,45 +111,56 @@ public class GroupByOrderByCombineOperator extends BaseCombineOperator {
       IntermediateResultsBlock intermediateResultsBlock =
           (IntermediateResultsBlock) _operators.get(threadIndex).nextBlock();
 
-      _initLock.lock();
+      _mergeLock.readLock().lock();
       try {
-        if (_dataSchema == null) {
-          _dataSchema = intermediateResultsBlock.getDataSchema();
-          if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
-            // special case of trim threshold where it is set to max value.
-            // there won't be any trimming during upsert in this case.
-            // thus we can avoid the overhead of read-lock and write-lock
-            // in the upsert method.
-            _indexedTable = new UnboundedConcurrentIndexedTable(_dataSchema, _queryContext, _trimSize, _trimThreshold);
-          } else {
-            _indexedTable = new ConcurrentIndexedTable(_dataSchema, _queryContext, _trimSize, _trimThreshold);
+        if (_mergeStopped) {
+          return;
+        }
+
+        _initLock.lock();
+        try {
+          if (_dataSchema == null) {
+            _dataSchema = intermediateResultsBlock.getDataSchema();
+            if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
+              // special case of trim threshold where it is set to max value.
+              // there won't be any trimming during upsert in this case.
+              // thus we can avoid the overhead of read-lock and write-lock
+              // in the upsert method.
+              _indexedTable =
+                  new UnboundedConcurrentIndexedTable(_dataSchema, _queryContext, _trimSize, _trimThreshold);
+            } else {
+              _indexedTable = new ConcurrentIndexedTable(_dataSchema, _queryContext, _trimSize, _trimThreshold);
+            }
           }
+        } finally {
+          _initLock.unlock();
         }
-      } finally {
-        _initLock.unlock();
-      }
 
-      // Merge processing exceptions.
-      List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
-      if (processingExceptionsToMerge != null) {
-        _mergedProcessingExceptions.addAll(processingExceptionsToMerge);
-      }
+        // Merge processing exceptions.
+        List<ProcessingException> processingExceptionsToMerge = intermediateResultsBlock.getProcessingExceptions();
+        if (processingExceptionsToMerge != null) {
+          _mergedProcessingExceptions.addAll(processingExceptionsToMerge);
+        }
 
-      // Merge aggregation group-by result.
-      AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
-      if (aggregationGroupByResult != null) {
-        // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
-        Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
-        while (groupKeyIterator.hasNext()) {
-          GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
-          Object[] keys = groupKey._keys;
-          Object[] values = Arrays.copyOf(keys, _numColumns);
-          int groupId = groupKey._groupId;
-          for (int i = 0; i < _numAggregationFunctions; i++) {
-            values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+        // Merge aggregation group-by result.
+        AggregationGroupByResult aggregationGroupByResult = intermediateResultsBlock.getAggregationGroupByResult();
+        if (aggregationGroupByResult != null) {
+          // Iterate over the group-by keys, for each key, update the group-by result in the indexedTable
+          Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = aggregationGroupByResult.getGroupKeyIterator();
+          while (groupKeyIterator.hasNext()) {
+            GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+            Object[] keys = groupKey._keys;
+            Object[] values = Arrays.copyOf(keys, _numColumns);
+            int groupId = groupKey._groupId;
+            for (int i = 0; i < _numAggregationFunctions; i++) {
+              values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
+            }
+            _indexedTable.upsert(new Key(keys), new Record(values));
           }
-          _indexedTable.upsert(new Key(keys), new Record(values));
         }
+        _numOperatorsProcessed.incrementAndGet();
+      } finally {
+        _mergeLock.readLock().unlock();
       }
     } catch (EarlyTerminationException e) {
       // Early-terminated because query times out or is already satisfied
@@ -167,6 +186,8 @@ public class GroupByOrderByCombineOperator extends BaseCombineOperator {
    *     Set all exceptions encountered during execution into the merged result block
    *   </li>
    * </ul>
+   * <p>When the query times out and partial results are allowed in the query options, returns the segments fully
+   * merged so far flagged as partial result.
    */
   @Override
   protected IntermediateResultsBlock mergeResults()
@@ -174,6 +195,16 @@ public class GroupByOrderByCombineOperator extends BaseCombineOperator {
     long timeoutMs = _endTimeMs - System.currentTimeMillis();
     boolean opCompleted = _operatorLatch.await(timeoutMs, TimeUnit.MILLISECONDS);
     if (!opCompleted) {
+      if (QueryOptions.isAllowPartialResults(_queryContext.getQueryOptions())) {
+        int numSegmentsMerged = stopMerging();
+        if (numSegmentsMerged > 0) {
+          LOGGER.warn("Timed out while combining group-by order-by results, returning partial result, "
+              + "numSegmentsMerged: {} (query: {})", numSegmentsMerged, _queryContext);
+          IntermediateResultsBlock mergedBlock = getMergedBlock();
+          mergedBlock.setPartialResult(true);
+          return mergedBlock;
+        }
+      }
       // If this happens, the broker side should already timed out, just log the error and return
       String errorMessage = String
           .format("Timed out while combining group-by order-by results after %dms, queryContext = %s", timeoutMs,
@@ -181,7 +212,23 @@ public class GroupByOrderByCombineOperator extends BaseCombineOperator {
       LOGGER.error(errorMessage);
       return new IntermediateResultsBlock(new TimeoutException(errorMessage));
     }
+    return getMergedBlock();
+  }
+
+  /**
+   * Stops merging the segments still being processed, and returns the number of segments fully merged.
+   */
+  private int stopMerging() {
+    _mergeLock.writeLock().lock();
+    try {
+      _mergeStopped = true;
+      return _numOperatorsProcessed.get();
+    } finally {
+      _mergeLock.writeLock().unlock();
+    }
+  }
 
+  private IntermediateResultsBlock getMergedBlock() {
     _indexedTable.finish(false);
     IntermediateResultsBlock mergedBlock = new IntermediateResultsBlock(_indexedTable);
 
@@ -25,7 +25,6 @@ import java.util.List;
 import java.util.PriorityQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.pinot.common.exception.QueryException;
@@ -190,6 +189,7 @@ public class MinMaxValueBasedSelectionOrderByCombineOperator extends BaseCombine
       // Process the segment
       try {
         IntermediateResultsBlock resultsBlock = minMaxValueContext._operator.nextBlock();
+        _numOperatorsProcessed.incrementAndGet();
         PriorityQueue<Object[]> selectionResult = (PriorityQueue<Object[]>) resultsBlock.getSelectionResult();
         if (selectionResult != null && selectionResult.size() == _numRowsToKeep) {
           // Segment result has enough rows, update the boundary value
@@ -247,10 +247,7 @@ public class MinMaxValueBasedSelectionOrderByCombineOperator extends BaseCombine
           _blockingQueue.poll(_endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
       if (blockToMerge == null) {
         // Query times out, skip merging the remaining results blocks
-        LOGGER.error("Timed out while polling results block, numBlocksMerged: {} (query: {})", numBlocksMerged,
-            _queryContext);
-        mergedBlock = new IntermediateResultsBlock(QueryException.getException(QueryException.EXECUTION_TIMEOUT_ERROR,
-            new TimeoutException("Timed out while polling results block")));
+        mergedBlock = getTimeoutResultsBlock(mergedBlock != LAST_RESULTS_BLOCK ? mergedBlock : null, numBlocksMerged);
         break;
       }
       if (blockToMerge.getProcessingExceptions() != null) {
@@ -74,11 +74,11 @@ public final class ExpressionScanDocIdIterator implements ScanBasedDocIdIterator
     while (_blockEndDocId < _endDocId) {
       int blockStartDocId = _blockEndDocId;
       _blockEndDocId = Math.min(blockStartDocId + DocIdSetPlanNode.MAX_DOC_PER_CALL, _endDocId);
-      ProjectionBlock projectionBlock =
-          new ProjectionOperator(_dataSourceMap, new RangeDocIdSetOperator(blockStartDocId, _blockEndDocId))
-              .nextBlock();
       MutableRoaringBitmap matchingDocIds = new MutableRoaringBitmap();
-      processProjectionBlock(projectionBlock, matchingDocIds);
+      try (ProjectionOperator projectionOperator = new ProjectionOperator(_dataSourceMap,
+          new RangeDocIdSetOperator(blockStartDocId, _blockEndDocId))) {
+        processProjectionBlock(projectionOperator.nextBlock(), matchingDocIds);
+      }
       if (!matchingDocIds.isEmpty()) {
         _docIdIterator = matchingDocIds.getIntIterator();
         return _docIdIterator.next();
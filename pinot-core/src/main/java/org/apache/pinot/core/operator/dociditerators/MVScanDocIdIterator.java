@@ -35,10 +35,11 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
 public final class MVScanDocIdIterator implements ScanBasedDocIdIterator {
   private final PredicateEvaluator _predicateEvaluator;
   private final ForwardIndexReader _reader;
-  // TODO: Figure out a way to close the reader context
+  // NOTE: Reader context is closed when the scan reaches the end or finishes applyAnd() to release its buffers
   private final ForwardIndexReaderContext _readerContext;
   private final int _numDocs;
-  private final int[] _dictIdBuffer;
+  private final int _maxNumEntriesPerValue;
+  private final ValueMatcher _valueMatcher;
 
   private int _nextDocId = 0;
   private long _numEntriesScanned = 0L;
@@ -49,19 +50,20 @@ public final class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     _reader = reader;
     _readerContext = reader.createContext();
     _numDocs = numDocs;
-    _dictIdBuffer = new int[maxNumEntriesPerValue];
+    _maxNumEntriesPerValue = maxNumEntriesPerValue;
+    _valueMatcher = getValueMatcher();
   }
 
   @Override
   public int next() {
     while (_nextDocId < _numDocs) {
       int nextDocId = _nextDocId++;
-      int length = _reader.getDictIdMV(nextDocId, _dictIdBuffer, _readerContext);
-      _numEntriesScanned += length;
-      if (_predicateEvaluator.applyMV(_dictIdBuffer, length)) {
+      ScanBasedDocIdIterator.checkInterruption(nextDocId);
+      if (_valueMatcher.doesValueMatch(nextDocId)) {
         return nextDocId;
       }
     }
+    ScanBasedDocIdIterator.closeReaderContext(_readerContext);
     return Constants.EOF;
   }
 
@@ -76,12 +78,15 @@ public final class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     MutableRoaringBitmap result = new MutableRoaringBitmap();
     IntIterator docIdIterator = docIds.getIntIterator();
     int nextDocId;
-    while (docIdIterator.hasNext() && (nextDocId = docIdIterator.next()) < _numDocs) {
-      int length = _reader.getDictIdMV(nextDocId, _dictIdBuffer, _readerContext);
-      _numEntriesScanned += length;
-      if (_predicateEvaluator.applyMV(_dictIdBuffer, length)) {
-        result.add(nextDocId);
+    try {
+      while (docIdIterator.hasNext() && (nextDocId = docIdIterator.next()) < _numDocs) {
+        ScanBasedDocIdIterator.checkInterruption(nextDocId);
+        if (_valueMatcher.doesValueMatch(nextDocId)) {
+          result.add(nextDocId);
+        }
       }
+    } finally {
+      ScanBasedDocIdIterator.closeReaderContext(_readerContext);
     }
     return result;
   }
@@ -90,4 +95,99 @@ public final class MVScanDocIdIterator implements ScanBasedDocIdIterator {
   public long getNumEntriesScanned() {
     return _numEntriesScanned;
   }
+
+  private ValueMatcher getValueMatcher() {
+    if (_reader.isDictionaryEncoded()) {
+      return new DictIdMatcher();
+    } else {
+      switch (_reader.getValueType()) {
+        case INT:
+          return new IntMatcher();
+        case LONG:
+          return new LongMatcher();
+        case FLOAT:
+          return new FloatMatcher();
+        case DOUBLE:
+          return new DoubleMatcher();
+        case STRING:
+          return new StringMatcher();
+        default:
+          throw new UnsupportedOperationException();
+      }
+    }
+  }
+
+  private interface ValueMatcher {
+
+    /**
+     * Returns {@code true} if any value for the given document id matches the predicate, {@code false} Otherwise.
+     */
+    boolean doesValueMatch(int docId);
+  }
+
+  private class DictIdMatcher implements ValueMatcher {
+    private final int[] _buffer = new int[_maxNumEntriesPerValue];
+
+    @Override
+    public boolean doesValueMatch(int docId) {
+      int length = _reader.getDictIdMV(docId, _buffer, _readerContext);
+      _numEntriesScanned += length;
+      return _predicateEvaluator.applyMV(_buffer, length);
+    }
+  }
+
+  private class IntMatcher implements ValueMatcher {
+    private final int[] _buffer = new int[_maxNumEntriesPerValue];
+
+    @Override
+    public boolean doesValueMatch(int docId) {
+      int length = _reader.getIntMV(docId, _buffer, _readerContext);
+      _numEntriesScanned += length;
+      return _predicateEvaluator.applyMV(_buffer, length);
+    }
+  }
+
+  private class LongMatcher implements ValueMatcher {
+    private final long[] _buffer = new long[_maxNumEntriesPerValue];
+
+    @Override
+    public boolean doesValueMatch(int docId) {
+      int length = _reader.getLongMV(docId, _buffer, _readerContext);
+      _numEntriesScanned += length;
+      return _predicateEvaluator.applyMV(_buffer, length);
+    }
+  }
+
+  private class FloatMatcher implements ValueMatcher {
+    private final float[] _buffer = new float[_maxNumEntriesPerValue];
+
+    @Override
+    public boolean doesValueMatch(int docId) {
+      int length = _reader.getFloatMV(docId, _buffer, _readerContext);
+      _numEntriesScanned += length;
+      return _predicateEvaluator.applyMV(_buffer, length);
+    }
+  }
+
+  private class DoubleMatcher implements ValueMatcher {
+    private final double[] _buffer = new double[_maxNumEntriesPerValue];
+
+    @Override
+    public boolean doesValueMatch(int docId) {
+      int length = _reader.getDoubleMV(docId, _buffer, _readerContext);
+      _numEntriesScanned += length;
+      return _predicateEvaluator.applyMV(_buffer, length);
+    }
+  }
+
+  private class StringMatcher implements ValueMatcher {
+    private final String[] _buffer = new String[_maxNumEntriesPerValue];
+
+    @Override
+    public boolean doesValueMatch(int docId) {
+      int length = _reader.getStringMV(docId, _buffer, _readerContext);
+      _numEntriesScanned += length;
+      return _predicateEvaluator.applyMV(_buffer, length);
+    }
+  }
 }
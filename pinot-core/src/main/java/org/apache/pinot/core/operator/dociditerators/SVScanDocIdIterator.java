@@ -18,7 +18,9 @@
  */
 package org.apache.pinot.core.operator.dociditerators;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.ZoneMapPruner;
 import org.apache.pinot.segment.spi.Constants;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
@@ -30,43 +32,69 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
 /**
  * The {@code SVScanDocIdIterator} is the scan-based iterator for SVScanDocIdSet to scan a single-value column for the
  * matching document ids.
+ * <p>When a {@link ZoneMapPruner} is provided, the pages of documents that cannot match the predicate are skipped
+ * without reading the forward index.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private final PredicateEvaluator _predicateEvaluator;
   private final ForwardIndexReader _reader;
-  // TODO: Figure out a way to close the reader context
-  //       ChunkReaderContext should be closed explicitly to release the off-heap buffer
+  // NOTE: Reader context is closed when the scan reaches the end or finishes applyAnd() to release its buffers
   private final ForwardIndexReaderContext _readerContext;
   private final int _numDocs;
   private final ValueMatcher _valueMatcher;
+  private final ZoneMapPruner _zoneMapPruner;
 
   private int _nextDocId = 0;
   private long _numEntriesScanned = 0L;
+  // End (exclusive) of the page that is known to possibly match, only used when zone map pruner exists
+  private int _matchingPageEndDocId = 0;
 
   public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, ForwardIndexReader reader, int numDocs) {
+    this(predicateEvaluator, reader, numDocs, null);
+  }
+
+  public SVScanDocIdIterator(PredicateEvaluator predicateEvaluator, ForwardIndexReader reader, int numDocs,
+      @Nullable ZoneMapPruner zoneMapPruner) {
     _predicateEvaluator = predicateEvaluator;
     _reader = reader;
     _readerContext = reader.createContext();
     _numDocs = numDocs;
     _valueMatcher = getValueMatcher();
+    _zoneMapPruner = zoneMapPruner;
   }
 
   @Override
   public int next() {
     while (_nextDocId < _numDocs) {
+      if (_zoneMapPruner != null && _nextDocId >= _matchingPageEndDocId) {
+        // Skip the pages that cannot match
+        int numDocsPerPage = _zoneMapPruner.getNumDocsPerPage();
+        int pageId = _nextDocId / numDocsPerPage;
+        while (!_zoneMapPruner.canMatch(pageId)) {
+          pageId++;
+        }
+        _nextDocId = Math.max(_nextDocId, pageId * numDocsPerPage);
+        _matchingPageEndDocId = (pageId + 1) * numDocsPerPage;
+        if (_nextDocId >= _numDocs) {
+          break;
+        }
+      }
       int nextDocId = _nextDocId++;
+      ScanBasedDocIdIterator.checkInterruption(nextDocId);
       _numEntriesScanned++;
       if (_valueMatcher.doesValueMatch(nextDocId)) {
         return nextDocId;
       }
     }
+    ScanBasedDocIdIterator.closeReaderContext(_readerContext);
     return Constants.EOF;
   }
 
   @Override
   public int advance(int targetDocId) {
     _nextDocId = targetDocId;
+    _matchingPageEndDocId = 0;
     return next();
   }
 
@@ -75,11 +103,19 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     MutableRoaringBitmap result = new MutableRoaringBitmap();
     IntIterator docIdIterator = docIds.getIntIterator();
     int nextDocId;
-    while (docIdIterator.hasNext() && (nextDocId = docIdIterator.next()) < _numDocs) {
-      _numEntriesScanned++;
-      if (_valueMatcher.doesValueMatch(nextDocId)) {
-        result.add(nextDocId);
+    try {
+      while (docIdIterator.hasNext() && (nextDocId = docIdIterator.next()) < _numDocs) {
+        if (_zoneMapPruner != null && !_zoneMapPruner.canMatch(nextDocId / _zoneMapPruner.getNumDocsPerPage())) {
+          continue;
+        }
+        ScanBasedDocIdIterator.checkInterruption(nextDocId);
+        _numEntriesScanned++;
+        if (_valueMatcher.doesValueMatch(nextDocId)) {
+          result.add(nextDocId);
+        }
       }
+    } finally {
+      ScanBasedDocIdIterator.closeReaderContext(_readerContext);
     }
     return result;
   }
@@ -18,7 +18,12 @@
  */
 package org.apache.pinot.core.operator.dociditerators;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
+import org.apache.pinot.spi.exception.EarlyTerminationException;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
@@ -33,6 +38,8 @@ import org.roaringbitmap.buffer.MutableRoaringBitmap;
  * the matching document ids from the index-base BlockDocIdIterators.
  */
 public interface ScanBasedDocIdIterator extends BlockDocIdIterator {
+  // Check the interruption every 64K documents scanned to keep the overhead negligible
+  int INTERRUPTION_CHECK_MASK = 0xFFFF;
 
   /**
    * Applies AND operation to the given bitmap of document ids, returns a bitmap of the matching document ids.
@@ -44,4 +51,29 @@ public interface ScanBasedDocIdIterator extends BlockDocIdIterator {
    * iteration. This method should be called after the iteration is done.
    */
   long getNumEntriesScanned();
+
+  /**
+   * Checks whether the query is cancelled (the thread is interrupted) periodically during the document scan, and
+   * early-terminates the scan if so. A single scan can take a long time on a large segment without going through
+   * {@link org.apache.pinot.core.operator.BaseOperator#nextBlock()} where the interruption is normally checked.
+   */
+  static void checkInterruption(int docId) {
+    if ((docId & INTERRUPTION_CHECK_MASK) == 0 && Thread.interrupted()) {
+      throw new EarlyTerminationException();
+    }
+  }
+
+  /**
+   * Closes the forward index reader context to release its buffers (e.g. the decompression buffer of the raw forward
+   * index) once the scan is done. The reader context can still be used afterwards if the iterator is advanced again.
+   */
+  static void closeReaderContext(@Nullable ForwardIndexReaderContext readerContext) {
+    if (readerContext != null) {
+      try {
+        readerContext.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
 }
@@ -18,8 +18,10 @@
  */
 package org.apache.pinot.core.operator.docidsets;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.core.operator.dociditerators.SVScanDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.ZoneMapPruner;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
 
 
@@ -27,7 +29,12 @@ public final class SVScanDocIdSet implements FilterBlockDocIdSet {
   private final SVScanDocIdIterator _docIdIterator;
 
   public SVScanDocIdSet(PredicateEvaluator predicateEvaluator, ForwardIndexReader<?> reader, int numDocs) {
-    _docIdIterator = new SVScanDocIdIterator(predicateEvaluator, reader, numDocs);
+    this(predicateEvaluator, reader, numDocs, null);
+  }
+
+  public SVScanDocIdSet(PredicateEvaluator predicateEvaluator, ForwardIndexReader<?> reader, int numDocs,
+      @Nullable ZoneMapPruner zoneMapPruner) {
+    _docIdIterator = new SVScanDocIdIterator(predicateEvaluator, reader, numDocs, zoneMapPruner);
   }
 
   @Override
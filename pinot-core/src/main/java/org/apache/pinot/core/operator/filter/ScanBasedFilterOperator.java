@@ -22,6 +22,7 @@ import org.apache.pinot.core.operator.blocks.FilterBlock;
 import org.apache.pinot.core.operator.docidsets.MVScanDocIdSet;
 import org.apache.pinot.core.operator.docidsets.SVScanDocIdSet;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.ZoneMapPruner;
 import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
 
@@ -43,7 +44,9 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
   protected FilterBlock getNextBlock() {
     DataSourceMetadata dataSourceMetadata = _dataSource.getDataSourceMetadata();
     if (dataSourceMetadata.isSingleValue()) {
-      return new FilterBlock(new SVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs));
+      ZoneMapPruner zoneMapPruner = ZoneMapPruner.create(_predicateEvaluator, _dataSource.getZoneMap());
+      return new FilterBlock(
+          new SVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs, zoneMapPruner));
     } else {
       return new FilterBlock(new MVScanDocIdSet(_predicateEvaluator, _dataSource.getForwardIndex(), _numDocs,
           dataSourceMetadata.getMaxNumValuesPerMVEntry()));
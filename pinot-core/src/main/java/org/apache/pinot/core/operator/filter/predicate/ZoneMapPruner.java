@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter.predicate;
+
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.context.predicate.Predicate;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * The {@code ZoneMapPruner} decides which pages of a single-value column can contain matching documents for a predicate
+ * based on the page-level min/max values in the zone map, so that the scan can skip the pages that cannot match.
+ * <p>The pruning is conservative: range bounds are always treated as inclusive, and predicates that cannot be mapped to
+ * a value range (e.g. NOT_EQ, NOT_IN, REGEXP_LIKE, EQ/IN on raw values) are not pruned.
+ */
+public class ZoneMapPruner {
+  private final int _numDocsPerPage;
+  private final boolean[] _pageCanMatch;
+
+  private ZoneMapPruner(int numDocsPerPage, boolean[] pageCanMatch) {
+    _numDocsPerPage = numDocsPerPage;
+    _pageCanMatch = pageCanMatch;
+  }
+
+  /**
+   * Returns the zone map pruner for the given predicate evaluator, or {@code null} if the zone map does not exist, the
+   * predicate is not supported, or no page can be pruned.
+   */
+  @Nullable
+  public static ZoneMapPruner create(PredicateEvaluator predicateEvaluator, @Nullable ZoneMapReader zoneMap) {
+    if (zoneMap == null || predicateEvaluator.isAlwaysTrue() || predicateEvaluator.isAlwaysFalse()) {
+      return null;
+    }
+    int numPages = zoneMap.getNumPages();
+    boolean[] pageCanMatch = new boolean[numPages];
+    DataType valueType = zoneMap.getValueType();
+    if (predicateEvaluator.isDictionaryBased()) {
+      if (predicateEvaluator.isExclusive() || valueType != DataType.INT) {
+        return null;
+      }
+      long lowerDictId;
+      long upperDictId;
+      Predicate.Type predicateType = predicateEvaluator.getPredicateType();
+      if (predicateEvaluator instanceof RangePredicateEvaluatorFactory.SortedDictionaryBasedRangePredicateEvaluator) {
+        RangePredicateEvaluatorFactory.SortedDictionaryBasedRangePredicateEvaluator rangePredicateEvaluator =
+            (RangePredicateEvaluatorFactory.SortedDictionaryBasedRangePredicateEvaluator) predicateEvaluator;
+        lowerDictId = rangePredicateEvaluator.getStartDictId();
+        upperDictId = rangePredicateEvaluator.getEndDictId() - 1;
+      } else if (predicateType == Predicate.Type.EQ || predicateType == Predicate.Type.IN) {
+        int[] matchingDictIds = predicateEvaluator.getMatchingDictIds();
+        if (matchingDictIds.length == 0) {
+          return null;
+        }
+        lowerDictId = Integer.MAX_VALUE;
+        upperDictId = Integer.MIN_VALUE;
+        for (int dictId : matchingDictIds) {
+          lowerDictId = Math.min(lowerDictId, dictId);
+          upperDictId = Math.max(upperDictId, dictId);
+        }
+      } else {
+        return null;
+      }
+      for (int i = 0; i < numPages; i++) {
+        pageCanMatch[i] = zoneMap.getMaxLong(i) >= lowerDictId && zoneMap.getMinLong(i) <= upperDictId;
+      }
+    } else if (predicateEvaluator instanceof RangePredicateEvaluatorFactory.IntRawValueBasedRangePredicateEvaluator
+        && valueType == DataType.INT) {
+      RangePredicateEvaluatorFactory.IntRawValueBasedRangePredicateEvaluator rangePredicateEvaluator =
+          (RangePredicateEvaluatorFactory.IntRawValueBasedRangePredicateEvaluator) predicateEvaluator;
+      fillLongRange(zoneMap, rangePredicateEvaluator.geLowerBound(), rangePredicateEvaluator.getUpperBound(),
+          pageCanMatch);
+    } else if (predicateEvaluator instanceof RangePredicateEvaluatorFactory.LongRawValueBasedRangePredicateEvaluator
+        && valueType == DataType.LONG) {
+      RangePredicateEvaluatorFactory.LongRawValueBasedRangePredicateEvaluator rangePredicateEvaluator =
+          (RangePredicateEvaluatorFactory.LongRawValueBasedRangePredicateEvaluator) predicateEvaluator;
+      fillLongRange(zoneMap, rangePredicateEvaluator.geLowerBound(), rangePredicateEvaluator.getUpperBound(),
+          pageCanMatch);
+    } else if (predicateEvaluator instanceof RangePredicateEvaluatorFactory.FloatRawValueBasedRangePredicateEvaluator
+        && valueType == DataType.FLOAT) {
+      RangePredicateEvaluatorFactory.FloatRawValueBasedRangePredicateEvaluator rangePredicateEvaluator =
+          (RangePredicateEvaluatorFactory.FloatRawValueBasedRangePredicateEvaluator) predicateEvaluator;
+      fillDoubleRange(zoneMap, rangePredicateEvaluator.geLowerBound(), rangePredicateEvaluator.getUpperBound(),
+          pageCanMatch);
+    } else if (predicateEvaluator instanceof RangePredicateEvaluatorFactory.DoubleRawValueBasedRangePredicateEvaluator
+        && valueType == DataType.DOUBLE) {
+      RangePredicateEvaluatorFactory.DoubleRawValueBasedRangePredicateEvaluator rangePredicateEvaluator =
+          (RangePredicateEvaluatorFactory.DoubleRawValueBasedRangePredicateEvaluator) predicateEvaluator;
+      fillDoubleRange(zoneMap, rangePredicateEvaluator.geLowerBound(), rangePredicateEvaluator.getUpperBound(),
+          pageCanMatch);
+    } else {
+      return null;
+    }
+    for (boolean canMatch : pageCanMatch) {
+      if (!canMatch) {
+        return new ZoneMapPruner(zoneMap.getNumDocsPerPage(), pageCanMatch);
+      }
+    }
+    return null;
+  }
+
+  private static void fillLongRange(ZoneMapReader zoneMap, long lowerBound, long upperBound, boolean[] pageCanMatch) {
+    int numPages = pageCanMatch.length;
+    for (int i = 0; i < numPages; i++) {
+      pageCanMatch[i] = zoneMap.getMaxLong(i) >= lowerBound && zoneMap.getMinLong(i) <= upperBound;
+    }
+  }
+
+  private static void fillDoubleRange(ZoneMapReader zoneMap, double lowerBound, double upperBound,
+      boolean[] pageCanMatch) {
+    int numPages = pageCanMatch.length;
+    for (int i = 0; i < numPages; i++) {
+      // NOTE: Use negated comparisons so that pages with NaN min/max values are never pruned
+      pageCanMatch[i] = !(zoneMap.getMaxDouble(i) < lowerBound || zoneMap.getMinDouble(i) > upperBound);
+    }
+  }
+
+  public int getNumDocsPerPage() {
+    return _numDocsPerPage;
+  }
+
+  /**
+   * Returns {@code true} if the given page might contain matching documents, {@code false} if it cannot.
+   */
+  public boolean canMatch(int pageId) {
+    return pageId >= _pageCanMatch.length || _pageCanMatch[pageId];
+  }
+}
@@ -62,6 +62,7 @@ public class DistinctOperator extends BaseOperator<IntermediateResultsBlock> {
         break;
       }
     }
+    _transformOperator.close();
     DistinctTable distinctTable = _distinctExecutor.getResult();
     // TODO: Use a separate way to represent DISTINCT instead of aggregation.
     return new IntermediateResultsBlock(new AggregationFunction[]{_distinctAggregationFunction},
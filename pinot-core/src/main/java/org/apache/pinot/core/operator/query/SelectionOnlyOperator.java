@@ -90,6 +90,7 @@ public class SelectionOnlyOperator extends BaseOperator<IntermediateResultsBlock
         break;
       }
     }
+    _transformOperator.close();
 
     return new IntermediateResultsBlock(_dataSchema, _rows);
   }
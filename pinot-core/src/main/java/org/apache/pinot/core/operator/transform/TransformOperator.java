@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.transform;
 
+import java.io.Closeable;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -35,8 +36,9 @@ import org.apache.pinot.segment.spi.index.reader.Dictionary;
 
 /**
  * Class for evaluating transform expressions.
+ * <p>The caller should {@link #close()} the operator if it stops fetching the blocks before all of them are fetched.
  */
-public class TransformOperator extends BaseOperator<TransformBlock> {
+public class TransformOperator extends BaseOperator<TransformBlock> implements Closeable {
   private static final String OPERATOR_NAME = "TransformOperator";
 
   protected final ProjectionOperator _projectionOperator;
@@ -97,6 +99,14 @@ public class TransformOperator extends BaseOperator<TransformBlock> {
     }
   }
 
+  /**
+   * Releases the buffers held by the underlying projection operator.
+   */
+  @Override
+  public void close() {
+    _projectionOperator.close();
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -42,9 +42,7 @@ import org.apache.pinot.spi.utils.FixedIntArray;
  * group keys, instead of dictionary ids. This implementation is used for group-by key
  * generation when one or more of the group-by columns do not have dictionary.
  *
- * TODO:
- * 1. Add support for multi-valued group-by columns.
- * 2. Add support for trimming group-by results.
+ * TODO: Add support for trimming group-by results.
  */
 public class NoDictionaryMultiColumnGroupKeyGenerator implements GroupKeyGenerator {
   private final ExpressionContext[] _groupByExpressions;
@@ -153,8 +153,68 @@ public class NoDictionarySingleColumnGroupKeyGenerator implements GroupKeyGenera
 
   @Override
   public void generateKeysForBlock(TransformBlock transformBlock, int[][] groupKeys) {
-    // TODO: Support generating keys for multi-valued columns.
-    throw new UnsupportedOperationException("Operation not supported");
+    BlockValSet blockValSet = transformBlock.getBlockValueSet(_groupByExpression);
+    int numDocs = transformBlock.getNumDocs();
+
+    switch (_storedType) {
+      case INT:
+        int[][] intValues = blockValSet.getIntValuesMV();
+        for (int i = 0; i < numDocs; i++) {
+          int numValues = intValues[i].length;
+          int[] mvGroupKeys = new int[numValues];
+          for (int j = 0; j < numValues; j++) {
+            mvGroupKeys[j] = getKeyForValue(intValues[i][j]);
+          }
+          groupKeys[i] = mvGroupKeys;
+        }
+        break;
+      case LONG:
+        long[][] longValues = blockValSet.getLongValuesMV();
+        for (int i = 0; i < numDocs; i++) {
+          int numValues = longValues[i].length;
+          int[] mvGroupKeys = new int[numValues];
+          for (int j = 0; j < numValues; j++) {
+            mvGroupKeys[j] = getKeyForValue(longValues[i][j]);
+          }
+          groupKeys[i] = mvGroupKeys;
+        }
+        break;
+      case FLOAT:
+        float[][] floatValues = blockValSet.getFloatValuesMV();
+        for (int i = 0; i < numDocs; i++) {
+          int numValues = floatValues[i].length;
+          int[] mvGroupKeys = new int[numValues];
+          for (int j = 0; j < numValues; j++) {
+            mvGroupKeys[j] = getKeyForValue(floatValues[i][j]);
+          }
+          groupKeys[i] = mvGroupKeys;
+        }
+        break;
+      case DOUBLE:
+        double[][] doubleValues = blockValSet.getDoubleValuesMV();
+        for (int i = 0; i < numDocs; i++) {
+          int numValues = doubleValues[i].length;
+          int[] mvGroupKeys = new int[numValues];
+          for (int j = 0; j < numValues; j++) {
+            mvGroupKeys[j] = getKeyForValue(doubleValues[i][j]);
+          }
+          groupKeys[i] = mvGroupKeys;
+        }
+        break;
+      case STRING:
+        String[][] stringValues = blockValSet.getStringValuesMV();
+        for (int i = 0; i < numDocs; i++) {
+          int numValues = stringValues[i].length;
+          int[] mvGroupKeys = new int[numValues];
+          for (int j = 0; j < numValues; j++) {
+            mvGroupKeys[j] = getKeyForValue(stringValues[i][j]);
+          }
+          groupKeys[i] = mvGroupKeys;
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Illegal data type for no-dictionary key generator: " + _storedType);
+    }
   }
 
   @Override
@@ -133,12 +133,22 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       }
     }
 
-    // Query scheduler wait time already exceeds query timeout, directly return
-    if (querySchedulingTimeMs >= queryTimeoutMs) {
+    // The query should finish before both the query timeout and the deadline propagated from the broker (if any)
+    long deadlineMs = queryRequest.getDeadlineMs();
+    long queryEndTimeMs = Math.min(queryArrivalTimeMs + queryTimeoutMs, deadlineMs);
+
+    // Query scheduler wait time already exceeds query timeout or the broker deadline already passed, directly return
+    if (queryArrivalTimeMs + querySchedulingTimeMs >= queryEndTimeMs) {
       _serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.SCHEDULING_TIMEOUT_EXCEPTIONS, 1);
-      String errorMessage = String
-          .format("Query scheduling took %dms (longer than query timeout of %dms)", querySchedulingTimeMs,
-              queryTimeoutMs);
+      String errorMessage;
+      if (querySchedulingTimeMs >= queryTimeoutMs) {
+        errorMessage = String
+            .format("Query scheduling took %dms (longer than query timeout of %dms)", querySchedulingTimeMs,
+                queryTimeoutMs);
+      } else {
+        errorMessage = String.format("Query scheduling took %dms (passed the broker deadline by %dms)",
+            querySchedulingTimeMs, queryArrivalTimeMs + querySchedulingTimeMs - deadlineMs);
+      }
       DataTable dataTable = DataTableBuilder.getEmptyDataTable();
       dataTable.addException(QueryException.getException(QueryException.QUERY_SCHEDULING_TIMEOUT_ERROR, errorMessage));
       LOGGER.error("{} while processing requestId: {}", errorMessage, requestId);
@@ -180,8 +190,11 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     int numConsumingSegmentsProcessed = 0;
     long minIndexTimeMs = Long.MAX_VALUE;
     long minIngestionTimeMs = Long.MAX_VALUE;
-    for (IndexSegment indexSegment : indexSegments) {
+    for (int i = 0; i < numSegmentsAcquired; i++) {
+      IndexSegment indexSegment = indexSegments.get(i);
       if (indexSegment instanceof MutableSegment) {
+        // Capture the documents visible in the consuming segment once for the whole query
+        indexSegments.set(i, ((MutableSegment) indexSegment).getSnapshot());
         numConsumingSegmentsProcessed += 1;
         SegmentMetadata segmentMetadata = indexSegment.getSegmentMetadata();
         long indexTimeMs = segmentMetadata.getLastIndexedTimestamp();
@@ -214,7 +227,7 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     DataTable dataTable = null;
     try {
       dataTable = processQuery(indexSegments, queryContext, timerContext, executorService, responseObserver,
-          queryArrivalTimeMs + queryTimeoutMs, queryRequest.isEnableStreaming());
+          queryEndTimeMs, queryRequest.isEnableStreaming());
     } catch (Exception e) {
       _serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.QUERY_EXECUTION_EXCEPTIONS, 1);
 
@@ -299,10 +312,32 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       // Update the total docs in the metadata based on the un-pruned segments
       dataTable.getMetadata().put(MetadataKey.TOTAL_DOCS.getName(), Long.toString(numTotalDocs));
 
+      if (dataTable.getExceptions().containsKey(QueryException.QUERY_CANCELLATION_ERROR_CODE)) {
+        recordCpuTimeSavedByCancellation(queryContext.getTableName(), dataTable, numSelectedSegments);
+      }
+
       return dataTable;
     }
   }
 
+  /**
+   * Records the estimated CPU time saved by cancelling the query, extrapolated from the CPU time used to process the
+   * segments before the query is cancelled. No-op if the thread CPU time is not measured.
+   */
+  private void recordCpuTimeSavedByCancellation(String tableNameWithType, DataTable dataTable,
+      int numSelectedSegments) {
+    Map<String, String> metadata = dataTable.getMetadata();
+    long threadCpuTimeNs = Long.parseLong(metadata.getOrDefault(MetadataKey.THREAD_CPU_TIME_NS.getName(), "0"));
+    int numSegmentsProcessed =
+        Integer.parseInt(metadata.getOrDefault(MetadataKey.NUM_SEGMENTS_PROCESSED.getName(), "0"));
+    if (threadCpuTimeNs > 0 && numSegmentsProcessed > 0 && numSegmentsProcessed < numSelectedSegments) {
+      long estimatedCpuTimeSavedNs =
+          threadCpuTimeNs * (numSelectedSegments - numSegmentsProcessed) / numSegmentsProcessed;
+      _serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.CANCELLED_QUERIES_ESTIMATED_CPU_TIME_SAVED_NS,
+          estimatedCpuTimeSavedNs);
+    }
+  }
+
   /**
    * Handles the subquery in the given query.
    * <p>Currently only supports subquery within the filter.
@@ -132,6 +132,7 @@ public class BrokerReduceService {
     long offlineThreadCpuTimeNs = 0L;
     long realtimeThreadCpuTimeNs = 0L;
     boolean numGroupsLimitReached = false;
+    boolean partialResult = false;
 
     PinotQuery pinotQuery = brokerRequest.getPinotQuery();
     Map<String, String> queryOptions =
@@ -213,6 +214,7 @@ public class BrokerReduceService {
         numTotalDocs += Long.parseLong(numTotalDocsString);
       }
       numGroupsLimitReached |= Boolean.parseBoolean(metadata.get(MetadataKey.NUM_GROUPS_LIMIT_REACHED.getName()));
+      partialResult |= Boolean.parseBoolean(metadata.get(MetadataKey.PARTIAL_RESULT.getName()));
 
       // After processing the metadata, remove data tables without data rows inside.
       DataSchema dataSchema = dataTable.getDataSchema();
@@ -240,6 +242,7 @@ public class BrokerReduceService {
     brokerResponseNative.setNumSegmentsMatched(numSegmentsMatched);
     brokerResponseNative.setTotalDocs(numTotalDocs);
     brokerResponseNative.setNumGroupsLimitReached(numGroupsLimitReached);
+    brokerResponseNative.setPartialResult(partialResult);
     brokerResponseNative.setOfflineThreadCpuTimeNs(offlineThreadCpuTimeNs);
     brokerResponseNative.setRealtimeThreadCpuTimeNs(realtimeThreadCpuTimeNs);
     if (numConsumingSegmentsProcessed > 0) {
@@ -48,6 +48,8 @@ public class ServerQueryRequest {
   private final boolean _enableStreaming;
   private final List<String> _segmentsToQuery;
   private final QueryContext _queryContext;
+  // Absolute deadline (epoch millis) propagated from the broker, Long.MAX_VALUE if not set
+  private final long _deadlineMs;
 
   // Timing information for different phases of query execution
   private final TimerContext _timerContext;
@@ -59,6 +61,7 @@ public class ServerQueryRequest {
     _enableStreaming = false;
     _segmentsToQuery = instanceRequest.getSearchSegments();
     _queryContext = BrokerRequestToQueryContextConverter.convert(instanceRequest.getQuery());
+    _deadlineMs = instanceRequest.isSetDeadlineMs() ? instanceRequest.getDeadlineMs() : Long.MAX_VALUE;
     _timerContext = new TimerContext(_queryContext.getTableName(), serverMetrics, queryArrivalTimeMs);
   }
 
@@ -86,6 +89,7 @@ public class ServerQueryRequest {
       throw new UnsupportedOperationException("Unsupported payloadType: " + payloadType);
     }
     _queryContext = BrokerRequestToQueryContextConverter.convert(brokerRequest);
+    _deadlineMs = Long.MAX_VALUE;
     _timerContext = new TimerContext(_queryContext.getTableName(), serverMetrics, queryArrivalTimeMs);
   }
 
@@ -117,6 +121,14 @@ public class ServerQueryRequest {
     return _queryContext;
   }
 
+  /**
+   * Returns the absolute deadline (epoch millis) of the query propagated from the broker, or {@link Long#MAX_VALUE} if
+   * the broker did not set a deadline.
+   */
+  public long getDeadlineMs() {
+    return _deadlineMs;
+  }
+
   public TimerContext getTimerContext() {
     return _timerContext;
   }
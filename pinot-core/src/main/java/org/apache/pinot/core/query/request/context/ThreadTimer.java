@@ -42,6 +42,10 @@ public class ThreadTimer {
       IS_THREAD_CPU_TIME_MEASUREMENT_ENABLED = enable && IS_CURRENT_THREAD_CPU_TIME_SUPPORTED;
   }
 
+  public static boolean isThreadCpuTimeMeasurementEnabled() {
+    return IS_THREAD_CPU_TIME_MEASUREMENT_ENABLED;
+  }
+
   public void start() {
     if (IS_THREAD_CPU_TIME_MEASUREMENT_ENABLED) {
       _startTimeNs = MX_BEAN.getCurrentThreadCpuTime();
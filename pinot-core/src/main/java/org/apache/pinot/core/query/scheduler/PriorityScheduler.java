@@ -20,6 +20,7 @@ package org.apache.pinot.core.query.scheduler;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -70,6 +71,9 @@ public abstract class PriorityScheduler extends QueryScheduler {
     if (!isRunning) {
       return immediateErrorResponse(queryRequest, QueryException.SERVER_SCHEDULER_DOWN_ERROR);
     }
+    if (!admitQuery(queryRequest)) {
+      return immediateErrorResponse(queryRequest, QueryException.SERVER_CPU_BUDGET_EXHAUSTED_ERROR);
+    }
     queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
     final SchedulerQueryContext schedQueryContext = new SchedulerQueryContext(queryRequest);
     try {
@@ -105,6 +109,12 @@ public abstract class PriorityScheduler extends QueryScheduler {
               continue;
             }
             ServerQueryRequest queryRequest = request.getQueryRequest();
+            if (isDeadlinePassed(queryRequest)) {
+              // Drop the query without occupying the query runner because the broker is no longer waiting for it
+              request.setResultFuture(Futures.immediateFuture(serializeDeadlinePassedResponse(queryRequest)));
+              runningQueriesSemaphore.release();
+              continue;
+            }
             final QueryExecutorService executor =
                 resourceManager.getExecutorService(queryRequest, request.getSchedulerGroup());
             final ListenableFutureTask<byte[]> queryFutureTask = createQueryFutureTask(queryRequest, executor);
@@ -67,6 +67,8 @@ public abstract class QueryScheduler {
   protected final QueryExecutor queryExecutor;
   protected final ResourceManager resourceManager;
   protected final LongAccumulator latestQueryTime;
+  // Null if CPU budget is not configured
+  protected final TableCpuBudgetManager cpuBudgetManager;
   private final RateLimiter queryLogRateLimiter;
   private final RateLimiter numDroppedLogRateLimiter;
   private final AtomicInteger numDroppedLogCounter;
@@ -94,6 +96,7 @@ public abstract class QueryScheduler {
         RateLimiter.create(config.getProperty(QUERY_LOG_MAX_RATE_KEY, DEFAULT_QUERY_LOG_MAX_RATE));
     this.numDroppedLogRateLimiter = RateLimiter.create(1.0d);
     this.numDroppedLogCounter = new AtomicInteger(0);
+    this.cpuBudgetManager = TableCpuBudgetManager.create(config, serverMetrics);
 
     LOGGER.info("Query log max rate: {}", queryLogRateLimiter.getRate());
   }
@@ -127,16 +130,58 @@ public abstract class QueryScheduler {
     isRunning = false;
   }
 
+  /**
+   * Admission control before scheduling the query. Returns {@code false} if the query should be rejected because the
+   * table exhausted its CPU budget.
+   */
+  protected boolean admitQuery(@Nonnull ServerQueryRequest queryRequest) {
+    return cpuBudgetManager == null || cpuBudgetManager.hasBudget(queryRequest.getTableNameWithType());
+  }
+
+  /**
+   * Returns {@code true} if the deadline propagated from the broker already passed before the query gets executed. Such
+   * query should be dropped because the broker has stopped waiting for the response.
+   */
+  protected boolean isDeadlinePassed(@Nonnull ServerQueryRequest queryRequest) {
+    if (System.currentTimeMillis() < queryRequest.getDeadlineMs()) {
+      return false;
+    }
+    serverMetrics.addMeteredTableValue(queryRequest.getTableNameWithType(), ServerMeter.QUERIES_DROPPED_PAST_DEADLINE,
+        1);
+    return true;
+  }
+
   /**
    * Create a future task for the query
    * @param queryRequest incoming query request
    * @param executorService executor service to use for parallelizing query. This is passed to the QueryExecutor
    * @return Future task that can be scheduled for execution on an ExecutorService. Ideally, this future
    * should be executed on a different executor service than {@code e} to avoid deadlock.
+   * <p>The task drops the query without executing it if the broker deadline passed while the task is queued (e.g. on
+   * the query runners of the FCFS scheduler).
    */
   protected ListenableFutureTask<byte[]> createQueryFutureTask(@Nonnull ServerQueryRequest queryRequest,
       @Nonnull ExecutorService executorService) {
-    return ListenableFutureTask.create(() -> processQueryAndSerialize(queryRequest, executorService));
+    return ListenableFutureTask.create(() -> {
+      if (isDeadlinePassed(queryRequest)) {
+        return serializeDeadlinePassedResponse(queryRequest);
+      }
+      return processQueryAndSerialize(queryRequest, executorService);
+    });
+  }
+
+  /**
+   * Returns the serialized error response for the query dropped because the broker deadline passed in the scheduler.
+   */
+  @Nullable
+  protected byte[] serializeDeadlinePassedResponse(@Nonnull ServerQueryRequest queryRequest) {
+    TimerContext.Timer schedulerWaitTimer =
+        queryRequest.getTimerContext().getPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
+    if (schedulerWaitTimer != null) {
+      schedulerWaitTimer.stopAndRecord();
+    }
+    return serializeErrorResponse(queryRequest, QueryException
+        .getException(QueryException.QUERY_SCHEDULING_TIMEOUT_ERROR, "Broker deadline passed in scheduler"));
   }
 
   /**
@@ -209,6 +254,9 @@ public abstract class QueryScheduler {
     }
     if (threadCpuTimeNs > 0) {
       serverMetrics.addTimedTableValue(tableNameWithType, ServerTimer.EXECUTION_THREAD_CPU_TIME_NS, threadCpuTimeNs, TimeUnit.NANOSECONDS);
+      if (cpuBudgetManager != null) {
+        cpuBudgetManager.charge(tableNameWithType, threadCpuTimeNs);
+      }
     }
 
     TimerContext timerContext = queryRequest.getTimerContext();
@@ -308,12 +356,17 @@ public abstract class QueryScheduler {
    */
   protected ListenableFuture<byte[]> immediateErrorResponse(ServerQueryRequest queryRequest,
       ProcessingException error) {
+    return Futures.immediateFuture(serializeErrorResponse(queryRequest, error));
+  }
+
+  @Nullable
+  private byte[] serializeErrorResponse(ServerQueryRequest queryRequest, ProcessingException error) {
     DataTable result = DataTableBuilder.getEmptyDataTable();
 
     Map<String, String> dataTableMetadata = result.getMetadata();
     dataTableMetadata.put(MetadataKey.REQUEST_ID.getName(), Long.toString(queryRequest.getRequestId()));
 
     result.addException(error);
-    return Futures.immediateFuture(serializeDataTable(queryRequest, result));
+    return serializeDataTable(queryRequest, result);
   }
 }
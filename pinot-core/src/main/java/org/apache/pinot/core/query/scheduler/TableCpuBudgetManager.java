@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.query.request.context.ThreadTimer;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Tracks the query execution CPU time per table (OFFLINE and REALTIME share the budget of the raw table), and rejects
+ * the queries early for the tables that exhausted their CPU budget so that one heavy table cannot starve the others.
+ *
+ * <p>Each table gets a token bucket of CPU time that refills at the configured CPU milliseconds per second, and can
+ * accumulate up to the configured burst seconds of budget. The CPU time used by each query (thread CPU time across the
+ * runner and the worker threads) is charged to the bucket after the query finishes, and the bucket can go negative so
+ * that a single expensive query blocks the following queries until the budget is paid back.
+ *
+ * <p>Configs (under the query scheduler config):
+ * <ul>
+ *   <li>{@code cpu.budget.msPerSecond}: default CPU budget for all the tables, non-positive means unlimited</li>
+ *   <li>{@code cpu.budget.msPerSecond.<rawTableName>}: overrides the CPU budget for the table</li>
+ *   <li>{@code cpu.budget.burstSeconds}: max seconds of the CPU budget a table can accumulate</li>
+ * </ul>
+ *
+ * <p>NOTE: Requires thread CPU time measurement to be enabled on the server, otherwise no CPU time can be charged and
+ * the CPU budget is not enabled.
+ */
+@ThreadSafe
+public class TableCpuBudgetManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TableCpuBudgetManager.class);
+
+  public static final String CPU_BUDGET_MS_PER_SECOND_KEY = "cpu.budget.msPerSecond";
+  public static final String CPU_BUDGET_BURST_SECONDS_KEY = "cpu.budget.burstSeconds";
+  public static final double DEFAULT_CPU_BUDGET_BURST_SECONDS = 10;
+
+  private static final CpuBudget UNLIMITED = new CpuBudget(0, 0, 0);
+
+  private final PinotConfiguration _config;
+  private final double _defaultBudgetMsPerSecond;
+  private final double _burstSeconds;
+  private final ServerMetrics _serverMetrics;
+  private final Map<String, CpuBudget> _budgetMap = new ConcurrentHashMap<>();
+
+  @VisibleForTesting
+  TableCpuBudgetManager(PinotConfiguration config, ServerMetrics serverMetrics) {
+    _config = config;
+    _defaultBudgetMsPerSecond = config.getProperty(CPU_BUDGET_MS_PER_SECOND_KEY, 0d);
+    _burstSeconds = config.getProperty(CPU_BUDGET_BURST_SECONDS_KEY, DEFAULT_CPU_BUDGET_BURST_SECONDS);
+    _serverMetrics = serverMetrics;
+  }
+
+  /**
+   * Returns a {@code TableCpuBudgetManager} if CPU budget is configured for any table and thread CPU time measurement
+   * is enabled, {@code null} otherwise.
+   */
+  @Nullable
+  public static TableCpuBudgetManager create(PinotConfiguration config, ServerMetrics serverMetrics) {
+    List<String> keys = config.getKeys();
+    String relaxedKeyPrefix = CPU_BUDGET_MS_PER_SECOND_KEY.toLowerCase();
+    for (String key : keys) {
+      if (key.toLowerCase().startsWith(relaxedKeyPrefix)) {
+        if (!ThreadTimer.isThreadCpuTimeMeasurementEnabled()) {
+          LOGGER.warn("CPU budget is configured but thread CPU time measurement is not enabled (set: {} to enable it), "
+              + "not enabling table CPU budget", CommonConstants.Server.CONFIG_OF_ENABLE_THREAD_CPU_TIME_MEASUREMENT);
+          return null;
+        }
+        TableCpuBudgetManager cpuBudgetManager = new TableCpuBudgetManager(config, serverMetrics);
+        LOGGER.info("Initialized table CPU budget manager with default budget: {}ms/s, burst: {}s",
+            cpuBudgetManager._defaultBudgetMsPerSecond, cpuBudgetManager._burstSeconds);
+        return cpuBudgetManager;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns {@code true} if the table still has CPU budget to execute a new query. Otherwise, records the rejection in
+   * the metrics keyed by the raw table name, same as the available CPU budget gauge.
+   */
+  public boolean hasBudget(String tableNameWithType) {
+    String rawTableName = TableNameBuilder.extractRawTableName(tableNameWithType);
+    CpuBudget cpuBudget = getCpuBudget(rawTableName);
+    if (cpuBudget == UNLIMITED || cpuBudget.getAvailableNs(currentTimeMillis()) > 0) {
+      return true;
+    }
+    _serverMetrics.addMeteredTableValue(rawTableName, ServerMeter.QUERIES_REJECTED_BY_CPU_BUDGET, 1);
+    return false;
+  }
+
+  /**
+   * Charges the CPU time used by a query to the budget of the table.
+   */
+  public void charge(String tableNameWithType, long cpuTimeNs) {
+    if (cpuTimeNs <= 0) {
+      return;
+    }
+    String rawTableName = TableNameBuilder.extractRawTableName(tableNameWithType);
+    CpuBudget cpuBudget = getCpuBudget(rawTableName);
+    if (cpuBudget != UNLIMITED) {
+      long availableNs = cpuBudget.charge(cpuTimeNs, currentTimeMillis());
+      _serverMetrics.setValueOfTableGauge(rawTableName, ServerGauge.CPU_BUDGET_AVAILABLE_MS,
+          TimeUnit.NANOSECONDS.toMillis(availableNs));
+    }
+  }
+
+  @VisibleForTesting
+  long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  private CpuBudget getCpuBudget(String rawTableName) {
+    return _budgetMap.computeIfAbsent(rawTableName, k -> {
+      double budgetMsPerSecond =
+          _config.getProperty(CPU_BUDGET_MS_PER_SECOND_KEY + "." + rawTableName, _defaultBudgetMsPerSecond);
+      if (budgetMsPerSecond <= 0) {
+        return UNLIMITED;
+      }
+      // CPU milliseconds per second equals to CPU nanoseconds per millisecond times 1000
+      double refillNsPerMs = budgetMsPerSecond * 1000;
+      long capacityNs = (long) (budgetMsPerSecond * _burstSeconds * 1_000_000);
+      return new CpuBudget(refillNsPerMs, capacityNs, currentTimeMillis());
+    });
+  }
+
+  /**
+   * Token bucket of CPU nanoseconds.
+   */
+  private static class CpuBudget {
+    final double _refillNsPerMs;
+    final long _capacityNs;
+
+    long _availableNs;
+    long _lastRefillTimeMs;
+
+    CpuBudget(double refillNsPerMs, long capacityNs, long currentTimeMs) {
+      _refillNsPerMs = refillNsPerMs;
+      _capacityNs = capacityNs;
+      _availableNs = capacityNs;
+      _lastRefillTimeMs = currentTimeMs;
+    }
+
+    synchronized long getAvailableNs(long currentTimeMs) {
+      refill(currentTimeMs);
+      return _availableNs;
+    }
+
+    synchronized long charge(long cpuTimeNs, long currentTimeMs) {
+      refill(currentTimeMs);
+      _availableNs -= cpuTimeNs;
+      return _availableNs;
+    }
+
+    private void refill(long currentTimeMs) {
+      long elapsedMs = currentTimeMs - _lastRefillTimeMs;
+      if (elapsedMs > 0) {
+        _availableNs = (long) Math.min(_capacityNs, _availableNs + elapsedMs * _refillNsPerMs);
+        _lastRefillTimeMs = currentTimeMs;
+      }
+    }
+  }
+}
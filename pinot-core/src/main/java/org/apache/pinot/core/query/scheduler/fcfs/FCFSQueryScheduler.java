@@ -51,6 +51,9 @@ public class FCFSQueryScheduler extends QueryScheduler {
     if (!isRunning) {
       return immediateErrorResponse(queryRequest, QueryException.SERVER_SCHEDULER_DOWN_ERROR);
     }
+    if (!admitQuery(queryRequest)) {
+      return immediateErrorResponse(queryRequest, QueryException.SERVER_CPU_BUDGET_EXHAUSTED_ERROR);
+    }
     queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
     QueryExecutorService queryExecutorService = resourceManager.getExecutorService(queryRequest, null);
     ListenableFutureTask<byte[]> queryTask = createQueryFutureTask(queryRequest, queryExecutorService);
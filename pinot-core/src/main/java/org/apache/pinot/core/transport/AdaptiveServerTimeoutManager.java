@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The {@code AdaptiveServerTimeoutManager} derives the timeout of the requests sent to each server from the recent
+ * latencies of the server, so that a server much slower than usual is cut off early instead of holding the query until
+ * the query timeout.
+ * <p>The server timeout is the configured percentile of the recent server latencies multiplied by the multiplier (to
+ * leave headroom for the normal latency variance), lower bounded by the min timeout and upper bounded by the query
+ * timeout. The query timeout is used before enough latency samples are collected.
+ * <p>The requests not responded before the query is done (e.g. timed out) are recorded at the current server timeout.
+ * Otherwise only the fast enough responses would be recorded, and the timeout could never grow back once the server
+ * slows down. Because the multiplier is larger than 1, a server keeping timing out pushes its timeout up.
+ */
+@ThreadSafe
+public class AdaptiveServerTimeoutManager {
+  private final double _percentile;
+  private final double _multiplier;
+  private final long _minTimeoutMs;
+  private final ConcurrentHashMap<String, LatencyPercentileTracker> _serverLatencyTrackerMap =
+      new ConcurrentHashMap<>();
+
+  public AdaptiveServerTimeoutManager(double percentile, double multiplier, long minTimeoutMs) {
+    Preconditions.checkArgument(percentile > 0 && percentile <= 100, "Percentile must be in range (0, 100], got: %s",
+        percentile);
+    Preconditions.checkArgument(multiplier > 1, "Multiplier must be larger than 1, got: %s", multiplier);
+    Preconditions.checkArgument(minTimeoutMs > 0, "Min timeout must be positive, got: %s", minTimeoutMs);
+    _percentile = percentile;
+    _multiplier = multiplier;
+    _minTimeoutMs = minTimeoutMs;
+  }
+
+  /**
+   * Returns the timeout in milliseconds for the request sent to the given server, which is never longer than the given
+   * query timeout.
+   */
+  public long getServerTimeoutMs(String instanceId, long queryTimeoutMs) {
+    LatencyPercentileTracker latencyTracker = _serverLatencyTrackerMap.get(instanceId);
+    if (latencyTracker == null) {
+      return queryTimeoutMs;
+    }
+    long percentileLatencyMs = latencyTracker.getPercentileLatencyMs();
+    if (percentileLatencyMs < 0) {
+      return queryTimeoutMs;
+    }
+    long serverTimeoutMs = Math.max((long) Math.ceil(percentileLatencyMs * _multiplier), _minTimeoutMs);
+    return Math.min(serverTimeoutMs, queryTimeoutMs);
+  }
+
+  /**
+   * Records the latency of a response received from the given server.
+   */
+  public void recordLatency(String instanceId, long latencyMs) {
+    _serverLatencyTrackerMap.computeIfAbsent(instanceId, k -> new LatencyPercentileTracker(_percentile))
+        .recordLatency(latencyMs);
+  }
+
+  /**
+   * Records a request not responded by the given server before the query is done (e.g. timed out or the response is
+   * missing) at the current timeout of the server.
+   */
+  public void recordTimeout(String instanceId, long queryTimeoutMs) {
+    recordLatency(instanceId, getServerTimeoutMs(instanceId, queryTimeoutMs));
+  }
+}
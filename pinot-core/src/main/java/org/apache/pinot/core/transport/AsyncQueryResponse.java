@@ -18,39 +18,67 @@
  */
 package org.apache.pinot.core.transport;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.common.utils.DataTable;
 
 
 /**
  * The {@code AsyncQueryResponse} class represents an asynchronous query response.
  * <p>Call {@link #getResponse()} to get the query response asynchronously.
+ * <p>Hedged requests can be sent for the servers that have not responded yet (straggling servers) via
+ * {@link QueryRouter#submitHedgedRequest}. A hedged request queries all the segments of the straggling server on an
+ * alternate server with a different request id, and whichever response arrives first is used as the response of the
+ * straggling server. The later response is ignored.
  */
 @ThreadSafe
 public class AsyncQueryResponse {
   private final QueryRouter _queryRouter;
   private final long _requestId;
+  private final Map<ServerRoutingInstance, InstanceRequest> _requestMap;
   private final ConcurrentHashMap<ServerRoutingInstance, ServerResponse> _responseMap;
+  // Servers with the response received (either from the server itself or from the hedged request)
+  private final Set<ServerRoutingInstance> _respondedServers = ConcurrentHashMap.newKeySet();
+  // Map from hedged request id to the hedged request
+  private final ConcurrentHashMap<Long, HedgedRequest> _hedgedRequestMap = new ConcurrentHashMap<>();
+  // Straggling servers with hedged request sent
+  private final Set<ServerRoutingInstance> _hedgedServers = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger _numHedgedRequestsWon = new AtomicInteger();
+  // Servers the request is submitted to but the response stats are not yet recorded
+  private final Set<ServerRoutingInstance> _serversWithoutStatsRecorded = ConcurrentHashMap.newKeySet();
+  // Servers the request is submitted to but not responded yet (not counting the hedged requests), which should be
+  // cancelled when the query is done
+  private final Set<ServerRoutingInstance> _pendingServers = ConcurrentHashMap.newKeySet();
   private final CountDownLatch _countDownLatch;
+  private final long _timeoutMs;
   private final long _maxEndTimeMs;
 
+  private volatile boolean _timedOut;
   private volatile Exception _brokerRequestSendException;
 
-  public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
-      long startTimeMs, long timeoutMs) {
+  public AsyncQueryResponse(QueryRouter queryRouter, long requestId,
+      Map<ServerRoutingInstance, InstanceRequest> requestMap, long startTimeMs, long timeoutMs) {
     _queryRouter = queryRouter;
     _requestId = requestId;
-    int numServersQueried = serversQueried.size();
+    _requestMap = requestMap;
+    int numServersQueried = requestMap.size();
     _responseMap = new ConcurrentHashMap<>(numServersQueried);
-    for (ServerRoutingInstance serverRoutingInstance : serversQueried) {
+    for (ServerRoutingInstance serverRoutingInstance : requestMap.keySet()) {
       _responseMap.put(serverRoutingInstance, new ServerResponse(startTimeMs));
     }
     _countDownLatch = new CountDownLatch(numServersQueried);
+    _timeoutMs = timeoutMs;
     _maxEndTimeMs = startTimeMs + timeoutMs;
   }
 
@@ -60,13 +88,59 @@ public class AsyncQueryResponse {
   public Map<ServerRoutingInstance, ServerResponse> getResponse()
       throws InterruptedException {
     try {
-      _countDownLatch.await(_maxEndTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+      _timedOut = !_countDownLatch.await(_maxEndTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
       return _responseMap;
     } finally {
       _queryRouter.markQueryDone(_requestId);
     }
   }
 
+  /**
+   * Waits up to the given time (bounded by the query timeout) for all the servers to respond, returns {@code true} if
+   * the query is done (all the servers responded or the query failed).
+   * <p>Should be called before calling {@link #getResponse()}, e.g. to decide whether to send the hedged requests.
+   */
+  public boolean await(long waitTimeMs)
+      throws InterruptedException {
+    long remainingTimeMs = _maxEndTimeMs - System.currentTimeMillis();
+    return _countDownLatch.await(Math.min(waitTimeMs, remainingTimeMs), TimeUnit.MILLISECONDS);
+  }
+
+  public int getNumServersQueried() {
+    return _requestMap.size();
+  }
+
+  /**
+   * Returns the servers the request is submitted to but not responded yet, excluding the ones with hedged request
+   * already sent.
+   */
+  public List<ServerRoutingInstance> getStragglingServers() {
+    List<ServerRoutingInstance> stragglingServers = new ArrayList<>();
+    for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : _responseMap.entrySet()) {
+      ServerRoutingInstance serverRoutingInstance = entry.getKey();
+      if (entry.getValue().getSubmitDelayMs() >= 0 && !_respondedServers.contains(serverRoutingInstance)
+          && !_hedgedServers.contains(serverRoutingInstance)) {
+        stragglingServers.add(serverRoutingInstance);
+      }
+    }
+    return stragglingServers;
+  }
+
+  /**
+   * Returns the segments queried on the given server.
+   */
+  public List<String> getSegments(ServerRoutingInstance serverRoutingInstance) {
+    return _requestMap.get(serverRoutingInstance).getSearchSegments();
+  }
+
+  /**
+   * Returns the number of hedged requests responded before the straggling servers.
+   * <p>Should be called after calling {@link #getResponse()}.
+   */
+  public int getNumHedgedRequestsWon() {
+    return _numHedgedRequestsWon.get();
+  }
+
   /**
    * Returns the statistics for the servers the query sent to.
    * <p>Should be called after calling {@link #getResponse()}.
@@ -82,16 +156,139 @@ public class AsyncQueryResponse {
 
   void markRequestSubmitted(ServerRoutingInstance serverRoutingInstance) {
     _responseMap.get(serverRoutingInstance).markRequestSubmitted();
+    _serversWithoutStatsRecorded.add(serverRoutingInstance);
+    _pendingServers.add(serverRoutingInstance);
+  }
+
+  Set<ServerRoutingInstance> getServersWithoutStatsRecorded() {
+    return _serversWithoutStatsRecorded;
+  }
+
+  /**
+   * Marks the response stats of the server recorded, returns {@code false} if it is already recorded.
+   */
+  boolean markStatsRecorded(ServerRoutingInstance serverRoutingInstance) {
+    return _serversWithoutStatsRecorded.remove(serverRoutingInstance);
+  }
+
+  /**
+   * Returns the servers the request is submitted to but not responded yet (not counting the hedged requests).
+   */
+  Set<ServerRoutingInstance> getPendingServers() {
+    return _pendingServers;
+  }
+
+  long getTimeSinceRequestSubmittedMs(ServerRoutingInstance serverRoutingInstance) {
+    return System.currentTimeMillis() - _responseMap.get(serverRoutingInstance).getSubmitRequestTimeMs();
+  }
+
+  /**
+   * Returns {@code true} if the query timed out before all the servers responded (not failed).
+   * <p>Should be called after calling {@link #getResponse()}.
+   */
+  boolean isTimedOut() {
+    return _timedOut;
+  }
+
+  long getTimeoutMs() {
+    return _timeoutMs;
+  }
+
+  long getMaxEndTimeMs() {
+    return _maxEndTimeMs;
   }
 
-  void markRequestSent(ServerRoutingInstance serverRoutingInstance, long requestSentLatencyMs) {
-    _responseMap.get(serverRoutingInstance).markRequestSent(requestSentLatencyMs);
+  long getRequestId() {
+    return _requestId;
+  }
+
+  InstanceRequest getInstanceRequest(ServerRoutingInstance serverRoutingInstance) {
+    return _requestMap.get(serverRoutingInstance);
+  }
+
+  /**
+   * NOTE: The hedged requests are looked up by their own request id instead of the server, so that a hedged request
+   *       sent to a server also queried by the primary request does not overwrite the stats of the primary request.
+   */
+  void markRequestSent(long requestId, ServerRoutingInstance serverRoutingInstance, long requestSentLatencyMs) {
+    ServerResponse serverResponse;
+    if (requestId == _requestId) {
+      serverResponse = _responseMap.get(serverRoutingInstance);
+    } else {
+      HedgedRequest hedgedRequest = _hedgedRequestMap.get(requestId);
+      serverResponse = hedgedRequest != null ? hedgedRequest._serverResponse : null;
+    }
+    if (serverResponse != null) {
+      serverResponse.markRequestSent(requestSentLatencyMs);
+    }
   }
 
   void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
       int deserializationTimeMs) {
-    _responseMap.get(serverRoutingInstance).receiveDataTable(dataTable, responseSize, deserializationTimeMs);
-    _countDownLatch.countDown();
+    _pendingServers.remove(serverRoutingInstance);
+    // Ignore the response if the hedged request already responded
+    if (_respondedServers.add(serverRoutingInstance)) {
+      _responseMap.get(serverRoutingInstance).receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+      _countDownLatch.countDown();
+    }
+  }
+
+  /**
+   * Adds a hedged request for the given straggling server. Should be called before sending the hedged request.
+   */
+  void addHedgedRequest(long hedgedRequestId, ServerRoutingInstance stragglingServer,
+      ServerRoutingInstance hedgedServer, long startTimeMs) {
+    _hedgedRequestMap.put(hedgedRequestId,
+        new HedgedRequest(hedgedRequestId, stragglingServer, hedgedServer, new ServerResponse(startTimeMs)));
+    _hedgedServers.add(stragglingServer);
+  }
+
+  /**
+   * Removes the hedged request (e.g. failed to send the request).
+   */
+  void removeHedgedRequest(long hedgedRequestId) {
+    HedgedRequest hedgedRequest = _hedgedRequestMap.remove(hedgedRequestId);
+    if (hedgedRequest != null) {
+      _hedgedServers.remove(hedgedRequest._stragglingServer);
+    }
+  }
+
+  void markHedgedRequestSubmitted(long hedgedRequestId) {
+    _hedgedRequestMap.get(hedgedRequestId)._serverResponse.markRequestSubmitted();
+  }
+
+  Collection<HedgedRequest> getHedgedRequests() {
+    return _hedgedRequestMap.values();
+  }
+
+  @Nullable
+  HedgedRequest getHedgedRequest(long hedgedRequestId) {
+    return _hedgedRequestMap.get(hedgedRequestId);
+  }
+
+  boolean isServerResponded(ServerRoutingInstance serverRoutingInstance) {
+    return _respondedServers.contains(serverRoutingInstance);
+  }
+
+  /**
+   * NOTE: Only use the hedged response without exceptions so that a failed hedged request does not fail the query. The
+   *       straggling server can still respond.
+   */
+  void receiveHedgedDataTable(long hedgedRequestId, DataTable dataTable, int responseSize,
+      int deserializationTimeMs) {
+    HedgedRequest hedgedRequest = _hedgedRequestMap.get(hedgedRequestId);
+    if (hedgedRequest != null) {
+      hedgedRequest._responseReceived = true;
+    }
+    // Ignore the response if the straggling server already responded
+    if (hedgedRequest != null && dataTable.getExceptions().isEmpty() && _respondedServers
+        .add(hedgedRequest._stragglingServer)) {
+      ServerResponse serverResponse = hedgedRequest._serverResponse;
+      serverResponse.receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+      _responseMap.put(hedgedRequest._stragglingServer, serverResponse);
+      _numHedgedRequestsWon.incrementAndGet();
+      _countDownLatch.countDown();
+    }
   }
 
   void markQueryFailed() {
@@ -107,7 +304,8 @@ public class AsyncQueryResponse {
    */
   void markServerDown(ServerRoutingInstance serverRoutingInstance) {
     ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
-    if (serverResponse != null && serverResponse.getDataTable() == null) {
+    if (serverResponse != null && serverResponse.getDataTable() == null
+        && !_hedgedServers.contains(serverRoutingInstance)) {
       markQueryFailed();
     }
   }
@@ -119,4 +317,35 @@ public class AsyncQueryResponse {
   void setBrokerRequestSendException(Exception brokerRequestSendException) {
     _brokerRequestSendException = brokerRequestSendException;
   }
+
+  static class HedgedRequest {
+    final long _hedgedRequestId;
+    final ServerRoutingInstance _stragglingServer;
+    final ServerRoutingInstance _hedgedServer;
+    final ServerResponse _serverResponse;
+    final AtomicBoolean _statsRecorded = new AtomicBoolean();
+    volatile boolean _responseReceived;
+
+    HedgedRequest(long hedgedRequestId, ServerRoutingInstance stragglingServer, ServerRoutingInstance hedgedServer,
+        ServerResponse serverResponse) {
+      _hedgedRequestId = hedgedRequestId;
+      _stragglingServer = stragglingServer;
+      _hedgedServer = hedgedServer;
+      _serverResponse = serverResponse;
+    }
+
+    /**
+     * Marks the response stats of the hedged server recorded, returns {@code false} if it is already recorded.
+     */
+    boolean markStatsRecorded() {
+      return _statsRecorded.compareAndSet(false, true);
+    }
+
+    /**
+     * Returns {@code true} if the hedged request is submitted to the hedged server but not responded yet.
+     */
+    boolean isPending() {
+      return _serverResponse.getSubmitDelayMs() >= 0 && !_responseReceived;
+    }
+  }
 }
@@ -20,12 +20,15 @@ package org.apache.pinot.core.transport;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.exception.QueryException;
@@ -50,6 +53,8 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@code InstanceRequestHandler} is the Netty inbound handler on Pinot Server side to handle the serialized
  * instance requests sent from Pinot Broker.
+ * <p>One handler is created for each channel (i.e. each broker), and it tracks the queries running for the broker so
+ * that they can be cancelled when the broker sends a cancel request (e.g. the query timed out on the broker side).
  */
 public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf> {
   private static final Logger LOGGER = LoggerFactory.getLogger(InstanceRequestHandler.class);
@@ -60,6 +65,8 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
   private final TDeserializer _deserializer = new TDeserializer(new TCompactProtocol.Factory());
   private final QueryScheduler _queryScheduler;
   private final ServerMetrics _serverMetrics;
+  // Running queries from the broker, keyed by the request id
+  private final Map<Long, ListenableFuture<byte[]>> _queryFutures = new ConcurrentHashMap<>();
 
   public InstanceRequestHandler(QueryScheduler queryScheduler, ServerMetrics serverMetrics) {
     _queryScheduler = queryScheduler;
@@ -86,19 +93,28 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
       requestBytes = new byte[requestSize];
 
       queryArrivalTimeMs = System.currentTimeMillis();
-      _serverMetrics.addMeteredGlobalValue(ServerMeter.QUERIES, 1);
       _serverMetrics.addMeteredGlobalValue(ServerMeter.NETTY_CONNECTION_BYTES_RECEIVED, requestSize);
 
       // Parse instance request into ServerQueryRequest.
       msg.readBytes(requestBytes);
       _deserializer.deserialize(instanceRequest, requestBytes);
+      if (instanceRequest.isCancel()) {
+        // No response is sent for the cancel request, the broker is no longer waiting for the query response
+        cancelQuery(instanceRequest.getRequestId());
+        return;
+      }
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.QUERIES, 1);
       queryRequest = new ServerQueryRequest(instanceRequest, _serverMetrics, queryArrivalTimeMs);
       queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.REQUEST_DESERIALIZATION, queryArrivalTimeMs)
           .stopAndRecord();
       tableNameWithType = queryRequest.getTableNameWithType();
 
       // Submit query for execution and register callback for execution results.
-      Futures.addCallback(_queryScheduler.submit(queryRequest),
+      // NOTE: Track the query future before registering the callback so that the callback can always remove it.
+      long requestId = instanceRequest.getRequestId();
+      ListenableFuture<byte[]> queryFuture = _queryScheduler.submit(queryRequest);
+      _queryFutures.put(requestId, queryFuture);
+      Futures.addCallback(queryFuture,
           createCallback(ctx, tableNameWithType, queryArrivalTimeMs, instanceRequest, queryRequest), MoreExecutors.directExecutor());
     } catch (Exception e) {
       if (e instanceof TException) {
@@ -119,6 +135,7 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
     return new FutureCallback<byte[]>() {
       @Override
       public void onSuccess(@Nullable byte[] responseBytes) {
+        _queryFutures.remove(instanceRequest.getRequestId());
         if (responseBytes != null) {
           // responseBytes contains either query results or exception.
           sendResponse(ctx, queryRequest.getTableNameWithType(), queryArrivalTimeMs, responseBytes);
@@ -131,6 +148,13 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
 
       @Override
       public void onFailure(Throwable t) {
+        _queryFutures.remove(instanceRequest.getRequestId());
+        if (t instanceof CancellationException) {
+          // Query cancelled by the broker, no need to send the response
+          LOGGER.debug("Query: {} from broker: {} is cancelled", instanceRequest.getRequestId(),
+              instanceRequest.getBrokerId());
+          return;
+        }
         // Send exception response.
         LOGGER.error("Exception while processing instance request", t);
         sendErrorResponse(ctx, instanceRequest.getRequestId(), tableNameWithType, queryArrivalTimeMs, DataTableBuilder.getEmptyDataTable(),
@@ -139,6 +163,28 @@ public class InstanceRequestHandler extends SimpleChannelInboundHandler<ByteBuf>
     };
   }
 
+  /**
+   * Cancels the running query with the given request id, interrupts the query execution threads so that the query can
+   * early terminate and release the resources.
+   */
+  private void cancelQuery(long requestId) {
+    ListenableFuture<byte[]> queryFuture = _queryFutures.remove(requestId);
+    if (queryFuture != null && queryFuture.cancel(true)) {
+      LOGGER.info("Cancelled query: {}", requestId);
+      _serverMetrics.addMeteredGlobalValue(ServerMeter.QUERIES_CANCELLED, 1);
+    }
+  }
+
+  @Override
+  public void channelInactive(ChannelHandlerContext ctx)
+      throws Exception {
+    // The broker is disconnected, no one is waiting for the responses of the running queries
+    for (Long requestId : _queryFutures.keySet()) {
+      cancelQuery(requestId);
+    }
+    super.channelInactive(ctx);
+  }
+
   @Override
   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
     // All exceptions should be caught and handled in channelRead0 method. This is a fallback method that
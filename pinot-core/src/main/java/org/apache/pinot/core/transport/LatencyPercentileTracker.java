@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The {@code LatencyPercentileTracker} keeps the most recent latencies and tracks the configured percentile of them.
+ * The percentile is recomputed periodically instead of on every new latency so that recording stays cheap, and is not
+ * available until enough latencies are recorded.
+ * <p>It is shared by the per server adaptive timeout ({@link AdaptiveServerTimeoutManager}) and the per table hedged
+ * request delay on the broker.
+ */
+@ThreadSafe
+public class LatencyPercentileTracker {
+  // Number of the most recent latencies kept to compute the percentile
+  private static final int NUM_LATENCY_SAMPLES = 1024;
+  // Min number of the latency samples required to compute the percentile
+  private static final int MIN_NUM_LATENCY_SAMPLES = 100;
+  // Recompute the percentile after the given number of new latency samples
+  private static final int PERCENTILE_RECOMPUTE_INTERVAL = 100;
+
+  private final double _percentile;
+
+  // Guarded by this
+  private final long[] _latencySamples = new long[NUM_LATENCY_SAMPLES];
+  private long _numLatencySamples;
+
+  private volatile long _percentileLatencyMs = -1;
+
+  public LatencyPercentileTracker(double percentile) {
+    Preconditions.checkArgument(percentile > 0 && percentile <= 100, "Percentile must be in range (0, 100], got: %s",
+        percentile);
+    _percentile = percentile;
+  }
+
+  /**
+   * Returns the percentile of the recent latencies in milliseconds, or -1 if there are not enough latency samples yet.
+   */
+  public long getPercentileLatencyMs() {
+    return _percentileLatencyMs;
+  }
+
+  public synchronized void recordLatency(long latencyMs) {
+    _latencySamples[(int) (_numLatencySamples++ % NUM_LATENCY_SAMPLES)] = latencyMs;
+    if (_numLatencySamples >= MIN_NUM_LATENCY_SAMPLES && _numLatencySamples % PERCENTILE_RECOMPUTE_INTERVAL == 0) {
+      int numSamples = (int) Math.min(_numLatencySamples, NUM_LATENCY_SAMPLES);
+      long[] sortedSamples = Arrays.copyOf(_latencySamples, numSamples);
+      Arrays.sort(sortedSamples);
+      int index = Math.max((int) Math.ceil(_percentile / 100 * numSamples) - 1, 0);
+      _percentileLatencyMs = sortedSamples[index];
+    }
+  }
+}
@@ -18,11 +18,13 @@
  */
 package org.apache.pinot.core.transport;
 
+import com.google.common.base.Preconditions;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -52,6 +54,19 @@ public class QueryRouter {
   private final ServerChannels _serverChannels;
   private final ServerChannels _serverChannelsTls;
   private final ConcurrentHashMap<Long, AsyncQueryResponse> _asyncQueryResponseMap = new ConcurrentHashMap<>();
+  // Stats for the adaptive instance selection, null if not enabled
+  private final ServerRoutingStatsManager _serverRoutingStatsManager;
+  private final ConcurrentHashMap<ServerRoutingInstance, String> _serverToInstanceIdMap = new ConcurrentHashMap<>();
+  // Generates negative request ids for the hedged requests so that they do not collide with the broker request ids
+  private final AtomicLong _hedgedRequestIdGenerator = new AtomicLong();
+  // Whether to send cancel requests to the servers not responded when the query is done
+  private final boolean _queryCancellationEnabled;
+  // Whether to propagate the absolute deadline to the servers
+  private final boolean _queryDeadlinePropagationEnabled;
+  // Adaptive per server timeout used to derive the deadlines, null if not enabled
+  private final AdaptiveServerTimeoutManager _serverTimeoutManager;
+  // Time reserved before the broker stops waiting for the network transfer and the reduce of the server responses
+  private final long _deadlineMarginMs;
 
   /**
    * Create an unsecured query router
@@ -64,6 +79,11 @@ public class QueryRouter {
     _brokerMetrics = brokerMetrics;
     _serverChannels = new ServerChannels(this, brokerMetrics);
     _serverChannelsTls = null;
+    _serverRoutingStatsManager = null;
+    _queryCancellationEnabled = false;
+    _queryDeadlinePropagationEnabled = false;
+    _serverTimeoutManager = null;
+    _deadlineMarginMs = 0;
   }
 
   /**
@@ -74,11 +94,89 @@ public class QueryRouter {
    * @param tlsConfig TLS config
    */
   public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, TlsConfig tlsConfig) {
+    this(brokerId, brokerMetrics, tlsConfig, null);
+  }
+
+  /**
+   * Create a query router with TLS config, which records the per server stats for the adaptive instance selection
+   *
+   * @param brokerId broker id
+   * @param brokerMetrics broker metrics
+   * @param tlsConfig TLS config
+   * @param serverRoutingStatsManager manager to record the per server stats to, null if not needed
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, TlsConfig tlsConfig,
+      @Nullable ServerRoutingStatsManager serverRoutingStatsManager) {
+    this(brokerId, brokerMetrics, tlsConfig, serverRoutingStatsManager, false);
+  }
+
+  /**
+   * Create a query router with TLS config, which records the per server stats for the adaptive instance selection, and
+   * optionally cancels the queries on the servers not responded when the query is done (e.g. timed out)
+   *
+   * @param brokerId broker id
+   * @param brokerMetrics broker metrics
+   * @param tlsConfig TLS config
+   * @param serverRoutingStatsManager manager to record the per server stats to, null if not needed
+   * @param queryCancellationEnabled whether to send cancel requests to the servers not responded
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, TlsConfig tlsConfig,
+      @Nullable ServerRoutingStatsManager serverRoutingStatsManager, boolean queryCancellationEnabled) {
+    this(brokerId, brokerMetrics, tlsConfig, serverRoutingStatsManager, queryCancellationEnabled, false, null);
+  }
+
+  /**
+   * Create a query router with TLS config, which records the per server stats for the adaptive instance selection,
+   * optionally cancels the queries on the servers not responded when the query is done (e.g. timed out), and optionally
+   * propagates the absolute deadline (derived from the adaptive per server timeout if enabled) to the servers
+   *
+   * @param brokerId broker id
+   * @param brokerMetrics broker metrics
+   * @param tlsConfig TLS config
+   * @param serverRoutingStatsManager manager to record the per server stats to, null if not needed
+   * @param queryCancellationEnabled whether to send cancel requests to the servers not responded
+   * @param queryDeadlinePropagationEnabled whether to propagate the absolute deadline to the servers
+   * @param serverTimeoutManager manager to derive the per server timeout from, null to use the query timeout
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, TlsConfig tlsConfig,
+      @Nullable ServerRoutingStatsManager serverRoutingStatsManager, boolean queryCancellationEnabled,
+      boolean queryDeadlinePropagationEnabled, @Nullable AdaptiveServerTimeoutManager serverTimeoutManager) {
+    this(brokerId, brokerMetrics, tlsConfig, serverRoutingStatsManager, queryCancellationEnabled,
+        queryDeadlinePropagationEnabled, serverTimeoutManager, 0);
+  }
+
+  /**
+   * Create a query router with TLS config, which records the per server stats for the adaptive instance selection,
+   * optionally cancels the queries on the servers not responded when the query is done (e.g. timed out), and optionally
+   * propagates the absolute deadline (derived from the adaptive per server timeout if enabled, minus the deadline
+   * margin) to the servers
+   *
+   * @param brokerId broker id
+   * @param brokerMetrics broker metrics
+   * @param tlsConfig TLS config
+   * @param serverRoutingStatsManager manager to record the per server stats to, null if not needed
+   * @param queryCancellationEnabled whether to send cancel requests to the servers not responded
+   * @param queryDeadlinePropagationEnabled whether to propagate the absolute deadline to the servers
+   * @param serverTimeoutManager manager to derive the per server timeout from, null to use the query timeout
+   * @param deadlineMarginMs time subtracted from the deadline so that the server responses (e.g. partial results)
+   *                         arrive before the broker stops waiting
+   */
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, TlsConfig tlsConfig,
+      @Nullable ServerRoutingStatsManager serverRoutingStatsManager, boolean queryCancellationEnabled,
+      boolean queryDeadlinePropagationEnabled, @Nullable AdaptiveServerTimeoutManager serverTimeoutManager,
+      long deadlineMarginMs) {
+    Preconditions.checkArgument(deadlineMarginMs >= 0, "Deadline margin must be non-negative, got: %s",
+        deadlineMarginMs);
     _brokerId = brokerId;
     _brokerMetrics = brokerMetrics;
     _serverChannels = new ServerChannels(this, brokerMetrics);
     _serverChannelsTls =
         Optional.ofNullable(tlsConfig).map(conf -> new ServerChannels(this, brokerMetrics, conf)).orElse(null);
+    _serverRoutingStatsManager = serverRoutingStatsManager;
+    _queryCancellationEnabled = queryCancellationEnabled;
+    _queryDeadlinePropagationEnabled = queryDeadlinePropagationEnabled;
+    _serverTimeoutManager = serverTimeoutManager;
+    _deadlineMarginMs = deadlineMarginMs;
   }
 
   public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
@@ -99,6 +197,7 @@ public class QueryRouter {
             entry.getKey().toServerRoutingInstance(TableType.OFFLINE, preferTls);
         InstanceRequest instanceRequest = getInstanceRequest(requestId, offlineBrokerRequest, entry.getValue());
         requestMap.put(serverRoutingInstance, instanceRequest);
+        trackInstanceId(serverRoutingInstance, entry.getKey());
       }
     }
     if (realtimeBrokerRequest != null) {
@@ -108,12 +207,21 @@ public class QueryRouter {
             entry.getKey().toServerRoutingInstance(TableType.REALTIME, preferTls);
         InstanceRequest instanceRequest = getInstanceRequest(requestId, realtimeBrokerRequest, entry.getValue());
         requestMap.put(serverRoutingInstance, instanceRequest);
+        trackInstanceId(serverRoutingInstance, entry.getKey());
+      }
+    }
+
+    // Propagate the deadline to the servers
+    long startTimeMs = System.currentTimeMillis();
+    if (_queryDeadlinePropagationEnabled) {
+      for (Map.Entry<ServerRoutingInstance, InstanceRequest> entry : requestMap.entrySet()) {
+        entry.getValue().setDeadlineMs(getServerDeadlineMs(entry.getKey(), startTimeMs, timeoutMs));
       }
     }
 
     // Create the asynchronous query response with the request map
     AsyncQueryResponse asyncQueryResponse =
-        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs);
+        new AsyncQueryResponse(this, requestId, requestMap, startTimeMs, timeoutMs);
     _asyncQueryResponseMap.put(requestId, asyncQueryResponse);
     for (Map.Entry<ServerRoutingInstance, InstanceRequest> entry : requestMap.entrySet()) {
       ServerRoutingInstance serverRoutingInstance = entry.getKey();
@@ -121,6 +229,9 @@ public class QueryRouter {
       try {
         serverChannels.sendRequest(rawTableName, asyncQueryResponse, serverRoutingInstance, entry.getValue());
         asyncQueryResponse.markRequestSubmitted(serverRoutingInstance);
+        if (_serverRoutingStatsManager != null) {
+          _serverRoutingStatsManager.recordRequestSubmitted(_serverToInstanceIdMap.get(serverRoutingInstance));
+        }
       } catch (Exception e) {
         LOGGER.error("Caught exception while sending request {} to server: {}, marking query failed", requestId,
             serverRoutingInstance, e);
@@ -134,6 +245,61 @@ public class QueryRouter {
     return asyncQueryResponse;
   }
 
+  /**
+   * Sends a hedged request to the given alternate server for all the segments queried on the given straggling server,
+   * returns {@code true} if the request is sent successfully. Whichever of the straggling server and the alternate
+   * server responds first is used as the response of the straggling server.
+   * <p>The alternate server should host all the segments queried on the straggling server.
+   */
+  public boolean submitHedgedRequest(String rawTableName, AsyncQueryResponse asyncQueryResponse,
+      ServerRoutingInstance stragglingServer, ServerInstance alternateServer) {
+    InstanceRequest stragglingRequest = asyncQueryResponse.getInstanceRequest(stragglingServer);
+    long hedgedRequestId = -_hedgedRequestIdGenerator.incrementAndGet();
+    InstanceRequest hedgedRequest =
+        getInstanceRequest(hedgedRequestId, stragglingRequest.getQuery(), stragglingRequest.getSearchSegments());
+    ServerRoutingInstance hedgedServer =
+        alternateServer.toServerRoutingInstance(stragglingServer.getTableType(), _serverChannelsTls != null);
+    trackInstanceId(hedgedServer, alternateServer);
+    long startTimeMs = System.currentTimeMillis();
+    if (_queryDeadlinePropagationEnabled) {
+      hedgedRequest.setDeadlineMs(
+          getServerDeadlineMs(hedgedServer, startTimeMs, asyncQueryResponse.getMaxEndTimeMs() - startTimeMs));
+    }
+    asyncQueryResponse.addHedgedRequest(hedgedRequestId, stragglingServer, hedgedServer, startTimeMs);
+    _asyncQueryResponseMap.put(hedgedRequestId, asyncQueryResponse);
+    ServerChannels serverChannels = hedgedServer.isTlsEnabled() ? _serverChannelsTls : _serverChannels;
+    try {
+      serverChannels.sendRequest(rawTableName, asyncQueryResponse, hedgedServer, hedgedRequest);
+      asyncQueryResponse.markHedgedRequestSubmitted(hedgedRequestId);
+      if (_serverRoutingStatsManager != null) {
+        _serverRoutingStatsManager.recordRequestSubmitted(_serverToInstanceIdMap.get(hedgedServer));
+      }
+      return true;
+    } catch (Exception e) {
+      // Do not fail the query because the straggling server can still respond
+      LOGGER.warn("Caught exception while sending hedged request {} for request {} to server: {}", hedgedRequestId,
+          asyncQueryResponse.getRequestId(), hedgedServer, e);
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REQUEST_SEND_EXCEPTIONS, 1);
+      _asyncQueryResponseMap.remove(hedgedRequestId);
+      asyncQueryResponse.removeHedgedRequest(hedgedRequestId);
+      return false;
+    }
+  }
+
+  /**
+   * Cancels the running query with the given request id (e.g. the client disconnected), returns {@code false} if the
+   * query is not running. The caller waiting on the {@link AsyncQueryResponse} is unblocked with the responses received
+   * so far, and the cancel requests are sent to the servers not responded if query cancellation is enabled.
+   */
+  public boolean cancelQuery(long requestId) {
+    AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.get(requestId);
+    if (asyncQueryResponse == null) {
+      return false;
+    }
+    asyncQueryResponse.markQueryFailed();
+    return true;
+  }
+
   public void shutDown() {
     _serverChannels.shutDown();
   }
@@ -145,7 +311,26 @@ public class QueryRouter {
 
     // Query future might be null if the query is already done (maybe due to failure)
     if (asyncQueryResponse != null) {
-      asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs);
+      boolean failed = !dataTable.getExceptions().isEmpty();
+      if (requestId == asyncQueryResponse.getRequestId()) {
+        asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs);
+        recordServerResponse(asyncQueryResponse, serverRoutingInstance, failed);
+        // NOTE: The requests not responded are recorded when the query is done
+        if (_serverTimeoutManager != null) {
+          _serverTimeoutManager.recordLatency(_serverToInstanceIdMap.get(serverRoutingInstance),
+              asyncQueryResponse.getTimeSinceRequestSubmittedMs(serverRoutingInstance));
+        }
+      } else {
+        asyncQueryResponse.receiveHedgedDataTable(requestId, dataTable, responseSize, deserializationTimeMs);
+        AsyncQueryResponse.HedgedRequest hedgedRequest = asyncQueryResponse.getHedgedRequest(requestId);
+        if (hedgedRequest != null) {
+          recordHedgedServerResponse(hedgedRequest, failed);
+          if (_serverTimeoutManager != null) {
+            _serverTimeoutManager.recordLatency(_serverToInstanceIdMap.get(hedgedRequest._hedgedServer),
+                System.currentTimeMillis() - hedgedRequest._serverResponse.getSubmitRequestTimeMs());
+          }
+        }
+      }
     }
   }
 
@@ -156,7 +341,129 @@ public class QueryRouter {
   }
 
   void markQueryDone(long requestId) {
-    _asyncQueryResponseMap.remove(requestId);
+    AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.remove(requestId);
+    if (asyncQueryResponse == null) {
+      return;
+    }
+    for (AsyncQueryResponse.HedgedRequest hedgedRequest : asyncQueryResponse.getHedgedRequests()) {
+      _asyncQueryResponseMap.remove(hedgedRequest._hedgedRequestId);
+    }
+    if (_queryCancellationEnabled) {
+      // Cancel the queries still running on the servers (including the hedged requests lost to the straggling servers)
+      // so that the servers can stop wasting resources on them
+      for (ServerRoutingInstance serverRoutingInstance : asyncQueryResponse.getPendingServers()) {
+        sendCancelRequest(requestId, serverRoutingInstance);
+      }
+      for (AsyncQueryResponse.HedgedRequest hedgedRequest : asyncQueryResponse.getHedgedRequests()) {
+        if (hedgedRequest.isPending()) {
+          sendCancelRequest(hedgedRequest._hedgedRequestId, hedgedRequest._hedgedServer);
+        }
+      }
+    }
+    if (_serverTimeoutManager != null) {
+      recordMissingResponses(asyncQueryResponse);
+    }
+    if (_serverRoutingStatsManager != null) {
+      // Servers not responded in time (timed out or failed)
+      for (ServerRoutingInstance serverRoutingInstance : asyncQueryResponse.getServersWithoutStatsRecorded()) {
+        recordServerResponse(asyncQueryResponse, serverRoutingInstance, true);
+      }
+      // Hedged requests not responded in time, only count them as failed when the straggling server did not respond
+      // either
+      for (AsyncQueryResponse.HedgedRequest hedgedRequest : asyncQueryResponse.getHedgedRequests()) {
+        recordHedgedServerResponse(hedgedRequest,
+            !asyncQueryResponse.isServerResponded(hedgedRequest._stragglingServer));
+      }
+    }
+  }
+
+  /**
+   * Records the requests not responded when the query is done for the adaptive server timeout, so that the timeout is
+   * not derived only from the responses fast enough to be received. When the query timed out, they are recorded at the
+   * current server timeout. Otherwise (e.g. the hedged request responded first), they are recorded at the time waited
+   * so far, which is a lower bound of the latency.
+   */
+  private void recordMissingResponses(AsyncQueryResponse asyncQueryResponse) {
+    long currentTimeMs = System.currentTimeMillis();
+    boolean timedOut = asyncQueryResponse.isTimedOut();
+    long queryTimeoutMs = asyncQueryResponse.getTimeoutMs();
+    for (ServerRoutingInstance serverRoutingInstance : asyncQueryResponse.getPendingServers()) {
+      String instanceId = _serverToInstanceIdMap.get(serverRoutingInstance);
+      if (timedOut) {
+        _serverTimeoutManager.recordTimeout(instanceId, queryTimeoutMs);
+      } else {
+        _serverTimeoutManager
+            .recordLatency(instanceId, asyncQueryResponse.getTimeSinceRequestSubmittedMs(serverRoutingInstance));
+      }
+    }
+    for (AsyncQueryResponse.HedgedRequest hedgedRequest : asyncQueryResponse.getHedgedRequests()) {
+      if (hedgedRequest.isPending()) {
+        String instanceId = _serverToInstanceIdMap.get(hedgedRequest._hedgedServer);
+        if (timedOut) {
+          _serverTimeoutManager.recordTimeout(instanceId, queryTimeoutMs);
+        } else {
+          _serverTimeoutManager
+              .recordLatency(instanceId, currentTimeMs - hedgedRequest._serverResponse.getSubmitRequestTimeMs());
+        }
+      }
+    }
+  }
+
+  private void sendCancelRequest(long requestId, ServerRoutingInstance serverRoutingInstance) {
+    InstanceRequest cancelRequest = new InstanceRequest();
+    cancelRequest.setRequestId(requestId);
+    // NOTE: Query is a required field, set an empty one because it is not used by the cancel request
+    cancelRequest.setQuery(new BrokerRequest());
+    cancelRequest.setBrokerId(_brokerId);
+    cancelRequest.setCancel(true);
+    ServerChannels serverChannels = serverRoutingInstance.isTlsEnabled() ? _serverChannelsTls : _serverChannels;
+    try {
+      serverChannels.sendCancelRequest(serverRoutingInstance, cancelRequest);
+    } catch (Exception e) {
+      // Best effort, the query will still be terminated on the server when it times out
+      LOGGER.warn("Caught exception while sending cancel request {} to server: {}", requestId, serverRoutingInstance,
+          e);
+    }
+  }
+
+  private void trackInstanceId(ServerRoutingInstance serverRoutingInstance, ServerInstance serverInstance) {
+    if (_serverRoutingStatsManager != null || _serverTimeoutManager != null) {
+      _serverToInstanceIdMap.putIfAbsent(serverRoutingInstance, serverInstance.getInstanceId());
+    }
+  }
+
+  /**
+   * Records the response stats of the server for the adaptive instance selection. Stats are recorded at most once per
+   * server per query.
+   */
+  private void recordServerResponse(AsyncQueryResponse asyncQueryResponse, ServerRoutingInstance serverRoutingInstance,
+      boolean failed) {
+    if (_serverRoutingStatsManager != null && asyncQueryResponse.markStatsRecorded(serverRoutingInstance)) {
+      long latencyMs = asyncQueryResponse.getTimeSinceRequestSubmittedMs(serverRoutingInstance);
+      _serverRoutingStatsManager
+          .recordResponse(_serverToInstanceIdMap.get(serverRoutingInstance), latencyMs, failed);
+    }
+  }
+
+  private void recordHedgedServerResponse(AsyncQueryResponse.HedgedRequest hedgedRequest, boolean failed) {
+    if (_serverRoutingStatsManager != null && hedgedRequest.markStatsRecorded()) {
+      long latencyMs = System.currentTimeMillis() - hedgedRequest._serverResponse.getSubmitRequestTimeMs();
+      _serverRoutingStatsManager
+          .recordResponse(_serverToInstanceIdMap.get(hedgedRequest._hedgedServer), latencyMs, failed);
+    }
+  }
+
+  /**
+   * Returns the deadline of the request sent to the given server, which is the end of the remaining query time, or
+   * earlier if the adaptive timeout of the server is shorter, minus the deadline margin so that the server stops early
+   * enough for its response to reach the broker and be reduced before the broker stops waiting. At most half of the
+   * server timeout is taken by the margin.
+   */
+  private long getServerDeadlineMs(ServerRoutingInstance serverRoutingInstance, long currentTimeMs,
+      long remainingTimeMs) {
+    long serverTimeoutMs = _serverTimeoutManager != null ? _serverTimeoutManager
+        .getServerTimeoutMs(_serverToInstanceIdMap.get(serverRoutingInstance), remainingTimeMs) : remainingTimeMs;
+    return currentTimeMs + serverTimeoutMs - Math.min(_deadlineMarginMs, serverTimeoutMs / 2);
   }
 
   private InstanceRequest getInstanceRequest(long requestId, BrokerRequest brokerRequest, List<String> segments) {
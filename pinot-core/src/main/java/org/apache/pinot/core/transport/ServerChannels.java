@@ -86,6 +86,18 @@ public class ServerChannels {
         .sendRequest(rawTableName, asyncQueryResponse, serverRoutingInstance, instanceRequest);
   }
 
+  /**
+   * Sends a cancel request to the server to stop executing the query. No-op if the server is not connected, in which
+   * case the server already cancelled the queries from the broker when the channel became inactive.
+   */
+  public void sendCancelRequest(ServerRoutingInstance serverRoutingInstance, InstanceRequest instanceRequest)
+      throws Exception {
+    ServerChannel serverChannel = _serverToChannelMap.get(serverRoutingInstance);
+    if (serverChannel != null) {
+      serverChannel.sendCancelRequest(instanceRequest);
+    }
+  }
+
   public void shutDown() {
     // Shut down immediately
     _eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS);
@@ -153,10 +165,21 @@ public class ServerChannels {
         long requestSentLatencyMs = System.currentTimeMillis() - sendRequestStartTimeMs;
         _brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.NETTY_CONNECTION_SEND_REQUEST_LATENCY,
             requestSentLatencyMs, TimeUnit.MILLISECONDS);
-        asyncQueryResponse.markRequestSent(serverRoutingInstance, requestSentLatencyMs);
+        asyncQueryResponse.markRequestSent(instanceRequest.getRequestId(), serverRoutingInstance, requestSentLatencyMs);
       });
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_REQUESTS_SENT, 1);
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_SENT, requestBytes.length);
     }
+
+    synchronized void sendCancelRequest(InstanceRequest instanceRequest)
+        throws Exception {
+      if (_channel == null || !_channel.isActive()) {
+        return;
+      }
+      byte[] requestBytes = _serializer.serialize(instanceRequest);
+      _channel.writeAndFlush(Unpooled.wrappedBuffer(requestBytes));
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.SERVER_CANCEL_REQUESTS_SENT, 1);
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_SENT, requestBytes.length);
+    }
   }
 }
@@ -28,6 +28,7 @@ public class ServerInstance {
   private static final int SERVER_INSTANCE_PREFIX_LENGTH = Helix.PREFIX_OF_SERVER_INSTANCE.length();
   private static final String HOSTNAME_PORT_DELIMITER = "_";
 
+  private final String _instanceId;
   private final String _hostname;
   private final int _port;
   private final int _tlsPort;
@@ -37,6 +38,7 @@ public class ServerInstance {
    * {@code Server_localhost_12345}, hostname is of format: {@code Server_<hostname>}, e.g. {@code Server_localhost}.
    */
   public ServerInstance(InstanceConfig instanceConfig) {
+    _instanceId = instanceConfig.getInstanceName();
     String hostname = instanceConfig.getHostName();
     if (hostname != null) {
       if (hostname.startsWith(Helix.PREFIX_OF_SERVER_INSTANCE)) {
@@ -66,6 +68,14 @@ public class ServerInstance {
     _hostname = hostname;
     _port = port;
     _tlsPort = -1;
+    _instanceId = toString();
+  }
+
+  /**
+   * Returns the Helix instance id of the server, which is used by the routing to identify the server.
+   */
+  public String getInstanceId() {
+    return _instanceId;
   }
 
   public String getHostname() {
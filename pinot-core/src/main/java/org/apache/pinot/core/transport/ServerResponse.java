@@ -81,6 +81,10 @@ public class ServerResponse {
         getDeserializationTimeMs(), getRequestSentDelayMs());
   }
 
+  long getSubmitRequestTimeMs() {
+    return _submitRequestTimeMs;
+  }
+
   void markRequestSubmitted() {
     _submitRequestTimeMs = System.currentTimeMillis();
   }
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.BrokerGauge;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+
+
+/**
+ * The {@code ServerRoutingStatsManager} class tracks the recent latency, number of in-flight requests and error rate of
+ * each server queried by the broker, and scores the servers for the adaptive instance selection so that the queries can
+ * be routed away from the slow, busy or failing servers.
+ * <p>The score follows the replica ranking function of C3: {@code (latency + 1) * (numInFlightRequests + 1)^3}, where
+ * the cubic term penalizes the servers with long queues much more than the servers with high latency, so that a newly
+ * fast server does not get flooded by all the brokers at the same time. The score is further penalized by the recent
+ * error (including timeout) rate. Lower score is better.
+ * <p>The stats decay over time when a server is not queried, so that a server that was slow in the past can get traffic
+ * again after it recovers.
+ */
+@ThreadSafe
+public class ServerRoutingStatsManager {
+  // Weight of the latest sample for the exponentially weighted moving averages
+  private static final double EWMA_ALPHA = 0.2;
+  // Half-life of the stats when the server is not queried
+  private static final long DECAY_HALF_LIFE_MS = 10_000L;
+  // Multiplier of the score for a server with 100% error rate is (1 + ERROR_RATE_PENALTY)
+  private static final double ERROR_RATE_PENALTY = 10;
+
+  private final BrokerMetrics _brokerMetrics;
+  private final ConcurrentHashMap<String, ServerRoutingStats> _serverRoutingStatsMap = new ConcurrentHashMap<>();
+
+  public ServerRoutingStatsManager(BrokerMetrics brokerMetrics) {
+    _brokerMetrics = brokerMetrics;
+  }
+
+  /**
+   * Records a request submitted to the given server.
+   */
+  public void recordRequestSubmitted(String instanceId) {
+    ServerRoutingStats stats = _serverRoutingStatsMap.computeIfAbsent(instanceId, k -> new ServerRoutingStats());
+    int numInFlightRequests = stats._numInFlightRequests.incrementAndGet();
+    _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.SERVER_IN_FLIGHT_REQUESTS, instanceId, numInFlightRequests);
+  }
+
+  /**
+   * Records the response (or failure, including timeout) of a request previously submitted to the given server.
+   */
+  public void recordResponse(String instanceId, long latencyMs, boolean failed) {
+    ServerRoutingStats stats = _serverRoutingStatsMap.computeIfAbsent(instanceId, k -> new ServerRoutingStats());
+    int numInFlightRequests = stats._numInFlightRequests.updateAndGet(n -> Math.max(n - 1, 0));
+    long currentTimeMs = System.currentTimeMillis();
+    stats.record(latencyMs, failed, currentTimeMs);
+    _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.SERVER_IN_FLIGHT_REQUESTS, instanceId, numInFlightRequests);
+    _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.SERVER_LATENCY_EWMA_MS, instanceId,
+        (long) stats.getLatencyEwmaMs(currentTimeMs));
+    _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.SERVER_ERROR_RATE_PERCENT, instanceId,
+        (long) (stats.getErrorRate(currentTimeMs) * 100));
+  }
+
+  /**
+   * Returns the score of the given server at the given time, lower is better. Servers without stats have the best
+   * score so that they can be probed.
+   */
+  public double getScore(String instanceId, long currentTimeMs) {
+    ServerRoutingStats stats = _serverRoutingStatsMap.get(instanceId);
+    return stats != null ? stats.getScore(currentTimeMs) : 1.0;
+  }
+
+  @Nullable
+  @VisibleForTesting
+  ServerRoutingStats getServerRoutingStats(String instanceId) {
+    return _serverRoutingStatsMap.get(instanceId);
+  }
+
+  static class ServerRoutingStats {
+    final AtomicInteger _numInFlightRequests = new AtomicInteger();
+
+    // Guarded by this
+    private double _latencyEwmaMs;
+    private double _errorRateEwma;
+    private long _lastUpdateTimeMs;
+
+    synchronized void record(long latencyMs, boolean failed, long currentTimeMs) {
+      double decayFactor = getDecayFactor(currentTimeMs);
+      _latencyEwmaMs = EWMA_ALPHA * latencyMs + (1 - EWMA_ALPHA) * _latencyEwmaMs * decayFactor;
+      _errorRateEwma = EWMA_ALPHA * (failed ? 1 : 0) + (1 - EWMA_ALPHA) * _errorRateEwma * decayFactor;
+      _lastUpdateTimeMs = currentTimeMs;
+    }
+
+    synchronized double getLatencyEwmaMs(long currentTimeMs) {
+      return _latencyEwmaMs * getDecayFactor(currentTimeMs);
+    }
+
+    synchronized double getErrorRate(long currentTimeMs) {
+      return _errorRateEwma * getDecayFactor(currentTimeMs);
+    }
+
+    int getNumInFlightRequests() {
+      return _numInFlightRequests.get();
+    }
+
+    double getScore(long currentTimeMs) {
+      double queueFactor = _numInFlightRequests.get() + 1;
+      return (getLatencyEwmaMs(currentTimeMs) + 1) * queueFactor * queueFactor * queueFactor * (1
+          + ERROR_RATE_PENALTY * getErrorRate(currentTimeMs));
+    }
+
+    private double getDecayFactor(long currentTimeMs) {
+      long elapsedTimeMs = currentTimeMs - _lastUpdateTimeMs;
+      return elapsedTimeMs > 0 ? Math.pow(0.5, (double) elapsedTimeMs / DECAY_HALF_LIFE_MS) : 1.0;
+    }
+  }
+}
@@ -71,6 +71,13 @@ public class QueryOptions {
     return _skipUpsert;
   }
 
+  /**
+   * Returns whether the servers can return the partial results merged before the query times out instead of an error.
+   */
+  public static boolean isAllowPartialResults(@Nullable Map<String, String> queryOptions) {
+    return queryOptions != null && Boolean.parseBoolean(queryOptions.get(Request.QueryOptionKey.ALLOW_PARTIAL_RESULTS));
+  }
+
   @Nullable
   public static Long getTimeoutMs(Map<String, String> queryOptions) {
     String timeoutMsString = queryOptions.get(Request.QueryOptionKey.TIMEOUT_MS);
@@ -38,8 +38,10 @@ import org.apache.pinot.core.data.manager.offline.OfflineTableDataManager;
 import org.apache.pinot.segment.local.data.manager.SegmentDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.segment.local.data.manager.TableDataManagerConfig;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
 import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.testng.Assert;
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
@@ -203,6 +205,37 @@ public class BaseTableDataManagerTest {
     tableDataManager.shutDown();
   }
 
+  @Test
+  public void testEvictIdleColumnsWhenQuiescent()
+      throws Exception {
+    TableDataManager tableDataManager = makeTestableManager();
+    String segmentName = "TestSegment";
+    ImmutableSegmentImpl immutableSegment = mock(ImmutableSegmentImpl.class);
+    SegmentMetadataImpl segmentMetadata = mock(SegmentMetadataImpl.class);
+    when(immutableSegment.getSegmentName()).thenReturn(segmentName);
+    when(immutableSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    tableDataManager.addSegment(immutableSegment);
+
+    // Idle columns should only be evicted when the last query releases the segment
+    SegmentDataManager sdm1 = tableDataManager.acquireSegment(segmentName);
+    SegmentDataManager sdm2 = tableDataManager.acquireSegment(segmentName);
+    tableDataManager.releaseSegment(sdm1);
+    verify(immutableSegment, never()).evictIdleColumns();
+    tableDataManager.releaseSegment(sdm2);
+    verify(immutableSegment, times(1)).evictIdleColumns();
+
+    // Idle columns should not be evicted after the segment is removed while a query is still using it
+    sdm1 = tableDataManager.acquireSegment(segmentName);
+    sdm2 = tableDataManager.acquireSegment(segmentName);
+    tableDataManager.removeSegment(segmentName);
+    tableDataManager.releaseSegment(sdm1);
+    verify(immutableSegment, times(1)).evictIdleColumns();
+    tableDataManager.releaseSegment(sdm2);
+    verify(immutableSegment, times(1)).evictIdleColumns();
+    verify(immutableSegment, times(1)).destroy();
+    tableDataManager.shutDown();
+  }
+
   /*
    * These tests simulate the access of segments via OfflineTableDataManager.
    *
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.segment.local.io.readerwriter.PinotDataBufferMemoryManager;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class AdaptiveFlushControllerTest {
+  private static final long MEMORY_BUDGET_BYTES = 1000;
+  private static final int MIN_FLUSH_ROWS = 10;
+
+  @Test
+  public void testFlushThresholds() {
+    AdaptiveFlushController controller = new AdaptiveFlushController(MEMORY_BUDGET_BYTES, MIN_FLUSH_ROWS, null);
+    PinotDataBufferMemoryManager memoryManager1 = mock(PinotDataBufferMemoryManager.class);
+    PinotDataBufferMemoryManager memoryManager2 = mock(PinotDataBufferMemoryManager.class);
+    AtomicInteger numRows1 = new AtomicInteger();
+    AtomicInteger numRows2 = new AtomicInteger();
+    AdaptiveFlushController.ConsumingSegmentHandle handle1 =
+        controller.register("segment1", memoryManager1, numRows1::get);
+    AdaptiveFlushController.ConsumingSegmentHandle handle2 =
+        controller.register("segment2", memoryManager2, numRows2::get);
+    long now = System.currentTimeMillis() + 1000;
+
+    // Segments under the minimum number of rows should not be flushed
+    numRows1.set(5);
+    numRows2.set(5);
+    when(memoryManager1.getTotalAllocatedBytes()).thenReturn(100L);
+    when(memoryManager2.getTotalAllocatedBytes()).thenReturn(100L);
+    controller.recompute(now);
+    assertEquals(handle1.getCurrentFlushRowThreshold(), Integer.MAX_VALUE);
+    assertEquals(handle2.getCurrentFlushRowThreshold(), Integer.MAX_VALUE);
+
+    // Remaining 600 bytes are split evenly between the segments with the same ingestion rate, 2 bytes per row
+    now += 1000;
+    numRows1.set(100);
+    numRows2.set(100);
+    when(memoryManager1.getTotalAllocatedBytes()).thenReturn(200L);
+    when(memoryManager2.getTotalAllocatedBytes()).thenReturn(200L);
+    controller.recompute(now);
+    assertEquals(handle1.getCurrentFlushRowThreshold(), 250);
+    assertEquals(handle2.getCurrentFlushRowThreshold(), 250);
+
+    // Over the budget, the segment using the most memory should be flushed first
+    now += 1000;
+    numRows1.set(300);
+    numRows2.set(150);
+    when(memoryManager1.getTotalAllocatedBytes()).thenReturn(700L);
+    when(memoryManager2.getTotalAllocatedBytes()).thenReturn(400L);
+    controller.recompute(now);
+    assertEquals(handle1.getCurrentFlushRowThreshold(), 300);
+    // The other segment should not be flushed, and should keep its previous threshold
+    assertEquals(handle2.getCurrentFlushRowThreshold(), 250);
+
+    // The other segment should get some headroom instead of being flushed once it reaches its previous threshold
+    now += 1000;
+    numRows1.set(320);
+    numRows2.set(260);
+    when(memoryManager1.getTotalAllocatedBytes()).thenReturn(800L);
+    when(memoryManager2.getTotalAllocatedBytes()).thenReturn(450L);
+    controller.recompute(now);
+    assertEquals(handle1.getCurrentFlushRowThreshold(), 320);
+    assertTrue(handle2.getCurrentFlushRowThreshold() > 260);
+
+    // Once the flushed segment is released, the remaining segment can use the whole budget
+    controller.unregister("segment1");
+    now += 1000;
+    controller.recompute(now);
+    assertEquals(handle2.getCurrentFlushRowThreshold(), 260 + (int) (550.0 / (450.0 / 260)));
+  }
+
+  @Test
+  public void testSlowSegmentShareFloored() {
+    AdaptiveFlushController controller = new AdaptiveFlushController(MEMORY_BUDGET_BYTES, MIN_FLUSH_ROWS, null);
+    PinotDataBufferMemoryManager memoryManager1 = mock(PinotDataBufferMemoryManager.class);
+    PinotDataBufferMemoryManager memoryManager2 = mock(PinotDataBufferMemoryManager.class);
+    AtomicInteger numRows1 = new AtomicInteger();
+    AtomicInteger numRows2 = new AtomicInteger();
+    AdaptiveFlushController.ConsumingSegmentHandle handle1 =
+        controller.register("segment1", memoryManager1, numRows1::get);
+    AdaptiveFlushController.ConsumingSegmentHandle handle2 =
+        controller.register("segment2", memoryManager2, numRows2::get);
+    long now = System.currentTimeMillis() + 1000;
+
+    // Segment 2 ingests 100 times slower than segment 1, but should still get an even split of the remaining 780 bytes
+    // (2 bytes per row) instead of being flushed right away
+    numRows1.set(1000);
+    numRows2.set(10);
+    when(memoryManager1.getTotalAllocatedBytes()).thenReturn(200L);
+    when(memoryManager2.getTotalAllocatedBytes()).thenReturn(20L);
+    controller.recompute(now);
+    assertEquals(handle2.getCurrentFlushRowThreshold(), 205);
+    // Segment 1 keeps its proportional share (0.2 bytes per row)
+    assertEquals(handle1.getCurrentFlushRowThreshold(), 1000 + (int) (780.0 * 1000 / 1010 / 0.2));
+  }
+}
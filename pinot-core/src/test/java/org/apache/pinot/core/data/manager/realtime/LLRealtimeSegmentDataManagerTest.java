@@ -222,6 +222,20 @@ public class LLRealtimeSegmentDataManagerTest {
     segmentDataManager.destroy();
   }
 
+  @Test
+  public void testComputeOffsetLag() {
+    Assert.assertEquals(
+        LLRealtimeSegmentDataManager.computeOffsetLag(new LongMsgOffset(150), new LongMsgOffset(100)), 50);
+    Assert.assertEquals(
+        LLRealtimeSegmentDataManager.computeOffsetLag(new LongMsgOffset(100), new LongMsgOffset(100)), 0);
+    // Latest offset fetched before the consumed offset moved past it
+    Assert.assertEquals(
+        LLRealtimeSegmentDataManager.computeOffsetLag(new LongMsgOffset(90), new LongMsgOffset(100)), 0);
+    // Non-numeric offsets
+    StreamPartitionMsgOffset otherOffset = mock(StreamPartitionMsgOffset.class);
+    Assert.assertEquals(LLRealtimeSegmentDataManager.computeOffsetLag(otherOffset, new LongMsgOffset(100)), -1);
+  }
+
   // Test that we are in HOLDING state as long as the controller responds HOLD to our segmentConsumed() message.
   // we should not consume when holding.
   @Test
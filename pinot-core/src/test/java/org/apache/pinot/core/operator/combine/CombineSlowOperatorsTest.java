@@ -19,24 +19,37 @@
 package org.apache.pinot.core.operator.combine;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.common.utils.DataTable.MetadataKey;
 import org.apache.pinot.core.common.Block;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.BaseOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
 import org.apache.pinot.spi.exception.EarlyTerminationException;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
@@ -53,6 +66,7 @@ public class CombineSlowOperatorsTest {
   private static final int NUM_OPERATORS = 10;
   private static final int NUM_THREADS = 2;
   private static final long TIMEOUT_MS = 100L;
+  private static final int NUM_FAST_OPERATORS = 2;
 
   private ExecutorService _executorService;
 
@@ -99,6 +113,113 @@ public class CombineSlowOperatorsTest {
     testCombineOperator(operators, combineOperator);
   }
 
+  @Test
+  public void testSelectionOnlyCombineOperatorPartialResult()
+      throws Exception {
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"column"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+    List<Operator> operators = getOperatorsWithFastOperators(() -> {
+      List<Object[]> rows = new ArrayList<>();
+      rows.add(new Object[]{1});
+      return new IntermediateResultsBlock(dataSchema, rows);
+    });
+    SelectionOnlyCombineOperator combineOperator = new SelectionOnlyCombineOperator(operators,
+        QueryContextConverterUtils.getQueryContextFromSQL(
+            "SELECT * FROM testTable OPTION(" + QueryOptionKey.ALLOW_PARTIAL_RESULTS + "=true)"), _executorService,
+        TIMEOUT_MS);
+    IntermediateResultsBlock intermediateResultsBlock = testPartialResult(operators, combineOperator);
+    assertEquals(intermediateResultsBlock.getSelectionResult().size(), NUM_FAST_OPERATORS);
+  }
+
+  @Test
+  public void testAggregationOnlyCombineOperatorPartialResult()
+      throws Exception {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(
+        "SELECT COUNT(*) FROM testTable OPTION(" + QueryOptionKey.ALLOW_PARTIAL_RESULTS + "=true)");
+    // NOTE: The aggregation result needs to be mutable for merging
+    List<Operator> operators = getOperatorsWithFastOperators(
+        () -> new IntermediateResultsBlock(queryContext.getAggregationFunctions(),
+            new ArrayList<>(Collections.singletonList(1L)), false));
+    AggregationOnlyCombineOperator combineOperator =
+        new AggregationOnlyCombineOperator(operators, queryContext, _executorService, TIMEOUT_MS);
+    IntermediateResultsBlock intermediateResultsBlock = testPartialResult(operators, combineOperator);
+    assertEquals(intermediateResultsBlock.getAggregationResult(), Collections.singletonList((long) NUM_FAST_OPERATORS));
+  }
+
+  @Test
+  public void testGroupByCombineOperatorPartialResult()
+      throws Exception {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(
+        "SELECT COUNT(*) FROM testTable GROUP BY column OPTION(" + QueryOptionKey.ALLOW_PARTIAL_RESULTS + "=true)");
+    AggregationGroupByResult aggregationGroupByResult = getAggregationGroupByResult();
+    List<Operator> operators = getOperatorsWithFastOperators(
+        () -> new IntermediateResultsBlock(queryContext.getAggregationFunctions(), aggregationGroupByResult));
+    GroupByCombineOperator combineOperator = new GroupByCombineOperator(operators, queryContext, _executorService,
+        TIMEOUT_MS, InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT);
+    testPartialResult(operators, combineOperator);
+  }
+
+  @Test
+  public void testGroupByOrderByCombineOperatorPartialResult()
+      throws Exception {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContextFromSQL(
+        "SELECT COUNT(*) FROM testTable GROUP BY column OPTION(" + QueryOptionKey.ALLOW_PARTIAL_RESULTS + "=true)");
+    AggregationGroupByResult aggregationGroupByResult = getAggregationGroupByResult();
+    DataSchema dataSchema = new DataSchema(new String[]{"column", "count(*)"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.LONG});
+    List<Operator> operators = getOperatorsWithFastOperators(
+        () -> new IntermediateResultsBlock(queryContext.getAggregationFunctions(), aggregationGroupByResult,
+            dataSchema));
+    GroupByOrderByCombineOperator combineOperator = new GroupByOrderByCombineOperator(operators, queryContext,
+        _executorService, TIMEOUT_MS, InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD);
+    DataTable dataTable = testPartialResult(operators, combineOperator).getDataTable();
+    assertEquals(dataTable.getNumberOfRows(), 1);
+    assertEquals(dataTable.getString(0, 0), "a");
+    assertEquals(dataTable.getLong(0, 1), NUM_FAST_OPERATORS);
+  }
+
+  /**
+   * Returns a group-by result with a single group "a" with count 1.
+   */
+  private static AggregationGroupByResult getAggregationGroupByResult() {
+    GroupKeyGenerator.GroupKey groupKey = new GroupKeyGenerator.GroupKey();
+    groupKey._keys = new Object[]{"a"};
+    GroupKeyGenerator.StringGroupKey stringGroupKey = new GroupKeyGenerator.StringGroupKey();
+    stringGroupKey._stringKey = "a";
+    AggregationGroupByResult aggregationGroupByResult = mock(AggregationGroupByResult.class);
+    when(aggregationGroupByResult.getGroupKeyIterator())
+        .thenAnswer(invocation -> Collections.singletonList(groupKey).iterator());
+    when(aggregationGroupByResult.getStringGroupKeyIterator())
+        .thenAnswer(invocation -> Collections.singletonList(stringGroupKey).iterator());
+    when(aggregationGroupByResult.getResultForKey(any(), anyInt())).thenReturn(1L);
+    when(aggregationGroupByResult.getResultForGroupId(anyInt(), anyInt())).thenReturn(1L);
+    return aggregationGroupByResult;
+  }
+
+  /**
+   * Tests that the results blocks of the fast operators are returned as partial result when the query times out.
+   */
+  private IntermediateResultsBlock testPartialResult(List<Operator> operators, BaseOperator combineOperator)
+      throws Exception {
+    IntermediateResultsBlock intermediateResultsBlock = (IntermediateResultsBlock) combineOperator.nextBlock();
+    List<ProcessingException> processingExceptions = intermediateResultsBlock.getProcessingExceptions();
+    assertTrue(processingExceptions == null || processingExceptions.isEmpty(), String.valueOf(processingExceptions));
+    assertTrue(intermediateResultsBlock.isPartialResult());
+    assertEquals(intermediateResultsBlock.getNumSegmentsProcessed(), NUM_FAST_OPERATORS);
+    DataTable dataTable = intermediateResultsBlock.getDataTable();
+    assertEquals(dataTable.getMetadata().get(MetadataKey.PARTIAL_RESULT.getName()), "true");
+
+    // The slow operators should still be interrupted
+    for (Operator operator : operators) {
+      if (operator instanceof SlowOperator) {
+        SlowOperator slowOperator = (SlowOperator) operator;
+        assertFalse(slowOperator._operationInProgress.get());
+        assertFalse(slowOperator._notInterrupted.get());
+      }
+    }
+    return intermediateResultsBlock;
+  }
+
   /**
    * NOTE: It is hard to test the logger behavior, but only one error message about the query timeout should be logged
    *       for each query.
@@ -132,6 +253,44 @@ public class CombineSlowOperatorsTest {
     return operators;
   }
 
+  /**
+   * Returns {@link #NUM_FAST_OPERATORS} fast operators followed by slow operators. The fast operators are processed
+   * first because each task processes the operators in index order, and the tasks are submitted in index order.
+   */
+  private List<Operator> getOperatorsWithFastOperators(Supplier<IntermediateResultsBlock> resultsBlockSupplier) {
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_FAST_OPERATORS; i++) {
+      operators.add(new FastOperator(resultsBlockSupplier));
+    }
+    for (int i = NUM_FAST_OPERATORS; i < NUM_OPERATORS; i++) {
+      operators.add(new SlowOperator());
+    }
+    return operators;
+  }
+
+  private static class FastOperator extends BaseOperator<IntermediateResultsBlock> {
+    final Supplier<IntermediateResultsBlock> _resultsBlockSupplier;
+
+    FastOperator(Supplier<IntermediateResultsBlock> resultsBlockSupplier) {
+      _resultsBlockSupplier = resultsBlockSupplier;
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      return _resultsBlockSupplier.get();
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "FastOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(1, 0, 0, 1);
+    }
+  }
+
   private static class SlowOperator extends BaseOperator {
     final AtomicBoolean _operationInProgress = new AtomicBoolean();
     final AtomicBoolean _notInterrupted = new AtomicBoolean();
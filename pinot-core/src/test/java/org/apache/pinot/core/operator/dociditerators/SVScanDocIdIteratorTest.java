@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.predicate.RangePredicate;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.RangePredicateEvaluatorFactory;
+import org.apache.pinot.core.operator.filter.predicate.ZoneMapPruner;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+
+/**
+ * Tests the page skipping of {@link SVScanDocIdIterator} with the {@link ZoneMapPruner}.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class SVScanDocIdIteratorTest {
+  private static final int NUM_DOCS = 50;
+  private static final int NUM_DOCS_PER_PAGE = 10;
+  private static final int NUM_PAGES = NUM_DOCS / NUM_DOCS_PER_PAGE;
+
+  private ForwardIndexReader _reader;
+  private PredicateEvaluator _predicateEvaluator;
+  private ZoneMapPruner _zoneMapPruner;
+
+  @BeforeClass
+  public void setUp() {
+    // The dictionary id of each document is the same as the document id, so page i contains dictionary ids
+    // [10 * i, 10 * i + 9]
+    _reader = mock(ForwardIndexReader.class);
+    when(_reader.isDictionaryEncoded()).thenReturn(true);
+    when(_reader.isSingleValue()).thenReturn(true);
+    when(_reader.getDictId(anyInt(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+    ZoneMapReader zoneMap = mock(ZoneMapReader.class);
+    when(zoneMap.getValueType()).thenReturn(DataType.INT);
+    when(zoneMap.getNumDocsPerPage()).thenReturn(NUM_DOCS_PER_PAGE);
+    when(zoneMap.getNumPages()).thenReturn(NUM_PAGES);
+    when(zoneMap.getMinLong(anyInt())).thenAnswer(invocation -> (long) invocation.<Integer>getArgument(0) * 10);
+    when(zoneMap.getMaxLong(anyInt())).thenAnswer(invocation -> (long) invocation.<Integer>getArgument(0) * 10 + 9);
+
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.length()).thenReturn(NUM_DOCS);
+    when(dictionary.insertionIndexOf(anyString()))
+        .thenAnswer(invocation -> Integer.parseInt(invocation.getArgument(0)));
+
+    // Only page 2 can match [20, 29]
+    _predicateEvaluator = RangePredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(
+            new RangePredicate(ExpressionContext.forIdentifier("column"), true, "20", true, "29"), dictionary,
+            DataType.INT);
+    _zoneMapPruner = ZoneMapPruner.create(_predicateEvaluator, zoneMap);
+    assertNotNull(_zoneMapPruner);
+  }
+
+  @Test
+  public void testNext() {
+    SVScanDocIdIterator docIdIterator =
+        new SVScanDocIdIterator(_predicateEvaluator, _reader, NUM_DOCS, _zoneMapPruner);
+    // The first document of the matching page should be returned without scanning the pruned pages
+    assertEquals(docIdIterator.next(), 20);
+    assertEquals(docIdIterator.getNumEntriesScanned(), 1);
+    for (int docId = 21; docId < 30; docId++) {
+      assertEquals(docIdIterator.next(), docId);
+    }
+    // The pages after the matching page should be skipped
+    assertEquals(docIdIterator.next(), Constants.EOF);
+    assertEquals(docIdIterator.getNumEntriesScanned(), NUM_DOCS_PER_PAGE);
+
+    // Without zone map, all the documents are scanned
+    docIdIterator = new SVScanDocIdIterator(_predicateEvaluator, _reader, NUM_DOCS);
+    for (int docId = 20; docId < 30; docId++) {
+      assertEquals(docIdIterator.next(), docId);
+    }
+    assertEquals(docIdIterator.next(), Constants.EOF);
+    assertEquals(docIdIterator.getNumEntriesScanned(), NUM_DOCS);
+  }
+
+  @Test
+  public void testAdvance() {
+    SVScanDocIdIterator docIdIterator =
+        new SVScanDocIdIterator(_predicateEvaluator, _reader, NUM_DOCS, _zoneMapPruner);
+    // Advance to the last document of a pruned page
+    assertEquals(docIdIterator.advance(19), 20);
+    assertEquals(docIdIterator.getNumEntriesScanned(), 1);
+    // Advance within the matching page
+    assertEquals(docIdIterator.advance(25), 25);
+    assertEquals(docIdIterator.getNumEntriesScanned(), 2);
+    // Advance to the last document of the matching page
+    assertEquals(docIdIterator.advance(29), 29);
+    assertEquals(docIdIterator.getNumEntriesScanned(), 3);
+    assertEquals(docIdIterator.next(), Constants.EOF);
+    assertEquals(docIdIterator.getNumEntriesScanned(), 3);
+
+    // Advance to a pruned page after the matching page
+    docIdIterator = new SVScanDocIdIterator(_predicateEvaluator, _reader, NUM_DOCS, _zoneMapPruner);
+    assertEquals(docIdIterator.advance(30), Constants.EOF);
+    assertEquals(docIdIterator.getNumEntriesScanned(), 0);
+  }
+
+  @Test
+  public void testApplyAnd() {
+    SVScanDocIdIterator docIdIterator =
+        new SVScanDocIdIterator(_predicateEvaluator, _reader, NUM_DOCS, _zoneMapPruner);
+    MutableRoaringBitmap docIds = MutableRoaringBitmap.bitmapOf(5, 19, 20, 25, 29, 30, 45);
+    // Only the documents in the matching page should be scanned
+    assertEquals(docIdIterator.applyAnd(docIds), MutableRoaringBitmap.bitmapOf(20, 25, 29));
+    assertEquals(docIdIterator.getNumEntriesScanned(), 3);
+
+    // Without zone map, all the documents are scanned
+    docIdIterator = new SVScanDocIdIterator(_predicateEvaluator, _reader, NUM_DOCS);
+    assertEquals(docIdIterator.applyAnd(docIds), MutableRoaringBitmap.bitmapOf(20, 25, 29));
+    assertEquals(docIdIterator.getNumEntriesScanned(), docIds.getCardinality());
+  }
+}
@@ -0,0 +1,211 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.filter.predicate;
+
+import java.util.Arrays;
+import org.apache.pinot.common.request.context.ExpressionContext;
+import org.apache.pinot.common.request.context.predicate.EqPredicate;
+import org.apache.pinot.common.request.context.predicate.InPredicate;
+import org.apache.pinot.common.request.context.predicate.NotEqPredicate;
+import org.apache.pinot.common.request.context.predicate.RangePredicate;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class ZoneMapPrunerTest {
+  private static final ExpressionContext COLUMN_EXPRESSION = ExpressionContext.forIdentifier("column");
+  private static final int NUM_DOCS_PER_PAGE = 10;
+  private static final int NUM_PAGES = 5;
+
+  @Test
+  public void testDictionaryBased() {
+    // Page i contains dictionary ids [10 * i, 10 * i + 9]
+    ZoneMapReader zoneMap = new TestZoneMapReader(DataType.INT, new double[]{0, 10, 20, 30, 40},
+        new double[]{9, 19, 29, 39, 49});
+    Dictionary dictionary = createDictionary(100);
+
+    // EQ
+    PredicateEvaluator predicateEvaluator = EqualsPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "25"), dictionary, DataType.INT);
+    verifyPages(ZoneMapPruner.create(predicateEvaluator, zoneMap), false, false, true, false, false);
+
+    // IN, where the pages between the min and max matching dictionary ids are kept
+    predicateEvaluator = InPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("15", "32")), dictionary,
+            DataType.INT);
+    verifyPages(ZoneMapPruner.create(predicateEvaluator, zoneMap), false, true, true, true, false);
+
+    // Range with the bounds on the page boundaries
+    predicateEvaluator = RangePredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, true, "10", false, "30"), dictionary,
+            DataType.INT);
+    verifyPages(ZoneMapPruner.create(predicateEvaluator, zoneMap), false, true, true, false, false);
+    predicateEvaluator = RangePredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, false, "9", true, "30"), dictionary,
+            DataType.INT);
+    verifyPages(ZoneMapPruner.create(predicateEvaluator, zoneMap), false, true, true, true, false);
+
+    // Range matching all the pages should not create a pruner
+    predicateEvaluator = RangePredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, true, "5", true, "45"), dictionary,
+            DataType.INT);
+    assertNull(ZoneMapPruner.create(predicateEvaluator, zoneMap));
+
+    // Exclusive predicate is not supported
+    predicateEvaluator = NotEqualsPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new NotEqPredicate(COLUMN_EXPRESSION, "25"), dictionary, DataType.INT);
+    assertNull(ZoneMapPruner.create(predicateEvaluator, zoneMap));
+
+    // No zone map
+    predicateEvaluator = EqualsPredicateEvaluatorFactory
+        .newDictionaryBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "25"), dictionary, DataType.INT);
+    assertNull(ZoneMapPruner.create(predicateEvaluator, null));
+  }
+
+  @Test
+  public void testRawValueBased() {
+    // LONG values
+    ZoneMapReader zoneMap = new TestZoneMapReader(DataType.LONG, new double[]{-100, 0, 100, 200, 300},
+        new double[]{-1, 99, 199, 299, 399});
+    PredicateEvaluator predicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, true, "150", true, "200"), DataType.LONG);
+    verifyPages(ZoneMapPruner.create(predicateEvaluator, zoneMap), false, false, true, true, false);
+    predicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, false, "399", true, RangePredicate.UNBOUNDED),
+            DataType.LONG);
+    verifyPages(ZoneMapPruner.create(predicateEvaluator, zoneMap), false, false, false, false, true);
+
+    // Mismatched value type is not pruned
+    predicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, true, "150", true, "200"), DataType.INT);
+    assertNull(ZoneMapPruner.create(predicateEvaluator, zoneMap));
+
+    // EQ/IN on raw values is not pruned
+    predicateEvaluator =
+        EqualsPredicateEvaluatorFactory.newRawValueBasedEvaluator(new EqPredicate(COLUMN_EXPRESSION, "150"),
+            DataType.LONG);
+    assertNull(ZoneMapPruner.create(predicateEvaluator, zoneMap));
+    predicateEvaluator = InPredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new InPredicate(COLUMN_EXPRESSION, Arrays.asList("150", "250")), DataType.LONG);
+    assertNull(ZoneMapPruner.create(predicateEvaluator, zoneMap));
+
+    // DOUBLE values, where the page with NaN min/max values should never be pruned
+    zoneMap = new TestZoneMapReader(DataType.DOUBLE, new double[]{0, 1, Double.NaN, 3, 4},
+        new double[]{0.5, 1.5, Double.NaN, 3.5, 4.5});
+    predicateEvaluator = RangePredicateEvaluatorFactory
+        .newRawValueBasedEvaluator(new RangePredicate(COLUMN_EXPRESSION, true, "1.2", true, "3.2"), DataType.DOUBLE);
+    verifyPages(ZoneMapPruner.create(predicateEvaluator, zoneMap), false, true, true, true, false);
+  }
+
+  private static void verifyPages(ZoneMapPruner zoneMapPruner, boolean... expectedCanMatch) {
+    assertNotNull(zoneMapPruner);
+    assertEquals(zoneMapPruner.getNumDocsPerPage(), NUM_DOCS_PER_PAGE);
+    for (int i = 0; i < NUM_PAGES; i++) {
+      assertEquals(zoneMapPruner.canMatch(i), expectedCanMatch[i], "Mismatch for page: " + i);
+    }
+    // Pages out of the zone map should never be pruned
+    assertEquals(zoneMapPruner.canMatch(NUM_PAGES), true);
+  }
+
+  /**
+   * Returns a sorted dictionary where the dictionary id is the same as the value.
+   */
+  static Dictionary createDictionary(int length) {
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.isSorted()).thenReturn(true);
+    when(dictionary.length()).thenReturn(length);
+    when(dictionary.indexOf(anyString())).thenAnswer(invocation -> {
+      int value = Integer.parseInt(invocation.getArgument(0));
+      return value >= 0 && value < length ? value : -1;
+    });
+    when(dictionary.insertionIndexOf(anyString())).thenAnswer(invocation -> {
+      int value = Integer.parseInt(invocation.getArgument(0));
+      if (value < 0) {
+        return -1;
+      }
+      return value < length ? value : -(length + 1);
+    });
+    return dictionary;
+  }
+
+  static class TestZoneMapReader implements ZoneMapReader {
+    final DataType _valueType;
+    final double[] _minValues;
+    final double[] _maxValues;
+
+    TestZoneMapReader(DataType valueType, double[] minValues, double[] maxValues) {
+      _valueType = valueType;
+      _minValues = minValues;
+      _maxValues = maxValues;
+    }
+
+    @Override
+    public DataType getValueType() {
+      return _valueType;
+    }
+
+    @Override
+    public int getNumDocsPerPage() {
+      return NUM_DOCS_PER_PAGE;
+    }
+
+    @Override
+    public int getNumPages() {
+      return _minValues.length;
+    }
+
+    @Override
+    public long getMinLong(int pageId) {
+      return (long) _minValues[pageId];
+    }
+
+    @Override
+    public long getMaxLong(int pageId) {
+      return (long) _maxValues[pageId];
+    }
+
+    @Override
+    public double getMinDouble(int pageId) {
+      return _minValues[pageId];
+    }
+
+    @Override
+    public double getMaxDouble(int pageId) {
+      return _maxValues[pageId];
+    }
+
+    @Override
+    public int getNullCount(int pageId) {
+      return 0;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
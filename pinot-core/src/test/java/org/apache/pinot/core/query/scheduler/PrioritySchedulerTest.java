@@ -49,6 +49,7 @@ import org.apache.pinot.core.common.datatable.DataTableFactory;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
 import org.apache.pinot.core.query.executor.QueryExecutor;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
+import org.apache.pinot.core.query.scheduler.fcfs.FCFSQueryScheduler;
 import org.apache.pinot.core.query.scheduler.resources.PolicyBasedResourceManager;
 import org.apache.pinot.core.query.scheduler.resources.ResourceLimitPolicy;
 import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
@@ -58,6 +59,7 @@ import org.testng.annotations.Test;
 
 import static org.apache.pinot.core.query.scheduler.TestHelper.createQueryRequest;
 import static org.apache.pinot.core.query.scheduler.TestHelper.createServerQueryRequest;
+import static org.apache.pinot.core.query.scheduler.TestHelper.createServerQueryRequestWithDeadline;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -231,6 +233,38 @@ public class PrioritySchedulerTest {
     scheduler.stop();
   }
 
+  @Test
+  public void testDeadlinePassed()
+      throws ExecutionException, InterruptedException, IOException {
+    TestPriorityScheduler scheduler = TestPriorityScheduler.create();
+    scheduler.start();
+    ListenableFuture<byte[]> result =
+        scheduler.submit(createServerQueryRequestWithDeadline("1", metrics, System.currentTimeMillis() - 1));
+    // Query should be dropped without being executed
+    DataTable response = DataTableFactory.getDataTable(result.get());
+    assertTrue(response.getExceptions().containsKey(QueryException.QUERY_SCHEDULING_TIMEOUT_ERROR.getErrorCode()));
+    assertFalse(response.getMetadata().containsKey(MetadataKey.TABLE.getName()));
+    assertEquals(scheduler.getLatestQueryTime(), 0);
+    scheduler.stop();
+  }
+
+  @Test
+  public void testDeadlinePassedWithFCFSScheduler()
+      throws ExecutionException, InterruptedException, IOException {
+    LongAccumulator latestQueryTime = new LongAccumulator(Long::max, 0);
+    FCFSQueryScheduler scheduler =
+        new FCFSQueryScheduler(new PinotConfiguration(), new TestQueryExecutor(), metrics, latestQueryTime);
+    scheduler.start();
+    ListenableFuture<byte[]> result =
+        scheduler.submit(createServerQueryRequestWithDeadline("1", metrics, System.currentTimeMillis() - 1));
+    // Query queued on the query runners should be dropped without being executed
+    DataTable response = DataTableFactory.getDataTable(result.get());
+    assertTrue(response.getExceptions().containsKey(QueryException.QUERY_SCHEDULING_TIMEOUT_ERROR.getErrorCode()));
+    assertFalse(response.getMetadata().containsKey(MetadataKey.TABLE.getName()));
+    assertEquals(latestQueryTime.get(), 0);
+    scheduler.stop();
+  }
+
   static class TestPriorityScheduler extends PriorityScheduler {
     static TestSchedulerGroupFactory groupFactory;
     static LongAccumulator latestQueryTime;
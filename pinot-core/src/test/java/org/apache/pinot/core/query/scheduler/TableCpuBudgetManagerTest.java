@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.core.query.request.context.ThreadTimer;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class TableCpuBudgetManagerTest {
+  private long _currentTimeMs = 1000L;
+
+  @BeforeClass
+  public void setUp() {
+    ThreadTimer.setThreadCpuTimeMeasurementEnabled(true);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    ThreadTimer.setThreadCpuTimeMeasurementEnabled(false);
+  }
+
+  private TableCpuBudgetManager createCpuBudgetManager(Map<String, Object> properties) {
+    return createCpuBudgetManager(properties, mock(ServerMetrics.class));
+  }
+
+  private TableCpuBudgetManager createCpuBudgetManager(Map<String, Object> properties, ServerMetrics serverMetrics) {
+    TableCpuBudgetManager cpuBudgetManager =
+        TableCpuBudgetManager.create(new PinotConfiguration(properties), mock(ServerMetrics.class));
+    assertNotNull(cpuBudgetManager);
+    return new TableCpuBudgetManager(new PinotConfiguration(properties), serverMetrics) {
+      @Override
+      long currentTimeMillis() {
+        return _currentTimeMs;
+      }
+    };
+  }
+
+  @Test
+  public void testNotConfigured() {
+    assertNull(TableCpuBudgetManager.create(new PinotConfiguration(), mock(ServerMetrics.class)));
+  }
+
+  @Test
+  public void testThreadCpuTimeMeasurementDisabled() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(TableCpuBudgetManager.CPU_BUDGET_MS_PER_SECOND_KEY, 100);
+    ThreadTimer.setThreadCpuTimeMeasurementEnabled(false);
+    try {
+      // CPU budget should not be enabled when no CPU time can be charged
+      assertNull(TableCpuBudgetManager.create(new PinotConfiguration(properties), mock(ServerMetrics.class)));
+    } finally {
+      ThreadTimer.setThreadCpuTimeMeasurementEnabled(true);
+    }
+  }
+
+  @Test
+  public void testMetrics() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(TableCpuBudgetManager.CPU_BUDGET_MS_PER_SECOND_KEY, 100);
+    ServerMetrics serverMetrics = mock(ServerMetrics.class);
+    TableCpuBudgetManager cpuBudgetManager = createCpuBudgetManager(properties, serverMetrics);
+
+    assertTrue(cpuBudgetManager.hasBudget("myTable_OFFLINE"));
+    verify(serverMetrics, never())
+        .addMeteredTableValue(eq("myTable"), eq(ServerMeter.QUERIES_REJECTED_BY_CPU_BUDGET), anyLong());
+
+    // Both the gauge and the rejection meter should be keyed by the raw table name
+    cpuBudgetManager.charge("myTable_OFFLINE", TimeUnit.SECONDS.toNanos(10));
+    verify(serverMetrics).setValueOfTableGauge(eq("myTable"), eq(ServerGauge.CPU_BUDGET_AVAILABLE_MS), anyLong());
+    assertFalse(cpuBudgetManager.hasBudget("myTable_REALTIME"));
+    verify(serverMetrics).addMeteredTableValue("myTable", ServerMeter.QUERIES_REJECTED_BY_CPU_BUDGET, 1);
+  }
+
+  @Test
+  public void testBudget() {
+    Map<String, Object> properties = new HashMap<>();
+    // 100ms CPU per second, up to 1 second of burst (100ms CPU)
+    properties.put(TableCpuBudgetManager.CPU_BUDGET_MS_PER_SECOND_KEY, 100);
+    properties.put(TableCpuBudgetManager.CPU_BUDGET_BURST_SECONDS_KEY, 1);
+    TableCpuBudgetManager cpuBudgetManager = createCpuBudgetManager(properties);
+
+    assertTrue(cpuBudgetManager.hasBudget("myTable_OFFLINE"));
+    // A single expensive query overdraws the budget
+    cpuBudgetManager.charge("myTable_OFFLINE", TimeUnit.MILLISECONDS.toNanos(300));
+    assertFalse(cpuBudgetManager.hasBudget("myTable_OFFLINE"));
+    // OFFLINE and REALTIME share the budget of the raw table
+    assertFalse(cpuBudgetManager.hasBudget("myTable_REALTIME"));
+    // Other tables are not affected
+    assertTrue(cpuBudgetManager.hasBudget("otherTable_OFFLINE"));
+
+    // Budget is paid back after 2 seconds (200ms CPU), and available after that
+    _currentTimeMs += 2000;
+    assertFalse(cpuBudgetManager.hasBudget("myTable_OFFLINE"));
+    _currentTimeMs += 10;
+    assertTrue(cpuBudgetManager.hasBudget("myTable_OFFLINE"));
+
+    // Budget should not accumulate beyond the burst
+    _currentTimeMs += 10_000;
+    cpuBudgetManager.charge("myTable_OFFLINE", TimeUnit.MILLISECONDS.toNanos(100));
+    assertFalse(cpuBudgetManager.hasBudget("myTable_OFFLINE"));
+  }
+
+  @Test
+  public void testTableOverride() {
+    Map<String, Object> properties = new HashMap<>();
+    // Only limit myTable
+    properties.put(TableCpuBudgetManager.CPU_BUDGET_MS_PER_SECOND_KEY + ".myTable", 100);
+    TableCpuBudgetManager cpuBudgetManager = createCpuBudgetManager(properties);
+
+    cpuBudgetManager.charge("myTable_OFFLINE", TimeUnit.SECONDS.toNanos(10));
+    assertFalse(cpuBudgetManager.hasBudget("myTable_OFFLINE"));
+    cpuBudgetManager.charge("otherTable_OFFLINE", TimeUnit.SECONDS.toNanos(10));
+    assertTrue(cpuBudgetManager.hasBudget("otherTable_OFFLINE"));
+  }
+}
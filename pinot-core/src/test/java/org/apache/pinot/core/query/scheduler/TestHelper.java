@@ -32,6 +32,17 @@ public class TestHelper {
 
   public static ServerQueryRequest createServerQueryRequest(String table, ServerMetrics metrics,
       long queryArrivalTimeMs) {
+    return new ServerQueryRequest(createInstanceRequest(table), metrics, queryArrivalTimeMs);
+  }
+
+  public static ServerQueryRequest createServerQueryRequestWithDeadline(String table, ServerMetrics metrics,
+      long deadlineMs) {
+    InstanceRequest request = createInstanceRequest(table);
+    request.setDeadlineMs(deadlineMs);
+    return new ServerQueryRequest(request, metrics, System.currentTimeMillis());
+  }
+
+  private static InstanceRequest createInstanceRequest(String table) {
     InstanceRequest request = new InstanceRequest();
     request.setBrokerId("broker");
     request.setEnableTrace(false);
@@ -45,7 +56,7 @@ public class TestHelper {
     selection.setSelectionColumns(Collections.singletonList("*"));
     br.setSelections(selection);
     request.setQuery(br);
-    return new ServerQueryRequest(request, metrics, queryArrivalTimeMs);
+    return request;
   }
 
   public static ServerQueryRequest createServerQueryRequest(String table, ServerMetrics metrics) {
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class AdaptiveServerTimeoutManagerTest {
+  private static final String INSTANCE_ID = "Server_localhost_1234";
+  private static final long QUERY_TIMEOUT_MS = 10_000L;
+
+  @Test
+  public void testServerTimeout() {
+    AdaptiveServerTimeoutManager serverTimeoutManager = new AdaptiveServerTimeoutManager(99, 3, 100);
+    assertEquals(serverTimeoutManager.getServerTimeoutMs(INSTANCE_ID, QUERY_TIMEOUT_MS), QUERY_TIMEOUT_MS);
+
+    // Should use the query timeout before enough latency samples are collected
+    for (int i = 1; i < 100; i++) {
+      serverTimeoutManager.recordLatency(INSTANCE_ID, i);
+    }
+    assertEquals(serverTimeoutManager.getServerTimeoutMs(INSTANCE_ID, QUERY_TIMEOUT_MS), QUERY_TIMEOUT_MS);
+    serverTimeoutManager.recordLatency(INSTANCE_ID, 100);
+    assertEquals(serverTimeoutManager.getServerTimeoutMs(INSTANCE_ID, QUERY_TIMEOUT_MS), 297);
+
+    // Timeout should be upper bounded by the query timeout
+    assertEquals(serverTimeoutManager.getServerTimeoutMs(INSTANCE_ID, 200), 200);
+
+    // Timeout should be lower bounded by the min timeout
+    for (int i = 0; i < 1024; i++) {
+      serverTimeoutManager.recordLatency(INSTANCE_ID, 10);
+    }
+    assertEquals(serverTimeoutManager.getServerTimeoutMs(INSTANCE_ID, QUERY_TIMEOUT_MS), 100);
+
+    // Servers should be tracked separately
+    assertEquals(serverTimeoutManager.getServerTimeoutMs("otherServer", QUERY_TIMEOUT_MS), QUERY_TIMEOUT_MS);
+  }
+
+  @Test
+  public void testRecordTimeout() {
+    AdaptiveServerTimeoutManager serverTimeoutManager = new AdaptiveServerTimeoutManager(99, 3, 100);
+    for (int i = 0; i < 100; i++) {
+      serverTimeoutManager.recordLatency(INSTANCE_ID, 100);
+    }
+    assertEquals(serverTimeoutManager.getServerTimeoutMs(INSTANCE_ID, QUERY_TIMEOUT_MS), 300);
+
+    // Requests timed out should be recorded at the current timeout so that the timeout can grow
+    for (int i = 0; i < 100; i++) {
+      serverTimeoutManager.recordTimeout(INSTANCE_ID, QUERY_TIMEOUT_MS);
+    }
+    assertEquals(serverTimeoutManager.getServerTimeoutMs(INSTANCE_ID, QUERY_TIMEOUT_MS), 900);
+
+    // Requests timed out before enough latency samples are collected should be recorded at the query timeout
+    serverTimeoutManager.recordTimeout("otherServer", QUERY_TIMEOUT_MS);
+    assertEquals(serverTimeoutManager.getServerTimeoutMs("otherServer", QUERY_TIMEOUT_MS), QUERY_TIMEOUT_MS);
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testInvalidMultiplier() {
+    new AdaptiveServerTimeoutManager(99, 1, 100);
+  }
+}
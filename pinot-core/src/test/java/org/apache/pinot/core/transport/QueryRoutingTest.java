@@ -19,26 +19,37 @@
 package org.apache.pinot.core.transport;
 
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.common.utils.DataTable.MetadataKey;
 import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
 import org.apache.pinot.pql.parsers.Pql2Compiler;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.util.TestUtils;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -68,8 +79,16 @@ public class QueryRoutingTest {
   }
 
   private QueryScheduler mockQueryScheduler(int responseDelayMs, byte[] responseBytes) {
+    return mockQueryScheduler(responseDelayMs, responseBytes, new ArrayList<>());
+  }
+
+  /**
+   * Returns a query scheduler that records the deadline of the received queries into the given list.
+   */
+  private QueryScheduler mockQueryScheduler(int responseDelayMs, byte[] responseBytes, List<Long> deadlines) {
     QueryScheduler queryScheduler = mock(QueryScheduler.class);
     when(queryScheduler.submit(any())).thenAnswer(invocation -> {
+      deadlines.add(invocation.<ServerQueryRequest>getArgument(0).getDeadlineMs());
       Thread.sleep(responseDelayMs);
       return Futures.immediateFuture(responseBytes);
     });
@@ -233,6 +252,207 @@ public class QueryRoutingTest {
     assertTrue(System.currentTimeMillis() - startTimeMs < timeoutMs);
   }
 
+  @Test
+  public void testHedgedRequest()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = DataTableBuilder.getEmptyDataTable();
+    dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+    // Hedged request ids are negative and generated in sequence by each query router
+    long hedgedRequestId = -1;
+    DataTable hedgedDataTable = DataTableBuilder.getEmptyDataTable();
+    hedgedDataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(hedgedRequestId));
+    byte[] hedgedResponseBytes = hedgedDataTable.toBytes();
+
+    // Start the straggling server and the alternate server
+    int alternatePort = TEST_PORT + 1;
+    ServerInstance alternateServerInstance = new ServerInstance("localhost", alternatePort);
+    QueryServer stragglingQueryServer = getQueryServer(1000, responseBytes);
+    stragglingQueryServer.start();
+    QueryServer alternateQueryServer =
+        new QueryServer(alternatePort, mockQueryScheduler(0, hedgedResponseBytes), mock(ServerMetrics.class));
+    alternateQueryServer.start();
+
+    QueryRouter queryRouter = new QueryRouter("testBroker", mock(BrokerMetrics.class));
+    long startTimeMs = System.currentTimeMillis();
+    AsyncQueryResponse asyncQueryResponse =
+        queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 5_000L);
+    assertEquals(asyncQueryResponse.getNumServersQueried(), 1);
+    assertFalse(asyncQueryResponse.await(100L));
+    assertEquals(asyncQueryResponse.getStragglingServers(),
+        Collections.singletonList(OFFLINE_SERVER_ROUTING_INSTANCE));
+    assertTrue(queryRouter.submitHedgedRequest("testTable", asyncQueryResponse, OFFLINE_SERVER_ROUTING_INSTANCE,
+        alternateServerInstance));
+    // Should not hedge the same server twice
+    assertTrue(asyncQueryResponse.getStragglingServers().isEmpty());
+
+    // Response from the alternate server should be used as the response of the straggling server
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertEquals(response.size(), 1);
+    assertTrue(response.containsKey(OFFLINE_SERVER_ROUTING_INSTANCE));
+    ServerResponse serverResponse = response.get(OFFLINE_SERVER_ROUTING_INSTANCE);
+    assertNotNull(serverResponse.getDataTable());
+    assertEquals(serverResponse.getResponseSize(), hedgedResponseBytes.length);
+    assertEquals(asyncQueryResponse.getNumHedgedRequestsWon(), 1);
+    // Query should not wait for the straggling server
+    assertTrue(System.currentTimeMillis() - startTimeMs < 1000);
+
+    // Shut down the servers
+    queryRouter.shutDown();
+    stragglingQueryServer.shutDown();
+    alternateQueryServer.shutDown();
+  }
+
+  @Test
+  public void testHedgedRequestToPrimaryServer()
+      throws Exception {
+    long requestId = 123;
+    long hedgedRequestId = -1;
+    ServerRoutingInstance stragglingServer =
+        new ServerInstance("localhost", TEST_PORT + 1).toServerRoutingInstance(TableType.OFFLINE);
+    Map<ServerRoutingInstance, InstanceRequest> requestMap = new HashMap<>();
+    requestMap.put(OFFLINE_SERVER_ROUTING_INSTANCE, new InstanceRequest());
+    requestMap.put(stragglingServer, new InstanceRequest());
+    AsyncQueryResponse asyncQueryResponse =
+        new AsyncQueryResponse(mock(QueryRouter.class), requestId, requestMap, System.currentTimeMillis(), 5_000L);
+    asyncQueryResponse.markRequestSubmitted(OFFLINE_SERVER_ROUTING_INSTANCE);
+    asyncQueryResponse.markRequestSubmitted(stragglingServer);
+    asyncQueryResponse.markRequestSent(requestId, OFFLINE_SERVER_ROUTING_INSTANCE, 1);
+
+    // Hedge the straggling server to the server also queried by the primary request
+    asyncQueryResponse.addHedgedRequest(hedgedRequestId, stragglingServer, OFFLINE_SERVER_ROUTING_INSTANCE,
+        System.currentTimeMillis());
+    asyncQueryResponse.markHedgedRequestSubmitted(hedgedRequestId);
+    asyncQueryResponse.markRequestSent(hedgedRequestId, OFFLINE_SERVER_ROUTING_INSTANCE, 2);
+
+    // Stats of the hedged request should not overwrite the stats of the primary request
+    AsyncQueryResponse.HedgedRequest hedgedRequest = asyncQueryResponse.getHedgedRequest(hedgedRequestId);
+    assertNotNull(hedgedRequest);
+    assertEquals(hedgedRequest._serverResponse.getRequestSentDelayMs(), 2);
+    asyncQueryResponse.markQueryFailed();
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertEquals(response.get(OFFLINE_SERVER_ROUTING_INSTANCE).getRequestSentDelayMs(), 1);
+    assertEquals(response.get(stragglingServer).getRequestSentDelayMs(), -1);
+  }
+
+  @Test
+  public void testDeadlinePropagation()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = DataTableBuilder.getEmptyDataTable();
+    dataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+    long hedgedRequestId = -1;
+    DataTable hedgedDataTable = DataTableBuilder.getEmptyDataTable();
+    hedgedDataTable.getMetadata().put(MetadataKey.REQUEST_ID.getName(), Long.toString(hedgedRequestId));
+    byte[] hedgedResponseBytes = hedgedDataTable.toBytes();
+
+    // Start the straggling server and the alternate server, which record the deadline of the received requests
+    int alternatePort = TEST_PORT + 1;
+    ServerInstance alternateServerInstance = new ServerInstance("localhost", alternatePort);
+    List<Long> deadlines = new CopyOnWriteArrayList<>();
+    QueryServer stragglingQueryServer =
+        new QueryServer(TEST_PORT, mockQueryScheduler(1000, responseBytes, deadlines), mock(ServerMetrics.class));
+    stragglingQueryServer.start();
+    List<Long> hedgedDeadlines = new CopyOnWriteArrayList<>();
+    QueryServer alternateQueryServer =
+        new QueryServer(alternatePort, mockQueryScheduler(0, hedgedResponseBytes, hedgedDeadlines),
+            mock(ServerMetrics.class));
+    alternateQueryServer.start();
+
+    long timeoutMs = 5_000L;
+    long deadlineMarginMs = 100L;
+    QueryRouter queryRouter =
+        new QueryRouter("testBroker", mock(BrokerMetrics.class), null, null, false, true, null, deadlineMarginMs);
+    long startTimeMs = System.currentTimeMillis();
+    AsyncQueryResponse asyncQueryResponse =
+        queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, timeoutMs);
+    long submittedTimeMs = System.currentTimeMillis();
+    assertFalse(asyncQueryResponse.await(100L));
+    assertTrue(queryRouter.submitHedgedRequest("testTable", asyncQueryResponse, OFFLINE_SERVER_ROUTING_INSTANCE,
+        alternateServerInstance));
+    asyncQueryResponse.getResponse();
+
+    // Deadline of the primary request should be the query end time minus the margin
+    assertEquals(deadlines.size(), 1);
+    long deadlineMs = deadlines.get(0);
+    assertTrue(deadlineMs >= startTimeMs + timeoutMs - deadlineMarginMs, Long.toString(deadlineMs - startTimeMs));
+    assertTrue(deadlineMs <= submittedTimeMs + timeoutMs - deadlineMarginMs, Long.toString(deadlineMs - startTimeMs));
+    // Hedged request should share the same deadline because it does not extend the query end time
+    assertEquals(hedgedDeadlines, Collections.singletonList(deadlineMs));
+
+    // Shut down the servers
+    queryRouter.shutDown();
+    stragglingQueryServer.shutDown();
+    alternateQueryServer.shutDown();
+  }
+
+  @Test
+  public void testAdaptiveServerTimeoutRecordsMissingResponse()
+      throws Exception {
+    long requestId = 123;
+
+    // Start the server with a query that never finishes
+    QueryScheduler queryScheduler = mock(QueryScheduler.class);
+    when(queryScheduler.submit(any())).thenReturn(SettableFuture.create());
+    QueryServer queryServer = new QueryServer(TEST_PORT, queryScheduler, mock(ServerMetrics.class));
+    queryServer.start();
+
+    AdaptiveServerTimeoutManager serverTimeoutManager = mock(AdaptiveServerTimeoutManager.class);
+    when(serverTimeoutManager.getServerTimeoutMs(any(), anyLong()))
+        .thenAnswer(invocation -> invocation.getArgument(1));
+    long timeoutMs = 500L;
+    QueryRouter queryRouter =
+        new QueryRouter("testBroker", mock(BrokerMetrics.class), null, null, false, true, serverTimeoutManager);
+    AsyncQueryResponse asyncQueryResponse =
+        queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, timeoutMs);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertNull(response.get(OFFLINE_SERVER_ROUTING_INSTANCE).getDataTable());
+
+    // The request timed out should be recorded at the current server timeout instead of being ignored
+    verify(serverTimeoutManager).recordTimeout(SERVER_INSTANCE.getInstanceId(), timeoutMs);
+    verify(serverTimeoutManager, never()).recordLatency(any(), anyLong());
+
+    // Shut down the server
+    queryRouter.shutDown();
+    queryServer.shutDown();
+  }
+
+  @Test
+  public void testQueryCancellation()
+      throws Exception {
+    long requestId = 123;
+
+    // Start the server with a query that never finishes
+    SettableFuture<byte[]> queryFuture = SettableFuture.create();
+    QueryScheduler queryScheduler = mock(QueryScheduler.class);
+    when(queryScheduler.submit(any())).thenReturn(queryFuture);
+    QueryServer queryServer = new QueryServer(TEST_PORT, queryScheduler, mock(ServerMetrics.class));
+    queryServer.start();
+
+    QueryRouter queryRouter = new QueryRouter("testBroker", mock(BrokerMetrics.class), null, null, true);
+    long startTimeMs = System.currentTimeMillis();
+    AsyncQueryResponse asyncQueryResponse =
+        queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 5_000L);
+    assertFalse(asyncQueryResponse.await(100L));
+
+    // Cancelling the query should unblock the response, and cancel the query on the server
+    assertTrue(queryRouter.cancelQuery(requestId));
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertEquals(response.size(), 1);
+    assertNull(response.get(OFFLINE_SERVER_ROUTING_INSTANCE).getDataTable());
+    assertTrue(System.currentTimeMillis() - startTimeMs < 5000);
+    TestUtils.waitForCondition(aVoid -> queryFuture.isCancelled(), 5_000L,
+        "Failed to cancel the query on the server");
+    // Query is already done
+    assertFalse(queryRouter.cancelQuery(requestId));
+
+    // Shut down the server
+    queryRouter.shutDown();
+    queryServer.shutDown();
+  }
+
   @AfterClass
   public void tearDown() {
     _queryRouter.shutDown();
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class ServerRoutingStatsManagerTest {
+  private static final String INSTANCE_ID = "Server_localhost_8098";
+
+  @Test
+  public void testServerRoutingStats() {
+    ServerRoutingStatsManager serverRoutingStatsManager = new ServerRoutingStatsManager(mock(BrokerMetrics.class));
+    assertNull(serverRoutingStatsManager.getServerRoutingStats(INSTANCE_ID));
+    assertEquals(serverRoutingStatsManager.getScore(INSTANCE_ID, System.currentTimeMillis()), 1.0);
+
+    // In-flight requests
+    serverRoutingStatsManager.recordRequestSubmitted(INSTANCE_ID);
+    serverRoutingStatsManager.recordRequestSubmitted(INSTANCE_ID);
+    ServerRoutingStatsManager.ServerRoutingStats stats = serverRoutingStatsManager.getServerRoutingStats(INSTANCE_ID);
+    assertNotNull(stats);
+    assertEquals(stats.getNumInFlightRequests(), 2);
+
+    // Successful response
+    serverRoutingStatsManager.recordResponse(INSTANCE_ID, 100, false);
+    long currentTimeMs = System.currentTimeMillis();
+    assertEquals(stats.getNumInFlightRequests(), 1);
+    assertEquals(stats.getLatencyEwmaMs(currentTimeMs), 20.0, 0.1);
+    assertEquals(stats.getErrorRate(currentTimeMs), 0.0);
+    double scoreWithInFlightRequest = stats.getScore(currentTimeMs);
+
+    // Failed response
+    serverRoutingStatsManager.recordResponse(INSTANCE_ID, 100, true);
+    currentTimeMs = System.currentTimeMillis();
+    assertEquals(stats.getNumInFlightRequests(), 0);
+    assertEquals(stats.getLatencyEwmaMs(currentTimeMs), 36.0, 0.1);
+    assertEquals(stats.getErrorRate(currentTimeMs), 0.2, 0.001);
+    assertEquals(stats.getScore(currentTimeMs), 37.0 * 3.0, 0.5);
+    assertTrue(stats.getScore(currentTimeMs) < scoreWithInFlightRequest);
+
+    // Number of in-flight requests should never go negative
+    serverRoutingStatsManager.recordResponse(INSTANCE_ID, 100, false);
+    assertEquals(stats.getNumInFlightRequests(), 0);
+
+    // Stats should decay by half after each half-life
+    currentTimeMs = System.currentTimeMillis();
+    double latencyEwmaMs = stats.getLatencyEwmaMs(currentTimeMs);
+    double errorRate = stats.getErrorRate(currentTimeMs);
+    assertEquals(stats.getLatencyEwmaMs(currentTimeMs + 10_000L), latencyEwmaMs / 2, 0.1);
+    assertEquals(stats.getErrorRate(currentTimeMs + 10_000L), errorRate / 2, 0.001);
+    assertEquals(stats.getLatencyEwmaMs(currentTimeMs + 20_000L), latencyEwmaMs / 4, 0.1);
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+
+/**
+ * Queries test for GROUP BY on multi-value columns stored with raw (no-dictionary) forward index.
+ */
+public class NoDictionaryMultiValueGroupByQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR =
+      new File(FileUtils.getTempDirectory(), "NoDictionaryMultiValueGroupByQueriesTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_RECORDS = 100;
+
+  private static final String RAW_INT_MV_COLUMN = "rawIntMVColumn";
+  private static final String RAW_STRING_MV_COLUMN = "rawStringMVColumn";
+  private static final String INT_COLUMN = "intColumn";
+  private static final List<String> NO_DICTIONARY_COLUMNS = Arrays.asList(RAW_INT_MV_COLUMN, RAW_STRING_MV_COLUMN);
+
+  private IndexSegment _indexSegment;
+  private List<IndexSegment> _indexSegments;
+
+  @Override
+  protected String getFilter() {
+    return "";
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<IndexSegment> getIndexSegments() {
+    return _indexSegments;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    // rawIntMVColumn: [i % 5, i % 5 + 10], rawStringMVColumn: ["s" + i % 3], intColumn: i % 2
+    List<GenericRow> records = new ArrayList<>(NUM_RECORDS);
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      GenericRow record = new GenericRow();
+      record.putValue(RAW_INT_MV_COLUMN, new Object[]{i % 5, i % 5 + 10});
+      record.putValue(RAW_STRING_MV_COLUMN, new Object[]{"s" + i % 3});
+      record.putValue(INT_COLUMN, i % 2);
+      records.add(record);
+    }
+
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setNoDictionaryColumns(NO_DICTIONARY_COLUMNS).build();
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addMultiValueDimension(RAW_INT_MV_COLUMN, DataType.INT)
+        .addMultiValueDimension(RAW_STRING_MV_COLUMN, DataType.STRING)
+        .addSingleValueDimension(INT_COLUMN, DataType.INT).build();
+    SegmentGeneratorConfig segmentGeneratorConfig = new SegmentGeneratorConfig(tableConfig, schema);
+    segmentGeneratorConfig.setOutDir(INDEX_DIR.getPath());
+    segmentGeneratorConfig.setTableName(RAW_TABLE_NAME);
+    segmentGeneratorConfig.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(segmentGeneratorConfig, new GenericRowRecordReader(records));
+    driver.build();
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.getNoDictionaryColumns().addAll(NO_DICTIONARY_COLUMNS);
+    ImmutableSegment immutableSegment =
+        ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), indexLoadingConfig);
+    assertFalse(immutableSegment.getDataSource(RAW_INT_MV_COLUMN).getDataSourceMetadata().isSingleValue());
+    assertEquals(immutableSegment.getDataSource(RAW_INT_MV_COLUMN).getDictionary(), null);
+    _indexSegment = immutableSegment;
+    _indexSegments = Arrays.asList(immutableSegment, immutableSegment);
+  }
+
+  @Test
+  public void testGroupBySingleRawMVColumn() {
+    // Each value is in 20 records, and the query runs on 4 identical segments
+    String query = "SELECT rawIntMVColumn, COUNT(*) FROM testTable GROUP BY rawIntMVColumn ORDER BY rawIntMVColumn "
+        + "LIMIT 100";
+    BrokerResponseNative brokerResponse = getBrokerResponseForSqlQuery(query);
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 10);
+    for (int i = 0; i < 10; i++) {
+      Object[] row = rows.get(i);
+      assertEquals(row[0], i < 5 ? i : i + 5);
+      assertEquals(row[1], 80L);
+    }
+
+    // "s0" is in 34 records, "s1" and "s2" are in 33 records
+    query = "SELECT rawStringMVColumn, COUNT(*), SUM(intColumn) FROM testTable GROUP BY rawStringMVColumn "
+        + "ORDER BY rawStringMVColumn LIMIT 100";
+    brokerResponse = getBrokerResponseForSqlQuery(query);
+    rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 3);
+    long[] expectedCounts = new long[3];
+    double[] expectedSums = new double[3];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      expectedCounts[i % 3] += 4;
+      expectedSums[i % 3] += 4 * (i % 2);
+    }
+    for (int i = 0; i < 3; i++) {
+      Object[] row = rows.get(i);
+      assertEquals(row[0], "s" + i);
+      assertEquals(row[1], expectedCounts[i]);
+      assertEquals(row[2], expectedSums[i]);
+    }
+  }
+
+  @Test
+  public void testGroupByRawMVColumnAndSVColumn() {
+    // Each (rawIntMVColumn, intColumn) combination is in 10 records, and the query runs on 4 identical segments
+    String query = "SELECT rawIntMVColumn, intColumn, COUNT(*) FROM testTable GROUP BY rawIntMVColumn, intColumn "
+        + "ORDER BY rawIntMVColumn, intColumn LIMIT 100";
+    BrokerResponseNative brokerResponse = getBrokerResponseForSqlQuery(query);
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 20);
+    for (int i = 0; i < 20; i++) {
+      Object[] row = rows.get(i);
+      int mvValue = i / 2;
+      assertEquals(row[0], mvValue < 5 ? mvValue : mvValue + 5);
+      assertEquals(row[1], i % 2);
+      assertEquals(row[2], 40L);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
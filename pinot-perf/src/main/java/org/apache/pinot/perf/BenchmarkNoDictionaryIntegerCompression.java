@@ -22,10 +22,15 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.RandomUtils;
+import org.apache.pinot.segment.local.io.compression.LZ4Compressor;
+import org.apache.pinot.segment.local.io.compression.LZ4Decompressor;
+import org.apache.pinot.segment.local.io.compression.NumericEncodingCompressor;
+import org.apache.pinot.segment.local.io.compression.NumericEncodingDecompressor;
 import org.apache.pinot.segment.local.io.compression.SnappyCompressor;
 import org.apache.pinot.segment.local.io.compression.SnappyDecompressor;
 import org.apache.pinot.segment.local.io.compression.ZstandardCompressor;
 import org.apache.pinot.segment.local.io.compression.ZstandardDecompressor;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -68,6 +73,32 @@ public class BenchmarkNoDictionaryIntegerCompression {
     private static SnappyDecompressor snappyDecompressor;
     private static ZstandardCompressor zstandardCompressor;
     private static ZstandardDecompressor zstandardDecompressor;
+    private static ByteBuffer _lz4CompressedIntegerInput;
+    private static ByteBuffer _lz4CompressedIntegerOutput;
+    private static ByteBuffer _lz4IntegerDecompressed;
+    LZ4Compressor lz4Compressor = new LZ4Compressor();
+    LZ4Decompressor lz4Decompressor = new LZ4Decompressor();
+    private static ByteBuffer _deltaCompressedIntegerInput;
+    private static ByteBuffer _deltaCompressedIntegerOutput;
+    private static ByteBuffer _deltaIntegerDecompressed;
+    NumericEncodingCompressor deltaCompressor =
+        new NumericEncodingCompressor(ChunkCompressionType.DELTA, Integer.BYTES);
+    NumericEncodingDecompressor deltaDecompressor =
+        new NumericEncodingDecompressor(ChunkCompressionType.DELTA);
+    private static ByteBuffer _deltaDeltaCompressedIntegerInput;
+    private static ByteBuffer _deltaDeltaCompressedIntegerOutput;
+    private static ByteBuffer _deltaDeltaIntegerDecompressed;
+    NumericEncodingCompressor deltaDeltaCompressor =
+        new NumericEncodingCompressor(ChunkCompressionType.DELTA_DELTA, Integer.BYTES);
+    NumericEncodingDecompressor deltaDeltaDecompressor =
+        new NumericEncodingDecompressor(ChunkCompressionType.DELTA_DELTA);
+    private static ByteBuffer _frameOfReferenceCompressedIntegerInput;
+    private static ByteBuffer _frameOfReferenceCompressedIntegerOutput;
+    private static ByteBuffer _frameOfReferenceIntegerDecompressed;
+    NumericEncodingCompressor frameOfReferenceCompressor =
+        new NumericEncodingCompressor(ChunkCompressionType.FRAME_OF_REFERENCE, Integer.BYTES);
+    NumericEncodingDecompressor frameOfReferenceDecompressor =
+        new NumericEncodingDecompressor(ChunkCompressionType.FRAME_OF_REFERENCE);
 
     @Setup(Level.Invocation)
     public void setUp()
@@ -81,6 +112,23 @@ public class BenchmarkNoDictionaryIntegerCompression {
       Zstd.compress(_zstandardCompressedIntegerInput, _uncompressedInt);
 
       _zstdIntegerDecompressed.flip();_zstandardCompressedIntegerInput.flip();_uncompressedInt.flip();_snappyIntegerDecompressed.flip();
+
+      _lz4CompressedIntegerInput = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      _lz4CompressedIntegerOutput = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      _lz4IntegerDecompressed = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      lz4Compressor.compress(_uncompressedInt.duplicate(), _lz4CompressedIntegerInput);
+      _deltaCompressedIntegerInput = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      _deltaCompressedIntegerOutput = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      _deltaIntegerDecompressed = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      deltaCompressor.compress(_uncompressedInt.duplicate(), _deltaCompressedIntegerInput);
+      _deltaDeltaCompressedIntegerInput = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      _deltaDeltaCompressedIntegerOutput = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      _deltaDeltaIntegerDecompressed = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      deltaDeltaCompressor.compress(_uncompressedInt.duplicate(), _deltaDeltaCompressedIntegerInput);
+      _frameOfReferenceCompressedIntegerInput = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      _frameOfReferenceCompressedIntegerOutput = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      _frameOfReferenceIntegerDecompressed = ByteBuffer.allocateDirect(_uncompressedInt.capacity() * 2);
+      frameOfReferenceCompressor.compress(_uncompressedInt.duplicate(), _frameOfReferenceCompressedIntegerInput);
     }
 
     private void generateRandomIntegerBuffer() {
@@ -115,6 +163,18 @@ public class BenchmarkNoDictionaryIntegerCompression {
     @TearDown(Level.Invocation)
     public void tearDown()
         throws Exception {
+      _lz4CompressedIntegerOutput.clear();
+      _lz4IntegerDecompressed.clear();
+      _lz4CompressedIntegerInput.rewind();
+      _deltaCompressedIntegerOutput.clear();
+      _deltaIntegerDecompressed.clear();
+      _deltaCompressedIntegerInput.rewind();
+      _deltaDeltaCompressedIntegerOutput.clear();
+      _deltaDeltaIntegerDecompressed.clear();
+      _deltaDeltaCompressedIntegerInput.rewind();
+      _frameOfReferenceCompressedIntegerOutput.clear();
+      _frameOfReferenceIntegerDecompressed.clear();
+      _frameOfReferenceCompressedIntegerInput.rewind();
       _snappyCompressedIntegerOutput.clear();
       _snappyIntegerDecompressed.clear();
       _zstdCompressedIntegerOutput.clear();
@@ -161,6 +221,78 @@ public class BenchmarkNoDictionaryIntegerCompression {
     return size;
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkLz4IntegerCompression(BenchmarkNoDictionaryIntegerCompressionState state)
+      throws IOException {
+    int size = state.lz4Compressor.compress(state._uncompressedInt, state._lz4CompressedIntegerOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkLz4IntegerDecompression(BenchmarkNoDictionaryIntegerCompressionState state)
+      throws IOException {
+    int size = state.lz4Decompressor.decompress(state._lz4CompressedIntegerInput, state._lz4IntegerDecompressed);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaIntegerCompression(BenchmarkNoDictionaryIntegerCompressionState state)
+      throws IOException {
+    int size = state.deltaCompressor.compress(state._uncompressedInt, state._deltaCompressedIntegerOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaIntegerDecompression(BenchmarkNoDictionaryIntegerCompressionState state)
+      throws IOException {
+    int size = state.deltaDecompressor.decompress(state._deltaCompressedIntegerInput, state._deltaIntegerDecompressed);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaDeltaIntegerCompression(BenchmarkNoDictionaryIntegerCompressionState state)
+      throws IOException {
+    int size = state.deltaDeltaCompressor.compress(state._uncompressedInt, state._deltaDeltaCompressedIntegerOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaDeltaIntegerDecompression(BenchmarkNoDictionaryIntegerCompressionState state)
+      throws IOException {
+    int size = state.deltaDeltaDecompressor.decompress(state._deltaDeltaCompressedIntegerInput, state._deltaDeltaIntegerDecompressed);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkFrameOfReferenceIntegerCompression(BenchmarkNoDictionaryIntegerCompressionState state)
+      throws IOException {
+    int size = state.frameOfReferenceCompressor.compress(state._uncompressedInt, state._frameOfReferenceCompressedIntegerOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkFrameOfReferenceIntegerDecompression(BenchmarkNoDictionaryIntegerCompressionState state)
+      throws IOException {
+    int size = state.frameOfReferenceDecompressor.decompress(state._frameOfReferenceCompressedIntegerInput, state._frameOfReferenceIntegerDecompressed);
+    return size;
+  }
+
   public static void main(String[] args)
       throws Exception {
     new Runner(new OptionsBuilder().include(BenchmarkNoDictionaryIntegerCompression.class.getSimpleName()).build()).run();
@@ -22,10 +22,15 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.RandomUtils;
+import org.apache.pinot.segment.local.io.compression.LZ4Compressor;
+import org.apache.pinot.segment.local.io.compression.LZ4Decompressor;
+import org.apache.pinot.segment.local.io.compression.NumericEncodingCompressor;
+import org.apache.pinot.segment.local.io.compression.NumericEncodingDecompressor;
 import org.apache.pinot.segment.local.io.compression.SnappyCompressor;
 import org.apache.pinot.segment.local.io.compression.SnappyDecompressor;
 import org.apache.pinot.segment.local.io.compression.ZstandardCompressor;
 import org.apache.pinot.segment.local.io.compression.ZstandardDecompressor;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -68,6 +73,32 @@ public class BenchmarkNoDictionaryLongCompression {
     SnappyDecompressor snappyDecompressor;
     ZstandardCompressor zstandardCompressor;
     ZstandardDecompressor zstandardDecompressor;
+    private static ByteBuffer _lz4CompressedLongInput;
+    private static ByteBuffer _lz4CompressedLongOutput;
+    private static ByteBuffer _lz4LongDecompressed;
+    LZ4Compressor lz4Compressor = new LZ4Compressor();
+    LZ4Decompressor lz4Decompressor = new LZ4Decompressor();
+    private static ByteBuffer _deltaCompressedLongInput;
+    private static ByteBuffer _deltaCompressedLongOutput;
+    private static ByteBuffer _deltaLongDecompressed;
+    NumericEncodingCompressor deltaCompressor =
+        new NumericEncodingCompressor(ChunkCompressionType.DELTA, Long.BYTES);
+    NumericEncodingDecompressor deltaDecompressor =
+        new NumericEncodingDecompressor(ChunkCompressionType.DELTA);
+    private static ByteBuffer _deltaDeltaCompressedLongInput;
+    private static ByteBuffer _deltaDeltaCompressedLongOutput;
+    private static ByteBuffer _deltaDeltaLongDecompressed;
+    NumericEncodingCompressor deltaDeltaCompressor =
+        new NumericEncodingCompressor(ChunkCompressionType.DELTA_DELTA, Long.BYTES);
+    NumericEncodingDecompressor deltaDeltaDecompressor =
+        new NumericEncodingDecompressor(ChunkCompressionType.DELTA_DELTA);
+    private static ByteBuffer _frameOfReferenceCompressedLongInput;
+    private static ByteBuffer _frameOfReferenceCompressedLongOutput;
+    private static ByteBuffer _frameOfReferenceLongDecompressed;
+    NumericEncodingCompressor frameOfReferenceCompressor =
+        new NumericEncodingCompressor(ChunkCompressionType.FRAME_OF_REFERENCE, Long.BYTES);
+    NumericEncodingDecompressor frameOfReferenceDecompressor =
+        new NumericEncodingDecompressor(ChunkCompressionType.FRAME_OF_REFERENCE);
 
     @Setup(Level.Invocation)
     public void setUp()
@@ -83,6 +114,23 @@ public class BenchmarkNoDictionaryLongCompression {
       Zstd.compress(_zstandardCompressedLongInput, _uncompressedLong);
 
       _zstandardCompressedLongInput.flip();_uncompressedLong.flip();_snappyLongDecompressedOutput.flip();
+
+      _lz4CompressedLongInput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      _lz4CompressedLongOutput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      _lz4LongDecompressed = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      lz4Compressor.compress(_uncompressedLong.duplicate(), _lz4CompressedLongInput);
+      _deltaCompressedLongInput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      _deltaCompressedLongOutput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      _deltaLongDecompressed = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      deltaCompressor.compress(_uncompressedLong.duplicate(), _deltaCompressedLongInput);
+      _deltaDeltaCompressedLongInput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      _deltaDeltaCompressedLongOutput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      _deltaDeltaLongDecompressed = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      deltaDeltaCompressor.compress(_uncompressedLong.duplicate(), _deltaDeltaCompressedLongInput);
+      _frameOfReferenceCompressedLongInput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      _frameOfReferenceCompressedLongOutput = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      _frameOfReferenceLongDecompressed = ByteBuffer.allocateDirect(_uncompressedLong.capacity() * 2);
+      frameOfReferenceCompressor.compress(_uncompressedLong.duplicate(), _frameOfReferenceCompressedLongInput);
     }
 
     private void generateRandomLongBuffer() {
@@ -116,6 +164,18 @@ public class BenchmarkNoDictionaryLongCompression {
     @TearDown(Level.Invocation)
     public void tearDown()
         throws Exception {
+      _lz4CompressedLongOutput.clear();
+      _lz4LongDecompressed.clear();
+      _lz4CompressedLongInput.rewind();
+      _deltaCompressedLongOutput.clear();
+      _deltaLongDecompressed.clear();
+      _deltaCompressedLongInput.rewind();
+      _deltaDeltaCompressedLongOutput.clear();
+      _deltaDeltaLongDecompressed.clear();
+      _deltaDeltaCompressedLongInput.rewind();
+      _frameOfReferenceCompressedLongOutput.clear();
+      _frameOfReferenceLongDecompressed.clear();
+      _frameOfReferenceCompressedLongInput.rewind();
       _snappyCompressedLongOutput.clear();
       _snappyLongDecompressedOutput.clear();
       _zstandardCompressedLongOutput.clear();
@@ -162,6 +222,78 @@ public class BenchmarkNoDictionaryLongCompression {
     return size;
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkLz4LongCompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    int size = state.lz4Compressor.compress(state._uncompressedLong, state._lz4CompressedLongOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkLz4LongDecompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    int size = state.lz4Decompressor.decompress(state._lz4CompressedLongInput, state._lz4LongDecompressed);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaLongCompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    int size = state.deltaCompressor.compress(state._uncompressedLong, state._deltaCompressedLongOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaLongDecompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    int size = state.deltaDecompressor.decompress(state._deltaCompressedLongInput, state._deltaLongDecompressed);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaDeltaLongCompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    int size = state.deltaDeltaCompressor.compress(state._uncompressedLong, state._deltaDeltaCompressedLongOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkDeltaDeltaLongDecompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    int size = state.deltaDeltaDecompressor.decompress(state._deltaDeltaCompressedLongInput, state._deltaDeltaLongDecompressed);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkFrameOfReferenceLongCompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    int size = state.frameOfReferenceCompressor.compress(state._uncompressedLong, state._frameOfReferenceCompressedLongOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkFrameOfReferenceLongDecompression(BenchmarkNoDictionaryLongCompressionState state)
+      throws IOException {
+    int size = state.frameOfReferenceDecompressor.decompress(state._frameOfReferenceCompressedLongInput, state._frameOfReferenceLongDecompressed);
+    return size;
+  }
+
   public static void main(String[] args)
       throws Exception {
     new Runner(new OptionsBuilder().include(BenchmarkNoDictionaryLongCompression.class.getSimpleName()).build()).run();
@@ -25,6 +25,8 @@ import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.segment.local.io.compression.LZ4Compressor;
+import org.apache.pinot.segment.local.io.compression.LZ4Decompressor;
 import org.apache.pinot.segment.local.io.compression.SnappyCompressor;
 import org.apache.pinot.segment.local.io.compression.SnappyDecompressor;
 import org.apache.pinot.segment.local.io.compression.ZstandardCompressor;
@@ -72,6 +74,11 @@ public class BenchmarkNoDictionaryStringCompression {
     SnappyDecompressor snappyDecompressor;
     ZstandardCompressor zstandardCompressor;
     ZstandardDecompressor zstandardDecompressor;
+    private static ByteBuffer _lz4CompressedStringInput;
+    private static ByteBuffer _lz4CompressedStringOutput;
+    private static ByteBuffer _lz4StringDecompressed;
+    LZ4Compressor lz4Compressor = new LZ4Compressor();
+    LZ4Decompressor lz4Decompressor = new LZ4Decompressor();
 
     @Setup(Level.Invocation)
     public void setUp()
@@ -88,6 +95,11 @@ public class BenchmarkNoDictionaryStringCompression {
       Zstd.compress(_zstandardCompressedStringInput, _uncompressedString);
 
       _zstandardStringDecompressed.flip();_zstandardCompressedStringInput.flip();_uncompressedString.flip();_snappyStringDecompressed.flip();
+
+      _lz4CompressedStringInput = ByteBuffer.allocateDirect(_uncompressedString.capacity() * 2);
+      _lz4CompressedStringOutput = ByteBuffer.allocateDirect(_uncompressedString.capacity() * 2);
+      _lz4StringDecompressed = ByteBuffer.allocateDirect(_uncompressedString.capacity() * 2);
+      lz4Compressor.compress(_uncompressedString.duplicate(), _lz4CompressedStringInput);
     }
 
     private void initializeCompressors() {
@@ -128,6 +140,9 @@ public class BenchmarkNoDictionaryStringCompression {
     @TearDown(Level.Invocation)
     public void tearDown()
         throws Exception {
+      _lz4CompressedStringOutput.clear();
+      _lz4StringDecompressed.clear();
+      _lz4CompressedStringInput.rewind();
       _snappyCompressedStringOutput.clear();
       _snappyStringDecompressed.clear();
       _zstandardCompressedStringOutput.clear();
@@ -174,6 +189,24 @@ public class BenchmarkNoDictionaryStringCompression {
     return size;
   }
 
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkLz4StringCompression(BenchmarkNoDictionaryStringCompressionState state)
+      throws IOException {
+    int size = state.lz4Compressor.compress(state._uncompressedString, state._lz4CompressedStringOutput);
+    return size;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public int benchmarkLz4StringDecompression(BenchmarkNoDictionaryStringCompressionState state)
+      throws IOException {
+    int size = state.lz4Decompressor.decompress(state._lz4CompressedStringInput, state._lz4StringDecompressed);
+    return size;
+  }
+
   public static void main(String[] args)
       throws Exception {
     new Runner(new OptionsBuilder().include(BenchmarkNoDictionaryStringCompression.class.getSimpleName()).build()).run();
@@ -18,14 +18,23 @@
  */
 package org.apache.pinot.perf;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Random;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.segment.local.io.readerwriter.PinotDataBufferMemoryManager;
 import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
 import org.apache.pinot.segment.local.realtime.impl.dictionary.StringOffHeapMutableDictionary;
 import org.apache.pinot.segment.local.realtime.impl.dictionary.StringOnHeapMutableDictionary;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentDictionaryCreator;
+import org.apache.pinot.segment.local.segment.index.readers.StringDictionary;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.DimensionFieldSpec;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -53,6 +62,9 @@ public class BenchmarkStringDictionary {
   private static final int NUM_RECORDS = 1_000_000;
   private static final int CARDINALITY = 200_000;
   private static final Random RANDOM = new Random();
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "BenchmarkStringDictionary");
+  // Common prefix of the values (e.g. URLs), which can be compressed by the front-coded dictionary
+  private static final String COMMON_PREFIX = "http://www.example.com/";
 
   @Param({"8", "16", "32", "64", "128", "256", "512", "1024"})
   private int _maxValueLength;
@@ -61,9 +73,18 @@ public class BenchmarkStringDictionary {
   private String[] _values;
   private StringOffHeapMutableDictionary _offHeapDictionary;
   private StringOnHeapMutableDictionary _onHeapDictionary;
+  private PinotDataBuffer _fixedLengthDictionaryBuffer;
+  private StringDictionary _fixedLengthDictionary;
+  private PinotDataBuffer _varLengthDictionaryBuffer;
+  private StringDictionary _varLengthDictionary;
+  private PinotDataBuffer _frontCodedDictionaryBuffer;
+  private StringDictionary _frontCodedDictionary;
+  private String[] _prefixedValues;
+  private int[] _dictIds;
 
   @Setup
-  public void setUp() {
+  public void setUp()
+      throws IOException {
     _memoryManager = new DirectMemoryManager("");
     _offHeapDictionary =
         new StringOffHeapMutableDictionary(CARDINALITY, CARDINALITY / 10, _memoryManager, null, _maxValueLength / 2);
@@ -75,18 +96,64 @@ public class BenchmarkStringDictionary {
       _offHeapDictionary.index(value);
       _onHeapDictionary.index(value);
     }
+
+    // Immutable dictionaries for the values with common prefix
+    TreeSet<String> prefixedValueSet = new TreeSet<>();
+    for (String value : uniqueValues) {
+      prefixedValueSet.add(COMMON_PREFIX + value);
+    }
+    String[] sortedValues = prefixedValueSet.toArray(new String[0]);
+    FileUtils.deleteQuietly(INDEX_DIR);
+    FileUtils.forceMkdir(INDEX_DIR);
+    _fixedLengthDictionaryBuffer = createDictionaryBuffer(sortedValues, "fixedLength", false, false);
+    _fixedLengthDictionary = new StringDictionary(_fixedLengthDictionaryBuffer, sortedValues.length,
+        (int) (_fixedLengthDictionaryBuffer.size() / sortedValues.length), (byte) 0);
+    _varLengthDictionaryBuffer = createDictionaryBuffer(sortedValues, "varLength", true, false);
+    _varLengthDictionary =
+        new StringDictionary(_varLengthDictionaryBuffer, sortedValues.length, _maxValueLength + COMMON_PREFIX.length(),
+            (byte) 0);
+    _frontCodedDictionaryBuffer = createDictionaryBuffer(sortedValues, "frontCoded", false, true);
+    _frontCodedDictionary =
+        new StringDictionary(_frontCodedDictionaryBuffer, sortedValues.length, _maxValueLength + COMMON_PREFIX.length(),
+            (byte) 0);
+    System.out.printf("%nDictionary size in bytes - fixed length: %d, var length: %d, front-coded: %d%n",
+        _fixedLengthDictionaryBuffer.size(), _varLengthDictionaryBuffer.size(), _frontCodedDictionaryBuffer.size());
+
     _values = new String[NUM_RECORDS];
+    _prefixedValues = new String[NUM_RECORDS];
+    _dictIds = new int[NUM_RECORDS];
     for (int i = 0; i < NUM_RECORDS; i++) {
-      _values[i] = uniqueValues[RANDOM.nextInt(CARDINALITY)];
+      int dictId = RANDOM.nextInt(sortedValues.length);
+      _dictIds[i] = dictId;
+      _prefixedValues[i] = sortedValues[dictId];
+      _values[i] = sortedValues[dictId].substring(COMMON_PREFIX.length());
     }
   }
 
+  private PinotDataBuffer createDictionaryBuffer(String[] sortedValues, String column, boolean useVarLengthDictionary,
+      boolean useFrontCodedDictionary)
+      throws IOException {
+    FieldSpec fieldSpec = new DimensionFieldSpec(column, FieldSpec.DataType.STRING, true);
+    try (SegmentDictionaryCreator dictionaryCreator = new SegmentDictionaryCreator(sortedValues, fieldSpec, INDEX_DIR,
+        useVarLengthDictionary, useFrontCodedDictionary)) {
+      dictionaryCreator.build();
+    }
+    return PinotDataBuffer.mapReadOnlyBigEndianFile(new File(INDEX_DIR, column + V1Constants.Dict.FILE_EXTENSION));
+  }
+
   @TearDown
   public void tearDown()
       throws Exception {
     _onHeapDictionary.close();
     _offHeapDictionary.close();
     _memoryManager.close();
+    _fixedLengthDictionary.close();
+    _fixedLengthDictionaryBuffer.close();
+    _varLengthDictionary.close();
+    _varLengthDictionaryBuffer.close();
+    _frontCodedDictionary.close();
+    _frontCodedDictionaryBuffer.close();
+    FileUtils.deleteQuietly(INDEX_DIR);
   }
 
   // Generates a ascii displayable string of the given length
@@ -116,6 +183,52 @@ public class BenchmarkStringDictionary {
     return sum;
   }
 
+  @Benchmark
+  public int fixedLengthStringDictionaryIndexOf() {
+    return indexOf(_fixedLengthDictionary);
+  }
+
+  @Benchmark
+  public int varLengthStringDictionaryIndexOf() {
+    return indexOf(_varLengthDictionary);
+  }
+
+  @Benchmark
+  public int frontCodedStringDictionaryIndexOf() {
+    return indexOf(_frontCodedDictionary);
+  }
+
+  private int indexOf(StringDictionary dictionary) {
+    int sum = 0;
+    for (String stringValue : _prefixedValues) {
+      sum += dictionary.indexOf(stringValue);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int fixedLengthStringDictionaryGet() {
+    return get(_fixedLengthDictionary);
+  }
+
+  @Benchmark
+  public int varLengthStringDictionaryGet() {
+    return get(_varLengthDictionary);
+  }
+
+  @Benchmark
+  public int frontCodedStringDictionaryGet() {
+    return get(_frontCodedDictionary);
+  }
+
+  private int get(StringDictionary dictionary) {
+    int sum = 0;
+    for (int dictId : _dictIds) {
+      sum += dictionary.getStringValue(dictId).length();
+    }
+    return sum;
+  }
+
   @Benchmark
   public int offHeapStringDictionaryWrite()
       throws IOException {
@@ -21,6 +21,7 @@ package org.apache.pinot.perf;
 import com.google.common.base.Joiner;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -48,27 +49,39 @@ import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
 
 
 /**
- * Performance test for lookup in string dictionary.
+ * Performance test for lookup in string dictionary, which compares the size and lookup speed of the different
+ * dictionary types.
  */
 public class StringDictionaryPerfTest {
   private static final int MAX_STRING_LENGTH = 1000;
   private static final boolean USE_FIXED_SIZE_STRING = true;
+  // Common prefix of the strings (e.g. URLs), which can be compressed by the front-coded dictionary
+  private static final String COMMON_PREFIX = "http://www.example.com/";
   private static final String TMP_DIR = System.getProperty("java.io.tmpdir");
   private static final String COLUMN_NAME = "test";
   private static final String[] STATS_HEADERS =
-      new String[]{"DictSize", "TimeTaken(ms)", "SegmentSize", "NumLookups", "Min", "Max", "Mean", "StdDev", "Median", "Skewness", "Kurtosis", "Variance", "BufferSize"};
+      new String[]{"DictType", "DictSize", "TimeTaken(ms)", "SegmentSize", "NumLookups", "Min", "Max", "Mean", "StdDev", "Median", "Skewness", "Kurtosis", "Variance", "BufferSize"};
   private static final Joiner COMMA_JOINER = Joiner.on(",");
 
+  private enum DictionaryType {
+    FIXED_LENGTH, FIXED_LENGTH_ON_HEAP, VAR_LENGTH, FRONT_CODED
+  }
+
   private final DescriptiveStatistics _statistics = new DescriptiveStatistics();
+  private final DictionaryType _dictionaryType;
   private String[] _inputStrings;
   private File _indexDir;
   private int _dictLength;
 
+  private StringDictionaryPerfTest(DictionaryType dictionaryType) {
+    _dictionaryType = dictionaryType;
+  }
+
   /**
    * Helper method to build a segment:
    * <ul>
    *   <li>Segment contains one string column</li>
-   *   <li>Row values for the column are randomly generated strings of length 1 to 100</li>
+   *   <li>Row values for the column are randomly generated strings with a common prefix</li>
    * </ul>
    */
   private void buildSegment(int dictLength)
@@ -89,6 +102,11 @@ public class StringDictionaryPerfTest {
     config.setOutDir(_indexDir.getParent());
     config.setFormat(FileFormat.AVRO);
     config.setSegmentName(segmentName);
+    if (_dictionaryType == DictionaryType.VAR_LENGTH) {
+      config.setVarLengthDictionaryColumns(Collections.singletonList(COLUMN_NAME));
+    } else if (_dictionaryType == DictionaryType.FRONT_CODED) {
+      config.setFrontCodedDictionaryColumns(Collections.singletonList(COLUMN_NAME));
+    }
 
     Random random = new Random(System.nanoTime());
     List<GenericRow> rows = new ArrayList<>(dictLength);
@@ -97,7 +115,7 @@ public class StringDictionaryPerfTest {
     int i = 0;
     while (i < dictLength) {
       HashMap<String, Object> map = new HashMap<>();
-      String randomString = RandomStringUtils
+      String randomString = COMMON_PREFIX + RandomStringUtils
           .randomAlphanumeric(USE_FIXED_SIZE_STRING ? MAX_STRING_LENGTH : (1 + random.nextInt(MAX_STRING_LENGTH)));
 
       if (uniqueStrings.contains(randomString)) {
@@ -137,7 +155,7 @@ public class StringDictionaryPerfTest {
       dictionary.indexOf(_inputStrings[random.nextInt(_dictLength)]);
     }
 
-    FileUtils.deleteQuietly(_indexDir);
+    immutableSegment.destroy();
     System.out.println("Total time for " + numLookups + " lookups: " + (System.currentTimeMillis() - start) + "ms");
   }
 
@@ -151,9 +169,11 @@ public class StringDictionaryPerfTest {
     long oldMemory = r.totalMemory() - r.freeMemory();
     IndexLoadingConfig defaultIndexLoadingConfig = new IndexLoadingConfig();
     defaultIndexLoadingConfig.setReadMode(ReadMode.heap);
-    Set<String> columnNames = new HashSet<>();
-    columnNames.add(COLUMN_NAME);
-    defaultIndexLoadingConfig.setOnHeapDictionaryColumns(columnNames);
+    if (_dictionaryType == DictionaryType.FIXED_LENGTH_ON_HEAP) {
+      Set<String> columnNames = new HashSet<>();
+      columnNames.add(COLUMN_NAME);
+      defaultIndexLoadingConfig.setOnHeapDictionaryColumns(columnNames);
+    }
 
     ImmutableSegment immutableSegment = ImmutableSegmentLoader.load(_indexDir, defaultIndexLoadingConfig);
     Dictionary dictionary = immutableSegment.getDictionary(COLUMN_NAME);
@@ -168,11 +188,12 @@ public class StringDictionaryPerfTest {
     System.gc();
     long newMemory = r.totalMemory() - r.freeMemory();
     long segmentSize = immutableSegment.getSegmentSizeBytes();
+    immutableSegment.destroy();
     FileUtils.deleteQuietly(_indexDir);
 
     System.out.println("Total time for " + numGetValues + " lookups: " + time + "ms");
     System.out.println("Memory usage: " + (newMemory - oldMemory));
-    return new String[]{String.valueOf(_statistics.getN()), String.valueOf(time), String.valueOf(
+    return new String[]{_dictionaryType.name(), String.valueOf(_statistics.getN()), String.valueOf(time), String.valueOf(
         segmentSize), String.valueOf(numGetValues), String.valueOf(_statistics.getMin()), String.valueOf(
         _statistics.getMax()), String.valueOf(_statistics.getMean()), String.valueOf(
         _statistics.getStandardDeviation()), String.valueOf(_statistics.getPercentile(50.0D)), String.valueOf(
@@ -188,14 +209,18 @@ public class StringDictionaryPerfTest {
 
     int numLookups = Integer.valueOf(args[args.length - 1]);
 
-    String[][] stats = new String[args.length][];
+    DictionaryType[] dictionaryTypes = DictionaryType.values();
+    String[][] stats = new String[(args.length - 1) * dictionaryTypes.length + 1][];
     stats[0] = STATS_HEADERS;
+    int index = 1;
     for (int i = 0; i < args.length - 1; i++) {
       int dictLength = Integer.valueOf(args[i]);
-      StringDictionaryPerfTest test = new StringDictionaryPerfTest();
-      test.buildSegment(dictLength);
-      test.perfTestLookups(numLookups);
-      stats[i + 1] = test.perfTestGetValues(numLookups);
+      for (DictionaryType dictionaryType : dictionaryTypes) {
+        StringDictionaryPerfTest test = new StringDictionaryPerfTest(dictionaryType);
+        test.buildSegment(dictLength);
+        test.perfTestLookups(numLookups);
+        stats[index++] = test.perfTestGetValues(numLookups);
+      }
     }
     for (String[] s : stats) {
       System.out.println(COMMA_JOINER.join(s));
@@ -21,6 +21,7 @@ package org.apache.pinot.plugin.filesystem;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -601,6 +602,19 @@ public class S3PinotFS extends PinotFS {
     }
   }
 
+  @Override
+  public InputStream open(URI uri, long offset, long length)
+      throws IOException {
+    if (length <= 0) {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+    String path = sanitizePath(uri.getPath());
+    // NOTE: HTTP range is inclusive on both ends
+    GetObjectRequest getObjectRequest = GetObjectRequest.builder().bucket(uri.getHost()).key(path)
+        .range("bytes=" + offset + "-" + (offset + length - 1)).build();
+    return _s3Client.getObject(getObjectRequest);
+  }
+
   @Override
   public void close()
       throws IOException {
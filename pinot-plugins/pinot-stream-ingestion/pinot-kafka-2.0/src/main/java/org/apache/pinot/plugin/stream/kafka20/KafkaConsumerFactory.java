@@ -29,6 +29,9 @@ public class KafkaConsumerFactory extends StreamConsumerFactory {
 
   @Override
   public PartitionLevelConsumer createPartitionLevelConsumer(String clientId, int partition) {
+    if (new KafkaPartitionLevelStreamConfig(_streamConfig).isKafkaSharedConsumerEnabled()) {
+      return new KafkaSharedPartitionLevelConsumer(_streamConfig, partition);
+    }
     return new KafkaPartitionLevelConsumer(clientId, _streamConfig, partition);
   }
 
@@ -38,6 +38,8 @@ public class KafkaPartitionLevelStreamConfig {
   private final int _kafkaFetcherSizeBytes;
   private final int _kafkaFetcherMinBytes;
   private final String _kafkaIsolationLevel;
+  private final boolean _kafkaSharedConsumerEnabled;
+  private final int _kafkaSharedConsumerMaxBufferedRecords;
   private final Map<String, String> _streamConfigMap;
 
   /**
@@ -61,6 +63,10 @@ public class KafkaPartitionLevelStreamConfig {
         .constructStreamProperty(KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_FETCHER_MIN_BYTES);
     String isolationLevelKey = KafkaStreamConfigProperties
         .constructStreamProperty(KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_ISOLATION_LEVEL);
+    String sharedConsumerEnabledKey = KafkaStreamConfigProperties
+        .constructStreamProperty(KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_SHARED_CONSUMER_ENABLED);
+    String sharedConsumerMaxBufferedRecordsKey = KafkaStreamConfigProperties.constructStreamProperty(
+        KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_SHARED_CONSUMER_MAX_BUFFERED_RECORDS);
     _bootstrapHosts = _streamConfigMap.get(llcBrokerListKey);
     _kafkaBufferSize = getIntConfigWithDefault(_streamConfigMap, llcBufferKey,
         KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_BUFFER_SIZE_DEFAULT);
@@ -70,6 +76,13 @@ public class KafkaPartitionLevelStreamConfig {
     _kafkaFetcherMinBytes = getIntConfigWithDefault(_streamConfigMap, fetcherMinBytesKey,
         KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_FETCHER_MIN_BYTES_DEFAULT);
 
+    String sharedConsumerEnabled = _streamConfigMap.get(sharedConsumerEnabledKey);
+    _kafkaSharedConsumerEnabled = StringUtils.isNotEmpty(sharedConsumerEnabled) ? Boolean.parseBoolean(
+        sharedConsumerEnabled) : KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_SHARED_CONSUMER_ENABLED_DEFAULT;
+    _kafkaSharedConsumerMaxBufferedRecords = getIntConfigWithDefault(_streamConfigMap,
+        sharedConsumerMaxBufferedRecordsKey,
+        KafkaStreamConfigProperties.LowLevelConsumer.KAFKA_SHARED_CONSUMER_MAX_BUFFERED_RECORDS_DEFAULT);
+
     _kafkaIsolationLevel = _streamConfigMap.get(isolationLevelKey);
     if (_kafkaIsolationLevel != null) {
       Preconditions.checkArgument(
@@ -111,6 +124,14 @@ public class KafkaPartitionLevelStreamConfig {
     return _kafkaIsolationLevel;
   }
 
+  public boolean isKafkaSharedConsumerEnabled() {
+    return _kafkaSharedConsumerEnabled;
+  }
+
+  public int getKafkaSharedConsumerMaxBufferedRecords() {
+    return _kafkaSharedConsumerMaxBufferedRecords;
+  }
+
   private int getIntConfigWithDefault(Map<String, String> configMap, String key, int defaultValue) {
     String stringValue = configMap.get(key);
     try {
@@ -128,7 +149,9 @@ public class KafkaPartitionLevelStreamConfig {
     return "KafkaLowLevelStreamConfig{" + "_kafkaTopicName='" + _kafkaTopicName + '\'' + ", _bootstrapHosts='"
         + _bootstrapHosts + '\'' + ", _kafkaBufferSize='" + _kafkaBufferSize + '\'' + ", _kafkaSocketTimeout='"
         + _kafkaSocketTimeout + '\'' + ", _kafkaFetcherSizeBytes='" + _kafkaFetcherSizeBytes + '\''
-        + ", _kafkaFetcherMinBytes='" + _kafkaFetcherMinBytes + '\'' + '}';
+        + ", _kafkaFetcherMinBytes='" + _kafkaFetcherMinBytes + '\'' + ", _kafkaSharedConsumerEnabled='"
+        + _kafkaSharedConsumerEnabled + '\'' + ", _kafkaSharedConsumerMaxBufferedRecords='"
+        + _kafkaSharedConsumerMaxBufferedRecords + '\'' + '}';
   }
 
   @Override
@@ -148,7 +171,9 @@ public class KafkaPartitionLevelStreamConfig {
         .isEqual(_kafkaBufferSize, that._kafkaBufferSize) && EqualityUtils
         .isEqual(_kafkaSocketTimeout, that._kafkaSocketTimeout) && EqualityUtils
         .isEqual(_kafkaFetcherSizeBytes, that._kafkaFetcherSizeBytes) && EqualityUtils
-        .isEqual(_kafkaFetcherMinBytes, that._kafkaFetcherMinBytes);
+        .isEqual(_kafkaFetcherMinBytes, that._kafkaFetcherMinBytes) && EqualityUtils
+        .isEqual(_kafkaSharedConsumerEnabled, that._kafkaSharedConsumerEnabled) && EqualityUtils
+        .isEqual(_kafkaSharedConsumerMaxBufferedRecords, that._kafkaSharedConsumerMaxBufferedRecords);
   }
 
   @Override
@@ -159,6 +184,8 @@ public class KafkaPartitionLevelStreamConfig {
     result = EqualityUtils.hashCodeOf(result, _kafkaSocketTimeout);
     result = EqualityUtils.hashCodeOf(result, _kafkaFetcherSizeBytes);
     result = EqualityUtils.hashCodeOf(result, _kafkaFetcherMinBytes);
+    result = EqualityUtils.hashCodeOf(result, _kafkaSharedConsumerEnabled);
+    result = EqualityUtils.hashCodeOf(result, _kafkaSharedConsumerMaxBufferedRecords);
     return result;
   }
 }
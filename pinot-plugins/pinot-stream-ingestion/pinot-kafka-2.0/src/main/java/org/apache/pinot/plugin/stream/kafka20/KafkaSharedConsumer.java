@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka20;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.pinot.spi.stream.StreamConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A single Kafka consumer shared by all the consuming partitions of a table on the server.
+ *
+ * <p>Instead of one consumer (with its own connections and fetch loop) per consuming partition, all the partitions
+ * registered to the shared consumer are assigned to one {@link KafkaConsumer}, which is polled by a single fetch
+ * thread. The fetched records are demultiplexed into per-partition buffers, which are drained by the
+ * {@link KafkaSharedPartitionLevelConsumer} of each consuming segment.
+ *
+ * <p>Each partition keeps its own offset control: when a partition consumer fetches from an offset that does not
+ * follow the records it has been returned, the buffered records of the partition are discarded and the fetch thread
+ * seeks the partition to the requested offset. Partitions with a full buffer are paused until the buffer is drained.
+ *
+ * <p>The {@link KafkaConsumer} is only accessed by the fetch thread.
+ */
+public class KafkaSharedConsumer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(KafkaSharedConsumer.class);
+  private static final long POLL_TIMEOUT_MS = 100L;
+  private static final Map<String, KafkaSharedConsumer> SHARED_CONSUMERS = new HashMap<>();
+
+  private final String _key;
+  private final String _topic;
+  private final int _maxBufferedRecords;
+  private final Consumer<String, Bytes> _consumer;
+  private final Map<Integer, PartitionBuffer> _partitionBuffers = new ConcurrentHashMap<>();
+  private final Thread _fetchThread;
+
+  // Guarded by SHARED_CONSUMERS
+  private int _refCount = 0;
+
+  private volatile boolean _assignmentChanged = false;
+  private volatile boolean _stopped = false;
+
+  private KafkaSharedConsumer(String key, StreamConfig streamConfig, KafkaPartitionLevelStreamConfig config) {
+    _key = key;
+    _topic = config.getKafkaTopicName();
+    _maxBufferedRecords = config.getKafkaSharedConsumerMaxBufferedRecords();
+    _consumer =
+        new KafkaConsumer<>(KafkaPartitionLevelConnectionHandler.getConsumerProperties(streamConfig, config));
+    _fetchThread = new Thread(this::fetchLoop, "kafka-shared-consumer-" + key);
+    _fetchThread.setDaemon(true);
+    _fetchThread.start();
+    LOGGER.info("Started shared Kafka consumer: {}", key);
+  }
+
+  /**
+   * Returns the shared consumer for the table and topic of the given stream config, and registers the partition to it.
+   * {@link #release(int)} should be invoked once the partition is no longer consumed.
+   */
+  public static KafkaSharedConsumer acquire(StreamConfig streamConfig, KafkaPartitionLevelStreamConfig config,
+      int partition) {
+    String key = streamConfig.getTableNameWithType() + "_" + config.getKafkaTopicName() + "_"
+        + config.getBootstrapHosts();
+    KafkaSharedConsumer sharedConsumer;
+    synchronized (SHARED_CONSUMERS) {
+      sharedConsumer = SHARED_CONSUMERS.computeIfAbsent(key, k -> new KafkaSharedConsumer(k, streamConfig, config));
+      sharedConsumer._refCount++;
+      sharedConsumer.addPartition(partition);
+    }
+    return sharedConsumer;
+  }
+
+  /**
+   * Unregisters the partition from the shared consumer, and stops the shared consumer if no partition is registered.
+   */
+  public void release(int partition) {
+    synchronized (SHARED_CONSUMERS) {
+      removePartition(partition);
+      if (--_refCount == 0) {
+        SHARED_CONSUMERS.remove(_key);
+        _stopped = true;
+        _consumer.wakeup();
+      }
+    }
+    if (_stopped) {
+      try {
+        _fetchThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void addPartition(int partition) {
+    _partitionBuffers.computeIfAbsent(partition, PartitionBuffer::new)._refCount++;
+    _assignmentChanged = true;
+    _consumer.wakeup();
+  }
+
+  private void removePartition(int partition) {
+    PartitionBuffer buffer = _partitionBuffers.get(partition);
+    if (buffer != null && --buffer._refCount == 0) {
+      _partitionBuffers.remove(partition);
+      _assignmentChanged = true;
+      _consumer.wakeup();
+    }
+  }
+
+  /**
+   * Returns the records of the partition starting from the given offset and before the given end offset, waiting up
+   * to the given timeout for the records to be fetched.
+   */
+  List<ConsumerRecord<String, Bytes>> fetch(int partition, long startOffset, long endOffset, int timeoutMillis) {
+    PartitionBuffer buffer = _partitionBuffers.get(partition);
+    if (buffer == null) {
+      throw new IllegalStateException("Partition: " + partition + " is not registered to shared consumer: " + _key);
+    }
+    List<ConsumerRecord<String, Bytes>> records = new ArrayList<>();
+    long deadlineMs = System.currentTimeMillis() + timeoutMillis;
+    synchronized (buffer) {
+      if (startOffset != buffer._nextOffset) {
+        // Not a continuation of the previous fetch, seek to the requested offset
+        buffer._records.clear();
+        buffer._seekOffset = startOffset;
+        buffer._nextOffset = startOffset;
+        _consumer.wakeup();
+      }
+      try {
+        long remainingMs = timeoutMillis;
+        while (buffer._records.isEmpty() && remainingMs > 0) {
+          buffer.wait(remainingMs);
+          remainingMs = deadlineMs - System.currentTimeMillis();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      while (!buffer._records.isEmpty()) {
+        ConsumerRecord<String, Bytes> record = buffer._records.peekFirst();
+        if (record.offset() >= endOffset) {
+          break;
+        }
+        buffer._records.pollFirst();
+        if (record.offset() >= startOffset) {
+          records.add(record);
+          buffer._nextOffset = record.offset() + 1;
+        }
+      }
+    }
+    return records;
+  }
+
+  private void fetchLoop() {
+    try {
+      while (!_stopped) {
+        try {
+          updateAssignment();
+          applySeeksAndResumes();
+          if (_partitionBuffers.isEmpty()) {
+            Thread.sleep(POLL_TIMEOUT_MS);
+            continue;
+          }
+          ConsumerRecords<String, Bytes> consumerRecords = _consumer.poll(Duration.ofMillis(POLL_TIMEOUT_MS));
+          for (TopicPartition topicPartition : consumerRecords.partitions()) {
+            PartitionBuffer buffer = _partitionBuffers.get(topicPartition.partition());
+            if (buffer != null) {
+              addRecords(topicPartition, buffer, consumerRecords.records(topicPartition));
+            }
+          }
+        } catch (WakeupException e) {
+          // Woken up to apply the assignment changes or seeks, or to stop
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          break;
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception in shared Kafka consumer: {}, retrying", _key, e);
+        }
+      }
+    } finally {
+      _consumer.close();
+      LOGGER.info("Stopped shared Kafka consumer: {}", _key);
+    }
+  }
+
+  private void updateAssignment() {
+    if (!_assignmentChanged) {
+      return;
+    }
+    _assignmentChanged = false;
+    List<TopicPartition> topicPartitions = new ArrayList<>();
+    List<TopicPartition> notStartedTopicPartitions = new ArrayList<>();
+    for (PartitionBuffer buffer : _partitionBuffers.values()) {
+      TopicPartition topicPartition = new TopicPartition(_topic, buffer._partition);
+      topicPartitions.add(topicPartition);
+      synchronized (buffer) {
+        if (buffer._nextOffset < 0 && buffer._seekOffset < 0) {
+          notStartedTopicPartitions.add(topicPartition);
+        }
+      }
+    }
+    _consumer.assign(topicPartitions);
+    // Do not fetch the partitions until the first fetch request tells the offset to start from
+    _consumer.pause(notStartedTopicPartitions);
+  }
+
+  private void applySeeksAndResumes() {
+    for (PartitionBuffer buffer : _partitionBuffers.values()) {
+      TopicPartition topicPartition = new TopicPartition(_topic, buffer._partition);
+      synchronized (buffer) {
+        if (buffer._seekOffset >= 0) {
+          _consumer.seek(topicPartition, buffer._seekOffset);
+          buffer._seekOffset = -1;
+          buffer._paused = false;
+          _consumer.resume(Collections.singletonList(topicPartition));
+        } else if (buffer._paused && buffer._records.size() < _maxBufferedRecords / 2) {
+          buffer._paused = false;
+          _consumer.resume(Collections.singletonList(topicPartition));
+        }
+      }
+    }
+  }
+
+  private void addRecords(TopicPartition topicPartition, PartitionBuffer buffer,
+      List<ConsumerRecord<String, Bytes>> records) {
+    synchronized (buffer) {
+      if (buffer._seekOffset >= 0) {
+        // The records were fetched before the seek, discard them
+        return;
+      }
+      buffer._records.addAll(records);
+      if (buffer._records.size() >= _maxBufferedRecords) {
+        buffer._paused = true;
+        _consumer.pause(Collections.singletonList(topicPartition));
+      }
+      buffer.notifyAll();
+    }
+  }
+
+  @VisibleForTesting
+  static int getNumSharedConsumers() {
+    synchronized (SHARED_CONSUMERS) {
+      return SHARED_CONSUMERS.size();
+    }
+  }
+
+  /**
+   * Buffer of the fetched records for a partition, guarded by itself.
+   */
+  private static class PartitionBuffer {
+    final int _partition;
+    final ArrayDeque<ConsumerRecord<String, Bytes>> _records = new ArrayDeque<>();
+    // Offset the partition should be seeked to by the fetch thread, -1 if no seek is pending
+    long _seekOffset = -1;
+    // Offset of the next record expected by the partition consumer, -1 before the first fetch
+    long _nextOffset = -1;
+    boolean _paused;
+    // Guarded by SHARED_CONSUMERS
+    int _refCount;
+
+    PartitionBuffer(int partition) {
+      _partition = partition;
+    }
+  }
+}
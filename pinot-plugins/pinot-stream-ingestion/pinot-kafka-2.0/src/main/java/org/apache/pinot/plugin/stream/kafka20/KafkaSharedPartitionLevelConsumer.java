@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.plugin.stream.kafka20;
+
+import com.google.common.collect.Iterables;
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import org.apache.pinot.spi.stream.LongMsgOffset;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.PartitionLevelConsumer;
+import org.apache.pinot.spi.stream.StreamConfig;
+import org.apache.pinot.spi.stream.StreamPartitionMsgOffset;
+
+
+/**
+ * Partition level consumer backed by a {@link KafkaSharedConsumer}, which is shared by all the consuming partitions of
+ * the table on the server.
+ */
+public class KafkaSharedPartitionLevelConsumer implements PartitionLevelConsumer {
+  private final KafkaPartitionLevelStreamConfig _config;
+  private final int _partition;
+  private final KafkaSharedConsumer _sharedConsumer;
+
+  private boolean _closed = false;
+
+  public KafkaSharedPartitionLevelConsumer(StreamConfig streamConfig, int partition) {
+    _config = new KafkaPartitionLevelStreamConfig(streamConfig);
+    _partition = partition;
+    _sharedConsumer = KafkaSharedConsumer.acquire(streamConfig, _config, partition);
+  }
+
+  @Override
+  public MessageBatch fetchMessages(StreamPartitionMsgOffset startMsgOffset, StreamPartitionMsgOffset endMsgOffset,
+      int timeoutMillis)
+      throws TimeoutException {
+    long startOffset = ((LongMsgOffset) startMsgOffset).getOffset();
+    long endOffset = endMsgOffset == null ? Long.MAX_VALUE : ((LongMsgOffset) endMsgOffset).getOffset();
+    return new KafkaMessageBatch(
+        Iterables.filter(_sharedConsumer.fetch(_partition, startOffset, endOffset, timeoutMillis),
+            record -> record != null && record.value() != null));
+  }
+
+  public KafkaPartitionLevelStreamConfig getKafkaPartitionLevelStreamConfig() {
+    return _config;
+  }
+
+  @Override
+  public synchronized void close()
+      throws IOException {
+    if (!_closed) {
+      _closed = true;
+      _sharedConsumer.release(_partition);
+    }
+  }
+}
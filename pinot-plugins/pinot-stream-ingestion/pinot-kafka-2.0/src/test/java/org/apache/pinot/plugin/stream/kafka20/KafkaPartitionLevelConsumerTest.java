@@ -284,6 +284,63 @@ public class KafkaPartitionLevelConsumerTest {
     }
   }
 
+  @Test
+  public void testSharedConsumer()
+      throws Exception {
+    String clientId = "clientId";
+    Map<String, String> streamConfigMap = new HashMap<>();
+    streamConfigMap.put("streamType", "kafka");
+    streamConfigMap.put("stream.kafka.topic.name", TEST_TOPIC_2);
+    streamConfigMap.put("stream.kafka.broker.list", _kafkaBrokerAddress);
+    streamConfigMap.put("stream.kafka.consumer.type", "simple");
+    streamConfigMap.put("stream.kafka.consumer.factory.class.name", getKafkaConsumerFactoryName());
+    streamConfigMap.put("stream.kafka.decoder.class.name", "decoderClass");
+    streamConfigMap.put("stream.kafka.shared.consumer.enabled", "true");
+    streamConfigMap.put("stream.kafka.shared.consumer.max.buffered.records", "100");
+    StreamConfig streamConfig = new StreamConfig("sharedTable_REALTIME", streamConfigMap);
+
+    StreamConsumerFactory streamConsumerFactory = StreamConsumerFactoryProvider.create(streamConfig);
+    PartitionLevelConsumer consumer0 = streamConsumerFactory.createPartitionLevelConsumer(clientId, 0);
+    PartitionLevelConsumer consumer1 = streamConsumerFactory.createPartitionLevelConsumer(clientId, 1);
+    Assert.assertTrue(consumer0 instanceof KafkaSharedPartitionLevelConsumer);
+    Assert.assertEquals(KafkaSharedConsumer.getNumSharedConsumers(), 1);
+
+    // Consume both partitions in an interleaved way
+    long[] nextOffsets = new long[2];
+    PartitionLevelConsumer[] consumers = new PartitionLevelConsumer[]{consumer0, consumer1};
+    long deadlineMs = System.currentTimeMillis() + 60_000L;
+    while ((nextOffsets[0] < NUM_MSG_PRODUCED_PER_PARTITION || nextOffsets[1] < NUM_MSG_PRODUCED_PER_PARTITION)
+        && System.currentTimeMillis() < deadlineMs) {
+      for (int partition = 0; partition < 2; partition++) {
+        MessageBatch batch = consumers[partition].fetchMessages(new LongMsgOffset(nextOffsets[partition]),
+            new LongMsgOffset(NUM_MSG_PRODUCED_PER_PARTITION), 1000);
+        for (int i = 0; i < batch.getMessageCount(); i++) {
+          Assert.assertEquals(new String((byte[]) batch.getMessageAtIndex(i)),
+              "sample_msg_" + nextOffsets[partition]);
+          nextOffsets[partition]++;
+        }
+      }
+    }
+    Assert.assertEquals(nextOffsets[0], NUM_MSG_PRODUCED_PER_PARTITION);
+    Assert.assertEquals(nextOffsets[1], NUM_MSG_PRODUCED_PER_PARTITION);
+
+    // Seek back on one partition only
+    long nextOffset = 10;
+    while (nextOffset < 35 && System.currentTimeMillis() < deadlineMs) {
+      MessageBatch batch = consumer1.fetchMessages(new LongMsgOffset(nextOffset), new LongMsgOffset(35), 1000);
+      for (int i = 0; i < batch.getMessageCount(); i++) {
+        Assert.assertEquals(new String((byte[]) batch.getMessageAtIndex(i)), "sample_msg_" + nextOffset);
+        nextOffset++;
+      }
+    }
+    Assert.assertEquals(nextOffset, 35);
+
+    consumer0.close();
+    Assert.assertEquals(KafkaSharedConsumer.getNumSharedConsumers(), 1);
+    consumer1.close();
+    Assert.assertEquals(KafkaSharedConsumer.getNumSharedConsumers(), 0);
+  }
+
   protected String getKafkaConsumerFactoryName() {
     return KafkaConsumerFactory.class.getName();
   }
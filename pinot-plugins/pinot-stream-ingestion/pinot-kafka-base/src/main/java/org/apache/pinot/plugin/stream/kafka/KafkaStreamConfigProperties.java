@@ -62,6 +62,12 @@ public class KafkaStreamConfigProperties {
     public static final String KAFKA_ISOLATION_LEVEL = "kafka.isolation.level";
     public static final String KAFKA_ISOLATION_LEVEL_READ_COMMITTED = "read_committed";
     public static final String KAFKA_ISOLATION_LEVEL_READ_UNCOMMITTED = "read_uncommitted";
+    // Whether the consuming partitions of a table on a server should share a single consumer
+    public static final String KAFKA_SHARED_CONSUMER_ENABLED = "kafka.shared.consumer.enabled";
+    public static final boolean KAFKA_SHARED_CONSUMER_ENABLED_DEFAULT = false;
+    // Max number of records buffered per partition by the shared consumer before pausing the partition
+    public static final String KAFKA_SHARED_CONSUMER_MAX_BUFFERED_RECORDS = "kafka.shared.consumer.max.buffered.records";
+    public static final int KAFKA_SHARED_CONSUMER_MAX_BUFFERED_RECORDS_DEFAULT = 10000;
   }
 
   public static final String KAFKA_CONSUMER_PROP_PREFIX = "kafka.consumer.prop";
@@ -27,6 +27,8 @@ import org.apache.pinot.segment.spi.IndexSegment;
  */
 public abstract class SegmentDataManager {
   private int _referenceCount = 1;
+  // Whether the reference held by the table data manager is released (the segment is removed or replaced)
+  private boolean _removed;
 
   @VisibleForTesting
   public synchronized int getReferenceCount() {
@@ -58,10 +60,30 @@ public abstract class SegmentDataManager {
       return true;
     } else {
       _referenceCount--;
+      if (_referenceCount == 1 && !_removed) {
+        // Only the reference held by the table data manager is left
+        onQuiescent();
+      }
       return false;
     }
   }
 
+  /**
+   * Marks the segment as removed from the table data manager. Should be called before releasing the reference held by
+   * the table data manager.
+   */
+  public synchronized void markRemoved() {
+    _removed = true;
+  }
+
+  /**
+   * Invoked when the segment is released by the last user (e.g. query) while the segment is still held by the table
+   * data manager. The segment cannot be acquired during the call, so it is safe to release the resources that might be
+   * used by the queries. Should return fast because it blocks the queries acquiring the segment.
+   */
+  protected void onQuiescent() {
+  }
+
   public abstract String getSegmentName();
 
   public abstract IndexSegment getSegment();
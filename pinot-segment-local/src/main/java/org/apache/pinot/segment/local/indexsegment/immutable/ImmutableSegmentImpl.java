@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.pinot.segment.local.realtime.impl.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.segment.local.segment.index.column.LazyColumnIndexContainer;
 import org.apache.pinot.segment.local.segment.index.datasource.ImmutableDataSource;
 import org.apache.pinot.segment.local.segment.index.readers.ValidDocIndexReaderImpl;
 import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
@@ -60,6 +61,10 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
   private ValidDocIndexReader _validDocIndex;
   private PinotSegmentRecordReader _pinotSegmentRecordReader;
 
+  // For idle column eviction with lazy column loading
+  private long _columnIdleEvictionMs;
+  private volatile long _nextColumnEvictionTimeMs = Long.MAX_VALUE;
+
   public ImmutableSegmentImpl(SegmentDirectory segmentDirectory, SegmentMetadataImpl segmentMetadata,
       Map<String, ColumnIndexContainer> columnIndexContainerMap,
       @Nullable StarTreeIndexContainer starTreeIndexContainer) {
@@ -79,6 +84,41 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
     _validDocIndex = new ValidDocIndexReaderImpl(validDocIds);
   }
 
+  /**
+   * Enables eviction of the lazily loaded column indexes that are not accessed for the given idle time. The idle
+   * columns are checked lazily via {@link #evictIdleColumns()} when no query is using the segment, no extra thread is
+   * required.
+   */
+  public void enableIdleColumnEviction(long idleTimeMs) {
+    _columnIdleEvictionMs = idleTimeMs;
+    _nextColumnEvictionTimeMs = System.currentTimeMillis() + idleTimeMs;
+  }
+
+  /**
+   * Evicts (closes) the indexes of the idle columns if the idle time has elapsed since the last check. Should only be
+   * called when no query is using the segment because the readers of the evicted columns are closed.
+   */
+  public void evictIdleColumns() {
+    long now = System.currentTimeMillis();
+    if (now >= _nextColumnEvictionTimeMs) {
+      synchronized (this) {
+        if (now >= _nextColumnEvictionTimeMs) {
+          int numColumnsEvicted = 0;
+          for (ColumnIndexContainer container : _indexContainerMap.values()) {
+            if (container instanceof LazyColumnIndexContainer && ((LazyColumnIndexContainer) container)
+                .evictIfIdle(_columnIdleEvictionMs, now)) {
+              numColumnsEvicted++;
+            }
+          }
+          if (numColumnsEvicted > 0) {
+            LOGGER.info("Evicted indexes for {} idle columns in segment: {}", numColumnsEvicted, getSegmentName());
+          }
+          _nextColumnEvictionTimeMs = now + _columnIdleEvictionMs;
+        }
+      }
+    }
+  }
+
   @Override
   public Dictionary getDictionary(String column) {
     ColumnIndexContainer container = _indexContainerMap.get(column);
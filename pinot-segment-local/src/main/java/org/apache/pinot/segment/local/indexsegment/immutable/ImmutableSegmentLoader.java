@@ -20,11 +20,14 @@ package org.apache.pinot.segment.local.indexsegment.immutable;
 
 import com.google.common.base.Preconditions;
 import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.loader.LocalSegmentDirectoryLoader;
+import org.apache.pinot.segment.local.segment.index.column.LazyColumnIndexContainer;
 import org.apache.pinot.segment.local.segment.index.column.PhysicalColumnIndexContainer;
 import org.apache.pinot.segment.local.segment.index.converter.SegmentFormatConverterFactory;
 import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
@@ -41,6 +44,7 @@ import org.apache.pinot.segment.spi.index.metadata.ColumnMetadata;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.segment.spi.loader.SegmentDirectoryLoader;
 import org.apache.pinot.segment.spi.loader.SegmentDirectoryLoaderRegistry;
+import org.apache.pinot.segment.spi.store.ColumnIndexType;
 import org.apache.pinot.segment.spi.store.SegmentDirectory;
 import org.apache.pinot.segment.spi.store.SegmentDirectoryPaths;
 import org.apache.pinot.spi.data.FieldSpec;
@@ -80,13 +84,19 @@ public class ImmutableSegmentLoader {
     Preconditions
         .checkArgument(indexDir.isDirectory(), "Index directory: %s does not exist or is not a directory", indexDir);
 
+    // Segment directory loader for the configured tier backend. Default is 'local'.
+    SegmentDirectoryLoader segmentLoaderDirectory =
+        SegmentDirectoryLoaderRegistry.getSegmentDirectoryLoader(indexLoadingConfig.getTierBackend());
+    // NOTE: The segments with index files kept remotely cannot be converted or pre-processed locally
+    boolean hasLocalIndexFiles = segmentLoaderDirectory.hasLocalIndexFiles(indexDir.toURI());
+
     // Convert segment version if necessary
     // NOTE: this step may modify the segment metadata
     String segmentName = indexDir.getName();
     SegmentVersion segmentVersionToLoad = indexLoadingConfig.getSegmentVersion();
     SegmentMetadataImpl localSegmentMetadata = new SegmentMetadataImpl(indexDir);
-    if (segmentVersionToLoad != null && !SegmentDirectoryPaths.segmentDirectoryFor(indexDir, segmentVersionToLoad)
-        .isDirectory()) {
+    if (hasLocalIndexFiles && segmentVersionToLoad != null && !SegmentDirectoryPaths
+        .segmentDirectoryFor(indexDir, segmentVersionToLoad).isDirectory()) {
       SegmentVersion segmentVersionOnDisk = localSegmentMetadata.getSegmentVersion();
       if (segmentVersionOnDisk != segmentVersionToLoad) {
         LOGGER.info("Segment: {} needs to be converted from version: {} to {}", segmentName, segmentVersionOnDisk,
@@ -105,21 +115,24 @@ public class ImmutableSegmentLoader {
     }
 
     PinotConfiguration tierConfigs = indexLoadingConfig.getTierConfigs();
-    PinotConfiguration segmentDirectoryLoaderConfigs = new PinotConfiguration(tierConfigs.toMap());
-
-    // Pre-process the segment on local using local SegmentDirectory
-    SegmentDirectory localSegmentDirectory = SegmentDirectoryLoaderRegistry.getLocalSegmentDirectoryLoader()
-        .load(indexDir.toURI(), segmentDirectoryLoaderConfigs);
-
-    // NOTE: this step may modify the segment metadata
-    try (
-        SegmentPreProcessor preProcessor = new SegmentPreProcessor(localSegmentDirectory, indexLoadingConfig, schema)) {
-      preProcessor.process();
+    Map<String, Object> segmentDirectoryLoaderProps = new HashMap<>(tierConfigs.toMap());
+    segmentDirectoryLoaderProps
+        .put(LocalSegmentDirectoryLoader.ACCESS_PATTERN_PREFETCH_KEY, indexLoadingConfig.isAccessPatternPrefetch());
+    PinotConfiguration segmentDirectoryLoaderConfigs = new PinotConfiguration(segmentDirectoryLoaderProps);
+
+    if (hasLocalIndexFiles) {
+      // Pre-process the segment on local using local SegmentDirectory
+      SegmentDirectory localSegmentDirectory = SegmentDirectoryLoaderRegistry.getLocalSegmentDirectoryLoader()
+          .load(indexDir.toURI(), segmentDirectoryLoaderConfigs);
+
+      // NOTE: this step may modify the segment metadata
+      try (SegmentPreProcessor preProcessor = new SegmentPreProcessor(localSegmentDirectory, indexLoadingConfig,
+          schema)) {
+        preProcessor.process();
+      }
     }
 
-    // Load the segment again for the configured tier backend. Default is 'local'.
-    SegmentDirectoryLoader segmentLoaderDirectory =
-        SegmentDirectoryLoaderRegistry.getSegmentDirectoryLoader(indexLoadingConfig.getTierBackend());
+    // Load the segment again for the configured tier backend
     SegmentDirectory actualSegmentDirectory =
         segmentLoaderDirectory.load(indexDir.toURI(), segmentDirectoryLoaderConfigs);
     SegmentDirectory.Reader segmentReader = actualSegmentDirectory.createReader();
@@ -139,10 +152,18 @@ public class ImmutableSegmentLoader {
     }
 
     Map<String, ColumnIndexContainer> indexContainerMap = new HashMap<>();
+    // NOTE: Always use lazy column loading when the index files are not available locally, so that only the accessed
+    //       columns are fetched from the remote store
+    boolean lazyColumnLoading = indexLoadingConfig.isLazyColumnLoading() || !hasLocalIndexFiles;
     for (Map.Entry<String, ColumnMetadata> entry : columnMetadataMap.entrySet()) {
       // FIXME: text-index only works with local SegmentDirectory
-      indexContainerMap.put(entry.getKey(),
-          new PhysicalColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig, indexDir));
+      if (lazyColumnLoading) {
+        indexContainerMap.put(entry.getKey(),
+            new LazyColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig, indexDir));
+      } else {
+        indexContainerMap.put(entry.getKey(),
+            new PhysicalColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig, indexDir));
+      }
     }
 
     // Instantiate virtual columns
@@ -161,7 +182,7 @@ public class ImmutableSegmentLoader {
     // FIXME: star tree only works with local SegmentDirectory
     // Load star-tree index if it exists
     StarTreeIndexContainer starTreeIndexContainer = null;
-    if (segmentMetadata.getStarTreeV2MetadataList() != null) {
+    if (hasLocalIndexFiles && segmentMetadata.getStarTreeV2MetadataList() != null) {
       starTreeIndexContainer =
           new StarTreeIndexContainer(SegmentDirectoryPaths.findSegmentDirectory(indexDir), segmentMetadata,
               indexContainerMap, indexLoadingConfig.getReadMode());
@@ -169,7 +190,40 @@ public class ImmutableSegmentLoader {
 
     ImmutableSegmentImpl segment =
         new ImmutableSegmentImpl(actualSegmentDirectory, segmentMetadata, indexContainerMap, starTreeIndexContainer);
+    if (lazyColumnLoading && indexLoadingConfig.getLazyColumnIdleEvictionMs() > 0) {
+      segment.enableIdleColumnEviction(indexLoadingConfig.getLazyColumnIdleEvictionMs());
+    }
+    Set<String> warmUpColumns = indexLoadingConfig.getWarmUpColumns();
+    // NOTE: Segments with index files kept remotely are not warmed up because it would fetch the index files on load
+    if (!warmUpColumns.isEmpty() && indexLoadingConfig.getReadMode() == ReadMode.mmap && hasLocalIndexFiles) {
+      warmUp(segmentReader, segmentName, warmUpColumns, columnMetadataMap.keySet());
+    }
     LOGGER.info("Successfully loaded segment {} with config: {}", segmentName, segmentDirectoryLoaderConfigs);
     return segment;
   }
+
+  /**
+   * Prefetches all the index buffers of the given columns into memory, so that the first queries on the columns after
+   * loading the segment do not suffer page faults. Unlike the budgeted prefetch in the segment directory, the warm-up
+   * columns are always fully prefetched.
+   */
+  private static void warmUp(SegmentDirectory.Reader segmentReader, String segmentName, Set<String> warmUpColumns,
+      Set<String> columnsInSegment)
+      throws IOException {
+    long startTimeMs = System.currentTimeMillis();
+    long numPagesTouched = 0;
+    for (String column : warmUpColumns) {
+      if (!columnsInSegment.contains(column)) {
+        continue;
+      }
+      for (ColumnIndexType indexType : ColumnIndexType.values()) {
+        // Text index is managed by Lucene and not stored as a buffer
+        if (indexType != ColumnIndexType.TEXT_INDEX && segmentReader.hasIndexFor(column, indexType)) {
+          numPagesTouched += segmentReader.getIndexFor(column, indexType).prefetch();
+        }
+      }
+    }
+    LOGGER.info("Warmed up columns: {} for segment: {} by prefetching {} pages in {}ms", warmUpColumns, segmentName,
+        numPagesTouched, System.currentTimeMillis() - startTimeMs);
+  }
 }
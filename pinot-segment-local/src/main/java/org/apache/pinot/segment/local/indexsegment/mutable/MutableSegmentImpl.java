@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metrics.ServerMeter;
@@ -63,6 +64,7 @@ import org.apache.pinot.segment.local.utils.FixedIntArrayOffHeapIdMap;
 import org.apache.pinot.segment.local.utils.GeometrySerializer;
 import org.apache.pinot.segment.local.utils.IdMap;
 import org.apache.pinot.segment.local.utils.IngestionUtils;
+import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.MutableSegment;
 import org.apache.pinot.segment.spi.SegmentMetadata;
 import org.apache.pinot.segment.spi.V1Constants;
@@ -70,9 +72,13 @@ import org.apache.pinot.segment.spi.datasource.DataSource;
 import org.apache.pinot.segment.spi.index.creator.H3IndexConfig;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.segment.spi.index.reader.BloomFilterReader;
+import org.apache.pinot.segment.spi.index.reader.H3IndexReader;
+import org.apache.pinot.segment.spi.index.reader.H3IndexResolution;
 import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.MutableDictionary;
 import org.apache.pinot.segment.spi.index.reader.MutableForwardIndex;
+import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
 import org.apache.pinot.segment.spi.index.reader.ValidDocIndexReader;
 import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
@@ -89,7 +95,11 @@ import org.apache.pinot.spi.data.readers.PrimaryKey;
 import org.apache.pinot.spi.stream.RowMetadata;
 import org.apache.pinot.spi.utils.ByteArray;
 import org.apache.pinot.spi.utils.FixedIntArray;
+import org.joda.time.Duration;
+import org.joda.time.Interval;
 import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -134,6 +144,13 @@ public class MutableSegmentImpl implements MutableSegment {
   private boolean _aggregateMetrics;
 
   private volatile int _numDocsIndexed = 0;
+
+  // When snapshot is enabled, the documents indexed are published to the queries in batches. Queries only see the
+  // documents indexed before the last publish (the watermark), and read the published snapshot of the inverted indexes
+  // without locking. Each query captures the watermark once via getSnapshot(), so that all its data sources are
+  // consistent.
+  private final int _snapshotBatchSize;
+  private volatile int _numDocsPublished = 0;
   private final int _numKeyColumns;
 
   // Cache the physical (non-virtual) field specs
@@ -171,6 +188,7 @@ public class MutableSegmentImpl implements MutableSegment {
     _schema = config.getSchema();
     _timeColumnName = config.getTimeColumnName();
     _capacity = config.getCapacity();
+    _snapshotBatchSize = config.getSnapshotBatchSize();
     final RealtimeSegmentZKMetadata realtimeSegmentZKMetadata = config.getRealtimeSegmentZKMetadata();
     _segmentMetadata =
         new SegmentMetadataImpl(realtimeSegmentZKMetadata.getTableName(), realtimeSegmentZKMetadata.getSegmentName(),
@@ -179,7 +197,7 @@ public class MutableSegmentImpl implements MutableSegment {
             realtimeSegmentZKMetadata.getTotalDocs(), realtimeSegmentZKMetadata.getCrc(), _schema) {
           @Override
       public int getTotalDocs() {
-        return _numDocsIndexed;
+        return getNumDocsVisible();
       }
 
       @Override
@@ -324,12 +342,15 @@ public class MutableSegmentImpl implements MutableSegment {
 
       // Inverted index
       RealtimeInvertedIndexReader invertedIndexReader =
-          invertedIndexColumns.contains(column) ? new RealtimeInvertedIndexReader() : null;
+          invertedIndexColumns.contains(column) ? new RealtimeInvertedIndexReader(_snapshotBatchSize > 0) : null;
 
       // Text index
       RealtimeLuceneTextIndexReader textIndex;
       if (textIndexColumns.contains(column)) {
-        textIndex = new RealtimeLuceneTextIndexReader(column, new File(config.getConsumerDir()), _segmentName);
+        RealtimeLuceneIndexRefreshState realtimeLuceneIndexRefreshState = RealtimeLuceneIndexRefreshState.getInstance();
+        textIndex = new RealtimeLuceneTextIndexReader(column, new File(config.getConsumerDir()), _segmentName,
+            realtimeLuceneIndexRefreshState.isOffHeapEnabled(),
+            realtimeLuceneIndexRefreshState.getRamBufferSizeMBPerWriter());
         if (_realtimeLuceneReaders == null) {
           _realtimeLuceneReaders = new RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders(_segmentName);
         }
@@ -483,6 +504,9 @@ public class MutableSegmentImpl implements MutableSegment {
       addNewRow(row);
       // Update number of documents indexed at last to make the latest row queryable
       canTakeMore = _numDocsIndexed++ < _capacity;
+      if (_snapshotBatchSize > 0 && _numDocsIndexed - _numDocsPublished >= _snapshotBatchSize) {
+        publishSnapshot();
+      }
 
       if (isUpsertEnabled()) {
         handleUpsert(row, docId);
@@ -703,6 +727,41 @@ public class MutableSegmentImpl implements MutableSegment {
     return _numDocsIndexed;
   }
 
+  /**
+   * Returns the number of documents visible to the queries.
+   */
+  private int getNumDocsVisible() {
+    return _snapshotBatchSize > 0 ? _numDocsPublished : _numDocsIndexed;
+  }
+
+  /**
+   * Publishes the documents indexed so far to the queries when snapshot is enabled. The inverted indexes are published
+   * before the watermark, so that queries always see all the documents before the watermark in the indexes.
+   * <p>Should only be invoked by the ingestion thread. Ingestion publishes automatically every {@code snapshotBatchSize}
+   * documents, and the caller should also publish after each batch of rows to bound the visibility delay.
+   */
+  public void publishSnapshot() {
+    if (_snapshotBatchSize <= 0 || _numDocsPublished == _numDocsIndexed) {
+      return;
+    }
+    for (IndexContainer indexContainer : _indexContainerMap.values()) {
+      if (indexContainer._invertedIndex != null) {
+        indexContainer._invertedIndex.publish(_numDocsIndexed);
+      }
+    }
+    _numDocsPublished = _numDocsIndexed;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>When snapshot is enabled, the returned view captures the published watermark, and caches the data sources so
+   * that each column is capped at the same watermark for the whole query.
+   */
+  @Override
+  public IndexSegment getSnapshot() {
+    return _snapshotBatchSize > 0 ? new SegmentSnapshot(_numDocsPublished) : this;
+  }
+
   @Override
   public String getSegmentName() {
     return _segmentName;
@@ -732,6 +791,10 @@ public class MutableSegmentImpl implements MutableSegment {
 
   @Override
   public DataSource getDataSource(String column) {
+    return getDataSource(column, getNumDocsVisible());
+  }
+
+  private DataSource getDataSource(String column, int numDocs) {
     FieldSpec fieldSpec = _schema.getFieldSpecFor(column);
     if (fieldSpec == null || fieldSpec.isVirtualColumn()) {
       // Column is either added during ingestion, or was initiated with a virtual column provider
@@ -742,12 +805,12 @@ public class MutableSegmentImpl implements MutableSegment {
             "FieldSpec for " + column + " should not be null. " + "Potentially invalid column name specified.");
       }
       // TODO: Refactor virtual column provider to directly generate data source
-      VirtualColumnContext virtualColumnContext = new VirtualColumnContext(fieldSpec, _numDocsIndexed);
+      VirtualColumnContext virtualColumnContext = new VirtualColumnContext(fieldSpec, numDocs);
       VirtualColumnProvider virtualColumnProvider = VirtualColumnProviderFactory.buildProvider(virtualColumnContext);
       return new ImmutableDataSource(virtualColumnProvider.buildMetadata(virtualColumnContext),
           virtualColumnProvider.buildColumnIndexContainer(virtualColumnContext));
     } else {
-      return _indexContainerMap.get(column).toDataSource();
+      return _indexContainerMap.get(column).toDataSource(numDocs);
     }
   }
 
@@ -862,6 +925,7 @@ public class MutableSegmentImpl implements MutableSegment {
       } finally {
         _realtimeLuceneReaders.getLock().unlock();
       }
+      RealtimeLuceneIndexRefreshState.getInstance().removeRealtimeReadersFromQueue(_realtimeLuceneReaders);
     }
 
     // Close the indexes
@@ -907,6 +971,8 @@ public class MutableSegmentImpl implements MutableSegment {
     IntArrays.quickSort(dictIds, dictionary::compare);
 
     // Re-order documents using the inverted index
+    // NOTE: This method is invoked by the ingestion thread, so it is safe to publish the snapshot here
+    publishSnapshot();
     RealtimeInvertedIndexReader invertedIndex = indexContainer._invertedIndex;
     int[] docIds = new int[_numDocsIndexed];
     int docIdIndex = 0;
@@ -1112,10 +1178,31 @@ public class MutableSegmentImpl implements MutableSegment {
       _nullValueVector = nullValueVector;
     }
 
-    DataSource toDataSource() {
-      return new MutableDataSource(_fieldSpec, _numDocsIndexed, _numValuesInfo._numValues,
+    DataSource toDataSource(int numDocs) {
+      InvertedIndexReader invertedIndex = _invertedIndex;
+      TextIndexReader textIndex = _textIndex;
+      JsonIndexReader jsonIndex = _jsonIndex;
+      H3IndexReader h3Index = _h3Index;
+      if (_snapshotBatchSize > 0) {
+        // Text, json and H3 indexes are updated as the documents are indexed, so cap their results at the published
+        // watermark. Inverted index is published together with the watermark, so pin its last published snapshot.
+        // Range index is not supported for mutable segment.
+        if (invertedIndex != null) {
+          invertedIndex = _invertedIndex.getSnapshot(numDocs);
+        }
+        if (textIndex != null) {
+          textIndex = new SnapshotTextIndexReader(textIndex, numDocs);
+        }
+        if (jsonIndex != null) {
+          jsonIndex = new SnapshotJsonIndexReader(jsonIndex, numDocs);
+        }
+        if (h3Index != null) {
+          h3Index = new SnapshotH3IndexReader(_h3Index, numDocs);
+        }
+      }
+      return new MutableDataSource(_fieldSpec, numDocs, _numValuesInfo._numValues,
           _numValuesInfo._maxNumValuesPerMVEntry, _partitionFunction, _partitions, _minValue, _maxValue, _forwardIndex,
-          _dictionary, _invertedIndex, _rangeIndex, _textIndex, _enableFST, _jsonIndex, _h3Index, _bloomFilter,
+          _dictionary, invertedIndex, _rangeIndex, textIndex, _enableFST, jsonIndex, h3Index, _bloomFilter,
           _nullValueVector);
     }
 
@@ -1179,4 +1266,315 @@ public class MutableSegmentImpl implements MutableSegment {
       }
     }
   }
+
+  /**
+   * Removes the document ids not smaller than the given number of documents from the given bitmap.
+   */
+  private static MutableRoaringBitmap capDocIds(MutableRoaringBitmap docIds, int numDocs) {
+    docIds.remove((long) numDocs, 1L << 32);
+    return docIds;
+  }
+
+  /**
+   * Text index reader that only returns the documents before the published watermark when snapshot is enabled.
+   * <p>NOTE: The underlying index is closed by the {@link IndexContainer}.
+   */
+  private static class SnapshotTextIndexReader implements TextIndexReader {
+    final TextIndexReader _textIndex;
+    final int _numDocs;
+
+    SnapshotTextIndexReader(TextIndexReader textIndex, int numDocs) {
+      _textIndex = textIndex;
+      _numDocs = numDocs;
+    }
+
+    @Override
+    public ImmutableRoaringBitmap getDictIds(String searchQuery) {
+      return _textIndex.getDictIds(searchQuery);
+    }
+
+    @Override
+    public MutableRoaringBitmap getDocIds(String searchQuery) {
+      return capDocIds(_textIndex.getDocIds(searchQuery), _numDocs);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * Json index reader that only returns the documents before the published watermark when snapshot is enabled.
+   * <p>NOTE: The underlying index is closed by the {@link IndexContainer}.
+   */
+  private static class SnapshotJsonIndexReader implements JsonIndexReader {
+    final JsonIndexReader _jsonIndex;
+    final int _numDocs;
+
+    SnapshotJsonIndexReader(JsonIndexReader jsonIndex, int numDocs) {
+      _jsonIndex = jsonIndex;
+      _numDocs = numDocs;
+    }
+
+    @Override
+    public MutableRoaringBitmap getMatchingDocIds(String filterString) {
+      return capDocIds(_jsonIndex.getMatchingDocIds(filterString), _numDocs);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * H3 index reader that only returns the documents before the published watermark when snapshot is enabled.
+   * <p>NOTE: The underlying index is closed by the {@link IndexContainer}.
+   */
+  private static class SnapshotH3IndexReader implements H3IndexReader {
+    final MutableH3Index _h3Index;
+    final int _numDocs;
+
+    SnapshotH3IndexReader(MutableH3Index h3Index, int numDocs) {
+      _h3Index = h3Index;
+      _numDocs = numDocs;
+    }
+
+    @Override
+    public ImmutableRoaringBitmap getDocIds(long h3IndexId) {
+      return capDocIds(_h3Index.getDocIds(h3IndexId), _numDocs);
+    }
+
+    @Override
+    public H3IndexResolution getH3IndexResolution() {
+      return _h3Index.getH3IndexResolution();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  /**
+   * View of the segment for a single query when snapshot is enabled, which only exposes the documents before the
+   * watermark captured when the view is created.
+   * <p>NOTE: The view does not own any resource, and the segment is destroyed by its data manager.
+   */
+  private class SegmentSnapshot implements IndexSegment {
+    final int _numDocs;
+    final SegmentMetadata _snapshotSegmentMetadata;
+    final Map<String, DataSource> _dataSourceMap = new ConcurrentHashMap<>();
+
+    SegmentSnapshot(int numDocs) {
+      _numDocs = numDocs;
+      _snapshotSegmentMetadata = new SnapshotSegmentMetadata(_segmentMetadata, numDocs);
+    }
+
+    @Override
+    public String getSegmentName() {
+      return _segmentName;
+    }
+
+    @Override
+    public SegmentMetadata getSegmentMetadata() {
+      return _snapshotSegmentMetadata;
+    }
+
+    @Override
+    public Set<String> getColumnNames() {
+      return MutableSegmentImpl.this.getColumnNames();
+    }
+
+    @Override
+    public Set<String> getPhysicalColumnNames() {
+      return MutableSegmentImpl.this.getPhysicalColumnNames();
+    }
+
+    @Override
+    public DataSource getDataSource(String column) {
+      return _dataSourceMap.computeIfAbsent(column, key -> MutableSegmentImpl.this.getDataSource(key, _numDocs));
+    }
+
+    @Override
+    public List<StarTreeV2> getStarTrees() {
+      return null;
+    }
+
+    @Nullable
+    @Override
+    public ValidDocIndexReader getValidDocIndex() {
+      return _validDocIndex;
+    }
+
+    @Override
+    public GenericRow getRecord(int docId, GenericRow reuse) {
+      return MutableSegmentImpl.this.getRecord(docId, reuse);
+    }
+
+    @Override
+    public void destroy() {
+    }
+  }
+
+  /**
+   * Segment metadata with the total number of documents fixed at the watermark captured by a {@link SegmentSnapshot}.
+   */
+  private static class SnapshotSegmentMetadata implements SegmentMetadata {
+    final SegmentMetadata _segmentMetadata;
+    final int _totalDocs;
+
+    SnapshotSegmentMetadata(SegmentMetadata segmentMetadata, int totalDocs) {
+      _segmentMetadata = segmentMetadata;
+      _totalDocs = totalDocs;
+    }
+
+    @Override
+    public int getTotalDocs() {
+      return _totalDocs;
+    }
+
+    @Override
+    public String getTableName() {
+      return _segmentMetadata.getTableName();
+    }
+
+    @Override
+    public String getTimeColumn() {
+      return _segmentMetadata.getTimeColumn();
+    }
+
+    @Override
+    public long getStartTime() {
+      return _segmentMetadata.getStartTime();
+    }
+
+    @Override
+    public long getEndTime() {
+      return _segmentMetadata.getEndTime();
+    }
+
+    @Override
+    public TimeUnit getTimeUnit() {
+      return _segmentMetadata.getTimeUnit();
+    }
+
+    @Override
+    public Duration getTimeGranularity() {
+      return _segmentMetadata.getTimeGranularity();
+    }
+
+    @Override
+    public Interval getTimeInterval() {
+      return _segmentMetadata.getTimeInterval();
+    }
+
+    @Override
+    public String getCrc() {
+      return _segmentMetadata.getCrc();
+    }
+
+    @Override
+    public String getVersion() {
+      return _segmentMetadata.getVersion();
+    }
+
+    @Override
+    public Schema getSchema() {
+      return _segmentMetadata.getSchema();
+    }
+
+    @Override
+    public String getShardingKey() {
+      return _segmentMetadata.getShardingKey();
+    }
+
+    @Override
+    public File getIndexDir() {
+      return _segmentMetadata.getIndexDir();
+    }
+
+    @Override
+    public String getName() {
+      return _segmentMetadata.getName();
+    }
+
+    @Override
+    public long getIndexCreationTime() {
+      return _segmentMetadata.getIndexCreationTime();
+    }
+
+    @Override
+    public long getPushTime() {
+      return _segmentMetadata.getPushTime();
+    }
+
+    @Override
+    public long getRefreshTime() {
+      return _segmentMetadata.getRefreshTime();
+    }
+
+    @Override
+    public long getLastIndexedTimestamp() {
+      return _segmentMetadata.getLastIndexedTimestamp();
+    }
+
+    @Override
+    public long getLatestIngestionTimestamp() {
+      return _segmentMetadata.getLatestIngestionTimestamp();
+    }
+
+    @Override
+    public boolean hasDictionary(String columnName) {
+      return _segmentMetadata.hasDictionary(columnName);
+    }
+
+    @Override
+    public String getForwardIndexFileName(String column) {
+      return _segmentMetadata.getForwardIndexFileName(column);
+    }
+
+    @Override
+    public String getDictionaryFileName(String column) {
+      return _segmentMetadata.getDictionaryFileName(column);
+    }
+
+    @Override
+    public String getBitmapInvertedIndexFileName(String column) {
+      return _segmentMetadata.getBitmapInvertedIndexFileName(column);
+    }
+
+    @Override
+    public String getBitmapRangeIndexFileName(String column) {
+      return _segmentMetadata.getBitmapRangeIndexFileName(column);
+    }
+
+    @Override
+    public String getBloomFilterFileName(String column) {
+      return _segmentMetadata.getBloomFilterFileName(column);
+    }
+
+    @Override
+    public String getNullValueVectorFileName(String column) {
+      return _segmentMetadata.getNullValueVectorFileName(column);
+    }
+
+    @Override
+    public String getCreatorName() {
+      return _segmentMetadata.getCreatorName();
+    }
+
+    @Override
+    public char getPaddingCharacter() {
+      return _segmentMetadata.getPaddingCharacter();
+    }
+
+    @Override
+    public boolean close() {
+      return false;
+    }
+
+    @Override
+    public Map<String, String> getCustomMap() {
+      return _segmentMetadata.getCustomMap();
+    }
+  }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.segment.local.io.compression;
 
+import com.google.common.base.Preconditions;
 import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.apache.pinot.segment.spi.compression.ChunkCompressor;
 import org.apache.pinot.segment.spi.compression.ChunkDecompressor;
@@ -40,6 +41,19 @@ public class ChunkCompressorFactory {
    * @return Compressor for the specified type.
    */
   public static ChunkCompressor getCompressor(ChunkCompressionType compressionType) {
+    Preconditions.checkArgument(!compressionType.isNumericEncoding(),
+        "Value size must be provided for numeric encoding: %s", compressionType);
+    return getCompressor(compressionType, 0);
+  }
+
+  /**
+   * Returns the chunk compressor for the specified name and size of the fixed-width values in the chunk.
+   *
+   * @param compressionType Type of compressor.
+   * @param valueSize Size of the fixed-width values, only used by the numeric encodings.
+   * @return Compressor for the specified type.
+   */
+  public static ChunkCompressor getCompressor(ChunkCompressionType compressionType, int valueSize) {
     switch (compressionType) {
 
       case PASS_THROUGH:
@@ -51,6 +65,14 @@ public class ChunkCompressorFactory {
       case ZSTANDARD:
         return new ZstandardCompressor();
 
+      case LZ4:
+        return new LZ4Compressor();
+
+      case DELTA:
+      case DELTA_DELTA:
+      case FRAME_OF_REFERENCE:
+        return new NumericEncodingCompressor(compressionType, valueSize);
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
@@ -73,6 +95,14 @@ public class ChunkCompressorFactory {
       case ZSTANDARD:
         return new ZstandardDecompressor();
 
+      case LZ4:
+        return new LZ4Decompressor();
+
+      case DELTA:
+      case DELTA_DELTA:
+      case FRAME_OF_REFERENCE:
+        return new NumericEncodingDecompressor(compressionType);
+
       default:
         throw new IllegalArgumentException("Illegal compressor name " + compressionType);
     }
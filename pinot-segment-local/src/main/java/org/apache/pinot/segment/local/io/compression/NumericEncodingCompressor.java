@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.compression;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.compression.ChunkCompressor;
+
+
+/**
+ * Implementation of {@link ChunkCompressor} for the numeric encodings of fixed-width INT/LONG values:
+ * <ul>
+ *   <li>FRAME_OF_REFERENCE: stores the values as offsets from the min value</li>
+ *   <li>DELTA: stores the first value, then the differences between the consecutive values</li>
+ *   <li>
+ *     DELTA_DELTA: stores the first value and the first delta, then the differences between the consecutive deltas,
+ *     which are mostly 0 for the values at regular intervals such as timestamps
+ *   </li>
+ * </ul>
+ * The residuals are bit-packed with frame-of-reference using the minimum number of bits to store the largest offset.
+ * <p>Compressed chunk format:
+ * <pre>
+ *   [byte: value size][int: number of values][long: first value][long: first delta]
+ *   [long: min residual][byte: number of bits per residual][long[]: bit-packed residuals]
+ * </pre>
+ * All the arithmetic is modular, so the values are always restored exactly even if the differences overflow.
+ */
+public class NumericEncodingCompressor implements ChunkCompressor {
+  private final ChunkCompressionType _encoding;
+  private final int _valueSize;
+
+  public NumericEncodingCompressor(ChunkCompressionType encoding, int valueSize) {
+    Preconditions.checkArgument(encoding.isNumericEncoding(), "Not a numeric encoding: %s", encoding);
+    Preconditions.checkArgument(valueSize == Integer.BYTES || valueSize == Long.BYTES,
+        "Numeric encoding only applies to INT/LONG values, got value size: %s", valueSize);
+    _encoding = encoding;
+    _valueSize = valueSize;
+  }
+
+  @Override
+  public int compress(ByteBuffer inUncompressed, ByteBuffer outCompressed) {
+    int numValues = inUncompressed.remaining() / _valueSize;
+    Preconditions.checkState(inUncompressed.remaining() % _valueSize == 0,
+        "Chunk size: %s is not a multiple of the value size: %s", inUncompressed.remaining(), _valueSize);
+    long[] values = new long[numValues];
+    if (_valueSize == Integer.BYTES) {
+      for (int i = 0; i < numValues; i++) {
+        values[i] = inUncompressed.getInt();
+      }
+    } else {
+      for (int i = 0; i < numValues; i++) {
+        values[i] = inUncompressed.getLong();
+      }
+    }
+
+    long firstValue = numValues > 0 ? values[0] : 0;
+    long firstDelta = numValues > 1 ? values[1] - values[0] : 0;
+    long[] residuals;
+    switch (_encoding) {
+      case FRAME_OF_REFERENCE:
+        residuals = values;
+        break;
+      case DELTA:
+        residuals = new long[Math.max(numValues - 1, 0)];
+        for (int i = 0; i < residuals.length; i++) {
+          residuals[i] = values[i + 1] - values[i];
+        }
+        break;
+      case DELTA_DELTA:
+        residuals = new long[Math.max(numValues - 2, 0)];
+        for (int i = 0; i < residuals.length; i++) {
+          residuals[i] = (values[i + 2] - values[i + 1]) - (values[i + 1] - values[i]);
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported numeric encoding: " + _encoding);
+    }
+
+    long minResidual = Long.MAX_VALUE;
+    long maxResidual = Long.MIN_VALUE;
+    for (long residual : residuals) {
+      minResidual = Math.min(minResidual, residual);
+      maxResidual = Math.max(maxResidual, residual);
+    }
+    int numBits;
+    if (residuals.length == 0) {
+      minResidual = 0;
+      numBits = 0;
+    } else {
+      // NOTE: The difference is always non-negative when treated as unsigned
+      numBits = Long.SIZE - Long.numberOfLeadingZeros(maxResidual - minResidual);
+    }
+
+    outCompressed.put((byte) _valueSize);
+    outCompressed.putInt(numValues);
+    outCompressed.putLong(firstValue);
+    outCompressed.putLong(firstDelta);
+    outCompressed.putLong(minResidual);
+    outCompressed.put((byte) numBits);
+    if (numBits > 0) {
+      long[] words = new long[(int) (((long) residuals.length * numBits + Long.SIZE - 1) / Long.SIZE)];
+      long bitOffset = 0;
+      for (long residual : residuals) {
+        long offset = residual - minResidual;
+        int wordIndex = (int) (bitOffset >>> 6);
+        int shift = (int) (bitOffset & 63);
+        words[wordIndex] |= offset << shift;
+        if (shift + numBits > Long.SIZE) {
+          words[wordIndex + 1] |= offset >>> (Long.SIZE - shift);
+        }
+        bitOffset += numBits;
+      }
+      for (long word : words) {
+        outCompressed.putLong(word);
+      }
+    }
+
+    // Make the output ByteBuffer ready for read
+    outCompressed.flip();
+    return outCompressed.limit();
+  }
+}
@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.compression;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.compression.ChunkDecompressor;
+
+
+/**
+ * Implementation of {@link ChunkDecompressor} for the numeric encodings of fixed-width INT/LONG values. See
+ * {@link NumericEncodingCompressor} for the format of the compressed chunk.
+ * <p>The values are decoded directly into the output buffer with a single pass over the bit-packed residuals.
+ */
+public class NumericEncodingDecompressor implements ChunkDecompressor {
+  private final ChunkCompressionType _encoding;
+
+  public NumericEncodingDecompressor(ChunkCompressionType encoding) {
+    Preconditions.checkArgument(encoding.isNumericEncoding(), "Not a numeric encoding: %s", encoding);
+    _encoding = encoding;
+  }
+
+  @Override
+  public int decompress(ByteBuffer compressedInput, ByteBuffer decompressedOutput) {
+    // NOTE: The compressed chunk is always written in big-endian order
+    compressedInput.order(ByteOrder.BIG_ENDIAN);
+    int valueSize = compressedInput.get();
+    int numValues = compressedInput.getInt();
+    long firstValue = compressedInput.getLong();
+    long firstDelta = compressedInput.getLong();
+    long minResidual = compressedInput.getLong();
+    int numBits = compressedInput.get();
+    int wordsStart = compressedInput.position();
+    long mask = numBits == Long.SIZE ? -1L : (1L << numBits) - 1;
+    boolean isInt = valueSize == Integer.BYTES;
+
+    switch (_encoding) {
+      case FRAME_OF_REFERENCE:
+        for (int i = 0; i < numValues; i++) {
+          long value = minResidual + readResidual(compressedInput, wordsStart, i, numBits, mask);
+          putValue(decompressedOutput, value, isInt);
+        }
+        break;
+      case DELTA:
+        if (numValues > 0) {
+          long value = firstValue;
+          putValue(decompressedOutput, value, isInt);
+          for (int i = 1; i < numValues; i++) {
+            value += minResidual + readResidual(compressedInput, wordsStart, i - 1, numBits, mask);
+            putValue(decompressedOutput, value, isInt);
+          }
+        }
+        break;
+      case DELTA_DELTA:
+        if (numValues > 0) {
+          long value = firstValue;
+          putValue(decompressedOutput, value, isInt);
+          long delta = firstDelta;
+          for (int i = 1; i < numValues; i++) {
+            if (i > 1) {
+              delta += minResidual + readResidual(compressedInput, wordsStart, i - 2, numBits, mask);
+            }
+            value += delta;
+            putValue(decompressedOutput, value, isInt);
+          }
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported numeric encoding: " + _encoding);
+    }
+    compressedInput.position(compressedInput.limit());
+
+    // Make the output ByteBuffer ready for read
+    decompressedOutput.flip();
+    return decompressedOutput.limit();
+  }
+
+  private static void putValue(ByteBuffer decompressedOutput, long value, boolean isInt) {
+    if (isInt) {
+      decompressedOutput.putInt((int) value);
+    } else {
+      decompressedOutput.putLong(value);
+    }
+  }
+
+  private static long readResidual(ByteBuffer compressedInput, int wordsStart, int index, int numBits, long mask) {
+    if (numBits == 0) {
+      return 0;
+    }
+    long bitOffset = (long) index * numBits;
+    int wordIndex = (int) (bitOffset >>> 6);
+    int shift = (int) (bitOffset & 63);
+    long offset = compressedInput.getLong(wordsStart + wordIndex * Long.BYTES) >>> shift;
+    if (shift + numBits > Long.SIZE) {
+      offset |= compressedInput.getLong(wordsStart + (wordIndex + 1) * Long.BYTES) << (Long.SIZE - shift);
+    }
+    return offset & mask;
+  }
+}
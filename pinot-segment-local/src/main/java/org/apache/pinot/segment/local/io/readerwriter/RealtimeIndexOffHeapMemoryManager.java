@@ -43,7 +43,8 @@ public abstract class RealtimeIndexOffHeapMemoryManager implements PinotDataBuff
   private final List<PinotDataBuffer> _buffers = new LinkedList<>();
   private final String _segmentName;
   private final ServerMetrics _serverMetrics;
-  private long _totalAllocatedBytes = 0;
+  // Volatile because it can be read from other threads to track the memory used by the consuming segments
+  private volatile long _totalAllocatedBytes = 0;
   private final String _tableName;
 
   protected RealtimeIndexOffHeapMemoryManager(ServerMetrics serverMetrics, String segmentName) {
@@ -0,0 +1,252 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.util;
+
+import java.util.Arrays;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
+/**
+ * The value reader for front-coded var-length values (STRING and BYTES). See {@link FrontCodedValueWriter} for the
+ * file layout.
+ * <p>Reading an element requires decoding the block from its first element up to the element. Searching a value first
+ * binary searches the first elements of the blocks (which are stored without prefix compression), then linearly scans
+ * the elements within the block.
+ */
+public class FrontCodedValueReader implements ValueReader {
+  private final PinotDataBuffer _dataBuffer;
+  private final int _numValues;
+  private final int _blockSize;
+  private final int _maxValueLength;
+  private final int _numBlocks;
+
+  /**
+   * The offset of the data section in the buffer/store. This info will be persisted in the header
+   * so it has to be read from the buffer while initializing the store in read cases.
+   */
+  private final int _dataSectionStartOffSet;
+
+  public FrontCodedValueReader(PinotDataBuffer dataBuffer) {
+    _dataBuffer = dataBuffer;
+    _numValues = dataBuffer.getInt(FrontCodedValueWriter.NUM_VALUES_OFFSET);
+    _blockSize = dataBuffer.getInt(FrontCodedValueWriter.BLOCK_SIZE_OFFSET);
+    _maxValueLength = dataBuffer.getInt(FrontCodedValueWriter.MAX_VALUE_LENGTH_OFFSET);
+    _numBlocks = (_numValues + _blockSize - 1) / _blockSize;
+    _dataSectionStartOffSet = dataBuffer.getInt(FrontCodedValueWriter.DATA_SECTION_OFFSET_POSITION);
+  }
+
+  public static boolean isFrontCodedValueBuffer(PinotDataBuffer buffer) {
+    // If the buffer is smaller than header size + one block offset, it's not a front-coded dictionary.
+    if (buffer.size() < FrontCodedValueWriter.HEADER_LENGTH + Integer.BYTES) {
+      return false;
+    }
+    byte[] magicBytes = FrontCodedValueWriter.MAGIC_BYTES;
+    int length = magicBytes.length;
+    for (int i = 0; i < length; i++) {
+      if (buffer.getByte(i) != magicBytes[i]) {
+        return false;
+      }
+    }
+    return buffer.getInt(FrontCodedValueWriter.VERSION_OFFSET) == FrontCodedValueWriter.VERSION;
+  }
+
+  public int getNumValues() {
+    return _numValues;
+  }
+
+  @Override
+  public int getInt(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public long getLong(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public float getFloat(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public double getDouble(int index) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String getUnpaddedString(int index, int numBytesPerValue, byte paddingByte, byte[] buffer) {
+    if (buffer.length < _maxValueLength) {
+      buffer = new byte[_maxValueLength];
+    }
+    int length = readValue(index, buffer);
+    return StringUtil.decodeUtf8(buffer, 0, length);
+  }
+
+  @Override
+  public String getPaddedString(int index, int numBytesPerValue, byte[] buffer) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public byte[] getBytes(int index, int numBytesPerValue) {
+    byte[] buffer = new byte[_maxValueLength];
+    int length = readValue(index, buffer);
+    return Arrays.copyOf(buffer, length);
+  }
+
+  /**
+   * Returns the index of the given value if it exists, or {@code -(insertionIndex + 1)} otherwise. The values are
+   * compared with {@link String#compareTo(String)}, which is the order the STRING dictionary values are sorted in.
+   */
+  public int binarySearch(String value) {
+    return binarySearch((buffer, length) -> StringUtil.decodeUtf8(buffer, 0, length).compareTo(value));
+  }
+
+  /**
+   * Returns the index of the given value if it exists, or {@code -(insertionIndex + 1)} otherwise. The values are
+   * compared as unsigned bytes, which is the order the BYTES dictionary values are sorted in.
+   */
+  public int binarySearch(byte[] value) {
+    return binarySearch((buffer, length) -> compareUnsigned(buffer, length, value));
+  }
+
+  private int binarySearch(ValueComparator comparator) {
+    byte[] buffer = new byte[_maxValueLength];
+
+    // Binary search the first values of the blocks
+    int low = 0;
+    int high = _numBlocks - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int offset = getBlockStartOffset(mid);
+      // The first value of the block is not prefix compressed, skip the prefix length (always 0)
+      int length = readVarInt(offset + 1);
+      _dataBuffer.copyTo(offset + 1 + getVarIntSize(length), buffer, 0, length);
+      int compareResult = comparator.compare(buffer, length);
+      if (compareResult < 0) {
+        low = mid + 1;
+      } else if (compareResult > 0) {
+        high = mid - 1;
+      } else {
+        return mid * _blockSize;
+      }
+    }
+    if (high < 0) {
+      // Smaller than the first value
+      return -1;
+    }
+
+    // The value is larger than the first value of block 'high' and smaller than the first value of the next block,
+    // linearly scan the block
+    int startIndex = high * _blockSize;
+    int endIndex = Math.min(startIndex + _blockSize, _numValues);
+    int offset = getBlockStartOffset(high);
+    for (int index = startIndex; index < endIndex; index++) {
+      int prefixLength = readVarInt(offset);
+      offset += getVarIntSize(prefixLength);
+      int suffixLength = readVarInt(offset);
+      offset += getVarIntSize(suffixLength);
+      _dataBuffer.copyTo(offset, buffer, prefixLength, suffixLength);
+      offset += suffixLength;
+      if (index == startIndex) {
+        continue;
+      }
+      int compareResult = comparator.compare(buffer, prefixLength + suffixLength);
+      if (compareResult == 0) {
+        return index;
+      }
+      if (compareResult > 0) {
+        return -(index + 1);
+      }
+    }
+    return -(endIndex + 1);
+  }
+
+  /**
+   * Decodes the value at the given index into the buffer, and returns the length of the value.
+   */
+  private int readValue(int index, byte[] buffer) {
+    int blockId = index / _blockSize;
+    int numValuesToDecode = index - blockId * _blockSize + 1;
+    int offset = getBlockStartOffset(blockId);
+    int length = 0;
+    for (int i = 0; i < numValuesToDecode; i++) {
+      int prefixLength = readVarInt(offset);
+      offset += getVarIntSize(prefixLength);
+      int suffixLength = readVarInt(offset);
+      offset += getVarIntSize(suffixLength);
+      _dataBuffer.copyTo(offset, buffer, prefixLength, suffixLength);
+      offset += suffixLength;
+      length = prefixLength + suffixLength;
+    }
+    return length;
+  }
+
+  private int getBlockStartOffset(int blockId) {
+    return _dataBuffer.getInt(_dataSectionStartOffSet + Integer.BYTES * blockId);
+  }
+
+  private int readVarInt(int offset) {
+    int value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = _dataBuffer.getByte(offset++);
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while (b < 0);
+    return value;
+  }
+
+  private static int getVarIntSize(int value) {
+    int size = 1;
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  private static int compareUnsigned(byte[] buffer, int length, byte[] value) {
+    int minLength = Math.min(length, value.length);
+    for (int i = 0; i < minLength; i++) {
+      int compareResult = Byte.toUnsignedInt(buffer[i]) - Byte.toUnsignedInt(value[i]);
+      if (compareResult != 0) {
+        return compareResult;
+      }
+    }
+    return length - value.length;
+  }
+
+  private interface ValueComparator {
+
+    /**
+     * Compares the value in the first {@code length} bytes of the buffer with the searched value.
+     */
+    int compare(byte[] buffer, int length);
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
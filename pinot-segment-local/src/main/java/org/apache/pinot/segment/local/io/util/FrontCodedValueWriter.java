@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.util;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.segment.spi.memory.CleanerUtil;
+
+
+/**
+ * The value writer for front-coded (prefix compressed) var-length values (STRING and BYTES). The values must be added
+ * in sorted order so that the adjacent values share long common prefixes (e.g. URLs, file paths, UUIDs with common
+ * prefix), which makes it much more compact than the fixed size or {@link VarLengthValueWriter var-length} store for
+ * high cardinality dictionaries.
+ *
+ * The layout of the file is as follows:
+ * <p>
+ * Header Section:
+ * <ul>
+ *   <li>
+ *     Magic bytes: Chose this to be ".fc;" to avoid conflicts with the fixed size and var-length value buffer
+ *     implementations.
+ *   </li>
+ *   <li>
+ *     Version number: This is an integer and can be used for the evolution of the store implementation by incrementing
+ *     version for every incompatible change to the store/format.
+ *   </li>
+ *   <li>
+ *     Number of elements in the store.
+ *   </li>
+ *   <li>
+ *     Block size: number of elements in each block.
+ *   </li>
+ *   <li>
+ *     Length of the longest element in bytes, which can be used to size the reusable buffer when reading the elements.
+ *   </li>
+ *   <li>
+ *     The offset where the data section starts.
+ *   </li>
+ * </ul>
+ * <p>
+ * Data section:
+ * <ul>
+ *   <li>
+ *     Offsets Array: Integer offsets of the start position of the blocks, with an extra offset at the end marking the
+ *     end of the last block.
+ *   </li>
+ *   <li>
+ *     All blocks. Each element within a block is stored as: [var-int length of the prefix shared with the previous
+ *     element][var-int length of the suffix][suffix bytes]. The first element of each block does not share prefix with
+ *     the previous element (prefix length is always 0), so that each block can be decoded independently.
+ *   </li>
+ * </ul>
+ *
+ * @see FrontCodedValueReader
+ */
+public class FrontCodedValueWriter implements Closeable {
+
+  /**
+   * Magic bytes used to identify the dictionary files written in front-coded format.
+   */
+  static final byte[] MAGIC_BYTES = StringUtil.encodeUtf8(".fc;");
+
+  /**
+   * Increment this version if there are any structural changes in the store format and
+   * deal with backward compatibility correctly based on old versions.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * Larger block size gives better compression, but slower random access because on average half of the block needs
+   * to be decoded to read an element.
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 16;
+
+  // Offsets of different fields in the header. Having as constants for readability.
+  static final int VERSION_OFFSET = MAGIC_BYTES.length;
+  static final int NUM_VALUES_OFFSET = VERSION_OFFSET + Integer.BYTES;
+  static final int BLOCK_SIZE_OFFSET = NUM_VALUES_OFFSET + Integer.BYTES;
+  static final int MAX_VALUE_LENGTH_OFFSET = BLOCK_SIZE_OFFSET + Integer.BYTES;
+  static final int DATA_SECTION_OFFSET_POSITION = MAX_VALUE_LENGTH_OFFSET + Integer.BYTES;
+  static final int HEADER_LENGTH = DATA_SECTION_OFFSET_POSITION + Integer.BYTES;
+
+  private final int _blockSize;
+  private final FileChannel _fileChannel;
+  private final ByteBuffer _headerBuffer;
+  private final ByteBuffer _offsetBuffer;
+  private final ByteBuffer _valueBuffer;
+
+  private byte[] _previousValue = new byte[0];
+  private int _previousValueLength;
+  private int _maxValueLength;
+  private int _numValuesAdded;
+
+  public FrontCodedValueWriter(File outputFile, int numValues)
+      throws IOException {
+    this(outputFile, numValues, DEFAULT_BLOCK_SIZE);
+  }
+
+  public FrontCodedValueWriter(File outputFile, int numValues, int blockSize)
+      throws IOException {
+    Preconditions.checkArgument(blockSize > 0, "Block size must be positive, got: %s", blockSize);
+    _blockSize = blockSize;
+    _fileChannel = new RandomAccessFile(outputFile, "rw").getChannel();
+    _headerBuffer = _fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, Integer.MAX_VALUE);
+
+    // Write the header, max value length is filled when closing the writer
+    _headerBuffer.put(MAGIC_BYTES);
+    _headerBuffer.putInt(VERSION);
+    _headerBuffer.putInt(numValues);
+    _headerBuffer.putInt(blockSize);
+    _headerBuffer.putInt(0);
+    _headerBuffer.putInt(HEADER_LENGTH);
+
+    _offsetBuffer = _headerBuffer.duplicate();
+    _offsetBuffer.position(HEADER_LENGTH);
+    int numBlocks = (numValues + blockSize - 1) / blockSize;
+    _valueBuffer = _headerBuffer.duplicate();
+    _valueBuffer.position(HEADER_LENGTH + (numBlocks + 1) * Integer.BYTES);
+  }
+
+  public void add(byte[] value)
+      throws IOException {
+    add(value, value.length);
+  }
+
+  public void add(byte[] value, int length)
+      throws IOException {
+    int prefixLength = 0;
+    if (_numValuesAdded % _blockSize == 0) {
+      _offsetBuffer.putInt(_valueBuffer.position());
+    } else {
+      int maxPrefixLength = Math.min(_previousValueLength, length);
+      while (prefixLength < maxPrefixLength && _previousValue[prefixLength] == value[prefixLength]) {
+        prefixLength++;
+      }
+    }
+    int suffixLength = length - prefixLength;
+    writeVarInt(prefixLength);
+    writeVarInt(suffixLength);
+    _valueBuffer.put(value, prefixLength, suffixLength);
+
+    if (_previousValue.length < length) {
+      _previousValue = Arrays.copyOf(value, Math.max(length, _previousValue.length * 2));
+    } else {
+      System.arraycopy(value, prefixLength, _previousValue, prefixLength, suffixLength);
+    }
+    _previousValueLength = length;
+    _maxValueLength = Math.max(_maxValueLength, length);
+    _numValuesAdded++;
+  }
+
+  /**
+   * Writes the non-negative value as a var-int, 7 bits per byte with the highest bit indicating more bytes to follow.
+   */
+  private void writeVarInt(int value) {
+    while ((value & ~0x7F) != 0) {
+      _valueBuffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    _valueBuffer.put((byte) value);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    int fileLength = _valueBuffer.position();
+    _offsetBuffer.putInt(fileLength);
+    _headerBuffer.putInt(MAX_VALUE_LENGTH_OFFSET, _maxValueLength);
+    _fileChannel.truncate(fileLength);
+    _fileChannel.close();
+    if (CleanerUtil.UNMAP_SUPPORTED) {
+      CleanerUtil.BufferCleaner cleaner = CleanerUtil.getCleaner();
+      cleaner.freeBuffer(_headerBuffer);
+    }
+  }
+}
@@ -44,6 +44,7 @@ public abstract class BaseChunkSVForwardIndexWriter implements Closeable {
   private static final Logger LOGGER = LoggerFactory.getLogger(BaseChunkSVForwardIndexWriter.class);
   private static final int FILE_HEADER_ENTRY_CHUNK_OFFSET_SIZE_V1V2 = Integer.BYTES;
   private static final int FILE_HEADER_ENTRY_CHUNK_OFFSET_SIZE_V3 = Long.BYTES;
+  private static final int MIN_COMPRESSED_BUFFER_OVERHEAD = 64;
 
   protected final FileChannel _dataFile;
   protected ByteBuffer _header;
@@ -73,11 +74,12 @@ public abstract class BaseChunkSVForwardIndexWriter implements Closeable {
       throws FileNotFoundException {
     Preconditions.checkArgument(version == DEFAULT_VERSION || version == CURRENT_VERSION);
     _chunkSize = chunkSize;
-    _chunkCompressor = ChunkCompressorFactory.getCompressor(compressionType);
+    _chunkCompressor = ChunkCompressorFactory.getCompressor(compressionType, sizeOfEntry);
     _headerEntryChunkOffsetSize = getHeaderEntryChunkOffsetSize(version);
     _dataOffset = writeHeader(compressionType, totalDocs, numDocsPerChunk, sizeOfEntry, version);
     _chunkBuffer = ByteBuffer.allocateDirect(chunkSize);
-    _compressedBuffer = ByteBuffer.allocateDirect(chunkSize * 2);
+    // NOTE: Leave extra room for the per-chunk headers of the compressors, which matters for tiny chunks
+    _compressedBuffer = ByteBuffer.allocateDirect(Math.max(chunkSize * 2, chunkSize + MIN_COMPRESSED_BUFFER_OVERHEAD));
     _dataFile = new RandomAccessFile(file, "rw").getChannel();
   }
 
@@ -35,6 +35,7 @@ import org.apache.pinot.spi.utils.ReadMode;
 public class LocalSegmentDirectoryLoader implements SegmentDirectoryLoader {
 
   public static final String READ_MODE_KEY = "readMode";
+  public static final String ACCESS_PATTERN_PREFETCH_KEY = "accessPatternPrefetch";
 
   /**
    * Creates and loads the {@link SegmentLocalFSDirectory} which is the local implementation of {@link SegmentDirectory}
@@ -45,6 +46,8 @@ public class LocalSegmentDirectoryLoader implements SegmentDirectoryLoader {
   @Override
   public SegmentDirectory load(URI indexDir, PinotConfiguration segmentDirectoryConfig)
       throws Exception {
-    return new SegmentLocalFSDirectory(new File(indexDir), ReadMode.valueOf(segmentDirectoryConfig.getProperty(READ_MODE_KEY)));
+    return new SegmentLocalFSDirectory(new File(indexDir),
+        ReadMode.valueOf(segmentDirectoryConfig.getProperty(READ_MODE_KEY)),
+        segmentDirectoryConfig.getProperty(ACCESS_PATTERN_PREFETCH_KEY, false));
   }
 }
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.loader;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.segment.local.segment.store.RemoteIndexFileCache;
+import org.apache.pinot.segment.local.segment.store.SegmentLocalFSDirectory;
+import org.apache.pinot.segment.local.segment.store.TieredSegmentDirectory;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.loader.SegmentDirectoryLoader;
+import org.apache.pinot.segment.spi.loader.SegmentLoader;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.segment.spi.store.SegmentDirectoryPaths;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.filesystem.PinotFS;
+import org.apache.pinot.spi.filesystem.PinotFSFactory;
+import org.apache.pinot.spi.utils.DataSizeUtils;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+
+
+/**
+ * Implementation of {@link SegmentDirectoryLoader} for the tiered storage, where the index files of the segments stay
+ * in the remote store (deep store), and only the segment metadata is kept in the local index directory.
+ * <p>The untarred V3 segments should be available in the remote store under
+ * {@code <remote.dir>/<tableNameWithType>/<segmentName>}. The index buffers are fetched on demand with range reads into
+ * a bounded local disk cache ({@code cache.dir}, {@code cache.max.size}) with LRU eviction. Lazy column loading is
+ * always used for these segments so that only the accessed columns are fetched, and idle column eviction should be
+ * enabled so that the cached files of the idle columns can be evicted.
+ * <p>Only the tables listed in {@code tables} (table names with or without type) use the tiered storage. Segments of
+ * the other tables, and segments with the index files available locally (e.g. committed real-time segments) are loaded
+ * from the local directory as usual.
+ */
+@SegmentLoader(name = TieredSegmentDirectoryLoader.TIER_BACKEND_NAME)
+public class TieredSegmentDirectoryLoader implements SegmentDirectoryLoader {
+  public static final String TIER_BACKEND_NAME = "tiered";
+  public static final String TABLES_KEY = "tables";
+  public static final String REMOTE_DIR_KEY = "remote.dir";
+  public static final String CACHE_DIR_KEY = "cache.dir";
+  public static final String CACHE_MAX_SIZE_KEY = "cache.max.size";
+  public static final String DEFAULT_CACHE_MAX_SIZE = "10G";
+
+  private static final String[] METADATA_FILE_NAMES = {
+      V1Constants.MetadataKeys.METADATA_FILE_NAME, V1Constants.SEGMENT_CREATION_META, V1Constants.INDEX_MAP_FILE_NAME
+  };
+
+  private volatile RemoteIndexFileCache _cache;
+
+  @Override
+  public SegmentDirectory load(URI indexDir, PinotConfiguration segmentDirectoryConfig)
+      throws Exception {
+    File indexDirFile = new File(indexDir);
+    ReadMode readMode =
+        ReadMode.valueOf(segmentDirectoryConfig.getProperty(LocalSegmentDirectoryLoader.READ_MODE_KEY));
+    String tableNameWithType = indexDirFile.getParentFile().getName();
+    if (!isTieredTable(segmentDirectoryConfig, tableNameWithType) || hasLocalIndexFiles(indexDir)) {
+      return new SegmentLocalFSDirectory(indexDirFile, readMode,
+          segmentDirectoryConfig.getProperty(LocalSegmentDirectoryLoader.ACCESS_PATTERN_PREFETCH_KEY, false));
+    }
+    URI remoteSegmentUri = getRemoteSegmentUri(segmentDirectoryConfig, tableNameWithType, indexDirFile.getName());
+    return new TieredSegmentDirectory(indexDirFile, remoteSegmentUri, getCache(segmentDirectoryConfig), readMode);
+  }
+
+  /**
+   * The index files are not available locally when the V3 directory only contains the metadata fetched by
+   * {@link #fetchSegmentMetadata(URI, File)}.
+   */
+  @Override
+  public boolean hasLocalIndexFiles(URI indexDir) {
+    File segmentDirectory = SegmentDirectoryPaths.segmentDirectoryFor(new File(indexDir), SegmentVersion.v3);
+    return !new File(segmentDirectory, V1Constants.INDEX_MAP_FILE_NAME).exists() || new File(segmentDirectory,
+        V1Constants.INDEX_FILE_NAME).exists();
+  }
+
+  private RemoteIndexFileCache getCache(PinotConfiguration segmentDirectoryConfig)
+      throws Exception {
+    if (_cache == null) {
+      synchronized (this) {
+        if (_cache == null) {
+          String cacheDir = segmentDirectoryConfig.getProperty(CACHE_DIR_KEY);
+          Preconditions.checkState(cacheDir != null, "Missing config: %s for tiered storage", CACHE_DIR_KEY);
+          long maxSizeBytes = DataSizeUtils
+              .toBytes(segmentDirectoryConfig.getProperty(CACHE_MAX_SIZE_KEY, DEFAULT_CACHE_MAX_SIZE));
+          _cache = new RemoteIndexFileCache(new File(cacheDir), maxSizeBytes);
+        }
+      }
+    }
+    return _cache;
+  }
+
+  /**
+   * Returns {@code true} if the given table is configured to use the tiered storage, {@code false} otherwise.
+   */
+  public static boolean isTieredTable(PinotConfiguration segmentDirectoryConfig, String tableNameWithType) {
+    List<String> tables = segmentDirectoryConfig.getProperty(TABLES_KEY, Collections.emptyList());
+    return tables.contains(tableNameWithType) || tables
+        .contains(TableNameBuilder.extractRawTableName(tableNameWithType));
+  }
+
+  /**
+   * Returns the URI of the untarred segment in the remote store.
+   */
+  public static URI getRemoteSegmentUri(PinotConfiguration segmentDirectoryConfig, String tableNameWithType,
+      String segmentName) {
+    String remoteDir = segmentDirectoryConfig.getProperty(REMOTE_DIR_KEY);
+    Preconditions.checkState(remoteDir != null, "Missing config: %s for tiered storage", REMOTE_DIR_KEY);
+    return URI.create(StringUtils.removeEnd(remoteDir, "/") + "/" + tableNameWithType + "/" + segmentName);
+  }
+
+  /**
+   * Fetches the segment metadata files from the untarred segment in the remote store into the local index directory.
+   */
+  public static void fetchSegmentMetadata(URI remoteSegmentUri, File indexDir)
+      throws Exception {
+    PinotFS pinotFS = PinotFSFactory.create(remoteSegmentUri.getScheme());
+    File segmentDirectory = SegmentDirectoryPaths.segmentDirectoryFor(indexDir, SegmentVersion.v3);
+    FileUtils.forceMkdir(segmentDirectory);
+    String remoteSegmentDirectory = StringUtils.removeEnd(remoteSegmentUri.toString(), "/") + "/"
+        + SegmentDirectoryPaths.V3_SUBDIRECTORY_NAME + "/";
+    for (String fileName : METADATA_FILE_NAMES) {
+      pinotFS.copyToLocalFile(URI.create(remoteSegmentDirectory + fileName), new File(segmentDirectory, fileName));
+    }
+  }
+}
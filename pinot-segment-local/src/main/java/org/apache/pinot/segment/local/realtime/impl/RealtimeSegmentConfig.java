@@ -59,6 +59,7 @@ public class RealtimeSegmentConfig {
   private final UpsertConfig.Mode _upsertMode;
   private final PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
   private final String _consumerDir;
+  private final int _snapshotBatchSize;
 
   // TODO: Clean up this constructor. Most of these things can be extracted from tableConfig.
   private RealtimeSegmentConfig(String tableNameWithType, String segmentName, String streamName, Schema schema,
@@ -68,7 +69,8 @@ public class RealtimeSegmentConfig {
       RealtimeSegmentZKMetadata realtimeSegmentZKMetadata, boolean offHeap, PinotDataBufferMemoryManager memoryManager,
       RealtimeSegmentStatsHistory statsHistory, String partitionColumn, PartitionFunction partitionFunction,
       int partitionId, boolean aggregateMetrics, boolean nullHandlingEnabled, String consumerDir,
-      UpsertConfig.Mode upsertMode, PartitionUpsertMetadataManager partitionUpsertMetadataManager) {
+      UpsertConfig.Mode upsertMode, PartitionUpsertMetadataManager partitionUpsertMetadataManager,
+      int snapshotBatchSize) {
     _tableNameWithType = tableNameWithType;
     _segmentName = segmentName;
     _streamName = streamName;
@@ -95,6 +97,7 @@ public class RealtimeSegmentConfig {
     _consumerDir = consumerDir;
     _upsertMode = upsertMode != null ? upsertMode : UpsertConfig.Mode.NONE;
     _partitionUpsertMetadataManager = partitionUpsertMetadataManager;
+    _snapshotBatchSize = snapshotBatchSize;
   }
 
   public String getTableNameWithType() {
@@ -206,6 +209,14 @@ public class RealtimeSegmentConfig {
     return _partitionUpsertMetadataManager;
   }
 
+  /**
+   * Returns the number of documents to be indexed before publishing a new snapshot to the queries, or 0 if snapshot is
+   * disabled (documents are visible to the queries as soon as they are indexed).
+   */
+  public int getSnapshotBatchSize() {
+    return _snapshotBatchSize;
+  }
+
   public static class Builder {
     private String _tableNameWithType;
     private String _segmentName;
@@ -233,6 +244,7 @@ public class RealtimeSegmentConfig {
     private String _consumerDir;
     private UpsertConfig.Mode _upsertMode;
     private PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
+    private int _snapshotBatchSize = 0;
 
     public Builder() {
     }
@@ -375,12 +387,17 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setSnapshotBatchSize(int snapshotBatchSize) {
+      _snapshotBatchSize = snapshotBatchSize;
+      return this;
+    }
+
     public RealtimeSegmentConfig build() {
       return new RealtimeSegmentConfig(_tableNameWithType, _segmentName, _streamName, _schema, _timeColumnName,
           _capacity, _avgNumMultiValues, _noDictionaryColumns, _varLengthDictionaryColumns, _invertedIndexColumns,
           _textIndexColumns, _fstIndexColumns, _jsonIndexColumns, _h3IndexConfigs, _realtimeSegmentZKMetadata, _offHeap,
           _memoryManager, _statsHistory, _partitionColumn, _partitionFunction, _partitionId, _aggregateMetrics,
-          _nullHandlingEnabled, _consumerDir, _upsertMode, _partitionUpsertMetadataManager);
+          _nullHandlingEnabled, _consumerDir, _upsertMode, _partitionUpsertMetadataManager, _snapshotBatchSize);
     }
   }
 }
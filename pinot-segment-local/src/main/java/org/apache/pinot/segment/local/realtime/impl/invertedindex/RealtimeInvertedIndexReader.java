@@ -18,33 +18,96 @@
  */
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.annotation.Nullable;
 import org.apache.pinot.segment.local.realtime.impl.ThreadSafeMutableRoaringBitmap;
 import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Real-time bitmap based inverted index reader which allows adding values on the fly.
  * <p>This class is thread-safe for single writer multiple readers.
+ * <p>Two modes are supported:
+ * <ul>
+ *   <li>
+ *     Default mode: each added document id is visible to the readers immediately. Readers synchronize with the writer
+ *     on the bitmap, and get a copy of it.
+ *   </li>
+ *   <li>
+ *     Snapshot mode: the writer adds the document ids into bitmaps that are private to the writer, and periodically
+ *     publishes them via {@link #publish(int)}. Readers get the last published bitmaps without any locking. Document
+ *     ids added after the last publish are not visible to the readers. Each publish replaces the published bitmaps
+ *     with a new immutable snapshot (copy-on-write), so a query can pin the snapshot with {@link #getSnapshot(int)},
+ *     and get the same bitmaps capped at its own watermark no matter how many publishes happen during the query.
+ *     <p>To keep the publish cost proportional to the document ids added since the last publish instead of the size
+ *     of the bitmaps, each dictionary id keeps a stack of frozen runs with disjoint document ids. On each publish, the
+ *     pending document ids are frozen into a new run, and the runs on top of the stack are merged while they are of
+ *     similar size. This keeps the number of runs logarithmic to the number of document ids, and each document id is
+ *     copied a logarithmic number of times. Readers get the run directly when there is only one, or the union of the
+ *     runs otherwise.
+ *   </li>
+ * </ul>
  */
-public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableRoaringBitmap> {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
+public class RealtimeInvertedIndexReader implements InvertedIndexReader<ImmutableRoaringBitmap> {
+  private final boolean _snapshotEnabled;
+
+  // For default mode
+  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps;
   private final ReentrantReadWriteLock.ReadLock _readLock;
   private final ReentrantReadWriteLock.WriteLock _writeLock;
 
+  // For snapshot mode
+  // Document ids added since the last publish, only accessed by the writer
+  private final List<MutableRoaringBitmap> _pendingBitmaps;
+  // Dictionary ids with pending document ids
+  private final RoaringBitmap _modifiedDictIds;
+  // Last published snapshot, which is replaced (never modified) on publish
+  private volatile Snapshot _snapshot;
+
   public RealtimeInvertedIndexReader() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
+    this(false);
+  }
+
+  public RealtimeInvertedIndexReader(boolean snapshotEnabled) {
+    _snapshotEnabled = snapshotEnabled;
+    if (snapshotEnabled) {
+      _bitmaps = null;
+      _readLock = null;
+      _writeLock = null;
+      _pendingBitmaps = new ArrayList<>();
+      _modifiedDictIds = new RoaringBitmap();
+      _snapshot = new Snapshot(new ImmutableRoaringBitmap[0][], 0);
+    } else {
+      _bitmaps = new ArrayList<>();
+      ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+      _readLock = readWriteLock.readLock();
+      _writeLock = readWriteLock.writeLock();
+      _pendingBitmaps = null;
+      _modifiedDictIds = null;
+      _snapshot = null;
+    }
   }
 
   /**
    * Adds the document id to the bitmap of the given dictionary id.
    */
   public void add(int dictId, int docId) {
+    if (_snapshotEnabled) {
+      if (_pendingBitmaps.size() == dictId) {
+        _pendingBitmaps.add(new MutableRoaringBitmap());
+      }
+      _pendingBitmaps.get(dictId).add(docId);
+      _modifiedDictIds.add(dictId);
+      return;
+    }
     if (_bitmaps.size() == dictId) {
       // Bitmap for the dictionary id does not exist, add a new bitmap into the list
       ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
@@ -60,15 +123,87 @@ public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableR
     }
   }
 
+  /**
+   * Publishes the document ids added since the last publish to the readers, where all the document ids added so far
+   * are smaller than the given number of documents. No-op if snapshot is not enabled.
+   * <p>Should only be invoked by the writer thread.
+   */
+  public void publish(int numDocs) {
+    if (!_snapshotEnabled) {
+      return;
+    }
+    Snapshot snapshot = _snapshot;
+    if (_modifiedDictIds.isEmpty()) {
+      if (snapshot._numDocs != numDocs) {
+        _snapshot = new Snapshot(snapshot._bitmaps, numDocs);
+      }
+      return;
+    }
+    // Copy the array so that the snapshots held by the readers are never modified. Only the references are copied, and
+    // the runs of the unmodified dictionary ids are shared.
+    ImmutableRoaringBitmap[][] bitmaps = Arrays.copyOf(snapshot._bitmaps, _pendingBitmaps.size());
+    IntIterator intIterator = _modifiedDictIds.getIntIterator();
+    while (intIterator.hasNext()) {
+      int dictId = intIterator.next();
+      MutableRoaringBitmap pendingBitmap = _pendingBitmaps.get(dictId);
+      bitmaps[dictId] = addRun(bitmaps[dictId], freeze(pendingBitmap));
+      pendingBitmap.clear();
+    }
+    _modifiedDictIds.clear();
+    _snapshot = new Snapshot(bitmaps, numDocs);
+  }
+
+  /**
+   * Returns a reader of the last published snapshot, which only returns the document ids smaller than the given number
+   * of documents. The returned reader is not affected by the later publishes. Returns this reader if snapshot is not
+   * enabled.
+   * <p>The given number of documents should be captured before calling this method, so that the last published
+   * snapshot contains all the document ids smaller than it.
+   */
+  public InvertedIndexReader<ImmutableRoaringBitmap> getSnapshot(int numDocs) {
+    return _snapshotEnabled ? new SnapshotReader(_snapshot, numDocs) : this;
+  }
+
+  /**
+   * Returns a new stack of runs with the given run pushed on top of the given runs, where the runs on top of the stack
+   * are merged while the run below is not more than twice as large as the run on top.
+   */
+  private static ImmutableRoaringBitmap[] addRun(@Nullable ImmutableRoaringBitmap[] runs, ImmutableRoaringBitmap run) {
+    if (runs == null) {
+      return new ImmutableRoaringBitmap[]{run};
+    }
+    int numRuns = runs.length;
+    ImmutableRoaringBitmap[] newRuns = Arrays.copyOf(runs, numRuns + 1);
+    newRuns[numRuns++] = run;
+    while (numRuns > 1 && newRuns[numRuns - 2].getCardinality() <= 2 * newRuns[numRuns - 1].getCardinality()) {
+      newRuns[numRuns - 2] = freeze(ImmutableRoaringBitmap.or(newRuns[numRuns - 2], newRuns[numRuns - 1]));
+      numRuns--;
+    }
+    return numRuns == newRuns.length ? newRuns : Arrays.copyOf(newRuns, numRuns);
+  }
+
+  /**
+   * Returns a frozen copy of the given bitmap backed by a byte buffer, which cannot be modified by the readers.
+   */
+  private static ImmutableRoaringBitmap freeze(MutableRoaringBitmap bitmap) {
+    ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+    bitmap.serialize(buffer);
+    buffer.flip();
+    return new ImmutableRoaringBitmap(buffer);
+  }
+
   @Override
-  public MutableRoaringBitmap getDocIds(int dictId) {
+  public ImmutableRoaringBitmap getDocIds(int dictId) {
+    // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
+    // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
+    // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
+    // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
+    if (_snapshotEnabled) {
+      return _snapshot.getDocIds(dictId);
+    }
     ThreadSafeMutableRoaringBitmap bitmap;
     try {
       _readLock.lock();
-      // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
-      // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
-      // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
-      // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
       if (_bitmaps.size() <= dictId) {
         return new MutableRoaringBitmap();
       }
@@ -82,4 +217,56 @@ public class RealtimeInvertedIndexReader implements InvertedIndexReader<MutableR
   @Override
   public void close() {
   }
+
+  /**
+   * Immutable snapshot of the published bitmaps, which contains all the document ids smaller than {@code _numDocs}.
+   */
+  private static class Snapshot {
+    // Frozen runs of document ids for each dictionary id
+    final ImmutableRoaringBitmap[][] _bitmaps;
+    final int _numDocs;
+
+    Snapshot(ImmutableRoaringBitmap[][] bitmaps, int numDocs) {
+      _bitmaps = bitmaps;
+      _numDocs = numDocs;
+    }
+
+    ImmutableRoaringBitmap getDocIds(int dictId) {
+      if (_bitmaps.length <= dictId) {
+        return new MutableRoaringBitmap();
+      }
+      ImmutableRoaringBitmap[] runs = _bitmaps[dictId];
+      return runs.length == 1 ? runs[0] : ImmutableRoaringBitmap.or(runs);
+    }
+  }
+
+  /**
+   * Reader of a snapshot, which caps the document ids at the given number of documents. The document ids only need to
+   * be capped when the snapshot is published after the number of documents is captured.
+   * <p>NOTE: The snapshot is owned by the {@link RealtimeInvertedIndexReader}, so this reader does not need closing.
+   */
+  private static class SnapshotReader implements InvertedIndexReader<ImmutableRoaringBitmap> {
+    final Snapshot _snapshot;
+    final int _numDocs;
+
+    SnapshotReader(Snapshot snapshot, int numDocs) {
+      _snapshot = snapshot;
+      _numDocs = numDocs;
+    }
+
+    @Override
+    public ImmutableRoaringBitmap getDocIds(int dictId) {
+      ImmutableRoaringBitmap docIds = _snapshot.getDocIds(dictId);
+      if (_snapshot._numDocs <= _numDocs) {
+        return docIds;
+      }
+      MutableRoaringBitmap cappedDocIds = docIds.toMutableRoaringBitmap();
+      cappedDocIds.remove((long) _numDocs, 1L << 32);
+      return cappedDocIds;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
 }
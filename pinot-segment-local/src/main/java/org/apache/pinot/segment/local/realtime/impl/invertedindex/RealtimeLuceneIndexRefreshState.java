@@ -18,56 +18,114 @@
  */
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
- * This class manages the realtime lucene index readers. Creates a global
- * queue with all the realtime segment lucene index readers across
- * all tables and manages their refresh using {@link RealtimeLuceneIndexReaderRefreshThread}
+ * This class manages the realtime lucene index readers. It keeps a global
+ * list with all the realtime segment lucene index readers across
+ * all tables and manages their refresh using a pool of {@link RealtimeLuceneIndexReaderRefreshThread}.
  *
- * TODO: eventually we should explore partitioning this queue on per table basis
+ * The refresh threads always pick the segment with the highest refresh priority (based on the staleness
+ * of the searchers and the query demand), and segments without any new document are not refreshed.
+ *
+ * When off-heap is enabled, the RAM buffer budget is evenly split across all the realtime lucene index writers so
+ * that the text indexes of the consuming segments are flushed into (memory-mapped) index files on disk early. Each
+ * writer keeps a RAM buffer of at least 4MB to avoid tiny flushes, so the total can exceed the budget when there are
+ * too many writers, in which case a warning is logged.
+ *
+ * TODO: eventually we should explore partitioning this list on per table basis
  */
 public class RealtimeLuceneIndexRefreshState {
-  private static RealtimeLuceneIndexRefreshState _singletonInstance;
-  private static RealtimeLuceneIndexReaderRefreshThread _realtimeRefreshThread;
+  private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeLuceneIndexRefreshState.class);
+  // TODO: make this configurable and choose a higher default value
+  static final long DELAY_BETWEEN_SUCCESSIVE_EXECUTION_MS_DEFAULT = 10;
+  private static final double MIN_RAM_BUFFER_SIZE_MB = 4;
+
+  private static volatile RealtimeLuceneIndexRefreshState _singletonInstance;
+
   private final Lock _mutex;
   private final Condition _conditionVariable;
-  private static ConcurrentLinkedQueue<RealtimeLuceneReaders> _luceneRealtimeReaders;
+  // Guarded by _mutex
+  private final List<RealtimeLuceneReaders> _luceneRealtimeReaders;
+  private final List<RealtimeLuceneIndexReaderRefreshThread> _realtimeRefreshThreads;
+
+  private boolean _offHeapEnabled = false;
+  private double _ramBufferBudgetMB;
+  private int _numRefreshThreads = 1;
+  private ServerMetrics _serverMetrics;
+
+  private volatile double _ramBufferSizeMBPerWriter;
+  // Guarded by _mutex
+  private boolean _ramBufferBudgetExceeded;
+  // Serializes applying the RAM buffer size to the writers outside of the mutex, so that a stale size never overrides
+  // a newer one
+  private final Lock _rebalanceLock = new ReentrantLock();
 
   private RealtimeLuceneIndexRefreshState() {
     _mutex = new ReentrantLock();
     _conditionVariable = _mutex.newCondition();
-    _luceneRealtimeReaders = new ConcurrentLinkedQueue<>();
+    _luceneRealtimeReaders = new ArrayList<>();
+    _realtimeRefreshThreads = new ArrayList<>();
+  }
+
+  /**
+   * Used by HelixServerStarter during bootstrap to configure the realtime lucene indexes before invoking
+   * {@link #start()}.
+   * @param offHeapEnabled whether to bound the RAM buffers of the realtime lucene index writers with a shared budget
+   * @param ramBufferBudgetMB RAM buffer budget shared by all the realtime lucene index writers when off-heap is enabled
+   * @param numRefreshThreads number of threads to refresh the realtime lucene index readers
+   * @param serverMetrics server metrics to report the refresh lag and cost, or null to not report the metrics
+   */
+  public void init(boolean offHeapEnabled, double ramBufferBudgetMB, int numRefreshThreads,
+      @Nullable ServerMetrics serverMetrics) {
+    _offHeapEnabled = offHeapEnabled;
+    _ramBufferBudgetMB = ramBufferBudgetMB;
+    _ramBufferSizeMBPerWriter = ramBufferBudgetMB;
+    _numRefreshThreads = Math.max(numRefreshThreads, 1);
+    _serverMetrics = serverMetrics;
+    LOGGER.info("Initialized realtime lucene index refresh state with off-heap enabled: {}, RAM buffer budget: {}MB, "
+        + "refresh threads: {}", offHeapEnabled, ramBufferBudgetMB, _numRefreshThreads);
   }
 
   /**
    * Used by HelixServerStarter during bootstrap to create the singleton
-   * instance of this class and start the realtime reader refresh thread.
+   * instance of this class and start the realtime reader refresh threads.
    */
   public void start() {
-    _realtimeRefreshThread =
-        new RealtimeLuceneIndexReaderRefreshThread(_luceneRealtimeReaders, _mutex, _conditionVariable);
-    Thread t = new Thread(_realtimeRefreshThread);
-    t.start();
+    for (int i = 0; i < _numRefreshThreads; i++) {
+      RealtimeLuceneIndexReaderRefreshThread realtimeRefreshThread =
+          new RealtimeLuceneIndexReaderRefreshThread(this, _serverMetrics);
+      _realtimeRefreshThreads.add(realtimeRefreshThread);
+      Thread t = new Thread(realtimeRefreshThread, "realtime-lucene-refresh-" + i);
+      t.start();
+    }
   }
 
   /**
    * Used by HelixServerStarter during shutdown. This sets the volatile
-   * "stopped" variable to indicate the shutdown to refresh thread.
-   * Since refresh thread might be suspended waiting on the condition variable,
-   * we signal the condition variable for the refresh thread to wake up,
+   * "stopped" variable to indicate the shutdown to refresh threads.
+   * Since refresh threads might be suspended waiting on the condition variable,
+   * we signal the condition variable for the refresh threads to wake up,
    * check that shutdown has been initiated and exit.
    */
   public void stop() {
-    _realtimeRefreshThread.setStopped();
+    for (RealtimeLuceneIndexReaderRefreshThread realtimeRefreshThread : _realtimeRefreshThreads) {
+      realtimeRefreshThread.setStopped();
+    }
     _mutex.lock();
-    _conditionVariable.signal();
+    _conditionVariable.signalAll();
     _mutex.unlock();
   }
 
@@ -82,11 +140,182 @@ public class RealtimeLuceneIndexRefreshState {
     return _singletonInstance;
   }
 
+  public boolean isOffHeapEnabled() {
+    return _offHeapEnabled;
+  }
+
+  /**
+   * Returns the RAM buffer size for a new realtime lucene index writer when off-heap is enabled.
+   */
+  public double getRamBufferSizeMBPerWriter() {
+    return _ramBufferSizeMBPerWriter;
+  }
+
   public void addRealtimeReadersToQueue(RealtimeLuceneReaders readersForRealtimeSegment) {
+    List<RealtimeLuceneReaders> readersToRebalance;
     _mutex.lock();
-    _luceneRealtimeReaders.offer(readersForRealtimeSegment);
-    _conditionVariable.signal();
-    _mutex.unlock();
+    try {
+      _luceneRealtimeReaders.add(readersForRealtimeSegment);
+      readersToRebalance = computeRamBufferSize();
+      _conditionVariable.signal();
+    } finally {
+      _mutex.unlock();
+    }
+    if (readersToRebalance != null) {
+      applyRamBufferSize(readersToRebalance);
+    }
+  }
+
+  /**
+   * Removes the readers of a destroyed realtime segment so that they are no longer considered for refresh.
+   */
+  public void removeRealtimeReadersFromQueue(RealtimeLuceneReaders readersForRealtimeSegment) {
+    List<RealtimeLuceneReaders> readersToRebalance = null;
+    _mutex.lock();
+    try {
+      if (_luceneRealtimeReaders.remove(readersForRealtimeSegment)) {
+        readersToRebalance = computeRamBufferSize();
+      }
+    } finally {
+      _mutex.unlock();
+    }
+    if (readersToRebalance != null) {
+      applyRamBufferSize(readersToRebalance);
+    }
+  }
+
+  /**
+   * Splits the RAM buffer budget evenly across all the realtime lucene index writers, and returns a snapshot of the
+   * readers to apply the new RAM buffer size to, or null if the size is unchanged. Should be invoked with the mutex
+   * held.
+   */
+  @Nullable
+  private List<RealtimeLuceneReaders> computeRamBufferSize() {
+    if (!_offHeapEnabled) {
+      return null;
+    }
+    int numWriters = 0;
+    for (RealtimeLuceneReaders readers : _luceneRealtimeReaders) {
+      numWriters += readers.getRealtimeLuceneReaders().size();
+    }
+    double ramBufferSizeMB = _ramBufferBudgetMB / Math.max(numWriters, 1);
+    // Do not go below the minimum size (unless the budget itself is smaller) to avoid flushing tiny segments
+    double minRamBufferSizeMB = Math.min(MIN_RAM_BUFFER_SIZE_MB, _ramBufferBudgetMB);
+    boolean budgetExceeded = ramBufferSizeMB < minRamBufferSizeMB;
+    if (budgetExceeded) {
+      ramBufferSizeMB = minRamBufferSizeMB;
+      if (!_ramBufferBudgetExceeded) {
+        LOGGER.warn("RAM buffers of {} realtime lucene index writers ({}MB each) exceed the RAM buffer budget: {}MB",
+            numWriters, ramBufferSizeMB, _ramBufferBudgetMB);
+      }
+    }
+    _ramBufferBudgetExceeded = budgetExceeded;
+    if (ramBufferSizeMB == _ramBufferSizeMBPerWriter) {
+      return null;
+    }
+    _ramBufferSizeMBPerWriter = ramBufferSizeMB;
+    return new ArrayList<>(_luceneRealtimeReaders);
+  }
+
+  /**
+   * Applies the latest RAM buffer size to the writers of the given readers. Should be invoked without the mutex held so
+   * that the refresh threads are not blocked behind the segment locks.
+   */
+  private void applyRamBufferSize(List<RealtimeLuceneReaders> readersToRebalance) {
+    _rebalanceLock.lock();
+    try {
+      double ramBufferSizeMB = _ramBufferSizeMBPerWriter;
+      for (RealtimeLuceneReaders readers : readersToRebalance) {
+        readers.getLock().lock();
+        try {
+          if (!readers.isSegmentDestroyed()) {
+            for (RealtimeLuceneTextIndexReader reader : readers.getRealtimeLuceneReaders()) {
+              reader.setRAMBufferSizeMB(ramBufferSizeMB);
+            }
+          }
+        } finally {
+          readers.getLock().unlock();
+        }
+      }
+    } finally {
+      _rebalanceLock.unlock();
+    }
+  }
+
+  /**
+   * Blocks until a realtime segment needs refresh and returns it, or returns null if the refresh thread is stopped.
+   * The returned segment is not handed to other refresh threads until {@link #releaseReaders(RealtimeLuceneReaders)}
+   * is invoked.
+   */
+  @Nullable
+  RealtimeLuceneReaders acquireReadersToRefresh(RealtimeLuceneIndexReaderRefreshThread refreshThread) {
+    _mutex.lock();
+    try {
+      while (!refreshThread.isStopped()) {
+        RealtimeLuceneReaders readersToRefresh = pickReadersToRefresh(System.currentTimeMillis());
+        if (readersToRefresh != null) {
+          readersToRefresh._refreshing = true;
+          return readersToRefresh;
+        }
+        // During instantiation of a given MutableSegmentImpl, we will signal on this condition variable once
+        // one or more realtime lucene readers (one per column) belonging to the MutableSegment
+        // are added to the global list managed by this class.
+        //
+        // The mutex and condition-variable semantics take care of the scenario when on
+        // a given Pinot server, there is no realtime segment with text index enabled. In such
+        // cases, there is no need for the refresh threads to wake up simply after every few seconds/minutes
+        // only to find that there is nothing to be refreshed. The threads should simply be
+        // off CPU until signalled specifically. When there are realtime segments but none of them has new
+        // documents to be searchable, the threads wake up periodically to check again.
+        if (_luceneRealtimeReaders.isEmpty()) {
+          _conditionVariable.await();
+        } else {
+          _conditionVariable.await(DELAY_BETWEEN_SUCCESSIVE_EXECUTION_MS_DEFAULT, TimeUnit.MILLISECONDS);
+        }
+      }
+    } catch (InterruptedException e) {
+      LOGGER.warn("Realtime lucene reader refresh thread got interrupted while waiting on condition variable: ", e);
+      Thread.currentThread().interrupt();
+    } finally {
+      _mutex.unlock();
+    }
+    return null;
+  }
+
+  void releaseReaders(RealtimeLuceneReaders readers) {
+    _mutex.lock();
+    try {
+      readers._refreshing = false;
+    } finally {
+      _mutex.unlock();
+    }
+  }
+
+  /**
+   * Returns the realtime segment with the highest refresh priority that is not being refreshed by another thread, or
+   * null if no segment needs refresh. Should be invoked with the mutex held.
+   */
+  @Nullable
+  private RealtimeLuceneReaders pickReadersToRefresh(long now) {
+    RealtimeLuceneReaders readersToRefresh = null;
+    long highestPriority = -1;
+    Iterator<RealtimeLuceneReaders> iterator = _luceneRealtimeReaders.iterator();
+    while (iterator.hasNext()) {
+      RealtimeLuceneReaders readers = iterator.next();
+      if (readers.isSegmentDestroyed()) {
+        iterator.remove();
+        continue;
+      }
+      if (readers._refreshing) {
+        continue;
+      }
+      long priority = readers.getRefreshPriority(now);
+      if (priority > highestPriority) {
+        readersToRefresh = readers;
+        highestPriority = priority;
+      }
+    }
+    return readersToRefresh;
   }
 
   /**
@@ -98,14 +327,18 @@ public class RealtimeLuceneIndexRefreshState {
   public static class RealtimeLuceneReaders {
     private final String segmentName;
     private final Lock lock;
-    private boolean segmentDestroyed;
+    private volatile boolean segmentDestroyed;
     private final List<RealtimeLuceneTextIndexReader> realtimeLuceneReaders;
 
+    // Guarded by the mutex of RealtimeLuceneIndexRefreshState
+    private boolean _refreshing;
+
     public RealtimeLuceneReaders(String segmentName) {
       this.segmentName = segmentName;
       lock = new ReentrantLock();
       segmentDestroyed = false;
-      realtimeLuceneReaders = new LinkedList<>();
+      // Read by the refresh threads to compute the refresh priority without holding the lock
+      realtimeLuceneReaders = new CopyOnWriteArrayList<>();
     }
 
     public void addReader(RealtimeLuceneTextIndexReader realtimeLuceneTextIndexReader) {
@@ -135,5 +368,16 @@ public class RealtimeLuceneIndexRefreshState {
     boolean isSegmentDestroyed() {
       return segmentDestroyed;
     }
+
+    /**
+     * Returns the highest refresh priority among the readers, or -1 if none of them has new documents.
+     */
+    long getRefreshPriority(long now) {
+      long priority = -1;
+      for (RealtimeLuceneTextIndexReader reader : realtimeLuceneReaders) {
+        priority = Math.max(priority, reader.getRefreshPriority(now));
+      }
+      return priority;
+    }
   }
 }
@@ -19,6 +19,8 @@
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
@@ -41,6 +43,11 @@ import org.slf4j.LoggerFactory;
  * is created per consuming segment by {@link MutableSegmentImpl}.
  * Internally it uses {@link LuceneTextIndexCreator} for adding documents to the lucene index
  * as and when they are indexed by the consuming segment.
+ *
+ * The documents added become searchable once the searcher is refreshed by the
+ * {@link RealtimeLuceneIndexReaderRefreshThread}. This reader tracks the time of the oldest
+ * document not searchable yet and the number of queries since the last refresh, which are
+ * used to prioritize the refresh across the consuming segments.
  */
 public class RealtimeLuceneTextIndexReader implements TextIndexReader {
   private static final org.slf4j.Logger LOGGER = LoggerFactory.getLogger(RealtimeLuceneTextIndexReader.class);
@@ -50,6 +57,10 @@ public class RealtimeLuceneTextIndexReader implements TextIndexReader {
   private SearcherManager _searcherManager;
   private final String _column;
   private final String _segmentName;
+  private final AtomicInteger _numQueriesSinceRefresh = new AtomicInteger();
+
+  // Time when the oldest document not searchable yet was added, 0 if all the documents are searchable
+  private volatile long _oldestPendingDocTimeMs;
 
   /**
    * Created by {@link MutableSegmentImpl}
@@ -59,6 +70,20 @@ public class RealtimeLuceneTextIndexReader implements TextIndexReader {
    * @param segmentName realtime segment name
    */
   public RealtimeLuceneTextIndexReader(String column, File segmentIndexDir, String segmentName) {
+    this(column, segmentIndexDir, segmentName, false, 0);
+  }
+
+  /**
+   * Created by {@link MutableSegmentImpl}
+   * for each column on which text index has been enabled
+   * @param column column name
+   * @param segmentIndexDir realtime segment consumer dir
+   * @param segmentName realtime segment name
+   * @param offHeapEnabled true to bound the RAM buffer of the index writer so that the index is flushed to disk early
+   * @param ramBufferSizeMB size of the RAM buffer for the index writer, only used when off-heap is enabled
+   */
+  public RealtimeLuceneTextIndexReader(String column, File segmentIndexDir, String segmentName, boolean offHeapEnabled,
+      double ramBufferSizeMB) {
     _column = column;
     _segmentName = segmentName;
     try {
@@ -70,9 +95,9 @@ public class RealtimeLuceneTextIndexReader implements TextIndexReader {
       // as it is already part of the offline segment after the conversion.
       // This is why "commitOnClose" is set to false when creating the lucene index writer
       // for realtime
-      _indexCreator =
-          new LuceneTextIndexCreator(column, new File(segmentIndexDir.getAbsolutePath() + "/" + segmentName),
-              false /* commitOnClose */);
+      File indexDir = new File(segmentIndexDir.getAbsolutePath() + "/" + segmentName);
+      _indexCreator = offHeapEnabled ? new LuceneTextIndexCreator(column, indexDir, false /* commitOnClose */,
+          ramBufferSizeMB) : new LuceneTextIndexCreator(column, indexDir, false /* commitOnClose */);
       IndexWriter indexWriter = _indexCreator.getIndexWriter();
       _searcherManager = new SearcherManager(indexWriter, false, false, null);
     } catch (Exception e) {
@@ -89,6 +114,9 @@ public class RealtimeLuceneTextIndexReader implements TextIndexReader {
    */
   public void add(String document) {
     _indexCreator.add(document);
+    if (_oldestPendingDocTimeMs == 0) {
+      _oldestPendingDocTimeMs = System.currentTimeMillis();
+    }
   }
 
   @Override
@@ -101,6 +129,7 @@ public class RealtimeLuceneTextIndexReader implements TextIndexReader {
     MutableRoaringBitmap docIDs = new MutableRoaringBitmap();
     Collector docIDCollector = new RealtimeLuceneDocIdCollector(docIDs);
     IndexSearcher indexSearcher = null;
+    _numQueriesSinceRefresh.incrementAndGet();
     try {
       Query query = _queryParser.parse(searchQuery);
       indexSearcher = _searcherManager.acquire();
@@ -158,4 +187,40 @@ public class RealtimeLuceneTextIndexReader implements TextIndexReader {
   SearcherManager getSearcherManager() {
     return _searcherManager;
   }
+
+  /**
+   * Returns the priority to refresh the searcher, which grows with the staleness of the searcher and the query demand
+   * since the last refresh, or -1 if all the documents are already searchable.
+   */
+  long getRefreshPriority(long now) {
+    long oldestPendingDocTimeMs = _oldestPendingDocTimeMs;
+    if (oldestPendingDocTimeMs == 0) {
+      return -1;
+    }
+    return (Math.max(now - oldestPendingDocTimeMs, 0) + 1) * (_numQueriesSinceRefresh.get() + 1);
+  }
+
+  /**
+   * Refreshes the searcher to make the added documents searchable.
+   * @return time when the oldest document made searchable was added, 0 if there is nothing to refresh
+   */
+  long refresh()
+      throws IOException {
+    long oldestPendingDocTimeMs = _oldestPendingDocTimeMs;
+    if (oldestPendingDocTimeMs == 0) {
+      return 0;
+    }
+    // Reset the state before refreshing so that the documents added concurrently are tracked for the next refresh
+    _oldestPendingDocTimeMs = 0;
+    _numQueriesSinceRefresh.set(0);
+    _searcherManager.maybeRefreshBlocking();
+    return oldestPendingDocTimeMs;
+  }
+
+  /**
+   * Adjusts the RAM buffer size of the index writer, which takes effect on the next document added.
+   */
+  void setRAMBufferSizeMB(double ramBufferSizeMB) {
+    _indexCreator.getIndexWriter().getConfig().setRAMBufferSizeMB(ramBufferSizeMB);
+  }
 }
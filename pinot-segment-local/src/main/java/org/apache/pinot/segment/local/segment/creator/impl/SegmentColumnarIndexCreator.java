@@ -35,6 +35,7 @@ import org.apache.pinot.common.utils.FileUtils;
 import org.apache.pinot.segment.local.io.util.PinotDataBitSet;
 import org.apache.pinot.segment.local.io.writer.impl.BaseChunkSVForwardIndexWriter;
 import org.apache.pinot.segment.local.segment.creator.impl.fwd.MultiValueUnsortedForwardIndexCreator;
+import org.apache.pinot.segment.local.segment.creator.impl.fwd.MultiValueVarByteRawIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.fwd.SingleValueFixedByteRawIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.fwd.SingleValueSortedForwardIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.fwd.SingleValueUnsortedForwardIndexCreator;
@@ -48,6 +49,7 @@ import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OnHeapJsonIn
 import org.apache.pinot.segment.local.segment.creator.impl.inv.text.LuceneFSTIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.nullvalue.NullValueVectorCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.text.LuceneTextIndexCreator;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.ZoneMapCreator;
 import org.apache.pinot.segment.local.utils.GeometrySerializer;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
@@ -103,6 +105,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private final Map<String, JsonIndexCreator> _jsonIndexCreatorMap = new HashMap<>();
   private final Map<String, GeoSpatialIndexCreator> _h3IndexCreatorMap = new HashMap<>();
   private final Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
+  private final Map<String, ZoneMapCreator> _zoneMapCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
   private File _indexDir;
@@ -161,6 +164,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       jsonIndexColumns.add(columnName);
     }
 
+    Set<String> zoneMapColumns = new HashSet<>();
+    for (String columnName : config.getZoneMapCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create zone map for column: %s because it is not in schema", columnName);
+      zoneMapColumns.add(columnName);
+    }
+
     Map<String, H3IndexConfig> h3IndexConfigs = config.getH3IndexConfigs();
     for (String columnName : h3IndexConfigs.keySet()) {
       Preconditions
@@ -187,7 +197,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         // Initialize dictionary creator
         SegmentDictionaryCreator dictionaryCreator =
             new SegmentDictionaryCreator(indexCreationInfo.getSortedUniqueElementsArray(), fieldSpec, _indexDir,
-                indexCreationInfo.isUseVarLengthDictionary());
+                indexCreationInfo.isUseVarLengthDictionary(),
+                segmentCreationSpec.getFrontCodedDictionaryColumns().contains(columnName));
         _dictionaryCreatorMap.put(columnName, dictionaryCreator);
 
         // Create dictionary
@@ -229,21 +240,30 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       } else {
         // Create raw index
 
-        // TODO: add support to multi-value column and inverted index
-        Preconditions.checkState(fieldSpec.isSingleValueField(), "Cannot create raw index for multi-value column: %s",
-            columnName);
+        // TODO: add support to inverted index
         Preconditions.checkState(!invertedIndexColumns.contains(columnName),
             "Cannot create inverted index for raw index column: %s", columnName);
 
         ChunkCompressionType compressionType = getColumnCompressionType(segmentCreationSpec, fieldSpec);
+        Preconditions.checkState(!compressionType.isNumericEncoding() || (fieldSpec.isSingleValueField() && (
+                storedType == DataType.INT || storedType == DataType.LONG)),
+            "Numeric encoding: %s is only supported on single-value INT/LONG columns, got column: %s",
+            compressionType, columnName);
 
         // Initialize forward index creator
         boolean deriveNumDocsPerChunk =
             shouldDeriveNumDocsPerChunk(columnName, segmentCreationSpec.getColumnProperties());
         int writerVersion = rawIndexWriterVersion(columnName, segmentCreationSpec.getColumnProperties());
-        _forwardIndexCreatorMap.put(columnName,
-            getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, storedType, totalDocs,
-                indexCreationInfo.getLengthOfLongestEntry(), deriveNumDocsPerChunk, writerVersion));
+        if (fieldSpec.isSingleValueField()) {
+          _forwardIndexCreatorMap.put(columnName,
+              getRawIndexCreatorForColumn(_indexDir, compressionType, columnName, storedType, totalDocs,
+                  indexCreationInfo.getLengthOfLongestEntry(), deriveNumDocsPerChunk, writerVersion));
+        } else {
+          _forwardIndexCreatorMap.put(columnName,
+              new MultiValueVarByteRawIndexCreator(_indexDir, compressionType, columnName, totalDocs, storedType,
+                  indexCreationInfo.getMaxNumberOfMultiValueElements(), indexCreationInfo.getLengthOfLongestEntry(),
+                  writerVersion));
+        }
       }
 
       if (textIndexColumns.contains(columnName)) {
@@ -290,6 +310,22 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         _h3IndexCreatorMap.put(columnName, h3IndexCreator);
       }
 
+      // Skip creating zone map if sorted
+      if (zoneMapColumns.contains(columnName) && !indexCreationInfo.isSorted()) {
+        Preconditions.checkState(fieldSpec.isSingleValueField(),
+            "Zone map is currently only supported on single-value columns");
+        DataType zoneMapValueType;
+        if (dictEnabledColumn) {
+          // Dictionary ids preserve the order of the values
+          zoneMapValueType = DataType.INT;
+        } else {
+          Preconditions.checkState(storedType.isNumeric(),
+              "Zone map is currently only supported on dictionary-encoded or numeric raw columns");
+          zoneMapValueType = storedType;
+        }
+        _zoneMapCreatorMap.put(columnName, new ZoneMapCreator(_indexDir, columnName, zoneMapValueType, totalDocs));
+      }
+
       _nullHandlingEnabled = config.isNullHandlingEnabled();
       if (_nullHandlingEnabled) {
         // Initialize Null value vector map
@@ -366,10 +402,6 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     String column = spec.getName();
     if (config.getRawIndexCreationColumns().contains(column) || config.getRawIndexCompressionType()
         .containsKey(column)) {
-      if (!spec.isSingleValueField()) {
-        throw new RuntimeException(
-            "Creation of indices without dictionaries is supported for single valued columns only.");
-      }
       return false;
     }
     return info.isCreateDictionary();
@@ -389,6 +421,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
 
       boolean isSingleValue = schema.getFieldSpecFor(columnName).isSingleValueField();
       SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+      ZoneMapCreator zoneMapCreator = _zoneMapCreatorMap.get(columnName);
 
       if (isSingleValue) {
         // SV column
@@ -411,6 +444,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           int dictId = dictionaryCreator.indexOfSV(columnValueToIndex);
           // store the docID -> dictID mapping in forward index
           forwardIndexCreator.putDictId(dictId);
+          if (zoneMapCreator != null) {
+            zoneMapCreator.add(dictId);
+          }
           DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
           if (invertedIndexCreator != null) {
             // if inverted index enabled during segment creation,
@@ -450,14 +486,39 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             default:
               throw new IllegalStateException();
           }
+          if (zoneMapCreator != null) {
+            switch (forwardIndexCreator.getValueType()) {
+              case INT:
+                zoneMapCreator.add((int) columnValueToIndex);
+                break;
+              case LONG:
+                zoneMapCreator.add((long) columnValueToIndex);
+                break;
+              case FLOAT:
+                zoneMapCreator.add((float) columnValueToIndex);
+                break;
+              case DOUBLE:
+                zoneMapCreator.add((double) columnValueToIndex);
+                break;
+              default:
+                throw new IllegalStateException();
+            }
+          }
         }
       } else {
-        // MV column (always dictionary encoded)
-        int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
-        forwardIndexCreator.putDictIdMV(dictIds);
-        DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
-        if (invertedIndexCreator != null) {
-          invertedIndexCreator.add(dictIds, dictIds.length);
+        // MV column
+        if (dictionaryCreator != null) {
+          // dictionary encoded MV column
+          int[] dictIds = dictionaryCreator.indexOfMV(columnValueToIndex);
+          forwardIndexCreator.putDictIdMV(dictIds);
+          DictionaryBasedInvertedIndexCreator invertedIndexCreator = _invertedIndexCreatorMap.get(columnName);
+          if (invertedIndexCreator != null) {
+            invertedIndexCreator.add(dictIds, dictIds.length);
+          }
+        } else {
+          // non-dictionary encoded MV column
+          // store the docId -> raw values mapping in forward index
+          putRawValuesMV(forwardIndexCreator, (Object[]) columnValueToIndex);
         }
       }
 
@@ -467,10 +528,56 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           _nullValueVectorCreatorMap.get(columnName).setNull(docIdCounter);
         }
       }
+      if (zoneMapCreator != null && row.isNullValue(columnName)) {
+        zoneMapCreator.setNull();
+      }
     }
     docIdCounter++;
   }
 
+  private static void putRawValuesMV(ForwardIndexCreator forwardIndexCreator, Object[] values) {
+    int numValues = values.length;
+    switch (forwardIndexCreator.getValueType()) {
+      case INT:
+        int[] intValues = new int[numValues];
+        for (int i = 0; i < numValues; i++) {
+          intValues[i] = (int) values[i];
+        }
+        forwardIndexCreator.putIntMV(intValues);
+        break;
+      case LONG:
+        long[] longValues = new long[numValues];
+        for (int i = 0; i < numValues; i++) {
+          longValues[i] = (long) values[i];
+        }
+        forwardIndexCreator.putLongMV(longValues);
+        break;
+      case FLOAT:
+        float[] floatValues = new float[numValues];
+        for (int i = 0; i < numValues; i++) {
+          floatValues[i] = (float) values[i];
+        }
+        forwardIndexCreator.putFloatMV(floatValues);
+        break;
+      case DOUBLE:
+        double[] doubleValues = new double[numValues];
+        for (int i = 0; i < numValues; i++) {
+          doubleValues[i] = (double) values[i];
+        }
+        forwardIndexCreator.putDoubleMV(doubleValues);
+        break;
+      case STRING:
+        String[] stringValues = new String[numValues];
+        for (int i = 0; i < numValues; i++) {
+          stringValues[i] = (String) values[i];
+        }
+        forwardIndexCreator.putStringMV(stringValues);
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
   private boolean shouldStoreRawValueForTextIndex(String column) {
     if (_columnProperties != null) {
       Map<String, String> props = _columnProperties.get(column);
@@ -509,6 +616,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (NullValueVectorCreator nullValueVectorCreator : _nullValueVectorCreatorMap.values()) {
       nullValueVectorCreator.seal();
     }
+    for (ZoneMapCreator zoneMapCreator : _zoneMapCreatorMap.values()) {
+      zoneMapCreator.seal();
+    }
     writeMetadata();
   }
 
@@ -759,6 +869,6 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     FileUtils.close(Iterables
         .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values(),
             _textIndexCreatorMap.values(), _fstIndexCreatorMap.values(), _jsonIndexCreatorMap.values(),
-            _h3IndexCreatorMap.values(), _nullValueVectorCreatorMap.values()));
+            _h3IndexCreatorMap.values(), _nullValueVectorCreatorMap.values(), _zoneMapCreatorMap.values()));
   }
 }
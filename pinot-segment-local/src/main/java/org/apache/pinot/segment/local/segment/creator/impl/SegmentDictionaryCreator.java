@@ -31,6 +31,7 @@ import java.nio.ByteOrder;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.segment.local.io.util.FixedByteValueReaderWriter;
+import org.apache.pinot.segment.local.io.util.FrontCodedValueWriter;
 import org.apache.pinot.segment.local.io.util.VarLengthValueWriter;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
@@ -49,6 +50,7 @@ public class SegmentDictionaryCreator implements Closeable {
   private final DataType _storedType;
   private final File _dictionaryFile;
   private final boolean _useVarLengthDictionary;
+  private final boolean _useFrontCodedDictionary;
 
   private Int2IntOpenHashMap _intValueToIndexMap;
   private Long2IntOpenHashMap _longValueToIndexMap;
@@ -59,7 +61,7 @@ public class SegmentDictionaryCreator implements Closeable {
   private int _numBytesPerEntry = 0;
 
   public SegmentDictionaryCreator(Object sortedValues, FieldSpec fieldSpec, File indexDir,
-      boolean useVarLengthDictionary)
+      boolean useVarLengthDictionary, boolean useFrontCodedDictionary)
       throws IOException {
     _sortedValues = sortedValues;
     _columnName = fieldSpec.getName();
@@ -67,11 +69,18 @@ public class SegmentDictionaryCreator implements Closeable {
     _dictionaryFile = new File(indexDir, _columnName + V1Constants.Dict.FILE_EXTENSION);
     FileUtils.touch(_dictionaryFile);
     _useVarLengthDictionary = useVarLengthDictionary;
+    _useFrontCodedDictionary = useFrontCodedDictionary;
+  }
+
+  public SegmentDictionaryCreator(Object sortedValues, FieldSpec fieldSpec, File indexDir,
+      boolean useVarLengthDictionary)
+      throws IOException {
+    this(sortedValues, fieldSpec, indexDir, useVarLengthDictionary, false);
   }
 
   public SegmentDictionaryCreator(Object sortedValues, FieldSpec fieldSpec, File indexDir)
       throws IOException {
-    this(sortedValues, fieldSpec, indexDir, false);
+    this(sortedValues, fieldSpec, indexDir, false, false);
   }
 
   public void build()
@@ -212,13 +221,21 @@ public class SegmentDictionaryCreator implements Closeable {
 
   /**
    * Helper method to write the given sorted byte[][] to an immutable bytes value dictionary.
-   * The dictionary implementation is chosen based on configuration at column level.
+   * The dictionary implementation is chosen based on configuration at column level, where the front-coded dictionary
+   * takes precedence over the variable length dictionary.
    *
    * @param bytesValues The actual sorted byte arrays to be written to the store.
    */
   private void writeBytesValueDictionary(byte[][] bytesValues)
       throws IOException {
-    if (_useVarLengthDictionary) {
+    if (_useFrontCodedDictionary) {
+      try (FrontCodedValueWriter writer = new FrontCodedValueWriter(_dictionaryFile, bytesValues.length)) {
+        for (byte[] value : bytesValues) {
+          writer.add(value);
+        }
+      }
+      LOGGER.info("Using front-coded dictionary for column: {}, size: {}", _columnName, _dictionaryFile.length());
+    } else if (_useVarLengthDictionary) {
       try (VarLengthValueWriter writer = new VarLengthValueWriter(_dictionaryFile, bytesValues.length)) {
         for (byte[] value : bytesValues) {
           writer.add(value);
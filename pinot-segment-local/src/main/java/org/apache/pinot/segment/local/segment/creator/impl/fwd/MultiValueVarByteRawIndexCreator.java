@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.fwd;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.segment.local.io.writer.impl.VarByteChunkSVForwardIndexWriter;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.index.creator.ForwardIndexCreator;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Forward index creator for raw (non-dictionary-encoded) multi-value column.
+ * <p>Each multi-value entry is serialized into a byte array and written as one entry of the chunk-based variable
+ * length format (see {@link VarByteChunkSVForwardIndexWriter}), so that each chunk is compressed independently:
+ * <ul>
+ *   <li>Integer: number of values within the entry</li>
+ *   <li>For fixed length data type (INT, LONG, FLOAT, DOUBLE): the values</li>
+ *   <li>For variable length data type (STRING, BYTES): for each value, the length (integer) followed by the bytes</li>
+ * </ul>
+ */
+public class MultiValueVarByteRawIndexCreator implements ForwardIndexCreator {
+  private final VarByteChunkSVForwardIndexWriter _indexWriter;
+  private final DataType _valueType;
+
+  /**
+   * Create a raw index creator for the given multi-value column
+   * @param baseIndexDir Index directory
+   * @param compressionType Type of compression to use
+   * @param column Name of column to index
+   * @param totalDocs Total number of documents to index
+   * @param valueType Type of the values
+   * @param maxNumValuesPerEntry Max number of values within a multi-value entry
+   * @param maxLengthOfValue Length of longest value (in bytes), only used for variable length data type
+   * @param writerVersion writer format version
+   * @throws IOException
+   */
+  public MultiValueVarByteRawIndexCreator(File baseIndexDir, ChunkCompressionType compressionType, String column,
+      int totalDocs, DataType valueType, int maxNumValuesPerEntry, int maxLengthOfValue, int writerVersion)
+      throws IOException {
+    File file = new File(baseIndexDir, column + V1Constants.Indexes.RAW_MV_FORWARD_INDEX_FILE_EXTENSION);
+    int maxLength = getMaxEntryLength(valueType, maxNumValuesPerEntry, maxLengthOfValue);
+    _indexWriter = new VarByteChunkSVForwardIndexWriter(file, compressionType, totalDocs,
+        SingleValueVarByteRawIndexCreator.getNumDocsPerChunk(maxLength), maxLength, writerVersion);
+    _valueType = valueType;
+  }
+
+  /**
+   * Returns the max length (in bytes) of a serialized multi-value entry.
+   */
+  public static int getMaxEntryLength(DataType valueType, int maxNumValuesPerEntry, int maxLengthOfValue) {
+    DataType storedType = valueType.getStoredType();
+    int maxLengthOfValueWithHeader =
+        storedType.isFixedWidth() ? storedType.size() : Integer.BYTES + Math.max(maxLengthOfValue, 0);
+    return Integer.BYTES + maxNumValuesPerEntry * maxLengthOfValueWithHeader;
+  }
+
+  @Override
+  public boolean isDictionaryEncoded() {
+    return false;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return false;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _valueType;
+  }
+
+  @Override
+  public void putIntMV(int[] values) {
+    ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES + values.length * Integer.BYTES);
+    byteBuffer.putInt(values.length);
+    for (int value : values) {
+      byteBuffer.putInt(value);
+    }
+    _indexWriter.putBytes(byteBuffer.array());
+  }
+
+  @Override
+  public void putLongMV(long[] values) {
+    ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES + values.length * Long.BYTES);
+    byteBuffer.putInt(values.length);
+    for (long value : values) {
+      byteBuffer.putLong(value);
+    }
+    _indexWriter.putBytes(byteBuffer.array());
+  }
+
+  @Override
+  public void putFloatMV(float[] values) {
+    ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES + values.length * Float.BYTES);
+    byteBuffer.putInt(values.length);
+    for (float value : values) {
+      byteBuffer.putFloat(value);
+    }
+    _indexWriter.putBytes(byteBuffer.array());
+  }
+
+  @Override
+  public void putDoubleMV(double[] values) {
+    ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES + values.length * Double.BYTES);
+    byteBuffer.putInt(values.length);
+    for (double value : values) {
+      byteBuffer.putDouble(value);
+    }
+    _indexWriter.putBytes(byteBuffer.array());
+  }
+
+  @Override
+  public void putStringMV(String[] values) {
+    int numValues = values.length;
+    byte[][] valueBytes = new byte[numValues][];
+    int length = Integer.BYTES + numValues * Integer.BYTES;
+    for (int i = 0; i < numValues; i++) {
+      valueBytes[i] = StringUtil.encodeUtf8(values[i]);
+      length += valueBytes[i].length;
+    }
+    ByteBuffer byteBuffer = ByteBuffer.allocate(length);
+    byteBuffer.putInt(numValues);
+    for (byte[] bytes : valueBytes) {
+      byteBuffer.putInt(bytes.length);
+      byteBuffer.put(bytes);
+    }
+    _indexWriter.putBytes(byteBuffer.array());
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _indexWriter.close();
+  }
+}
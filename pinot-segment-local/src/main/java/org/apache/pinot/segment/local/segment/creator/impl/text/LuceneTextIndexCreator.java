@@ -85,6 +85,20 @@ public class LuceneTextIndexCreator implements TextIndexCreator {
    *               This is the reason to have commit flag part of the constructor.
    */
   public LuceneTextIndexCreator(String column, File segmentIndexDir, boolean commit) {
+    this(column, segmentIndexDir, commit, LUCENE_INDEX_MAX_BUFFER_SIZE_MB);
+  }
+
+  /**
+   * Called by {@link RealtimeLuceneTextIndexReader} when the off-heap text index is enabled for the consuming
+   * segments. The RAM buffer of the index writer is bounded by the given size (which can be adjusted later through the
+   * live config of the index writer), and the flushed index files are memory-mapped by {@link FSDirectory#open} on
+   * 64-bit JVMs.
+   * @param column column name
+   * @param segmentIndexDir segment index directory
+   * @param commit true if the index should be committed, false otherwise
+   * @param ramBufferSizeMB size of the RAM buffer for the index writer
+   */
+  public LuceneTextIndexCreator(String column, File segmentIndexDir, boolean commit, double ramBufferSizeMB) {
     _textColumn = column;
     try {
       // segment generation is always in V1 and later we convert (as part of post creation processing)
@@ -93,7 +107,7 @@ public class LuceneTextIndexCreator implements TextIndexCreator {
       _indexDirectory = FSDirectory.open(indexFile.toPath());
       StandardAnalyzer standardAnalyzer = new StandardAnalyzer(ENGLISH_STOP_WORDS_SET);
       IndexWriterConfig indexWriterConfig = new IndexWriterConfig(standardAnalyzer);
-      indexWriterConfig.setRAMBufferSizeMB(LUCENE_INDEX_MAX_BUFFER_SIZE_MB);
+      indexWriterConfig.setRAMBufferSizeMB(ramBufferSizeMB);
       indexWriterConfig.setCommitOnClose(commit);
       _indexWriter = new IndexWriter(_indexDirectory, indexWriterConfig);
     } catch (Exception e) {
@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.zonemap;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Creator for the page-level zone map of a single-value column. The values are added in document id order, and the
+ * min/max value and the number of nulls are tracked for each page of {@link #DEFAULT_NUM_DOCS_PER_PAGE} documents.
+ * <p>For dictionary-encoded columns, the dictionary ids should be added (value type INT).
+ *
+ * <p>File format (big-endian):
+ * <ul>
+ *   <li>Header: version (int), value type id (int), number of docs per page (int), number of pages (int)</li>
+ *   <li>
+ *     For each page: min value (long or double), max value (long or double), null count (int). INT/LONG values are
+ *     stored as long, FLOAT/DOUBLE values are stored as double.
+ *   </li>
+ * </ul>
+ */
+public class ZoneMapCreator implements Closeable {
+  public static final int VERSION = 1;
+  public static final int DEFAULT_NUM_DOCS_PER_PAGE = 8192;
+  public static final int HEADER_SIZE = 4 * Integer.BYTES;
+  public static final int PAGE_ENTRY_SIZE = 2 * Long.BYTES + Integer.BYTES;
+  // Value types indexed by the value type id stored in the header
+  public static final DataType[] VALUE_TYPES = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE};
+
+  private final File _zoneMapFile;
+  private final DataType _valueType;
+  private final boolean _integral;
+  private final int _numDocsPerPage;
+  private final ByteBuffer _pageEntries;
+
+  private int _numDocsInPage;
+  private long _minLong;
+  private long _maxLong;
+  private double _minDouble;
+  private double _maxDouble;
+  private int _nullCount;
+
+  public ZoneMapCreator(File indexDir, String columnName, DataType valueType, int numDocs) {
+    this(indexDir, columnName, valueType, numDocs, DEFAULT_NUM_DOCS_PER_PAGE);
+  }
+
+  public ZoneMapCreator(File indexDir, String columnName, DataType valueType, int numDocs, int numDocsPerPage) {
+    Preconditions.checkArgument(getValueTypeId(valueType) >= 0, "Unsupported value type for zone map: %s", valueType);
+    Preconditions.checkArgument(numDocsPerPage > 0, "Number of docs per page must be positive");
+    _zoneMapFile = new File(indexDir, columnName + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+    _valueType = valueType;
+    _integral = valueType == DataType.INT || valueType == DataType.LONG;
+    _numDocsPerPage = numDocsPerPage;
+    int numPages = (numDocs + numDocsPerPage - 1) / numDocsPerPage;
+    _pageEntries = ByteBuffer.allocate(numPages * PAGE_ENTRY_SIZE);
+    resetPage();
+  }
+
+  public static int getValueTypeId(DataType valueType) {
+    for (int i = 0; i < VALUE_TYPES.length; i++) {
+      if (VALUE_TYPES[i] == valueType) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public void add(int value) {
+    add((long) value);
+  }
+
+  public void add(long value) {
+    startDoc();
+    _minLong = Math.min(_minLong, value);
+    _maxLong = Math.max(_maxLong, value);
+  }
+
+  public void add(float value) {
+    add((double) value);
+  }
+
+  public void add(double value) {
+    startDoc();
+    _minDouble = Math.min(_minDouble, value);
+    _maxDouble = Math.max(_maxDouble, value);
+  }
+
+  /**
+   * Marks the last added document as null. The default value added for the document is still tracked in the min/max
+   * values because the forward index stores the default value.
+   */
+  public void setNull() {
+    _nullCount++;
+  }
+
+  private void startDoc() {
+    // NOTE: Flush the full page lazily when adding the next document so that setNull() for the last document of the
+    //       page is still counted into the page
+    if (_numDocsInPage == _numDocsPerPage) {
+      flushPage();
+    }
+    _numDocsInPage++;
+  }
+
+  private void flushPage() {
+    if (_integral) {
+      _pageEntries.putLong(_minLong);
+      _pageEntries.putLong(_maxLong);
+    } else {
+      _pageEntries.putDouble(_minDouble);
+      _pageEntries.putDouble(_maxDouble);
+    }
+    _pageEntries.putInt(_nullCount);
+    resetPage();
+  }
+
+  private void resetPage() {
+    _numDocsInPage = 0;
+    _minLong = Long.MAX_VALUE;
+    _maxLong = Long.MIN_VALUE;
+    _minDouble = Double.POSITIVE_INFINITY;
+    _maxDouble = Double.NEGATIVE_INFINITY;
+    _nullCount = 0;
+  }
+
+  public void seal()
+      throws IOException {
+    // Flush the last page
+    if (_numDocsInPage > 0) {
+      flushPage();
+    }
+    Preconditions.checkState(!_pageEntries.hasRemaining(), "Number of documents added does not match the total docs");
+    try (DataOutputStream outputStream = new DataOutputStream(FileUtils.openOutputStream(_zoneMapFile))) {
+      outputStream.writeInt(VERSION);
+      outputStream.writeInt(getValueTypeId(_valueType));
+      outputStream.writeInt(_numDocsPerPage);
+      outputStream.writeInt(_pageEntries.capacity() / PAGE_ENTRY_SIZE);
+      outputStream.write(_pageEntries.array());
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
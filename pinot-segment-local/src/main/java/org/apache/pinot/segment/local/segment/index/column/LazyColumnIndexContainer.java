@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.column;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
+import java.io.IOException;
+import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segment.spi.index.column.ColumnIndexContainer;
+import org.apache.pinot.segment.spi.index.metadata.ColumnMetadata;
+import org.apache.pinot.segment.spi.index.reader.BloomFilterReader;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.H3IndexReader;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
+import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
+import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Column index container that defers opening the index buffers and building the heap structures of a column until the
+ * first access to any of its indexes, so that segment loading does not pay for the columns that are never queried.
+ *
+ * <p>Columns without text or FST index can be evicted after being idle via {@link #evictIfIdle(long, long)}. Eviction
+ * closes the loaded indexes (e.g. releasing the cached chunks of the forward index), so it should only be invoked when
+ * no query is holding the readers (see {@code SegmentDataManager.onQuiescent()}). The indexes are loaded again on the
+ * next access.
+ */
+public final class LazyColumnIndexContainer implements ColumnIndexContainer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LazyColumnIndexContainer.class);
+
+  private final SegmentDirectory.Reader _segmentReader;
+  private final ColumnMetadata _metadata;
+  private final IndexLoadingConfig _indexLoadingConfig;
+  private final File _segmentIndexDir;
+  private final boolean _evictable;
+
+  private volatile PhysicalColumnIndexContainer _indexContainer;
+  private volatile long _lastAccessTimeMs;
+
+  public LazyColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
+      IndexLoadingConfig indexLoadingConfig, File segmentIndexDir) {
+    _segmentReader = segmentReader;
+    _metadata = metadata;
+    _indexLoadingConfig = indexLoadingConfig;
+    _segmentIndexDir = segmentIndexDir;
+    // NOTE: Lucene based indexes hold file handles which are only released when the reader is closed
+    String columnName = metadata.getColumnName();
+    _evictable = !indexLoadingConfig.getTextIndexColumns().contains(columnName) && !indexLoadingConfig
+        .getFSTIndexColumns().contains(columnName);
+  }
+
+  private PhysicalColumnIndexContainer getIndexContainer() {
+    _lastAccessTimeMs = System.currentTimeMillis();
+    PhysicalColumnIndexContainer indexContainer = _indexContainer;
+    if (indexContainer == null) {
+      synchronized (this) {
+        indexContainer = _indexContainer;
+        if (indexContainer == null) {
+          indexContainer = loadIndexContainer();
+          _indexContainer = indexContainer;
+        }
+      }
+    }
+    return indexContainer;
+  }
+
+  private PhysicalColumnIndexContainer loadIndexContainer() {
+    String columnName = _metadata.getColumnName();
+    LOGGER.debug("Loading indexes for column: {} in segment: {}", columnName, _segmentIndexDir.getName());
+    try {
+      // NOTE: Synchronize on the segment reader because the segment directory is not thread-safe when opening buffers
+      synchronized (_segmentReader) {
+        return new PhysicalColumnIndexContainer(_segmentReader, _metadata, _indexLoadingConfig, _segmentIndexDir);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(
+          "Failed to load indexes for column: " + columnName + " in segment: " + _segmentIndexDir.getName(), e);
+    }
+  }
+
+  /**
+   * Evicts (closes) the loaded indexes if the column is evictable and has not been accessed since the given idle time.
+   * Returns {@code true} if the indexes are evicted, {@code false} otherwise.
+   * <p>NOTE: Should only be invoked when no query is using the indexes of the column.
+   */
+  public synchronized boolean evictIfIdle(long idleTimeMs, long now) {
+    if (!_evictable || _indexContainer == null || now - _lastAccessTimeMs < idleTimeMs) {
+      return false;
+    }
+    PhysicalColumnIndexContainer indexContainer = _indexContainer;
+    _indexContainer = null;
+    try {
+      indexContainer.close();
+      // Release the buffers held for the column (e.g. cached index files fetched from the remote store)
+      synchronized (_segmentReader) {
+        _segmentReader.releaseIndexesFor(_metadata.getColumnName());
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while closing indexes for column: {} in segment: {}", _metadata.getColumnName(),
+          _segmentIndexDir.getName(), e);
+    }
+    return true;
+  }
+
+  @VisibleForTesting
+  public boolean isLoaded() {
+    return _indexContainer != null;
+  }
+
+  @Override
+  public ForwardIndexReader<?> getForwardIndex() {
+    return getIndexContainer().getForwardIndex();
+  }
+
+  @Override
+  public InvertedIndexReader<?> getInvertedIndex() {
+    return getIndexContainer().getInvertedIndex();
+  }
+
+  @Override
+  public InvertedIndexReader<?> getRangeIndex() {
+    return getIndexContainer().getRangeIndex();
+  }
+
+  @Override
+  public TextIndexReader getTextIndex() {
+    return getIndexContainer().getTextIndex();
+  }
+
+  @Override
+  public TextIndexReader getFSTIndex() {
+    return getIndexContainer().getFSTIndex();
+  }
+
+  @Override
+  public JsonIndexReader getJsonIndex() {
+    return getIndexContainer().getJsonIndex();
+  }
+
+  @Override
+  public H3IndexReader getH3Index() {
+    return getIndexContainer().getH3Index();
+  }
+
+  @Override
+  public Dictionary getDictionary() {
+    return getIndexContainer().getDictionary();
+  }
+
+  @Override
+  public BloomFilterReader getBloomFilter() {
+    return getIndexContainer().getBloomFilter();
+  }
+
+  @Override
+  public NullValueVectorReader getNullValueVector() {
+    return getIndexContainer().getNullValueVector();
+  }
+
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return getIndexContainer().getZoneMap();
+  }
+
+  @Override
+  public synchronized void close()
+      throws IOException {
+    if (_indexContainer != null) {
+      _indexContainer.close();
+      _indexContainer = null;
+    }
+  }
+}
@@ -39,10 +39,12 @@ import org.apache.pinot.segment.local.segment.index.readers.OnHeapLongDictionary
 import org.apache.pinot.segment.local.segment.index.readers.OnHeapStringDictionary;
 import org.apache.pinot.segment.local.segment.index.readers.RangeIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.StringDictionary;
+import org.apache.pinot.segment.local.segment.index.readers.ZoneMapReaderImpl;
 import org.apache.pinot.segment.local.segment.index.readers.bloom.BloomFilterReaderFactory;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitMVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedByteChunkSVForwardIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkMVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.geospatial.ImmutableH3IndexReader;
 import org.apache.pinot.segment.local.segment.index.readers.json.ImmutableJsonIndexReader;
@@ -58,6 +60,7 @@ import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.SortedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.segment.spi.store.ColumnIndexType;
 import org.apache.pinot.segment.spi.store.SegmentDirectory;
@@ -81,6 +84,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   private final BaseImmutableDictionary _dictionary;
   private final BloomFilterReader _bloomFilter;
   private final NullValueVectorReaderImpl _nullValueVectorReader;
+  private final ZoneMapReaderImpl _zoneMap;
 
   public PhysicalColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
       IndexLoadingConfig indexLoadingConfig, File segmentIndexDir)
@@ -102,6 +106,12 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       _nullValueVectorReader = null;
     }
 
+    if (segmentReader.hasIndexFor(columnName, ColumnIndexType.ZONE_MAP)) {
+      _zoneMap = new ZoneMapReaderImpl(segmentReader.getIndexFor(columnName, ColumnIndexType.ZONE_MAP));
+    } else {
+      _zoneMap = null;
+    }
+
     if (loadTextIndex) {
       Preconditions.checkState(segmentReader.hasIndexFor(columnName, ColumnIndexType.TEXT_INDEX));
       Map<String, Map<String, String>> columnProperties = indexLoadingConfig.getColumnProperties();
@@ -180,7 +190,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       }
     } else {
       // Raw index
-      _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType());
+      _forwardIndex = loadRawForwardIndex(fwdIndexBuffer, metadata.getDataType(), metadata.isSingleValue());
       _dictionary = null;
       _rangeIndex = null;
       _invertedIndex = null;
@@ -238,6 +248,11 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _nullValueVectorReader;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return _zoneMap;
+  }
+
   //TODO: move this to a DictionaryLoader class
   public static BaseImmutableDictionary loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
       boolean loadOnHeap) {
@@ -280,8 +295,12 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     }
   }
 
-  private static ForwardIndexReader<?> loadRawForwardIndex(PinotDataBuffer forwardIndexBuffer, DataType dataType) {
+  private static ForwardIndexReader<?> loadRawForwardIndex(PinotDataBuffer forwardIndexBuffer, DataType dataType,
+      boolean isSingleValue) {
     DataType storedType = dataType.getStoredType();
+    if (!isSingleValue) {
+      return new VarByteChunkMVForwardIndexReader(forwardIndexBuffer, storedType);
+    }
     switch (storedType) {
       case INT:
       case LONG:
@@ -324,5 +343,8 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     if (_bloomFilter != null) {
       _bloomFilter.close();
     }
+    if (_zoneMap != null) {
+      _zoneMap.close();
+    }
   }
 }
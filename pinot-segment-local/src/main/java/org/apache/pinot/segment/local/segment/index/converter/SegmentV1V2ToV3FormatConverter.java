@@ -153,6 +153,7 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
           copyIndexIfExists(v2DataReader, v3DataWriter, column, ColumnIndexType.DICTIONARY);
           copyIndexIfExists(v2DataReader, v3DataWriter, column, ColumnIndexType.FORWARD_INDEX);
           copyIndexIfExists(v2DataReader, v3DataWriter, column, ColumnIndexType.NULLVALUE_VECTOR);
+          copyIndexIfExists(v2DataReader, v3DataWriter, column, ColumnIndexType.ZONE_MAP);
         }
 
         // Other indexes are intentionally stored at the end of the single file
@@ -23,6 +23,7 @@ import javax.annotation.Nullable;
 import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
 import org.apache.pinot.segment.spi.index.column.ColumnIndexContainer;
 import org.apache.pinot.segment.spi.index.metadata.ColumnMetadata;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 import org.apache.pinot.segment.spi.partition.PartitionFunction;
 import org.apache.pinot.spi.data.FieldSpec;
 
@@ -31,6 +32,7 @@ import org.apache.pinot.spi.data.FieldSpec;
  * The {@code ImmutableDataSource} class is the data source for a column in the immutable segment.
  */
 public class ImmutableDataSource extends BaseDataSource {
+  private final ZoneMapReader _zoneMap;
 
   public ImmutableDataSource(ColumnMetadata columnMetadata, ColumnIndexContainer columnIndexContainer) {
     super(new ImmutableDataSourceMetadata(columnMetadata), columnIndexContainer.getForwardIndex(),
@@ -38,6 +40,13 @@ public class ImmutableDataSource extends BaseDataSource {
         columnIndexContainer.getRangeIndex(), columnIndexContainer.getTextIndex(), columnIndexContainer.getFSTIndex(),
         columnIndexContainer.getJsonIndex(), columnIndexContainer.getH3Index(), columnIndexContainer.getBloomFilter(),
         columnIndexContainer.getNullValueVector());
+    _zoneMap = columnIndexContainer.getZoneMap();
+  }
+
+  @Nullable
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return _zoneMap;
   }
 
   private static class ImmutableDataSourceMetadata implements DataSourceMetadata {
@@ -82,6 +82,10 @@ public class IndexLoadingConfig {
   private TableConfig _tableConfig;
   private String _tierBackend;
   private PinotConfiguration _tierConfigs;
+  private boolean _lazyColumnLoading;
+  private long _lazyColumnIdleEvictionMs = -1;
+  private Set<String> _warmUpColumns = new HashSet<>();
+  private boolean _accessPatternPrefetch;
 
   public IndexLoadingConfig(InstanceDataManagerConfig instanceDataManagerConfig, TableConfig tableConfig) {
     extractFromInstanceConfig(instanceDataManagerConfig);
@@ -111,6 +115,11 @@ public class IndexLoadingConfig {
       _jsonIndexColumns.addAll(jsonIndexColumns);
     }
 
+    List<String> warmUpColumns = indexingConfig.getWarmUpColumns();
+    if (warmUpColumns != null) {
+      _warmUpColumns.addAll(warmUpColumns);
+    }
+
     List<String> rangeIndexColumns = indexingConfig.getRangeIndexColumns();
     if (rangeIndexColumns != null) {
       _rangeIndexColumns.addAll(rangeIndexColumns);
@@ -245,6 +254,9 @@ public class IndexLoadingConfig {
     _segmentStoreURI = instanceDataManagerConfig.getConfig().getProperty(CommonConstants.Server.CONFIG_OF_SEGMENT_STORE_URI);
     _tierBackend = instanceDataManagerConfig.getTierBackend();
     _tierConfigs = instanceDataManagerConfig.getTierConfigs();
+    _lazyColumnLoading = instanceDataManagerConfig.isLazyColumnLoadingEnabled();
+    _lazyColumnIdleEvictionMs = instanceDataManagerConfig.getLazyColumnIdleEvictionMs();
+    _accessPatternPrefetch = instanceDataManagerConfig.isAccessPatternPrefetchEnabled();
   }
 
   /**
@@ -461,4 +473,55 @@ public class IndexLoadingConfig {
     }
     return _tierConfigs;
   }
+
+  /**
+   * Returns {@code true} if the indexes of the columns should be loaded on the first access instead of when loading the
+   * segment.
+   */
+  public boolean isLazyColumnLoading() {
+    return _lazyColumnLoading;
+  }
+
+  @VisibleForTesting
+  public void setLazyColumnLoading(boolean lazyColumnLoading) {
+    _lazyColumnLoading = lazyColumnLoading;
+  }
+
+  /**
+   * Returns the idle time after which the lazily loaded column indexes can be evicted, non-positive if eviction is
+   * disabled.
+   */
+  public long getLazyColumnIdleEvictionMs() {
+    return _lazyColumnIdleEvictionMs;
+  }
+
+  @VisibleForTesting
+  public void setLazyColumnIdleEvictionMs(long lazyColumnIdleEvictionMs) {
+    _lazyColumnIdleEvictionMs = lazyColumnIdleEvictionMs;
+  }
+
+  /**
+   * Returns the columns whose index buffers should be prefetched into memory after loading the segment in mmap mode.
+   */
+  public Set<String> getWarmUpColumns() {
+    return _warmUpColumns;
+  }
+
+  @VisibleForTesting
+  public void setWarmUpColumns(Set<String> warmUpColumns) {
+    _warmUpColumns = warmUpColumns;
+  }
+
+  /**
+   * Returns {@code true} if the mmap prefetch of the index buffers should be sized by their access pattern, where only
+   * the header page of the sequentially accessed buffers (forward index) is prefetched.
+   */
+  public boolean isAccessPatternPrefetch() {
+    return _accessPatternPrefetch;
+  }
+
+  @VisibleForTesting
+  public void setAccessPatternPrefetch(boolean accessPatternPrefetch) {
+    _accessPatternPrefetch = accessPatternPrefetch;
+  }
 }
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.segment.local.io.util.FixedByteValueReaderWriter;
+import org.apache.pinot.segment.local.io.util.FrontCodedValueReader;
 import org.apache.pinot.segment.local.io.util.ValueReader;
 import org.apache.pinot.segment.local.io.util.VarLengthValueReader;
 import org.apache.pinot.segment.spi.index.reader.Dictionary;
@@ -37,14 +38,23 @@ import org.apache.pinot.spi.utils.ByteArray;
 @SuppressWarnings("rawtypes")
 public abstract class BaseImmutableDictionary implements Dictionary {
   private final ValueReader _valueReader;
+  // Not null if the dictionary is front-coded, which requires special handling for binary search
+  private final FrontCodedValueReader _frontCodedValueReader;
   private final int _length;
   private final int _numBytesPerValue;
   private final byte _paddingByte;
 
   protected BaseImmutableDictionary(PinotDataBuffer dataBuffer, int length, int numBytesPerValue, byte paddingByte) {
-    if (VarLengthValueReader.isVarLengthValueBuffer(dataBuffer)) {
+    if (FrontCodedValueReader.isFrontCodedValueBuffer(dataBuffer)) {
+      FrontCodedValueReader valueReader = new FrontCodedValueReader(dataBuffer);
+      _valueReader = valueReader;
+      _frontCodedValueReader = valueReader;
+      _length = valueReader.getNumValues();
+      _paddingByte = 0;
+    } else if (VarLengthValueReader.isVarLengthValueBuffer(dataBuffer)) {
       VarLengthValueReader valueReader = new VarLengthValueReader(dataBuffer);
       _valueReader = valueReader;
+      _frontCodedValueReader = null;
       _length = valueReader.getNumValues();
       _paddingByte = 0;
     } else {
@@ -52,6 +62,7 @@ public abstract class BaseImmutableDictionary implements Dictionary {
           "Buffer size mismatch: bufferSize = %s, numValues = %s, numByesPerValue = %s", dataBuffer.size(), length,
           numBytesPerValue);
       _valueReader = new FixedByteValueReaderWriter(dataBuffer);
+      _frontCodedValueReader = null;
       _length = length;
       _paddingByte = paddingByte;
     }
@@ -63,6 +74,7 @@ public abstract class BaseImmutableDictionary implements Dictionary {
    */
   protected BaseImmutableDictionary(int length) {
     _valueReader = null;
+    _frontCodedValueReader = null;
     _length = length;
     _numBytesPerValue = -1;
     _paddingByte = 0;
@@ -196,6 +208,9 @@ public abstract class BaseImmutableDictionary implements Dictionary {
    * TODO: Clean up the segments with legacy non-zero padding byte, and remove the support for non-zero padding byte
    */
   protected int binarySearch(String value) {
+    if (_frontCodedValueReader != null) {
+      return _frontCodedValueReader.binarySearch(value);
+    }
     byte[] buffer = getBuffer();
     int low = 0;
     int high = _length - 1;
@@ -231,6 +246,9 @@ public abstract class BaseImmutableDictionary implements Dictionary {
   }
 
   protected int binarySearch(byte[] value) {
+    if (_frontCodedValueReader != null) {
+      return _frontCodedValueReader.binarySearch(value);
+    }
     int low = 0;
     int high = _length - 1;
 
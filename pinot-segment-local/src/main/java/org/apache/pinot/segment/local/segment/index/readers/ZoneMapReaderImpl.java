@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.segment.local.segment.creator.impl.zonemap.ZoneMapCreator;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Reader for the page-level zone map.
+ * <p>For data layout, please refer to the documentation for {@link ZoneMapCreator}
+ */
+public class ZoneMapReaderImpl implements ZoneMapReader {
+  private final PinotDataBuffer _dataBuffer;
+  private final DataType _valueType;
+  private final int _numDocsPerPage;
+  private final int _numPages;
+
+  public ZoneMapReaderImpl(PinotDataBuffer dataBuffer) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == ZoneMapCreator.VERSION, "Unsupported zone map version: %s", version);
+    _dataBuffer = dataBuffer;
+    _valueType = ZoneMapCreator.VALUE_TYPES[dataBuffer.getInt(Integer.BYTES)];
+    _numDocsPerPage = dataBuffer.getInt(2 * Integer.BYTES);
+    _numPages = dataBuffer.getInt(3 * Integer.BYTES);
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _valueType;
+  }
+
+  @Override
+  public int getNumDocsPerPage() {
+    return _numDocsPerPage;
+  }
+
+  @Override
+  public int getNumPages() {
+    return _numPages;
+  }
+
+  @Override
+  public long getMinLong(int pageId) {
+    return _dataBuffer.getLong(getPageOffset(pageId));
+  }
+
+  @Override
+  public long getMaxLong(int pageId) {
+    return _dataBuffer.getLong(getPageOffset(pageId) + Long.BYTES);
+  }
+
+  @Override
+  public double getMinDouble(int pageId) {
+    return _dataBuffer.getDouble(getPageOffset(pageId));
+  }
+
+  @Override
+  public double getMaxDouble(int pageId) {
+    return _dataBuffer.getDouble(getPageOffset(pageId) + Double.BYTES);
+  }
+
+  @Override
+  public int getNullCount(int pageId) {
+    return _dataBuffer.getInt(getPageOffset(pageId) + 2 * Long.BYTES);
+  }
+
+  private static long getPageOffset(int pageId) {
+    return ZoneMapCreator.HEADER_SIZE + (long) pageId * ZoneMapCreator.PAGE_ENTRY_SIZE;
+  }
+
+  @Override
+  public void close() {
+    // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
+    // caller is responsible of closing the PinotDataBuffer.
+  }
+}
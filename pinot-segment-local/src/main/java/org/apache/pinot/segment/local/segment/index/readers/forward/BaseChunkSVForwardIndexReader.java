@@ -27,7 +27,6 @@ import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.apache.pinot.segment.spi.compression.ChunkDecompressor;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
 import org.apache.pinot.segment.spi.index.reader.ForwardIndexReaderContext;
-import org.apache.pinot.segment.spi.memory.CleanerUtil;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.slf4j.Logger;
@@ -50,6 +49,8 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
   protected final PinotDataBuffer _dataHeader;
   protected final int _headerEntryChunkOffsetSize;
   protected final PinotDataBuffer _rawData;
+  // Unique id of the reader, used as part of the key in the shared chunk cache
+  private final long _readerId = ChunkCache.nextReaderId();
 
   public BaseChunkSVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType) {
     _dataBuffer = dataBuffer;
@@ -103,7 +104,8 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
    * Helper method to return the chunk buffer that contains the value at the given document id.
    * <ul>
    *   <li> If the chunk already exists in the reader context, returns the same. </li>
-   *   <li> Otherwise, loads the chunk for the row, and sets it in the reader context. </li>
+   *   <li> If the chunk exists in the shared {@link ChunkCache}, sets it in the reader context. </li>
+   *   <li> Otherwise, loads the chunk for the row, caches it, and sets it in the reader context. </li>
    * </ul>
    * @param docId Document id
    * @param context Reader context
@@ -115,6 +117,13 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
       return context.getChunkBuffer();
     }
 
+    ChunkCache chunkCache = ChunkCache.getInstance();
+    ChunkCache.CachedChunk cachedChunk = chunkCache.get(_readerId, chunkId);
+    if (cachedChunk != null) {
+      context.setCachedChunk(chunkId, cachedChunk);
+      return context.getChunkBuffer();
+    }
+
     int chunkSize;
     long chunkPosition = getChunkPosition(chunkId);
 
@@ -126,7 +135,7 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
       chunkSize = (int) (nextChunkOffset - chunkPosition);
     }
 
-    ByteBuffer decompressedBuffer = context.getChunkBuffer();
+    ByteBuffer decompressedBuffer = context.getDecompressionBuffer();
     decompressedBuffer.clear();
 
     try {
@@ -135,7 +144,8 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
       LOGGER.error("Exception caught while decompressing data chunk", e);
       throw new RuntimeException(e);
     }
-    context.setChunkId(chunkId);
+    chunkCache.put(_readerId, chunkId, decompressedBuffer);
+    context.setChunk(chunkId, decompressedBuffer);
     return decompressedBuffer;
   }
 
@@ -171,6 +181,7 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
   public void close() {
     // NOTE: DO NOT close the PinotDataBuffer here because it is tracked by the caller and might be reused later. The
     // caller is responsible of closing the PinotDataBuffer.
+    ChunkCache.getInstance().invalidate(_readerId);
   }
 
   /**
@@ -185,14 +196,23 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
    * </ul>
    */
   public static class ChunkReaderContext implements ForwardIndexReaderContext {
-    private final ByteBuffer _chunkBuffer;
+    private final int _maxChunkSize;
+    // Buffer to decompress the chunks into, lazily acquired from the ChunkBufferPool because it is not needed when the
+    // chunks are served from the ChunkCache
+    private ByteBuffer _decompressionBuffer;
+    private ByteBuffer _chunkBuffer;
+    // Chunk from the ChunkCache retained by this context, released when switching to another chunk or closing
+    private ChunkCache.CachedChunk _cachedChunk;
     private int _chunkId;
 
     public ChunkReaderContext(int maxChunkSize) {
-      _chunkBuffer = ByteBuffer.allocateDirect(maxChunkSize);
+      _maxChunkSize = maxChunkSize;
       _chunkId = -1;
     }
 
+    /**
+     * Returns the buffer for the current chunk, {@code null} if no chunk is loaded.
+     */
     public ByteBuffer getChunkBuffer() {
       return _chunkBuffer;
     }
@@ -201,15 +221,46 @@ public abstract class BaseChunkSVForwardIndexReader implements ForwardIndexReade
       return _chunkId;
     }
 
-    public void setChunkId(int chunkId) {
+    public void setChunk(int chunkId, ByteBuffer chunkBuffer) {
+      releaseCachedChunk();
       _chunkId = chunkId;
+      _chunkBuffer = chunkBuffer;
     }
 
+    void setCachedChunk(int chunkId, ChunkCache.CachedChunk cachedChunk) {
+      releaseCachedChunk();
+      _chunkId = chunkId;
+      _chunkBuffer = cachedChunk.getBuffer();
+      _cachedChunk = cachedChunk;
+    }
+
+    private void releaseCachedChunk() {
+      if (_cachedChunk != null) {
+        _cachedChunk.release();
+        _cachedChunk = null;
+      }
+    }
+
+    ByteBuffer getDecompressionBuffer() {
+      if (_decompressionBuffer == null) {
+        _decompressionBuffer = ChunkBufferPool.getInstance().acquire(_maxChunkSize);
+      }
+      return _decompressionBuffer;
+    }
+
+    /**
+     * Releases the buffers held by the context. The context can still be used afterwards, and acquires the buffers
+     * again on demand.
+     */
     @Override
     public void close()
         throws IOException {
-      if (CleanerUtil.UNMAP_SUPPORTED) {
-        CleanerUtil.getCleaner().freeBuffer(_chunkBuffer);
+      _chunkId = -1;
+      _chunkBuffer = null;
+      releaseCachedChunk();
+      if (_decompressionBuffer != null) {
+        ChunkBufferPool.getInstance().release(_decompressionBuffer);
+        _decompressionBuffer = null;
       }
     }
   }
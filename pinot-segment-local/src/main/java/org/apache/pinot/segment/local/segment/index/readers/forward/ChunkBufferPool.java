@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.forward;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.segment.spi.memory.CleanerUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Process-wide pool of the off-heap (direct) chunk buffers used by the
+ * {@link BaseChunkSVForwardIndexReader.ChunkReaderContext} for decompression and by the {@link ChunkCache} for the
+ * cached chunks, so that the queries can reuse the buffers instead of allocating new ones for each column of each
+ * segment.
+ * <p>The buffers are bucketed by capacity rounded up to the next power of 2. The pool is disabled by default, and can
+ * be enabled by invoking {@link #init(long)} with a positive max size of the pooled buffers.
+ */
+@ThreadSafe
+public class ChunkBufferPool {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChunkBufferPool.class);
+  private static final ChunkBufferPool INSTANCE = new ChunkBufferPool();
+
+  private final Map<Integer, Queue<ByteBuffer>> _pools = new ConcurrentHashMap<>();
+  private final AtomicLong _pooledBytes = new AtomicLong();
+  private volatile long _maxPooledBytes = 0;
+
+  public static ChunkBufferPool getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Initializes the pool with the given max size in bytes of the pooled buffers. Non-positive size disables the pool.
+   */
+  public synchronized void init(long maxPooledBytes) {
+    _maxPooledBytes = maxPooledBytes;
+    if (maxPooledBytes <= 0) {
+      for (Queue<ByteBuffer> pool : _pools.values()) {
+        ByteBuffer buffer;
+        while ((buffer = pool.poll()) != null) {
+          _pooledBytes.addAndGet(-buffer.capacity());
+          free(buffer);
+        }
+      }
+      LOGGER.info("Chunk buffer pool is disabled");
+    } else {
+      LOGGER.info("Initialized chunk buffer pool with max size: {} bytes", maxPooledBytes);
+    }
+  }
+
+  /**
+   * Returns a direct buffer with at least the given capacity.
+   */
+  ByteBuffer acquire(int minCapacity) {
+    if (_maxPooledBytes <= 0) {
+      return ByteBuffer.allocateDirect(minCapacity);
+    }
+    int capacity = getBucketCapacity(minCapacity);
+    Queue<ByteBuffer> pool = _pools.get(capacity);
+    if (pool != null) {
+      ByteBuffer buffer = pool.poll();
+      if (buffer != null) {
+        _pooledBytes.addAndGet(-capacity);
+        buffer.clear();
+        return buffer;
+      }
+    }
+    return ByteBuffer.allocateDirect(capacity);
+  }
+
+  /**
+   * Returns the buffer to the pool, or frees it if the pool is full. The buffer should not be accessed afterwards.
+   */
+  void release(ByteBuffer buffer) {
+    int capacity = buffer.capacity();
+    if (_maxPooledBytes > 0 && capacity == getBucketCapacity(capacity)) {
+      if (_pooledBytes.addAndGet(capacity) <= _maxPooledBytes) {
+        _pools.computeIfAbsent(capacity, k -> new ConcurrentLinkedQueue<>()).offer(buffer);
+        return;
+      }
+      _pooledBytes.addAndGet(-capacity);
+    }
+    free(buffer);
+  }
+
+  public long getPooledBytes() {
+    return _pooledBytes.get();
+  }
+
+  private static int getBucketCapacity(int minCapacity) {
+    int capacity = Integer.highestOneBit(Math.max(minCapacity, 1));
+    return capacity == minCapacity || capacity == 1 << 30 ? minCapacity : capacity << 1;
+  }
+
+  private static void free(ByteBuffer buffer) {
+    if (CleanerUtil.UNMAP_SUPPORTED) {
+      try {
+        CleanerUtil.getCleaner().freeBuffer(buffer);
+      } catch (Exception e) {
+        LOGGER.warn("Caught exception while freeing chunk buffer", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.forward;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Process-wide size-bounded cache of the decompressed chunks of the chunk-based raw forward indexes, shared across all
+ * the queries on the server. Hot chunks read by concurrent queries are decompressed only once instead of once per
+ * query.
+ * <p>The chunks are stored in off-heap (direct) byte buffers taken from the {@link ChunkBufferPool}, keyed by the id of
+ * the forward index reader (unique per column per loaded segment) and the chunk id. The cache is disabled by default,
+ * and can be enabled by invoking {@link #init(long)} with a positive size.
+ * <p>The cached chunks are reference counted: the cache holds one reference, and each reader context reading the chunk
+ * holds one. The direct buffer of a chunk is returned to the pool once it is removed from the cache and released by all
+ * the reader contexts. The keys of each reader are tracked separately, so that closing a reader only removes its own
+ * chunks instead of scanning the whole cache.
+ */
+@ThreadSafe
+public class ChunkCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChunkCache.class);
+  private static final ChunkCache INSTANCE = new ChunkCache();
+  private static final AtomicLong READER_ID_GENERATOR = new AtomicLong();
+
+  private final AtomicLong _sizeBytes = new AtomicLong();
+  private final Map<Long, Set<ChunkKey>> _keysByReader = new ConcurrentHashMap<>();
+  private volatile Cache<ChunkKey, CachedChunk> _cache;
+
+  public static ChunkCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns a new unique id for a forward index reader, used as part of the cache key.
+   */
+  static long nextReaderId() {
+    return READER_ID_GENERATOR.getAndIncrement();
+  }
+
+  /**
+   * Initializes the cache with the given max size in bytes. Non-positive size disables the cache.
+   */
+  public synchronized void init(long maxSizeBytes) {
+    if (_cache != null) {
+      _cache.invalidateAll();
+    }
+    _keysByReader.clear();
+    if (maxSizeBytes <= 0) {
+      _cache = null;
+      LOGGER.info("Chunk cache is disabled");
+      return;
+    }
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeBytes)
+        .weigher((ChunkKey key, CachedChunk value) -> value._buffer.capacity()).recordStats()
+        .<ChunkKey, CachedChunk>removalListener(notification -> {
+          ChunkKey key = notification.getKey();
+          CachedChunk chunk = notification.getValue();
+          // NOTE: When the chunk is replaced, the key is still in the cache
+          if (notification.getCause() != RemovalCause.REPLACED) {
+            Set<ChunkKey> keys = _keysByReader.get(key._readerId);
+            if (keys != null) {
+              keys.remove(key);
+            }
+          }
+          _sizeBytes.addAndGet(-chunk._buffer.capacity());
+          chunk.release();
+        }).build();
+    LOGGER.info("Initialized chunk cache with max size: {} bytes", maxSizeBytes);
+  }
+
+  public boolean isEnabled() {
+    return _cache != null;
+  }
+
+  /**
+   * Returns the decompressed chunk for the given reader and chunk id, or {@code null} if it is not cached. The returned
+   * chunk is retained for the caller, who should {@link CachedChunk#release() release} it after reading it.
+   */
+  @Nullable
+  CachedChunk get(long readerId, int chunkId) {
+    Cache<ChunkKey, CachedChunk> cache = _cache;
+    if (cache == null) {
+      return null;
+    }
+    CachedChunk chunk = cache.getIfPresent(new ChunkKey(readerId, chunkId));
+    // NOTE: The chunk might be removed and freed concurrently, in which case it cannot be retained
+    return chunk != null && chunk.retain() ? chunk : null;
+  }
+
+  /**
+   * Caches a copy of the given decompressed chunk (from its position to its limit) for the given reader and chunk id.
+   */
+  void put(long readerId, int chunkId, ByteBuffer chunk) {
+    Cache<ChunkKey, CachedChunk> cache = _cache;
+    if (cache == null) {
+      return;
+    }
+    ByteBuffer copy = ChunkBufferPool.getInstance().acquire(chunk.remaining());
+    copy.put(chunk.duplicate());
+    copy.flip();
+    _sizeBytes.addAndGet(copy.capacity());
+    ChunkKey key = new ChunkKey(readerId, chunkId);
+    _keysByReader.computeIfAbsent(readerId, k -> ConcurrentHashMap.newKeySet()).add(key);
+    cache.put(key, new CachedChunk(copy));
+  }
+
+  /**
+   * Removes all the chunks of the given reader from the cache, should be invoked when the reader is closed.
+   */
+  void invalidate(long readerId) {
+    Set<ChunkKey> keys = _keysByReader.remove(readerId);
+    Cache<ChunkKey, CachedChunk> cache = _cache;
+    if (keys != null && cache != null) {
+      cache.invalidateAll(keys);
+    }
+  }
+
+  public long getSizeBytes() {
+    return _sizeBytes.get();
+  }
+
+  public long getHitCount() {
+    Cache<ChunkKey, CachedChunk> cache = _cache;
+    return cache != null ? cache.stats().hitCount() : 0;
+  }
+
+  public long getMissCount() {
+    Cache<ChunkKey, CachedChunk> cache = _cache;
+    return cache != null ? cache.stats().missCount() : 0;
+  }
+
+  @VisibleForTesting
+  long getNumCachedChunks() {
+    Cache<ChunkKey, CachedChunk> cache = _cache;
+    return cache != null ? cache.size() : 0;
+  }
+
+  /**
+   * Decompressed chunk stored in the cache. The reference count starts with 1 for the reference held by the cache, and
+   * the direct buffer is returned to the pool when the count drops to 0.
+   */
+  static final class CachedChunk {
+    final ByteBuffer _buffer;
+    final AtomicInteger _refCount = new AtomicInteger(1);
+
+    CachedChunk(ByteBuffer buffer) {
+      _buffer = buffer;
+    }
+
+    /**
+     * Returns a duplicate of the chunk buffer, which can be positioned freely by the caller.
+     */
+    ByteBuffer getBuffer() {
+      return _buffer.duplicate();
+    }
+
+    /**
+     * Increments the reference count, or returns {@code false} if the chunk has already been freed.
+     */
+    boolean retain() {
+      while (true) {
+        int refCount = _refCount.get();
+        if (refCount == 0) {
+          return false;
+        }
+        if (_refCount.compareAndSet(refCount, refCount + 1)) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * Decrements the reference count, and returns the direct buffer to the pool when the count drops to 0.
+     */
+    void release() {
+      if (_refCount.decrementAndGet() == 0) {
+        ChunkBufferPool.getInstance().release(_buffer);
+      }
+    }
+  }
+
+  private static final class ChunkKey {
+    final long _readerId;
+    final int _chunkId;
+
+    ChunkKey(long readerId, int chunkId) {
+      _readerId = readerId;
+      _chunkId = chunkId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ChunkKey)) {
+        return false;
+      }
+      ChunkKey that = (ChunkKey) o;
+      return _readerId == that._readerId && _chunkId == that._chunkId;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * Long.hashCode(_readerId) + _chunkId;
+    }
+  }
+}
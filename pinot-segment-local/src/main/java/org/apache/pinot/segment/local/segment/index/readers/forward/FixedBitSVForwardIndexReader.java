@@ -58,8 +58,13 @@ public final class FixedBitSVForwardIndexReader implements ForwardIndexReader<Fo
 
   @Override
   public void readDictIds(int[] docIds, int length, int[] dictIdBuffer, ForwardIndexReaderContext context) {
-    for (int i = 0; i < length; i++) {
-      dictIdBuffer[i] = _reader.readInt(docIds[i]);
+    // Use bulk read if the doc ids are sequential
+    if (length > 0 && docIds[length - 1] - docIds[0] + 1 == length) {
+      _reader.readInt(docIds[0], length, dictIdBuffer);
+    } else {
+      for (int i = 0; i < length; i++) {
+        dictIdBuffer[i] = _reader.readInt(docIds[i]);
+      }
     }
   }
 
@@ -91,4 +91,112 @@ public final class FixedByteChunkSVForwardIndexReader extends BaseChunkSVForward
       return _rawData.getDouble(docId * Double.BYTES);
     }
   }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, int[] valueBuffer, ChunkReaderContext context) {
+    if (isContiguous(docIds, length)) {
+      // Bulk copy the values chunk by chunk
+      int docId = docIds[0];
+      int index = 0;
+      while (index < length) {
+        int numValues = getNumContiguousValues(docId, length - index);
+        getValueBuffer(docId, numValues, Integer.BYTES, context).asIntBuffer().get(valueBuffer, index, numValues);
+        docId += numValues;
+        index += numValues;
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        valueBuffer[i] = getInt(docIds[i], context);
+      }
+    }
+  }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, long[] valueBuffer, ChunkReaderContext context) {
+    if (isContiguous(docIds, length)) {
+      // Bulk copy the values chunk by chunk
+      int docId = docIds[0];
+      int index = 0;
+      while (index < length) {
+        int numValues = getNumContiguousValues(docId, length - index);
+        getValueBuffer(docId, numValues, Long.BYTES, context).asLongBuffer().get(valueBuffer, index, numValues);
+        docId += numValues;
+        index += numValues;
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        valueBuffer[i] = getLong(docIds[i], context);
+      }
+    }
+  }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, float[] valueBuffer, ChunkReaderContext context) {
+    if (isContiguous(docIds, length)) {
+      // Bulk copy the values chunk by chunk
+      int docId = docIds[0];
+      int index = 0;
+      while (index < length) {
+        int numValues = getNumContiguousValues(docId, length - index);
+        getValueBuffer(docId, numValues, Float.BYTES, context).asFloatBuffer().get(valueBuffer, index, numValues);
+        docId += numValues;
+        index += numValues;
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        valueBuffer[i] = getFloat(docIds[i], context);
+      }
+    }
+  }
+
+  @Override
+  public void readValuesSV(int[] docIds, int length, double[] valueBuffer, ChunkReaderContext context) {
+    if (isContiguous(docIds, length)) {
+      // Bulk copy the values chunk by chunk
+      int docId = docIds[0];
+      int index = 0;
+      while (index < length) {
+        int numValues = getNumContiguousValues(docId, length - index);
+        getValueBuffer(docId, numValues, Double.BYTES, context).asDoubleBuffer().get(valueBuffer, index, numValues);
+        docId += numValues;
+        index += numValues;
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        valueBuffer[i] = getDouble(docIds[i], context);
+      }
+    }
+  }
+
+  private static boolean isContiguous(int[] docIds, int length) {
+    // NOTE: Document ids are sorted and unique
+    return length > 0 && docIds[length - 1] - docIds[0] + 1 == length;
+  }
+
+  /**
+   * Returns the number of values (up to the given max) that can be read from a single buffer starting from the given
+   * document id, which is bounded by the end of the chunk for compressed data.
+   */
+  private int getNumContiguousValues(int docId, int maxNumValues) {
+    if (_isCompressed) {
+      return Math.min(maxNumValues, _numDocsPerChunk - docId % _numDocsPerChunk);
+    } else {
+      return maxNumValues;
+    }
+  }
+
+  /**
+   * Returns a buffer positioned at the value for the given document id, and limited to the given number of values.
+   */
+  private ByteBuffer getValueBuffer(int docId, int numValues, int valueSize, ChunkReaderContext context) {
+    if (_isCompressed) {
+      ByteBuffer valueBuffer = getChunkBuffer(docId, context).duplicate();
+      int startOffset = (docId % _numDocsPerChunk) * valueSize;
+      valueBuffer.position(startOffset);
+      valueBuffer.limit(startOffset + numValues * valueSize);
+      return valueBuffer;
+    } else {
+      return _rawData.toDirectByteBuffer((long) docId * valueSize, numValues * valueSize);
+    }
+  }
 }
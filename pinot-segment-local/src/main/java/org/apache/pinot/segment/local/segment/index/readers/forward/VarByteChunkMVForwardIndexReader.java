@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.readers.forward;
+
+import java.nio.ByteBuffer;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.utils.StringUtil;
+import org.apache.pinot.segment.local.segment.creator.impl.fwd.MultiValueVarByteRawIndexCreator;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Chunk-based multi-value raw (non-dictionary-encoded) forward index reader.
+ * <p>Each multi-value entry is stored as one entry of the chunk-based variable length format, and is read through a
+ * {@link VarByteChunkSVForwardIndexReader}. For data layout of the entry, please refer to the documentation for
+ * {@link MultiValueVarByteRawIndexCreator}.
+ * <p>Similar to the single-value raw forward index readers, type conversion among INT, LONG, FLOAT, DOUBLE, STRING is
+ * supported.
+ */
+public final class VarByteChunkMVForwardIndexReader
+    implements ForwardIndexReader<BaseChunkSVForwardIndexReader.ChunkReaderContext> {
+  private final VarByteChunkSVForwardIndexReader _entryReader;
+  private final DataType _valueType;
+
+  public VarByteChunkMVForwardIndexReader(PinotDataBuffer dataBuffer, DataType valueType) {
+    _entryReader = new VarByteChunkSVForwardIndexReader(dataBuffer, DataType.BYTES);
+    _valueType = valueType;
+  }
+
+  @Override
+  public boolean isDictionaryEncoded() {
+    return false;
+  }
+
+  @Override
+  public boolean isSingleValue() {
+    return false;
+  }
+
+  @Override
+  public DataType getValueType() {
+    return _valueType;
+  }
+
+  @Nullable
+  @Override
+  public BaseChunkSVForwardIndexReader.ChunkReaderContext createContext() {
+    return _entryReader.createContext();
+  }
+
+  @Override
+  public int getNumValuesMV(int docId, BaseChunkSVForwardIndexReader.ChunkReaderContext context) {
+    return ByteBuffer.wrap(_entryReader.getBytes(docId, context)).getInt();
+  }
+
+  @Override
+  public int getIntMV(int docId, int[] valueBuffer, BaseChunkSVForwardIndexReader.ChunkReaderContext context) {
+    ByteBuffer byteBuffer = ByteBuffer.wrap(_entryReader.getBytes(docId, context));
+    int numValues = byteBuffer.getInt();
+    switch (_valueType) {
+      case INT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getInt();
+        }
+        break;
+      case LONG:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = (int) byteBuffer.getLong();
+        }
+        break;
+      case FLOAT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = (int) byteBuffer.getFloat();
+        }
+        break;
+      case DOUBLE:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = (int) byteBuffer.getDouble();
+        }
+        break;
+      case STRING:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = Integer.parseInt(readString(byteBuffer));
+        }
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    return numValues;
+  }
+
+  @Override
+  public int getLongMV(int docId, long[] valueBuffer, BaseChunkSVForwardIndexReader.ChunkReaderContext context) {
+    ByteBuffer byteBuffer = ByteBuffer.wrap(_entryReader.getBytes(docId, context));
+    int numValues = byteBuffer.getInt();
+    switch (_valueType) {
+      case INT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getInt();
+        }
+        break;
+      case LONG:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getLong();
+        }
+        break;
+      case FLOAT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = (long) byteBuffer.getFloat();
+        }
+        break;
+      case DOUBLE:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = (long) byteBuffer.getDouble();
+        }
+        break;
+      case STRING:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = Long.parseLong(readString(byteBuffer));
+        }
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    return numValues;
+  }
+
+  @Override
+  public int getFloatMV(int docId, float[] valueBuffer, BaseChunkSVForwardIndexReader.ChunkReaderContext context) {
+    ByteBuffer byteBuffer = ByteBuffer.wrap(_entryReader.getBytes(docId, context));
+    int numValues = byteBuffer.getInt();
+    switch (_valueType) {
+      case INT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getInt();
+        }
+        break;
+      case LONG:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getLong();
+        }
+        break;
+      case FLOAT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getFloat();
+        }
+        break;
+      case DOUBLE:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = (float) byteBuffer.getDouble();
+        }
+        break;
+      case STRING:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = Float.parseFloat(readString(byteBuffer));
+        }
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    return numValues;
+  }
+
+  @Override
+  public int getDoubleMV(int docId, double[] valueBuffer, BaseChunkSVForwardIndexReader.ChunkReaderContext context) {
+    ByteBuffer byteBuffer = ByteBuffer.wrap(_entryReader.getBytes(docId, context));
+    int numValues = byteBuffer.getInt();
+    switch (_valueType) {
+      case INT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getInt();
+        }
+        break;
+      case LONG:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getLong();
+        }
+        break;
+      case FLOAT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getFloat();
+        }
+        break;
+      case DOUBLE:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = byteBuffer.getDouble();
+        }
+        break;
+      case STRING:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = Double.parseDouble(readString(byteBuffer));
+        }
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    return numValues;
+  }
+
+  @Override
+  public int getStringMV(int docId, String[] valueBuffer, BaseChunkSVForwardIndexReader.ChunkReaderContext context) {
+    ByteBuffer byteBuffer = ByteBuffer.wrap(_entryReader.getBytes(docId, context));
+    int numValues = byteBuffer.getInt();
+    switch (_valueType) {
+      case INT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = Integer.toString(byteBuffer.getInt());
+        }
+        break;
+      case LONG:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = Long.toString(byteBuffer.getLong());
+        }
+        break;
+      case FLOAT:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = Float.toString(byteBuffer.getFloat());
+        }
+        break;
+      case DOUBLE:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = Double.toString(byteBuffer.getDouble());
+        }
+        break;
+      case STRING:
+        for (int i = 0; i < numValues; i++) {
+          valueBuffer[i] = readString(byteBuffer);
+        }
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    return numValues;
+  }
+
+  private static String readString(ByteBuffer byteBuffer) {
+    int length = byteBuffer.getInt();
+    int position = byteBuffer.position();
+    String value = StringUtil.decodeUtf8(byteBuffer.array(), position, length);
+    byteBuffer.position(position + length);
+    return value;
+  }
+
+  @Override
+  public void close() {
+    _entryReader.close();
+  }
+}
@@ -163,6 +163,9 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
       case JSON_INDEX:
         filename = column + V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION;
         break;
+      case ZONE_MAP:
+        filename = column + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION;
+        break;
       default:
         throw new UnsupportedOperationException("Unknown index type: " + indexType.toString());
     }
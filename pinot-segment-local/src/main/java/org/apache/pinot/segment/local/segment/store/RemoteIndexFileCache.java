@@ -0,0 +1,253 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.store;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.filesystem.PinotFS;
+import org.apache.pinot.spi.filesystem.PinotFSFactory;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Bounded local disk cache for the index files fetched from the remote store, shared by all the
+ * {@link TieredSegmentDirectory} instances on the server.
+ * <p>Each cached file holds a range of a remote file, fetched with a range read on the first access, and the buffer
+ * loaded from it. The buffers are reference counted (see {@link CachedIndexFile}). Once the total size of the cached
+ * files exceeds the limit, the least recently used files that are not in use (not retained by any user) are evicted,
+ * their buffers closed and files deleted, and the next access fetches the range again. Files in use are never evicted
+ * so that their buffers stay valid for the readers, and are counted in the total size until evicted after their last
+ * user releases them. The total size can exceed the limit when all the cached files are in use.
+ * <p>The cached files are stored in a dedicated subdirectory of the configured directory, marked with a marker file.
+ * The subdirectory is cleaned up on startup because the files left by the previous run are not tracked.
+ */
+@ThreadSafe
+public class RemoteIndexFileCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RemoteIndexFileCache.class);
+  public static final String CACHE_SUBDIRECTORY_NAME = "remoteIndexFileCache";
+  public static final String MARKER_FILE_NAME = ".remoteIndexFileCache";
+  private static final String TEMP_FILE_SUFFIX = ".tmp.";
+
+  private final File _cacheDir;
+  private final long _maxSizeBytes;
+  // Access-ordered so that the iteration starts from the least recently used file
+  private final LinkedHashMap<String, CachedIndexFile> _cachedFiles = new LinkedHashMap<>(16, 0.75f, true);
+  private long _totalSizeBytes;
+
+  /**
+   * @param baseDir Directory under which the cache subdirectory is created, which is not modified otherwise
+   */
+  public RemoteIndexFileCache(File baseDir, long maxSizeBytes)
+      throws IOException {
+    Preconditions.checkArgument(maxSizeBytes > 0, "Max cache size must be positive, got: %s", maxSizeBytes);
+    _cacheDir = new File(baseDir, CACHE_SUBDIRECTORY_NAME);
+    _maxSizeBytes = maxSizeBytes;
+    if (_cacheDir.exists()) {
+      // Only delete the directory created by the cache, and fail otherwise
+      Preconditions.checkState(new File(_cacheDir, MARKER_FILE_NAME).isFile(),
+          "Directory: %s already exists and is not created by the remote index file cache", _cacheDir);
+      // Files left by the previous run are not tracked, clean them up
+      FileUtils.deleteDirectory(_cacheDir);
+    }
+    FileUtils.forceMkdir(_cacheDir);
+    FileUtils.touch(new File(_cacheDir, MARKER_FILE_NAME));
+    LOGGER.info("Initialized remote index file cache in directory: {} with max size: {} bytes", _cacheDir,
+        maxSizeBytes);
+  }
+
+  /**
+   * Returns the cached file holding the range [offset, offset + size) of the remote file with its buffer loaded, and
+   * fetches it from the remote store if it is not cached. The returned file is retained, and {@link
+   * CachedIndexFile#release()} should be called once its buffer is no longer used.
+   *
+   * @param key Unique key of the range, used as the relative path of the cached file
+   */
+  public CachedIndexFile acquire(String key, URI remoteFileUri, long offset, long size, ReadMode readMode)
+      throws IOException {
+    synchronized (this) {
+      CachedIndexFile cachedIndexFile = _cachedFiles.get(key);
+      // NOTE: Files in the cache always hold the reference of the cache, so retain() cannot fail
+      if (cachedIndexFile != null && cachedIndexFile.retain()) {
+        return cachedIndexFile;
+      }
+    }
+
+    // Fetch the range outside of the lock so that fetches for different keys can run in parallel
+    File tempFile = new File(_cacheDir, key + TEMP_FILE_SUFFIX + UUID.randomUUID());
+    long startTimeMs = System.currentTimeMillis();
+    PinotDataBuffer buffer;
+    try {
+      FileUtils.forceMkdir(tempFile.getParentFile());
+      PinotFS pinotFS = PinotFSFactory.create(remoteFileUri.getScheme());
+      try (InputStream inputStream = pinotFS.open(remoteFileUri, offset, size);
+          OutputStream outputStream = FileUtils.openOutputStream(tempFile)) {
+        long numBytesCopied = IOUtils.copyLarge(inputStream, outputStream);
+        if (numBytesCopied != size) {
+          throw new IOException(
+              String.format("Expected %d bytes from offset: %d of remote file: %s, got: %d", size, offset,
+                  remoteFileUri, numBytesCopied));
+        }
+      }
+      // NOTE: The mapping stays valid after the file is renamed or deleted
+      // Backward-compatible: index file is always big-endian
+      String context = "remote." + key;
+      if (readMode == ReadMode.heap) {
+        buffer = PinotDataBuffer.loadFile(tempFile, 0, size, ByteOrder.BIG_ENDIAN, context);
+      } else {
+        buffer = PinotDataBuffer.mapFile(tempFile, true, 0, size, ByteOrder.BIG_ENDIAN, context);
+      }
+    } catch (IOException e) {
+      FileUtils.deleteQuietly(tempFile);
+      throw e;
+    }
+    LOGGER.debug("Fetched {} bytes from offset: {} of remote file: {} in {}ms", size, offset, remoteFileUri,
+        System.currentTimeMillis() - startTimeMs);
+
+    synchronized (this) {
+      CachedIndexFile cachedIndexFile = _cachedFiles.get(key);
+      if (cachedIndexFile != null && cachedIndexFile.retain()) {
+        // Fetched by another thread concurrently
+        buffer.close();
+        FileUtils.deleteQuietly(tempFile);
+        return cachedIndexFile;
+      }
+      File cachedFile = new File(_cacheDir, key);
+      Files.move(tempFile.toPath(), cachedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      // One reference for the cache, and one for the caller
+      cachedIndexFile = new CachedIndexFile(cachedFile, size, buffer);
+      cachedIndexFile.retain();
+      _cachedFiles.put(key, cachedIndexFile);
+      _totalSizeBytes += size;
+      evictIfNeeded();
+      return cachedIndexFile;
+    }
+  }
+
+  /**
+   * Evicts the least recently used files not in use until the total size is within the limit.
+   * <p>NOTE: A file is not in use when only the cache holds its reference. It cannot be retained concurrently because
+   * files are only retained while holding the lock.
+   */
+  private void evictIfNeeded() {
+    if (_totalSizeBytes <= _maxSizeBytes) {
+      return;
+    }
+    Iterator<CachedIndexFile> iterator = _cachedFiles.values().iterator();
+    while (_totalSizeBytes > _maxSizeBytes && iterator.hasNext()) {
+      CachedIndexFile cachedIndexFile = iterator.next();
+      if (cachedIndexFile._refCount.get() == 1) {
+        iterator.remove();
+        _totalSizeBytes -= cachedIndexFile._size;
+        cachedIndexFile.evict();
+      }
+    }
+    if (_totalSizeBytes > _maxSizeBytes) {
+      LOGGER.warn("Total size of the cached files: {} bytes exceeds the limit: {} bytes because the files are in use",
+          _totalSizeBytes, _maxSizeBytes);
+    }
+  }
+
+  /**
+   * Evicts the files not in use if the total size exceeds the limit. Should be called after the files are released.
+   */
+  public synchronized void cleanUp() {
+    evictIfNeeded();
+  }
+
+  public synchronized long getTotalSizeBytes() {
+    return _totalSizeBytes;
+  }
+
+  public synchronized int getNumCachedFiles() {
+    return _cachedFiles.size();
+  }
+
+  /**
+   * Cached range of a remote file, with the buffer loaded from it. The buffer is reference counted: the cache holds one
+   * reference until the file is evicted, and each {@link #acquire} holds one until {@link #release()} is called. The
+   * file is only evicted when the cache holds the last reference, and the buffer is closed on eviction.
+  public static final class CachedIndexFile {
+    private final File _file;
+    private final long _size;
+    private final PinotDataBuffer _buffer;
+    private final AtomicInteger _refCount = new AtomicInteger(1);
+
+    private CachedIndexFile(File file, long size, PinotDataBuffer buffer) {
+      _file = file;
+      _size = size;
+      _buffer = buffer;
+    }
+
+    public File getFile() {
+      return _file;
+    }
+
+    public PinotDataBuffer getBuffer() {
+      return _buffer;
+    }
+
+    private boolean retain() {
+      int refCount;
+      do {
+        refCount = _refCount.get();
+        if (refCount == 0) {
+          return false;
+        }
+      } while (!_refCount.compareAndSet(refCount, refCount + 1));
+      return true;
+    }
+
+    private void evict() {
+      release();
+      FileUtils.deleteQuietly(_file);
+    }
+
+    /**
+     * Releases the reference acquired by {@link RemoteIndexFileCache#acquire}. The buffer should no longer be used
+     * after the release.
+     */
+    public void release() {
+      if (_refCount.decrementAndGet() == 0) {
+        try {
+          _buffer.close();
+        } catch (IOException e) {
+          LOGGER.warn("Caught exception while closing buffer for cached file: {}", _file, e);
+        }
+      }
+    }
+  }
+}
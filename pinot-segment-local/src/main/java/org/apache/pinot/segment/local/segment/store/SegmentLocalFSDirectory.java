@@ -47,10 +47,8 @@ import static org.apache.pinot.segment.spi.creator.SegmentVersion.valueOf;
 public class SegmentLocalFSDirectory extends SegmentDirectory {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentLocalFSDirectory.class);
 
-  // matches most systems
-  private static final int PAGE_SIZE_BYTES = 4096;
   // Prefetch limit...arbitrary but related to common server memory and data size profiles
-  private static final long MAX_MMAP_PREFETCH_PAGES = 100 * 1024 * 1024 * 1024L / PAGE_SIZE_BYTES;
+  private static final long MAX_MMAP_PREFETCH_PAGES = 100 * 1024 * 1024 * 1024L / PinotDataBuffer.PAGE_SIZE_BYTES;
   private static final double PREFETCH_SLOWDOWN_PCT = 0.67;
   private static final AtomicLong prefetchedPages = new AtomicLong(0);
 
@@ -59,16 +57,32 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
   SegmentLock _segmentLock;
   private SegmentMetadataImpl _segmentMetadata;
   private final ReadMode _readMode;
+  private final boolean _accessPatternPrefetch;
 
   private ColumnIndexDirectory _columnIndexDirectory;
 
   public SegmentLocalFSDirectory(File directory, ReadMode readMode)
       throws IOException {
-    this(directory, new SegmentMetadataImpl(directory), readMode);
+    this(directory, readMode, false);
+  }
+
+  /**
+   * @param accessPatternPrefetch Whether to only prefetch the header page of the sequentially accessed buffers (forward
+   *                              index) in mmap mode, and leave the prefetch budget to the randomly accessed ones
+   */
+  public SegmentLocalFSDirectory(File directory, ReadMode readMode, boolean accessPatternPrefetch)
+      throws IOException {
+    this(directory, new SegmentMetadataImpl(directory), readMode, accessPatternPrefetch);
   }
 
   @VisibleForTesting
   public SegmentLocalFSDirectory(File directoryFile, SegmentMetadataImpl metadata, ReadMode readMode) {
+    this(directoryFile, metadata, readMode, false);
+  }
+
+  @VisibleForTesting
+  public SegmentLocalFSDirectory(File directoryFile, SegmentMetadataImpl metadata, ReadMode readMode,
+      boolean accessPatternPrefetch) {
 
     Preconditions.checkNotNull(directoryFile);
     Preconditions.checkNotNull(metadata);
@@ -80,6 +94,7 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
     _segmentLock = new SegmentLock();
     _segmentMetadata = metadata;
     _readMode = readMode;
+    _accessPatternPrefetch = accessPatternPrefetch;
     try {
       load();
     } catch (IOException | ConfigurationException e) {
@@ -244,12 +259,12 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
     buffer = _columnIndexDirectory.getBuffer(column, type);
 
     if (_readMode == ReadMode.mmap) {
-      prefetchMmapData(buffer);
+      prefetchMmapData(buffer, type.getAccessPattern());
     }
     return buffer;
   }
 
-  private void prefetchMmapData(PinotDataBuffer buffer) {
+  private void prefetchMmapData(PinotDataBuffer buffer, PinotDataBuffer.AccessPattern accessPattern) {
     // mmap mode causes high number of major page faults after server restart.
     // This impacts latency especially for prod "online" use cases that require low latency.
     // This function proactively loads pages in memory to lower the variance in
@@ -267,6 +282,9 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
     // information which will have bigger impact on the latency. This can go over the limit
     // because it doesn't stop at any point. But that's not an issue considering this is
     // an optimization.
+    // With access pattern prefetch enabled, sequentially accessed buffers (forward index) only get the header page
+    // prefetched because the OS read-ahead already hides most of the page faults for sequential scans, and spending
+    // the budget on them would leave the randomly accessed buffers (dictionary, inverted index etc.) cold.
 
     // Prefetch limit and slowdown percentage are arbitrary
     if (prefetchedPages.get() >= MAX_MMAP_PREFETCH_PAGES) {
@@ -274,22 +292,20 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
     }
 
     final long prefetchSlowdownPageLimit = (long) (PREFETCH_SLOWDOWN_PCT * MAX_MMAP_PREFETCH_PAGES);
-    if (prefetchedPages.get() >= prefetchSlowdownPageLimit) {
-      if (0 < buffer.size()) {
-        buffer.getByte(0);
-        prefetchedPages.incrementAndGet();
-      }
+    long numPagesAllowed = prefetchSlowdownPageLimit - prefetchedPages.get();
+    if (numPagesAllowed <= 0 || (_accessPatternPrefetch
+        && accessPattern == PinotDataBuffer.AccessPattern.SEQUENTIAL)) {
+      prefetchedPages.addAndGet(buffer.prefetch(0, PinotDataBuffer.PAGE_SIZE_BYTES));
     } else {
-      // pos needs to be long because buffer.size() is 32 bit but
-      // adding 4k can make it go over int size
-      for (long pos = 0; pos < buffer.size() && prefetchedPages.get() < prefetchSlowdownPageLimit;
-          pos += PAGE_SIZE_BYTES) {
-        buffer.getByte((int) pos);
-        prefetchedPages.incrementAndGet();
-      }
+      prefetchedPages.addAndGet(buffer.prefetch(0, numPagesAllowed * PinotDataBuffer.PAGE_SIZE_BYTES));
     }
   }
 
+  @VisibleForTesting
+  static long getNumPrefetchedPages() {
+    return prefetchedPages.get();
+  }
+
   /***************************  SegmentDirectory Reader *********************/
   public class Reader extends SegmentDirectory.Reader {
 
@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.store;
+
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pinot.segment.local.segment.store.RemoteIndexFileCache.CachedIndexFile;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.store.ColumnIndexType;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.segment.spi.store.SegmentDirectoryPaths;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Read-only segment directory for the tiered storage, where only the segment metadata (metadata.properties,
+ * creation.meta and index_map) is kept in the local index directory, and the index buffers are fetched on demand from
+ * the V3 index file of the segment in the remote store with range reads, through the {@link RemoteIndexFileCache}.
+ * <p>Each index buffer holds a reference of its {@link CachedIndexFile} until the indexes of the column are released
+ * via {@link Reader#releaseIndexesFor(String)} (e.g. lazy column loading after idle eviction) or the segment directory
+ * is closed, so that the cached file is never evicted while the readers are using the buffer. Lazy column loading
+ * should be used so that only the accessed columns are fetched and held.
+ * <p>The remote segment directory should contain the untarred V3 segment. Text index is not supported.
+ */
+public class TieredSegmentDirectory extends SegmentDirectory {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TieredSegmentDirectory.class);
+
+  private final File _indexDir;
+  private final File _segmentDirectory;
+  private final URI _remoteIndexFileUri;
+  private final RemoteIndexFileCache _cache;
+  private final ReadMode _readMode;
+  private final Map<IndexKey, IndexEntry> _columnEntries;
+  private final String _cacheKeyPrefix;
+  private final Map<IndexKey, CachedIndexFile> _cachedIndexFiles = new HashMap<>();
+
+  private SegmentMetadataImpl _segmentMetadata;
+
+  public TieredSegmentDirectory(File indexDir, URI remoteSegmentUri, RemoteIndexFileCache cache, ReadMode readMode)
+      throws Exception {
+    _indexDir = indexDir;
+    _segmentDirectory = SegmentDirectoryPaths.segmentDirectoryFor(indexDir, SegmentVersion.v3);
+    Preconditions.checkState(_segmentDirectory.isDirectory(), "Segment directory: %s does not exist",
+        _segmentDirectory);
+    _remoteIndexFileUri = URI.create(
+        StringUtils.removeEnd(remoteSegmentUri.toString(), "/") + "/" + SegmentDirectoryPaths.V3_SUBDIRECTORY_NAME
+            + "/" + V1Constants.INDEX_FILE_NAME);
+    _cache = cache;
+    _readMode = readMode;
+    _segmentMetadata = new SegmentMetadataImpl(indexDir);
+    _columnEntries = SingleFileIndexDirectory.loadIndexMap(_segmentDirectory);
+    // Include the CRC so that a refreshed segment with the same name does not read the stale cached files
+    _cacheKeyPrefix = indexDir.getParentFile().getName() + "/" + indexDir.getName() + "_" + _segmentMetadata.getCrc()
+        + "/";
+    LOGGER.info("Loaded tiered segment directory: {} with remote index file: {}", indexDir, _remoteIndexFileUri);
+  }
+
+  @Override
+  public URI getIndexDir() {
+    return _indexDir.toURI();
+  }
+
+  @Override
+  public SegmentMetadataImpl getSegmentMetadata() {
+    return _segmentMetadata;
+  }
+
+  @Override
+  public void reloadMetadata()
+      throws Exception {
+    _segmentMetadata = new SegmentMetadataImpl(_indexDir);
+  }
+
+  @Override
+  public Path getPath() {
+    return _segmentDirectory.toPath();
+  }
+
+  /**
+   * Returns the size of the index file in the remote store.
+   */
+  @Override
+  public long getDiskSizeBytes() {
+    long size = 0;
+    for (IndexEntry entry : _columnEntries.values()) {
+      size = Math.max(size, entry.startOffset + entry.size);
+    }
+    return size;
+  }
+
+  private synchronized PinotDataBuffer getBuffer(IndexKey key)
+      throws IOException {
+    IndexEntry entry = _columnEntries.get(key);
+    if (entry == null) {
+      throw new RuntimeException(
+          "Could not find index for column: " + key.name + ", type: " + key.type + ", segment: " + _indexDir);
+    }
+    if (entry.buffer == null) {
+      String cacheKey = _cacheKeyPrefix + key.name + "." + key.type.getIndexName();
+      CachedIndexFile cachedIndexFile =
+          _cache.acquire(cacheKey, _remoteIndexFileUri, entry.startOffset, entry.size, _readMode);
+      PinotDataBuffer buffer = cachedIndexFile.getBuffer();
+      if (buffer.getLong(0) != SingleFileIndexDirectory.MAGIC_MARKER) {
+        cachedIndexFile.release();
+        throw new RuntimeException(
+            "Missing magic marker for index: " + key + " fetched from remote index file: " + _remoteIndexFileUri);
+      }
+      _cachedIndexFiles.put(key, cachedIndexFile);
+      entry.buffer = buffer.view(SingleFileIndexDirectory.MAGIC_MARKER_SIZE_BYTES, entry.size);
+    }
+    return entry.buffer;
+  }
+
+  private synchronized void releaseBuffers(String column) {
+    boolean released = false;
+    Iterator<Map.Entry<IndexKey, CachedIndexFile>> iterator = _cachedIndexFiles.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<IndexKey, CachedIndexFile> entry = iterator.next();
+      IndexKey key = entry.getKey();
+      if (key.name.equals(column)) {
+        iterator.remove();
+        _columnEntries.get(key).buffer = null;
+        entry.getValue().release();
+        released = true;
+      }
+    }
+    if (released) {
+      _cache.cleanUp();
+    }
+  }
+
+  @Override
+  public synchronized void close()
+      throws IOException {
+    for (CachedIndexFile cachedIndexFile : _cachedIndexFiles.values()) {
+      cachedIndexFile.release();
+    }
+    _cachedIndexFiles.clear();
+    for (IndexEntry entry : _columnEntries.values()) {
+      entry.buffer = null;
+    }
+    _cache.cleanUp();
+  }
+
+  public class Reader extends SegmentDirectory.Reader {
+
+    @Override
+    public PinotDataBuffer getIndexFor(String column, ColumnIndexType type)
+        throws IOException {
+      return getBuffer(new IndexKey(column, type));
+    }
+
+    @Override
+    public void releaseIndexesFor(String column) {
+      releaseBuffers(column);
+    }
+
+    @Override
+    public boolean hasIndexFor(String column, ColumnIndexType type) {
+      return type != ColumnIndexType.TEXT_INDEX && _columnEntries.containsKey(new IndexKey(column, type));
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+      return TieredSegmentDirectory.this.toString();
+    }
+  }
+
+  @Override
+  public Reader createReader() {
+    return new Reader();
+  }
+
+  @Override
+  public Writer createWriter() {
+    throw new UnsupportedOperationException("Tiered segment directory is read-only: " + _indexDir);
+  }
+
+  @Override
+  public String toString() {
+    return _indexDir + " (remote: " + _remoteIndexFileUri + ")";
+  }
+}
@@ -36,6 +36,7 @@ import org.apache.pinot.common.utils.config.TagNameUtils;
 import org.apache.pinot.core.util.ReplicationUtils;
 import org.apache.pinot.segment.local.function.FunctionEvaluator;
 import org.apache.pinot.segment.local.function.FunctionEvaluatorFactory;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.apache.pinot.segment.spi.index.startree.AggregationFunctionColumnPair;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.config.table.IndexingConfig;
@@ -458,6 +459,11 @@ public final class TableConfigUtils {
         columnNameToConfigMap.put(columnName, "Var Length Column Config");
       }
     }
+    if (indexingConfig.getFrontCodedDictionaryColumns() != null) {
+      for (String columnName : indexingConfig.getFrontCodedDictionaryColumns()) {
+        columnNameToConfigMap.put(columnName, "Front Coded Dictionary Column Config");
+      }
+    }
     if (indexingConfig.getSegmentPartitionConfig() != null
         && indexingConfig.getSegmentPartitionConfig().getColumnPartitionMap() != null) {
       for (String columnName : indexingConfig.getSegmentPartitionConfig().getColumnPartitionMap().keySet()) {
@@ -523,6 +529,22 @@ public final class TableConfigUtils {
       }
     }
 
+    // Front-coded dictionary semantic validation
+    if (indexingConfig.getFrontCodedDictionaryColumns() != null) {
+      for (String frontCodedDictCol : indexingConfig.getFrontCodedDictionaryColumns()) {
+        FieldSpec frontCodedDictFieldSpec = schema.getFieldSpecFor(frontCodedDictCol);
+        switch (frontCodedDictFieldSpec.getDataType().getStoredType()) {
+          case STRING:
+          case BYTES:
+            continue;
+          default:
+            throw new IllegalStateException(
+                "front-coded dictionary can only be created for columns of type STRING and BYTES. Invalid for column "
+                    + frontCodedDictCol);
+        }
+      }
+    }
+
     // Var length dictionary semantic validation
     if (indexingConfig.getVarLengthDictionaryColumns() != null) {
       for (String varLenDictCol : indexingConfig.getVarLengthDictionaryColumns()) {
@@ -576,6 +598,16 @@ public final class TableConfigUtils {
           Preconditions.checkArgument(fieldConfig.getCompressionCodec() == null,
               "Set compression codec to null for dictionary encoding type");
           break;
+        case RAW:
+          if (fieldConfig.getCompressionCodec() != null && ChunkCompressionType
+              .valueOf(fieldConfig.getCompressionCodec().name()).isNumericEncoding()) {
+            DataType storedType = fieldConfigColSpec.getDataType().getStoredType();
+            Preconditions.checkState(
+                fieldConfigColSpec.isSingleValueField() && (storedType == DataType.INT || storedType == DataType.LONG),
+                "Compression codec: %s is only supported on single-value INT/LONG columns, got column: %s",
+                fieldConfig.getCompressionCodec(), columnName);
+          }
+          break;
       }
 
       switch (fieldConfig.getIndexType()) {
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.indexsegment.mutable;
+
+import java.util.Collections;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
+import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentConfig;
+import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentStatsHistory;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+
+/**
+ * Tests that the consuming segment only exposes the published documents to the queries when snapshot is enabled.
+ */
+public class MutableSegmentImplSnapshotTest {
+  private static final String SEGMENT_NAME = "testSegment__0__0__155555";
+  private static final String INT_COLUMN = "intColumn";
+  private static final String JSON_COLUMN = "jsonColumn";
+  private static final int SNAPSHOT_BATCH_SIZE = 10;
+  private static final int NUM_DOCS = 15;
+
+  private MutableSegmentImpl _mutableSegment;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().addSingleValueDimension(INT_COLUMN, DataType.INT)
+        .addSingleValueDimension(JSON_COLUMN, DataType.STRING).build();
+    RealtimeSegmentStatsHistory statsHistory = mock(RealtimeSegmentStatsHistory.class);
+    when(statsHistory.getEstimatedCardinality(anyString())).thenReturn(200);
+    when(statsHistory.getEstimatedAvgColSize(anyString())).thenReturn(32);
+    RealtimeSegmentConfig realtimeSegmentConfig =
+        new RealtimeSegmentConfig.Builder().setTableNameWithType("testTable_REALTIME").setSegmentName(SEGMENT_NAME)
+            .setStreamName("testStream").setSchema(schema).setCapacity(1000).setAvgNumMultiValues(2)
+            .setNoDictionaryColumns(Collections.emptySet()).setVarLengthDictionaryColumns(Collections.emptySet())
+            .setInvertedIndexColumns(Collections.singleton(INT_COLUMN))
+            .setJsonIndexColumns(Collections.singleton(JSON_COLUMN))
+            .setRealtimeSegmentZKMetadata(new RealtimeSegmentZKMetadata())
+            .setMemoryManager(new DirectMemoryManager(SEGMENT_NAME)).setStatsHistory(statsHistory)
+            .setSnapshotBatchSize(SNAPSHOT_BATCH_SIZE).build();
+    _mutableSegment = new MutableSegmentImpl(realtimeSegmentConfig, null);
+
+    // Ingestion publishes automatically after SNAPSHOT_BATCH_SIZE documents, and the remaining documents are not
+    // published yet
+    for (int i = 0; i < NUM_DOCS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(INT_COLUMN, 0);
+      row.putValue(JSON_COLUMN, "{\"key\":\"value\"}");
+      _mutableSegment.index(row, null);
+    }
+  }
+
+  @Test
+  public void testOnlyPublishedDocumentsVisible() {
+    assertEquals(_mutableSegment.getNumDocsIndexed(), NUM_DOCS);
+    assertEquals(_mutableSegment.getSegmentMetadata().getTotalDocs(), SNAPSHOT_BATCH_SIZE);
+
+    DataSource intDataSource = _mutableSegment.getDataSource(INT_COLUMN);
+    assertEquals(intDataSource.getDataSourceMetadata().getNumDocs(), SNAPSHOT_BATCH_SIZE);
+    ImmutableRoaringBitmap invertedIndexDocIds =
+        (ImmutableRoaringBitmap) intDataSource.getInvertedIndex().getDocIds(0);
+    assertEquals(invertedIndexDocIds.getCardinality(), SNAPSHOT_BATCH_SIZE);
+
+    // Json index is updated as the documents are indexed, but the results should be capped at the watermark
+    DataSource jsonDataSource = _mutableSegment.getDataSource(JSON_COLUMN);
+    MutableRoaringBitmap jsonIndexDocIds = jsonDataSource.getJsonIndex().getMatchingDocIds("\"key\" = 'value'");
+    assertEquals(jsonIndexDocIds.getCardinality(), SNAPSHOT_BATCH_SIZE);
+    assertEquals(jsonIndexDocIds.last(), SNAPSHOT_BATCH_SIZE - 1);
+    // Exclusive predicate should not match the unpublished documents either
+    jsonIndexDocIds = jsonDataSource.getJsonIndex().getMatchingDocIds("\"key\" != 'value'");
+    assertEquals(jsonIndexDocIds.getCardinality(), 0);
+
+    // Snapshot for a query should capture the watermark once
+    IndexSegment snapshot = _mutableSegment.getSnapshot();
+    DataSource snapshotIntDataSource = snapshot.getDataSource(INT_COLUMN);
+    assertSame(snapshot.getDataSource(INT_COLUMN), snapshotIntDataSource);
+
+    // After publishing, all the documents should be visible
+    _mutableSegment.publishSnapshot();
+    assertEquals(_mutableSegment.getSegmentMetadata().getTotalDocs(), NUM_DOCS);
+    intDataSource = _mutableSegment.getDataSource(INT_COLUMN);
+    invertedIndexDocIds = (ImmutableRoaringBitmap) intDataSource.getInvertedIndex().getDocIds(0);
+    assertEquals(invertedIndexDocIds.getCardinality(), NUM_DOCS);
+    jsonDataSource = _mutableSegment.getDataSource(JSON_COLUMN);
+    jsonIndexDocIds = jsonDataSource.getJsonIndex().getMatchingDocIds("\"key\" = 'value'");
+    assertEquals(jsonIndexDocIds.getCardinality(), NUM_DOCS);
+
+    // Snapshot taken before publishing should not be affected
+    assertEquals(snapshot.getSegmentMetadata().getTotalDocs(), SNAPSHOT_BATCH_SIZE);
+    assertEquals(snapshotIntDataSource.getDataSourceMetadata().getNumDocs(), SNAPSHOT_BATCH_SIZE);
+    invertedIndexDocIds = (ImmutableRoaringBitmap) snapshotIntDataSource.getInvertedIndex().getDocIds(0);
+    assertEquals(invertedIndexDocIds.getCardinality(), SNAPSHOT_BATCH_SIZE);
+    jsonDataSource = snapshot.getDataSource(JSON_COLUMN);
+    jsonIndexDocIds = jsonDataSource.getJsonIndex().getMatchingDocIds("\"key\" = 'value'");
+    assertEquals(jsonIndexDocIds.getCardinality(), SNAPSHOT_BATCH_SIZE);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _mutableSegment.destroy();
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.io.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.RandomStringUtils;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.utils.ByteArray;
+import org.apache.pinot.spi.utils.StringUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link FrontCodedValueReader} and {@link FrontCodedValueWriter}.
+ */
+public class FrontCodedValueReaderWriterTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "FrontCodedValueReaderWriterTest");
+  private static final int MAX_STRING_LENGTH = 200;
+  private static final int NUM_VALUES = 1000;
+  private static final Random RANDOM = new Random();
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @Test
+  public void testEmptyDictionary()
+      throws IOException {
+    File dictionaryFile = new File(TEMP_DIR, "empty");
+    FrontCodedValueWriter writer = new FrontCodedValueWriter(dictionaryFile, 0);
+    writer.close();
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(dictionaryFile)) {
+      assertTrue(FrontCodedValueReader.isFrontCodedValueBuffer(dataBuffer));
+      assertFalse(VarLengthValueReader.isVarLengthValueBuffer(dataBuffer));
+      try (FrontCodedValueReader reader = new FrontCodedValueReader(dataBuffer)) {
+        assertEquals(reader.getNumValues(), 0);
+        assertEquals(reader.binarySearch("a"), -1);
+      }
+    }
+  }
+
+  @Test
+  public void testSingleValueDictionary()
+      throws IOException {
+    File dictionaryFile = new File(TEMP_DIR, "single");
+    String value = RandomStringUtils.randomAlphanumeric(MAX_STRING_LENGTH);
+    byte[] valueBytes = StringUtils.encodeUtf8(value);
+    try (FrontCodedValueWriter writer = new FrontCodedValueWriter(dictionaryFile, 1)) {
+      writer.add(valueBytes);
+    }
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(dictionaryFile)) {
+      assertTrue(FrontCodedValueReader.isFrontCodedValueBuffer(dataBuffer));
+      try (FrontCodedValueReader reader = new FrontCodedValueReader(dataBuffer)) {
+        assertEquals(reader.getNumValues(), 1);
+        byte[] buffer = new byte[MAX_STRING_LENGTH];
+        assertEquals(reader.getUnpaddedString(0, MAX_STRING_LENGTH, (byte) 0, buffer), value);
+        assertEquals(reader.getBytes(0, MAX_STRING_LENGTH), valueBytes);
+        assertEquals(reader.binarySearch(value), 0);
+        assertEquals(reader.binarySearch(valueBytes), 0);
+        assertEquals(reader.binarySearch(""), -1);
+        assertEquals(reader.binarySearch(value + "a"), -2);
+      }
+    }
+  }
+
+  @Test
+  public void testMultiValueDictionary()
+      throws IOException {
+    for (int blockSize : new int[]{1, 3, FrontCodedValueWriter.DEFAULT_BLOCK_SIZE, NUM_VALUES}) {
+      testMultiValueDictionary(blockSize);
+    }
+  }
+
+  private void testMultiValueDictionary(int blockSize)
+      throws IOException {
+    // Generate values with shared prefixes, e.g. URLs
+    TreeSet<String> valueSet = new TreeSet<>();
+    while (valueSet.size() < NUM_VALUES) {
+      valueSet.add("http://www.example.com/" + RandomStringUtils.randomAlphanumeric(RANDOM.nextInt(3)) + "/"
+          + RandomStringUtils.randomAlphanumeric(RANDOM.nextInt(MAX_STRING_LENGTH)));
+    }
+    String[] values = valueSet.toArray(new String[0]);
+    byte[][] valueBytesArray = new byte[NUM_VALUES][];
+    int maxLength = 0;
+    long totalLength = 0;
+    for (int i = 0; i < NUM_VALUES; i++) {
+      valueBytesArray[i] = StringUtils.encodeUtf8(values[i]);
+      maxLength = Math.max(maxLength, valueBytesArray[i].length);
+      totalLength += valueBytesArray[i].length;
+    }
+
+    File dictionaryFile = new File(TEMP_DIR, "multi_" + blockSize);
+    try (FrontCodedValueWriter writer = new FrontCodedValueWriter(dictionaryFile, NUM_VALUES, blockSize)) {
+      for (byte[] valueBytes : valueBytesArray) {
+        writer.add(valueBytes);
+      }
+    }
+    if (blockSize > 1) {
+      // Should be smaller than the raw values because of the shared prefixes
+      assertTrue(dictionaryFile.length() < totalLength);
+    }
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(dictionaryFile)) {
+      assertTrue(FrontCodedValueReader.isFrontCodedValueBuffer(dataBuffer));
+      try (FrontCodedValueReader reader = new FrontCodedValueReader(dataBuffer)) {
+        assertEquals(reader.getNumValues(), NUM_VALUES);
+        byte[] buffer = new byte[maxLength];
+        for (int i = 0; i < NUM_VALUES; i++) {
+          assertEquals(reader.getUnpaddedString(i, maxLength, (byte) 0, buffer), values[i]);
+          assertEquals(reader.getBytes(i, maxLength), valueBytesArray[i]);
+          assertEquals(reader.binarySearch(values[i]), i);
+          assertEquals(reader.binarySearch(valueBytesArray[i]), i);
+
+          // Values not in the dictionary
+          String valueNotExists = values[i] + '\0';
+          assertEquals(reader.binarySearch(valueNotExists), Arrays.binarySearch(values, valueNotExists));
+          byte[] valueBytesNotExists = StringUtils.encodeUtf8(valueNotExists);
+          assertEquals(reader.binarySearch(valueBytesNotExists),
+              Arrays.binarySearch(valueBytesArray, valueBytesNotExists, ByteArray::compare));
+        }
+        assertEquals(reader.binarySearch(""), -1);
+        assertEquals(reader.binarySearch("~"), -(NUM_VALUES + 1));
+      }
+    }
+  }
+}
@@ -18,11 +18,14 @@
  */
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
-import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 
@@ -34,7 +37,7 @@ public class RealtimeInvertedIndexReaderTest {
 
     // Add dictionary id 0, document id 0 to the inverted index (single-value dictionary id not added yet)
     // Before adding
-    MutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(0);
+    ImmutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(0);
     assertNotNull(docIds);
     assertTrue(docIds.isEmpty());
     // After adding
@@ -103,4 +106,97 @@ public class RealtimeInvertedIndexReaderTest {
     assertFalse(docIds.contains(1));
     assertTrue(docIds.contains(2));
   }
+
+  @Test
+  public void testSnapshotRealtimeInvertedIndexReader() {
+    RealtimeInvertedIndexReader realtimeInvertedIndexReader = new RealtimeInvertedIndexReader(true);
+
+    // Document ids added are not visible before publishing
+    realtimeInvertedIndexReader.add(0, 0);
+    realtimeInvertedIndexReader.add(1, 1);
+    ImmutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(0);
+    assertNotNull(docIds);
+    assertTrue(docIds.isEmpty());
+
+    // After publishing
+    realtimeInvertedIndexReader.publish(2);
+    ImmutableRoaringBitmap docIds0 = realtimeInvertedIndexReader.getDocIds(0);
+    assertTrue(docIds0.contains(0));
+    assertFalse(docIds0.contains(1));
+    ImmutableRoaringBitmap docIds1 = realtimeInvertedIndexReader.getDocIds(1);
+    assertFalse(docIds1.contains(0));
+    assertTrue(docIds1.contains(1));
+    assertTrue(realtimeInvertedIndexReader.getDocIds(2).isEmpty());
+
+    // Published bitmaps should not be affected by the later changes
+    realtimeInvertedIndexReader.add(0, 2);
+    realtimeInvertedIndexReader.add(2, 3);
+    assertFalse(realtimeInvertedIndexReader.getDocIds(0).contains(2));
+    assertTrue(realtimeInvertedIndexReader.getDocIds(2).isEmpty());
+    InvertedIndexReader<ImmutableRoaringBitmap> snapshot = realtimeInvertedIndexReader.getSnapshot(2);
+    realtimeInvertedIndexReader.publish(4);
+    assertFalse(docIds0.contains(2));
+    docIds = realtimeInvertedIndexReader.getDocIds(0);
+    assertTrue(docIds.contains(0));
+    assertTrue(docIds.contains(2));
+    // Unmodified bitmap should be the same instance
+    assertSame(realtimeInvertedIndexReader.getDocIds(1), docIds1);
+    assertTrue(realtimeInvertedIndexReader.getDocIds(2).contains(3));
+
+    // Snapshot should not be affected by the later publish
+    assertFalse(snapshot.getDocIds(0).contains(2));
+    assertSame(snapshot.getDocIds(1), docIds1);
+    assertTrue(snapshot.getDocIds(2).isEmpty());
+
+    // Snapshot published after the watermark is captured should be capped at the watermark
+    realtimeInvertedIndexReader.add(0, 4);
+    realtimeInvertedIndexReader.publish(5);
+    snapshot = realtimeInvertedIndexReader.getSnapshot(3);
+    docIds = snapshot.getDocIds(0);
+    assertEquals(docIds.getCardinality(), 2);
+    assertTrue(docIds.contains(0));
+    assertTrue(docIds.contains(2));
+    assertTrue(snapshot.getDocIds(2).isEmpty());
+  }
+
+  @Test
+  public void testSnapshotRealtimeInvertedIndexReaderIncrementalPublish() {
+    RealtimeInvertedIndexReader realtimeInvertedIndexReader = new RealtimeInvertedIndexReader(true);
+    int numDictIds = 3;
+    int numDocs = 1000;
+    ImmutableRoaringBitmap[] previousDocIds = new ImmutableRoaringBitmap[numDictIds];
+    int[] previousCardinalities = new int[numDictIds];
+    for (int docId = 0; docId < numDocs; docId++) {
+      int dictId = docId % numDictIds;
+      realtimeInvertedIndexReader.add(dictId, docId);
+      // Publish with varying batch sizes
+      if (docId % 7 == 0 || docId % 11 == 0) {
+        realtimeInvertedIndexReader.publish(docId + 1);
+        for (int i = 0; i < numDictIds; i++) {
+          ImmutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(i);
+          // All the published document ids should be visible, and nothing else
+          int expectedCardinality = i <= docId ? (docId - i) / numDictIds + 1 : 0;
+          assertEquals(docIds.getCardinality(), expectedCardinality);
+          if (expectedCardinality > 0) {
+            assertEquals(docIds.first(), i);
+            assertEquals(docIds.last(), i + (expectedCardinality - 1) * numDictIds);
+          }
+          // Previously returned bitmaps should not be affected by the publish
+          if (previousDocIds[i] != null) {
+            assertEquals(previousDocIds[i].getCardinality(), previousCardinalities[i]);
+            assertEquals(ImmutableRoaringBitmap.andCardinality(previousDocIds[i], docIds), previousCardinalities[i]);
+          }
+          previousDocIds[i] = docIds;
+          previousCardinalities[i] = expectedCardinality;
+        }
+      }
+    }
+    realtimeInvertedIndexReader.publish(numDocs);
+    for (int i = 0; i < numDictIds; i++) {
+      ImmutableRoaringBitmap docIds = realtimeInvertedIndexReader.getDocIds(i);
+      for (int docId = 0; docId < numDocs; docId++) {
+        assertEquals(docIds.contains(docId), docId % numDictIds == i);
+      }
+    }
+  }
 }
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.invertedindex;
+
+import java.io.File;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class RealtimeLuceneTextIndexReaderTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RealtimeLuceneTextIndexReaderTest");
+  private static final String SEGMENT_NAME = "testSegment";
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @Test
+  public void testRefresh()
+      throws Exception {
+    RealtimeLuceneTextIndexReader textIndex =
+        new RealtimeLuceneTextIndexReader("column", TEMP_DIR, SEGMENT_NAME, true, 16);
+    try {
+      long now = System.currentTimeMillis();
+      // Nothing to refresh before any document is added
+      assertEquals(textIndex.getRefreshPriority(now), -1);
+      assertEquals(textIndex.refresh(), 0);
+
+      textIndex.add("realtime text search");
+      textIndex.add("offline text search");
+      // Documents are not searchable before refresh
+      assertTrue(textIndex.getDocIds("text").isEmpty());
+      long priority = textIndex.getRefreshPriority(now + 1000);
+      assertTrue(priority > 0);
+      // Query demand should increase the priority
+      textIndex.getDocIds("search");
+      assertTrue(textIndex.getRefreshPriority(now + 1000) > priority);
+
+      assertTrue(textIndex.refresh() > 0);
+      assertEquals(textIndex.getRefreshPriority(now + 1000), -1);
+      assertEquals(textIndex.getDocIds("text").getCardinality(), 2);
+      assertEquals(textIndex.getDocIds("realtime").getCardinality(), 1);
+      assertTrue(textIndex.getDocIds("realtime").contains(0));
+
+      textIndex.add("more realtime text");
+      assertTrue(textIndex.getRefreshPriority(System.currentTimeMillis()) > 0);
+      textIndex.setRAMBufferSizeMB(8);
+      assertTrue(textIndex.refresh() > 0);
+      assertEquals(textIndex.getDocIds("realtime").getCardinality(), 2);
+    } finally {
+      textIndex.close();
+    }
+  }
+
+  @Test
+  public void testRamBufferRebalance()
+      throws Exception {
+    RealtimeLuceneIndexRefreshState refreshState = RealtimeLuceneIndexRefreshState.getInstance();
+    refreshState.init(true, 10, 1, null);
+    RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders readers1 =
+        new RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders("segment1");
+    RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders readers2 =
+        new RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders("segment2");
+    RealtimeLuceneTextIndexReader textIndex1 =
+        new RealtimeLuceneTextIndexReader("column1", TEMP_DIR, "segment1", true, 10);
+    RealtimeLuceneTextIndexReader textIndex2 =
+        new RealtimeLuceneTextIndexReader("column2", TEMP_DIR, "segment1", true, 10);
+    RealtimeLuceneTextIndexReader textIndex3 =
+        new RealtimeLuceneTextIndexReader("column1", TEMP_DIR, "segment2", true, 10);
+    try {
+      readers1.addReader(textIndex1);
+      readers1.addReader(textIndex2);
+      refreshState.addRealtimeReadersToQueue(readers1);
+      assertEquals(refreshState.getRamBufferSizeMBPerWriter(), 5.0);
+
+      // The per writer RAM buffer should not go below the minimum size even if it exceeds the budget
+      readers2.addReader(textIndex3);
+      refreshState.addRealtimeReadersToQueue(readers2);
+      assertEquals(refreshState.getRamBufferSizeMBPerWriter(), 4.0);
+
+      refreshState.removeRealtimeReadersFromQueue(readers1);
+      assertEquals(refreshState.getRamBufferSizeMBPerWriter(), 10.0);
+      refreshState.removeRealtimeReadersFromQueue(readers2);
+    } finally {
+      textIndex1.close();
+      textIndex2.close();
+      textIndex3.close();
+      refreshState.init(false, CommonConstants.Server.DEFAULT_REALTIME_TEXT_INDEX_RAM_BUFFER_BUDGET_MB, 1, null);
+    }
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
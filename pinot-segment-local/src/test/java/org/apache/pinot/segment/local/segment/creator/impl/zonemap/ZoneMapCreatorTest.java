@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.creator.impl.zonemap;
+
+import java.io.File;
+import java.io.IOException;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.index.readers.ZoneMapReaderImpl;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class ZoneMapCreatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "ZoneMapCreatorTest");
+  private static final int NUM_DOCS = 250;
+  private static final int NUM_DOCS_PER_PAGE = 100;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    TEMP_DIR.mkdir();
+  }
+
+  @Test
+  public void testIntZoneMap()
+      throws IOException {
+    String column = "intColumn";
+    try (ZoneMapCreator creator = new ZoneMapCreator(TEMP_DIR, column, DataType.INT, NUM_DOCS, NUM_DOCS_PER_PAGE)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        creator.add(NUM_DOCS - i);
+        // Last doc of each page is null
+        if (i % NUM_DOCS_PER_PAGE == NUM_DOCS_PER_PAGE - 1) {
+          creator.setNull();
+        }
+      }
+      creator.seal();
+    }
+
+    File zoneMapFile = new File(TEMP_DIR, column + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+    try (PinotDataBuffer buffer = PinotDataBuffer.loadBigEndianFile(zoneMapFile);
+        ZoneMapReaderImpl reader = new ZoneMapReaderImpl(buffer)) {
+      Assert.assertEquals(reader.getValueType(), DataType.INT);
+      Assert.assertEquals(reader.getNumDocsPerPage(), NUM_DOCS_PER_PAGE);
+      Assert.assertEquals(reader.getNumPages(), 3);
+      for (int pageId = 0; pageId < 3; pageId++) {
+        int startDocId = pageId * NUM_DOCS_PER_PAGE;
+        int endDocId = Math.min(startDocId + NUM_DOCS_PER_PAGE, NUM_DOCS);
+        Assert.assertEquals(reader.getMinLong(pageId), NUM_DOCS - (endDocId - 1));
+        Assert.assertEquals(reader.getMaxLong(pageId), NUM_DOCS - startDocId);
+        // The last page is partial and does not contain a null
+        Assert.assertEquals(reader.getNullCount(pageId), pageId < 2 ? 1 : 0);
+      }
+    }
+  }
+
+  @Test
+  public void testDoubleZoneMap()
+      throws IOException {
+    String column = "doubleColumn";
+    try (ZoneMapCreator creator = new ZoneMapCreator(TEMP_DIR, column, DataType.DOUBLE, NUM_DOCS, NUM_DOCS_PER_PAGE)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        creator.add(i * 0.5);
+      }
+      creator.seal();
+    }
+
+    File zoneMapFile = new File(TEMP_DIR, column + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+    try (PinotDataBuffer buffer = PinotDataBuffer.loadBigEndianFile(zoneMapFile);
+        ZoneMapReaderImpl reader = new ZoneMapReaderImpl(buffer)) {
+      Assert.assertEquals(reader.getValueType(), DataType.DOUBLE);
+      Assert.assertEquals(reader.getNumPages(), 3);
+      for (int pageId = 0; pageId < 3; pageId++) {
+        int startDocId = pageId * NUM_DOCS_PER_PAGE;
+        int endDocId = Math.min(startDocId + NUM_DOCS_PER_PAGE, NUM_DOCS);
+        Assert.assertEquals(reader.getMinDouble(pageId), startDocId * 0.5);
+        Assert.assertEquals(reader.getMaxDouble(pageId), (endDocId - 1) * 0.5);
+        Assert.assertEquals(reader.getNullCount(pageId), 0);
+      }
+    }
+  }
+
+  @Test(expectedExceptions = IllegalArgumentException.class)
+  public void testUnsupportedValueType() {
+    new ZoneMapCreator(TEMP_DIR, "stringColumn", DataType.STRING, NUM_DOCS);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
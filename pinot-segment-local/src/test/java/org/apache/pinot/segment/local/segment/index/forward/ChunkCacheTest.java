@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.forward;
+
+import java.io.File;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.writer.impl.BaseChunkSVForwardIndexWriter;
+import org.apache.pinot.segment.local.io.writer.impl.VarByteChunkSVForwardIndexWriter;
+import org.apache.pinot.segment.local.segment.index.readers.forward.BaseChunkSVForwardIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.forward.ChunkBufferPool;
+import org.apache.pinot.segment.local.segment.index.readers.forward.ChunkCache;
+import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkSVForwardIndexReader;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link ChunkCache} and {@link ChunkBufferPool} with the chunk-based forward index readers.
+ */
+public class ChunkCacheTest {
+  private static final File INDEX_FILE = new File(FileUtils.getTempDirectory(), "ChunkCacheTest");
+  private static final int NUM_VALUES = 1000;
+  private static final int NUM_DOCS_PER_CHUNK = 100;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_FILE);
+    try (VarByteChunkSVForwardIndexWriter writer = new VarByteChunkSVForwardIndexWriter(INDEX_FILE,
+        ChunkCompressionType.ZSTANDARD, NUM_VALUES, NUM_DOCS_PER_CHUNK, 10,
+        BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+      for (int i = 0; i < NUM_VALUES; i++) {
+        writer.putString("value_" + i);
+      }
+    }
+    ChunkCache.getInstance().init(1024 * 1024);
+    ChunkBufferPool.getInstance().init(1024 * 1024);
+  }
+
+  @Test
+  public void testSharedChunks()
+      throws Exception {
+    ChunkCache chunkCache = ChunkCache.getInstance();
+    long hitCount = chunkCache.getHitCount();
+    long missCount = chunkCache.getMissCount();
+    long pooledBytes;
+    try (VarByteChunkSVForwardIndexReader reader = new VarByteChunkSVForwardIndexReader(
+        PinotDataBuffer.mapReadOnlyBigEndianFile(INDEX_FILE), DataType.STRING)) {
+      // The first context decompresses all the chunks, the following ones read the cached chunks
+      for (int i = 0; i < 3; i++) {
+        try (BaseChunkSVForwardIndexReader.ChunkReaderContext context = reader.createContext()) {
+          for (int docId = 0; docId < NUM_VALUES; docId++) {
+            assertEquals(reader.getString(docId, context), "value_" + docId);
+          }
+        }
+      }
+      int numChunks = NUM_VALUES / NUM_DOCS_PER_CHUNK;
+      assertEquals(chunkCache.getMissCount() - missCount, numChunks);
+      assertEquals(chunkCache.getHitCount() - hitCount, 2 * numChunks);
+      assertTrue(chunkCache.getSizeBytes() > 0);
+
+      // The decompression buffer should be returned to the pool
+      pooledBytes = ChunkBufferPool.getInstance().getPooledBytes();
+      assertTrue(pooledBytes > 0);
+    }
+
+    // Closing the reader should remove its chunks from the cache, and return their buffers to the pool
+    assertEquals(chunkCache.getSizeBytes(), 0);
+    assertTrue(ChunkBufferPool.getInstance().getPooledBytes() > pooledBytes);
+  }
+
+  @Test
+  public void testInvalidateReader()
+      throws Exception {
+    ChunkCache chunkCache = ChunkCache.getInstance();
+    long initialSizeBytes = chunkCache.getSizeBytes();
+    try (VarByteChunkSVForwardIndexReader reader1 = new VarByteChunkSVForwardIndexReader(
+        PinotDataBuffer.mapReadOnlyBigEndianFile(INDEX_FILE), DataType.STRING);
+        VarByteChunkSVForwardIndexReader reader2 = new VarByteChunkSVForwardIndexReader(
+            PinotDataBuffer.mapReadOnlyBigEndianFile(INDEX_FILE), DataType.STRING)) {
+      try (BaseChunkSVForwardIndexReader.ChunkReaderContext context = reader1.createContext()) {
+        for (int docId = 0; docId < NUM_VALUES; docId++) {
+          assertEquals(reader1.getString(docId, context), "value_" + docId);
+        }
+      }
+      long reader1SizeBytes = chunkCache.getSizeBytes() - initialSizeBytes;
+      assertTrue(reader1SizeBytes > 0);
+
+      BaseChunkSVForwardIndexReader.ChunkReaderContext context2 = reader2.createContext();
+      for (int docId = 0; docId < NUM_VALUES; docId++) {
+        assertEquals(reader2.getString(docId, context2), "value_" + docId);
+      }
+      context2.close();
+      assertEquals(chunkCache.getSizeBytes() - initialSizeBytes, 2 * reader1SizeBytes);
+
+      // Read the first chunk of reader2 from the cache, and keep it in the context
+      context2 = reader2.createContext();
+      assertEquals(reader2.getString(0, context2), "value_0");
+
+      // Closing reader1 should only remove its own chunks
+      reader1.close();
+      assertEquals(chunkCache.getSizeBytes() - initialSizeBytes, reader1SizeBytes);
+
+      // Evict all the chunks, the chunk held by the context should still be readable
+      chunkCache.init(1024 * 1024);
+      assertEquals(chunkCache.getSizeBytes(), 0);
+      assertEquals(reader2.getString(1, context2), "value_1");
+      context2.close();
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    ChunkCache.getInstance().init(0);
+    ChunkBufferPool.getInstance().init(0);
+    FileUtils.deleteQuietly(INDEX_FILE);
+  }
+}
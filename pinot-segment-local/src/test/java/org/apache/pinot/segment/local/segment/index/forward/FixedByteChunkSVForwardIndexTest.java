@@ -79,6 +79,119 @@ public class FixedByteChunkSVForwardIndexTest {
     testDouble(compressionType);
   }
 
+  @Test
+  public void testWithLZ4Compression()
+      throws Exception {
+    ChunkCompressionType compressionType = ChunkCompressionType.LZ4;
+    testInt(compressionType);
+    testLong(compressionType);
+    testFloat(compressionType);
+    testDouble(compressionType);
+  }
+
+  @Test
+  public void testWithNumericEncodings()
+      throws Exception {
+    for (ChunkCompressionType compressionType : new ChunkCompressionType[]{
+        ChunkCompressionType.DELTA, ChunkCompressionType.DELTA_DELTA, ChunkCompressionType.FRAME_OF_REFERENCE
+    }) {
+      testInt(compressionType);
+      testLong(compressionType);
+    }
+  }
+
+  @Test
+  public void testNumericEncodingsOnTimestamps()
+      throws Exception {
+    long[] expected = new long[NUM_VALUES];
+    long timestamp = System.currentTimeMillis();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      // Mostly regular intervals with some jitter
+      timestamp += 1000 + (i % 10 == 0 ? RANDOM.nextInt(10) : 0);
+      expected[i] = timestamp;
+    }
+
+    File outFile = new File(TEST_FILE);
+    long passThroughSize = 0;
+    for (ChunkCompressionType compressionType : new ChunkCompressionType[]{
+        ChunkCompressionType.PASS_THROUGH, ChunkCompressionType.DELTA, ChunkCompressionType.DELTA_DELTA,
+        ChunkCompressionType.FRAME_OF_REFERENCE
+    }) {
+      FileUtils.deleteQuietly(outFile);
+      try (FixedByteChunkSVForwardIndexWriter writer = new FixedByteChunkSVForwardIndexWriter(outFile,
+          compressionType, NUM_VALUES, NUM_DOCS_PER_CHUNK, Long.BYTES,
+          BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+        for (long value : expected) {
+          writer.putLong(value);
+        }
+      }
+      if (compressionType == ChunkCompressionType.PASS_THROUGH) {
+        passThroughSize = outFile.length();
+      } else {
+        Assert.assertTrue(outFile.length() < passThroughSize / 2);
+      }
+
+      try (FixedByteChunkSVForwardIndexReader reader = new FixedByteChunkSVForwardIndexReader(
+          PinotDataBuffer.mapReadOnlyBigEndianFile(outFile), DataType.LONG);
+          BaseChunkSVForwardIndexReader.ChunkReaderContext readerContext = reader.createContext()) {
+        for (int i = 0; i < NUM_VALUES; i++) {
+          Assert.assertEquals(reader.getLong(i, readerContext), expected[i]);
+        }
+      }
+    }
+    FileUtils.deleteQuietly(outFile);
+  }
+
+  @Test
+  public void testReadValuesSV()
+      throws Exception {
+    long[] expected = new long[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      expected[i] = RANDOM.nextLong();
+    }
+
+    File outFile = new File(TEST_FILE);
+    for (ChunkCompressionType compressionType : new ChunkCompressionType[]{
+        ChunkCompressionType.PASS_THROUGH, ChunkCompressionType.SNAPPY
+    }) {
+      FileUtils.deleteQuietly(outFile);
+      try (FixedByteChunkSVForwardIndexWriter writer = new FixedByteChunkSVForwardIndexWriter(outFile,
+          compressionType, NUM_VALUES, NUM_DOCS_PER_CHUNK, Long.BYTES,
+          BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+        for (long value : expected) {
+          writer.putLong(value);
+        }
+      }
+
+      try (FixedByteChunkSVForwardIndexReader reader = new FixedByteChunkSVForwardIndexReader(
+          PinotDataBuffer.mapReadOnlyBigEndianFile(outFile), DataType.LONG);
+          BaseChunkSVForwardIndexReader.ChunkReaderContext readerContext = reader.createContext()) {
+        // Contiguous doc ids across the chunk boundary
+        int length = 1000;
+        int[] docIds = new int[length];
+        int startDocId = NUM_DOCS_PER_CHUNK - length / 2;
+        for (int i = 0; i < length; i++) {
+          docIds[i] = startDocId + i;
+        }
+        long[] values = new long[length];
+        reader.readValuesSV(docIds, length, values, readerContext);
+        for (int i = 0; i < length; i++) {
+          Assert.assertEquals(values[i], expected[docIds[i]]);
+        }
+
+        // Non-contiguous doc ids
+        for (int i = 0; i < length; i++) {
+          docIds[i] = i * 10;
+        }
+        reader.readValuesSV(docIds, length, values, readerContext);
+        for (int i = 0; i < length; i++) {
+          Assert.assertEquals(values[i], expected[docIds[i]]);
+        }
+      }
+    }
+    FileUtils.deleteQuietly(outFile);
+  }
+
   public void testInt(ChunkCompressionType compressionType)
       throws Exception {
     int[] expected = new int[NUM_VALUES];
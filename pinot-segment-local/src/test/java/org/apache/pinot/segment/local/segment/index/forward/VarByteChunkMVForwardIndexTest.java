@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.forward;
+
+import java.io.File;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.RandomStringUtils;
+import org.apache.pinot.segment.local.io.writer.impl.BaseChunkSVForwardIndexWriter;
+import org.apache.pinot.segment.local.segment.creator.impl.fwd.MultiValueVarByteRawIndexCreator;
+import org.apache.pinot.segment.local.segment.index.readers.forward.BaseChunkSVForwardIndexReader;
+import org.apache.pinot.segment.local.segment.index.readers.forward.VarByteChunkMVForwardIndexReader;
+import org.apache.pinot.segment.spi.V1Constants;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Unit test for {@link MultiValueVarByteRawIndexCreator} and {@link VarByteChunkMVForwardIndexReader} classes.
+ */
+public class VarByteChunkMVForwardIndexTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "VarByteChunkMVForwardIndexTest");
+  private static final String COLUMN_NAME = "testColumn";
+  private static final int NUM_DOCS = 5003;
+  private static final int MAX_NUM_VALUES_PER_ENTRY = 20;
+  private static final int MAX_STRING_LENGTH = 51;
+  private static final Random RANDOM = new Random();
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.forceMkdir(TEMP_DIR);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+
+  @Test
+  public void testInt()
+      throws Exception {
+    for (ChunkCompressionType compressionType : ChunkCompressionType.values()) {
+      if (compressionType.isNumericEncoding()) {
+        continue;
+      }
+      int[][] expected = new int[NUM_DOCS][];
+      try (MultiValueVarByteRawIndexCreator creator = new MultiValueVarByteRawIndexCreator(TEMP_DIR, compressionType,
+          COLUMN_NAME, NUM_DOCS, DataType.INT, MAX_NUM_VALUES_PER_ENTRY, 0,
+          BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+        for (int i = 0; i < NUM_DOCS; i++) {
+          int[] values = new int[RANDOM.nextInt(MAX_NUM_VALUES_PER_ENTRY + 1)];
+          for (int j = 0; j < values.length; j++) {
+            values[j] = RANDOM.nextInt();
+          }
+          expected[i] = values;
+          creator.putIntMV(values);
+        }
+      }
+
+      int[] intBuffer = new int[MAX_NUM_VALUES_PER_ENTRY];
+      long[] longBuffer = new long[MAX_NUM_VALUES_PER_ENTRY];
+      try (VarByteChunkMVForwardIndexReader reader = new VarByteChunkMVForwardIndexReader(
+          PinotDataBuffer.mapReadOnlyBigEndianFile(getIndexFile()), DataType.INT);
+          BaseChunkSVForwardIndexReader.ChunkReaderContext readerContext = reader.createContext()) {
+        Assert.assertFalse(reader.isDictionaryEncoded());
+        Assert.assertFalse(reader.isSingleValue());
+        for (int i = 0; i < NUM_DOCS; i++) {
+          int numValues = expected[i].length;
+          Assert.assertEquals(reader.getNumValuesMV(i, readerContext), numValues);
+          Assert.assertEquals(reader.getIntMV(i, intBuffer, readerContext), numValues);
+          Assert.assertEquals(reader.getLongMV(i, longBuffer, readerContext), numValues);
+          for (int j = 0; j < numValues; j++) {
+            Assert.assertEquals(intBuffer[j], expected[i][j]);
+            Assert.assertEquals(longBuffer[j], expected[i][j]);
+          }
+        }
+      }
+      FileUtils.deleteQuietly(getIndexFile());
+    }
+  }
+
+  @Test
+  public void testDouble()
+      throws Exception {
+    for (ChunkCompressionType compressionType : ChunkCompressionType.values()) {
+      if (compressionType.isNumericEncoding()) {
+        continue;
+      }
+      double[][] expected = new double[NUM_DOCS][];
+      try (MultiValueVarByteRawIndexCreator creator = new MultiValueVarByteRawIndexCreator(TEMP_DIR, compressionType,
+          COLUMN_NAME, NUM_DOCS, DataType.DOUBLE, MAX_NUM_VALUES_PER_ENTRY, 0,
+          BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+        for (int i = 0; i < NUM_DOCS; i++) {
+          double[] values = new double[RANDOM.nextInt(MAX_NUM_VALUES_PER_ENTRY + 1)];
+          for (int j = 0; j < values.length; j++) {
+            values[j] = RANDOM.nextDouble();
+          }
+          expected[i] = values;
+          creator.putDoubleMV(values);
+        }
+      }
+
+      double[] buffer = new double[MAX_NUM_VALUES_PER_ENTRY];
+      try (VarByteChunkMVForwardIndexReader reader = new VarByteChunkMVForwardIndexReader(
+          PinotDataBuffer.mapReadOnlyBigEndianFile(getIndexFile()), DataType.DOUBLE);
+          BaseChunkSVForwardIndexReader.ChunkReaderContext readerContext = reader.createContext()) {
+        for (int i = 0; i < NUM_DOCS; i++) {
+          int numValues = reader.getDoubleMV(i, buffer, readerContext);
+          Assert.assertEquals(numValues, expected[i].length);
+          for (int j = 0; j < numValues; j++) {
+            Assert.assertEquals(buffer[j], expected[i][j]);
+          }
+        }
+      }
+      FileUtils.deleteQuietly(getIndexFile());
+    }
+  }
+
+  @Test
+  public void testString()
+      throws Exception {
+    for (ChunkCompressionType compressionType : ChunkCompressionType.values()) {
+      if (compressionType.isNumericEncoding()) {
+        continue;
+      }
+      String[][] expected = new String[NUM_DOCS][];
+      int maxLength = 0;
+      for (int i = 0; i < NUM_DOCS; i++) {
+        String[] values = new String[RANDOM.nextInt(MAX_NUM_VALUES_PER_ENTRY + 1)];
+        for (int j = 0; j < values.length; j++) {
+          values[j] = RandomStringUtils.randomAlphanumeric(RANDOM.nextInt(MAX_STRING_LENGTH));
+          maxLength = Math.max(maxLength, values[j].length());
+        }
+        expected[i] = values;
+      }
+      try (MultiValueVarByteRawIndexCreator creator = new MultiValueVarByteRawIndexCreator(TEMP_DIR, compressionType,
+          COLUMN_NAME, NUM_DOCS, DataType.STRING, MAX_NUM_VALUES_PER_ENTRY, maxLength,
+          BaseChunkSVForwardIndexWriter.CURRENT_VERSION)) {
+        for (int i = 0; i < NUM_DOCS; i++) {
+          creator.putStringMV(expected[i]);
+        }
+      }
+
+      String[] buffer = new String[MAX_NUM_VALUES_PER_ENTRY];
+      try (VarByteChunkMVForwardIndexReader reader = new VarByteChunkMVForwardIndexReader(
+          PinotDataBuffer.mapReadOnlyBigEndianFile(getIndexFile()), DataType.STRING);
+          BaseChunkSVForwardIndexReader.ChunkReaderContext readerContext = reader.createContext()) {
+        for (int i = 0; i < NUM_DOCS; i++) {
+          int numValues = reader.getStringMV(i, buffer, readerContext);
+          Assert.assertEquals(numValues, expected[i].length);
+          for (int j = 0; j < numValues; j++) {
+            Assert.assertEquals(buffer[j], expected[i][j]);
+          }
+        }
+      }
+      FileUtils.deleteQuietly(getIndexFile());
+    }
+  }
+
+  private static File getIndexFile() {
+    return new File(TEMP_DIR, COLUMN_NAME + V1Constants.Indexes.RAW_MV_FORWARD_INDEX_FILE_EXTENSION);
+  }
+}
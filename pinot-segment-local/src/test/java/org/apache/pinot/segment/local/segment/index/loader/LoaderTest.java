@@ -27,10 +27,12 @@ import java.util.List;
 import java.util.Map;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.common.utils.TarGzCompressionUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
 import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.segment.local.loader.LocalSegmentDirectoryLoader;
 import org.apache.pinot.segment.local.segment.creator.SegmentTestUtils;
 import org.apache.pinot.segment.local.segment.creator.impl.SegmentCreationDriverFactory;
+import org.apache.pinot.segment.local.segment.index.column.LazyColumnIndexContainer;
 import org.apache.pinot.segment.local.segment.index.converter.SegmentV1V2ToV3FormatConverter;
 import org.apache.pinot.segment.local.segment.index.readers.StringDictionary;
 import org.apache.pinot.segment.spi.IndexSegment;
@@ -38,6 +40,7 @@ import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
 import org.apache.pinot.segment.spi.creator.SegmentIndexCreationDriver;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
+import org.apache.pinot.segment.spi.index.column.ColumnIndexContainer;
 import org.apache.pinot.segment.spi.index.metadata.ColumnMetadata;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.segment.spi.loader.SegmentDirectoryLoader;
@@ -165,6 +168,51 @@ public class LoaderTest {
     indexSegment.destroy();
   }
 
+  @Test
+  public void testLazyColumnLoading()
+      throws Exception {
+    constructV1Segment();
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setSegmentVersion(SegmentVersion.v3);
+    indexLoadingConfig.setLazyColumnLoading(true);
+    ImmutableSegmentImpl indexSegment =
+        (ImmutableSegmentImpl) ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig);
+    String column = "column1";
+    ColumnIndexContainer indexContainer = indexSegment.getIndexContainerMap().get(column);
+    Assert.assertTrue(indexContainer instanceof LazyColumnIndexContainer);
+    LazyColumnIndexContainer lazyIndexContainer = (LazyColumnIndexContainer) indexContainer;
+    Assert.assertFalse(lazyIndexContainer.isLoaded());
+
+    // Indexes should be loaded on the first access
+    Object firstValue = indexSegment.getDataSource(column).getDictionary().get(0);
+    Assert.assertTrue(lazyIndexContainer.isLoaded());
+
+    // Idle indexes should be evicted, and loaded again on the next access
+    Assert.assertFalse(lazyIndexContainer.evictIfIdle(Long.MAX_VALUE, System.currentTimeMillis()));
+    Assert.assertTrue(lazyIndexContainer.evictIfIdle(0, System.currentTimeMillis() + 1));
+    Assert.assertFalse(lazyIndexContainer.isLoaded());
+    Assert.assertEquals(indexSegment.getDataSource(column).getDictionary().get(0), firstValue);
+    Assert.assertTrue(lazyIndexContainer.isLoaded());
+    indexSegment.destroy();
+  }
+
+  @Test
+  public void testWarmUpColumns()
+      throws Exception {
+    constructV1Segment();
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setSegmentVersion(SegmentVersion.v3);
+    // Unknown columns should be ignored
+    indexLoadingConfig.setWarmUpColumns(new HashSet<>(Arrays.asList("column1", "unknownColumn")));
+    IndexSegment indexSegment = ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig);
+    Assert.assertNotNull(indexSegment.getDataSource("column1").getDictionary().get(0));
+    indexSegment.destroy();
+  }
+
   @Test
   public void testBuiltInVirtualColumns()
       throws Exception {
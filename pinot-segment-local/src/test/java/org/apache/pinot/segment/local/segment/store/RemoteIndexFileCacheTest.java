@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.store.RemoteIndexFileCache.CachedIndexFile;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class RemoteIndexFileCacheTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "RemoteIndexFileCacheTest");
+  private static final File REMOTE_FILE = new File(TEMP_DIR, "remote/columns.psf");
+  private static final File CACHE_DIR = new File(TEMP_DIR, "cache");
+  private static final File OTHER_FILE = new File(CACHE_DIR, "other");
+  private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+  @BeforeClass
+  public void setUp()
+      throws IOException {
+    FileUtils.deleteDirectory(TEMP_DIR);
+    FileUtils.writeStringToFile(REMOTE_FILE, CONTENT, StandardCharsets.UTF_8);
+    FileUtils.writeStringToFile(OTHER_FILE, CONTENT, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testAcquire()
+      throws IOException {
+    long numMmapBuffers = PinotDataBuffer.getMmapBufferCount();
+    RemoteIndexFileCache cache = new RemoteIndexFileCache(CACHE_DIR, 20);
+
+    CachedIndexFile file1 = cache.acquire("segment/col1.forward_index", REMOTE_FILE.toURI(), 0, 10, ReadMode.mmap);
+    assertContent(file1, "0123456789");
+    CachedIndexFile file2 = cache.acquire("segment/col2.forward_index", REMOTE_FILE.toURI(), 10, 8, ReadMode.mmap);
+    assertContent(file2, "abcdefgh");
+    Assert.assertEquals(cache.getNumCachedFiles(), 2);
+    Assert.assertEquals(cache.getTotalSizeBytes(), 18);
+    Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 2);
+
+    // Cache hit should return the same file without fetching
+    CachedIndexFile file1Again =
+        cache.acquire("segment/col1.forward_index", REMOTE_FILE.toURI(), 0, 10, ReadMode.mmap);
+    Assert.assertSame(file1Again, file1);
+    file1Again.release();
+    Assert.assertEquals(cache.getNumCachedFiles(), 2);
+
+    // Files in use should not be evicted even if the max size is exceeded, and should be counted in the total size
+    CachedIndexFile file3 = cache.acquire("segment/col3.forward_index", REMOTE_FILE.toURI(), 30, 6, ReadMode.mmap);
+    assertContent(file3, "uvwxyz");
+    Assert.assertEquals(cache.getNumCachedFiles(), 3);
+    Assert.assertEquals(cache.getTotalSizeBytes(), 24);
+    Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 3);
+
+    // Once released, the least recently used file (col2) should be evicted
+    file2.release();
+    Assert.assertEquals(cache.getNumCachedFiles(), 3);
+    cache.cleanUp();
+    Assert.assertEquals(cache.getNumCachedFiles(), 2);
+    Assert.assertEquals(cache.getTotalSizeBytes(), 16);
+    Assert.assertTrue(file1.getFile().exists());
+    Assert.assertFalse(file2.getFile().exists());
+    Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 2);
+
+    // Released files stay in the cache until evicted
+    file1.release();
+    file3.release();
+    Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 2);
+
+    // File larger than the max size should still be cached, and evict all the other files not in use
+    CachedIndexFile file4 =
+        cache.acquire("segment/col4.forward_index", REMOTE_FILE.toURI(), 0, CONTENT.length(), ReadMode.mmap);
+    assertContent(file4, CONTENT);
+    Assert.assertEquals(cache.getNumCachedFiles(), 1);
+    Assert.assertEquals(cache.getTotalSizeBytes(), CONTENT.length());
+    Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 1);
+
+    // Range beyond the end of the remote file should fail
+    try {
+      cache.acquire("segment/col5.forward_index", REMOTE_FILE.toURI(), 30, 10, ReadMode.mmap);
+      Assert.fail();
+    } catch (IOException e) {
+      // Expected
+    }
+    Assert.assertEquals(cache.getNumCachedFiles(), 1);
+    file4.release();
+
+    // Cache directory should be cleaned up on creation without touching the other files in the base directory
+    cache = new RemoteIndexFileCache(CACHE_DIR, 20);
+    Assert.assertEquals(cache.getNumCachedFiles(), 0);
+    Assert.assertFalse(file4.getFile().exists());
+    Assert.assertEquals(FileUtils.readFileToString(OTHER_FILE, StandardCharsets.UTF_8), CONTENT);
+  }
+
+  @Test
+  public void testExistingDirectoryNotCreatedByCache()
+      throws IOException {
+    File baseDir = new File(TEMP_DIR, "existing");
+    File existingFile = new File(new File(baseDir, RemoteIndexFileCache.CACHE_SUBDIRECTORY_NAME), "existing");
+    FileUtils.writeStringToFile(existingFile, CONTENT, StandardCharsets.UTF_8);
+    try {
+      new RemoteIndexFileCache(baseDir, 20);
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // Expected
+    }
+    Assert.assertTrue(existingFile.exists());
+  }
+
+  private static void assertContent(CachedIndexFile cachedIndexFile, String expected)
+      throws IOException {
+    Assert.assertEquals(FileUtils.readFileToString(cachedIndexFile.getFile(), StandardCharsets.UTF_8), expected);
+    byte[] bytes = new byte[expected.length()];
+    cachedIndexFile.getBuffer().copyTo(0, bytes);
+    Assert.assertEquals(new String(bytes, StandardCharsets.UTF_8), expected);
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws IOException {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
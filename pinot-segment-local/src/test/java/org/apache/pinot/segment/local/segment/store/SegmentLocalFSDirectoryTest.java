@@ -19,6 +19,7 @@
 package org.apache.pinot.segment.local.segment.store;
 
 import java.io.File;
+import java.util.Arrays;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
@@ -116,6 +117,41 @@ public class SegmentLocalFSDirectoryTest {
     }
   }
 
+  @Test
+  public void testPrefetch()
+      throws Exception {
+    int numPages = 4;
+    try (SegmentDirectory.Writer writer = segmentDirectory.createWriter()) {
+      Assert.assertNotNull(writer);
+      for (ColumnIndexType indexType : Arrays.asList(ColumnIndexType.FORWARD_INDEX, ColumnIndexType.DICTIONARY)) {
+        loadData(writer.newIndexFor("prefetchColumn", indexType, numPages * PinotDataBuffer.PAGE_SIZE_BYTES));
+      }
+      writer.save();
+    }
+
+    // By default, all the buffers are fully prefetched
+    try (SegmentDirectory defaultSegment = new SegmentLocalFSDirectory(TEST_DIRECTORY, metadata, ReadMode.mmap);
+        SegmentDirectory.Reader reader = defaultSegment.createReader()) {
+      long numPrefetchedPages = SegmentLocalFSDirectory.getNumPrefetchedPages();
+      verifyData(reader.getIndexFor("prefetchColumn", ColumnIndexType.FORWARD_INDEX));
+      Assert.assertEquals(SegmentLocalFSDirectory.getNumPrefetchedPages() - numPrefetchedPages, numPages);
+      numPrefetchedPages = SegmentLocalFSDirectory.getNumPrefetchedPages();
+      verifyData(reader.getIndexFor("prefetchColumn", ColumnIndexType.DICTIONARY));
+      Assert.assertEquals(SegmentLocalFSDirectory.getNumPrefetchedPages() - numPrefetchedPages, numPages);
+    }
+
+    // With access pattern prefetch, only the header page of the forward index is prefetched
+    try (SegmentDirectory accessPatternSegment = new SegmentLocalFSDirectory(TEST_DIRECTORY, metadata, ReadMode.mmap,
+        true); SegmentDirectory.Reader reader = accessPatternSegment.createReader()) {
+      long numPrefetchedPages = SegmentLocalFSDirectory.getNumPrefetchedPages();
+      verifyData(reader.getIndexFor("prefetchColumn", ColumnIndexType.FORWARD_INDEX));
+      Assert.assertEquals(SegmentLocalFSDirectory.getNumPrefetchedPages() - numPrefetchedPages, 1);
+      numPrefetchedPages = SegmentLocalFSDirectory.getNumPrefetchedPages();
+      verifyData(reader.getIndexFor("prefetchColumn", ColumnIndexType.DICTIONARY));
+      Assert.assertEquals(SegmentLocalFSDirectory.getNumPrefetchedPages() - numPrefetchedPages, numPages);
+    }
+  }
+
   @Test
   public void testDirectorySize()
       throws Exception {
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.store;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.loader.TieredSegmentDirectoryLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.store.ColumnIndexType;
+import org.apache.pinot.segment.spi.store.SegmentDirectory;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class TieredSegmentDirectoryTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "TieredSegmentDirectoryTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String TABLE_NAME_WITH_TYPE = "testTable_OFFLINE";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final File REMOTE_INDEX_DIR =
+      new File(TEMP_DIR, "remote/" + TABLE_NAME_WITH_TYPE + "/" + SEGMENT_NAME);
+  private static final File LOCAL_INDEX_DIR = new File(TEMP_DIR, "local/" + TABLE_NAME_WITH_TYPE + "/" + SEGMENT_NAME);
+  private static final File CACHE_DIR = new File(TEMP_DIR, "cache");
+  private static final int NUM_ROWS = 1000;
+  private static final String INT_COLUMN_1 = "intColumn1";
+  private static final String INT_COLUMN_2 = "intColumn2";
+
+  private byte[] _expectedForwardIndex1;
+  private byte[] _expectedForwardIndex2;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(INT_COLUMN_1, DataType.INT).addSingleValueDimension(INT_COLUMN_2, DataType.INT)
+        .build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(INT_COLUMN_1, i);
+      row.putValue(INT_COLUMN_2, NUM_ROWS - i);
+      rows.add(row);
+    }
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, schema);
+    config.setOutDir(REMOTE_INDEX_DIR.getParent());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+
+    try (SegmentDirectory remoteSegmentDirectory = new SegmentLocalFSDirectory(REMOTE_INDEX_DIR, ReadMode.heap);
+        SegmentDirectory.Reader reader = remoteSegmentDirectory.createReader()) {
+      _expectedForwardIndex1 = getBytes(reader.getIndexFor(INT_COLUMN_1, ColumnIndexType.FORWARD_INDEX));
+      _expectedForwardIndex2 = getBytes(reader.getIndexFor(INT_COLUMN_2, ColumnIndexType.FORWARD_INDEX));
+    }
+
+    TieredSegmentDirectoryLoader.fetchSegmentMetadata(REMOTE_INDEX_DIR.toURI(), LOCAL_INDEX_DIR);
+  }
+
+  @Test
+  public void testReadReleaseAndRefetch()
+      throws Exception {
+    // Cache can only hold one file
+    RemoteIndexFileCache cache = new RemoteIndexFileCache(CACHE_DIR, 1);
+    URI remoteSegmentUri = REMOTE_INDEX_DIR.toURI();
+    long numMmapBuffers = PinotDataBuffer.getMmapBufferCount();
+    try (TieredSegmentDirectory segmentDirectory = new TieredSegmentDirectory(LOCAL_INDEX_DIR, remoteSegmentUri, cache,
+        ReadMode.mmap); SegmentDirectory.Reader reader = segmentDirectory.createReader()) {
+      Assert.assertTrue(reader.hasIndexFor(INT_COLUMN_1, ColumnIndexType.FORWARD_INDEX));
+      Assert.assertFalse(reader.hasIndexFor(INT_COLUMN_1, ColumnIndexType.INVERTED_INDEX));
+
+      // Read
+      PinotDataBuffer forwardIndex1 = reader.getIndexFor(INT_COLUMN_1, ColumnIndexType.FORWARD_INDEX);
+      Assert.assertEquals(getBytes(forwardIndex1), _expectedForwardIndex1);
+      Assert.assertSame(reader.getIndexFor(INT_COLUMN_1, ColumnIndexType.FORWARD_INDEX), forwardIndex1);
+      Assert.assertEquals(cache.getNumCachedFiles(), 1);
+      Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 1);
+
+      // Reading the second column should not evict the first one which is still in use
+      PinotDataBuffer forwardIndex2 = reader.getIndexFor(INT_COLUMN_2, ColumnIndexType.FORWARD_INDEX);
+      Assert.assertEquals(getBytes(forwardIndex2), _expectedForwardIndex2);
+      Assert.assertEquals(cache.getNumCachedFiles(), 2);
+      Assert.assertSame(reader.getIndexFor(INT_COLUMN_1, ColumnIndexType.FORWARD_INDEX), forwardIndex1);
+      Assert.assertEquals(getBytes(forwardIndex1), _expectedForwardIndex1);
+      Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 2);
+
+      // Release: releasing the first column should evict it from the cache
+      reader.releaseIndexesFor(INT_COLUMN_1);
+      Assert.assertEquals(cache.getNumCachedFiles(), 1);
+      Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 1);
+
+      // Refetch: requesting the released buffer again fetches the range again
+      PinotDataBuffer refetchedForwardIndex1 = reader.getIndexFor(INT_COLUMN_1, ColumnIndexType.FORWARD_INDEX);
+      Assert.assertNotSame(refetchedForwardIndex1, forwardIndex1);
+      Assert.assertEquals(getBytes(refetchedForwardIndex1), _expectedForwardIndex1);
+      Assert.assertEquals(cache.getNumCachedFiles(), 2);
+      Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers + 2);
+    }
+
+    // Closing the segment directory releases all its buffers, which are then evicted because the cache is full
+    Assert.assertEquals(cache.getNumCachedFiles(), 0);
+    Assert.assertEquals(cache.getTotalSizeBytes(), 0);
+    Assert.assertEquals(PinotDataBuffer.getMmapBufferCount(), numMmapBuffers);
+  }
+
+  private static byte[] getBytes(PinotDataBuffer buffer) {
+    byte[] bytes = new byte[(int) buffer.size()];
+    buffer.copyTo(0, bytes);
+    return bytes;
+  }
+
+  @AfterClass
+  public void tearDown()
+      throws Exception {
+    FileUtils.deleteDirectory(TEMP_DIR);
+  }
+}
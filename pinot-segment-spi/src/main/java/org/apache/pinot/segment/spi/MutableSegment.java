@@ -42,4 +42,15 @@ public interface MutableSegment extends IndexSegment {
    * @return The number of records indexed
    */
   int getNumDocsIndexed();
+
+  /**
+   * Returns a view of the segment for a single query, which should be used for the whole query so that the segment
+   * metadata and all the data sources expose the same documents. Returns the segment itself if the documents indexed
+   * are visible to the queries immediately.
+   *
+   * @return View of the segment for a single query
+   */
+  default IndexSegment getSnapshot() {
+    return this;
+  }
 }
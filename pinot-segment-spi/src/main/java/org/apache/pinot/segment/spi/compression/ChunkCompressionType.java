@@ -19,15 +19,32 @@
 package org.apache.pinot.segment.spi.compression;
 
 public enum ChunkCompressionType {
-  PASS_THROUGH(0), SNAPPY(1), ZSTANDARD(2);
+  PASS_THROUGH(0), SNAPPY(1), ZSTANDARD(2), LZ4(3),
+
+  // Numeric encodings for fixed-width INT/LONG values, where the residuals are bit-packed with frame-of-reference
+  DELTA(4, true), DELTA_DELTA(5, true), FRAME_OF_REFERENCE(6, true);
 
   private final int _value;
+  private final boolean _numericEncoding;
 
   ChunkCompressionType(int value) {
+    this(value, false);
+  }
+
+  ChunkCompressionType(int value, boolean numericEncoding) {
     _value = value;
+    _numericEncoding = numericEncoding;
   }
 
   public int getValue() {
     return _value;
   }
+
+  /**
+   * Returns {@code true} if the compression type is a numeric encoding which only applies to fixed-width INT/LONG
+   * values, {@code false} if it is a general byte compressor.
+   */
+  public boolean isNumericEncoding() {
+    return _numericEncoding;
+  }
 }
@@ -75,9 +75,11 @@ public class SegmentGeneratorConfig implements Serializable {
   private final List<String> _textIndexCreationColumns = new ArrayList<>();
   private final List<String> _fstIndexCreationColumns = new ArrayList<>();
   private final List<String> _jsonIndexCreationColumns = new ArrayList<>();
+  private final List<String> _zoneMapCreationColumns = new ArrayList<>();
   private final Map<String, H3IndexConfig> _h3IndexConfigs = new HashMap<>();
   private final List<String> _columnSortOrder = new ArrayList<>();
   private List<String> _varLengthDictionaryColumns = new ArrayList<>();
+  private final List<String> _frontCodedDictionaryColumns = new ArrayList<>();
   private String _inputFilePath = null;
   private FileFormat _format = FileFormat.AVRO;
   private String _recordReaderPath = null; //TODO: this should be renamed to recordReaderClass or even better removed
@@ -161,6 +163,9 @@ public class SegmentGeneratorConfig implements Serializable {
       if (indexingConfig.getVarLengthDictionaryColumns() != null) {
         setVarLengthDictionaryColumns(indexingConfig.getVarLengthDictionaryColumns());
       }
+      if (indexingConfig.getFrontCodedDictionaryColumns() != null) {
+        _frontCodedDictionaryColumns.addAll(indexingConfig.getFrontCodedDictionaryColumns());
+      }
       _segmentPartitionConfig = indexingConfig.getSegmentPartitionConfig();
 
       // Star-tree configs
@@ -183,6 +188,10 @@ public class SegmentGeneratorConfig implements Serializable {
         _jsonIndexCreationColumns.addAll(indexingConfig.getJsonIndexColumns());
       }
 
+      if (indexingConfig.getZoneMapColumns() != null) {
+        _zoneMapCreationColumns.addAll(indexingConfig.getZoneMapColumns());
+      }
+
       List<FieldConfig> fieldConfigList = tableConfig.getFieldConfigList();
       if (fieldConfigList != null) {
         for (FieldConfig fieldConfig : fieldConfigList) {
@@ -333,6 +342,10 @@ public class SegmentGeneratorConfig implements Serializable {
     return _jsonIndexCreationColumns;
   }
 
+  public List<String> getZoneMapCreationColumns() {
+    return _zoneMapCreationColumns;
+  }
+
   public Map<String, H3IndexConfig> getH3IndexConfigs() {
     return _h3IndexConfigs;
   }
@@ -375,6 +388,12 @@ public class SegmentGeneratorConfig implements Serializable {
     }
   }
 
+  public void setZoneMapCreationColumns(List<String> zoneMapCreationColumns) {
+    if (zoneMapCreationColumns != null) {
+      _zoneMapCreationColumns.addAll(zoneMapCreationColumns);
+    }
+  }
+
   public void setColumnSortOrder(List<String> sortOrder) {
     Preconditions.checkNotNull(sortOrder);
     _columnSortOrder.addAll(sortOrder);
@@ -388,6 +407,16 @@ public class SegmentGeneratorConfig implements Serializable {
     this._varLengthDictionaryColumns = varLengthDictionaryColumns;
   }
 
+  public List<String> getFrontCodedDictionaryColumns() {
+    return _frontCodedDictionaryColumns;
+  }
+
+  public void setFrontCodedDictionaryColumns(List<String> frontCodedDictionaryColumns) {
+    if (frontCodedDictionaryColumns != null) {
+      _frontCodedDictionaryColumns.addAll(frontCodedDictionaryColumns);
+    }
+  }
+
   public void createInvertedIndexForColumn(String column) {
     Preconditions.checkNotNull(column);
     if (_schema != null && _schema.getFieldSpecFor(column) == null) {
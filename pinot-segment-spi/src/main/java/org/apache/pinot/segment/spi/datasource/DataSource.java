@@ -27,6 +27,7 @@ import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 
 
 /**
@@ -98,4 +99,12 @@ public interface DataSource {
    */
   @Nullable
   NullValueVectorReader getNullValueVector();
+
+  /**
+   * Returns the page-level min/max zone map for the column if exists, or {@code null} if not.
+   */
+  @Nullable
+  default ZoneMapReader getZoneMap() {
+    return null;
+  }
 }
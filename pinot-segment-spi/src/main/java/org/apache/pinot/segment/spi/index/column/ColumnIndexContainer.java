@@ -27,6 +27,7 @@ import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.index.reader.NullValueVectorReader;
 import org.apache.pinot.segment.spi.index.reader.TextIndexReader;
+import org.apache.pinot.segment.spi.index.reader.ZoneMapReader;
 
 
 /**
@@ -84,4 +85,11 @@ public interface ColumnIndexContainer extends Closeable {
    * @return
    */
   NullValueVectorReader getNullValueVector();
+
+  /**
+   * Returns the page-level min/max zone map for the column, or {@code null} if it does not exist.
+   */
+  default ZoneMapReader getZoneMap() {
+    return null;
+  }
 }
@@ -126,7 +126,6 @@ public interface ForwardIndexCreator extends Closeable {
 
   /**
    * MULTI-VALUE COLUMN RAW INDEX APIs
-   * TODO: Not supported yet
    */
 
   /**
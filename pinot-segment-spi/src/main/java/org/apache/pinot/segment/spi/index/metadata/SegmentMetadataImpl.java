@@ -503,7 +503,11 @@ public class SegmentMetadataImpl implements SegmentMetadata {
         fileNameBuilder.append(V1Constants.Indexes.UNSORTED_SV_FORWARD_INDEX_FILE_EXTENSION);
       }
     } else {
-      fileNameBuilder.append(V1Constants.Indexes.UNSORTED_MV_FORWARD_INDEX_FILE_EXTENSION);
+      if (!columnMetadata.hasDictionary()) {
+        fileNameBuilder.append(V1Constants.Indexes.RAW_MV_FORWARD_INDEX_FILE_EXTENSION);
+      } else {
+        fileNameBuilder.append(V1Constants.Indexes.UNSORTED_MV_FORWARD_INDEX_FILE_EXTENSION);
+      }
     }
     return fileNameBuilder.toString();
   }
@@ -146,6 +146,66 @@ public interface ForwardIndexReader<T extends ForwardIndexReaderContext> extends
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Batch reads multiple INT type single-values at the given document ids into the passed in buffer (the buffer size
+   * must be larger than or equal to the length).
+   *
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param valueBuffer Value buffer
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, int[] valueBuffer, T context) {
+    for (int i = 0; i < length; i++) {
+      valueBuffer[i] = getInt(docIds[i], context);
+    }
+  }
+
+  /**
+   * Batch reads multiple LONG type single-values at the given document ids into the passed in buffer (the buffer size
+   * must be larger than or equal to the length).
+   *
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param valueBuffer Value buffer
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, long[] valueBuffer, T context) {
+    for (int i = 0; i < length; i++) {
+      valueBuffer[i] = getLong(docIds[i], context);
+    }
+  }
+
+  /**
+   * Batch reads multiple FLOAT type single-values at the given document ids into the passed in buffer (the buffer size
+   * must be larger than or equal to the length).
+   *
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param valueBuffer Value buffer
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, float[] valueBuffer, T context) {
+    for (int i = 0; i < length; i++) {
+      valueBuffer[i] = getFloat(docIds[i], context);
+    }
+  }
+
+  /**
+   * Batch reads multiple DOUBLE type single-values at the given document ids into the passed in buffer (the buffer size
+   * must be larger than or equal to the length).
+   *
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param valueBuffer Value buffer
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, double[] valueBuffer, T context) {
+    for (int i = 0; i < length; i++) {
+      valueBuffer[i] = getDouble(docIds[i], context);
+    }
+  }
+
   /**
    * Reads the STRING type single-value at the given document id.
    *
@@ -170,9 +230,19 @@ public interface ForwardIndexReader<T extends ForwardIndexReaderContext> extends
 
   /**
    * MULTI-VALUE COLUMN RAW INDEX APIs
-   * TODO: Not supported yet
    */
 
+  /**
+   * Returns the number of values within the multi-value entry at the given document id.
+   *
+   * @param docId Document id
+   * @param context Reader context
+   * @return Number of values within the multi-value entry
+   */
+  default int getNumValuesMV(int docId, T context) {
+    throw new UnsupportedOperationException();
+  }
+
   /**
    * Reads the INT type multi-value at the given document id into the passed in value buffer (the buffer size must be
    * enough to hold all the values for the multi-value entry) and returns the number of values within the multi-value
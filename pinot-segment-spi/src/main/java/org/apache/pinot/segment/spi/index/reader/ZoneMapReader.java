@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.spi.index.reader;
+
+import java.io.Closeable;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+
+
+/**
+ * Reader for the page-level zone map of a single-value column, which keeps the min/max value and the number of nulls
+ * for each page (fixed number of consecutive documents) of the column.
+ * <p>For dictionary-encoded columns, the min/max values are the dictionary ids (value type is INT). Because the
+ * dictionary is sorted, the dictionary ids preserve the order of the values.
+ */
+public interface ZoneMapReader extends Closeable {
+
+  /**
+   * Returns the type of the min/max values, one of INT, LONG, FLOAT, DOUBLE.
+   */
+  DataType getValueType();
+
+  /**
+   * Returns the number of documents in each page (except for the last page which can have less documents).
+   */
+  int getNumDocsPerPage();
+
+  /**
+   * Returns the number of pages.
+   */
+  int getNumPages();
+
+  /**
+   * Returns the min value of the given page for INT/LONG value type.
+   */
+  long getMinLong(int pageId);
+
+  /**
+   * Returns the max value of the given page for INT/LONG value type.
+   */
+  long getMaxLong(int pageId);
+
+  /**
+   * Returns the min value of the given page for FLOAT/DOUBLE value type.
+   */
+  double getMinDouble(int pageId);
+
+  /**
+   * Returns the max value of the given page for FLOAT/DOUBLE value type.
+   */
+  double getMaxDouble(int pageId);
+
+  /**
+   * Returns the number of null values in the given page.
+   */
+  int getNullCount(int pageId);
+}
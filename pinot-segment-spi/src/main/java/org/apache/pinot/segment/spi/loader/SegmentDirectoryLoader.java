@@ -38,4 +38,14 @@ public interface SegmentDirectoryLoader {
    */
   SegmentDirectory load(URI indexDir, PinotConfiguration segmentDirectoryConfig)
       throws Exception;
+
+  /**
+   * Returns {@code true} if the index files of the segment are available in the local index directory, in which case
+   * the segment can be converted and pre-processed locally before being loaded. Tier backends keeping the index files
+   * in a remote store should return {@code false} for the segments not available locally.
+   * @param indexDir index directory
+   */
+  default boolean hasLocalIndexFiles(URI indexDir) {
+    return true;
+  }
 }
@@ -63,6 +63,22 @@ public abstract class PinotDataBuffer implements Closeable {
   // With number of bytes more than this threshold, we create a ByteBuffer from the buffer and use bulk get/put method
   public static int BULK_BYTES_PROCESSING_THRESHOLD = 10;
 
+  // Size of the OS page, which matches most systems
+  public static final int PAGE_SIZE_BYTES = 4096;
+
+  /**
+   * Expected access pattern of a buffer, used to decide how much of a memory-mapped buffer is worth prefetching.
+   * <ul>
+   *   <li>SEQUENTIAL: the buffer is mostly scanned in order (e.g. forward index), where the OS read-ahead already hides
+   *   most of the page faults</li>
+   *   <li>RANDOM: the buffer is accessed at random positions (e.g. dictionary, inverted index), where each access can
+   *   cause a page fault on a cold buffer</li>
+   * </ul>
+   */
+  public enum AccessPattern {
+    SEQUENTIAL, RANDOM
+  }
+
   private static class BufferContext {
     enum Type {
       DIRECT, MMAP
@@ -386,6 +402,32 @@ public abstract class PinotDataBuffer implements Closeable {
     return toDirectByteBuffer(offset, size, order());
   }
 
+  /**
+   * Prefetches the range [offset, offset + size) of the buffer into memory by touching one byte in each OS page, so
+   * that the following accesses to the range do not cause page faults on memory-mapped buffers. This is the synchronous
+   * counterpart of {@code madvise(MADV_WILLNEED)}, and is cheap for the buffers already in memory.
+   *
+   * @return Number of pages touched
+   */
+  public long prefetch(long offset, long size) {
+    long end = Math.min(offset + size, size());
+    long numPagesTouched = 0;
+    for (long position = offset; position < end; position += PAGE_SIZE_BYTES) {
+      getByte(position);
+      numPagesTouched++;
+    }
+    return numPagesTouched;
+  }
+
+  /**
+   * Prefetches the whole buffer into memory.
+   *
+   * @return Number of pages touched
+   */
+  public long prefetch() {
+    return prefetch(0, size());
+  }
+
   public abstract void flush();
 
   public abstract void release()
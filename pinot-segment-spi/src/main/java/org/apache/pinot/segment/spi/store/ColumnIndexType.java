@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.segment.spi.store;
 
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+
+
 public enum ColumnIndexType {
   DICTIONARY("dictionary"),
   FORWARD_INDEX("forward_index"),
@@ -28,7 +31,8 @@ public enum ColumnIndexType {
   FST_INDEX("fst_index"),
   JSON_INDEX("json_index"),
   RANGE_INDEX("range_index"),
-  H3_INDEX("h3_index");
+  H3_INDEX("h3_index"),
+  ZONE_MAP("zone_map");
 
   private final String indexName;
 
@@ -40,6 +44,14 @@ public enum ColumnIndexType {
     return indexName;
   }
 
+  /**
+   * Returns the expected access pattern of the index buffer during query execution. This is only used to size the mmap
+   * prefetch when the access pattern prefetch is enabled for the segment directory.
+   */
+  public PinotDataBuffer.AccessPattern getAccessPattern() {
+    return this == FORWARD_INDEX ? PinotDataBuffer.AccessPattern.SEQUENTIAL : PinotDataBuffer.AccessPattern.RANDOM;
+  }
+
   public static ColumnIndexType getValue(String val) {
     for (ColumnIndexType type : values()) {
       if (type.getIndexName().equalsIgnoreCase(val)) {
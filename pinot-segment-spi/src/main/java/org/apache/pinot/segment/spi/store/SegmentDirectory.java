@@ -132,6 +132,15 @@ public abstract class SegmentDirectory implements Closeable {
 
     public abstract boolean hasIndexFor(String column, ColumnIndexType type);
 
+    /**
+     * This is a hint to the implementation, to release the buffers for the specified column, which are opened again on
+     * the next {@link #getIndexFor(String, ColumnIndexType)}. Should only be called when the buffers are no longer
+     * used.
+     * @param column column name
+     */
+    public void releaseIndexesFor(String column) {
+    }
+
     public abstract String toString();
   }
 
@@ -405,6 +405,25 @@ public class PinotDataBufferTest {
     }
   }
 
+  @Test
+  public void testPrefetch()
+      throws Exception {
+    try (PinotDataBuffer writeBuffer = PinotNativeOrderLBuffer.mapFile(TEMP_FILE, false, FILE_OFFSET, BUFFER_SIZE)) {
+      putInts(writeBuffer);
+      try (PinotDataBuffer readBuffer = PinotNativeOrderLBuffer.mapFile(TEMP_FILE, true, FILE_OFFSET, BUFFER_SIZE)) {
+        int numPages = (BUFFER_SIZE + PinotDataBuffer.PAGE_SIZE_BYTES - 1) / PinotDataBuffer.PAGE_SIZE_BYTES;
+        Assert.assertEquals(readBuffer.prefetch(), numPages);
+        Assert.assertEquals(readBuffer.prefetch(0, 1), 1);
+        // Range beyond the end of the buffer should be truncated
+        Assert.assertEquals(readBuffer.prefetch(BUFFER_SIZE - 1, BUFFER_SIZE), 1);
+        Assert.assertEquals(readBuffer.prefetch(BUFFER_SIZE, BUFFER_SIZE), 0);
+        getInts(readBuffer);
+      }
+    } finally {
+      FileUtils.forceDelete(TEMP_FILE);
+    }
+  }
+
   private void putInts(PinotDataBuffer buffer) {
     Assert.assertEquals(buffer.size(), BUFFER_SIZE);
     for (int i = 0; i < INT_ARRAY_LENGTH; i++) {
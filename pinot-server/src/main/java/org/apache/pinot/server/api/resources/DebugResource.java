@@ -128,7 +128,8 @@ public class DebugResource {
       segmentConsumerInfo =
           new SegmentConsumerInfo(segmentName, realtimeSegmentDataManager.getConsumerState().toString(),
               realtimeSegmentDataManager.getLastConsumedTimestamp(),
-              realtimeSegmentDataManager.getPartitionToCurrentOffset());
+              realtimeSegmentDataManager.getPartitionToCurrentOffset(),
+              realtimeSegmentDataManager.getPartitionToOffsetLag());
     }
     return segmentConsumerInfo;
   }
@@ -321,7 +321,8 @@ public class TablesResource {
           segmentConsumerInfoList.add(
               new SegmentConsumerInfo(segmentName, realtimeSegmentDataManager.getConsumerState().toString(),
                   realtimeSegmentDataManager.getLastConsumedTimestamp(),
-                  realtimeSegmentDataManager.getPartitionToCurrentOffset()));
+                  realtimeSegmentDataManager.getPartitionToCurrentOffset(),
+                  realtimeSegmentDataManager.getPartitionToOffsetLag()));
         }
       }
     } catch (Exception e) {
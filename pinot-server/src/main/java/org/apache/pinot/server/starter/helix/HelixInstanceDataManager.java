@@ -28,7 +28,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.configuration.ConfigurationException;
@@ -37,6 +36,7 @@ import org.apache.helix.HelixManager;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
 import org.apache.pinot.common.metadata.ZKMetadataProvider;
+import org.apache.pinot.common.metadata.segment.RealtimeSegmentZKMetadata;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.restlet.resources.SegmentErrorInfo;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
@@ -53,11 +53,14 @@ import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.segment.local.segment.index.loader.LoaderUtils;
 import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Segment.Realtime.Status;
 import org.apache.pinot.spi.utils.Pair;
+import org.joda.time.Interval;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,6 +83,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
   private ZkHelixPropertyStore<ZNRecord> _propertyStore;
   private String _authToken;
   private SegmentUploader _segmentUploader;
+  private SegmentLoadExecutor _segmentLoadExecutor;
 
   // Fixed size LRU cache for storing last N errors on the instance.
   // Key is TableNameWithType-SegmentName pair.
@@ -108,11 +112,15 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       Preconditions.checkState(instanceSegmentTarDir.mkdirs());
     }
 
+    // Initialize the executor to load multiple segments in parallel
+    _segmentLoadExecutor = new SegmentLoadExecutor(_instanceDataManagerConfig.getMaxParallelSegmentLoads(),
+        _instanceDataManagerConfig.getMaxParallelSegmentLoadsPerTable(), _serverMetrics);
+
     // Initialize segment build time lease extender executor
     SegmentBuildTimeLeaseExtender.initExecutor();
 
     // Initialize the table data manager provider
-    TableDataManagerProvider.init(_instanceDataManagerConfig);
+    TableDataManagerProvider.init(_instanceDataManagerConfig, _serverMetrics);
     LOGGER.info("Initialized Helix instance data manager");
 
     // Initialize the error cache
@@ -138,6 +146,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
       tableDataManager.shutDown();
     }
     SegmentBuildTimeLeaseExtender.shutdownExecutor();
+    _segmentLoadExecutor.shutDown();
     LOGGER.info("Helix instance data manager shut down");
   }
 
@@ -147,8 +156,12 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     LOGGER.info("Adding segment: {} to table: {}", segmentName, offlineTableName);
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, offlineTableName);
     Preconditions.checkNotNull(tableConfig);
-    _tableDataManagerMap.computeIfAbsent(offlineTableName, k -> createTableDataManager(k, tableConfig))
-        .addSegment(indexDir, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig));
+    TableDataManager tableDataManager =
+        _tableDataManagerMap.computeIfAbsent(offlineTableName, k -> createTableDataManager(k, tableConfig));
+    // NOTE: The segment lock is held by the caller
+    long priority = getLoadPriority(new SegmentMetadataImpl(indexDir));
+    _segmentLoadExecutor.load(offlineTableName, new SegmentLoadExecutor.SegmentLoad(segmentName, priority,
+        () -> tableDataManager.addSegment(indexDir, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig))));
     LOGGER.info("Added segment: {} to table: {}", segmentName, offlineTableName);
   }
 
@@ -158,8 +171,16 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     LOGGER.info("Adding segment: {} to table: {}", segmentName, realtimeTableName);
     TableConfig tableConfig = ZKMetadataProvider.getTableConfig(_propertyStore, realtimeTableName);
     Preconditions.checkNotNull(tableConfig);
-    _tableDataManagerMap.computeIfAbsent(realtimeTableName, k -> createTableDataManager(k, tableConfig))
-        .addSegment(segmentName, tableConfig, new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig));
+    TableDataManager tableDataManager =
+        _tableDataManagerMap.computeIfAbsent(realtimeTableName, k -> createTableDataManager(k, tableConfig));
+    // Consuming segments have the most recent data, so they are loaded first
+    RealtimeSegmentZKMetadata segmentZKMetadata =
+        ZKMetadataProvider.getRealtimeSegmentZKMetadata(_propertyStore, realtimeTableName, segmentName);
+    long priority = segmentZKMetadata == null || segmentZKMetadata.getStatus() == Status.IN_PROGRESS ? Long.MAX_VALUE
+        : segmentZKMetadata.getEndTimeMs();
+    _segmentLoadExecutor.load(realtimeTableName, new SegmentLoadExecutor.SegmentLoad(segmentName, priority,
+        () -> tableDataManager.addSegment(segmentName, tableConfig,
+            new IndexLoadingConfig(_instanceDataManagerConfig, tableConfig))));
     LOGGER.info("Added segment: {} to table: {}", segmentName, realtimeTableName);
   }
 
@@ -206,7 +227,9 @@ public class HelixInstanceDataManager implements InstanceDataManager {
 
     Schema schema = ZKMetadataProvider.getTableSchema(_propertyStore, tableNameWithType);
 
-    reloadSegment(tableNameWithType, segmentMetadata, tableConfig, schema);
+    _segmentLoadExecutor.load(tableNameWithType, new SegmentLoadExecutor.SegmentLoad(segmentName,
+        getLoadPriority(segmentMetadata), SegmentLocks.getSegmentLock(tableNameWithType, segmentName),
+        () -> reloadSegment(tableNameWithType, segmentMetadata, tableConfig, schema)));
 
     LOGGER.info("Reloaded single segment: {} in table: {}", segmentName, tableNameWithType);
   }
@@ -220,13 +243,30 @@ public class HelixInstanceDataManager implements InstanceDataManager {
 
     Schema schema = ZKMetadataProvider.getTableSchema(_propertyStore, tableNameWithType);
 
+    // Reload the segments in parallel, with the most recent segments first
+    List<SegmentLoadExecutor.SegmentLoad> segmentLoads = new ArrayList<>();
     for (SegmentMetadata segmentMetadata : getAllSegmentsMetadata(tableNameWithType)) {
-      reloadSegment(tableNameWithType, segmentMetadata, tableConfig, schema);
+      String segmentName = segmentMetadata.getName();
+      segmentLoads.add(new SegmentLoadExecutor.SegmentLoad(segmentName, getLoadPriority(segmentMetadata),
+          SegmentLocks.getSegmentLock(tableNameWithType, segmentName),
+          () -> reloadSegment(tableNameWithType, segmentMetadata, tableConfig, schema)));
     }
+    _segmentLoadExecutor.loadAll(tableNameWithType, segmentLoads);
 
     LOGGER.info("Reloaded all segments in table: {}", tableNameWithType);
   }
 
+  /**
+   * Returns the load priority of the segment, where the segments with the most recent data are loaded first.
+   */
+  private static long getLoadPriority(SegmentMetadata segmentMetadata) {
+    Interval timeInterval = segmentMetadata.getTimeInterval();
+    return timeInterval != null ? timeInterval.getEndMillis() : segmentMetadata.getIndexCreationTime();
+  }
+
+  /**
+   * Reloads the segment. Should be invoked with the segment lock held because it might modify the files on disk.
+   */
   private void reloadSegment(String tableNameWithType, SegmentMetadata segmentMetadata, TableConfig tableConfig,
       @Nullable Schema schema)
       throws Exception {
@@ -264,11 +304,7 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     File segmentBackupDir =
         new File(parentFile, indexDir.getName() + CommonConstants.Segment.SEGMENT_BACKUP_DIR_SUFFIX);
 
-    // This method might modify the file on disk. Use segment lock to prevent race condition
-    Lock segmentLock = SegmentLocks.getSegmentLock(tableNameWithType, segmentName);
     try {
-      segmentLock.lock();
-
       // First rename index directory to segment backup directory so that original segment have all file descriptors
       // point to the segment backup directory to ensure original segment serves queries properly
 
@@ -306,8 +342,6 @@ public class HelixInstanceDataManager implements InstanceDataManager {
         reloadFailureException.addSuppressed(recoveryFailureException);
       }
       throw reloadFailureException;
-    } finally {
-      segmentLock.unlock();
     }
   }
 
@@ -25,6 +25,7 @@ import org.apache.commons.configuration.ConfigurationException;
 import org.apache.pinot.spi.config.instance.InstanceDataManagerConfig;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.CommonConstants.Server;
+import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.apache.pinot.spi.utils.ReadMode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,6 +78,14 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   // response times to suffer.
   private static final String MAX_PARALLEL_SEGMENT_BUILDS = "realtime.max.parallel.segment.builds";
 
+  // Key of the memory budget (e.g. 16G) shared by all the consuming segments on the server. When configured, the flush
+  // points of the consuming segments are adjusted at runtime based on their memory usage and ingestion rate to keep
+  // the memory under the budget. Adaptive flush is disabled when not configured.
+  private static final String REALTIME_CONSUMING_MEMORY_BUDGET = "realtime.consuming.memory.budget";
+  // Key of the minimum number of rows in a consuming segment before it can be flushed by the adaptive flush
+  private static final String REALTIME_ADAPTIVE_FLUSH_MIN_ROWS = "realtime.adaptive.flush.min.rows";
+  private static final int DEFAULT_REALTIME_ADAPTIVE_FLUSH_MIN_ROWS = 100_000;
+
   // Key of whether to enable split commit
   private static final String ENABLE_SPLIT_COMMIT = "enable.split.commit";
   // Key of whether to enable split commit end with segment metadata files.
@@ -103,9 +112,36 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   //
   private static final String MAX_PARALLEL_REFRESH_THREADS = "max.parallel.refresh.threads";
 
+  // Number of segments that can be loaded (and pre-processed) in parallel on one server, shared by the segments added
+  // on startup or by state transitions and the segments reloaded after a schema or index change. Segments with the
+  // most recent data are loaded first. When not set (or set to 0), it is sized from the number of available processors
+  // and the I/O wait ratio below.
+  private static final String MAX_PARALLEL_SEGMENT_LOADS = "max.parallel.segment.loads";
+  // Ratio of the time a segment load waits on I/O (e.g. downloading the segment, reading the index files) to the time
+  // it spends on CPU (e.g. pre-processing the indexes). The default number of parallel segment loads is
+  // numProcessors * (1 + ratio), so that the processors are kept busy while some loads wait on I/O. Use 0 for CPU bound
+  // loads (local disks), and a larger value for I/O bound loads (e.g. slow deep store or remote tiered storage).
+  private static final String SEGMENT_LOAD_IO_WAIT_RATIO = "segment.load.io.wait.ratio";
+  private static final double DEFAULT_SEGMENT_LOAD_IO_WAIT_RATIO = 1.0;
+  // Number of segments of a single table that can be loaded in parallel. Defaults to the server-wide limit.
+  private static final String MAX_PARALLEL_SEGMENT_LOADS_PER_TABLE = "max.parallel.segment.loads.per.table";
+
   // Size of cache that holds errors.
   private static final String ERROR_CACHE_SIZE = "error.cache.size";
 
+  // Key of whether to load the column indexes of the immutable segments on the first access instead of when loading the
+  // segments. This speeds up the segment loading for wide tables where the queries only touch a few columns.
+  private static final String LAZY_COLUMN_LOADING_ENABLED = "lazy.column.loading.enabled";
+  // Key of the idle time after which the lazily loaded column indexes can be evicted. Eviction is disabled when not
+  // configured.
+  private static final String LAZY_COLUMN_IDLE_EVICTION_MS = "lazy.column.idle.eviction.ms";
+  private static final long DEFAULT_LAZY_COLUMN_IDLE_EVICTION_MS = -1L;
+
+  // Key of whether to size the mmap prefetch of the index buffers by their access pattern when loading the segments.
+  // When enabled, only the header page of the sequentially accessed buffers (forward index) is prefetched, leaving the
+  // prefetch budget to the randomly accessed ones. When disabled, all the buffers are prefetched within the budget.
+  private static final String ACCESS_PATTERN_PREFETCH_ENABLED = "access.pattern.prefetch.enabled";
+
   private final static String[] REQUIRED_KEYS = {INSTANCE_ID, INSTANCE_DATA_DIR, READ_MODE};
   private static final long DEFAULT_ERROR_CACHE_SIZE = 100L;
   private PinotConfiguration _instanceDataManagerConfiguration = null;
@@ -209,10 +245,36 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getProperty(MAX_PARALLEL_REFRESH_THREADS, 1);
   }
 
+  public int getMaxParallelSegmentLoads() {
+    int maxParallelSegmentLoads = _instanceDataManagerConfiguration.getProperty(MAX_PARALLEL_SEGMENT_LOADS, 0);
+    if (maxParallelSegmentLoads > 0) {
+      return maxParallelSegmentLoads;
+    }
+    double ioWaitRatio = Math.max(_instanceDataManagerConfiguration
+        .getProperty(SEGMENT_LOAD_IO_WAIT_RATIO, DEFAULT_SEGMENT_LOAD_IO_WAIT_RATIO), 0);
+    return (int) Math.ceil(Runtime.getRuntime().availableProcessors() * (1 + ioWaitRatio));
+  }
+
+  public int getMaxParallelSegmentLoadsPerTable() {
+    return _instanceDataManagerConfiguration.getProperty(MAX_PARALLEL_SEGMENT_LOADS_PER_TABLE, -1);
+  }
+
   public int getMaxParallelSegmentBuilds() {
     return _instanceDataManagerConfiguration.getProperty(MAX_PARALLEL_SEGMENT_BUILDS, 0);
   }
 
+  @Override
+  public long getRealtimeConsumingMemoryBudgetBytes() {
+    String memoryBudget = _instanceDataManagerConfiguration.getProperty(REALTIME_CONSUMING_MEMORY_BUDGET);
+    return memoryBudget != null ? DataSizeUtils.toBytes(memoryBudget) : 0;
+  }
+
+  @Override
+  public int getRealtimeAdaptiveFlushMinRows() {
+    return _instanceDataManagerConfiguration
+        .getProperty(REALTIME_ADAPTIVE_FLUSH_MIN_ROWS, DEFAULT_REALTIME_ADAPTIVE_FLUSH_MIN_ROWS);
+  }
+
   @Override
   public String getAuthToken() {
     return _instanceDataManagerConfiguration.getProperty(AUTH_TOKEN);
@@ -240,6 +302,22 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getProperty(ERROR_CACHE_SIZE, DEFAULT_ERROR_CACHE_SIZE);
   }
 
+  @Override
+  public boolean isLazyColumnLoadingEnabled() {
+    return _instanceDataManagerConfiguration.getProperty(LAZY_COLUMN_LOADING_ENABLED, false);
+  }
+
+  @Override
+  public long getLazyColumnIdleEvictionMs() {
+    return _instanceDataManagerConfiguration
+        .getProperty(LAZY_COLUMN_IDLE_EVICTION_MS, DEFAULT_LAZY_COLUMN_IDLE_EVICTION_MS);
+  }
+
+  @Override
+  public boolean isAccessPatternPrefetchEnabled() {
+    return _instanceDataManagerConfiguration.getProperty(ACCESS_PATTERN_PREFETCH_ENABLED, false);
+  }
+
   @Override
   public String toString() {
     String configString = "";
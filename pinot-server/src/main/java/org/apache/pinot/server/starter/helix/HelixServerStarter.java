@@ -62,6 +62,8 @@ import org.apache.pinot.core.transport.TlsConfig;
 import org.apache.pinot.core.util.ListenerConfigUtil;
 import org.apache.pinot.core.util.TlsUtils;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
+import org.apache.pinot.segment.local.segment.index.readers.forward.ChunkBufferPool;
+import org.apache.pinot.segment.local.segment.index.readers.forward.ChunkCache;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.server.api.access.AccessControlFactory;
 import org.apache.pinot.server.conf.ServerConf;
@@ -82,6 +84,7 @@ import org.apache.pinot.spi.utils.CommonConstants.Helix.Instance;
 import org.apache.pinot.spi.utils.CommonConstants.Helix.StateModel;
 import org.apache.pinot.spi.utils.CommonConstants.Server;
 import org.apache.pinot.spi.utils.CommonConstants.Server.SegmentCompletionProtocol;
+import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.apache.pinot.spi.utils.NetUtils;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.slf4j.Logger;
@@ -406,6 +409,10 @@ public class HelixServerStarter implements ServiceStartable {
     ServerConf serverInstanceConfig = DefaultHelixStarterServerConfig.getDefaultHelixServerConfig(_serverConf);
     _serverInstance = new ServerInstance(serverInstanceConfig, _helixManager);
     ServerMetrics serverMetrics = _serverInstance.getServerMetrics();
+    ChunkCache.getInstance().init(DataSizeUtils.toBytes(
+        _serverConf.getProperty(Server.CONFIG_OF_CHUNK_CACHE_SIZE, Server.DEFAULT_CHUNK_CACHE_SIZE)));
+    ChunkBufferPool.getInstance().init(DataSizeUtils.toBytes(
+        _serverConf.getProperty(Server.CONFIG_OF_CHUNK_BUFFER_POOL_SIZE, Server.DEFAULT_CHUNK_BUFFER_POOL_SIZE)));
     InstanceDataManager instanceDataManager = _serverInstance.getInstanceDataManager();
     SegmentFetcherAndLoader fetcherAndLoader =
         new SegmentFetcherAndLoader(_serverConf, instanceDataManager, serverMetrics);
@@ -505,12 +512,24 @@ public class HelixServerStarter implements ServiceStartable {
     serverMetrics.addCallbackGauge("memory.mmapBufferCount", PinotDataBuffer::getMmapBufferCount);
     serverMetrics.addCallbackGauge("memory.mmapBufferUsage", PinotDataBuffer::getMmapBufferUsage);
     serverMetrics.addCallbackGauge("memory.allocationFailureCount", PinotDataBuffer::getAllocationFailureCount);
+    ChunkCache chunkCache = ChunkCache.getInstance();
+    serverMetrics.addCallbackGauge("chunkCache.sizeBytes", chunkCache::getSizeBytes);
+    serverMetrics.addCallbackGauge("chunkCache.hitCount", chunkCache::getHitCount);
+    serverMetrics.addCallbackGauge("chunkCache.missCount", chunkCache::getMissCount);
+    serverMetrics.addCallbackGauge("chunkBufferPool.pooledBytes", ChunkBufferPool.getInstance()::getPooledBytes);
 
     // Track metric for queries disabled
     _serverQueriesDisabledTracker = new ServerQueriesDisabledTracker(_helixClusterName, _instanceId, _helixManager, serverMetrics);
     _serverQueriesDisabledTracker.start();
 
     _realtimeLuceneIndexRefreshState = RealtimeLuceneIndexRefreshState.getInstance();
+    _realtimeLuceneIndexRefreshState.init(
+        _serverConf.getProperty(Server.CONFIG_OF_REALTIME_TEXT_INDEX_OFFHEAP_ENABLED,
+            Server.DEFAULT_REALTIME_TEXT_INDEX_OFFHEAP_ENABLED),
+        _serverConf.getProperty(Server.CONFIG_OF_REALTIME_TEXT_INDEX_RAM_BUFFER_BUDGET_MB,
+            Server.DEFAULT_REALTIME_TEXT_INDEX_RAM_BUFFER_BUDGET_MB),
+        _serverConf.getProperty(Server.CONFIG_OF_REALTIME_TEXT_INDEX_REFRESH_THREADS,
+            Server.DEFAULT_REALTIME_TEXT_INDEX_REFRESH_THREADS), serverMetrics);
     _realtimeLuceneIndexRefreshState.start();
   }
 
@@ -20,6 +20,7 @@ package org.apache.pinot.server.starter.helix;
 
 import com.google.common.base.Preconditions;
 import java.io.File;
+import java.net.URI;
 import java.util.UUID;
 import java.util.concurrent.locks.Lock;
 import javax.annotation.Nullable;
@@ -32,10 +33,12 @@ import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.utils.TarGzCompressionUtils;
 import org.apache.pinot.common.utils.fetcher.SegmentFetcherFactory;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
+import org.apache.pinot.segment.local.loader.TieredSegmentDirectoryLoader;
 import org.apache.pinot.segment.local.segment.index.loader.LoaderUtils;
 import org.apache.pinot.segment.local.segment.index.loader.V3RemoveIndexException;
 import org.apache.pinot.segment.spi.SegmentMetadata;
 import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.server.conf.ServerConf;
 import org.apache.pinot.spi.crypt.PinotCrypter;
 import org.apache.pinot.spi.crypt.PinotCrypterFactory;
 import org.apache.pinot.spi.env.PinotConfiguration;
@@ -54,6 +57,9 @@ public class SegmentFetcherAndLoader {
 
   private final InstanceDataManager _instanceDataManager;
   private final ServerMetrics _serverMetrics;
+  // Configs for the tiered storage, null if the tiered storage is not enabled. Only the segments of the configured
+  // tables are kept remotely.
+  private final PinotConfiguration _tieredStorageConfigs;
 
   public SegmentFetcherAndLoader(PinotConfiguration config, InstanceDataManager instanceDataManager,
       ServerMetrics serverMetrics)
@@ -69,6 +75,18 @@ public class SegmentFetcherAndLoader {
     PinotFSFactory.init(pinotFSConfig);
     SegmentFetcherFactory.init(segmentFetcherFactoryConfig);
     PinotCrypterFactory.init(pinotCrypterConfig);
+
+    PinotConfiguration instanceDataManagerConfig = new ServerConf(config).getInstanceDataManagerConfig();
+    String tierBackend = instanceDataManagerConfig.getProperty(HelixInstanceDataManagerConfig.TIER_BACKEND,
+        HelixInstanceDataManagerConfig.DEFAULT_TIER_BACKEND);
+    if (TieredSegmentDirectoryLoader.TIER_BACKEND_NAME.equals(tierBackend)) {
+      _tieredStorageConfigs = instanceDataManagerConfig
+          .subset(HelixInstanceDataManagerConfig.TIER_CONFIGS_PREFIX + "." + tierBackend);
+      LOGGER.info("Tiered storage is enabled, only segment metadata will be fetched for the offline segments of "
+          + "tables: {}", _tieredStorageConfigs.getProperty(TieredSegmentDirectoryLoader.TABLES_KEY));
+    } else {
+      _tieredStorageConfigs = null;
+    }
   }
 
   public void addOrReplaceOfflineSegment(String tableNameWithType, String segmentName) {
@@ -151,7 +169,9 @@ public class SegmentFetcherAndLoader {
         PinotCrypter crypter = (crypterName != null) ? PinotCrypterFactory.create(crypterName) : null;
 
         // Retry will be done here.
-        String localSegmentDir = downloadSegmentToLocal(uri, crypter, tableNameWithType, segmentName);
+        String localSegmentDir = _tieredStorageConfigs != null && TieredSegmentDirectoryLoader
+            .isTieredTable(_tieredStorageConfigs, tableNameWithType) ? fetchSegmentMetadataToLocal(tableNameWithType,
+            segmentName) : downloadSegmentToLocal(uri, crypter, tableNameWithType, segmentName);
         SegmentMetadata segmentMetadata = new SegmentMetadataImpl(new File(localSegmentDir));
         _instanceDataManager.addOfflineSegment(tableNameWithType, segmentName, new File(localSegmentDir));
         LOGGER.info("Downloaded segment {} of table {} crc {} from controller", segmentName, tableNameWithType,
@@ -235,6 +255,35 @@ public class SegmentFetcherAndLoader {
     }
   }
 
+  /**
+   * For the tiered storage, fetches only the metadata of the untarred segment in the remote store, and the index files
+   * are fetched on demand when they are accessed.
+   */
+  private String fetchSegmentMetadataToLocal(String tableName, String segmentName)
+      throws Exception {
+    URI remoteSegmentUri =
+        TieredSegmentDirectoryLoader.getRemoteSegmentUri(_tieredStorageConfigs, tableName, segmentName);
+    File tempIndexDir = new File(new File(_instanceDataManager.getSegmentFileDirectory(), tableName),
+        "tmp-" + segmentName + "-" + UUID.randomUUID());
+    try {
+      TieredSegmentDirectoryLoader.fetchSegmentMetadata(remoteSegmentUri, tempIndexDir);
+      File indexDir = new File(new File(_instanceDataManager.getSegmentDataDirectory(), tableName), segmentName);
+      if (indexDir.exists()) {
+        LOGGER.info("Deleting existing index directory for segment: {} for table: {}", segmentName, tableName);
+        FileUtils.deleteDirectory(indexDir);
+      }
+      FileUtils.moveDirectory(tempIndexDir, indexDir);
+      LOGGER.info("Successfully fetched metadata for segment: {} for table: {} from: {} to: {}", segmentName,
+          tableName, remoteSegmentUri, indexDir);
+      return indexDir.getAbsolutePath();
+    } catch (Exception e) {
+      _serverMetrics.addMeteredTableValue(tableName, ServerMeter.SEGMENT_DOWNLOAD_FAILURES, 1L);
+      throw e;
+    } finally {
+      FileUtils.deleteQuietly(tempIndexDir);
+    }
+  }
+
   public String getSegmentLocalDirectory(String tableName, String segmentId) {
     return _instanceDataManager.getSegmentDataDirectory() + "/" + tableName + "/" + segmentId;
   }
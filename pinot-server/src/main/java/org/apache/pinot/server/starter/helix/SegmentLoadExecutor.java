@@ -0,0 +1,333 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.server.starter.helix;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Server-wide executor to load (and pre-process) segments in parallel, shared by the segments added on startup or by
+ * the state transitions, and the segments reloaded after a schema or index change.
+ *
+ * <ul>
+ *   <li>The total number of segments loaded in parallel on the server is bounded by the number of threads.</li>
+ *   <li>
+ *     The number of segments loaded in parallel for a single table is bounded separately so that one large table
+ *     cannot starve the others.
+ *   </li>
+ *   <li>
+ *     Pending loads are picked by priority (e.g. segment end time) with the highest priority first, so that the most
+ *     recent data becomes queryable soonest.
+ *   </li>
+ * </ul>
+ * <p>Each load acquires the segment lock (if any) before waiting for the table and server-wide bounds, so that a load
+ * never holds a slot while waiting for a segment lock held by another load waiting for a slot.
+ */
+@ThreadSafe
+public class SegmentLoadExecutor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentLoadExecutor.class);
+
+  private final int _numThreads;
+  private final int _maxParallelLoadsPerTable;
+  private final ServerMetrics _serverMetrics;
+  // Threads to run the bulk loads, where the segments actually loading are bounded by the permits
+  private final ExecutorService _executor;
+  private final LoadPermits _loadPermits;
+  private final Map<String, Semaphore> _tableSemaphores = new ConcurrentHashMap<>();
+  private final AtomicInteger _numPendingLoads = new AtomicInteger();
+  private final AtomicInteger _numLoadsInProgress = new AtomicInteger();
+
+  public SegmentLoadExecutor(int numThreads, int maxParallelLoadsPerTable, @Nullable ServerMetrics serverMetrics) {
+    Preconditions.checkArgument(numThreads > 0, "Number of threads must be positive, got: %s", numThreads);
+    _numThreads = numThreads;
+    _maxParallelLoadsPerTable = maxParallelLoadsPerTable > 0 ? maxParallelLoadsPerTable : numThreads;
+    _serverMetrics = serverMetrics;
+    AtomicInteger threadId = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "segment-load-" + threadId.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+    _executor = Executors.newFixedThreadPool(numThreads, threadFactory);
+    _loadPermits = new LoadPermits(numThreads);
+    LOGGER.info("Initialized segment load executor with {} threads, max {} parallel loads per table", numThreads,
+        _maxParallelLoadsPerTable);
+  }
+
+  public int getNumThreads() {
+    return _numThreads;
+  }
+
+  /**
+   * Returns the number of loads waiting for a server-wide slot.
+   */
+  @VisibleForTesting
+  int getNumWaitingLoads() {
+    return _loadPermits.getNumWaiters();
+  }
+
+  /**
+   * Loads a single segment of a table on the calling thread once it gets a slot, and blocks until the load finishes.
+   * Used for the segments added by the concurrent state transitions, so that they share the same bounds and priority
+   * order as the bulk loads.
+   */
+  public void load(String tableNameWithType, SegmentLoad segmentLoad)
+      throws Exception {
+    _numPendingLoads.incrementAndGet();
+    updateGauges();
+    runLoad(tableNameWithType, segmentLoad);
+  }
+
+  /**
+   * Loads the given segments of a table in parallel, and blocks until all the loads finish. All the loads are attempted
+   * even if some of them fail, and the first failure is thrown with the other failures suppressed.
+   */
+  public void loadAll(String tableNameWithType, List<SegmentLoad> segmentLoads)
+      throws Exception {
+    int numSegments = segmentLoads.size();
+    if (numSegments == 0) {
+      return;
+    }
+    List<SegmentLoad> sortedSegmentLoads = new ArrayList<>(segmentLoads);
+    sortedSegmentLoads.sort(Comparator.comparingLong(SegmentLoad::getPriority).reversed());
+    Queue<SegmentLoad> pendingLoads = new ConcurrentLinkedQueue<>(sortedSegmentLoads);
+
+    long startTimeMs = System.currentTimeMillis();
+    AtomicInteger numLoaded = new AtomicInteger();
+    List<Exception> failures = new ArrayList<>();
+    _numPendingLoads.addAndGet(numSegments);
+    updateGauges();
+    // Each worker picks the pending loads in priority order, and there is no point to have more workers than the loads
+    // allowed in parallel for the table
+    int numWorkers = Math.min(_maxParallelLoadsPerTable, numSegments);
+    CountDownLatch latch = new CountDownLatch(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      _executor.execute(() -> {
+        try {
+          SegmentLoad segmentLoad;
+          while ((segmentLoad = pendingLoads.poll()) != null) {
+            try {
+              runLoad(tableNameWithType, segmentLoad);
+              int loaded = numLoaded.incrementAndGet();
+              if (loaded % 100 == 0) {
+                LOGGER.info("Loaded {}/{} segments in table: {}", loaded, numSegments, tableNameWithType);
+              }
+            } catch (Exception e) {
+              LOGGER.error("Caught exception while loading segment: {} in table: {}", segmentLoad._segmentName,
+                  tableNameWithType, e);
+              synchronized (failures) {
+                failures.add(e);
+              }
+            }
+          }
+        } finally {
+          latch.countDown();
+        }
+      });
+    }
+    latch.await();
+
+    LOGGER.info("Loaded {}/{} segments in table: {} in {}ms", numLoaded.get(), numSegments, tableNameWithType,
+        System.currentTimeMillis() - startTimeMs);
+    if (!failures.isEmpty()) {
+      Exception failure = failures.get(0);
+      for (int i = 1; i < failures.size(); i++) {
+        failure.addSuppressed(failures.get(i));
+      }
+      throw failure;
+    }
+  }
+
+  /**
+   * Runs a pending load on the current thread, in the order of: segment lock, table slot, server-wide slot.
+   */
+  private void runLoad(String tableNameWithType, SegmentLoad segmentLoad)
+      throws Exception {
+    Lock lock = segmentLoad._lock;
+    if (lock != null) {
+      lock.lock();
+    }
+    boolean started = false;
+    try {
+      Semaphore tableSemaphore =
+          _tableSemaphores.computeIfAbsent(tableNameWithType, k -> new Semaphore(_maxParallelLoadsPerTable));
+      tableSemaphore.acquire();
+      try {
+        _loadPermits.acquire(segmentLoad._priority);
+        try {
+          started = true;
+          _numPendingLoads.decrementAndGet();
+          _numLoadsInProgress.incrementAndGet();
+          updateGauges();
+          segmentLoad._loader.load();
+        } finally {
+          _numLoadsInProgress.decrementAndGet();
+          _loadPermits.release();
+        }
+      } finally {
+        tableSemaphore.release();
+      }
+    } finally {
+      if (!started) {
+        // Interrupted before the load starts
+        _numPendingLoads.decrementAndGet();
+      }
+      updateGauges();
+      if (lock != null) {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void updateGauges() {
+    if (_serverMetrics != null) {
+      _serverMetrics.setValueOfGlobalGauge(ServerGauge.SEGMENT_LOADS_PENDING, _numPendingLoads.get());
+      _serverMetrics.setValueOfGlobalGauge(ServerGauge.SEGMENT_LOADS_IN_PROGRESS, _numLoadsInProgress.get());
+    }
+  }
+
+  public void shutDown() {
+    _executor.shutdownNow();
+  }
+
+  /**
+   * Loads a segment.
+   */
+  public interface SegmentLoader {
+    void load()
+        throws Exception;
+  }
+
+  /**
+   * A segment to be loaded with its priority, where the segment with higher priority is loaded first.
+   */
+  public static class SegmentLoad {
+    private final String _segmentName;
+    private final long _priority;
+    private final Lock _lock;
+    private final SegmentLoader _loader;
+
+    public SegmentLoad(String segmentName, long priority, SegmentLoader loader) {
+      this(segmentName, priority, null, loader);
+    }
+
+    /**
+     * @param lock Optional segment lock to hold during the load, which is acquired before waiting for a slot
+     */
+    public SegmentLoad(String segmentName, long priority, @Nullable Lock lock, SegmentLoader loader) {
+      _segmentName = segmentName;
+      _priority = priority;
+      _lock = lock;
+      _loader = loader;
+    }
+
+    public String getSegmentName() {
+      return _segmentName;
+    }
+
+    public long getPriority() {
+      return _priority;
+    }
+  }
+
+  /**
+   * Server-wide permits for the segments loading in parallel, which are granted to the waiting load with the highest
+   * priority first (FIFO for the same priority).
+   */
+  private static class LoadPermits {
+    private final PriorityQueue<Waiter> _waiters = new PriorityQueue<>();
+    private int _numAvailablePermits;
+    private long _sequence;
+
+    LoadPermits(int numPermits) {
+      _numAvailablePermits = numPermits;
+    }
+
+    synchronized void acquire(long priority)
+        throws InterruptedException {
+      if (_waiters.isEmpty() && _numAvailablePermits > 0) {
+        _numAvailablePermits--;
+        return;
+      }
+      Waiter waiter = new Waiter(priority, _sequence++);
+      _waiters.add(waiter);
+      try {
+        while (_numAvailablePermits == 0 || _waiters.peek() != waiter) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        _waiters.remove(waiter);
+        notifyAll();
+        throw e;
+      }
+      _waiters.poll();
+      _numAvailablePermits--;
+      // The next waiter might also get a permit
+      notifyAll();
+    }
+
+    synchronized void release() {
+      _numAvailablePermits++;
+      notifyAll();
+    }
+
+    synchronized int getNumWaiters() {
+      return _waiters.size();
+    }
+  }
+
+  private static class Waiter implements Comparable<Waiter> {
+    final long _priority;
+    final long _sequence;
+
+    Waiter(long priority, long sequence) {
+      _priority = priority;
+      _sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(Waiter o) {
+      // Higher priority first, then first come first served
+      int result = Long.compare(o._priority, _priority);
+      return result != 0 ? result : Long.compare(_sequence, o._sequence);
+    }
+  }
+}
@@ -145,8 +145,8 @@ public class SegmentMessageHandlerFactory implements MessageHandlerFactory {
       try {
         if (_segmentName.equals("")) {
           acquireSema("ALL", _logger);
-          // NOTE: the method aborts if any segment reload encounters an unhandled exception - can lead to inconsistent
-          // state across segments
+          // NOTE: the method attempts to reload all the segments, and throws if any segment reload encounters an
+          // unhandled exception - can lead to inconsistent state across segments
           _instanceDataManager.reloadAllSegments(_tableNameWithType);
         } else {
           // Reload one segment
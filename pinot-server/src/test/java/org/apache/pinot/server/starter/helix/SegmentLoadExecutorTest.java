@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.server.starter.helix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class SegmentLoadExecutorTest {
+
+  @Test
+  public void testPriorityOrder()
+      throws Exception {
+    SegmentLoadExecutor executor = new SegmentLoadExecutor(1, 1, null);
+    List<String> loadedSegments = Collections.synchronizedList(new ArrayList<>());
+    List<SegmentLoadExecutor.SegmentLoad> segmentLoads = new ArrayList<>();
+    long[] priorities = new long[]{3, 1, 4, 2};
+    for (long priority : priorities) {
+      String segmentName = "segment_" + priority;
+      segmentLoads
+          .add(new SegmentLoadExecutor.SegmentLoad(segmentName, priority, () -> loadedSegments.add(segmentName)));
+    }
+    executor.loadAll("testTable_OFFLINE", segmentLoads);
+    assertEquals(loadedSegments, Arrays.asList("segment_4", "segment_3", "segment_2", "segment_1"));
+    executor.shutDown();
+  }
+
+  @Test
+  public void testMaxParallelLoadsPerTable()
+      throws Exception {
+    int maxParallelLoadsPerTable = 2;
+    SegmentLoadExecutor executor = new SegmentLoadExecutor(4, maxParallelLoadsPerTable, null);
+    AtomicInteger numLoadsInProgress = new AtomicInteger();
+    AtomicInteger maxNumLoadsInProgress = new AtomicInteger();
+    List<SegmentLoadExecutor.SegmentLoad> segmentLoads = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      segmentLoads.add(new SegmentLoadExecutor.SegmentLoad("segment_" + i, i, () -> {
+        int numLoads = numLoadsInProgress.incrementAndGet();
+        maxNumLoadsInProgress.accumulateAndGet(numLoads, Math::max);
+        Thread.sleep(10);
+        numLoadsInProgress.decrementAndGet();
+      }));
+    }
+    executor.loadAll("testTable_OFFLINE", segmentLoads);
+    assertTrue(maxNumLoadsInProgress.get() <= maxParallelLoadsPerTable);
+    executor.shutDown();
+  }
+
+  @Test
+  public void testSingleLoads()
+      throws Exception {
+    SegmentLoadExecutor executor = new SegmentLoadExecutor(1, 0, null);
+    ExecutorService callers = Executors.newFixedThreadPool(3);
+    List<String> loadedSegments = Collections.synchronizedList(new ArrayList<>());
+
+    // Occupy the only slot
+    CountDownLatch loadStarted = new CountDownLatch(1);
+    CountDownLatch finishLoad = new CountDownLatch(1);
+    callers.submit(() -> {
+      executor.load("testTable_OFFLINE", new SegmentLoadExecutor.SegmentLoad("segment_0", 0, () -> {
+        loadStarted.countDown();
+        finishLoad.await();
+      }));
+      return null;
+    });
+    loadStarted.await();
+
+    // Single loads from the other threads should wait for the slot, and then run in priority order
+    for (int i = 1; i <= 2; i++) {
+      String segmentName = "segment_" + i;
+      long priority = i;
+      callers.submit(() -> {
+        executor.load("testTable_REALTIME",
+            new SegmentLoadExecutor.SegmentLoad(segmentName, priority, () -> loadedSegments.add(segmentName)));
+        return null;
+      });
+    }
+    waitForWaitingLoads(executor, 2);
+    finishLoad.countDown();
+    callers.shutdown();
+    assertTrue(callers.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(loadedSegments, Arrays.asList("segment_2", "segment_1"));
+    executor.shutDown();
+  }
+
+  @Test
+  public void testSegmentLockAcquiredBeforeSlot()
+      throws Exception {
+    SegmentLoadExecutor executor = new SegmentLoadExecutor(1, 0, null);
+    ExecutorService callers = Executors.newSingleThreadExecutor();
+    Lock segmentLock = new ReentrantLock();
+    AtomicInteger numLoaded = new AtomicInteger();
+
+    // Load waiting for the segment lock should not hold the only slot
+    segmentLock.lock();
+    try {
+      callers.submit(() -> {
+        executor.load("testTable_OFFLINE",
+            new SegmentLoadExecutor.SegmentLoad("segment_0", 0, segmentLock, numLoaded::incrementAndGet));
+        return null;
+      });
+      executor.load("testTable_OFFLINE",
+          new SegmentLoadExecutor.SegmentLoad("segment_1", 1, numLoaded::incrementAndGet));
+      assertEquals(numLoaded.get(), 1);
+    } finally {
+      segmentLock.unlock();
+    }
+    callers.shutdown();
+    assertTrue(callers.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(numLoaded.get(), 2);
+    executor.shutDown();
+  }
+
+  private static void waitForWaitingLoads(SegmentLoadExecutor executor, int numWaitingLoads)
+      throws InterruptedException {
+    long deadlineMs = System.currentTimeMillis() + 10_000L;
+    while (executor.getNumWaitingLoads() != numWaitingLoads) {
+      assertTrue(System.currentTimeMillis() < deadlineMs, "Timed out waiting for the loads to wait for the slot");
+      Thread.sleep(10L);
+    }
+  }
+
+  @Test
+  public void testFailures()
+      throws Exception {
+    SegmentLoadExecutor executor = new SegmentLoadExecutor(2, 0, null);
+    AtomicInteger numLoaded = new AtomicInteger();
+    List<SegmentLoadExecutor.SegmentLoad> segmentLoads = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      boolean shouldFail = i % 5 == 0;
+      segmentLoads.add(new SegmentLoadExecutor.SegmentLoad("segment_" + i, i, () -> {
+        if (shouldFail) {
+          throw new IllegalStateException("Failed to load");
+        }
+        numLoaded.incrementAndGet();
+      }));
+    }
+    try {
+      executor.loadAll("testTable_OFFLINE", segmentLoads);
+      fail("Expected exception");
+    } catch (IllegalStateException e) {
+      assertEquals(e.getSuppressed().length, 1);
+    }
+    // All the other segments should still be loaded
+    assertEquals(numLoaded.get(), 8);
+    executor.shutDown();
+  }
+}
@@ -53,6 +53,10 @@ public interface InstanceDataManagerConfig {
 
   int getMaxParallelSegmentBuilds();
 
+  long getRealtimeConsumingMemoryBudgetBytes();
+
+  int getRealtimeAdaptiveFlushMinRows();
+
   String getAuthToken();
 
   String getTierBackend();
@@ -60,4 +64,10 @@ public interface InstanceDataManagerConfig {
   PinotConfiguration getTierConfigs();
 
   long getErrorCacheSize();
+
+  boolean isLazyColumnLoadingEnabled();
+
+  long getLazyColumnIdleEvictionMs();
+
+  boolean isAccessPatternPrefetchEnabled();
 }
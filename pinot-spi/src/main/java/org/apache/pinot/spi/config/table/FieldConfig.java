@@ -73,7 +73,9 @@ public class FieldConfig extends BaseJsonConfig {
   }
 
   public enum CompressionCodec {
-    PASS_THROUGH, SNAPPY, ZSTANDARD
+    PASS_THROUGH, SNAPPY, ZSTANDARD, LZ4,
+    // Numeric encodings, only applicable to single-value INT/LONG columns
+    DELTA, DELTA_DELTA, FRAME_OF_REFERENCE
   }
 
   public String getName() {
@@ -30,6 +30,8 @@ public class IndexingConfig extends BaseJsonConfig {
   private List<String> _rangeIndexColumns;
   private List<String> _jsonIndexColumns;
   private List<String> _h3IndexColumns;
+  private List<String> _zoneMapColumns;
+  private List<String> _warmUpColumns;
   private boolean _autoGeneratedInvertedIndex;
   private boolean _createInvertedIndexDuringSegmentGeneration;
   private List<String> _sortedColumn;
@@ -51,6 +53,13 @@ public class IndexingConfig extends BaseJsonConfig {
   private boolean _aggregateMetrics;
   private boolean _nullHandlingEnabled;
 
+  /**
+   * Number of rows indexed into a consuming segment before they are published to the queries as a consistent snapshot.
+   * Queries on consuming segments read the published snapshot without locking. A value of 0 disables snapshot, and the
+   * rows are visible to the queries as soon as they are indexed.
+   */
+  private int _consumingSegmentSnapshotBatchSize;
+
   /**
    * The list of columns for which the variable length dictionary needs to be enabled in offline
    * segments. This is only valid for string and bytes columns and has no impact for columns of
@@ -58,6 +67,18 @@ public class IndexingConfig extends BaseJsonConfig {
    */
   private List<String> _varLengthDictionaryColumns;
 
+  /**
+   * The list of columns for which the front-coded (prefix compressed) dictionary needs to be enabled. This is only
+   * valid for string and bytes columns, and takes precedence over the variable length dictionary.
+   */
+  private List<String> _frontCodedDictionaryColumns;
+
+  /**
+   * The list of columns whose min/max values are stored in the segment ZK metadata, so that the broker can prune the
+   * segments based on the values before routing the query. Only valid for numeric and string columns.
+   */
+  private List<String> _minMaxValueSegmentPruningColumns;
+
   @Nullable
   public List<String> getInvertedIndexColumns() {
     return _invertedIndexColumns;
@@ -83,6 +104,30 @@ public class IndexingConfig extends BaseJsonConfig {
     _jsonIndexColumns = jsonIndexColumns;
   }
 
+  /**
+   * Returns the columns to create the page-level min/max zone maps for, which allows the scan-based filters to skip the
+   * pages that cannot match the predicate.
+   */
+  public List<String> getZoneMapColumns() {
+    return _zoneMapColumns;
+  }
+
+  public void setZoneMapColumns(List<String> zoneMapColumns) {
+    _zoneMapColumns = zoneMapColumns;
+  }
+
+  /**
+   * Returns the columns (typically the ones accessed by the hottest queries) whose index buffers should be prefetched
+   * into memory right after loading the segments in mmap mode, so that the first queries do not suffer page faults.
+   */
+  public List<String> getWarmUpColumns() {
+    return _warmUpColumns;
+  }
+
+  public void setWarmUpColumns(List<String> warmUpColumns) {
+    _warmUpColumns = warmUpColumns;
+  }
+
   public boolean isAutoGeneratedInvertedIndex() {
     return _autoGeneratedInvertedIndex;
   }
@@ -201,6 +246,22 @@ public class IndexingConfig extends BaseJsonConfig {
     _varLengthDictionaryColumns = varLengthDictionaryColumns;
   }
 
+  public List<String> getFrontCodedDictionaryColumns() {
+    return _frontCodedDictionaryColumns;
+  }
+
+  public void setFrontCodedDictionaryColumns(List<String> frontCodedDictionaryColumns) {
+    _frontCodedDictionaryColumns = frontCodedDictionaryColumns;
+  }
+
+  public List<String> getMinMaxValueSegmentPruningColumns() {
+    return _minMaxValueSegmentPruningColumns;
+  }
+
+  public void setMinMaxValueSegmentPruningColumns(List<String> minMaxValueSegmentPruningColumns) {
+    _minMaxValueSegmentPruningColumns = minMaxValueSegmentPruningColumns;
+  }
+
   public boolean isEnableDefaultStarTree() {
     return _enableDefaultStarTree;
   }
@@ -250,4 +311,12 @@ public class IndexingConfig extends BaseJsonConfig {
   public void setNullHandlingEnabled(boolean nullHandlingEnabled) {
     _nullHandlingEnabled = nullHandlingEnabled;
   }
+
+  public int getConsumingSegmentSnapshotBatchSize() {
+    return _consumingSegmentSnapshotBatchSize;
+  }
+
+  public void setConsumingSegmentSnapshotBatchSize(int consumingSegmentSnapshotBatchSize) {
+    _consumingSegmentSnapshotBatchSize = consumingSegmentSnapshotBatchSize;
+  }
 }
@@ -27,6 +27,8 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.pinot.spi.annotations.InterfaceAudience;
 import org.apache.pinot.spi.annotations.InterfaceStability;
 import org.apache.pinot.spi.env.PinotConfiguration;
@@ -246,6 +248,28 @@ public abstract class PinotFS implements Closeable, Serializable {
   public abstract InputStream open(URI uri)
       throws IOException;
 
+  /**
+   * Opens a file in the underlying filesystem and returns an InputStream to read the given range of it.
+   * The default implementation opens the whole file and skips the bytes before the offset. Filesystems supporting range
+   * reads should override this method to only fetch the requested range.
+   * @param uri location of the file to open
+   * @param offset offset of the first byte to read
+   * @param length number of bytes to read
+   * @return a new InputStream reading at most length bytes starting from the offset
+   * @throws IOException on any IO error - missing file, not a file, offset beyond the end of the file etc
+   */
+  public InputStream open(URI uri, long offset, long length)
+      throws IOException {
+    InputStream inputStream = open(uri);
+    try {
+      IOUtils.skipFully(inputStream, offset);
+    } catch (IOException e) {
+      inputStream.close();
+      throw e;
+    }
+    return new BoundedInputStream(inputStream, length);
+  }
+
   /**
    * For certain filesystems, we may need to close the filesystem and do relevant operations to prevent leaks.
    * By default, this method does nothing.
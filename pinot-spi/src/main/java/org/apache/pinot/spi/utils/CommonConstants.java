@@ -197,6 +197,77 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_GROUPBY_TRIM_THRESHOLD = "pinot.broker.groupby.trim.threshold";
     public static final int DEFAULT_BROKER_GROUPBY_TRIM_THRESHOLD = 1_000_000;
 
+    // Configs for the hedged requests, which re-send the segments of the straggling servers to the alternate servers
+    public static final String CONFIG_OF_HEDGED_REQUEST_ENABLED = "pinot.broker.hedged.request.enabled";
+    public static final boolean DEFAULT_HEDGED_REQUEST_ENABLED = false;
+    // Hedged requests are sent after the given percentile of the recent server latencies of the table
+    public static final String CONFIG_OF_HEDGED_REQUEST_DELAY_PERCENTILE =
+        "pinot.broker.hedged.request.delay.percentile";
+    public static final double DEFAULT_HEDGED_REQUEST_DELAY_PERCENTILE = 95;
+    public static final String CONFIG_OF_HEDGED_REQUEST_MIN_DELAY_MS = "pinot.broker.hedged.request.min.delay.ms";
+    public static final long DEFAULT_HEDGED_REQUEST_MIN_DELAY_MS = 10L;
+    // Max ratio of the hedged requests over the server requests for each table
+    public static final String CONFIG_OF_HEDGED_REQUEST_BUDGET_RATIO = "pinot.broker.hedged.request.budget.ratio";
+    public static final double DEFAULT_HEDGED_REQUEST_BUDGET_RATIO = 0.05;
+    // Max number of hedged requests that can be sent in a burst for each table
+    public static final String CONFIG_OF_HEDGED_REQUEST_MAX_BURST = "pinot.broker.hedged.request.max.burst";
+    public static final int DEFAULT_HEDGED_REQUEST_MAX_BURST = 10;
+
+    // Whether to send cancel requests to the servers not responded before the query finishes (e.g. timed out, client
+    // disconnected), so that the servers can stop executing the query. Should only be enabled after all the servers
+    // are upgraded to support the cancel requests.
+    public static final String CONFIG_OF_QUERY_CANCELLATION_ENABLED = "pinot.broker.query.cancellation.enabled";
+    public static final boolean DEFAULT_QUERY_CANCELLATION_ENABLED = false;
+
+    // Whether to split the table query quota among the brokers based on the load observed by each broker (exchanged
+    // periodically between the brokers) instead of evenly
+    public static final String CONFIG_OF_QUERY_QUOTA_DISTRIBUTED_ENABLED =
+        "pinot.broker.query.quota.distributed.enabled";
+    public static final boolean DEFAULT_QUERY_QUOTA_DISTRIBUTED_ENABLED = false;
+    // Interval to exchange the load between the brokers and rebalance the query quota
+    public static final String CONFIG_OF_QUERY_QUOTA_SYNC_INTERVAL_MS = "pinot.broker.query.quota.sync.interval.ms";
+    public static final long DEFAULT_QUERY_QUOTA_SYNC_INTERVAL_MS = 1000L;
+    // Max number of seconds of unused query quota that can be saved to absorb bursts beyond the quota, 0 to disable
+    public static final String CONFIG_OF_QUERY_QUOTA_BURST_SECONDS = "pinot.broker.query.quota.burst.seconds";
+    public static final double DEFAULT_QUERY_QUOTA_BURST_SECONDS = 0;
+    // Auth token (value of the authorization header) sent with the load exchanged between the brokers, required when
+    // the broker access control is enabled
+    public static final String CONFIG_OF_QUERY_QUOTA_GOSSIP_AUTH_TOKEN = "pinot.broker.query.quota.gossip.auth.token";
+
+    // Max number of compiled query templates cached in the broker, 0 to disable the compiled query cache. Also used as
+    // the max number of optimized filters and the max number of pruned segment lists (per table) cached in the broker
+    public static final String CONFIG_OF_COMPILED_QUERY_CACHE_SIZE = "pinot.broker.compiled.query.cache.size";
+    public static final int DEFAULT_COMPILED_QUERY_CACHE_SIZE = 0;
+
+    // Whether to propagate the absolute query deadline to the servers so that the servers can drop the queries the
+    // broker no longer waits for. The deadline is an epoch timestamp, so the clocks of the broker and servers should be
+    // synchronized. Should only be enabled after all the servers are upgraded to support the deadline.
+    public static final String CONFIG_OF_QUERY_DEADLINE_PROPAGATION_ENABLED =
+        "pinot.broker.query.deadline.propagation.enabled";
+    public static final boolean DEFAULT_QUERY_DEADLINE_PROPAGATION_ENABLED = false;
+    // Time subtracted from the deadline propagated to the servers (at most half of the server timeout), reserved for
+    // the network transfer and the reduce of the server responses, so that the partial results arrive before the
+    // broker stops waiting
+    public static final String CONFIG_OF_QUERY_DEADLINE_MARGIN_MS = "pinot.broker.query.deadline.margin.ms";
+    public static final long DEFAULT_QUERY_DEADLINE_MARGIN_MS = 100L;
+    // Whether to derive the per-server deadline from the recent latencies of the server instead of the query timeout,
+    // so that a slow server is cut off early (with partial results if allowed). Requires the deadline propagation.
+    public static final String CONFIG_OF_ADAPTIVE_SERVER_TIMEOUT_ENABLED =
+        "pinot.broker.adaptive.server.timeout.enabled";
+    public static final boolean DEFAULT_ADAPTIVE_SERVER_TIMEOUT_ENABLED = false;
+    // The per-server timeout is the given percentile of the recent server latencies multiplied by the multiplier, and
+    // bounded by the min timeout and the query timeout. The multiplier must be larger than 1 so that the requests timed
+    // out (recorded at the current timeout) can grow the timeout back.
+    public static final String CONFIG_OF_ADAPTIVE_SERVER_TIMEOUT_PERCENTILE =
+        "pinot.broker.adaptive.server.timeout.percentile";
+    public static final double DEFAULT_ADAPTIVE_SERVER_TIMEOUT_PERCENTILE = 99;
+    public static final String CONFIG_OF_ADAPTIVE_SERVER_TIMEOUT_MULTIPLIER =
+        "pinot.broker.adaptive.server.timeout.multiplier";
+    public static final double DEFAULT_ADAPTIVE_SERVER_TIMEOUT_MULTIPLIER = 3;
+    public static final String CONFIG_OF_ADAPTIVE_SERVER_TIMEOUT_MIN_MS =
+        "pinot.broker.adaptive.server.timeout.min.ms";
+    public static final long DEFAULT_ADAPTIVE_SERVER_TIMEOUT_MIN_MS = 100L;
+
     public static final String BROKER_TLS_PREFIX = "pinot.broker.tls";
     public static final String BROKER_NETTYTLS_ENABLED = "pinot.broker.nettytls.enabled";
 
@@ -213,6 +284,7 @@ public class CommonConstants {
         public static final String RESPONSE_FORMAT = "responseFormat";
         public static final String GROUP_BY_MODE = "groupByMode";
         public static final String SKIP_UPSERT = "skipUpsert";
+        public static final String ALLOW_PARTIAL_RESULTS = "allowPartialResults";
       }
     }
   }
@@ -249,6 +321,25 @@ public class CommonConstants {
     public static final String CONFIG_OF_REALTIME_OFFHEAP_ALLOCATION = "pinot.server.instance.realtime.alloc.offheap";
     public static final String CONFIG_OF_REALTIME_OFFHEAP_DIRECT_ALLOCATION =
         "pinot.server.instance.realtime.alloc.offheap.direct";
+    // Configs for the text index of the consuming segments
+    // When enabled, the RAM buffers of the text index writers are bounded by a budget shared across all the consuming
+    // segments on the server, so that the text index is flushed into (memory-mapped) index files on disk early
+    public static final String CONFIG_OF_REALTIME_TEXT_INDEX_OFFHEAP_ENABLED =
+        "pinot.server.instance.realtime.text.index.offheap";
+    public static final boolean DEFAULT_REALTIME_TEXT_INDEX_OFFHEAP_ENABLED = false;
+    public static final String CONFIG_OF_REALTIME_TEXT_INDEX_RAM_BUFFER_BUDGET_MB =
+        "pinot.server.instance.realtime.text.index.ram.buffer.budget.mb";
+    public static final double DEFAULT_REALTIME_TEXT_INDEX_RAM_BUFFER_BUDGET_MB = 500;
+    public static final String CONFIG_OF_REALTIME_TEXT_INDEX_REFRESH_THREADS =
+        "pinot.server.instance.realtime.text.index.refresh.threads";
+    public static final int DEFAULT_REALTIME_TEXT_INDEX_REFRESH_THREADS = 1;
+    // Configs for the chunk-based raw forward indexes, sizes in data size format (e.g. 512M)
+    // Size of the process-wide cache of decompressed chunks shared across queries, 0 to disable
+    public static final String CONFIG_OF_CHUNK_CACHE_SIZE = "pinot.server.instance.chunk.cache.size";
+    public static final String DEFAULT_CHUNK_CACHE_SIZE = "0";
+    // Max size of the pooled chunk decompression buffers reused across queries, 0 to disable
+    public static final String CONFIG_OF_CHUNK_BUFFER_POOL_SIZE = "pinot.server.instance.chunk.buffer.pool.size";
+    public static final String DEFAULT_CHUNK_BUFFER_POOL_SIZE = "0";
     public static final String PREFIX_OF_CONFIG_OF_PINOT_FS_FACTORY = "pinot.server.storage.factory";
     public static final String PREFIX_OF_CONFIG_OF_PINOT_CRYPTER = "pinot.server.crypter";
     public static final String CONFIG_OF_VALUE_PRUNER_IN_PREDICATE_THRESHOLD = "pinot.server.query.executor.pruner.columnvaluesegmentpruner.inpredicate.threshold";
@@ -468,6 +559,9 @@ public class CommonConstants {
     public static final String FLUSH_THRESHOLD_SIZE = "segment.flush.threshold.size";
     public static final String FLUSH_THRESHOLD_TIME = "segment.flush.threshold.time";
     public static final String PARTITION_METADATA = "segment.partition.metadata";
+    // Min/max values of the columns used by the broker to prune segments (map from column to value)
+    public static final String COLUMN_MIN_VALUES = "segment.column.min.values";
+    public static final String COLUMN_MAX_VALUES = "segment.column.max.values";
     /**
      * This field is used for parallel push protection to lock the segment globally.
      * We put the segment upload start timestamp so that if the previous push failed without unlock the segment, the